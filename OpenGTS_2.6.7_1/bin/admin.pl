@@ -41,6 +41,7 @@ $Opt_Tables      = "$GTS_STD_PKG.opt.tables";
     "Device"            => $Standard_Tables . ".Device",
     "DeviceGroup"       => $Standard_Tables . ".DeviceGroup",
     "DeviceList"        => $Standard_Tables . ".DeviceList",
+    "DeviceDailySummary"=> $Standard_Tables . ".DeviceDailySummary",
     "EventData"         => $Standard_Tables . ".EventData",
     "EventDataExtra"    => $Standard_Tables . ".EventDataExtra",
     "Driver"            => $Standard_Tables . ".Driver",
@@ -50,6 +51,7 @@ $Opt_Tables      = "$GTS_STD_PKG.opt.tables";
     "RoleAcl"           => $Standard_Tables . ".RoleAcl",
     "StatusCode"        => $Standard_Tables . ".StatusCode",
     "SystemProps"       => $Standard_Tables . ".SystemProps",
+    "ReportQueue"       => $Standard_Tables . ".ReportQueue",
     "Transport"         => $Standard_Tables . ".Transport",
     "UniqueXID"         => $Standard_Tables . ".UniqueXID",
     "User"              => $Standard_Tables . ".User",
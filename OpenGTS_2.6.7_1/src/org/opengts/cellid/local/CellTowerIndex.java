@@ -0,0 +1,442 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2020, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Compact read-only on-disk table of cell-tower locations
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19  GTS Development Team
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.cellid.local;
+
+import java.lang.*;
+import java.util.*;
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+
+import org.opengts.util.*;
+
+/**
+*** CellTowerIndex class<br>
+*** A memory-mapped table of cell-tower locations, keyed by MCC/MNC/LAC/CID.  The keys are
+*** packed into a single 64-bit value, and stored as a sorted array, separately from the
+*** location records, so that a lookup is a binary search over the (page-cached) key array
+*** followed by a single record read.  No objects are allocated, other than the result.
+*** <br>
+*** File layout (big-endian):
+***   [header] [keys: long * count] [records: lat,lon,range,samples * count]
+*** <br>
+*** Key layout: MCC (10 bits), MNC (10 bits), LAC/TAC (16 bits), CID (28 bits).  Cells with
+*** values outside these ranges (ie. 5G NR 36-bit cell identities) cannot be indexed.
+*** <br>
+*** An index is created with the <code>CellTowerIndex.Builder</code> class (see also the
+*** "LocalCellTower" command-line import).
+**/
+public class CellTowerIndex
+{
+
+    // ------------------------------------------------------------------------
+
+    private static final int    MAGIC                       = 0x43544958; // "CTIX"
+    private static final int    VERSION                     = 1;
+    private static final int    HEADER_SIZE                 = 64;
+
+    private static final int    KEY_SIZE                    = 8;
+    private static final int    RECORD_SIZE                 = 16; // lat,lon,range,samples
+
+    public  static final int    MAX_MCC                     = (1 << 10) - 1;
+    public  static final int    MAX_MNC                     = (1 << 10) - 1;
+    public  static final int    MAX_LAC                     = (1 << 16) - 1;
+    public  static final int    MAX_CID                     = (1 << 28) - 1;
+
+    private static final double COORD_SCALE                 = 1000000.0;
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Packs the specified cell identity into a table key
+    *** @return The key, or -1 if the cell identity cannot be indexed
+    **/
+    public static long getKey(int mcc, int mnc, int lac, int cid)
+    {
+        if ((mcc < 0) || (mcc > MAX_MCC) ||
+            (mnc < 0) || (mnc > MAX_MNC) ||
+            (lac < 0) || (lac > MAX_LAC) ||
+            (cid < 0) || (cid > MAX_CID)   ) {
+            return -1L;
+        }
+        // -- bit-63 is always clear (MCC <= 999), so keys sort as unsigned
+        return ((long)mcc << 54) | ((long)mnc << 44) | ((long)lac << 28) | (long)cid;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Cell location lookup result
+    **/
+    public static class Cell
+    {
+        private double latitude  = 0.0;
+        private double longitude = 0.0;
+        private int    rangeM    = 0;
+        private int    samples   = 0;
+        public double getLatitude() {
+            return this.latitude;
+        }
+        public double getLongitude() {
+            return this.longitude;
+        }
+        public int getRangeMeters() {
+            return this.rangeM;
+        }
+        public int getSampleCount() {
+            return this.samples;
+        }
+        public String toString() {
+            return this.latitude + "/" + this.longitude + " range=" + this.rangeM + "m samples=" + this.samples;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    private File                indexFile       = null;
+    private ByteBuffer          keyMap          = null;
+    private ByteBuffer          recordMap       = null;
+    private int                 cellCount       = 0;
+
+    /**
+    *** Constructor
+    *** @param file  The index file
+    *** @throws IOException  If the index cannot be read
+    **/
+    public CellTowerIndex(File file)
+        throws IOException
+    {
+        super();
+        this.indexFile = file;
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            long len = raf.length();
+            if (len < HEADER_SIZE) {
+                throw new IOException("Invalid cell-tower index (too short): " + file);
+            }
+            FileChannel fc = raf.getChannel();
+            ByteBuffer hdr = fc.map(FileChannel.MapMode.READ_ONLY, 0L, HEADER_SIZE);
+            if (hdr.getInt(0) != MAGIC) {
+                throw new IOException("Invalid cell-tower index (magic): " + file);
+            } else
+            if (hdr.getInt(4) != VERSION) {
+                throw new IOException("Unsupported cell-tower index version: " + hdr.getInt(4));
+            }
+            this.cellCount = hdr.getInt(8);
+            long keysOfs   = hdr.getLong(16);
+            long recsOfs   = hdr.getLong(24);
+            long fileLen   = hdr.getLong(32);
+            if ((this.cellCount < 0) || (fileLen != len) ||
+                (keysOfs + ((long)this.cellCount * KEY_SIZE   ) > recsOfs) ||
+                (recsOfs + ((long)this.cellCount * RECORD_SIZE) > len    )   ) {
+                throw new IOException("Invalid cell-tower index (truncated): " + file);
+            }
+            // -- keys and records are mapped separately (each must be < 2GB)
+            this.keyMap    = fc.map(FileChannel.MapMode.READ_ONLY, keysOfs, (long)this.cellCount * KEY_SIZE);
+            this.recordMap = fc.map(FileChannel.MapMode.READ_ONLY, recsOfs, (long)this.cellCount * RECORD_SIZE);
+        } finally {
+            try { raf.close(); } catch (IOException ioe) { /* ignore */ }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the index file
+    **/
+    public File getFile()
+    {
+        return this.indexFile;
+    }
+
+    /**
+    *** Gets the number of cells in this index
+    **/
+    public int getCellCount()
+    {
+        return this.cellCount;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /* binary search for key (absolute reads only, thread-safe) */
+    private int _find(long key)
+    {
+        int lo = 0, hi = this.cellCount - 1;
+        while (lo <= hi) {
+            int  mid = (lo + hi) >>> 1;
+            long k   = this.keyMap.getLong(mid * KEY_SIZE);
+            if (k < key) {
+                lo = mid + 1;
+            } else
+            if (k > key) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+    *** Gets the location of the specified cell
+    *** @return The cell location, or null if the cell is not in this index
+    **/
+    public Cell getCell(int mcc, int mnc, int lac, int cid)
+    {
+        long key = CellTowerIndex.getKey(mcc, mnc, lac, cid);
+        if (key < 0L) {
+            return null;
+        }
+        int ndx = this._find(key);
+        if (ndx < 0) {
+            return null;
+        }
+        int ofs = ndx * RECORD_SIZE;
+        Cell c = new Cell();
+        c.latitude  = (double)this.recordMap.getInt(ofs     ) / COORD_SCALE;
+        c.longitude = (double)this.recordMap.getInt(ofs +  4) / COORD_SCALE;
+        c.rangeM    = this.recordMap.getInt(ofs +  8);
+        c.samples   = this.recordMap.getInt(ofs + 12);
+        return c;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets a String representation of this instance
+    **/
+    public String toString()
+    {
+        return this.indexFile + " [cells=" + this.cellCount + "]";
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** CellTowerIndex.Builder class<br>
+    *** Accumulates cell locations, then writes a sorted CellTowerIndex file.  Cells are
+    *** held in primitive arrays (about 24 bytes per cell).  If the same cell is added more
+    *** than once (ie. from different radio types), the entry with the most samples is kept.
+    **/
+    public static class Builder
+    {
+
+        private long    keys[]      = new long[1024];
+        private int     lat[]       = new int[1024];
+        private int     lon[]       = new int[1024];
+        private int     range[]     = new int[1024];
+        private int     samples[]   = new int[1024];
+        private int     count       = 0;
+
+        /**
+        *** Constructor
+        **/
+        public Builder()
+        {
+            super();
+        }
+
+        /**
+        *** Gets the number of cells added
+        **/
+        public int getCellCount()
+        {
+            return this.count;
+        }
+
+        /* grow arrays */
+        private void _ensureCapacity(int size)
+        {
+            if (size > this.keys.length) {
+                int n = Math.max(size, this.keys.length + (this.keys.length >> 1));
+                this.keys    = Arrays.copyOf(this.keys   , n);
+                this.lat     = Arrays.copyOf(this.lat    , n);
+                this.lon     = Arrays.copyOf(this.lon    , n);
+                this.range   = Arrays.copyOf(this.range  , n);
+                this.samples = Arrays.copyOf(this.samples, n);
+            }
+        }
+
+        /**
+        *** Adds a cell location
+        *** @return True if added, false if the cell identity/location is invalid
+        **/
+        public boolean addCell(int mcc, int mnc, int lac, int cid,
+            double latitude, double longitude, int rangeM, int sampleCount)
+        {
+            long key = CellTowerIndex.getKey(mcc, mnc, lac, cid);
+            if ((key < 0L) || !GeoPoint.isValid(latitude,longitude)) {
+                return false;
+            }
+            this._ensureCapacity(this.count + 1);
+            int n = this.count++;
+            this.keys[n]    = key;
+            this.lat[n]     = (int)Math.round(latitude  * COORD_SCALE);
+            this.lon[n]     = (int)Math.round(longitude * COORD_SCALE);
+            this.range[n]   = Math.max(rangeM, 0);
+            this.samples[n] = Math.max(sampleCount, 0);
+            return true;
+        }
+
+        // --------------------------------------------------------------------
+
+        /* swap entries */
+        private void _swap(int a, int b)
+        {
+            long k = this.keys[a]; this.keys[a] = this.keys[b]; this.keys[b] = k;
+            int  t;
+            t = this.lat[a];     this.lat[a]     = this.lat[b];     this.lat[b]     = t;
+            t = this.lon[a];     this.lon[a]     = this.lon[b];     this.lon[b]     = t;
+            t = this.range[a];   this.range[a]   = this.range[b];   this.range[b]   = t;
+            t = this.samples[a]; this.samples[a] = this.samples[b]; this.samples[b] = t;
+        }
+
+        /* sort entries by key (iterative quicksort, insertion sort for small ranges) */
+        private void _sort()
+        {
+            int stack[] = new int[128];
+            int sp = 0;
+            stack[sp++] = 0;
+            stack[sp++] = this.count - 1;
+            while (sp > 0) {
+                int hi = stack[--sp];
+                int lo = stack[--sp];
+                while ((hi - lo) > 16) {
+                    // -- median-of-three pivot
+                    int mid = (lo + hi) >>> 1;
+                    if (this.keys[mid] < this.keys[lo] ) { this._swap(mid, lo ); }
+                    if (this.keys[hi ] < this.keys[lo] ) { this._swap(hi , lo ); }
+                    if (this.keys[hi ] < this.keys[mid]) { this._swap(hi , mid); }
+                    long pivot = this.keys[mid];
+                    int i = lo, j = hi;
+                    while (i <= j) {
+                        while (this.keys[i] < pivot) { i++; }
+                        while (this.keys[j] > pivot) { j--; }
+                        if (i <= j) { this._swap(i++, j--); }
+                    }
+                    // -- push the larger partition, continue with the smaller
+                    if ((j - lo) > (hi - i)) {
+                        stack[sp++] = lo; stack[sp++] = j;
+                        lo = i;
+                    } else {
+                        stack[sp++] = i;  stack[sp++] = hi;
+                        hi = j;
+                    }
+                }
+                for (int i = lo + 1; i <= hi; i++) {
+                    for (int j = i; (j > lo) && (this.keys[j - 1] > this.keys[j]); j--) {
+                        this._swap(j, j - 1);
+                    }
+                }
+            }
+        }
+
+        /* remove duplicate keys (keeps the entry with the most samples) */
+        private void _dedup()
+        {
+            int n = 0;
+            for (int i = 0; i < this.count; i++) {
+                if ((n > 0) && (this.keys[n - 1] == this.keys[i])) {
+                    if (this.samples[i] > this.samples[n - 1]) {
+                        this.lat[n - 1]     = this.lat[i];
+                        this.lon[n - 1]     = this.lon[i];
+                        this.range[n - 1]   = this.range[i];
+                        this.samples[n - 1] = this.samples[i];
+                    }
+                } else {
+                    if (n != i) {
+                        this.keys[n]    = this.keys[i];
+                        this.lat[n]     = this.lat[i];
+                        this.lon[n]     = this.lon[i];
+                        this.range[n]   = this.range[i];
+                        this.samples[n] = this.samples[i];
+                    }
+                    n++;
+                }
+            }
+            this.count = n;
+        }
+
+        // --------------------------------------------------------------------
+
+        /**
+        *** Writes the CellTowerIndex to the specified file
+        *** @param file  The output file
+        *** @throws IOException  If an I/O error occurs
+        **/
+        public void write(File file)
+            throws IOException
+        {
+
+            /* sort */
+            if (this.count > 1) {
+                this._sort();
+                this._dedup();
+            }
+
+            /* offsets */
+            long keysOfs = HEADER_SIZE;
+            long recsOfs = keysOfs + ((long)this.count * KEY_SIZE);
+            long fileLen = recsOfs + ((long)this.count * RECORD_SIZE);
+            if (((long)this.count * RECORD_SIZE) > (long)Integer.MAX_VALUE) {
+                throw new IOException("Cell-tower index too large: " + this.count + " cells");
+            }
+
+            /* write */
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 65536));
+            try {
+                // -- header
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(this.count);
+                out.writeInt(0);
+                out.writeLong(keysOfs);
+                out.writeLong(recsOfs);
+                out.writeLong(fileLen);
+                out.writeLong(System.currentTimeMillis());
+                out.writeLong(0L);
+                out.writeLong(0L);
+                // -- tables
+                for (int i = 0; i < this.count; i++) {
+                    out.writeLong(this.keys[i]);
+                }
+                for (int i = 0; i < this.count; i++) {
+                    out.writeInt(this.lat[i]);
+                    out.writeInt(this.lon[i]);
+                    out.writeInt(this.range[i]);
+                    out.writeInt(this.samples[i]);
+                }
+            } finally {
+                out.close();
+            }
+
+        }
+
+    }
+
+}
@@ -0,0 +1,475 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2020, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Notes:
+// - This MobileLocationProvider is resolved locally from a CellTowerIndex file, which is
+//   built from an OpenCelliD-style CSV export (ie. "cell_towers.csv.gz"):
+//     radio,mcc,net,area,cell,unit,lon,lat,range,samples,changeable,created,updated,averageSignal
+// - When neighbor cell information is available, the location is estimated by weighted
+//   multilateration of the known cells (distance estimated from the timing-advance or
+//   reception level, if available).
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19  GTS Development Team
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.cellid.local;
+
+import java.lang.*;
+import java.util.*;
+import java.io.*;
+import java.util.zip.GZIPInputStream;
+
+import org.opengts.util.*;
+
+import org.opengts.cellid.*;
+
+public class LocalCellTower
+    extends MobileLocationProviderAdapter
+    implements MobileLocationProvider
+{
+
+    // ------------------------------------------------------------------------
+
+    protected static final String PROP_indexFile                = "indexFile";
+    protected static final String PROP_minRangeMeters           = "minRangeMeters";
+    protected static final String PROP_defaultRangeMeters       = "defaultRangeMeters";
+
+    // ------------------------------------------------------------------------
+
+    protected static final double DEFAULT_MIN_RANGE_METERS      =  100.0;
+    protected static final double DEFAULT_RANGE_METERS          = 2000.0;
+
+    /* timing-advance distance step (meters) */
+    private static final double   TA_METERS_GSM                 = 553.5;
+    private static final double   TA_METERS_LTE                 =  78.12;
+
+    /* reception level range, used to scale the distance estimate within the cell range */
+    private static final double   RSSI_NEAR_DBM                 =  -50.0;
+    private static final double   RSSI_FAR_DBM                  = -110.0;
+
+    private static final int      MAX_ITERATIONS                = 10;
+
+    private static final double   METERS_PER_DEGREE             = GeoPoint.EARTH_MEAN_RADIUS_METERS * GeoPoint.RADIANS;
+
+    // ------------------------------------------------------------------------
+
+    /* OpenCelliD CSV columns */
+    private static final int      OC_MCC                        = 1;
+    private static final int      OC_MNC                        = 2;
+    private static final int      OC_LAC                        = 3;
+    private static final int      OC_CID                        = 4;
+    private static final int      OC_LON                        = 6;
+    private static final int      OC_LAT                        = 7;
+    private static final int      OC_RANGE                      = 8;
+    private static final int      OC_SAMPLES                    = 9;
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private CellTowerIndex  cellIndex       = null;
+    private boolean         cellIndexInit   = false;
+
+    /**
+    *** Constructor
+    *** @param name    The name assigned to this MobileLocationProvider
+    *** @param key     The optional authorization key (not used)
+    *** @param rtProps The properties associated with this MobileLocationProvider
+    **/
+    public LocalCellTower(String name, String key, RTProperties rtProps)
+    {
+        super(name, null, rtProps);
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the CellTowerIndex (opened on first use)
+    *** @return The CellTowerIndex, or null if not configured or unavailable
+    **/
+    protected synchronized CellTowerIndex getCellTowerIndex()
+    {
+        if (!this.cellIndexInit) {
+            this.cellIndexInit = true;
+            String fileName = this.getProperties().getString(PROP_indexFile, null);
+            if (StringTools.isBlank(fileName)) {
+                Print.logError("["+this.getName()+"] CellTower '"+PROP_indexFile+"' not specified");
+            } else {
+                File file = new File(fileName);
+                if (!file.isAbsolute() && (RTConfig.getLoadedConfigDir() != null)) {
+                    file = new File(RTConfig.getLoadedConfigDir(), fileName);
+                }
+                try {
+                    this.cellIndex = new CellTowerIndex(file);
+                    Print.logInfo("["+this.getName()+"] CellTower index loaded: " + this.cellIndex);
+                } catch (IOException ioe) {
+                    Print.logError("["+this.getName()+"] Unable to load cell-tower index: " + ioe);
+                    this.cellIndex = null;
+                }
+            }
+        }
+        return this.cellIndex;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /* located cell, with estimated distance */
+    private static class Fix
+    {
+        private double x        = 0.0; // meters east of origin
+        private double y        = 0.0; // meters north of origin
+        private double rangeM   = 0.0;
+        private double distM    = 0.0; // estimated distance from cell
+        private double sigmaM   = 0.0; // distance uncertainty
+        private double weight   = 0.0;
+    }
+
+    /* estimated distance from a cell, using timing-advance or reception level */
+    private static void _estimateDistance(CellTower ct, Fix f)
+    {
+        if (ct.hasTimingAdvance()) {
+            String radio = StringTools.trim(ct.getRadioType()).toUpperCase();
+            double step  = radio.startsWith("LTE")? TA_METERS_LTE : TA_METERS_GSM;
+            f.distM  = Math.min((ct.getTimingAdvance() + 0.5) * step, f.rangeM);
+            f.sigmaM = step;
+        } else
+        if (ct.hasReceptionLevel()) {
+            // -- 0..63: GSM RxLev (dBm = rxlev - 110), otherwise the magnitude of a negative dBm
+            int    rxlev = ct.getReceptionLevel();
+            double dBm   = (rxlev <= 63)? (double)(rxlev - 110) : -(double)rxlev;
+            double frac  = (RSSI_NEAR_DBM - dBm) / (RSSI_NEAR_DBM - RSSI_FAR_DBM);
+            frac = Math.min(Math.max(frac, 0.05), 1.0);
+            f.distM  = frac * f.rangeM;
+            f.sigmaM = f.rangeM / 3.0;
+        } else {
+            f.distM  = f.rangeM / 2.0;
+            f.sigmaM = f.rangeM / 2.0;
+        }
+        f.sigmaM = Math.max(f.sigmaM, 1.0);
+    }
+
+    /**
+    *** Returns the estimated location of the device connected to the specified serving cell
+    *** @param servCT  The serving Cell Tower information
+    *** @param nborCT  Neighbor Cell Tower information (may be null)
+    *** @return The estimated location, or null if no known cell was specified
+    **/
+    public MobileLocation getMobileLocation(CellTower servCT, CellTower nborCT[])
+    {
+
+        /* index */
+        CellTowerIndex cti = this.getCellTowerIndex();
+        if (cti == null) {
+            return null;
+        }
+        RTProperties rtp = this.getProperties();
+        double minRangeM = rtp.getDouble(PROP_minRangeMeters    , DEFAULT_MIN_RANGE_METERS);
+        double dftRangeM = rtp.getDouble(PROP_defaultRangeMeters, DEFAULT_RANGE_METERS);
+
+        /* located cells (serving cell first) */
+        int    maxCells = 1 + ListTools.size(nborCT);
+        Fix    fix[]    = new Fix[maxCells];
+        int    n        = 0;
+        boolean servFix = false; // true if fix[0] is the serving cell
+        double lat0     = 0.0, lon0 = 0.0, cosLat0 = 1.0;
+        for (int i = 0; i < maxCells; i++) {
+            CellTower ct = (i == 0)? servCT : nborCT[i - 1];
+            if (ct == null) {
+                continue;
+            }
+            // -- neighbors may omit MCC/MNC/LAC (same as the serving cell)
+            int mcc = ct.getMobileCountryCode();
+            int mnc = ct.getMobileNetworkCode();
+            int lac = ct.getLocationAreaCode();
+            if ((i > 0) && (servCT != null)) {
+                if (mcc < 0) { mcc = servCT.getMobileCountryCode(); }
+                if (mnc < 0) { mnc = servCT.getMobileNetworkCode(); }
+                if (lac < 0) { lac = servCT.getLocationAreaCode();  }
+            }
+            CellTowerIndex.Cell cell = cti.getCell(mcc, mnc, lac, ct.getCellTowerID());
+            if (cell == null) {
+                continue;
+            }
+            if (n == 0) {
+                // -- local tangent plane origin
+                lat0    = cell.getLatitude();
+                lon0    = cell.getLongitude();
+                cosLat0 = Math.cos(lat0 * GeoPoint.RADIANS);
+            }
+            Fix f = new Fix();
+            double dLon = cell.getLongitude() - lon0;
+            if (dLon > 180.0) { dLon -= 360.0; } else if (dLon < -180.0) { dLon += 360.0; }
+            f.x      = dLon * cosLat0 * METERS_PER_DEGREE;
+            f.y      = (cell.getLatitude() - lat0) * METERS_PER_DEGREE;
+            f.rangeM = Math.max((cell.getRangeMeters() > 0)? (double)cell.getRangeMeters() : dftRangeM, minRangeM);
+            LocalCellTower._estimateDistance(ct, f);
+            if (i == 0) {
+                // -- serving cell resolved (always fix[0])
+                servFix  = true;
+                f.weight = 2.0 / (f.sigmaM * f.sigmaM); // favor the serving cell
+            } else {
+                f.weight = 1.0 / (f.sigmaM * f.sigmaM);
+            }
+            fix[n++] = f;
+        }
+        if (n <= 0) {
+            return null;
+        }
+
+        /* single cell */
+        if (n == 1) {
+            Fix f = fix[0];
+            double accM = (f.sigmaM < f.rangeM)? (f.distM + f.sigmaM) : f.rangeM;
+            return new MobileLocation(lat0, lon0, accM);
+        }
+
+        /* weighted centroid (initial estimate) */
+        double sw = 0.0, px = 0.0, py = 0.0, minRange = Double.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            Fix f = fix[i];
+            double w = 1.0 / Math.max(f.distM, minRangeM);
+            px += w * f.x;
+            py += w * f.y;
+            sw += w;
+            minRange = Math.min(minRange, f.rangeM);
+        }
+        px /= sw;
+        py /= sw;
+        double accM = minRange;
+
+        /* weighted least-squares multilateration (Gauss-Newton) */
+        if (n >= 3) {
+            double gx = px, gy = py;
+            boolean ok = true;
+            for (int iter = 0; ok && (iter < MAX_ITERATIONS); iter++) {
+                double a11 = 0.0, a12 = 0.0, a22 = 0.0, b1 = 0.0, b2 = 0.0;
+                for (int i = 0; i < n; i++) {
+                    Fix    f  = fix[i];
+                    double dx = gx - f.x, dy = gy - f.y;
+                    double r  = Math.max(Math.sqrt((dx * dx) + (dy * dy)), 1.0);
+                    double ux = dx / r, uy = dy / r; // jacobian row
+                    double res = f.distM - r;
+                    a11 += f.weight * ux * ux;
+                    a12 += f.weight * ux * uy;
+                    a22 += f.weight * uy * uy;
+                    b1  += f.weight * ux * res;
+                    b2  += f.weight * uy * res;
+                }
+                double det = (a11 * a22) - (a12 * a12);
+                if (Math.abs(det) < 1.0E-12 * Math.max(a11 * a22, 1.0E-30)) {
+                    ok = false; // collinear cells
+                    break;
+                }
+                double sx = ((a22 * b1) - (a12 * b2)) / det;
+                double sy = ((a11 * b2) - (a12 * b1)) / det;
+                gx += sx;
+                gy += sy;
+                if (((sx * sx) + (sy * sy)) < 1.0) {
+                    break; // converged (< 1 meter)
+                }
+            }
+            // -- accept only if within range of the serving cell (or any neighbor cell, 
+            // -  if the serving cell was not found in the index)
+            if (ok) {
+                boolean inRange = false;
+                for (int i = 0; i < (servFix? 1 : n); i++) {
+                    Fix    f  = fix[i];
+                    double dx = gx - f.x, dy = gy - f.y;
+                    if (((dx * dx) + (dy * dy)) <= (f.rangeM * f.rangeM)) {
+                        inRange = true;
+                        break;
+                    }
+                }
+                ok = inRange;
+            }
+            if (ok) {
+                double rss = 0.0, ws = 0.0;
+                for (int i = 0; i < n; i++) {
+                    Fix    f  = fix[i];
+                    double dx = gx - f.x, dy = gy - f.y;
+                    double res = f.distM - Math.sqrt((dx * dx) + (dy * dy));
+                    rss += f.weight * res * res;
+                    ws  += f.weight;
+                }
+                px   = gx;
+                py   = gy;
+                accM = Math.min(Math.max(Math.sqrt(rss / ws), minRangeM), minRange);
+            }
+        }
+
+        /* convert back to lat/lon */
+        double lat = lat0 + (py / METERS_PER_DEGREE);
+        double lon = lon0 + (px / (cosLat0 * METERS_PER_DEGREE));
+        if (lon > 180.0) { lon -= 360.0; } else if (lon < -180.0) { lon += 360.0; }
+        return new MobileLocation(lat, lon, accM);
+
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Imports an OpenCelliD-style CSV file (optionally gzip'ed) into the specified Builder
+    *** @param ctib    The CellTowerIndex Builder
+    *** @param csv     The CSV file
+    *** @param mccSet  The set of MCCs to import (null/empty for all)
+    *** @return The number of imported cells
+    **/
+    public static int importCSV(CellTowerIndex.Builder ctib, File csv, Set<Integer> mccSet)
+        throws IOException
+    {
+        InputStream fis = new FileInputStream(csv);
+        if (csv.getName().toLowerCase().endsWith(".gz")) {
+            fis = new GZIPInputStream(fis, 65536);
+        }
+        BufferedReader br = new BufferedReader(new InputStreamReader(fis, StringTools.CharEncoding_UTF_8), 65536);
+        int count = 0, skipped = 0;
+        try {
+            for (;;) {
+                String line = br.readLine();
+                if (line == null) { break; }
+                String f[] = StringTools.split(line, ',');
+                if ((f.length <= OC_SAMPLES) || !StringTools.isInt(f[OC_MCC],true)) {
+                    continue; // header or malformed
+                }
+                int mcc = StringTools.parseInt(f[OC_MCC], -1);
+                if (!ListTools.isEmpty(mccSet) && !mccSet.contains(new Integer(mcc))) {
+                    continue;
+                }
+                boolean added = ctib.addCell(
+                    mcc,
+                    StringTools.parseInt(f[OC_MNC], -1),
+                    StringTools.parseInt(f[OC_LAC], -1),
+                    (int)StringTools.parseLong(f[OC_CID], -1L),
+                    StringTools.parseDouble(f[OC_LAT], 999.0),
+                    StringTools.parseDouble(f[OC_LON], 999.0),
+                    StringTools.parseInt(f[OC_RANGE], 0),
+                    StringTools.parseInt(f[OC_SAMPLES], 0));
+                if (added) {
+                    count++;
+                } else {
+                    skipped++;
+                }
+            }
+        } finally {
+            br.close();
+        }
+        if (skipped > 0) {
+            Print.logWarn("Skipped cells (invalid, or not indexable): " + skipped);
+        }
+        return count;
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private static final String ARG_INDEX[]     = new String[] { "index"    , "idx"     };
+    private static final String ARG_BUILD[]     = new String[] { "build"                };
+    private static final String ARG_CSV[]       = new String[] { "csv"      , "cells"   };
+    private static final String ARG_MCC_LIST[]  = new String[] { "mccList"              };
+    private static final String ARG_CID[]       = new String[] { "cid"      , "cellID"  };
+    private static final String ARG_MCC[]       = new String[] { "mcc"                  };
+    private static final String ARG_MNC[]       = new String[] { "mnc"                  };
+    private static final String ARG_LAC[]       = new String[] { "lac"                  };
+
+    private static void usage()
+    {
+        String n = LocalCellTower.class.getName();
+        Print.sysPrintln("");
+        Print.sysPrintln("Description:");
+        Print.sysPrintln("   Local CellTower Index Tool ...");
+        Print.sysPrintln("");
+        Print.sysPrintln("Usage:");
+        Print.sysPrintln("   java ... " + n + " -index=<file> -build -csv=<file> [-mccList=<mcc,...>]");
+        Print.sysPrintln(" or");
+        Print.sysPrintln("   java ... " + n + " -index=<file> -mcc=<MCC> -mnc=<MNC> -lac=<LAC> -cid=<CID>");
+        Print.sysPrintln("");
+        Print.sysPrintln("Options:");
+        Print.sysPrintln("   -index=<file>       CellTower index file");
+        Print.sysPrintln("   -build              Build index from CSV file");
+        Print.sysPrintln("   -csv=<file>         OpenCelliD-style CSV file (may be gzip'ed)");
+        Print.sysPrintln("   -mccList=<mcc,...>  Import only the specified MCCs");
+        Print.sysPrintln("   -mcc/-mnc/-lac/-cid Cell to lookup");
+        Print.sysPrintln("");
+        System.exit(1);
+    }
+
+    /**
+    *** Main entery point for index creation and testing
+    **/
+    public static void main(String argv[])
+    {
+        RTConfig.setCommandLineArgs(argv);
+        Print.setAllOutputToStdout(true);
+
+        /* index file */
+        String indexName = RTConfig.getString(ARG_INDEX, null);
+        if (StringTools.isBlank(indexName)) {
+            Print.sysPrintln("ERROR: Missing '-index' file");
+            usage();
+        }
+        File indexFile = new File(indexName);
+
+        /* build */
+        if (RTConfig.getBoolean(ARG_BUILD,false)) {
+            String csv = RTConfig.getString(ARG_CSV, null);
+            if (StringTools.isBlank(csv)) {
+                Print.sysPrintln("ERROR: Missing '-csv' file");
+                usage();
+            }
+            Set<Integer> mccSet = new HashSet<Integer>();
+            for (String m : StringTools.split(RTConfig.getString(ARG_MCC_LIST,""),',')) {
+                if (StringTools.isInt(m,true)) { mccSet.add(new Integer(StringTools.parseInt(m,0))); }
+            }
+            try {
+                long startMS = System.currentTimeMillis();
+                CellTowerIndex.Builder ctib = new CellTowerIndex.Builder();
+                int cc = importCSV(ctib, new File(csv), mccSet);
+                Print.sysPrintln("Imported cells: " + cc);
+                ctib.write(indexFile);
+                Print.sysPrintln("Wrote index: " + indexFile + " [" + ctib.getCellCount() + " cells, " +
+                    indexFile.length() + " bytes, " + (System.currentTimeMillis() - startMS) + " ms]");
+                System.exit(0);
+            } catch (IOException ioe) {
+                Print.sysPrintln("ERROR: " + ioe);
+                System.exit(99);
+            }
+        }
+
+        /* lookup */
+        CellTower ct = new CellTower();
+        ct.setMobileCountryCode(RTConfig.getInt(ARG_MCC,-1));
+        ct.setMobileNetworkCode(RTConfig.getInt(ARG_MNC,-1));
+        ct.setLocationAreaCode( RTConfig.getInt(ARG_LAC,-1));
+        ct.setCellTowerID(      RTConfig.getInt(ARG_CID,-1));
+        RTProperties rtp = new RTProperties();
+        rtp.setString(PROP_indexFile, indexFile.getAbsolutePath());
+        LocalCellTower lct = new LocalCellTower("localCellTower", null, rtp);
+        MobileLocation ml = lct.getMobileLocation(ct, null);
+        long startNS = System.nanoTime();
+        int  loops   = 100000;
+        for (int i = 0; i < loops; i++) {
+            lct.getMobileLocation(ct, null);
+        }
+        long avgNS = (System.nanoTime() - startNS) / loops;
+        Print.sysPrintln("Mobile Location: " + ml);
+        Print.sysPrintln("Average lookup: " + avgNS + " ns");
+
+    }
+
+}
@@ -74,6 +74,10 @@
 //     -Changed "addStatusCode" to use "OrderedMap" [2.6.4-B45]
 //  2020/02/19  GTS Development Team
 //     -Added back support for "EventNotificationEMail" (for legacy purposes) [2.6.7-B15f] 
+//  2026/10/19  GTS Development Team
+//     -Added PROP_ReportData_deviceFetchConcurrency
+//     -Added PROP_ReportData_streamEventData
+//     -Added PROP_ReportData_cacheOutput
 // ----------------------------------------------------------------------------
 // The features this class provides are highly configurable through the external
 // XML file 'private.xml'.  However, this code may also be modified to provide
@@ -404,6 +408,11 @@ public class BasicPrivateLabel
     /* ReportLayout properties */
     public  static final String PROP_ReportLayout_defaultBestLatLon         = "reportLayout.defaultBestLatLon";     // true|false
 
+    /* ReportData properties */
+    public  static final String PROP_ReportData_deviceFetchConcurrency      = "reportData.deviceFetchConcurrency";  // <int>
+    public  static final String PROP_ReportData_streamEventData             = "reportData.streamEventData";         // true|false
+    public  static final String PROP_ReportData_cacheOutput                 = "reportData.cacheOutput";             // true|false
+
     /* UserInfo properties */
     public  static final String PROP_UserInfo_allowDuplicateContactEmail    = "userInfo.allowDuplicateContactEmail";// true|false
     public  static final String PROP_UserInfo_showAccessControlList         = "userInfo.showAccessControlList";     // true|false
@@ -659,6 +659,18 @@ public class DBConfig
     **/
     public static final String PROP_Device_EventDataInsertionListener   = "Device.EventDataInsertionListener";
 
+    /**
+    *** Runtime Configuration Property<br>
+    *** True to deliver "eventDidInsert" to the configured EventDataInsertionListener classes
+    *** asynchronously via an EventDataInsertionBus (queue size, batch size, and overflow
+    *** policy "drop", "dropOldest", or "block").<br>
+    *** Type: Boolean
+    **/
+    public static final String PROP_Device_EventDataInsertionListener_async     = "Device.EventDataInsertionListener.async";
+    public static final String PROP_Device_EventDataInsertionListener_queueSize = "Device.EventDataInsertionListener.queueSize";
+    public static final String PROP_Device_EventDataInsertionListener_batchSize = "Device.EventDataInsertionListener.batchSize";
+    public static final String PROP_Device_EventDataInsertionListener_overflow  = "Device.EventDataInsertionListener.overflow";
+
     /**
     *** Runtime Configuration Property<br>
     *** >0 to suspend rule notifications on first device connections<br>
@@ -667,6 +679,64 @@ public class DBConfig
     **/
     public static final String PROP_Device_suspendFirstConnectNotify    = "Device.suspendFirstConnectNotify";
 
+    /**
+    *** Runtime Configuration Property<br>
+    *** True to enable the in-memory RecentEventIndex used to reject duplicate events
+    *** and classify late events prior to insertion (defaults to false)<br>
+    *** Type: Boolean
+    **/
+    public static final String PROP_Device_recentEventIndex_enable      = "Device.recentEventIndex.enable";
+    public static final String PROP_Device_recentEventIndex_maxDevices  = "Device.recentEventIndex.maxDevices";
+    public static final String PROP_Device_recentEventIndex_ringSize    = "Device.recentEventIndex.ringSize";
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** True to determine the prior ignition state of in-order events from the Device
+    *** "lastIgnitionOnTime"/"lastIgnitionOffTime" fields, rather than querying the last
+    *** ignition event from the EventData table (defaults to false)<br>
+    *** Type: Boolean
+    **/
+    public static final String PROP_Device_ignitionStateFromDevice      = "Device.ignitionStateFromDevice";
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** Maximum sustained EventData events-per-second per Device (token-bucket), beyond which
+    *** location-only events are downsampled by distance/heading change (0 to disable).  May
+    *** also be specified in the DCServerConfig (or Device/Account DCS properties group).<br>
+    *** Type: Double
+    **/
+    public static final String PROP_Device_rateLimit_eventsPerSecond   = "Device.rateLimit.eventsPerSecond";
+    public static final String PROP_Device_rateLimit_burst             = "Device.rateLimit.burst";
+    public static final String PROP_Device_rateLimit_minDistanceMeters = "Device.rateLimit.minDistanceMeters";
+    public static final String PROP_Device_rateLimit_minHeadingDelta   = "Device.rateLimit.minHeadingDelta";
+    public static final String PROP_Device_rateLimit_maxDevices        = "Device.rateLimit.maxDevices";
+    public static final String PROP_Device_rateLimit_refreshSec        = "Device.rateLimit.refreshSec";
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** True to update the DeviceDailySummary table (asynchronously, via the EventDataInsertionBus)
+    *** as EventData records are inserted (defaults to false)<br>
+    *** Type: Boolean
+    **/
+    public static final String PROP_DeviceDailySummary_updateOnInsert      = "DeviceDailySummary.updateOnInsert";
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** True to have summary reports read from the DeviceDailySummary table, where possible,
+    *** rather than scanning the EventData table (defaults to false)<br>
+    *** Type: Boolean
+    **/
+    public static final String PROP_DeviceDailySummary_useForReports       = "DeviceDailySummary.useForReports";
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** DeviceDailySummary minimum moving speed (km/h), and the maximum interval between
+    *** events (seconds) which is counted as driving/idle time<br>
+    *** Type: Double/Long
+    **/
+    public static final String PROP_DeviceDailySummary_minMovingSpeedKPH   = "DeviceDailySummary.minMovingSpeedKPH";
+    public static final String PROP_DeviceDailySummary_maxIntervalSec      = "DeviceDailySummary.maxIntervalSec";
+
     // ----------------------
 
     /**
@@ -812,6 +882,23 @@ public class DBConfig
     **/
     public static final String PROP_Geozone_userRoleVisibility          = "Geozone.userRoleVisibility"; // RoleVisibility
 
+    /**
+    *** Runtime Configuration Property<br>
+    *** Enable in-memory per-account Geozone spatial index for point-in-zone lookups (defaults to false)<br>
+    *** Type: Boolean
+    **/
+    public static final String PROP_Geozone_spatialIndex_enable             = "Geozone.spatialIndex.enable";
+    public static final String PROP_Geozone_spatialIndex_maxAccounts        = "Geozone.spatialIndex.maxAccounts";
+    public static final String PROP_Geozone_spatialIndex_refreshInterval    = "Geozone.spatialIndex.refreshInterval";
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** Size (meters) of the cells used to cache spatial index point-in-zone results (0 to disable)<br>
+    *** Type: Double
+    **/
+    public static final String PROP_Geozone_spatialIndex_cellSizeMeters     = "Geozone.spatialIndex.cellSizeMeters";
+    public static final String PROP_Geozone_spatialIndex_maxCells           = "Geozone.spatialIndex.maxCells";
+
     // ----------------------
 
     /**
@@ -1512,6 +1599,26 @@ public class DBConfig
             }
         }
 
+        /* Summary tables (optional) */
+        {
+            String summaryTables[] = new String[] {
+                PACKAGE_TABLES_       + "DeviceDailySummary",
+            };
+            for (String tableClassName : summaryTables) {
+                DBAdmin.addTableFactory(tableClassName, false/*required?*/);
+            }
+        }
+
+        /* Report queue tables (optional) */
+        {
+            String queueTables[] = new String[] {
+                PACKAGE_TABLES_       + "ReportQueue"       ,
+            };
+            for (String tableClassName : queueTables) {
+                DBAdmin.addTableFactory(tableClassName, false/*required?*/);
+            }
+        }
+
         /* Extra tables (optional) */
         {
             String extraTables[] = new String[] {
@@ -47,6 +47,8 @@
 //     -Added parsing "ConfigProperties" tag
 //  2016/04/06  Martin D. Flynn
 //     -Fixed "_loadDeviceByPrefixedModemID" to check for prefix type "*" [2.6.2-B19]
+//  2026/10/19  GTS Development Team
+//     -"calculateOdometerKM" uses the primitive GeoPoint.fastMetersBetween
 // ----------------------------------------------------------------------------
 package org.opengts.db;
 
@@ -2344,7 +2346,9 @@ public class DCServerFactory
     public static double calculateOdometerKM(EventData prevEvent, GeoPoint toPoint)
     {
         if ((prevEvent != null) && prevEvent.isValidGeoPoint() && GeoPoint.isValid(toPoint)) {
-            double deltaKM = toPoint.kilometersToPoint(prevEvent.getGeoPoint());
+            double deltaKM = GeoPoint.fastMetersBetween(
+                prevEvent.getLatitude(), prevEvent.getLongitude(),
+                toPoint.getLatitude()  , toPoint.getLongitude()  ) / 1000.0;
             return prevEvent.getOdometerKM() + deltaKM;
         } else {
             return 0.0;
@@ -0,0 +1,424 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2020, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Multi-subscriber EventDataInsertionListener with asynchronous, batched,
+//  per-subscriber bounded queues.
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19  GTS Development Team
+//     -Initial release
+//     -Subscriber lists are CopyOnWriteArrayLists, callbacks are made without holding
+//      a list monitor.  Asynchronous listener subscribers now receive "eventWillInsert".
+//     -Added "OverflowListener", notified of events dropped by a full subscriber queue
+//     -Asynchronous subscribers are queued a copy of the inserted EventData field values,
+//      since the inserted instance may still be modified (ie. deferred reverse-geocoding)
+// ----------------------------------------------------------------------------
+package org.opengts.db;
+
+import java.lang.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.opengts.util.*;
+import org.opengts.dbtools.*;
+import org.opengts.db.tables.*;
+
+/**
+*** EventDataInsertionBus class<br>
+*** Fans out EventData insertion callbacks to multiple subscribers.  Synchronous subscribers
+*** receive both "eventWillInsert" and "eventDidInsert" inline on the insertion thread.
+*** Asynchronous subscribers receive "eventDidInsert" notifications, which are queued
+*** to a per-subscriber bounded queue and delivered in batches on a dedicated thread.
+*** Since the inserted EventData instance may still be modified after insertion (ie. by the
+*** deferred reverse-geocode and rule check), asynchronous subscribers receive a copy of
+*** its field values at the time of insertion, which is shared by all asynchronous 
+*** subscribers and must not be modified.
+*** Since "eventWillInsert" must complete before the event is inserted, asynchronous
+*** EventDataInsertionListener subscribers receive it inline on the insertion thread.<br>
+*** Subscriber lists are copy-on-write, so callbacks never hold a lock shared with other
+*** insertion threads.
+**/
+public class EventDataInsertionBus
+    implements EventDataInsertionListener
+{
+
+    // ------------------------------------------------------------------------
+
+    public  static final int            DEFAULT_QUEUE_SIZE      = 5000;
+    public  static final int            DEFAULT_BATCH_SIZE      = 100;
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Queue overflow policy
+    **/
+    public enum OverflowPolicy {
+        DROP_NEWEST,    // discard the event being queued
+        DROP_OLDEST,    // discard the oldest queued event
+        BLOCK           // block the insertion thread until space is available
+    };
+
+    /**
+    *** Parses the specified overflow policy name
+    *** @param name  The policy name ("drop", "dropOldest", "block")
+    *** @param dft   The default policy
+    *** @return The parsed overflow policy
+    **/
+    public static OverflowPolicy ParseOverflowPolicy(String name, OverflowPolicy dft)
+    {
+        if (StringTools.isBlank(name)) {
+            return dft;
+        } else
+        if (name.equalsIgnoreCase("drop")       ||
+            name.equalsIgnoreCase("dropNewest")   ) {
+            return OverflowPolicy.DROP_NEWEST;
+        } else
+        if (name.equalsIgnoreCase("dropOldest")) {
+            return OverflowPolicy.DROP_OLDEST;
+        } else
+        if (name.equalsIgnoreCase("block")) {
+            return OverflowPolicy.BLOCK;
+        } else {
+            Print.logWarn("Invalid overflow policy: " + name);
+            return dft;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Batched EventData insertion callback
+    **/
+    public interface BatchListener
+    {
+        /**
+        *** Callback indicating the list of EventData instances have been inserted.
+        *** The EventData instances are read-only copies of the inserted records.
+        **/
+        public void eventsDidInsert(List<EventData> evList);
+    }
+
+    /**
+    *** Optionally implemented by a BatchListener which must be informed of events discarded
+    *** by its subscriber queue overflow policy (ie. to schedule a later reconciliation)
+    **/
+    public interface OverflowListener
+    {
+        /**
+        *** Callback indicating the EventData instance was dropped from the subscriber queue.
+        *** Called on the insertion thread, and must not block.
+        **/
+        public void eventDropped(EventData evdb);
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Asynchronous subscriber
+    **/
+    private static class AsyncSubscriber
+        implements Runnable
+    {
+        private String                          name        = null;
+        private BatchListener                   listener    = null;
+        private BlockingQueue<EventData>        queue       = null;
+        private int                             batchSize   = DEFAULT_BATCH_SIZE;
+        private OverflowPolicy                  policy      = OverflowPolicy.DROP_NEWEST;
+        private Thread                          thread      = null;
+        private volatile boolean                running     = true;
+        private long                            delivered   = 0L;
+        private long                            dropped     = 0L;
+        public AsyncSubscriber(String name, BatchListener listener, int queueSize, int batchSize, OverflowPolicy policy) {
+            this.name      = name;
+            this.listener  = listener;
+            this.queue     = new ArrayBlockingQueue<EventData>((queueSize > 0)? queueSize : DEFAULT_QUEUE_SIZE);
+            this.batchSize = (batchSize > 0)? batchSize : 1;
+            this.policy    = (policy != null)? policy : OverflowPolicy.DROP_NEWEST;
+            this.thread    = new Thread(this, "EventDataInsertionBus_" + name);
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+        public void willInsert(EventData evdb) {
+            if (this.listener instanceof ListenerBatchAdapter) {
+                ((ListenerBatchAdapter)this.listener).eventWillInsert(evdb);
+            }
+        }
+        public void offer(EventData evdb) {
+            switch (this.policy) {
+                case BLOCK:
+                    try {
+                        this.queue.put(evdb);
+                    } catch (InterruptedException ie) {
+                        this._dropped(evdb);
+                    }
+                    break;
+                case DROP_OLDEST:
+                    while (!this.queue.offer(evdb)) {
+                        EventData oldest = this.queue.poll();
+                        if (oldest != null) {
+                            this._dropped(oldest);
+                        }
+                    }
+                    break;
+                default:
+                    if (!this.queue.offer(evdb)) {
+                        this._dropped(evdb);
+                    }
+                    break;
+            }
+        }
+        private void _dropped(EventData evdb) {
+            synchronized (this) {
+                this.dropped++;
+            }
+            if (this.listener instanceof OverflowListener) {
+                try {
+                    ((OverflowListener)this.listener).eventDropped(evdb);
+                } catch (Throwable th) {
+                    Print.logException("EventDataInsertionBus overflow error: " + this.name, th);
+                }
+            }
+        }
+        public synchronized long getDroppedCount() {
+            return this.dropped;
+        }
+        public synchronized long getDeliveredCount() {
+            return this.delivered;
+        }
+        public int getQueueSize() {
+            return this.queue.size();
+        }
+        public void stop() {
+            this.running = false;
+            this.thread.interrupt();
+        }
+        public void run() {
+            List<EventData> batch = new ArrayList<EventData>(this.batchSize);
+            while (this.running || !this.queue.isEmpty()) {
+                try {
+                    EventData first = this.queue.poll(1000L, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    this.queue.drainTo(batch, this.batchSize - 1);
+                } catch (InterruptedException ie) {
+                    // -- stopping, drain remaining events
+                    this.queue.drainTo(batch, this.batchSize);
+                    if (batch.isEmpty()) {
+                        continue;
+                    }
+                }
+                try {
+                    this.listener.eventsDidInsert(Collections.unmodifiableList(batch));
+                } catch (Throwable th) {
+                    Print.logException("EventDataInsertionBus subscriber error: " + this.name, th);
+                }
+                synchronized (this) {
+                    this.delivered += batch.size();
+                }
+                batch = new ArrayList<EventData>(this.batchSize);
+            }
+        }
+    }
+
+    /**
+    *** Adapts an EventDataInsertionListener to a BatchListener
+    **/
+    private static class ListenerBatchAdapter
+        implements BatchListener
+    {
+        private EventDataInsertionListener listener = null;
+        public ListenerBatchAdapter(EventDataInsertionListener listener) {
+            this.listener = listener;
+        }
+        public void eventWillInsert(EventData evdb) {
+            this.listener.eventWillInsert(evdb);
+        }
+        public void eventsDidInsert(List<EventData> evList) {
+            for (EventData evdb : evList) {
+                try {
+                    this.listener.eventDidInsert(evdb);
+                } catch (Throwable th) {
+                    Print.logError("Unexpected Exception: " + th);
+                }
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private List<EventDataInsertionListener>    syncList    = new CopyOnWriteArrayList<EventDataInsertionListener>();
+    private List<AsyncSubscriber>               asyncList   = new CopyOnWriteArrayList<AsyncSubscriber>();
+
+    /**
+    *** Constructor
+    **/
+    public EventDataInsertionBus()
+    {
+        super();
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Adds a synchronous subscriber (called inline on the insertion thread)
+    *** @param edil  The EventDataInsertionListener
+    **/
+    public void subscribe(EventDataInsertionListener edil)
+    {
+        if (edil != null) {
+            this.syncList.add(edil);
+        }
+    }
+
+    /**
+    *** Adds an asynchronous subscriber.  "eventDidInsert" is delivered asynchronously, 
+    *** "eventWillInsert" is delivered inline on the insertion thread.
+    *** @param edil       The EventDataInsertionListener
+    *** @param queueSize  The maximum number of pending events
+    *** @param batchSize  The maximum number of events delivered per batch
+    *** @param policy     The queue overflow policy
+    **/
+    public void subscribe(EventDataInsertionListener edil, int queueSize, int batchSize, OverflowPolicy policy)
+    {
+        if (edil != null) {
+            String name = StringTools.className(edil);
+            this.subscribe(name, new ListenerBatchAdapter(edil), queueSize, batchSize, policy);
+        }
+    }
+
+    /**
+    *** Adds an asynchronous batch subscriber
+    *** @param name       The subscriber name (used for the delivery thread name)
+    *** @param listener   The BatchListener
+    *** @param queueSize  The maximum number of pending events
+    *** @param batchSize  The maximum number of events delivered per batch
+    *** @param policy     The queue overflow policy
+    **/
+    public void subscribe(String name, BatchListener listener, int queueSize, int batchSize, OverflowPolicy policy)
+    {
+        if (listener != null) {
+            this.asyncList.add(new AsyncSubscriber(name, listener, queueSize, batchSize, policy));
+        }
+    }
+
+    /**
+    *** Returns true if this bus has no subscribers
+    **/
+    public boolean isEmpty()
+    {
+        return this.syncList.isEmpty() && this.asyncList.isEmpty();
+    }
+
+    /**
+    *** Stops all asynchronous delivery threads (pending events are delivered first)
+    **/
+    public void shutdown()
+    {
+        for (AsyncSubscriber as : this.asyncList) {
+            as.stop();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Callback indicating EventData instance will be inserted
+    **/
+    public void eventWillInsert(EventData evdb)
+    {
+        for (EventDataInsertionListener edil : this.syncList) {
+            try {
+                edil.eventWillInsert(evdb);
+            } catch (Throwable th) {
+                Print.logError("Unexpected Exception: " + th);
+            }
+        }
+        for (AsyncSubscriber as : this.asyncList) {
+            try {
+                as.willInsert(evdb);
+            } catch (Throwable th) {
+                Print.logError("Unexpected Exception: " + th);
+            }
+        }
+    }
+
+    /**
+    *** Callback indicating EventData instance has been inserted
+    **/
+    public void eventDidInsert(EventData evdb)
+    {
+        for (EventDataInsertionListener edil : this.syncList) {
+            try {
+                edil.eventDidInsert(evdb);
+            } catch (Throwable th) {
+                Print.logError("Unexpected Exception: " + th);
+            }
+        }
+        if (!this.asyncList.isEmpty()) {
+            EventData evCopy = EventDataInsertionBus._copyEventData(evdb);
+            for (AsyncSubscriber as : this.asyncList) {
+                // -- a BLOCK subscriber only stalls this insertion thread, no lock is held
+                as.offer(evCopy);
+            }
+        }
+    }
+
+    /**
+    *** Returns a copy of the field values of the specified inserted EventData record
+    **/
+    private static EventData _copyEventData(EventData evdb)
+    {
+        try {
+            EventData.Key evk = new EventData.Key(
+                evdb.getAccountID(), evdb.getDeviceID(), 
+                evdb.getTimestamp(), evdb.getStatusCode());
+            EventData evCopy = evk._getDBRecord();
+            evCopy.setAllFieldValues(evdb); // copy non-key fields
+            return evCopy;
+        } catch (DBException dbe) {
+            // -- will not occur
+            Print.logError("Unexpected error copying EventData record: " + dbe);
+            return evdb;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Returns a String representation of this instance
+    **/
+    public String toString()
+    {
+        StringBuffer sb = new StringBuffer();
+        sb.append("EventDataInsertionBus: sync=").append(this.syncList.size());
+        for (AsyncSubscriber as : this.asyncList) {
+            sb.append(" [").append(as.name);
+            sb.append(" queued=").append(as.getQueueSize());
+            sb.append(" delivered=").append(as.getDeliveredCount());
+            sb.append(" dropped=").append(as.getDroppedCount());
+            sb.append("]");
+        }
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,366 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2020, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Per-device token-bucket events-per-second limiter, with distance/heading
+//  downsampling of excess location-only events.
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19  GTS Development Team
+//     -Initial release
+//     -Per-device limits are re-resolved after "Device.rateLimit.refreshSec" seconds
+// ----------------------------------------------------------------------------
+package org.opengts.db;
+
+import java.lang.*;
+import java.util.*;
+
+import org.opengts.util.*;
+import org.opengts.db.tables.*;
+
+/**
+*** EventRateLimiter class<br>
+*** Maintains a token-bucket per Device, refilled at the configured events-per-second rate
+*** based on the event timestamps (so that buffered/batched uploads of older events are not
+*** penalized for arriving together).  When a Device has exhausted its bucket, location-only
+*** events (see <code>StatusCodes.IsLocation</code>) are retained only if the Device has moved
+*** at least the minimum distance, or changed heading by at least the minimum delta, since the
+*** last retained event.  All other status codes (alarms, ignition, etc) are always retained.
+*** <br>
+*** The limit is resolved per Device (when first seen by this limiter, and again after
+*** "Device.rateLimit.refreshSec" seconds) from the Device DCServerConfig properties (which
+*** include any Device/Account DCS properties group), falling back to the global 
+*** "Device.rateLimit.*" runtime properties.
+**/
+public class EventRateLimiter
+{
+
+    // ------------------------------------------------------------------------
+
+    public  static final int        DEFAULT_MAX_DEVICES         = 20000;
+    public  static final double     DEFAULT_BURST               = 10.0;
+    public  static final double     DEFAULT_MIN_DISTANCE_METERS = 50.0;
+    public  static final double     DEFAULT_MIN_HEADING_DELTA   = 30.0;
+    public  static final long       DEFAULT_REFRESH_SEC         = 300L;
+
+    /* DCServerConfig property keys */
+    public  static final String     DCS_rateLimit_eventsPerSecond   = "rateLimit.eventsPerSecond";
+    public  static final String     DCS_rateLimit_burst             = "rateLimit.burst";
+    public  static final String     DCS_rateLimit_minDistanceMeters = "rateLimit.minDistanceMeters";
+    public  static final String     DCS_rateLimit_minHeadingDelta   = "rateLimit.minHeadingDelta";
+
+    private static final long       LOG_SUPPRESSED_INTERVAL     = 100L;
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Per-device token bucket state
+    **/
+    private static class DeviceBucket
+    {
+        private double  rate            = 0.0;  // tokens/second (<=0 to disable)
+        private double  burst           = DEFAULT_BURST;
+        private double  minDistM        = DEFAULT_MIN_DISTANCE_METERS;
+        private double  minHeading      = DEFAULT_MIN_HEADING_DELTA;
+        private double  tokens          = 0.0;
+        private long    lastTS          = 0L;
+        private GeoPoint lastKeptGP     = null;
+        private double  lastKeptHeading = 0.0;
+        private long    suppressed      = 0L;
+        private long    resolvedMS      = 0L;
+        public DeviceBucket(double rate, double burst, double minDistM, double minHeading) {
+            this.setLimits(rate, burst, minDistM, minHeading);
+            this.tokens     = this.burst;
+        }
+        public synchronized void setLimits(double rate, double burst, double minDistM, double minHeading) {
+            // -- current token/location state is retained
+            this.rate       = rate;
+            this.burst      = (burst >= 1.0)? burst : 1.0;
+            this.minDistM   = minDistM;
+            this.minHeading = minHeading;
+            this.tokens     = Math.min(this.tokens, this.burst);
+            this.resolvedMS = System.currentTimeMillis();
+        }
+        public synchronized void setLimits(DeviceBucket limits) {
+            this.setLimits(limits.rate, limits.burst, limits.minDistM, limits.minHeading);
+        }
+        public synchronized boolean isExpired(long refreshMS) {
+            return (refreshMS > 0L) && ((System.currentTimeMillis() - this.resolvedMS) >= refreshMS);
+        }
+        public synchronized boolean isEnabled() {
+            return (this.rate > 0.0);
+        }
+        public synchronized double getRate() {
+            return this.rate;
+        }
+        private void _keep(EventData ev) {
+            if (ev.isValidGeoPoint()) {
+                this.lastKeptGP      = ev.getGeoPoint();
+                this.lastKeptHeading = ev.getHeading();
+            }
+        }
+        private boolean _hasMoved(EventData ev) {
+            if (this.lastKeptGP == null) {
+                return true;
+            }
+            // -- heading change (only meaningful while moving)
+            if ((this.minHeading > 0.0) && (ev.getSpeedKPH() > 0.0)) {
+                double dh = Math.abs(ev.getHeading() - this.lastKeptHeading) % 360.0;
+                if (dh > 180.0) { dh = 360.0 - dh; }
+                if (dh >= this.minHeading) {
+                    return true;
+                }
+            }
+            // -- distance
+            if (this.minDistM > 0.0) {
+                double distM = this.lastKeptGP.metersToPoint(ev.getGeoPoint());
+                if (distM >= this.minDistM) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        public synchronized boolean allow(EventData ev) {
+            long ts = ev.getTimestamp();
+            // -- refill (out-of-order events do not refill)
+            if (this.lastTS <= 0L) {
+                this.lastTS = ts;
+            } else
+            if (ts > this.lastTS) {
+                this.tokens = Math.min(this.burst, this.tokens + ((double)(ts - this.lastTS) * this.rate));
+                this.lastTS = ts;
+            }
+            // -- within rate
+            if (this.tokens >= 1.0) {
+                this.tokens -= 1.0;
+                this._keep(ev);
+                return true;
+            }
+            // -- non-location status codes are always retained
+            if (!StatusCodes.IsLocation(ev.getStatusCode())) {
+                this._keep(ev);
+                return true;
+            }
+            // -- downsample location-only events
+            if (ev.isValidGeoPoint() && this._hasMoved(ev)) {
+                this._keep(ev);
+                return true;
+            }
+            this.suppressed++;
+            return false;
+        }
+        public synchronized long getSuppressedCount() {
+            return this.suppressed;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private static EventRateLimiter globalEventRateLimiter = null;
+
+    /**
+    *** Gets the global EventRateLimiter instance
+    *** @return The global EventRateLimiter instance
+    **/
+    public static EventRateLimiter getInstance()
+    {
+        if (globalEventRateLimiter == null) {
+            synchronized (EventRateLimiter.class) {
+                if (globalEventRateLimiter == null) {
+                    int maxDev = RTConfig.getInt(DBConfig.PROP_Device_rateLimit_maxDevices, DEFAULT_MAX_DEVICES);
+                    globalEventRateLimiter = new EventRateLimiter(maxDev);
+                }
+            }
+        }
+        return globalEventRateLimiter;
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private Map<String,DeviceBucket>    deviceMap       = null;
+    private long                        refreshMS       = DEFAULT_REFRESH_SEC * 1000L;
+
+    private long                        allowedCount    = 0L;
+    private long                        suppressedCount = 0L;
+
+    /**
+    *** Constructor
+    *** @param maxDevices  The maximum number of Devices tracked (least-recently-used are discarded)
+    **/
+    public EventRateLimiter(final int maxDevices)
+    {
+        super();
+        this.deviceMap = new LinkedHashMap<String,DeviceBucket>(1024, 0.75F, true) {
+            protected boolean removeEldestEntry(Map.Entry<String,DeviceBucket> eldest) {
+                return (maxDevices > 0) && (this.size() > maxDevices);
+            }
+        };
+        this.refreshMS = RTConfig.getLong(DBConfig.PROP_Device_rateLimit_refreshSec, DEFAULT_REFRESH_SEC) * 1000L;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Creates a new DeviceBucket using the configured limits for the specified Device
+    **/
+    private static DeviceBucket _createDeviceBucket(Device dev)
+    {
+        double rate  = RTConfig.getDouble(DBConfig.PROP_Device_rateLimit_eventsPerSecond  , 0.0);
+        double burst = RTConfig.getDouble(DBConfig.PROP_Device_rateLimit_burst            , DEFAULT_BURST);
+        double distM = RTConfig.getDouble(DBConfig.PROP_Device_rateLimit_minDistanceMeters, DEFAULT_MIN_DISTANCE_METERS);
+        double head  = RTConfig.getDouble(DBConfig.PROP_Device_rateLimit_minHeadingDelta  , DEFAULT_MIN_HEADING_DELTA);
+        DCServerConfig dcs = dev.getDCServerConfig();
+        if (dcs != null) {
+            // -- DCS (or Device/Account DCS properties group) overrides
+            rate  = dcs.getDoubleProperty(dev, DCS_rateLimit_eventsPerSecond  , rate );
+            burst = dcs.getDoubleProperty(dev, DCS_rateLimit_burst            , burst);
+            distM = dcs.getDoubleProperty(dev, DCS_rateLimit_minDistanceMeters, distM);
+            head  = dcs.getDoubleProperty(dev, DCS_rateLimit_minHeadingDelta  , head );
+        }
+        return new DeviceBucket(rate, burst, distM, head);
+    }
+
+    /**
+    *** Returns true if the specified event should be inserted, false if it should be
+    *** suppressed due to the Device exceeding its events-per-second limit.
+    *** @param dev  The Device
+    *** @param ev   The EventData record to be inserted
+    *** @return True if the event should be inserted
+    **/
+    public boolean allow(Device dev, EventData ev)
+    {
+        if ((dev == null) || (ev == null)) {
+            return true;
+        }
+
+        /* get device bucket */
+        String key = dev.getAccountID() + "/" + dev.getDeviceID();
+        DeviceBucket db;
+        synchronized (this.deviceMap) {
+            db = this.deviceMap.get(key);
+        }
+        if (db == null) {
+            DeviceBucket newDB = EventRateLimiter._createDeviceBucket(dev); // outside of lock
+            synchronized (this.deviceMap) {
+                db = this.deviceMap.get(key);
+                if (db == null) {
+                    db = newDB;
+                    this.deviceMap.put(key, db);
+                }
+            }
+        } else
+        if (db.isExpired(this.refreshMS)) {
+            // -- re-resolve limits (Device/DCS properties may have changed)
+            db.setLimits(EventRateLimiter._createDeviceBucket(dev)); // outside of map lock
+        }
+
+        /* no limit for this device */
+        if (!db.isEnabled()) {
+            return true;
+        }
+
+        /* check limit */
+        if (db.allow(ev)) {
+            synchronized (this) { this.allowedCount++; }
+            return true;
+        } else {
+            synchronized (this) { this.suppressedCount++; }
+            long devSupp = db.getSuppressedCount();
+            if ((devSupp == 1L) || ((devSupp % LOG_SUPPRESSED_INTERVAL) == 0L)) {
+                Print.logInfo("Device exceeding events-per-second limit: " + key +
+                    " [limit=" + db.getRate() + ", suppressed=" + devSupp + "]");
+            }
+            return false;
+        }
+
+    }
+
+    /**
+    *** Removes the specified device from this limiter (limits will be re-read on the next event)
+    *** @param acctID  The Account ID
+    *** @param devID   The Device ID
+    **/
+    public void remove(String acctID, String devID)
+    {
+        synchronized (this.deviceMap) {
+            this.deviceMap.remove(acctID + "/" + devID);
+        }
+    }
+
+    /**
+    *** Clears all tracked devices (limits will be re-read on the next event)
+    **/
+    public void clear()
+    {
+        synchronized (this.deviceMap) {
+            this.deviceMap.clear();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the number of suppressed events for the specified device
+    *** @param acctID  The Account ID
+    *** @param devID   The Device ID
+    *** @return The number of suppressed events
+    **/
+    public long getSuppressedCount(String acctID, String devID)
+    {
+        DeviceBucket db;
+        synchronized (this.deviceMap) {
+            db = this.deviceMap.get(acctID + "/" + devID);
+        }
+        return (db != null)? db.getSuppressedCount() : 0L;
+    }
+
+    /**
+    *** Gets the total number of suppressed events
+    **/
+    public synchronized long getSuppressedCount()
+    {
+        return this.suppressedCount;
+    }
+
+    /**
+    *** Gets the total number of events allowed by rate-limited devices
+    **/
+    public synchronized long getAllowedCount()
+    {
+        return this.allowedCount;
+    }
+
+    /**
+    *** Returns a String representation of this instance
+    **/
+    public String toString()
+    {
+        StringBuffer sb = new StringBuffer();
+        sb.append("EventRateLimiter: ");
+        synchronized (this.deviceMap) {
+            sb.append("devices=").append(this.deviceMap.size());
+        }
+        sb.append(" allowed=").append(this.getAllowedCount());
+        sb.append(" suppressed=").append(this.getSuppressedCount());
+        return sb.toString();
+    }
+
+}
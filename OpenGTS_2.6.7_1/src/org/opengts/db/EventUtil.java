@@ -79,6 +79,8 @@
 //     -Set "trackMap.includeStatusCodeColor" default to "true".
 //  2016/12/21  Martin D. Flynn
 //     -Moved OptionalEventFields to "OptionalEventFields.java"
+//  2026/10/19  GTS Development Team
+//     -Added route simplification tolerance to map event output (see "writeMapEvents")
 // ----------------------------------------------------------------------------
 package org.opengts.db;
 
@@ -1161,6 +1163,60 @@ public class EventUtil
 
     // ------------------------------------------------------------------------
 
+    /**
+    *** Returns a mask of the events retained by route simplification (Douglas-Peucker) with
+    *** the specified tolerance, or null if all events are to be retained.  Each device route
+    *** is simplified separately.  The first/last event of each device, events without a valid
+    *** location, and events with a non-location (ie. non-discardable) status code, are
+    *** always retained.
+    **/
+    private static boolean[] _getSimplifiedEventMask(EventDataProvider edp[], double simplifyM)
+    {
+
+        /* simplification disabled? */
+        if ((simplifyM <= 0.0) || (ListTools.size(edp) <= 2)) {
+            return null;
+        }
+
+        /* simplify each device route */
+        boolean keepMask[] = new boolean[edp.length];
+        double  lat[]      = new double[edp.length];
+        double  lon[]      = new double[edp.length];
+        boolean keep[]     = new boolean[edp.length];
+        int     ndx[]      = new int[edp.length];
+        int     total      = 0;
+        for (int s = 0; s < edp.length;) {
+            String devID = edp[s].getDeviceID();
+            int n = 0;
+            int e = s;
+            for (; (e < edp.length) && StringTools.equals(devID,edp[e].getDeviceID()); e++) {
+                double eLat = edp[e].getLatitude();
+                double eLon = edp[e].getLongitude();
+                if (!GeoPoint.isValid(eLat,eLon)) {
+                    // -- no location, always retained
+                    keepMask[e] = true;
+                    total++;
+                    continue;
+                }
+                lat[n]  = eLat;
+                lon[n]  = eLon;
+                ndx[n]  = e;
+                keep[n] = !StatusCodes.IsDiscardable(edp[e].getStatusCode());
+                n++;
+            }
+            total += TrackSimplifier.simplify(lat, lon, n, simplifyM, keep);
+            for (int k = 0; k < n; k++) {
+                if (keep[k]) { keepMask[ndx[k]] = true; }
+            }
+            s = e;
+        }
+        Print.logDebug("Route simplification ["+simplifyM+" meters]: " + edp.length + " ==> " + total);
+        return keepMask;
+
+    }
+
+    // ------------------------------------------------------------------------
+
     /* write encoded map event data to the specified PrintWriter */
     public boolean writeMapEvents(
         int dataFmt, int indentLevel, PrintWriter pwout, 
@@ -1174,6 +1230,35 @@ public class EventUtil
         DateTime latestTime, double lastBattery, double lastSignal,
         double minProximityM)
         throws IOException
+    {
+        return this.writeMapEvents(
+            dataFmt, indentLevel, pwout,
+            isSoapRequest, isTopLevelTag,
+            privLabel,
+            edp, includeShapes,
+            iconSelector, iconMap,
+            isFleet, fleetRoute, selID,
+            tmz,
+            acct, user,
+            latestTime, lastBattery, lastSignal,
+            minProximityM, 0.0/*simplifyM*/);
+    }
+
+    /* write encoded map event data to the specified PrintWriter */
+    // -- "simplifyM" is the route simplification tolerance (meters), events with non-location
+    // -  status codes are always included (see "_getSimplifiedEventMask")
+    public boolean writeMapEvents(
+        int dataFmt, int indentLevel, PrintWriter pwout, 
+        boolean isSoapRequest, boolean isTopLevelTag,
+        BasicPrivateLabel privLabel,
+        EventDataProvider edp[], boolean includeShapes,
+        String iconSelector, OrderedMap<String,PushpinIcon> iconMap, // OrderedSet<String> iconKeys, 
+        boolean isFleet, boolean fleetRoute, String selID,
+        TimeZone tmz, 
+        Account acct, User user,
+        DateTime latestTime, double lastBattery, double lastSignal,
+        double minProximityM, double simplifyM)
+        throws IOException
     {
         if (dataFmt == EventUtil.MAPDATA_XML) {
             Print.logInfo("Writing map events in XML format ...");
@@ -1187,7 +1272,7 @@ public class EventUtil
                 tmz,
                 acct, user,
                 latestTime, lastBattery, lastSignal,
-                minProximityM,
+                minProximityM, simplifyM,
                 CSV_SEPARATOR_CHAR);
         } else {
             //Print.logInfo("Writing map events in JSON format ...");
@@ -1201,7 +1286,7 @@ public class EventUtil
                 tmz,
                 acct, user,
                 latestTime, lastBattery, lastSignal,
-                minProximityM,
+                minProximityM, simplifyM,
                 CSV_SEPARATOR_CHAR);
         }
     }
@@ -1232,7 +1317,7 @@ public class EventUtil
             tmz,
             acct, user,
             latestTime, lastBattery, lastSignal,
-            minProximityM,
+            minProximityM, 0.0/*simplifyM*/,
             CSV_SEPARATOR_CHAR);
     }
 
@@ -1247,7 +1332,7 @@ public class EventUtil
         TimeZone tmz, 
         Account acct, User user,
         DateTime latestTime, double lastBattery, double lastSignal,
-        double minProximityM,
+        double minProximityM, double simplifyM,
         char csvSep)
         throws IOException
     {
@@ -1556,7 +1641,7 @@ public class EventUtil
             isFleet, fleetRoute, selID,
             tmz, dateFmt, timeFmt, 
             csvSep,
-            minProximityM);
+            minProximityM, simplifyM);
 
         /* XML footer */
         this.write(pwout, PFX1);
@@ -1641,7 +1726,7 @@ public class EventUtil
         TimeZone tmz, 
         String dateFmt, String timeFmt, 
         char csvSep,
-        double minProximityM)
+        double minProximityM, double simplifyM)
         throws IOException
     {
 
@@ -1650,6 +1735,9 @@ public class EventUtil
             return false;
         }
 
+        /* route simplification */
+        boolean simplifyKeep[] = EventUtil._getSimplifiedEventMask(edp, simplifyM);
+
         /* use custom Device 'displayColor' for routeLine color? */
         boolean useRouteDisplayColor = (privLabel != null)?
             privLabel.getBooleanProperty(BasicPrivateLabel.PROP_TrackMap_useRouteDisplayColor, true) :
@@ -1778,6 +1866,11 @@ public class EventUtil
                 }
             }
 
+            /* trim events removed by route simplification */
+            if ((simplifyKeep != null) && !simplifyKeep[i]) {
+                continue;
+            }
+
             /* trim events in close proximity */
             if (minProximityM > 0.0) {
                 // check proximity to established target location (range 20-200 metera)
@@ -1889,7 +1982,7 @@ public class EventUtil
             tmz,
             acct, user,
             latestTime, lastBattery, lastSignal,
-            minProximityM,
+            minProximityM, 0.0/*simplifyM*/,
             CSV_SEPARATOR_CHAR);
     }
 
@@ -1905,7 +1998,7 @@ public class EventUtil
         TimeZone tmz, 
         Account acct, User user,
         DateTime latestTime, double lastBattery, double lastSignal,
-        double minProximityM,
+        double minProximityM, double simplifyM,
         char csvSep)
         throws IOException
     {
@@ -1917,7 +2010,7 @@ public class EventUtil
             tmz,
             acct, user,
             latestTime, lastBattery, lastSignal,
-            minProximityM,
+            minProximityM, simplifyM,
             null/*actions*/,
             csvSep);
         JSON._Object jsonObj = new JSON._Object();
@@ -1942,6 +2035,32 @@ public class EventUtil
         double minProximityM,
         Collection<String> actions,
         char csvSep)
+    {
+        return this.getJMapData_JSON(
+            privLabel,
+            edp, includeShapes,
+            iconSelector, iconMap,
+            isFleet, fleetRoute, selID,
+            tmz,
+            acct, user,
+            latestTime, lastBattery, lastSignal,
+            minProximityM, 0.0/*simplifyM*/,
+            actions,
+            csvSep);
+    }
+
+    /* Returns a JSON object containing the shapes and events to display on the map */
+    public JSON._Object getJMapData_JSON(
+        BasicPrivateLabel privLabel,
+        EventDataProvider edp[],  boolean includeShapes,
+        String iconSelector, OrderedMap<String,PushpinIcon> iconMap, // OrderedSet<String>iconKeys, 
+        boolean isFleet, boolean fleetRoute, String selID,
+        TimeZone tmz, 
+        Account acct, User user,
+        DateTime latestTime, double lastBattery, double lastSignal,
+        double minProximityM, double simplifyM,
+        Collection<String> actions,
+        char csvSep)
     {
         // {
         //   "JMapData" : {
@@ -2330,7 +2449,7 @@ public class EventUtil
                 isFleet, fleetRoute, selID,
                 tmz, dateFmt, timeFmt, 
                 csvSep,
-                minProximityM);
+                minProximityM, simplifyM);
             // add key value
             jMapDataObj.addKeyValue(JSON_DataSets,dataSetArray);
         }
@@ -2437,7 +2556,7 @@ public class EventUtil
         TimeZone tmz, 
         String dateFmt, String timeFmt, 
         char csvSep,
-        double minProximityM)
+        double minProximityM, double simplifyM)
     {
         // {
         //    "type": "device",
@@ -2456,6 +2575,9 @@ public class EventUtil
             return false;
         }
 
+        /* route simplification */
+        boolean simplifyKeep[] = EventUtil._getSimplifiedEventMask(edp, simplifyM);
+
         /* use custom Device 'displayColor' for routeLine color? */
         boolean useRouteDisplayColor = (privLabel != null)?
             privLabel.getBooleanProperty(BasicPrivateLabel.PROP_TrackMap_useRouteDisplayColor, true) :
@@ -2579,6 +2701,11 @@ public class EventUtil
                 }
             }
 
+            /* trim events removed by route simplification */
+            if ((simplifyKeep != null) && !simplifyKeep[i]) {
+                continue;
+            }
+
             /* trim events in close proximity */
             if (minProximityM > 0.0) {
                 // -- check proximity to established target location (range 20-200 metera)
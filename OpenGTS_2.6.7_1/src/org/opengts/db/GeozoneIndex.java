@@ -0,0 +1,750 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2020, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  In-memory per-account spatial index of Geozone bounding-boxes, used to answer
+//  point-in-zone queries without database access.
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19  GTS Development Team
+//     -Initial release
+//     -Added per-account geohash cell cache of point-in-zone results
+//     -Added batch (fork/join) point-in-zone evaluation
+//     -Added corridor segment hint key to "getGeozones"
+//     -Incremental refresh re-reads Geozones updated at (not only after) the latest loaded
+//      "lastUpdateTime", and replaces them, so same-second saves are not missed
+//     -Blank descriptions are filled in a copy of the Geozone (cached records are not modified)
+// ----------------------------------------------------------------------------
+package org.opengts.db;
+
+import java.lang.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.opengts.util.*;
+import org.opengts.dbtools.*;
+import org.opengts.db.tables.*;
+
+/**
+*** GeozoneIndex class<br>
+*** Maintains, for each Account, the list of Geozones (ordered by priority, sortID, geozoneID)
+*** and an STRTree over the bounding-boxes of the active Geozones.  An Account's Geozones are
+*** loaded on first use, then refreshed incrementally: at most once per refresh interval the
+*** Account Geozone count is checked, and Geozones with a "lastUpdateTime" at or after the
+*** latest previously loaded are re-read and merged (a full reload occurs only if the merged
+*** count does not match, ie. when Geozones have been deleted).  Geozones inserted/updated/deleted
+*** within this JVM cause the Account to be reloaded on the next lookup.
+*** <br>
+*** Point-in-zone results are also cached per Account by geohash cell (approximately 10 meters
+*** by default).  A cell is cached with its resolved Geozones only if it lies entirely inside or
+*** entirely outside every candidate Geozone, so that repeated reports from parked or slow-moving
+*** vehicles skip the geometry tests.  Cells which straddle a Geozone boundary are remembered as
+*** such, and points within them are always tested exactly.  The cell cache is discarded
+*** whenever the Account Geozones are reloaded or refreshed.
+*** <br>
+*** Large arrays of points may be evaluated in a single call against one Account Geozone
+*** snapshot.  The points are sorted by geohash (so that neighboring points share cell lookups),
+*** then evaluated in parallel using fork/join.
+**/
+public class GeozoneIndex
+{
+
+    // ------------------------------------------------------------------------
+
+    public  static final int        DEFAULT_MAX_ACCOUNTS        = 1000;
+    public  static final long       DEFAULT_REFRESH_INTERVAL    = 60L; // seconds
+    public  static final double     DEFAULT_CELL_SIZE_METERS    = 10.0;
+    public  static final int        DEFAULT_MAX_CELLS           = 20000;
+
+    /* cell cache entries */
+    private static final Geozone    EMPTY_CELL[]                = new Geozone[0];
+    private static final Geozone    BOUNDARY_CELL[]             = new Geozone[0];
+
+    /* batch evaluation */
+    public  static final int        BATCH_TASK_SIZE             = 2048;     // points per fork/join task
+    private static final int        BATCH_SORT_BITS             = 38;       // geohash sort precision
+    private static final int        BATCH_INDEX_BITS            = 24;       // max points sorted
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Immutable snapshot of the Geozones for an Account
+    **/
+    private static class ZoneSet
+    {
+        private Geozone             records[]       = null;     // all loaded Geozone records
+        private Geozone             zones[]         = null;     // all Geozones (priority order)
+        private Map<Geozone,Integer> rank           = null;     // Geozone ==> priority order
+        private STRTree<Geozone>    tree            = null;     // active Geozones only
+        private long                maxUpdateTime   = 0L;
+        private long                loadTime        = 0L;       // time prior to loading records
+        private int                 cellBits        = 0;        // 0 if cell cache disabled
+        private Map<Long,Geozone[]> cellCache       = null;
+        private long                cellHits        = 0L;
+        private long                cellMisses      = 0L;
+        private long                cellExact       = 0L;       // lookups in boundary cells
+        public ZoneSet(Collection<Geozone> gzList, long loadTime, int cellBits, final int maxCells) {
+            this.loadTime = loadTime;
+            this.records  = gzList.toArray(new Geozone[gzList.size()]);
+            // -- sort by priority, sortID, geozoneID
+            List<Geozone> list = new ArrayList<Geozone>(gzList);
+            Collections.sort(list, new Comparator<Geozone>() {
+                public int compare(Geozone a, Geozone b) {
+                    if (Geozone.supportsPriority() && (a.getPriority() != b.getPriority())) {
+                        return (a.getPriority() < b.getPriority())? -1 : 1;
+                    } else
+                    if (a.getSortID() != b.getSortID()) {
+                        return (a.getSortID() < b.getSortID())? -1 : 1;
+                    } else {
+                        return a.getGeozoneID().compareTo(b.getGeozoneID());
+                    }
+                }
+            });
+            this.zones = list.toArray(new Geozone[list.size()]);
+            // -- blank descriptions are set from another record with the same geozoneID
+            Map<String,String> descMap = new HashMap<String,String>();
+            for (Geozone gz : this.zones) {
+                String desc = gz.getDescription();
+                if (!desc.equals("") && !descMap.containsKey(gz.getGeozoneID())) {
+                    descMap.put(gz.getGeozoneID(), desc);
+                }
+            }
+            // -- build tree over active Geozones
+            this.rank = new IdentityHashMap<Geozone,Integer>();
+            this.tree = new STRTree<Geozone>();
+            for (int i = 0; i < this.zones.length; i++) {
+                Geozone gz = this.zones[i];
+                if (gz.getLastUpdateTime() > this.maxUpdateTime) {
+                    this.maxUpdateTime = gz.getLastUpdateTime();
+                }
+                if (!gz.getIsActive()) {
+                    continue;
+                }
+                if (gz.getDescription().equals("") && descMap.containsKey(gz.getGeozoneID())) {
+                    // -- copy, the loaded record may be shared with a prior ZoneSet
+                    gz = ZoneSet._copyGeozone(gz, descMap.get(gz.getGeozoneID()));
+                    this.zones[i] = gz;
+                }
+                this.rank.put(gz, Integer.valueOf(i));
+                if (gz.hasBoundingBox()) {
+                    this.tree.add(gz.getMinLatitude(), gz.getMaxLatitude(), gz.getMinLongitude(), gz.getMaxLongitude(), gz);
+                } else {
+                    this.tree.add(gz.getBoundingBox(), gz);
+                }
+            }
+            this.tree.build();
+            // -- cell cache
+            if ((cellBits > 0) && (maxCells > 0)) {
+                this.cellBits  = cellBits;
+                this.cellCache = new LinkedHashMap<Long,Geozone[]>(1024, 0.75F, true) {
+                    protected boolean removeEldestEntry(Map.Entry<Long,Geozone[]> eldest) {
+                        return (this.size() > maxCells);
+                    }
+                };
+            }
+        }
+        private static Geozone _copyGeozone(Geozone gz, String desc) {
+            try {
+                Geozone.Key gzKey = new Geozone.Key(gz.getAccountID(), gz.getGeozoneID(), gz.getSortID());
+                Geozone copy = gzKey.getDBRecord();
+                copy.setAllFieldValues(gz);
+                copy.setDescription(desc);
+                return copy;
+            } catch (DBException dbe) {
+                Print.logWarn("Unable to copy Geozone: " + dbe);
+                return gz;
+            }
+        }
+        private List<Geozone> _getCandidates(double minLat, double maxLat, double minLon, double maxLon) {
+            List<Geozone> cand = new ArrayList<Geozone>();
+            if (this.tree.queryBounds(minLat, maxLat, minLon, maxLon, cand) <= 0) {
+                return null;
+            }
+            // -- restore priority order
+            if (cand.size() > 1) {
+                Collections.sort(cand, new Comparator<Geozone>() {
+                    public int compare(Geozone a, Geozone b) {
+                        return ZoneSet.this.rank.get(a).compareTo(ZoneSet.this.rank.get(b));
+                    }
+                });
+            }
+            return cand;
+        }
+        public Geozone[] getGeozones(double lat, double lon, String hintKey) {
+            Geozone gza[] = this.getGeozones(lat, lon, null, hintKey);
+            return (gza != null)? gza.clone() : null;
+        }
+        private Geozone[] getGeozones(double lat, double lon, CellMemo memo, String hintKey) {
+            // -- (returned array may be shared, and must not be modified)
+            if (this.cellCache == null) {
+                return this._getGeozones(lat, lon, hintKey);
+            }
+            long cell = GeoHash.encode(lat, lon, this.cellBits);
+            Geozone entry[];
+            if ((memo != null) && (memo.entry != null) && (memo.cell == cell)) {
+                entry = memo.entry;
+            } else {
+                entry = this._getCellEntry(cell);
+                if (memo != null) {
+                    memo.cell  = cell;
+                    memo.entry = entry;
+                }
+            }
+            if (entry == BOUNDARY_CELL) {
+                return this._getGeozones(lat, lon, hintKey);
+            } else {
+                return (entry.length > 0)? entry : null;
+            }
+        }
+        private Geozone[] _getCellEntry(long cellBits) {
+            // -- check cell cache
+            Long cell = Long.valueOf(cellBits);
+            Geozone cached[];
+            synchronized (this.cellCache) {
+                cached = this.cellCache.get(cell);
+                if (cached == BOUNDARY_CELL) {
+                    this.cellExact++;
+                } else
+                if (cached != null) {
+                    this.cellHits++;
+                } else {
+                    this.cellMisses++;
+                }
+            }
+            if (cached != null) {
+                return cached;
+            }
+            // -- classify cell against candidate geozones
+            double b[] = GeoHash.getBounds(cellBits, this.cellBits, new double[4]);
+            List<Geozone> cand = this._getCandidates(b[0], b[1], b[2], b[3]);
+            Geozone entry[] = EMPTY_CELL;
+            if (cand != null) {
+                List<Geozone> inside = new ArrayList<Geozone>();
+                for (Geozone gz : cand) {
+                    int c = gz.classifyCell(b[0], b[1], b[2], b[3]);
+                    if (c == CompiledGeometry.CELL_INSIDE) {
+                        inside.add(gz);
+                    } else
+                    if (c == CompiledGeometry.CELL_BOUNDARY) {
+                        inside = null;
+                        break;
+                    }
+                }
+                entry = (inside == null)? BOUNDARY_CELL : inside.toArray(new Geozone[inside.size()]);
+            }
+            synchronized (this.cellCache) {
+                this.cellCache.put(cell, entry);
+            }
+            return entry;
+        }
+        private Geozone[] _getGeozones(double lat, double lon, String hintKey) {
+            List<Geozone> cand = this._getCandidates(lat, lat, lon, lon);
+            if (cand == null) {
+                return null;
+            }
+            // -- qualify that geozones contain point
+            GeoPoint gp = new GeoPoint(lat, lon);
+            int x = 0;
+            Geozone gza[] = new Geozone[cand.size()];
+            for (Geozone gz : cand) {
+                if (gz.containsPoint(gp, hintKey)) {
+                    gza[x++] = gz;
+                }
+            }
+            if (x == 0) {
+                return null;
+            } else
+            if (x == gza.length) {
+                return gza;
+            } else {
+                Geozone nz[] = new Geozone[x];
+                System.arraycopy(gza,0, nz,0, x);
+                return nz;
+            }
+        }
+    }
+
+    /**
+    *** Last cell resolved by a batch task
+    **/
+    private static class CellMemo
+    {
+        private long                cell            = 0L;
+        private Geozone             entry[]         = null;
+    }
+
+    /**
+    *** Fork/join task evaluating a range of (spatially sorted) points
+    **/
+    private static class BatchTask
+        extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+        private ZoneSet             zoneSet         = null;
+        private double              lat[]           = null;
+        private double              lon[]           = null;
+        private int                 order[]         = null;
+        private Geozone             result[][]      = null;
+        private int                 fromNdx         = 0;
+        private int                 toNdx           = 0;
+        public BatchTask(ZoneSet zs, double lat[], double lon[], int order[], Geozone result[][], int fromNdx, int toNdx) {
+            this.zoneSet = zs;
+            this.lat     = lat;
+            this.lon     = lon;
+            this.order   = order;
+            this.result  = result;
+            this.fromNdx = fromNdx;
+            this.toNdx   = toNdx;
+        }
+        protected void compute() {
+            if ((this.toNdx - this.fromNdx) <= BATCH_TASK_SIZE) {
+                this.evaluate();
+            } else {
+                int mid = (this.fromNdx + this.toNdx) >>> 1;
+                ForkJoinTask.invokeAll(
+                    new BatchTask(this.zoneSet, this.lat, this.lon, this.order, this.result, this.fromNdx, mid),
+                    new BatchTask(this.zoneSet, this.lat, this.lon, this.order, this.result, mid, this.toNdx));
+            }
+        }
+        public void evaluate() {
+            CellMemo memo = new CellMemo();
+            for (int k = this.fromNdx; k < this.toNdx; k++) {
+                int i = this.order[k];
+                if (GeoPoint.isValid(this.lat[i], this.lon[i])) {
+                    this.result[i] = this.zoneSet.getGeozones(this.lat[i], this.lon[i], memo, null);
+                }
+            }
+        }
+    }
+
+    /**
+    *** Per-account Geozone holder
+    **/
+    private static class AccountZones
+    {
+        private String              accountID       = null;
+        private volatile ZoneSet    zoneSet         = null;
+        private volatile long       nextCheckMS     = 0L;
+        private volatile boolean    reload          = false;
+        public AccountZones(String acctID) {
+            this.accountID = acctID;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private static int          GeozoneIndexEnabled     = -1; // undefined
+    private static GeozoneIndex globalGeozoneIndex      = null;
+
+    private static ForkJoinPool batchPool               = null;
+
+    /**
+    *** Gets the global GeozoneIndex instance (null if disabled)
+    *** @return The global GeozoneIndex instance, or null if disabled
+    **/
+    public static GeozoneIndex getInstance()
+    {
+        if (GeozoneIndexEnabled < 0) {
+            GeozoneIndexEnabled = RTConfig.getBoolean(DBConfig.PROP_Geozone_spatialIndex_enable,false)? 1 : 0;
+        }
+        if (GeozoneIndexEnabled == 0) {
+            return null;
+        } else
+        if (globalGeozoneIndex == null) {
+            synchronized (GeozoneIndex.class) {
+                if (globalGeozoneIndex == null) {
+                    int  maxAcct = RTConfig.getInt( DBConfig.PROP_Geozone_spatialIndex_maxAccounts    , DEFAULT_MAX_ACCOUNTS);
+                    long refresh = RTConfig.getLong(DBConfig.PROP_Geozone_spatialIndex_refreshInterval, DEFAULT_REFRESH_INTERVAL);
+                    globalGeozoneIndex = GeozoneIndex._createInstance(maxAcct, refresh);
+                }
+            }
+        }
+        return globalGeozoneIndex;
+    }
+
+    /**
+    *** Gets the GeozoneIndex to be used for a batch point-in-zone evaluation.  This is the
+    *** global GeozoneIndex if enabled, otherwise a new single-Account GeozoneIndex which
+    *** loads the Account Geozones once for the batch.
+    *** @return The GeozoneIndex instance
+    **/
+    public static GeozoneIndex getBatchInstance()
+    {
+        GeozoneIndex gzi = GeozoneIndex.getInstance();
+        return (gzi != null)? gzi : GeozoneIndex._createInstance(1, DEFAULT_REFRESH_INTERVAL);
+    }
+
+    /**
+    *** Creates a GeozoneIndex with the configured cell cache
+    **/
+    private static GeozoneIndex _createInstance(int maxAcct, long refresh)
+    {
+        GeozoneIndex gzi = new GeozoneIndex(maxAcct, refresh);
+        double cellM = RTConfig.getDouble(DBConfig.PROP_Geozone_spatialIndex_cellSizeMeters, DEFAULT_CELL_SIZE_METERS);
+        int    cells = RTConfig.getInt(   DBConfig.PROP_Geozone_spatialIndex_maxCells      , DEFAULT_MAX_CELLS);
+        gzi.setCellCache(cellM, cells);
+        return gzi;
+    }
+
+    /**
+    *** Gets the shared fork/join pool used for batch evaluation
+    **/
+    private static ForkJoinPool _getBatchPool()
+    {
+        if (batchPool == null) {
+            synchronized (GeozoneIndex.class) {
+                if (batchPool == null) {
+                    batchPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+                }
+            }
+        }
+        return batchPool;
+    }
+
+    /**
+    *** Notifies the global GeozoneIndex (if enabled) that a Geozone has changed
+    *** @param acctID  The Account ID of the changed Geozone
+    **/
+    public static void geozoneChanged(String acctID)
+    {
+        GeozoneIndex gzi = (GeozoneIndexEnabled != 0)? GeozoneIndex.getInstance() : null;
+        if (gzi != null) {
+            gzi.invalidate(acctID);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private Map<String,AccountZones>    accountMap      = null;
+    private long                        refreshMS       = DEFAULT_REFRESH_INTERVAL * 1000L;
+    private int                         cellBits        = 0;
+    private int                         maxCells        = DEFAULT_MAX_CELLS;
+
+    private long                        fullLoadCount   = 0L;
+    private long                        refreshCount    = 0L;
+
+    /**
+    *** Constructor
+    *** @param maxAccounts  The maximum number of Accounts indexed (least-recently-used are discarded)
+    *** @param refreshSec   The interval (in seconds) at which Account Geozones are checked for changes
+    **/
+    public GeozoneIndex(final int maxAccounts, long refreshSec)
+    {
+        super();
+        this.refreshMS  = (refreshSec > 0L)? (refreshSec * 1000L) : 0L;
+        this.accountMap = new LinkedHashMap<String,AccountZones>(64, 0.75F, true) {
+            protected boolean removeEldestEntry(Map.Entry<String,AccountZones> eldest) {
+                return (maxAccounts > 0) && (this.size() > maxAccounts);
+            }
+        };
+    }
+
+    /**
+    *** Sets the per-account point-in-zone cell cache parameters (takes effect as Account
+    *** Geozones are next loaded/refreshed)
+    *** @param cellSizeM  The approximate cell size, in meters (0 to disable the cell cache)
+    *** @param maxCells   The maximum number of cells cached per Account
+    **/
+    public void setCellCache(double cellSizeM, int maxCells)
+    {
+        this.cellBits = (cellSizeM > 0.0)? GeoHash.getBitsForCellSize(cellSizeM) : 0;
+        this.maxCells = maxCells;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Creates a new ZoneSet from the specified Geozones
+    **/
+    private ZoneSet _newZoneSet(Collection<Geozone> gzList, long loadTime)
+    {
+        return new ZoneSet(gzList, loadTime, this.cellBits, this.maxCells);
+    }
+
+    /**
+    *** Returns the Geozone key used to merge updated records
+    **/
+    private static String _zoneKey(Geozone gz)
+    {
+        return gz.getGeozoneID() + "/" + gz.getSortID();
+    }
+
+    /**
+    *** Loads all Geozones for the specified Account
+    **/
+    private ZoneSet _load(String acctID)
+        throws DBException
+    {
+        long loadTime = DateTime.getCurrentTimeSec();
+        Geozone gz[] = Geozone.getGeozonesUpdatedSince(DBReadWriteMode.READ_ONLY, acctID, 0L);
+        synchronized (this) { this.fullLoadCount++; }
+        return this._newZoneSet(((gz != null)? Arrays.asList(gz) : new ArrayList<Geozone>()), loadTime);
+    }
+
+    /**
+    *** Loads (or incrementally refreshes) the Geozones for the specified Account
+    **/
+    private ZoneSet _refresh(AccountZones az)
+        throws DBException
+    {
+        String  acctID = az.accountID;
+        ZoneSet oldZS  = az.zoneSet;
+
+        /* full load */
+        if ((oldZS == null) || az.reload) {
+            az.reload = false;
+            return this._load(acctID);
+        }
+
+        /* current count */
+        long loadTime = DateTime.getCurrentTimeSec();
+        long count = Geozone.getGeozoneCount(DBReadWriteMode.READ_ONLY, acctID);
+
+        /* updated at/since the latest loaded update time */
+        // -- "lastUpdateTime" has a resolution of 1 second, so Geozones saved within the same
+        // -  second as the latest loaded Geozone are re-read, and replace the loaded record.
+        long maxUpdTime = oldZS.maxUpdateTime;
+        Geozone upd[] = Geozone.getGeozonesUpdatedSince(DBReadWriteMode.READ_ONLY, acctID, maxUpdTime);
+        boolean changed = (oldZS.loadTime <= maxUpdTime); // prior load within the same second
+        if (upd != null) {
+            for (Geozone gz : upd) {
+                if (gz.getLastUpdateTime() > maxUpdTime) {
+                    changed = true;
+                    break;
+                }
+            }
+        }
+        if ((count == (long)oldZS.records.length) && !changed) {
+            return oldZS; // unchanged
+        }
+
+        /* merge (updated records replace the loaded records) */
+        Map<String,Geozone> zoneMap = new LinkedHashMap<String,Geozone>();
+        for (Geozone gz : oldZS.records) {
+            zoneMap.put(_zoneKey(gz), gz);
+        }
+        if (upd != null) {
+            for (Geozone gz : upd) {
+                zoneMap.put(_zoneKey(gz), gz);
+            }
+        }
+        if ((long)zoneMap.size() != count) {
+            // -- Geozones have been deleted, reload
+            return this._load(acctID);
+        }
+        synchronized (this) { this.refreshCount++; }
+        return this._newZoneSet(zoneMap.values(), loadTime);
+
+    }
+
+    /**
+    *** Gets the current ZoneSet for the specified Account, loading/refreshing as needed
+    **/
+    private ZoneSet _getZoneSet(String acctID)
+        throws DBException
+    {
+        AccountZones az;
+        synchronized (this.accountMap) {
+            az = this.accountMap.get(acctID);
+            if (az == null) {
+                az = new AccountZones(acctID);
+                this.accountMap.put(acctID, az);
+            }
+        }
+        ZoneSet zs = az.zoneSet;
+        long nowMS = System.currentTimeMillis();
+        if ((zs == null) || (nowMS >= az.nextCheckMS)) {
+            synchronized (az) {
+                // -- check again (another thread may have refreshed)
+                zs = az.zoneSet;
+                if ((zs == null) || (nowMS >= az.nextCheckMS)) {
+                    zs = this._refresh(az);
+                    az.zoneSet     = zs;
+                    az.nextCheckMS = nowMS + this.refreshMS;
+                }
+            }
+        }
+        return zs;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets all active Geozones in which the specified point resides (sorted by priority)
+    *** @param acctID  The Account ID
+    *** @param gp      The GeoPoint
+    *** @return The array of Geozones containing the point, or null if none
+    *** @throws DBException If an error occurs while loading the Account Geozones
+    **/
+    public Geozone[] getGeozones(String acctID, GeoPoint gp)
+        throws DBException
+    {
+        return this.getGeozones(acctID, gp, null);
+    }
+
+    /**
+    *** Gets all active Geozones in which the specified point resides (sorted by priority)
+    *** @param acctID   The Account ID
+    *** @param gp       The GeoPoint
+    *** @param hintKey  The corridor segment hint key (typically the Device ID, may be null)
+    *** @return The array of Geozones containing the point, or null if none
+    *** @throws DBException If an error occurs while loading the Account Geozones
+    **/
+    public Geozone[] getGeozones(String acctID, GeoPoint gp, String hintKey)
+        throws DBException
+    {
+        if (StringTools.isBlank(acctID) || (gp == null) || !gp.isValid()) {
+            return null;
+        }
+        return this._getZoneSet(acctID).getGeozones(gp.getLatitude(), gp.getLongitude(), hintKey);
+    }
+
+    /**
+    *** Gets all active Geozones in which each of the specified points reside (sorted by priority).
+    *** All points are evaluated against the same snapshot of the Account Geozones.
+    *** @param acctID  The Account ID
+    *** @param lat     The point latitudes
+    *** @param lon     The point longitudes
+    *** @return An array containing, for each point, the array of Geozones containing the point
+    ***         (or null if none, or if the point is invalid).  The per-point arrays may be shared
+    ***         between points, and must not be modified.
+    *** @throws DBException If an error occurs while loading the Account Geozones
+    **/
+    public Geozone[][] getGeozones(String acctID, double lat[], double lon[])
+        throws DBException
+    {
+        if (StringTools.isBlank(acctID) || (lat == null) || (lon == null)) {
+            return null;
+        }
+        int n = Math.min(lat.length, lon.length);
+        Geozone result[][] = new Geozone[n][];
+        if (n <= 0) {
+            return result;
+        }
+        ZoneSet zs = this._getZoneSet(acctID);
+
+        /* sort points by geohash (packed with point index) */
+        int order[] = new int[n];
+        if (n <= (1 << BATCH_INDEX_BITS)) {
+            long key[] = new long[n];
+            for (int i = 0; i < n; i++) {
+                long gh = GeoPoint.isValid(lat[i],lon[i])? GeoHash.encode(lat[i], lon[i], BATCH_SORT_BITS) : 0L;
+                key[i] = (gh << BATCH_INDEX_BITS) | (long)i;
+            }
+            Arrays.sort(key);
+            long mask = (1L << BATCH_INDEX_BITS) - 1L;
+            for (int k = 0; k < n; k++) {
+                order[k] = (int)(key[k] & mask);
+            }
+        } else {
+            for (int k = 0; k < n; k++) {
+                order[k] = k;
+            }
+        }
+
+        /* evaluate */
+        BatchTask task = new BatchTask(zs, lat, lon, order, result, 0, n);
+        if (n <= BATCH_TASK_SIZE) {
+            task.evaluate();
+        } else {
+            GeozoneIndex._getBatchPool().invoke(task);
+        }
+        return result;
+
+    }
+
+    /**
+    *** Gets all Geozones (active and inactive) for the specified Account
+    *** @param acctID  The Account ID
+    *** @return The array of Geozones, sorted by priority
+    *** @throws DBException If an error occurs while loading the Account Geozones
+    **/
+    public Geozone[] getAllGeozones(String acctID)
+        throws DBException
+    {
+        if (StringTools.isBlank(acctID)) {
+            return null;
+        }
+        return this._getZoneSet(acctID).zones.clone();
+    }
+
+    /**
+    *** Forces the specified Account Geozones to be reloaded on the next lookup
+    *** @param acctID  The Account ID
+    **/
+    public void invalidate(String acctID)
+    {
+        AccountZones az;
+        synchronized (this.accountMap) {
+            az = this.accountMap.get(acctID);
+        }
+        if (az != null) {
+            az.reload      = true;
+            az.nextCheckMS = 0L;
+        }
+    }
+
+    /**
+    *** Removes all indexed Accounts
+    **/
+    public void clear()
+    {
+        synchronized (this.accountMap) {
+            this.accountMap.clear();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Returns a String representation of this instance
+    **/
+    public String toString()
+    {
+        StringBuffer sb = new StringBuffer();
+        sb.append("GeozoneIndex: ");
+        long hits = 0L, miss = 0L, exact = 0L;
+        synchronized (this.accountMap) {
+            sb.append("accounts=").append(this.accountMap.size());
+            for (AccountZones az : this.accountMap.values()) {
+                ZoneSet zs = az.zoneSet;
+                if ((zs != null) && (zs.cellCache != null)) {
+                    synchronized (zs.cellCache) {
+                        hits  += zs.cellHits;
+                        miss  += zs.cellMisses;
+                        exact += zs.cellExact;
+                    }
+                }
+            }
+        }
+        synchronized (this) {
+            sb.append(" loads=").append(this.fullLoadCount);
+            sb.append(" refreshes=").append(this.refreshCount);
+        }
+        if (this.cellBits > 0) {
+            sb.append(" cellHits=").append(hits);
+            sb.append(" cellMisses=").append(miss);
+            sb.append(" cellExact=").append(exact);
+        }
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,374 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2020, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  In-memory per-device index of recently inserted EventData keys, used to
+//  detect resent/duplicate events and classify late events prior to insertion.
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19  GTS Development Team
+//     -Initial release
+//     -Replaced "classify" with "reserve", which classifies and records the event in a
+//      single operation, and added "release" for events which were not inserted
+// ----------------------------------------------------------------------------
+package org.opengts.db;
+
+import java.lang.*;
+import java.util.*;
+
+import org.opengts.util.*;
+
+/**
+*** RecentEventIndex class<br>
+*** Maintains, for each Device, a two-generation bloom filter and a ring of the most
+*** recently inserted EventData (timestamp,statusCode) keys.  The index is only
+*** authoritative for events with a timestamp newer than the Device "lastEventTimestamp"
+*** at the time the Device was first seen by this index (events older than that may
+*** already exist in the EventData table and must still be checked via the database).
+**/
+public class RecentEventIndex
+{
+
+    // ------------------------------------------------------------------------
+
+    public  static final int        DEFAULT_MAX_DEVICES     = 20000;
+    public  static final int        DEFAULT_RING_SIZE       = 128;
+
+    private static final int        BLOOM_BITS_PER_KEY      = 16;   // ~0.5% false-positive at capacity
+    private static final int        BLOOM_HASH_COUNT        = 3;
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Event classification
+    **/
+    public enum Order {
+        UNKNOWN,    // outside of index authority, database must be checked
+        NEW,        // not previously seen, newer than all prior events
+        LATE,       // not previously seen, but older than the latest event
+        DUPLICATE   // confirmed duplicate of a recently inserted event
+    };
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Encodes the EventData timestamp/statusCode into a single key
+    **/
+    private static long EventKey(long timestamp, int statusCode)
+    {
+        return (timestamp << 16) | ((long)statusCode & 0xFFFFL);
+    }
+
+    /**
+    *** Returns the specified bloom filter hash index for the key
+    **/
+    private static int BloomIndex(long key, int hashNdx, int bitCount)
+    {
+        // -- double-hashing (Kirsch/Mitzenmacher) over a 64-bit mix of the key
+        long h = key * 0x9E3779B97F4A7C15L;
+        h ^= (h >>> 32);
+        int h1 = (int)h;
+        int h2 = (int)(h >>> 16) | 1;
+        int ndx = (h1 + (hashNdx * h2)) % bitCount;
+        return (ndx < 0)? (ndx + bitCount) : ndx;
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Per-device recent event state
+    **/
+    private static class DeviceIndex
+    {
+        private long    ring[]      = null;
+        private int     ringPos     = 0;
+        private int     ringCount   = 0;
+        private long    bloomCur[]  = null;
+        private long    bloomPrev[] = null;
+        private int     curCount    = 0;
+        private long    curMaxTS    = 0L;
+        private long    prevMaxTS   = 0L;
+        private long    authorityTS = 0L;   // authoritative for timestamps newer than this
+        private long    latestTS    = 0L;   // latest timestamp seen
+        public DeviceIndex(int ringSize, long seedTS) {
+            int bloomLongs  = ((ringSize * BLOOM_BITS_PER_KEY) + 63) / 64;
+            this.ring       = new long[ringSize];
+            this.bloomCur   = new long[bloomLongs];
+            this.bloomPrev  = new long[bloomLongs];
+            this.authorityTS = seedTS;
+            this.latestTS   = seedTS;
+        }
+        private boolean _bloomContains(long bloom[], long key) {
+            int bits = bloom.length * 64;
+            for (int i = 0; i < BLOOM_HASH_COUNT; i++) {
+                int b = BloomIndex(key, i, bits);
+                if ((bloom[b >>> 6] & (1L << (b & 63))) == 0L) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        private boolean _ringContains(long key) {
+            for (int i = 0; i < this.ringCount; i++) {
+                if (this.ring[i] == key) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        private Order _classify(long timestamp, int statusCode) {
+            if (timestamp <= this.authorityTS) {
+                // -- may have been inserted prior to this index
+                return Order.UNKNOWN;
+            }
+            long key = EventKey(timestamp, statusCode);
+            if (this._bloomContains(this.bloomCur,key) || this._bloomContains(this.bloomPrev,key)) {
+                // -- possible duplicate, confirm against ring
+                return this._ringContains(key)? Order.DUPLICATE : Order.UNKNOWN;
+            }
+            // -- definitely not previously inserted
+            return (timestamp < this.latestTS)? Order.LATE : Order.NEW;
+        }
+        public synchronized Order reserve(long timestamp, int statusCode) {
+            Order order = this._classify(timestamp, statusCode);
+            if ((order == Order.NEW) || (order == Order.LATE)) {
+                // -- concurrent insertions of the same event will now see a duplicate
+                this._add(timestamp, statusCode);
+            }
+            return order;
+        }
+        public synchronized void release(long timestamp, int statusCode) {
+            // -- remains in the bloom filter, subsequent lookups fall back to the database
+            long key = EventKey(timestamp, statusCode);
+            for (int i = 0; i < this.ringCount; i++) {
+                if (this.ring[i] == key) {
+                    this.ring[i] = -1L; // no valid key
+                }
+            }
+        }
+        public synchronized void add(long timestamp, int statusCode) {
+            this._add(timestamp, statusCode);
+        }
+        private void _add(long timestamp, int statusCode) {
+            long key = EventKey(timestamp, statusCode);
+            // -- rotate bloom generations
+            if (this.curCount >= this.ring.length) {
+                long prev[] = this.bloomPrev;
+                Arrays.fill(prev, 0L);
+                this.bloomPrev   = this.bloomCur;
+                this.bloomCur    = prev;
+                this.curCount    = 0;
+                // -- keys from the dropped generation are no longer remembered,
+                // -  so its latest timestamp becomes the new authority bound
+                if (this.prevMaxTS > this.authorityTS) {
+                    this.authorityTS = this.prevMaxTS;
+                }
+                this.prevMaxTS   = this.curMaxTS;
+                this.curMaxTS    = 0L;
+            }
+            int bits = this.bloomCur.length * 64;
+            for (int i = 0; i < BLOOM_HASH_COUNT; i++) {
+                int b = BloomIndex(key, i, bits);
+                this.bloomCur[b >>> 6] |= (1L << (b & 63));
+            }
+            this.curCount++;
+            if (timestamp > this.curMaxTS) { this.curMaxTS = timestamp; }
+            if (timestamp > this.latestTS) { this.latestTS = timestamp; }
+            // -- ring
+            this.ring[this.ringPos] = key;
+            this.ringPos = (this.ringPos + 1) % this.ring.length;
+            if (this.ringCount < this.ring.length) { this.ringCount++; }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private static RecentEventIndex globalRecentEventIndex = null;
+
+    /**
+    *** Gets the global RecentEventIndex instance (null if disabled)
+    *** @return The global RecentEventIndex instance, or null if disabled
+    **/
+    public static RecentEventIndex getInstance()
+    {
+        if (globalRecentEventIndex == null) {
+            synchronized (RecentEventIndex.class) {
+                if (globalRecentEventIndex == null) {
+                    int maxDev = RTConfig.getInt(DBConfig.PROP_Device_recentEventIndex_maxDevices, DEFAULT_MAX_DEVICES);
+                    int ringSz = RTConfig.getInt(DBConfig.PROP_Device_recentEventIndex_ringSize  , DEFAULT_RING_SIZE);
+                    globalRecentEventIndex = new RecentEventIndex(maxDev, ringSz);
+                }
+            }
+        }
+        return globalRecentEventIndex;
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private int                         ringSize        = DEFAULT_RING_SIZE;
+    private Map<String,DeviceIndex>     deviceMap       = null;
+
+    private long                        duplicateCount  = 0L;
+    private long                        lateCount       = 0L;
+
+    /**
+    *** Constructor
+    *** @param maxDevices  The maximum number of Devices tracked (least-recently-used are discarded)
+    *** @param ringSize    The number of recent events remembered per Device
+    **/
+    public RecentEventIndex(final int maxDevices, int ringSize)
+    {
+        super();
+        this.ringSize  = (ringSize > 8)? ringSize : 8;
+        this.deviceMap = new LinkedHashMap<String,DeviceIndex>(1024, 0.75F, true) {
+            protected boolean removeEldestEntry(Map.Entry<String,DeviceIndex> eldest) {
+                return (maxDevices > 0) && (this.size() > maxDevices);
+            }
+        };
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the DeviceIndex for the specified account/device
+    **/
+    private DeviceIndex _getDeviceIndex(String acctID, String devID, long lastEventTS)
+    {
+        String key = acctID + "/" + devID;
+        synchronized (this.deviceMap) {
+            DeviceIndex di = this.deviceMap.get(key);
+            if (di == null) {
+                di = new DeviceIndex(this.ringSize, lastEventTS);
+                this.deviceMap.put(key, di);
+            }
+            return di;
+        }
+    }
+
+    /**
+    *** Classifies the specified event against recently inserted events for the device.
+    *** Events classified as NEW or LATE are recorded in the same operation, so that a
+    *** concurrent insertion of the same event is classified as DUPLICATE.  If such an
+    *** event is subsequently not inserted, "release" must be called.
+    *** @param acctID       The Account ID
+    *** @param devID        The Device ID
+    *** @param lastEventTS  The Device "lastEventTimestamp" (used to seed a new device index)
+    *** @param timestamp    The event timestamp
+    *** @param statusCode   The event status code
+    *** @return The event classification
+    **/
+    public Order reserve(String acctID, String devID, long lastEventTS, long timestamp, int statusCode)
+    {
+        DeviceIndex di = this._getDeviceIndex(acctID, devID, lastEventTS);
+        Order order = di.reserve(timestamp, statusCode);
+        switch (order) {
+            case DUPLICATE: synchronized (this) { this.duplicateCount++; } break;
+            case LATE     : synchronized (this) { this.lateCount++;      } break;
+            default       : break;
+        }
+        return order;
+    }
+
+    /**
+    *** Releases an event reserved by "reserve" which was not inserted
+    *** @param acctID       The Account ID
+    *** @param devID        The Device ID
+    *** @param timestamp    The event timestamp
+    *** @param statusCode   The event status code
+    **/
+    public void release(String acctID, String devID, long timestamp, int statusCode)
+    {
+        DeviceIndex di;
+        synchronized (this.deviceMap) {
+            di = this.deviceMap.get(acctID + "/" + devID);
+        }
+        if (di != null) {
+            di.release(timestamp, statusCode);
+        }
+    }
+
+    /**
+    *** Records a successfully inserted event (not previously reserved)
+    *** @param acctID       The Account ID
+    *** @param devID        The Device ID
+    *** @param lastEventTS  The Device "lastEventTimestamp" (used to seed a new device index)
+    *** @param timestamp    The event timestamp
+    *** @param statusCode   The event status code
+    **/
+    public void add(String acctID, String devID, long lastEventTS, long timestamp, int statusCode)
+    {
+        this._getDeviceIndex(acctID, devID, lastEventTS).add(timestamp, statusCode);
+    }
+
+    /**
+    *** Removes the specified device from this index (ie. when events have been deleted)
+    *** @param acctID  The Account ID
+    *** @param devID   The Device ID
+    **/
+    public void remove(String acctID, String devID)
+    {
+        synchronized (this.deviceMap) {
+            this.deviceMap.remove(acctID + "/" + devID);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the number of duplicate events detected
+    **/
+    public synchronized long getDuplicateCount()
+    {
+        return this.duplicateCount;
+    }
+
+    /**
+    *** Gets the number of late (out-of-order) events detected
+    **/
+    public synchronized long getLateCount()
+    {
+        return this.lateCount;
+    }
+
+    /**
+    *** Gets the number of devices currently tracked
+    **/
+    public int getDeviceCount()
+    {
+        synchronized (this.deviceMap) {
+            return this.deviceMap.size();
+        }
+    }
+
+    /**
+    *** Returns a String representation of this instance
+    **/
+    public String toString()
+    {
+        StringBuffer sb = new StringBuffer();
+        sb.append("RecentEventIndex: ");
+        sb.append("devices=").append(this.getDeviceCount());
+        sb.append(" duplicates=").append(this.getDuplicateCount());
+        sb.append(" late=").append(this.getLateCount());
+        return sb.toString();
+    }
+
+}
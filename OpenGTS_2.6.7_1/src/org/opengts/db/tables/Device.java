@@ -228,6 +228,25 @@
 //     -Added KEY_MAINT_DUE_HR [2.6.6-B62h]
 //  2020/02/19  GTS Development Team
 //     -Increased FLD_fuelTankProfile/FLD_fuelTankProfile2 size to 400 chars (was 320) [2.6.7-B43j]
+//  2026/10/19  GTS Development Team
+//     -Added RecentEventIndex duplicate/late event check to "_insertEventData"
+//     -Added support for multiple/asynchronous EventDataInsertionListeners via EventDataInsertionBus
+//     -Added per-device events-per-second limit (EventRateLimiter) to "_insertEventData"
+//     -"getNextOdometerKM" uses the primitive GeoPoint.fastMetersBetween
+//     -Added inline stateline border-crossing check via a fast "SubdivisionProvider.class"
+//      provider (see "checkSubdivisionTransition")
+//     -"initEventDataInsertionListener" subscribes the DeviceDailySummary update when
+//      "DeviceDailySummary.updateOnInsert" is enabled
+//     -Duplicate and rate-limited events are marked "suppressed" and are not logged as a warning
+//     -Border-crossing transitions are checked only after the event is inserted, and only for
+//      events newer than the prior last event (see "annotateSubdivision")
+//     -RecentEventIndex entries are cleared when events/devices are deleted
+//     -Prior ignition state from "lastIgnitionOn/OffTime" now requires "Device.ignitionStateFromDevice"
+//     -The DeviceDailySummary subscriber drops on overflow (dropped days are rebuilt asynchronously)
+//     -Synthesized border-crossing events are no longer saved over existing events, and are
+//      passed to the insertion listeners and rule check
+//     -"_insertEventData" falls back to "save()" only when the insert finds a duplicate key,
+//      and classifies/reserves the event in the RecentEventIndex in a single operation
 // ----------------------------------------------------------------------------
 package org.opengts.db.tables;
 
@@ -382,27 +401,90 @@ public class Device // Asset
 
     /**
     *** Sets the EventDataInsertionListener 
+    *** (multiple comma-separated classes, or asynchronous delivery, are installed via an EventDataInsertionBus)
     **/
     @SuppressWarnings("unchecked")
     public static void initEventDataInsertionListener()
     {
-        String elidClassName = RTConfig.getString(DBConfig.PROP_Device_EventDataInsertionListener, null);
-        if (!StringTools.isBlank(elidClassName)) {
-            try {
-                Class<?> edilClass = (Class<EventDataInsertionListener>)Class.forName(elidClassName);
-                EventDataInsertionListener edil = (EventDataInsertionListener)edilClass.newInstance();
-                Device.setEventDataInsertionListener(edil);
-                Print.logDebug("Installed EventDataInsertionListener: ["+StringTools.className(edil)+"]");
-            } catch (ClassNotFoundException cnfe) {
-                // -- EventDataInsertionListener class not found (quietly ignore?)
-                Print.logError("EventDataInsertionListener class not found: " + elidClassName);
-            } catch (ClassCastException cce) {
-                // -- specified class is not a EventDataInsertionListener
-                Print.logError("Invalid EventDataInsertionListener class: " + elidClassName);
-            } catch (Throwable th) { // catch all
-                // -- ELogHOSProvider support not present?
-                Print.logError("Unexpected EventDataInsertionListener error: " + th);
+        String elidClassNames[] = RTConfig.getStringArray(DBConfig.PROP_Device_EventDataInsertionListener, null);
+        if (!ListTools.isEmpty(elidClassNames)) {
+            boolean async = RTConfig.getBoolean(DBConfig.PROP_Device_EventDataInsertionListener_async, false);
+            java.util.List<EventDataInsertionListener> edilList = new Vector<EventDataInsertionListener>();
+            for (String elidClassName : elidClassNames) {
+                if (StringTools.isBlank(elidClassName)) {
+                    continue;
+                }
+                try {
+                    Class<?> edilClass = (Class<EventDataInsertionListener>)Class.forName(elidClassName.trim());
+                    EventDataInsertionListener edil = (EventDataInsertionListener)edilClass.newInstance();
+                    edilList.add(edil);
+                    Print.logDebug("Installed EventDataInsertionListener: ["+StringTools.className(edil)+"]");
+                } catch (ClassNotFoundException cnfe) {
+                    // -- EventDataInsertionListener class not found (quietly ignore?)
+                    Print.logError("EventDataInsertionListener class not found: " + elidClassName);
+                } catch (ClassCastException cce) {
+                    // -- specified class is not a EventDataInsertionListener
+                    Print.logError("Invalid EventDataInsertionListener class: " + elidClassName);
+                } catch (Throwable th) { // catch all
+                    // -- ELogHOSProvider support not present?
+                    Print.logError("Unexpected EventDataInsertionListener error: " + th);
+                }
             }
+            if (edilList.isEmpty()) {
+                // -- no listeners installed
+            } else
+            if ((edilList.size() == 1) && !async) {
+                // -- single synchronous listener
+                Device.setEventDataInsertionListener(edilList.get(0));
+            } else {
+                // -- multiple listeners, or asynchronous delivery
+                EventDataInsertionBus bus = Device.getEventDataInsertionBus();
+                int qSize = RTConfig.getInt(DBConfig.PROP_Device_EventDataInsertionListener_queueSize, EventDataInsertionBus.DEFAULT_QUEUE_SIZE);
+                int bSize = RTConfig.getInt(DBConfig.PROP_Device_EventDataInsertionListener_batchSize, EventDataInsertionBus.DEFAULT_BATCH_SIZE);
+                EventDataInsertionBus.OverflowPolicy policy = EventDataInsertionBus.ParseOverflowPolicy(
+                    RTConfig.getString(DBConfig.PROP_Device_EventDataInsertionListener_overflow,null),
+                    EventDataInsertionBus.OverflowPolicy.DROP_NEWEST);
+                for (EventDataInsertionListener edil : edilList) {
+                    if (async) {
+                        bus.subscribe(edil, qSize, bSize, policy);
+                    } else {
+                        bus.subscribe(edil);
+                    }
+                }
+            }
+        }
+
+        /* DeviceDailySummary incremental update (asynchronous, bounded queue) */
+        // -- events dropped from a full queue mark their day dirty for asynchronous rebuild,
+        // -  so the summary update never stalls the insertion thread
+        if (DeviceDailySummary.IsUpdateOnInsert()) {
+            EventDataInsertionBus bus = Device.getEventDataInsertionBus();
+            int qSize = RTConfig.getInt(DBConfig.PROP_Device_EventDataInsertionListener_queueSize, EventDataInsertionBus.DEFAULT_QUEUE_SIZE);
+            int bSize = RTConfig.getInt(DBConfig.PROP_Device_EventDataInsertionListener_batchSize, EventDataInsertionBus.DEFAULT_BATCH_SIZE);
+            bus.subscribe(DeviceDailySummary._TABLE_NAME, DeviceDailySummary.getInsertionBatchListener(),
+                qSize, bSize, EventDataInsertionBus.OverflowPolicy.DROP_NEWEST);
+            Print.logDebug("Installed DeviceDailySummary EventData insertion update");
+        }
+    }
+
+    /**
+    *** Gets the EventDataInsertionBus, installing it as the EventDataInsertionListener if necessary.
+    *** A previously installed EventDataInsertionListener is added as a synchronous subscriber.
+    *** @return The installed EventDataInsertionBus
+    **/
+    public static EventDataInsertionBus getEventDataInsertionBus()
+    {
+        synchronized (Device.class) {
+            EventDataInsertionListener edil = Device._EventDataInsertionListener;
+            if (edil instanceof EventDataInsertionBus) {
+                return (EventDataInsertionBus)edil;
+            }
+            EventDataInsertionBus bus = new EventDataInsertionBus();
+            if (edil != null) {
+                bus.subscribe(edil);
+            }
+            Device.setEventDataInsertionListener(bus);
+            return bus;
         }
     }
 
@@ -948,6 +1030,53 @@ public class Device // Asset
         return RTConfig.getBoolean(DBConfig.PROP_Device_simulatePtoHours, SIMULATE_PTO_HOURS);
     }
 
+    // ------------------------------------------------------------------------
+    // Recent event index (duplicate/late event detection)
+
+    private static int      RecentEventIndexEnabled     = -1; // undefined
+
+    /**
+    *** Gets the RecentEventIndex used to detect duplicate/late events during insertion
+    *** @return The RecentEventIndex, or null if not enabled
+    **/
+    public static RecentEventIndex GetRecentEventIndex()
+    {
+        if (RecentEventIndexEnabled < 0) {
+            RecentEventIndexEnabled = RTConfig.getBoolean(DBConfig.PROP_Device_recentEventIndex_enable,false)? 1 : 0;
+        }
+        return (RecentEventIndexEnabled == 1)? RecentEventIndex.getInstance() : null;
+    }
+
+    /**
+    *** Removes the specified device from the RecentEventIndex (if enabled).<br>
+    *** Called when EventData records, or the Device itself, have been deleted.
+    *** @param acctID  The Account ID
+    *** @param devID   The Device ID
+    **/
+    public static void ClearRecentEventIndex(String acctID, String devID)
+    {
+        RecentEventIndex recentIndex = Device.GetRecentEventIndex();
+        if (recentIndex != null) {
+            recentIndex.remove(acctID, devID);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    private static int      IgnitionStateFromDevice     = -1; // undefined
+
+    /**
+    *** Returns true if the prior ignition state of an in-order event should be
+    *** obtained from the Device "lastIgnitionOnTime"/"lastIgnitionOffTime" fields
+    **/
+    public static boolean GetIgnitionStateFromDevice()
+    {
+        if (IgnitionStateFromDevice < 0) {
+            IgnitionStateFromDevice = RTConfig.getBoolean(DBConfig.PROP_Device_ignitionStateFromDevice,false)? 1 : 0;
+        }
+        return (IgnitionStateFromDevice == 1);
+    }
+
     // ------------------------------------------------------------------------
     // (EXPERIMENTAL) Update Event loc if invalid and it has a valid GeozoneID
 
@@ -1124,6 +1253,67 @@ public class Device // Asset
         return Device.cellTower_GetLocation;
     }
 
+    // ------------------------------------------------------------------------
+    // Subdivision (stateline border-crossing) API
+
+    private static boolean             subdivision_initDefault = false;
+    private static SubdivisionProvider subdivisionProvider     = null;
+
+    /**
+    *** Sets the SubdivisionProvider used for inline border-crossing detection
+    *** @param sdp  The SubdivisionProvider
+    **/
+    public static void setSubdivisionProvider(SubdivisionProvider sdp)
+    {
+        Device.subdivision_initDefault = true;
+        if (sdp != null) {
+            Device.subdivisionProvider = sdp;
+            Print.logDebug("Device SubdivisionProvider installed: " + StringTools.className(sdp));
+        } else
+        if (Device.subdivisionProvider != null) {
+            Device.subdivisionProvider = null;
+            Print.logDebug("Device SubdivisionProvider removed.");
+        }
+    }
+
+    /**
+    *** Gets the SubdivisionProvider (loaded from "SubdivisionProvider.class" on first use)
+    *** @return  The SubdivisionProvider, or null if not defined
+    **/
+    public static SubdivisionProvider getSubdivisionProvider()
+    {
+        if (!Device.subdivision_initDefault) {
+            synchronized (Device.class) {
+                if (!Device.subdivision_initDefault) {
+                    String sdpClassName = RTConfig.getString(DBConfig.PROP_SubdivisionProvider_class,null);
+                    if (!StringTools.isBlank(sdpClassName)) {
+                        try {
+                            Class<?> sdpClass = Class.forName(sdpClassName);
+                            Device.subdivisionProvider = (SubdivisionProvider)sdpClass.getDeclaredConstructor().newInstance();
+                            Print.logInfo("Device SubdivisionProvider installed: " + sdpClassName);
+                        } catch (Throwable th) { // ClassNotFoundException, ClassCastException, etc
+                            Print.logException("Unable to load SubdivisionProvider: " + sdpClassName, th);
+                            Device.subdivisionProvider = null;
+                        }
+                    }
+                    Device.subdivision_initDefault = true;
+                }
+            }
+        }
+        return Device.subdivisionProvider;
+    }
+
+    /**
+    *** Returns true if a fast (local) SubdivisionProvider is installed, in which case the
+    *** Device "lastSubdivision" is maintained by "checkSubdivisionTransition"
+    *** @return True if a fast SubdivisionProvider is installed
+    **/
+    public static boolean hasFastSubdivisionProvider()
+    {
+        SubdivisionProvider sdp = Device.getSubdivisionProvider();
+        return ((sdp != null) && sdp.isFastOperation())? true : false;
+    }
+
     // ------------------------------------------------------------------------
     // (Vehicle) Rule factory
 
@@ -2290,6 +2480,12 @@ public class Device // Asset
         public DBFactory<Device> getFactory() {
             return Device.getFactory();
         }
+        public void delete(boolean delDeps) throws DBException {
+            super.delete(delDeps);
+            Device.ClearRecentEventIndex(
+                this.getKeyValues().getFieldValueAsString(FLD_accountID),
+                this.getKeyValues().getFieldValueAsString(FLD_deviceID));
+        }
     }
 
     /* factory constructor */
@@ -7238,6 +7434,19 @@ public class Device // Asset
         }
 
         /* look for StatusCodes.IGNITION_[ON|OFF]? */
+        if (checkLastSC && Device.GetIgnitionStateFromDevice() && 
+            (ev.getTimestamp() > this.getLastEventTimestamp())) {
+            // -- in-order event: prior ignition event is the last ignition on/off recorded in this Device
+            long lastIgnOn  = this.getLastIgnitionOnTime();
+            long lastIgnOff = this.getLastIgnitionOffTime();
+            if (lastIgnOn > lastIgnOff) {
+                return 1;
+            } else
+            if (lastIgnOff > lastIgnOn) {
+                return 0;
+            }
+            // -- unknown/equal, check last event below
+        }
         if (checkLastSC) {
             try {
                 EventData priorEV = this.getLastEvent(ignSC, ev.getTimestamp(), false);
@@ -8540,6 +8749,138 @@ public class Device // Asset
         this.setOptionalFieldValue(FLD_lastSubdivision, StringTools.trim(v));
     }
 
+    /**
+    *** Sets the EventData subdivision from the configured SubdivisionProvider (fast/local
+    *** providers only).  Called before the EventData record is inserted.
+    *** @param evdb  The EventData record about to be inserted
+    *** @return The subdivision of the EventData location, or null if not available
+    **/
+    protected String annotateSubdivision(EventData evdb)
+    {
+
+        /* fast SubdivisionProvider? */
+        SubdivisionProvider sdp = Device.getSubdivisionProvider();
+        if ((evdb == null) || (sdp == null) || !sdp.isFastOperation()) {
+            return null;
+        }
+        GeoPoint gp = evdb.getGeoPoint();
+        if (!GeoPoint.isValid(gp)) {
+            return null;
+        }
+
+        /* subdivision */
+        String subDiv;
+        try {
+            subDiv = sdp.getSubdivision(gp);
+        } catch (SubdivisionException se) {
+            Print.logWarn("Unable to get subdivision: " + se.getMessage());
+            return null;
+        }
+        if (StringTools.isBlank(subDiv)) {
+            return null; // not within any known subdivision (ie. offshore)
+        }
+        if (!evdb.hasSubdivision()) {
+            evdb.setSubdivision(subDiv); // FLD_subdivision
+        }
+        return subDiv;
+
+    }
+
+    /**
+    *** Updates the Device "lastSubdivision" from the specified inserted EventData record.  If
+    *** the subdivision changed, and border-crossing is enabled for this Device, synthesized
+    *** STATUS_GEOBOUNDS_EXIT/STATUS_GEOBOUNDS_ENTER events are inserted 2 and 1 seconds prior
+    *** to the specified event.  Called only after the EventData record has been inserted,
+    *** and only for events newer than the prior last event of this Device.<br>
+    *** The synthesized events do not update the Device "last" state (which already reflects
+    *** the newer event), but are otherwise handled as inserted events: the insertion
+    *** listeners are notified and the event rules are checked.  Existing events with the same
+    *** key are not overwritten.
+    *** @param evdb         The inserted EventData record
+    *** @param subDiv       The EventData subdivision (as returned by "annotateSubdivision")
+    *** @param priorLastTS  The Device "lastEventTimestamp" prior to inserting the EventData record
+    *** @return The number of inserted border-crossing events
+    **/
+    protected int checkSubdivisionTransition(EventData evdb, String subDiv, long priorLastTS)
+    {
+
+        /* changed? */
+        if ((evdb == null) || StringTools.isBlank(subDiv) || !Device.supportsLastSubdivision()) {
+            return 0;
+        }
+        String lastSubDiv = this.getLastSubdivision();
+        if (subDiv.equalsIgnoreCase(lastSubDiv)) {
+            return 0; // same subdivision
+        }
+        this.setLastSubdivision(subDiv); // Mod: Device.FLD_lastSubdivision
+        try {
+            this.update(Device.FLD_lastSubdivision);
+        } catch (DBException dbe) {
+            Print.logError("Unable to update Device: " + dbe);
+        }
+        if (StringTools.isBlank(lastSubDiv)) {
+            return 0; // first known subdivision
+        } else
+        if (!Device.supportsBorderCrossing() || !this.isBorderCrossing()) {
+            return 0; // border-crossing not enabled
+        }
+        Print.logInfo("Border crossing: [%s/%s] %s ==> %s",
+            this.getAccountID(), this.getDeviceID(), lastSubDiv, subDiv);
+
+        /* synthesize exit/enter events */
+        // -- not inserted via "_insertEventData" (the Device "last" state already reflects the newer event)
+        GeoPoint gp     = evdb.getGeoPoint();
+        String   acctID = this.getAccountID();
+        String   devID  = this.getDeviceID();
+        long     evTS   = evdb.getTimestamp();
+        RecentEventIndex recentIndex = Device.GetRecentEventIndex();
+        int      count  = 0;
+        for (int i = 0; i < 2; i++) {
+            boolean   exit = (i == 0);
+            int       sc   = exit? StatusCodes.STATUS_GEOBOUNDS_EXIT : StatusCodes.STATUS_GEOBOUNDS_ENTER;
+            long      ts   = exit? (evTS - 2L) : (evTS - 1L);
+            EventData.Key evk = new EventData.Key(acctID, devID, ts, sc);
+            try {
+                if (evk.exists()) {
+                    // -- do not overwrite an existing event
+                    Print.logWarn("Border-crossing event already exists: " + evk);
+                    continue;
+                }
+            } catch (DBException dbe) {
+                Print.logError("Unable to check border-crossing event: " + dbe);
+                continue;
+            }
+            EventData bcEv    = evk.getDBRecord();
+            bcEv.setGeoPoint(gp);
+            bcEv.setSpeedKPH(evdb.getSpeedKPH());
+            bcEv.setHeading(evdb.getHeading());
+            bcEv.setOdometerKM(evdb.getOdometerKM());
+            bcEv.setSubdivision(exit? lastSubDiv : subDiv);
+            bcEv.setTransportID(this.getTransportID());
+            bcEv.setDeviceNoCopy(this);
+            bcEv.setInsertionDevice(this);
+            this.eventWillInsert(bcEv);
+            try {
+                bcEv.insert();
+            } catch (DBException dbe) {
+                Print.logError("Unable to insert border-crossing event: " + dbe);
+                continue;
+            }
+            if (bcEv.isLastCaughtSQLExceptionErrorCode(DBFactory.SQLERR_DUPLICATE_KEY)) {
+                // -- inserted concurrently (duplicate key ignored by "insert()")
+                continue;
+            }
+            count++;
+            if (recentIndex != null) {
+                recentIndex.add(acctID, devID, priorLastTS, ts, sc);
+            }
+            this.eventDidInsert(bcEv); // insertion bus (DeviceDailySummary, etc)
+            this.checkEventRules(bcEv, false);
+        }
+        return count;
+
+    }
+
     // ------------------------------------------------------------------------
 
     /**
@@ -9383,7 +9724,9 @@ public class Device // Asset
         GeoPoint lastValidLoc = this.getLastValidLocation(true); // try last event
         double odomKM = this.getLastOdometerKM(); // only try cached value
         if (GeoPoint.isValid(geoPoint) && (lastValidLoc != null)) {
-            odomKM += geoPoint.kilometersToPoint(lastValidLoc);
+            odomKM += GeoPoint.fastMetersBetween(
+                lastValidLoc.getLatitude(), lastValidLoc.getLongitude(),
+                geoPoint.getLatitude()    , geoPoint.getLongitude()    ) / 1000.0;
         }
         return odomKM;
     }
@@ -15794,11 +16137,20 @@ public class Device // Asset
             this.log_EventData(Device.GetLogEventDataInsertion(), evdb);
         }
 
+        /* stateline subdivision (fast local SubdivisionProvider only) */
+        long   priorLastTS = this.getLastEventTimestamp();
+        String subDiv      = this.annotateSubdivision(evdb);
+
         /* insert event */
         try {
             if (!this._insertEventData(evdb)) {
                 // -- event was ignored
-                Print.logWarn("Event not inserted ...");
+                if (evdb.isInsertSuppressed()) {
+                    // -- quietly suppressed (duplicate/rate-limited), already logged
+                    Print.logDebug("Event suppressed ...");
+                } else {
+                    Print.logWarn("Event not inserted ...");
+                }
                 return false; // EventData not inserted, not a database error
             }
         } catch (DBException dbe) {
@@ -15806,6 +16158,11 @@ public class Device // Asset
             throw dbe;
         }
 
+        /* stateline border-crossing check (accepted, newer events only) */
+        if ((subDiv != null) && (evdb.getTimestamp() > priorLastTS)) {
+            this.checkSubdivisionTransition(evdb, subDiv, priorLastTS);
+        }
+
         /* status code */
         int sc = evdb.getStatusCode();
 
@@ -16089,6 +16446,38 @@ public class Device // Asset
             return true; // debug/testing only
         }
 
+        /* duplicate/late event check */
+        // -- STATUS_GFMI_STOP_STATUS_1 may be reassigned below, and is not checked here
+        RecentEventIndex recentIndex = Device.GetRecentEventIndex();
+        RecentEventIndex.Order eventOrder = RecentEventIndex.Order.UNKNOWN;
+        if ((recentIndex != null) && (statusCode != StatusCodes.STATUS_GFMI_STOP_STATUS_1)) {
+            // -- NEW/LATE events are reserved in the index, and must be released if not inserted
+            eventOrder = recentIndex.reserve(acctID, devID, lastEventTime, eventTime, statusCode);
+            switch (eventOrder) {
+                case DUPLICATE:
+                    // -- already inserted, quietly ignore resent event
+                    evdb.setInsertSuppressed(true);
+                    Print.logDebug("Duplicate EventData: "+acctID+"/"+devID+" "+eventTime+" 0x"+StringTools.toHexString(statusCode,16)+" [ignoring record]");
+                    return false; // not a database error
+                case LATE:
+                    // -- not previously inserted, but older than the last event
+                    Print.logDebug("Late EventData: "+acctID+"/"+devID+" "+new DateTime(eventTime));
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        /* events-per-second limit (downsample excess location-only events, not applied to old/backfilled events) */
+        if (!isOldEvent && !EventRateLimiter.getInstance().allow(this, evdb)) {
+            if ((eventOrder == RecentEventIndex.Order.NEW) || (eventOrder == RecentEventIndex.Order.LATE)) {
+                recentIndex.release(acctID, devID, eventTime, statusCode);
+            }
+            evdb.setInsertSuppressed(true);
+            Print.logDebug("EventData exceeds events-per-second limit: "+acctID+"/"+devID+" [ignoring record]");
+            return false; // not a database error
+        }
+
         /* extended EventData record update */
         int extUpdate = EXT_UPDATE_NONE;
 
@@ -16148,8 +16537,8 @@ public class Device // Asset
                 //    this.getAccountID(), this.getDeviceID(), rgName,
                 //    evdb.getGeoPoint().toString(), evdb.getAddress());
                 // -- we don't care about the names of the fields updated, since all fields will be saved below
-                if (Device.supportsLastSubdivision()) {
-                    // -- update Device "lastSubdivision"
+                if (Device.supportsLastSubdivision() && !Device.hasFastSubdivisionProvider()) {
+                    // -- update Device "lastSubdivision" (if not maintained by "checkSubdivisionTransition")
                     String subDiv = evdb.getSubdivision();
                     if (!StringTools.isBlank(subDiv)) {
                         this.setLastSubdivision(subDiv); // Mod: Device.FLD_lastSubdivision
@@ -16177,7 +16566,8 @@ public class Device // Asset
         }
 
         /* stateline border-crossing check */
-        // -- not performed here (SLBC check performed in cron task)
+        // -- performed in "insertEventData_throw" if a fast SubdivisionProvider is defined,
+        // -  otherwise not performed here (SLBC check performed in cron task)
         //if (this.getBorderCrossing() == Device.BorderCrossingState.ON.getIntValue()) {
         //   // -- border-crossing is always considered a slow operation
         //   //extUpdate |= EXT_UPDATE_BORDER;
@@ -16623,7 +17013,25 @@ public class Device // Asset
 
         /* save EventData record */
         try {
-            evdb.save(); // insert();
+            if ((eventOrder == RecentEventIndex.Order.NEW) || (eventOrder == RecentEventIndex.Order.LATE)) {
+                // -- reserved in the RecentEventIndex, skip the "exists" check performed by "save()"
+                try {
+                    evdb.insert();
+                } catch (DBException dbe) {
+                    recentIndex.release(acctID, devID, eventTime, statusCode);
+                    throw dbe;
+                }
+                if (evdb.isLastCaughtSQLExceptionErrorCode(DBFactory.SQLERR_DUPLICATE_KEY)) {
+                    // -- unexpectedly exists (ie. inserted by another process), update existing record
+                    Print.logWarn("EventData insert found duplicate key, retrying save: " + evdb);
+                    evdb.save();
+                }
+            } else {
+                evdb.save(); // insert();
+                if (recentIndex != null) {
+                    recentIndex.add(acctID, devID, lastEventTime, evdb.getTimestamp(), evdb.getStatusCode());
+                }
+            }
             // -- may be re-saved below after deferred reverse-geocode
         } catch (DBException dbe) {
             // -- save failed, print error
@@ -17047,8 +17455,8 @@ public class Device // Asset
                 if (updf != null) {
                     if (updatedEvFields == null) { updatedEvFields = new HashSet<String>(); }
                     updatedEvFields.addAll(updf);
-                    // -- update Device "lastSubdivision"
-                    if (Device.supportsLastSubdivision()) {
+                    // -- update Device "lastSubdivision" (if not maintained by "checkSubdivisionTransition")
+                    if (Device.supportsLastSubdivision() && !Device.hasFastSubdivisionProvider()) {
                         String subDiv = evdb.getSubdivision();
                         if (!StringTools.isBlank(subDiv)) {
                             this.setLastSubdivision(subDiv); // FLD_lastSubdivision
@@ -17066,7 +17474,7 @@ public class Device // Asset
         }
 
         /* stateline border-crossing check here */
-        // -- check border-crossing in nightly cron
+        // -- checked inline by "checkSubdivisionTransition", otherwise in nightly cron
 
         /* update */
         if (!ListTools.isEmpty(updatedEvFields)) {
@@ -17287,6 +17695,7 @@ public class Device // Asset
             throw new DBException("Deleting EventData records", sqe);
         } finally {
             DBConnection.release(dbc);
+            Device.ClearRecentEventIndex(this.getAccountID(), this.getDeviceID());
         }
 
         /* number of records deleted (or supposed to have been deleted) */
@@ -0,0 +1,1091 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2020, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Pre-aggregated per-Device per-Day summary of the EventData table (event
+//  count, distance, driving/idle time, stops, maximum speed).  The day boundary
+//  is based on the Account TimeZone.  Rows are maintained incrementally as
+//  events are inserted (see "DeviceDailySummary.updateOnInsert"), and may be
+//  (re)built from existing EventData with the "-rebuild" command-line option.
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19  GTS Development Team
+//     -Initial release
+//     -An event equal to the last accumulated event (timestamp and status code) is ignored.
+//      Days receiving late/dropped events are marked dirty and rebuilt asynchronously,
+//      together with the following day (see "markDirty")
+// ----------------------------------------------------------------------------
+package org.opengts.db.tables;
+
+import java.lang.*;
+import java.util.*;
+import java.math.*;
+import java.io.*;
+import java.sql.*;
+
+import org.opengts.util.*;
+
+import org.opengts.dbtools.*;
+import org.opengts.db.*;
+
+public class DeviceDailySummary
+    extends DeviceRecord<DeviceDailySummary>
+{
+
+    // ------------------------------------------------------------------------
+
+    /* default accumulation values */
+    public  static final double DFT_minMovingSpeedKPH   = 5.0;
+    public  static final long   DFT_maxIntervalSec      = DateTime.HourSeconds(1);
+
+    /* ignition state */
+    public  static final int    IGNITION_UNKNOWN        = -1;
+    public  static final int    IGNITION_OFF            =  0;
+    public  static final int    IGNITION_ON             =  1;
+
+    /**
+    *** Returns true if DeviceDailySummary rows should be updated as EventData records
+    *** are inserted
+    **/
+    public static boolean IsUpdateOnInsert()
+    {
+        return RTConfig.getBoolean(DBConfig.PROP_DeviceDailySummary_updateOnInsert,false);
+    }
+
+    /**
+    *** Returns true if reports should use the DeviceDailySummary rows, where possible,
+    *** in place of scanning the EventData table
+    **/
+    public static boolean UseForReports()
+    {
+        return RTConfig.getBoolean(DBConfig.PROP_DeviceDailySummary_useForReports,false);
+    }
+
+    /**
+    *** Gets the minimum speed at which the Device is considered to be moving
+    **/
+    public static double GetMinimumMovingSpeedKPH()
+    {
+        return RTConfig.getDouble(DBConfig.PROP_DeviceDailySummary_minMovingSpeedKPH,DFT_minMovingSpeedKPH);
+    }
+
+    /**
+    *** Gets the maximum interval between consecutive events which will be counted as
+    *** driving/idle time.
+    **/
+    public static long GetMaximumIntervalSec()
+    {
+        return RTConfig.getLong(DBConfig.PROP_DeviceDailySummary_maxIntervalSec,DFT_maxIntervalSec);
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+    // SQL table definition below
+
+    /* table name */
+    public static final String _TABLE_NAME              = "DeviceDailySummary";
+    public static String TABLE_NAME() { return DBProvider._preTranslateTableName(_TABLE_NAME); }
+
+    /* field definition */
+    public static final String FLD_dayNumber            = "dayNumber";          // DayNumber (Account TimeZone)
+    public static final String FLD_eventCount           = "eventCount";
+    public static final String FLD_firstTimestamp       = "firstTimestamp";
+    public static final String FLD_lastTimestamp        = "lastTimestamp";
+    public static final String FLD_distanceKM           = "distanceKM";
+    public static final String FLD_startOdometerKM      = "startOdometerKM";
+    public static final String FLD_endOdometerKM        = "endOdometerKM";
+    public static final String FLD_drivingTime          = "drivingTime";        // seconds
+    public static final String FLD_idleTime             = "idleTime";           // seconds
+    public static final String FLD_stopCount            = "stopCount";
+    public static final String FLD_maxSpeedKPH          = "maxSpeedKPH";
+    public static final String FLD_lastSpeedKPH         = "lastSpeedKPH";
+    public static final String FLD_lastLatitude         = "lastLatitude";
+    public static final String FLD_lastLongitude        = "lastLongitude";
+    public static final String FLD_lastIgnitionState    = "lastIgnitionState";
+    public static final String FLD_lastStatusCode       = "lastStatusCode";
+    private static DBField FieldInfo[] = {
+        // DeviceDailySummary fields
+        newField_accountID(true),
+        newField_deviceID(true),
+        new DBField(FLD_dayNumber        , Long.TYPE    , DBField.TYPE_UINT32, "Day Number"               , "key=true"),
+        new DBField(FLD_eventCount       , Long.TYPE    , DBField.TYPE_UINT32, "Event Count"              , ""),
+        new DBField(FLD_firstTimestamp   , Long.TYPE    , DBField.TYPE_UINT32, "First Event Timestamp"    , "format=time"),
+        new DBField(FLD_lastTimestamp    , Long.TYPE    , DBField.TYPE_UINT32, "Last Event Timestamp"     , "format=time"),
+        new DBField(FLD_distanceKM       , Double.TYPE  , DBField.TYPE_DOUBLE, "Distance Travelled km"    , "format=#0.0 units=distance"),
+        new DBField(FLD_startOdometerKM  , Double.TYPE  , DBField.TYPE_DOUBLE, "Starting Odometer km"     , "format=#0.0 units=distance"),
+        new DBField(FLD_endOdometerKM    , Double.TYPE  , DBField.TYPE_DOUBLE, "Last Odometer km"         , "format=#0.0 units=distance"),
+        new DBField(FLD_drivingTime      , Long.TYPE    , DBField.TYPE_UINT32, "Driving Time (sec)"       , ""),
+        new DBField(FLD_idleTime         , Long.TYPE    , DBField.TYPE_UINT32, "Idle Time (sec)"          , ""),
+        new DBField(FLD_stopCount        , Long.TYPE    , DBField.TYPE_UINT32, "Stop Count"               , ""),
+        new DBField(FLD_maxSpeedKPH      , Double.TYPE  , DBField.TYPE_DOUBLE, "Maximum Speed km/h"       , "format=#0.0 units=speed"),
+        new DBField(FLD_lastSpeedKPH     , Double.TYPE  , DBField.TYPE_DOUBLE, "Last Speed km/h"          , "format=#0.0 units=speed"),
+        new DBField(FLD_lastLatitude     , Double.TYPE  , DBField.TYPE_DOUBLE, "Last Latitude"            , "format=#0.00000"),
+        new DBField(FLD_lastLongitude    , Double.TYPE  , DBField.TYPE_DOUBLE, "Last Longitude"           , "format=#0.00000"),
+        new DBField(FLD_lastIgnitionState, Integer.TYPE , DBField.TYPE_INT16 , "Last Ignition State"      , ""),
+        new DBField(FLD_lastStatusCode   , Integer.TYPE , DBField.TYPE_UINT32, "Last Status Code"         , "format=X2"),
+        // Common fields
+        newField_lastUpdateTime(),
+        newField_creationTime(),
+    };
+
+    /* key class */
+    public static class Key
+        extends DeviceKey<DeviceDailySummary>
+    {
+        public Key() {
+            super();
+        }
+        public Key(String accountId, String deviceId, long dayNumber) {
+            super.setKeyValue(FLD_accountID, ((accountId != null)? accountId.toLowerCase() : ""));
+            super.setKeyValue(FLD_deviceID , ((deviceId  != null)? deviceId .toLowerCase() : ""));
+            super.setKeyValue(FLD_dayNumber, dayNumber);
+        }
+        public DBFactory<DeviceDailySummary> getFactory() {
+            return DeviceDailySummary.getFactory();
+        }
+    }
+
+    /* factory constructor */
+    private static DBFactory<DeviceDailySummary> factory = null;
+    public static DBFactory<DeviceDailySummary> getFactory()
+    {
+        if (factory == null) {
+            factory = DBFactory.createDBFactory(
+                DeviceDailySummary.TABLE_NAME(),
+                DeviceDailySummary.FieldInfo,
+                DBFactory.KeyType.PRIMARY,
+                DeviceDailySummary.class,
+                DeviceDailySummary.Key.class,
+                false/*editable*/, true/*viewable*/);
+            factory.addParentTable(Account.TABLE_NAME());
+            factory.addParentTable(Device.TABLE_NAME());
+        }
+        return factory;
+    }
+
+    /* Bean instance */
+    public DeviceDailySummary()
+    {
+        super();
+    }
+
+    /* database record */
+    public DeviceDailySummary(DeviceDailySummary.Key key)
+    {
+        super(key);
+    }
+
+    // ------------------------------------------------------------------------
+
+    /* table description */
+    public static String getTableDescription(Locale loc)
+    {
+        I18N i18n = I18N.getI18N(DeviceDailySummary.class, loc);
+        return i18n.getString("DeviceDailySummary.description",
+            "This table contains " +
+            "a per-Device per-Day summary of the EventData table, used by summary reports."
+            );
+    }
+
+    // SQL table definition above
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+    // Bean access fields below
+
+    public long getDayNumber()
+    {
+        return this.getFieldValue(FLD_dayNumber, 0L);
+    }
+
+    private void setDayNumber(long v)
+    {
+        this.setFieldValue(FLD_dayNumber, v);
+    }
+
+    // ------------------------------------------------------------------------
+
+    public long getEventCount()
+    {
+        return this.getFieldValue(FLD_eventCount, 0L);
+    }
+
+    public void setEventCount(long v)
+    {
+        this.setFieldValue(FLD_eventCount, ((v >= 0L)? v : 0L));
+    }
+
+    // ------------------------------------------------------------------------
+
+    public long getFirstTimestamp()
+    {
+        return this.getFieldValue(FLD_firstTimestamp, 0L);
+    }
+
+    public void setFirstTimestamp(long v)
+    {
+        this.setFieldValue(FLD_firstTimestamp, v);
+    }
+
+    public long getLastTimestamp()
+    {
+        return this.getFieldValue(FLD_lastTimestamp, 0L);
+    }
+
+    public void setLastTimestamp(long v)
+    {
+        this.setFieldValue(FLD_lastTimestamp, v);
+    }
+
+    // ------------------------------------------------------------------------
+
+    public double getDistanceKM()
+    {
+        return this.getFieldValue(FLD_distanceKM, 0.0);
+    }
+
+    public void setDistanceKM(double v)
+    {
+        this.setFieldValue(FLD_distanceKM, ((v >= 0.0)? v : 0.0));
+    }
+
+    public double getStartOdometerKM()
+    {
+        return this.getFieldValue(FLD_startOdometerKM, 0.0);
+    }
+
+    public void setStartOdometerKM(double v)
+    {
+        this.setFieldValue(FLD_startOdometerKM, v);
+    }
+
+    public double getEndOdometerKM()
+    {
+        return this.getFieldValue(FLD_endOdometerKM, 0.0);
+    }
+
+    public void setEndOdometerKM(double v)
+    {
+        this.setFieldValue(FLD_endOdometerKM, v);
+    }
+
+    // ------------------------------------------------------------------------
+
+    public long getDrivingTime()
+    {
+        return this.getFieldValue(FLD_drivingTime, 0L);
+    }
+
+    public void setDrivingTime(long v)
+    {
+        this.setFieldValue(FLD_drivingTime, ((v >= 0L)? v : 0L));
+    }
+
+    public long getIdleTime()
+    {
+        return this.getFieldValue(FLD_idleTime, 0L);
+    }
+
+    public void setIdleTime(long v)
+    {
+        this.setFieldValue(FLD_idleTime, ((v >= 0L)? v : 0L));
+    }
+
+    public long getStopCount()
+    {
+        return this.getFieldValue(FLD_stopCount, 0L);
+    }
+
+    public void setStopCount(long v)
+    {
+        this.setFieldValue(FLD_stopCount, ((v >= 0L)? v : 0L));
+    }
+
+    // ------------------------------------------------------------------------
+
+    public double getMaxSpeedKPH()
+    {
+        return this.getFieldValue(FLD_maxSpeedKPH, 0.0);
+    }
+
+    public void setMaxSpeedKPH(double v)
+    {
+        this.setFieldValue(FLD_maxSpeedKPH, ((v >= 0.0)? v : 0.0));
+    }
+
+    public double getLastSpeedKPH()
+    {
+        return this.getFieldValue(FLD_lastSpeedKPH, 0.0);
+    }
+
+    public void setLastSpeedKPH(double v)
+    {
+        this.setFieldValue(FLD_lastSpeedKPH, ((v >= 0.0)? v : 0.0));
+    }
+
+    // ------------------------------------------------------------------------
+
+    public double getLastLatitude()
+    {
+        return this.getFieldValue(FLD_lastLatitude, 0.0);
+    }
+
+    public double getLastLongitude()
+    {
+        return this.getFieldValue(FLD_lastLongitude, 0.0);
+    }
+
+    public void setLastGeoPoint(GeoPoint gp)
+    {
+        if (GeoPoint.isValid(gp)) {
+            this.setFieldValue(FLD_lastLatitude , gp.getLatitude());
+            this.setFieldValue(FLD_lastLongitude, gp.getLongitude());
+        }
+    }
+
+    public boolean hasLastGeoPoint()
+    {
+        return GeoPoint.isValid(this.getLastLatitude(), this.getLastLongitude());
+    }
+
+    // ------------------------------------------------------------------------
+
+    public int getLastIgnitionState()
+    {
+        return this.getFieldValue(FLD_lastIgnitionState, IGNITION_UNKNOWN);
+    }
+
+    public void setLastIgnitionState(int v)
+    {
+        this.setFieldValue(FLD_lastIgnitionState, ((v < 0)? IGNITION_UNKNOWN : (v > 0)? IGNITION_ON : IGNITION_OFF));
+    }
+
+    // ------------------------------------------------------------------------
+
+    public int getLastStatusCode()
+    {
+        return this.getFieldValue(FLD_lastStatusCode, StatusCodes.STATUS_NONE);
+    }
+
+    public void setLastStatusCode(int v)
+    {
+        this.setFieldValue(FLD_lastStatusCode, ((v >= 0)? v : StatusCodes.STATUS_NONE));
+    }
+
+    // Bean access fields above
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    public String toString()
+    {
+        return this.getAccountID() + "/" + this.getDeviceID() + "/" + (new DayNumber(this.getDayNumber()));
+    }
+
+    // ------------------------------------------------------------------------
+
+    /* overridden to set default values */
+    public void setCreationDefaultValues()
+    {
+        this.setLastIgnitionState(IGNITION_UNKNOWN);
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Seeds the "last event" state of this (new) day from the summary of the preceeding day.
+    *** The interval between the last event of the prior day, and the first event of this
+    *** day, is attributed to this day.  Days following a day without events are not seeded.
+    **/
+    private void seedFromPriorDay(DeviceDailySummary prior)
+    {
+        if ((prior != null) && (prior.getEventCount() > 0L)) {
+            this.setLastTimestamp(prior.getLastTimestamp());
+            this.setLastSpeedKPH(prior.getLastSpeedKPH());
+            this.setEndOdometerKM(prior.getEndOdometerKM());
+            this.setLastIgnitionState(prior.getLastIgnitionState());
+            this.setLastStatusCode(prior.getLastStatusCode());
+            if (prior.hasLastGeoPoint()) {
+                this.setFieldValue(FLD_lastLatitude , prior.getLastLatitude());
+                this.setFieldValue(FLD_lastLongitude, prior.getLastLongitude());
+            }
+        }
+    }
+
+    /**
+    *** Returns true if the specified event is the last event accumulated into this daily
+    *** summary (same timestamp and status code), ie. a re-delivered/re-saved event
+    **/
+    public boolean isLastEvent(EventData ev)
+    {
+        long lastTS = this.getLastTimestamp();
+        return (ev != null) && (lastTS > 0L) &&
+            (ev.getTimestamp() == lastTS) && (ev.getStatusCode() == this.getLastStatusCode());
+    }
+
+    /**
+    *** Accumulates the specified event into this daily summary.  Events must be added in
+    *** ascending timestamp order.
+    *** @param ev           The EventData record
+    *** @param minSpeedKPH  The minimum speed at which the Device is considered moving
+    *** @param maxInterval  The maximum interval counted as driving/idle time
+    *** @return False if the event preceeds, or is the same as, the last event accumulated
+    ***         into this summary (in which case it was not accumulated)
+    **/
+    public boolean addEvent(EventData ev, double minSpeedKPH, long maxInterval)
+    {
+        long ts = ev.getTimestamp();
+
+        /* previous event state */
+        long    lastTS    = this.getLastTimestamp();
+        boolean hasPrior  = (lastTS > 0L);
+        if (hasPrior && (ts < lastTS)) {
+            // -- out of order
+            return false;
+        } else
+        if (this.isLastEvent(ev)) {
+            // -- duplicate
+            return false;
+        }
+        boolean wasMoving = hasPrior && (this.getLastSpeedKPH() >= minSpeedKPH);
+        int     ignState  = this.getLastIgnitionState();
+
+        /* event state */
+        double  speedKPH  = ev.getSpeedKPH();
+        double  odomKM    = ev.getOdometerKM();
+        GeoPoint gp       = ev.isValidGeoPoint()? ev.getGeoPoint() : null;
+        boolean isMoving  = (speedKPH >= minSpeedKPH);
+
+        /* elapsed time (attributed to the state of the previous event) */
+        if (hasPrior) {
+            long deltaSec = ts - lastTS;
+            if ((deltaSec > 0L) && ((maxInterval <= 0L) || (deltaSec <= maxInterval))) {
+                if (wasMoving) {
+                    this.setDrivingTime(this.getDrivingTime() + deltaSec);
+                } else
+                if (ignState == IGNITION_ON) {
+                    this.setIdleTime(this.getIdleTime() + deltaSec);
+                }
+            }
+        }
+
+        /* distance (odometer delta, else GPS distance) */
+        double lastOdomKM = this.getEndOdometerKM();
+        if ((odomKM > 0.0) && (lastOdomKM > 0.0)) {
+            if (odomKM > lastOdomKM) {
+                this.setDistanceKM(this.getDistanceKM() + (odomKM - lastOdomKM));
+            }
+        } else
+        if ((gp != null) && this.hasLastGeoPoint()) {
+            double meters = GeoPoint.fastMetersBetween(
+                this.getLastLatitude(), this.getLastLongitude(),
+                gp.getLatitude()      , gp.getLongitude());
+            this.setDistanceKM(this.getDistanceKM() + (meters / 1000.0));
+        }
+
+        /* stops */
+        if (wasMoving && !isMoving) {
+            this.setStopCount(this.getStopCount() + 1L);
+        }
+
+        /* ignition state */
+        int sc = ev.getStatusCode();
+        if (sc == StatusCodes.STATUS_IGNITION_ON) {
+            ignState = IGNITION_ON;
+        } else
+        if (sc == StatusCodes.STATUS_IGNITION_OFF) {
+            ignState = IGNITION_OFF;
+        } else
+        if ((ignState == IGNITION_UNKNOWN) && isMoving) {
+            ignState = IGNITION_ON;
+        }
+
+        /* update summary */
+        if (this.getEventCount() <= 0L) {
+            this.setFirstTimestamp(ts);
+            if (odomKM > 0.0) {
+                this.setStartOdometerKM(odomKM);
+            }
+        } else
+        if ((this.getStartOdometerKM() <= 0.0) && (odomKM > 0.0)) {
+            this.setStartOdometerKM(odomKM);
+        }
+        this.setEventCount(this.getEventCount() + 1L);
+        this.setLastTimestamp(ts);
+        this.setLastSpeedKPH(speedKPH);
+        this.setLastIgnitionState(ignState);
+        this.setLastStatusCode(sc);
+        if (odomKM > 0.0) {
+            this.setEndOdometerKM(odomKM);
+        }
+        if (gp != null) {
+            this.setLastGeoPoint(gp);
+        }
+        if (speedKPH > this.getMaxSpeedKPH()) {
+            this.setMaxSpeedKPH(speedKPH);
+        }
+        return true;
+
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the DeviceDailySummary for the specified day
+    *** @param acctID    The Account ID
+    *** @param devID     The Device ID
+    *** @param dayNumber The day number
+    *** @param create    True to return a new (unsaved) record if the record does not exist
+    *** @return The DeviceDailySummary, or null if the record does not exist and 'create' is false
+    **/
+    public static DeviceDailySummary getDailySummary(String acctID, String devID, long dayNumber, boolean create)
+        throws DBException
+    {
+        DBReadWriteMode rwMode = DBReadWriteMode.READ_WRITE;
+        if (StringTools.isBlank(acctID) || StringTools.isBlank(devID) || (dayNumber <= 0L)) {
+            return null;
+        }
+        DeviceDailySummary.Key key = new DeviceDailySummary.Key(acctID, devID, dayNumber);
+        if (key.exists(rwMode)) { // may throw DBException
+            return key._getDBRecord(true, rwMode);
+        } else
+        if (create) {
+            DeviceDailySummary dds = key._getDBRecord();
+            dds.setCreationDefaultValues();
+            return dds;
+        } else {
+            return null;
+        }
+    }
+
+    /**
+    *** Gets the DeviceDailySummary records for the specified Device and day range,
+    *** in ascending day order.
+    *** @param acctID    The Account ID
+    *** @param devID     The Device ID
+    *** @param startDay  The first day number (inclusive)
+    *** @param endDay    The last day number (inclusive)
+    *** @return The DeviceDailySummary records (does not return null)
+    **/
+    public static DeviceDailySummary[] getDailySummaries(String acctID, String devID, long startDay, long endDay)
+        throws DBException
+    {
+        DBReadWriteMode rwMode = DBReadWriteMode.READ_ONLY;
+        if (StringTools.isBlank(acctID) || StringTools.isBlank(devID) || (endDay < startDay)) {
+            return new DeviceDailySummary[0];
+        }
+
+        /* DBSelect */
+        // DBSelect: SELECT * FROM DeviceDailySummary WHERE ((accountID='acct') AND (deviceID='dev') AND (dayNumber>=start) AND (dayNumber<=end)) ORDER BY dayNumber
+        DBSelect<DeviceDailySummary> dsel = new DBSelect<DeviceDailySummary>(DeviceDailySummary.getFactory());
+        DBWhere dwh = dsel.createDBWhere();
+        dsel.setWhere(dwh.WHERE_(
+            dwh.AND(
+                dwh.EQ(FLD_accountID,acctID),
+                dwh.EQ(FLD_deviceID ,devID),
+                dwh.GE(FLD_dayNumber,startDay),
+                dwh.LE(FLD_dayNumber,endDay)
+            )
+        ));
+        dsel.setOrderByFields(FLD_dayNumber);
+        dsel.setOrderAscending(true);
+
+        /* select */
+        DeviceDailySummary dds[] = DBRecord.select(rwMode, dsel, null);
+        return (dds != null)? dds : new DeviceDailySummary[0];
+
+    }
+
+    /**
+    *** Deletes the DeviceDailySummary records for the specified Device and day range
+    *** @param acctID    The Account ID
+    *** @param devID     The Device ID
+    *** @param startDay  The first day number (inclusive)
+    *** @param endDay    The last day number (inclusive)
+    **/
+    public static void deleteDailySummaries(String acctID, String devID, long startDay, long endDay)
+        throws DBException
+    {
+
+        /* SQL statement */
+        // DBDelete: DELETE FROM DeviceDailySummary WHERE ((accountID='acct') AND (deviceID='dev') AND (dayNumber>=start) AND (dayNumber<=end))
+        DBDelete ddel = new DBDelete(DeviceDailySummary.getFactory());
+        DBWhere dwh = ddel.createDBWhere();
+        ddel.setWhere(dwh.WHERE_(
+            dwh.AND(
+                dwh.EQ(FLD_accountID,acctID),
+                dwh.EQ(FLD_deviceID ,devID),
+                dwh.GE(FLD_dayNumber,startDay),
+                dwh.LE(FLD_dayNumber,endDay)
+            )
+        ));
+
+        /* delete */
+        DBConnection dbc = null;
+        try {
+            dbc = DBConnection.getDBConnection(DBReadWriteMode.DELETE);
+            dbc.executeUpdate(ddel.toString());
+        } catch (SQLException sqe) {
+            throw new DBException("Deleting DeviceDailySummary records", sqe);
+        } finally {
+            DBConnection.release(dbc);
+        }
+
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Rebuilds the DeviceDailySummary records for the specified Device and day range
+    *** from the EventData table.  The first day is seeded from the existing summary of
+    *** the preceeding day.
+    *** @param account   The Account (the Account TimeZone defines the day boundaries)
+    *** @param devID     The Device ID
+    *** @param startDay  The first day number (inclusive)
+    *** @param endDay    The last day number (inclusive)
+    *** @return The number of EventData records summarized
+    **/
+    public static long rebuildDailySummaries(Account account, String devID, long startDay, long endDay)
+        throws DBException
+    {
+        if ((account == null) || StringTools.isBlank(devID) || (startDay <= 0L) || (endDay < startDay)) {
+            return 0L;
+        }
+        String   acctID  = account.getAccountID();
+        TimeZone tz      = Account.getTimeZone(account, DateTime.getGMTTimeZone());
+        double   minKPH  = DeviceDailySummary.GetMinimumMovingSpeedKPH();
+        long     maxIntv = DeviceDailySummary.GetMaximumIntervalSec();
+        long     startTS = (new DayNumber(startDay)).getDayStart(tz).getTimeSec();
+        long     endTS   = (new DayNumber(endDay  )).getDayEnd(tz).getTimeSec();
+
+        /* remove existing summaries */
+        DeviceDailySummary.deleteDailySummaries(acctID, devID, startDay, endDay);
+
+        /* stream events in ascending order */
+        DBRecordCursor<EventData> cursor = EventData.getRangeEventCursor(
+            acctID, devID,
+            startTS, endTS,
+            null/*statusCodes*/,
+            false/*validGPS*/,
+            EventData.LimitType.FIRST, -1L/*limit*/, true/*ascending*/,
+            null/*addtnlSelect_1*/, null/*addtnlSelect_2*/,
+            null/*rcdHandler*/);
+        if (cursor == null) {
+            return 0L;
+        }
+        long count = 0L;
+        DeviceDailySummary dds = null;
+        try {
+            while (cursor.hasNext()) {
+                EventData ev  = cursor.next();
+                long      day = (new DateTime(ev.getTimestamp(),tz)).getDayNumber(tz);
+                if ((dds == null) || (dds.getDayNumber() != day)) {
+                    DeviceDailySummary prior;
+                    if (dds != null) {
+                        dds.save();
+                        prior = (dds.getDayNumber() == (day - 1L))? dds : null;
+                    } else {
+                        prior = DeviceDailySummary.getDailySummary(acctID, devID, day - 1L, false);
+                    }
+                    dds = DeviceDailySummary.getDailySummary(acctID, devID, day, true);
+                    dds.seedFromPriorDay(prior);
+                }
+                dds.addEvent(ev, minKPH, maxIntv);
+                count++;
+            }
+            if (dds != null) {
+                dds.save();
+            }
+        } finally {
+            cursor.close();
+        }
+        return count;
+
+    }
+
+    // ------------------------------------------------------------------------
+
+    private static final int                DEVICE_LOCK_COUNT   = 32;
+    private static final Object             DeviceLocks[]       = new Object[DEVICE_LOCK_COUNT];
+    static {
+        for (int i = 0; i < DeviceLocks.length; i++) {
+            DeviceLocks[i] = new Object();
+        }
+    }
+
+    /**
+    *** Gets the lock which serializes the incremental update, and the rebuild, of the
+    *** summaries for the specified Device
+    **/
+    private static Object _getDeviceLock(String devKey)
+    {
+        int h = (devKey != null)? devKey.hashCode() : 0;
+        return DeviceLocks[(h & 0x7FFFFFFF) % DeviceLocks.length];
+    }
+
+    // ------------------------------------------------------------------------
+
+    /* dirty Device time ranges pending rebuild ("account/device" ==> {minTS,maxTS}) */
+    private static final Map<String,long[]> DirtyMap            = new LinkedHashMap<String,long[]>();
+    private static boolean                  DirtyRebuildQueued  = false;
+    private static ThreadPool               RebuildThreadPool   = null;
+
+    /**
+    *** Gets the (single thread) ThreadPool used to rebuild dirty days
+    **/
+    private static ThreadPool _getRebuildThreadPool()
+    {
+        if (RebuildThreadPool == null) {
+            RebuildThreadPool = new ThreadPool("DeviceDailySummaryRebuild", 1, 60, 0);
+        }
+        return RebuildThreadPool;
+    }
+
+    /**
+    *** Marks the day containing the specified timestamp dirty, to be rebuilt asynchronously
+    *** from the EventData table.  Dirty ranges are coalesced per Device, so repeated calls
+    *** for the same Device queue a single rebuild.  Does not block.
+    *** @param acctID     The Account ID
+    *** @param devID      The Device ID
+    *** @param timestamp  The event timestamp
+    **/
+    public static void markDirty(String acctID, String devID, long timestamp)
+    {
+        if (StringTools.isBlank(acctID) || StringTools.isBlank(devID) || (timestamp <= 0L)) {
+            return;
+        }
+        String devKey = acctID + "/" + devID;
+        synchronized (DirtyMap) {
+            long range[] = DirtyMap.get(devKey);
+            if (range == null) {
+                DirtyMap.put(devKey, new long[] { timestamp, timestamp });
+            } else {
+                if (timestamp < range[0]) { range[0] = timestamp; }
+                if (timestamp > range[1]) { range[1] = timestamp; }
+            }
+            if (!DirtyRebuildQueued) {
+                DirtyRebuildQueued = DeviceDailySummary._getRebuildThreadPool().run(new Runnable() {
+                    public void run() {
+                        DeviceDailySummary._rebuildDirty();
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+    *** Rebuilds the dirty days until none remain.  Each dirty range is extended by the
+    *** following day (if it has a summary), since the first interval of that day is seeded
+    *** from the last event of the rebuilt day.
+    **/
+    private static void _rebuildDirty()
+    {
+        for (;;) {
+
+            /* next dirty Device range */
+            String devKey;
+            long   range[];
+            synchronized (DirtyMap) {
+                Iterator<Map.Entry<String,long[]>> i = DirtyMap.entrySet().iterator();
+                if (!i.hasNext()) {
+                    DirtyRebuildQueued = false;
+                    return;
+                }
+                Map.Entry<String,long[]> me = i.next();
+                devKey = me.getKey();
+                range  = me.getValue();
+                i.remove();
+            }
+            int    p      = devKey.indexOf('/');
+            String acctID = devKey.substring(0,p);
+            String devID  = devKey.substring(p+1);
+
+            /* rebuild */
+            try {
+                Account account = Account.getAccount(DBReadWriteMode.READ_WRITE, acctID);
+                if (account == null) {
+                    continue;
+                }
+                TimeZone tz       = Account.getTimeZone(account, DateTime.getGMTTimeZone());
+                long     startDay = (new DateTime(range[0],tz)).getDayNumber(tz);
+                long     endDay   = (new DateTime(range[1],tz)).getDayNumber(tz);
+                synchronized (DeviceDailySummary._getDeviceLock(devKey)) {
+                    if (DeviceDailySummary.getDailySummary(acctID, devID, endDay + 1L, false) != null) {
+                        // -- re-seed the following day
+                        endDay++;
+                    }
+                    Print.logDebug("Rebuilding DeviceDailySummary: " + devKey + " " + 
+                        (new DayNumber(startDay)) + " to " + (new DayNumber(endDay)));
+                    DeviceDailySummary.rebuildDailySummaries(account, devID, startDay, endDay);
+                }
+            } catch (Throwable th) {
+                Print.logException("Unable to rebuild DeviceDailySummary: " + devKey, th);
+            }
+
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Updates the DeviceDailySummary records with the specified list of inserted events.
+    *** Events are grouped by Device and Day, and each affected summary is saved once.
+    *** Events equal to the last summarized event are ignored.  Days receiving an event
+    *** older than the last summarized event are marked dirty, and are rebuilt from the
+    *** EventData table asynchronously (see "markDirty").
+    *** @param evList  The list of inserted EventData records
+    **/
+    public static void updateDailySummaries(java.util.List<EventData> evList)
+    {
+        if (ListTools.isEmpty(evList)) {
+            return;
+        }
+        double minKPH  = DeviceDailySummary.GetMinimumMovingSpeedKPH();
+        long   maxIntv = DeviceDailySummary.GetMaximumIntervalSec();
+
+        /* group events by Device (insertion order is preserved) */
+        Map<String,java.util.List<EventData>> devMap = new LinkedHashMap<String,java.util.List<EventData>>();
+        for (EventData ev : evList) {
+            if (ev == null) { continue; }
+            String devKey = ev.getAccountID() + "/" + ev.getDeviceID();
+            java.util.List<EventData> devEvents = devMap.get(devKey);
+            if (devEvents == null) {
+                devEvents = new Vector<EventData>();
+                devMap.put(devKey, devEvents);
+            }
+            devEvents.add(ev);
+        }
+
+        /* update each Device */
+        for (String devKey : devMap.keySet()) {
+            java.util.List<EventData> devEvents = devMap.get(devKey);
+            EventData first  = devEvents.get(0);
+            String    acctID = first.getAccountID();
+            String    devID  = first.getDeviceID();
+            try {
+                Account  account = first.getAccount();
+                TimeZone tz      = Account.getTimeZone(account, DateTime.getGMTTimeZone());
+                Collections.sort(devEvents, new Comparator<EventData>() {
+                    public int compare(EventData e1, EventData e2) {
+                        long t1 = e1.getTimestamp(), t2 = e2.getTimestamp();
+                        return (t1 < t2)? -1 : (t1 > t2)? 1 : 0;
+                    }
+                });
+                synchronized (DeviceDailySummary._getDeviceLock(devKey)) {
+                    Set<Long> dirtyDays = new OrderedSet<Long>();
+                    DeviceDailySummary dds = null;
+                    for (EventData ev : devEvents) {
+                        long day = (new DateTime(ev.getTimestamp(),tz)).getDayNumber(tz);
+                        if (dirtyDays.contains(new Long(day))) {
+                            // -- this day will be rebuilt
+                            continue;
+                        }
+                        if ((dds == null) || (dds.getDayNumber() != day)) {
+                            if ((dds != null) && !dirtyDays.contains(new Long(dds.getDayNumber()))) {
+                                dds.save();
+                            }
+                            dds = DeviceDailySummary.getDailySummary(acctID, devID, day, true);
+                            if (dds.getEventCount() <= 0L) {
+                                DeviceDailySummary prior = DeviceDailySummary.getDailySummary(acctID, devID, day - 1L, false);
+                                dds.seedFromPriorDay(prior);
+                            }
+                        }
+                        if (dds.isLastEvent(ev)) {
+                            // -- duplicate, already summarized
+                            continue;
+                        } else
+                        if (!dds.addEvent(ev, minKPH, maxIntv)) {
+                            // -- late event, rebuild this day (and the following day)
+                            dirtyDays.add(new Long(day));
+                            DeviceDailySummary.markDirty(acctID, devID, ev.getTimestamp());
+                        }
+                    }
+                    if ((dds != null) && !dirtyDays.contains(new Long(dds.getDayNumber()))) {
+                        dds.save();
+                    }
+                }
+            } catch (DBException dbe) {
+                Print.logException("Unable to update DeviceDailySummary: " + devKey, dbe);
+                DeviceDailySummary.markDirty(acctID, devID, first.getTimestamp());
+            }
+        }
+
+    }
+
+    /**
+    *** EventDataInsertionBus listener which updates the DeviceDailySummary records, and
+    *** marks the days of events dropped by the subscriber queue dirty
+    **/
+    private static class InsertionBatchListener
+        implements EventDataInsertionBus.BatchListener, EventDataInsertionBus.OverflowListener
+    {
+        public InsertionBatchListener() {
+            super();
+        }
+        public void eventsDidInsert(java.util.List<EventData> evList) {
+            DeviceDailySummary.updateDailySummaries(evList);
+        }
+        public void eventDropped(EventData ev) {
+            if (ev != null) {
+                DeviceDailySummary.markDirty(ev.getAccountID(), ev.getDeviceID(), ev.getTimestamp());
+            }
+        }
+    }
+
+    /**
+    *** Returns an EventDataInsertionBus.BatchListener which updates the DeviceDailySummary
+    *** records as events are inserted.  Events dropped by the subscriber queue mark their
+    *** day dirty for asynchronous rebuild.
+    **/
+    public static EventDataInsertionBus.BatchListener getInsertionBatchListener()
+    {
+        return new InsertionBatchListener();
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private static final String ARG_ACCOUNT[]   = new String[] { "account", "acct", "a" };
+    private static final String ARG_DEVICE[]    = new String[] { "device" , "dev" , "d" };
+    private static final String ARG_FROM[]      = new String[] { "from"   , "start"     };
+    private static final String ARG_TO[]        = new String[] { "to"     , "end"       };
+    private static final String ARG_REBUILD[]   = new String[] { "rebuild", "backfill"  };
+    private static final String ARG_LIST[]      = new String[] { "list"                 };
+
+    private static void usage()
+    {
+        Print.sysPrintln("Usage:");
+        Print.sysPrintln("  java ... " + DeviceDailySummary.class.getName() + " {options}");
+        Print.sysPrintln("Common Options:");
+        Print.sysPrintln("  -account=<id>       Account ID");
+        Print.sysPrintln("  -device=<id>        Device ID (all Account Devices if not specified)");
+        Print.sysPrintln("  -from=<yyyy/mm/dd>  First day (Account TimeZone)");
+        Print.sysPrintln("  -to=<yyyy/mm/dd>    Last day (Account TimeZone, defaults to today)");
+        Print.sysPrintln("  -rebuild            (Re)build daily summaries from EventData");
+        Print.sysPrintln("  -list               List daily summaries");
+        System.exit(1);
+    }
+
+    public static void main(String argv[])
+    {
+        DBConfig.cmdLineInit(argv,true);  // main
+        String acctID = RTConfig.getString(ARG_ACCOUNT, "");
+        String devID  = RTConfig.getString(ARG_DEVICE , "");
+
+        /* account */
+        if (StringTools.isBlank(acctID)) {
+            Print.sysPrintln("ERROR: Account ID not specified.");
+            usage();
+        }
+        Account account = null;
+        try {
+            account = Account.getAccount(acctID);
+            if (account == null) {
+                Print.sysPrintln("ERROR: Account not found: " + acctID);
+                System.exit(99);
+            }
+        } catch (DBException dbe) {
+            Print.logException("Error loading Account: " + acctID, dbe);
+            System.exit(99);
+        }
+        TimeZone tz = Account.getTimeZone(account, DateTime.getGMTTimeZone());
+
+        /* day range */
+        long toDay   = (new DateTime(tz)).getDayNumber(tz);
+        long fromDay = toDay;
+        try {
+            if (RTConfig.hasProperty(ARG_TO)) {
+                DateTime toDT = DateTime.parseArgumentDate(RTConfig.getString(ARG_TO,""), tz, true);
+                toDay = (toDT != null)? toDT.getDayNumber(tz) : toDay;
+            }
+            fromDay = toDay;
+            if (RTConfig.hasProperty(ARG_FROM)) {
+                DateTime frDT = DateTime.parseArgumentDate(RTConfig.getString(ARG_FROM,""), tz, false);
+                fromDay = (frDT != null)? frDT.getDayNumber(tz) : fromDay;
+            }
+        } catch (DateTime.DateParseException dpe) {
+            Print.sysPrintln("ERROR: Invalid date: " + dpe.getMessage());
+            usage();
+        }
+        if (toDay < fromDay) {
+            Print.sysPrintln("ERROR: 'to' date preceeds 'from' date");
+            usage();
+        }
+
+        /* device list */
+        java.util.List<String> devList = new Vector<String>();
+        if (!StringTools.isBlank(devID)) {
+            devList.add(devID);
+        } else {
+            try {
+                OrderedSet<String> devIDs = Device.getDeviceIDsForAccount(acctID, (User)null, true/*inclInactv*/);
+                if (devIDs != null) {
+                    devList.addAll(devIDs);
+                }
+            } catch (DBException dbe) {
+                Print.logException("Error reading Devices for Account: " + acctID, dbe);
+                System.exit(99);
+            }
+        }
+
+        /* rebuild */
+        if (RTConfig.getBoolean(ARG_REBUILD,false)) {
+            int exitCode = 0;
+            for (String dID : devList) {
+                try {
+                    long startMS = DateTime.getCurrentTimeMillis();
+                    long count   = DeviceDailySummary.rebuildDailySummaries(account, dID, fromDay, toDay);
+                    long deltaMS = DateTime.getCurrentTimeMillis() - startMS;
+                    Print.sysPrintln("Rebuilt " + acctID + "/" + dID + ": " + count + " events [" + deltaMS + " ms]");
+                } catch (DBException dbe) {
+                    Print.logException("Error rebuilding DeviceDailySummary: " + acctID + "/" + dID, dbe);
+                    exitCode = 99;
+                }
+            }
+            System.exit(exitCode);
+        }
+
+        /* list */
+        if (RTConfig.getBoolean(ARG_LIST,false)) {
+            for (String dID : devList) {
+                try {
+                    DeviceDailySummary dds[] = DeviceDailySummary.getDailySummaries(acctID, dID, fromDay, toDay);
+                    for (DeviceDailySummary d : dds) {
+                        Print.sysPrintln(d.toString() +
+                            " events="   + d.getEventCount() +
+                            " distKM="   + StringTools.format(d.getDistanceKM(),"0.0") +
+                            " driving="  + d.getDrivingTime() +
+                            " idle="     + d.getIdleTime() +
+                            " stops="    + d.getStopCount() +
+                            " maxKPH="   + StringTools.format(d.getMaxSpeedKPH(),"0.0"));
+                    }
+                } catch (DBException dbe) {
+                    Print.logException("Error reading DeviceDailySummary: " + acctID + "/" + dID, dbe);
+                    System.exit(99);
+                }
+            }
+            System.exit(0);
+        }
+
+        /* no options specified */
+        Print.sysPrintln("No command-line options specified");
+        usage();
+
+    }
+
+}
@@ -223,6 +223,14 @@
 //     -Added "PersonalHealth" fields [2.6.7-B17c]
 //     -Added field(s) FLD_roadSurface [2.6.7-B17h]
 //     -Added field(s) FLD_co2PPM, FLD_vocPPM [2.6.7-B34d]
+//  2026/10/19  GTS Development Team
+//     -"calculateReportDistance" uses the primitive GeoPoint.fastMetersBetween
+//     -Prefetch ReverseGeocodeCache tiles along the heading of moving vehicles
+//     -Added "getRangeEventCursor" for forward-only streaming of EventData selections
+//     -Added "createRangeEventSelector" and "GetDefaultOdometerOffsetType" for column-only
+//      EventData selections
+//     -Added transient "insertSuppressed" state, set for events quietly ignored during insertion
+//     -Old/future event deletion clears the device RecentEventIndex entry
 // ----------------------------------------------------------------------------
 package org.opengts.db.tables;
 
@@ -2597,6 +2605,41 @@ public class EventData
     
     private static OdometerOffsetType DefaultOdometerOffsetType = null;
 
+    /**
+    *** Gets the default odometer offset type (see "DBConfig.PROP_EventData_odometerOffsetType")
+    *** @return The default odometer offset type
+    **/
+    public static OdometerOffsetType GetDefaultOdometerOffsetType()
+    {
+        if (DefaultOdometerOffsetType == null) {
+            String T = StringTools.trim(RTConfig.getString(DBConfig.PROP_EventData_odometerOffsetType,"")).toUpperCase();
+            if (T.startsWith("NONE")) { 
+                // -- NONE
+                DefaultOdometerOffsetType = OdometerOffsetType.NONE;
+                Print.logInfo("Default Odometer Offset Type: " + DefaultOdometerOffsetType);
+                Print.logWarn("(Odometer offset will not be applied!)");
+            } else
+            if (T.startsWith("DEVICE")) { 
+                // -- DEVICE, DEVICE_ONLY, DEVICE-ONLY
+                DefaultOdometerOffsetType = OdometerOffsetType.DEVICE_ONLY;
+                Print.logInfo("Default Odometer Offset Type: " + DefaultOdometerOffsetType);
+                Print.logInfo("(Odometer offset obtained from the Device record only)");
+            } else
+            if (T.startsWith("EVENT")) { 
+                // -- EVENT, EVENT_ONLY, EVENT-ONLY, EVENTDATA
+                DefaultOdometerOffsetType = OdometerOffsetType.EVENT_ONLY;
+                Print.logInfo("Default Odometer Offset Type: " + DefaultOdometerOffsetType);
+                Print.logInfo("(Odometer offset obtained from the EventData record only)");
+            } else {
+                // -- (default) BEST
+                DefaultOdometerOffsetType = OdometerOffsetType.BEST;
+                Print.logInfo("Default Odometer Offset Type: " + DefaultOdometerOffsetType);
+                Print.logInfo("(Odometer offset obtained from the EventData or Device records)");
+            }
+        }
+        return DefaultOdometerOffsetType;
+    }
+
     /**
     *** Returns the odometer value, adjusted with the specified offset type
     *** @return The offset adjusted odometer value
@@ -2607,33 +2650,7 @@ public class EventData
         /* set default odometer offset type */
         //offsType = OdometerOffsetType.DEVICE_ONLY; // uncomment to force to DEVICE_ONLY
         if (offsType == null) {
-            if (DefaultOdometerOffsetType == null) {
-                String T = StringTools.trim(RTConfig.getString(DBConfig.PROP_EventData_odometerOffsetType,"")).toUpperCase();
-                if (T.startsWith("NONE")) { 
-                    // -- NONE
-                    DefaultOdometerOffsetType = OdometerOffsetType.NONE;
-                    Print.logInfo("Default Odometer Offset Type: " + DefaultOdometerOffsetType);
-                    Print.logWarn("(Odometer offset will not be applied!)");
-                } else
-                if (T.startsWith("DEVICE")) { 
-                    // -- DEVICE, DEVICE_ONLY, DEVICE-ONLY
-                    DefaultOdometerOffsetType = OdometerOffsetType.DEVICE_ONLY;
-                    Print.logInfo("Default Odometer Offset Type: " + DefaultOdometerOffsetType);
-                    Print.logInfo("(Odometer offset obtained from the Device record only)");
-                } else
-                if (T.startsWith("EVENT")) { 
-                    // -- EVENT, EVENT_ONLY, EVENT-ONLY, EVENTDATA
-                    DefaultOdometerOffsetType = OdometerOffsetType.EVENT_ONLY;
-                    Print.logInfo("Default Odometer Offset Type: " + DefaultOdometerOffsetType);
-                    Print.logInfo("(Odometer offset obtained from the EventData record only)");
-                } else {
-                    // -- (default) BEST
-                    DefaultOdometerOffsetType = OdometerOffsetType.BEST;
-                    Print.logInfo("Default Odometer Offset Type: " + DefaultOdometerOffsetType);
-                    Print.logInfo("(Odometer offset obtained from the EventData or Device records)");
-                }
-            }
-            offsType = DefaultOdometerOffsetType;
+            offsType = EventData.GetDefaultOdometerOffsetType();
         }
 
         /* return odometer offset based on type */
@@ -3775,6 +3792,10 @@ public class EventData
                     props.setProperty(Device.FLD_deviceID , devID);
                     String clientID = acctID;
                     rg = rgp.getReverseGeocode(addrGP, isMoving, localeStr, cache, clientID, props);
+                    if (isMoving) {
+                        // -- warm the ReverseGeocodeCache ahead of this vehicle
+                        rgp.prefetchReverseGeocode(addrGP, this.getHeading(), this.getSpeedKPH());
+                    }
                 } else {
                     // -- Account is expired/suspended/etc ...
                     Print.logInfo("Account is "+activeStatus+" - skipping reverse-geocode: " + acctID);
@@ -9998,6 +10019,28 @@ public class EventData
 
     // ------------------------------------------------------------------------
 
+    private boolean insertSuppressed = false;
+
+    /**
+    *** Sets the "suppressed" state of this event.<br>
+    *** This is set within the "device._insertEventData" method when the event is quietly
+    *** ignored (ie. a duplicate of a previously inserted event), rather than rejected.
+    **/
+    public void setInsertSuppressed(boolean suppressed)
+    {
+        this.insertSuppressed = suppressed;
+    }
+
+    /**
+    *** Returns true if this event was quietly ignored (not rejected) during insertion
+    **/
+    public boolean isInsertSuppressed()
+    {
+        return this.insertSuppressed;
+    }
+
+    // ------------------------------------------------------------------------
+
     private Device insertionDevice = null;
 
     /**
@@ -10181,7 +10224,9 @@ public class EventData
         }
 
         /* calculate/set */
-        double deltaKM = lastGP.kilometersToPoint(thisGP);
+        double deltaKM = GeoPoint.fastMetersBetween(
+            lastGP.getLatitude(), lastGP.getLongitude(),
+            thisGP.getLatitude(), thisGP.getLongitude()) / 1000.0;
         this.setReportDistanceKM(distKM + deltaKM, thisGP);
         return true;
 
@@ -11542,6 +11587,29 @@ public class EventData
 
     // ------------------------------------------------------------------------
 
+    /**
+    *** Creates the DBSelect for the range of EventData records (returns null if the
+    *** arguments are invalid).  The caller may narrow the selected columns with 
+    *** "DBSelect.setSelectedFields(...)" and read the ResultSet directly.  Note that a 
+    *** "LAST" limit type is selected in descending order (see "DBSelect.isOrderAscending()").
+    **/
+    public static DBSelect<EventData> createRangeEventSelector(
+        String acctId, String devId,
+        long timeStart, long timeEnd,
+        int statCode[],
+        boolean validGPS,
+        EventData.LimitType limitType, long limit, boolean ascending,
+        String addtnlSelect_1, String addtnlSelect_2)
+    {
+        return EventData._createRangeEventSelector(
+            acctId, devId, null,
+            timeStart, timeEnd,
+            statCode,
+            validGPS,
+            limitType, limit, ascending,
+            addtnlSelect_1, addtnlSelect_2);
+    }
+
     /* create range event selector */
     private static DBSelect<EventData> _createRangeEventSelector(
         String acctId, String devId, String drvId,
@@ -11738,6 +11806,76 @@ public class EventData
 
     }
 
+    /**
+    *** Returns a forward-only DBRecordCursor over the range of EventData records.<br>
+    *** Returns null if the selection cannot be streamed in the requested order 
+    *** (ie. a "LAST" limit type, which is selected in descending order and then reversed),
+    *** in which case "getRangeEvents" should be used instead.  The caller must close
+    *** the returned cursor if it is not read to completion.
+    **/
+    public static DBRecordCursor<EventData> getRangeEventCursor(
+        String acctId, String devId,
+        long timeStart, long timeEnd,
+        int statCode[],
+        boolean validGPS,
+        EventData.LimitType limitType, long limit, boolean ascending,
+        String addtnlSelect_1, String addtnlSelect_2,
+        DBRecordHandler<EventData> rcdHandler)
+        throws DBException
+    {
+        return EventData.getRangeEventCursor(null/*DBConnection*/,
+            acctId, devId,
+            timeStart, timeEnd,
+            statCode,
+            validGPS,
+            limitType, limit, ascending,
+            addtnlSelect_1, addtnlSelect_2,
+            rcdHandler);
+    }
+
+    /**
+    *** Returns a forward-only DBRecordCursor over the range of EventData records, executed
+    *** on the specified caller-owned unshared DBConnection (see "DBConnection.createDBConnection"),
+    *** or on a new unshared DBConnection if null.  The DBConnection may be reused for the next
+    *** cursor once this cursor has been closed.
+    **/
+    public static DBRecordCursor<EventData> getRangeEventCursor(
+        DBConnection dbc,
+        String acctId, String devId,
+        long timeStart, long timeEnd,
+        int statCode[],
+        boolean validGPS,
+        EventData.LimitType limitType, long limit, boolean ascending,
+        String addtnlSelect_1, String addtnlSelect_2,
+        DBRecordHandler<EventData> rcdHandler)
+        throws DBException
+    {
+
+        /* get record selector */
+        DBSelect<EventData> dsel = EventData._createRangeEventSelector(
+            acctId, devId, null,
+            timeStart, timeEnd,
+            statCode,
+            validGPS, 
+            limitType, limit, ascending,
+            addtnlSelect_1, addtnlSelect_2);
+        if (dsel == null) {
+            return null;
+        } else
+        if (dsel.isOrderAscending() != ascending) {
+            // -- must be reordered after selection, cannot stream
+            return null;
+        }
+
+        /* open cursor (table locking is not supported while streaming) */
+        if (dbc != null) {
+            return new DBRecordCursor<EventData>(dbc, dsel, rcdHandler);
+        } else {
+            return new DBRecordCursor<EventData>(DBReadWriteMode.READ_ONLY, dsel, rcdHandler);
+        }
+
+    }
+
     /* return count in range of EventData records */
     public static long countRangeEvents(
         String acctId, String devId,
@@ -12156,6 +12294,7 @@ public class EventData
             throw new DBException("Deleting future EventData records", sqe);
         } finally {
             DBConnection.release(dbc);
+            Device.ClearRecentEventIndex(acctID, devID);
         }
 
         /* return count */
@@ -12281,6 +12420,7 @@ public class EventData
             throw new DBException("Deleting old EventData records", sqe);
         } finally {
             DBConnection.release(dbc);
+            Device.ClearRecentEventIndex(acctID, devID);
         }
 
         /* return count */
@@ -91,6 +91,16 @@
 //     -Added "overwrite" option for load/import (defaults to false)
 //  2020/02/19  Martin D. Flynn
 //     -Added support for roleID-based Geozone visibility (see RoleVisibility) [2.6.7-B46h]
+//  2026/10/19  GTS Development Team
+//     -Added GeozoneIndex in-memory spatial index support to "getGeozone"/"getGeozones"
+//     -"containsPoint" now uses a cached CompiledGeometry for PointRadius, Rectangle,
+//      and Polygon zone types.
+//     -Added "classifyCell", and batch "getGeozonesForPoints"/"getGeozoneIDsForPoints"
+//     -SweptPointRadius (corridor) zones now use a compiled corridor with a segment grid
+//      index, and a per-device last-matched segment hint (see "getGeozonesForDevice")
+//     -Deleting a Geozone (Geozone.Key.delete) invalidates the GeozoneIndex Account entry
+//     -Compiled geometry is only used where the installed GeozoneChecker is the built-in checker
+//     -SweptPointRadius zones use the installed "GeoSegment" GeozoneChecker, if present
 // ----------------------------------------------------------------------------
 package org.opengts.db.tables;
 
@@ -525,6 +535,10 @@ public class Geozone
         public DBFactory<Geozone> getFactory() {
             return Geozone.getFactory();
         }
+        public void delete(boolean delDeps) throws DBException {
+            super.delete(delDeps);
+            GeozoneIndex.geozoneChanged(this.getKeyValues().getFieldValueAsString(FLD_accountID));
+        }
     }
 
     /* factory constructor */
@@ -1995,7 +2009,7 @@ public class Geozone
     {
 
         /* first get all active Geozones containing point (sorted by highest-to-loweest priority) */
-        Geozone gzAll[] = Geozone.getGeozones(acctID, gp); // all active Geozones containing point
+        Geozone gzAll[] = Geozone.getGeozones(DBReadWriteMode.READ_WRITE, acctID, gp, devID); // all active Geozones containing point
         if (ListTools.isEmpty(gzAll)) {
             // -- no active geozones found
             return null;
@@ -2037,7 +2051,7 @@ public class Geozone
     {
 
         /* first get all active Geozones containing point (sorted by highest-to-loweest priority) */
-        Geozone gzAll[] = Geozone.getGeozones(acctID, gp); // all active Geozones containing point
+        Geozone gzAll[] = Geozone.getGeozones(DBReadWriteMode.READ_WRITE, acctID, gp, devID); // all active Geozones containing point
         if (ListTools.isEmpty(gzAll)) {
             // -- no active geozones found
             return null;
@@ -2783,6 +2797,12 @@ public class Geozone
     private static GeozoneChecker geozonePolygon          = null;
     private static GeozoneChecker geozonePointOfInterest  = null;
 
+    /* compiled geometry is used only where the installed checker is the built-in checker */
+    private static boolean        compiledPointRadius     = false;
+    private static boolean        compiledRectangle       = false;
+    private static boolean        compiledPolygon         = false;
+    private static boolean        compiledCorridor        = false;
+
     private static void _initZoneTypes()
     {
         StringBuffer sb = new StringBuffer();
@@ -2846,6 +2866,12 @@ public class Geozone
             sb.append(",PointOfInterest");
         }
 
+        /* compiled geometry (results identical to the built-in checkers only) */
+        compiledPointRadius = (geozoneMultiPointRadius != null) && (geozoneMultiPointRadius == GeoPoint.getGeozoneChecker());
+        compiledRectangle   = (geozoneBoundedRectangle != null); // built-in (above)
+        compiledPolygon     = (geozonePolygon          != null) && (geozonePolygon          == GeoPolygon.getGeozoneChecker());
+        compiledCorridor    = (geozoneSweptPointRadius == null); // no installed checker
+
         /* display supported Geozone types */
         //Print.logDebug("Supported Geozone types: " + sb);
 
@@ -2872,6 +2898,18 @@ public class Geozone
 
     /* return true if this geozone contains the specified point */
     public boolean containsPoint(GeoPoint gp)
+    {
+        return this.containsPoint(gp, null);
+    }
+
+    /**
+    *** Returns true if this geozone contains the specified point
+    *** @param gp       The point to test
+    *** @param hintKey  The key (typically the DeviceID) under which the last matched corridor
+    ***                 segment is remembered for SweptPointRadius zones (null for no hint)
+    *** @return True if this geozone contains the specified point
+    **/
+    public boolean containsPoint(GeoPoint gp, String hintKey)
     {
 
         /* null/invalid GeoPoint? */
@@ -2887,17 +2925,25 @@ public class Geozone
                 if (this.isClientUpload()) {
                     radiusKM += CLIENT_RADIUS_DELTA_METERS / 1000.0;
                 }
-                if (geozoneMultiPointRadius != null) {
-                    return geozoneMultiPointRadius.containsPoint(gp,gzPts,radiusKM);
-                } else {
+                if (geozoneMultiPointRadius == null) {
                     return false;
+                } else
+                if (compiledPointRadius) {
+                    CompiledGeometry cg = this.getCompiledGeometry(GeozoneType.POINT_RADIUS, radiusKM);
+                    return (cg != null)? cg.containsPoint(gp) : false;
+                } else {
+                    return geozoneMultiPointRadius.containsPoint(gp,gzPts,radiusKM);
                 }
             }
             case BOUNDED_RECT: {
-                if (geozoneBoundedRectangle != null) {
-                    return geozoneBoundedRectangle.containsPoint(gp,gzPts,0.0);
-                } else {
+                if (geozoneBoundedRectangle == null) {
                     return false;
+                } else
+                if (compiledRectangle) {
+                    CompiledGeometry cg = this.getCompiledGeometry(GeozoneType.BOUNDED_RECT, 0.0);
+                    return (cg != null)? cg.containsPoint(gp) : false;
+                } else {
+                    return geozoneBoundedRectangle.containsPoint(gp,gzPts,0.0);
                 }
             }
             case SWEPT_POINT_RADIUS:  {
@@ -2906,21 +2952,24 @@ public class Geozone
                     // we make the radius slightly bigger if this was used for a client detected geozone
                     radiusKM += CLIENT_RADIUS_DELTA_METERS / 1000.0;
                 }
-                if (geozoneSweptPointRadius != null) {
+                if (!compiledCorridor) {
+                    // -- installed checker
                     return geozoneSweptPointRadius.containsPoint(gp,gzPts,radiusKM);
-                } else 
-                if (geozoneMultiPointRadius != null) {
-                    Print.logWarn("GeoSegment not installed, testing with PointRadius ...");
-                    return geozoneMultiPointRadius.containsPoint(gp,gzPts,radiusKM);
                 } else {
-                    return false;
+                    // -- compiled corridor (segment grid index, per-device segment hint)
+                    CompiledGeometry cg = this.getCompiledGeometry(GeozoneType.SWEPT_POINT_RADIUS, radiusKM);
+                    return (cg != null)? cg.containsPoint(gp.getLatitude(), gp.getLongitude(), hintKey) : false;
                 }
             }
             case POLYGON: {
-                if (geozonePolygon != null) {
-                    return geozonePolygon.containsPoint(gp,gzPts,0.0);
-                } else {
+                if (geozonePolygon == null) {
                     return false;
+                } else
+                if (compiledPolygon) {
+                    CompiledGeometry cg = this.getCompiledGeometry(GeozoneType.POLYGON, 0.0);
+                    return (cg != null)? cg.containsPoint(gp) : false;
+                } else {
+                    return geozonePolygon.containsPoint(gp,gzPts,0.0);
                 }
             }
             case POINT_OF_INTEREST:  {
@@ -2939,6 +2988,74 @@ public class Geozone
         return false;
     }
 
+    /**
+    *** Classifies the specified cell as entirely inside this Geozone, entirely outside this
+    *** Geozone, or straddling the Geozone boundary (in which case each point within the cell
+    *** must be tested with <code>containsPoint</code>).
+    *** @param minLat  The cell minimum latitude
+    *** @param maxLat  The cell maximum latitude
+    *** @param minLon  The cell minimum longitude
+    *** @param maxLon  The cell maximum longitude
+    *** @return CompiledGeometry.CELL_INSIDE, CELL_OUTSIDE, or CELL_BOUNDARY
+    ***         (CELL_BOUNDARY if the zone is evaluated by an installed GeozoneChecker)
+    **/
+    public int classifyCell(double minLat, double maxLat, double minLon, double maxLon)
+    {
+        CompiledGeometry cg;
+        switch (Geozone.getGeozoneType(this)) {
+            case POINT_RADIUS: {
+                double radiusKM  = this.getRadiusKilometers();
+                if (this.isClientUpload()) {
+                    radiusKM += CLIENT_RADIUS_DELTA_METERS / 1000.0;
+                }
+                if (geozoneMultiPointRadius == null) {
+                    return CompiledGeometry.CELL_OUTSIDE;
+                } else
+                if (!compiledPointRadius) {
+                    return CompiledGeometry.CELL_BOUNDARY; // always test with checker
+                }
+                cg = this.getCompiledGeometry(GeozoneType.POINT_RADIUS, radiusKM);
+                break;
+            }
+            case BOUNDED_RECT: {
+                if (geozoneBoundedRectangle == null) {
+                    return CompiledGeometry.CELL_OUTSIDE;
+                } else
+                if (!compiledRectangle) {
+                    return CompiledGeometry.CELL_BOUNDARY; // always test with checker
+                }
+                cg = this.getCompiledGeometry(GeozoneType.BOUNDED_RECT, 0.0);
+                break;
+            }
+            case POLYGON: {
+                if (geozonePolygon == null) {
+                    return CompiledGeometry.CELL_OUTSIDE;
+                } else
+                if (!compiledPolygon) {
+                    return CompiledGeometry.CELL_BOUNDARY; // always test with checker
+                }
+                cg = this.getCompiledGeometry(GeozoneType.POLYGON, 0.0);
+                break;
+            }
+            case SWEPT_POINT_RADIUS: {
+                double radiusKM  = this.getRadiusKilometers();
+                if (this.isClientUpload()) {
+                    radiusKM += CLIENT_RADIUS_DELTA_METERS / 1000.0;
+                }
+                if (!compiledCorridor) {
+                    return CompiledGeometry.CELL_BOUNDARY; // always test with checker
+                }
+                cg = this.getCompiledGeometry(GeozoneType.SWEPT_POINT_RADIUS, radiusKM);
+                break;
+            }
+            default: {
+                // -- POINT_OF_INTEREST never contains a point
+                return CompiledGeometry.CELL_OUTSIDE;
+            }
+        }
+        return (cg != null)? cg.classifyCell(minLat, maxLat, minLon, maxLon) : CompiledGeometry.CELL_OUTSIDE;
+    }
+
     /* return true if this geozone contains the specified point */
     public boolean containsPoint(GeoPointProvider gpp)
     {
@@ -3004,6 +3121,50 @@ public class Geozone
     {
         this.zoneChanged = true;
         this.cachedVertices = null;
+        this.compiledZone = null;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /* compiled geometry, keyed by the zone type/radius for which it was compiled */
+    private static class CompiledZone
+    {
+        public final GeozoneType      type;
+        public final double           radiusKM;
+        public final CompiledGeometry geom;
+        public CompiledZone(GeozoneType type, double radiusKM, CompiledGeometry geom) {
+            this.type     = type;
+            this.radiusKM = radiusKM;
+            this.geom     = geom;
+        }
+    }
+
+    private volatile CompiledZone compiledZone = null;
+
+    /**
+    *** Gets the compiled geometry of this Geozone for the specified zone type.
+    *** The compiled geometry is cached, and is discarded when the zone points or radius change.
+    *** @param type      The zone type (POINT_RADIUS, BOUNDED_RECT, SWEPT_POINT_RADIUS, or POLYGON)
+    *** @param radiusKM  The radius (POINT_RADIUS and SWEPT_POINT_RADIUS only)
+    *** @return The compiled geometry, or null if this zone has insufficient points
+    **/
+    protected CompiledGeometry getCompiledGeometry(GeozoneType type, double radiusKM)
+    {
+        CompiledZone cz = this.compiledZone;
+        if ((cz == null) || (cz.type != type) || (cz.radiusKM != radiusKM)) {
+            GeoPoint gzPts[] = this.getGeoPoints();
+            CompiledGeometry cg;
+            switch (type) {
+                case POINT_RADIUS       : cg = CompiledGeometry.pointRadius(gzPts, radiusKM);            break;
+                case SWEPT_POINT_RADIUS : cg = CompiledGeometry.corridor(gzPts, radiusKM);               break;
+                case BOUNDED_RECT       : cg = CompiledGeometry.rectangle(gzPts, CLIENT_GEOPOINT_DELTA); break;
+                case POLYGON            : cg = CompiledGeometry.polygon(gzPts);                          break;
+                default                 : cg = null;                                                     break;
+            }
+            cz = new CompiledZone(type, radiusKM, cg);
+            this.compiledZone = cz;
+        }
+        return cz.geom;
     }
 
     /* return true if a bounding box has been defined for this Geozone */
@@ -3210,6 +3371,24 @@ public class Geozone
         this.zoneChanged = false;
     }
 
+    /**
+    *** Callback after record has been be inserted into the table
+    **/
+    protected void recordDidInsert()
+    {
+        super.recordDidInsert();
+        GeozoneIndex.geozoneChanged(this.getAccountID());
+    }
+
+    /**
+    *** Callback after record has been be updated in the table
+    **/
+    protected void recordDidUpdate()
+    {
+        super.recordDidUpdate();
+        GeozoneIndex.geozoneChanged(this.getAccountID());
+    }
+
     // ------------------------------------------------------------------------
     // ------------------------------------------------------------------------
 
@@ -3463,6 +3642,34 @@ public class Geozone
             return null;
         }
 
+        /* in-memory spatial index */
+        GeozoneIndex gzIndex = GeozoneIndex.getInstance();
+        if (gzIndex != null) {
+            Geozone gza[] = null;
+            try {
+                gza = gzIndex.getGeozones(acctID, gp); // active only, sorted by priority
+            } catch (DBException dbe) {
+                Print.logError("Geozone error: " + dbe);
+                return null;
+            }
+            if (gza != null) {
+                for (Geozone gz : gza) {
+                    if (!StringTools.isBlank(zoneID) && !zoneID.equals(gz.getGeozoneID())) {
+                        continue;
+                    } else
+                    if (reverseGeocodeOnly && !gz.getReverseGeocode()) {
+                        continue;
+                    } else
+                    if (!gz.isZonePurposeID(purposeID)) {
+                        continue;
+                    }
+                    return gz;
+                }
+            }
+            if (debug) { Print.logInfo("Debug: No indexed Geozones found containing point"); }
+            return null;
+        }
+
         /* where clause */
         // DBSelect: [SELECT] WHERE <Where> ORDER BY geozoneID,sortID
         DBSelect<Geozone> dsel = new DBSelect<Geozone>(Geozone.getFactory());
@@ -3571,6 +3778,16 @@ public class Geozone
         String acctID, GeoPoint gp)
         throws DBException
     {
+        return Geozone.getGeozones(rwMode, acctID, gp, null/*hintKey*/);
+    }
+
+    /* Get all active Geozones in which the GeoPoint resides (sorted by priority) */
+    // -- "hintKey" is typically the DeviceID (see "containsPoint(GeoPoint,String)")
+    public static Geozone[] getGeozones(
+        DBReadWriteMode rwMode,
+        String acctID, GeoPoint gp, String hintKey)
+        throws DBException
+    {
 
         /* invalid account */
         if (StringTools.isBlank(acctID)) {
@@ -3582,6 +3799,12 @@ public class Geozone
             return null;
         }
 
+        /* in-memory spatial index */
+        GeozoneIndex gzIndex = GeozoneIndex.getInstance();
+        if (gzIndex != null) {
+            return gzIndex.getGeozones(acctID, gp, hintKey); // active only, sorted by priority
+        }
+
         /* where clause */
         // DBSelect: [SELECT] WHERE <Where> ORDER BY geozoneID,priority,sortID
         DBSelect<Geozone> dsel = new DBSelect<Geozone>(Geozone.getFactory());
@@ -3646,7 +3869,7 @@ public class Geozone
             String thisDesc = gz[g].getDescription();
 
             /* validate that Geozone contains point */
-            if (!gz[g].containsPoint(gp)) { // getGeozones
+            if (!gz[g].containsPoint(gp, hintKey)) { // getGeozones
                 // -- Geozone does not contain specified GeoPoint
                 gz[g] = null; // skip this geozone
             } else {
@@ -3689,6 +3912,132 @@ public class Geozone
         return Geozone.getGeozones(rwMode, acctID, gp);
     }
 
+    // ------------------------------------------------------------------------
+    // batch evaluation
+
+    /**
+    *** Gets, for each of the specified points, the highest priority active Geozone in which the
+    *** point resides (same criteria as <code>getGeozone</code>).  The Account Geozones are loaded
+    *** once (or taken from the in-memory spatial index, if enabled) and the points are evaluated
+    *** in parallel.
+    *** @param acctID              The Account ID
+    *** @param lat                 The point latitudes
+    *** @param lon                 The point longitudes
+    *** @param purposeID           The Geozone purpose ID (null for any)
+    *** @param reverseGeocodeOnly  True to include only reverse-geocode Geozones
+    *** @return An array containing the Geozone for each point (null elements for points
+    ***         not within any Geozone), or null if the Account ID or arrays are null
+    *** @throws DBException If an error occurs while loading the Account Geozones
+    **/
+    public static Geozone[] getGeozonesForPoints(
+        String acctID, double lat[], double lon[],
+        String purposeID, boolean reverseGeocodeOnly)
+        throws DBException
+    {
+        Geozone gza[][] = GeozoneIndex.getBatchInstance().getGeozones(acctID, lat, lon);
+        if (gza == null) {
+            return null;
+        }
+        Geozone gz[] = new Geozone[gza.length];
+        for (int i = 0; i < gza.length; i++) {
+            if (gza[i] == null) {
+                continue;
+            }
+            for (Geozone z : gza[i]) {
+                if (reverseGeocodeOnly && !z.getReverseGeocode()) {
+                    continue;
+                } else
+                if (!z.isZonePurposeID(purposeID)) {
+                    continue;
+                }
+                gz[i] = z;
+                break;
+            }
+        }
+        return gz;
+    }
+
+    /**
+    *** Gets, for each of the specified points, the ID of the highest priority active Geozone in
+    *** which the point resides.
+    *** @param acctID  The Account ID
+    *** @param lat     The point latitudes
+    *** @param lon     The point longitudes
+    *** @return An array containing the Geozone ID for each point (null elements for points
+    ***         not within any Geozone), or null if the Account ID or arrays are null
+    *** @throws DBException If an error occurs while loading the Account Geozones
+    *** @see #getGeozonesForPoints
+    **/
+    public static String[] getGeozoneIDsForPoints(
+        String acctID, double lat[], double lon[])
+        throws DBException
+    {
+        Geozone gz[] = Geozone.getGeozonesForPoints(acctID, lat, lon, null/*PurposeID*/, false/*RG*/);
+        if (gz == null) {
+            return null;
+        }
+        String ids[] = new String[gz.length];
+        for (int i = 0; i < gz.length; i++) {
+            ids[i] = (gz[i] != null)? gz[i].getGeozoneID() : null;
+        }
+        return ids;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /* Get all Geozones (active and inactive) for the account updated at/after the specified time */
+    public static Geozone[] getGeozonesUpdatedSince(
+        DBReadWriteMode rwMode,
+        String acctID, long updateTime)
+        throws DBException
+    {
+
+        /* invalid account */
+        if (StringTools.isBlank(acctID)) {
+            return null;
+        }
+
+        /* where clause */
+        // DBSelect: [SELECT] WHERE accountID='acct' [AND lastUpdateTime>=updateTime]
+        DBSelect<Geozone> dsel = new DBSelect<Geozone>(Geozone.getFactory());
+        DBWhere dwh = new DBWhere(Geozone.getFactory());
+        dwh.append(dwh.EQ(Geozone.FLD_accountID,acctID));
+        if (updateTime > 0L) {
+            dwh.append(dwh.AND_(dwh.GE(Geozone.FLD_lastUpdateTime,updateTime)));
+        }
+        dsel.setWhere(dwh.WHERE(dwh.toString()));
+
+        /* get Geozones */
+        try {
+            DBProvider.lockTables(new String[] { TABLE_NAME() }, null);
+            return DBRecord.select(rwMode, dsel); // select:DBSelect
+        } catch (DBException dbe) {
+            Print.logError("Geozone error: " + dbe);
+            throw dbe;
+        } finally {
+            try {
+                DBProvider.unlockTables();
+            } catch (DBException dbe) {
+                // ignore
+            }
+        }
+
+    }
+
+    /* Get count of all Geozones (active and inactive) for the account */
+    public static long getGeozoneCount(
+        DBReadWriteMode rwMode,
+        String acctID)
+        throws DBException
+    {
+        if (StringTools.isBlank(acctID)) {
+            return 0L;
+        }
+        DBWhere dwh = new DBWhere(Geozone.getFactory());
+        dwh.append(dwh.EQ(Geozone.FLD_accountID,acctID));
+        return DBRecord.getRecordCount(rwMode, Geozone.getFactory(), dwh.WHERE(dwh.toString()));
+    }
+
     // ------------------------------------------------------------------------
 
     /* Get all active Geozones which touch the specified GeoBounds */
@@ -0,0 +1,932 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2020, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Persistent queue of asynchronously generated reports.  Each record holds the
+//  report request (report, device/group, time range, format), the job state
+//  (queued, running, complete, failed, cancelled), and the location of the
+//  stored report output.  Jobs are executed by "org.opengts.war.report.ReportQueueManager".
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19  GTS Development Team
+//     -Initial release
+//     -"jobStatus" is an alternate (not primary) key.  Added "ownerID"/"heartbeatTime" and
+//      the conditional status updates used to claim/cancel/requeue jobs across nodes
+// ----------------------------------------------------------------------------
+package org.opengts.db.tables;
+
+import java.lang.*;
+import java.util.*;
+import java.math.*;
+import java.io.*;
+import java.sql.*;
+
+import org.opengts.util.*;
+
+import org.opengts.dbtools.*;
+import org.opengts.db.*;
+
+public class ReportQueue
+    extends AccountRecord<ReportQueue>
+{
+
+    // ------------------------------------------------------------------------
+
+    /* job status */
+    public  static final int    STATUS_QUEUED           = 0;
+    public  static final int    STATUS_RUNNING          = 1;
+    public  static final int    STATUS_COMPLETE         = 2;
+    public  static final int    STATUS_FAILED           = 3;
+    public  static final int    STATUS_CANCELLED        = 4;
+
+    /* job priority */
+    public  static final int    PRIORITY_LOW            = 0;
+    public  static final int    PRIORITY_NORMAL         = 5;
+    public  static final int    PRIORITY_HIGH           = 9;
+
+    /**
+    *** Gets the name of the specified job status
+    **/
+    public static String GetStatusName(int status)
+    {
+        switch (status) {
+            case STATUS_QUEUED   : return "queued";
+            case STATUS_RUNNING  : return "running";
+            case STATUS_COMPLETE : return "complete";
+            case STATUS_FAILED   : return "failed";
+            case STATUS_CANCELLED: return "cancelled";
+            default              : return "unknown";
+        }
+    }
+
+    /**
+    *** Returns true if the specified job status is final (the job will not be run again)
+    **/
+    public static boolean IsFinalStatus(int status)
+    {
+        return (status == STATUS_COMPLETE) || (status == STATUS_FAILED) || (status == STATUS_CANCELLED);
+    }
+
+    // ------------------------------------------------------------------------
+
+    private static long   LastJobTimeMS = 0L;
+    private static int    LastJobSeq    = 0;
+
+    /**
+    *** Creates a new unique job ID
+    **/
+    public static String CreateJobID()
+    {
+        long nowMS;
+        int  seq;
+        synchronized (ReportQueue.class) {
+            nowMS = DateTime.getCurrentTimeMillis();
+            if (nowMS == LastJobTimeMS) {
+                seq = ++LastJobSeq;
+            } else {
+                LastJobTimeMS = nowMS;
+                seq = LastJobSeq = 0;
+            }
+        }
+        return "j" + Long.toString(nowMS,36) + ((seq > 0)? ("-" + seq) : "");
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+    // SQL table definition below
+
+    /* table name */
+    public static final String _TABLE_NAME              = "ReportQueue";
+    public static String TABLE_NAME() { return DBProvider._preTranslateTableName(_TABLE_NAME); }
+
+    /* field definition */
+    public static final String FLD_jobID                = "jobID";
+    public static final String FLD_userID               = User.FLD_userID;
+    public static final String FLD_privateLabelName     = "privateLabelName";
+    public static final String FLD_localeString         = "localeString";
+    public static final String FLD_reportID             = "reportID";
+    public static final String FLD_reportOption         = "reportOption";
+    public static final String FLD_deviceID             = "deviceID";
+    public static final String FLD_groupID              = "groupID";
+    public static final String FLD_timeStart            = "timeStart";
+    public static final String FLD_timeEnd              = "timeEnd";
+    public static final String FLD_timeZone             = "timeZone";
+    public static final String FLD_format               = "format";
+    public static final String FLD_priority             = "priority";
+    public static final String FLD_jobStatus            = "jobStatus";
+    public static final String FLD_progress             = "progress";
+    public static final String FLD_recordCount          = "recordCount";
+    public static final String FLD_statusMessage        = "statusMessage";
+    public static final String FLD_outputFile           = "outputFile";
+    public static final String FLD_outputSize           = "outputSize";
+    public static final String FLD_queuedTime           = "queuedTime";
+    public static final String FLD_startTime            = "startTime";
+    public static final String FLD_endTime              = "endTime";
+    public static final String FLD_ownerID              = "ownerID";            // node running the job
+    public static final String FLD_heartbeatTime        = "heartbeatTime";      // owner last heartbeat
+    private static DBField FieldInfo[] = {
+        // ReportQueue fields
+        newField_accountID(true),
+        new DBField(FLD_jobID            , String.class , DBField.TYPE_ID()       , "Job ID"                 , "key=true"),
+        new DBField(FLD_userID           , String.class , DBField.TYPE_USER_ID()  , "User ID"                , ""),
+        new DBField(FLD_privateLabelName , String.class , DBField.TYPE_STRING(32) , "PrivateLabel Name"      , ""),
+        new DBField(FLD_localeString     , String.class , DBField.TYPE_STRING(16) , "Locale"                 , ""),
+        new DBField(FLD_reportID         , String.class , DBField.TYPE_STRING(64) , "Report ID"              , ""),
+        new DBField(FLD_reportOption     , String.class , DBField.TYPE_STRING(64) , "Report Option"          , ""),
+        new DBField(FLD_deviceID         , String.class , DBField.TYPE_DEV_ID()   , "Device ID"              , ""),
+        new DBField(FLD_groupID          , String.class , DBField.TYPE_GROUP_ID() , "Device Group ID"        , ""),
+        new DBField(FLD_timeStart        , Long.TYPE    , DBField.TYPE_UINT32     , "Report Start Time"      , "format=time"),
+        new DBField(FLD_timeEnd          , Long.TYPE    , DBField.TYPE_UINT32     , "Report End Time"        , "format=time"),
+        new DBField(FLD_timeZone         , String.class , DBField.TYPE_STRING(32) , "Time Zone"              , ""),
+        new DBField(FLD_format           , String.class , DBField.TYPE_STRING(16) , "Report Format"          , ""),
+        new DBField(FLD_priority         , Integer.TYPE , DBField.TYPE_INT16      , "Priority"               , ""),
+        new DBField(FLD_jobStatus        , Integer.TYPE , DBField.TYPE_INT16      , "Job Status"             , "altkey=status"),
+        new DBField(FLD_progress         , Double.TYPE  , DBField.TYPE_DOUBLE     , "Progress (0..1)"        , "format=#0.00"),
+        new DBField(FLD_recordCount      , Long.TYPE    , DBField.TYPE_UINT32     , "Report Record Count"    , ""),
+        new DBField(FLD_statusMessage    , String.class , DBField.TYPE_STRING(200), "Status Message"         , ""),
+        new DBField(FLD_outputFile       , String.class , DBField.TYPE_STRING(255), "Output File"            , ""),
+        new DBField(FLD_outputSize       , Long.TYPE    , DBField.TYPE_UINT64     , "Output Size (bytes)"    , ""),
+        new DBField(FLD_queuedTime       , Long.TYPE    , DBField.TYPE_UINT32     , "Queued Time"            , "format=time"),
+        new DBField(FLD_startTime        , Long.TYPE    , DBField.TYPE_UINT32     , "Job Start Time"         , "format=time"),
+        new DBField(FLD_endTime          , Long.TYPE    , DBField.TYPE_UINT32     , "Job End Time"           , "format=time"),
+        new DBField(FLD_ownerID          , String.class , DBField.TYPE_STRING(64) , "Owner Node ID"          , ""),
+        new DBField(FLD_heartbeatTime    , Long.TYPE    , DBField.TYPE_UINT32     , "Owner Heartbeat Time"   , "format=time"),
+        // Common fields
+        newField_lastUpdateTime(),
+        newField_creationTime(),
+    };
+
+    /* key class */
+    public static class Key
+        extends AccountKey<ReportQueue>
+    {
+        public Key() {
+            super();
+        }
+        public Key(String acctId, String jobId) {
+            super.setKeyValue(FLD_accountID, ((acctId != null)? acctId.toLowerCase() : ""));
+            super.setKeyValue(FLD_jobID    , ((jobId  != null)? jobId .toLowerCase() : ""));
+        }
+        public DBFactory<ReportQueue> getFactory() {
+            return ReportQueue.getFactory();
+        }
+    }
+
+    /* factory constructor */
+    private static DBFactory<ReportQueue> factory = null;
+    public static DBFactory<ReportQueue> getFactory()
+    {
+        if (factory == null) {
+            factory = DBFactory.createDBFactory(
+                ReportQueue.TABLE_NAME(),
+                ReportQueue.FieldInfo,
+                DBFactory.KeyType.PRIMARY,
+                ReportQueue.class,
+                ReportQueue.Key.class,
+                false/*editable*/, true/*viewable*/);
+            factory.addParentTable(Account.TABLE_NAME());
+        }
+        return factory;
+    }
+
+    /* Bean instance */
+    public ReportQueue()
+    {
+        super();
+    }
+
+    /* database record */
+    public ReportQueue(ReportQueue.Key key)
+    {
+        super(key);
+    }
+
+    // ------------------------------------------------------------------------
+
+    /* table description */
+    public static String getTableDescription(Locale loc)
+    {
+        I18N i18n = I18N.getI18N(ReportQueue.class, loc);
+        return i18n.getString("ReportQueue.description",
+            "This table contains " +
+            "the queue of asynchronously generated reports, and the location of their stored output."
+            );
+    }
+
+    // SQL table definition above
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+    // Bean access fields below
+
+    public String getJobID()
+    {
+        String v = (String)this.getFieldValue(FLD_jobID);
+        return StringTools.trim(v);
+    }
+
+    private void setJobID(String v)
+    {
+        this.setFieldValue(FLD_jobID, StringTools.trim(v));
+    }
+
+    // ------------------------------------------------------------------------
+
+    public String getUserID()
+    {
+        String v = (String)this.getFieldValue(FLD_userID);
+        return StringTools.trim(v);
+    }
+
+    public void setUserID(String v)
+    {
+        this.setFieldValue(FLD_userID, StringTools.trim(v));
+    }
+
+    // ------------------------------------------------------------------------
+
+    public String getPrivateLabelName()
+    {
+        String v = (String)this.getFieldValue(FLD_privateLabelName);
+        return StringTools.trim(v);
+    }
+
+    public void setPrivateLabelName(String v)
+    {
+        this.setFieldValue(FLD_privateLabelName, StringTools.trim(v));
+    }
+
+    public String getLocaleString()
+    {
+        String v = (String)this.getFieldValue(FLD_localeString);
+        return StringTools.trim(v);
+    }
+
+    public void setLocaleString(String v)
+    {
+        this.setFieldValue(FLD_localeString, StringTools.trim(v));
+    }
+
+    // ------------------------------------------------------------------------
+
+    public String getReportID()
+    {
+        String v = (String)this.getFieldValue(FLD_reportID);
+        return StringTools.trim(v);
+    }
+
+    public void setReportID(String v)
+    {
+        this.setFieldValue(FLD_reportID, StringTools.trim(v));
+    }
+
+    public String getReportOption()
+    {
+        String v = (String)this.getFieldValue(FLD_reportOption);
+        return StringTools.trim(v);
+    }
+
+    public void setReportOption(String v)
+    {
+        this.setFieldValue(FLD_reportOption, StringTools.trim(v));
+    }
+
+    // ------------------------------------------------------------------------
+
+    public String getDeviceID()
+    {
+        String v = (String)this.getFieldValue(FLD_deviceID);
+        return StringTools.trim(v);
+    }
+
+    public void setDeviceID(String v)
+    {
+        this.setFieldValue(FLD_deviceID, StringTools.trim(v));
+    }
+
+    public String getGroupID()
+    {
+        String v = (String)this.getFieldValue(FLD_groupID);
+        return StringTools.trim(v);
+    }
+
+    public void setGroupID(String v)
+    {
+        this.setFieldValue(FLD_groupID, StringTools.trim(v));
+    }
+
+    // ------------------------------------------------------------------------
+
+    public long getTimeStart()
+    {
+        return this.getFieldValue(FLD_timeStart, 0L);
+    }
+
+    public void setTimeStart(long v)
+    {
+        this.setFieldValue(FLD_timeStart, v);
+    }
+
+    public long getTimeEnd()
+    {
+        return this.getFieldValue(FLD_timeEnd, 0L);
+    }
+
+    public void setTimeEnd(long v)
+    {
+        this.setFieldValue(FLD_timeEnd, v);
+    }
+
+    public String getTimeZone()
+    {
+        String v = (String)this.getFieldValue(FLD_timeZone);
+        return StringTools.trim(v);
+    }
+
+    public void setTimeZone(String v)
+    {
+        this.setFieldValue(FLD_timeZone, StringTools.trim(v));
+    }
+
+    // ------------------------------------------------------------------------
+
+    public String getFormat()
+    {
+        String v = (String)this.getFieldValue(FLD_format);
+        return StringTools.trim(v);
+    }
+
+    public void setFormat(String v)
+    {
+        this.setFieldValue(FLD_format, StringTools.trim(v).toLowerCase());
+    }
+
+    public int getPriority()
+    {
+        return this.getFieldValue(FLD_priority, PRIORITY_NORMAL);
+    }
+
+    public void setPriority(int v)
+    {
+        this.setFieldValue(FLD_priority, ((v < PRIORITY_LOW)? PRIORITY_LOW : (v > PRIORITY_HIGH)? PRIORITY_HIGH : v));
+    }
+
+    // ------------------------------------------------------------------------
+
+    public int getJobStatus()
+    {
+        return this.getFieldValue(FLD_jobStatus, STATUS_QUEUED);
+    }
+
+    public void setJobStatus(int v)
+    {
+        this.setFieldValue(FLD_jobStatus, v);
+    }
+
+    public String getJobStatusName()
+    {
+        return ReportQueue.GetStatusName(this.getJobStatus());
+    }
+
+    public double getProgress()
+    {
+        return this.getFieldValue(FLD_progress, 0.0);
+    }
+
+    public void setProgress(double v)
+    {
+        this.setFieldValue(FLD_progress, ((v < 0.0)? 0.0 : (v > 1.0)? 1.0 : v));
+    }
+
+    public long getRecordCount()
+    {
+        return this.getFieldValue(FLD_recordCount, 0L);
+    }
+
+    public void setRecordCount(long v)
+    {
+        this.setFieldValue(FLD_recordCount, ((v >= 0L)? v : 0L));
+    }
+
+    public String getStatusMessage()
+    {
+        String v = (String)this.getFieldValue(FLD_statusMessage);
+        return StringTools.trim(v);
+    }
+
+    public void setStatusMessage(String v)
+    {
+        String m = StringTools.trim(v);
+        this.setFieldValue(FLD_statusMessage, ((m.length() > 200)? m.substring(0,200) : m));
+    }
+
+    // ------------------------------------------------------------------------
+
+    public String getOutputFile()
+    {
+        String v = (String)this.getFieldValue(FLD_outputFile);
+        return StringTools.trim(v);
+    }
+
+    public void setOutputFile(String v)
+    {
+        this.setFieldValue(FLD_outputFile, StringTools.trim(v));
+    }
+
+    public long getOutputSize()
+    {
+        return this.getFieldValue(FLD_outputSize, 0L);
+    }
+
+    public void setOutputSize(long v)
+    {
+        this.setFieldValue(FLD_outputSize, ((v >= 0L)? v : 0L));
+    }
+
+    // ------------------------------------------------------------------------
+
+    public long getQueuedTime()
+    {
+        return this.getFieldValue(FLD_queuedTime, 0L);
+    }
+
+    public void setQueuedTime(long v)
+    {
+        this.setFieldValue(FLD_queuedTime, v);
+    }
+
+    public long getStartTime()
+    {
+        return this.getFieldValue(FLD_startTime, 0L);
+    }
+
+    public void setStartTime(long v)
+    {
+        this.setFieldValue(FLD_startTime, v);
+    }
+
+    public long getEndTime()
+    {
+        return this.getFieldValue(FLD_endTime, 0L);
+    }
+
+    public void setEndTime(long v)
+    {
+        this.setFieldValue(FLD_endTime, v);
+    }
+
+    // ------------------------------------------------------------------------
+
+    public String getOwnerID()
+    {
+        String v = (String)this.getFieldValue(FLD_ownerID);
+        return StringTools.trim(v);
+    }
+
+    public void setOwnerID(String v)
+    {
+        this.setFieldValue(FLD_ownerID, StringTools.trim(v));
+    }
+
+    public long getHeartbeatTime()
+    {
+        return this.getFieldValue(FLD_heartbeatTime, 0L);
+    }
+
+    public void setHeartbeatTime(long v)
+    {
+        this.setFieldValue(FLD_heartbeatTime, v);
+    }
+
+    // Bean access fields above
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /* overridden to set default values */
+    public void setCreationDefaultValues()
+    {
+        this.setPriority(PRIORITY_NORMAL);
+        this.setJobStatus(STATUS_QUEUED);
+        this.setQueuedTime(DateTime.getCurrentTimeSec());
+        //super.setRuntimeDefaultValues();
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Returns true if this job has a final status (complete, failed, cancelled)
+    **/
+    public boolean isFinal()
+    {
+        return ReportQueue.IsFinalStatus(this.getJobStatus());
+    }
+
+    /**
+    *** Deletes the stored output file (if any) for this job
+    **/
+    public void deleteOutputFile()
+    {
+        String fn = this.getOutputFile();
+        if (!StringTools.isBlank(fn)) {
+            File file = new File(fn);
+            if (file.isFile() && !file.delete()) {
+                Print.logWarn("Unable to delete report output: " + file);
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /* return the AccountID/JobID */
+    public String toString()
+    {
+        return this.getAccountID() + "/" + this.getJobID();
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Creates a new (unsaved) ReportQueue job record, with a new unique job ID
+    *** @param acctID  The Account ID
+    *** @return The new ReportQueue record
+    **/
+    public static ReportQueue createNewJob(String acctID)
+    {
+        ReportQueue.Key key = new ReportQueue.Key(acctID, ReportQueue.CreateJobID());
+        ReportQueue job = key.getDBRecord();
+        job.setCreationDefaultValues();
+        return job;
+    }
+
+    /**
+    *** Gets the specified ReportQueue job record
+    *** @param acctID  The Account ID
+    *** @param jobID   The job ID
+    *** @return The ReportQueue record, or null if not found
+    **/
+    public static ReportQueue getReportQueue(String acctID, String jobID)
+        throws DBException
+    {
+        DBReadWriteMode rwMode = DBReadWriteMode.READ_WRITE;
+        if (StringTools.isBlank(acctID) || StringTools.isBlank(jobID)) {
+            return null;
+        }
+        ReportQueue.Key key = new ReportQueue.Key(acctID, jobID);
+        if (key.exists(rwMode)) { // may throw DBException
+            return key._getDBRecord(true, rwMode);
+        } else {
+            return null;
+        }
+    }
+
+    /**
+    *** Gets the ReportQueue jobs for the specified Account/User, most recently queued first
+    *** @param acctID  The Account ID
+    *** @param userID  The User ID (all users if null/blank)
+    *** @param limit   The maximum number of jobs to return
+    *** @return The ReportQueue records (does not return null)
+    **/
+    public static ReportQueue[] getJobsForAccount(String acctID, String userID, long limit)
+        throws DBException
+    {
+        DBReadWriteMode rwMode = DBReadWriteMode.READ_ONLY;
+        if (StringTools.isBlank(acctID)) {
+            return new ReportQueue[0];
+        }
+
+        /* DBSelect */
+        // DBSelect: SELECT * FROM ReportQueue WHERE ((accountID='acct') [AND (userID='user')]) ORDER BY queuedTime DESC
+        DBSelect<ReportQueue> dsel = new DBSelect<ReportQueue>(ReportQueue.getFactory());
+        DBWhere dwh = dsel.createDBWhere();
+        if (!StringTools.isBlank(userID)) {
+            dsel.setWhere(dwh.WHERE_(
+                dwh.AND(
+                    dwh.EQ(FLD_accountID,acctID),
+                    dwh.EQ(FLD_userID   ,userID)
+                )
+            ));
+        } else {
+            dsel.setWhere(dwh.WHERE_(
+                dwh.EQ(FLD_accountID,acctID)
+            ));
+        }
+        dsel.setOrderByFields(FLD_queuedTime);
+        dsel.setOrderAscending(false);
+        dsel.setLimit(limit);
+
+        /* select */
+        ReportQueue rq[] = DBRecord.select(rwMode, dsel, null);
+        return (rq != null)? rq : new ReportQueue[0];
+
+    }
+
+    /**
+    *** Gets all ReportQueue jobs with the specified status, in queued order
+    *** @param status  The job status
+    *** @return The ReportQueue records (does not return null)
+    **/
+    public static ReportQueue[] getJobsByStatus(int status)
+        throws DBException
+    {
+        DBReadWriteMode rwMode = DBReadWriteMode.READ_WRITE;
+
+        /* DBSelect */
+        // DBSelect: SELECT * FROM ReportQueue WHERE (jobStatus=status) ORDER BY queuedTime
+        DBSelect<ReportQueue> dsel = new DBSelect<ReportQueue>(ReportQueue.getFactory());
+        DBWhere dwh = dsel.createDBWhere();
+        dsel.setWhere(dwh.WHERE_(
+            dwh.EQ(FLD_jobStatus,status)
+        ));
+        dsel.setOrderByFields(FLD_queuedTime);
+        dsel.setOrderAscending(true);
+
+        /* select */
+        ReportQueue rq[] = DBRecord.select(rwMode, dsel, null);
+        return (rq != null)? rq : new ReportQueue[0];
+
+    }
+
+    /**
+    *** Gets the running jobs whose owner has not updated the heartbeat time since the
+    *** specified time (ie. the owning node is gone)
+    *** @param staleTime  The heartbeat time before which the owner is considered gone
+    *** @return The ReportQueue records (does not return null)
+    **/
+    public static ReportQueue[] getStaleRunningJobs(long staleTime)
+        throws DBException
+    {
+        DBReadWriteMode rwMode = DBReadWriteMode.READ_WRITE;
+
+        /* DBSelect */
+        // DBSelect: SELECT * FROM ReportQueue WHERE ((jobStatus=running) AND (heartbeatTime<staleTime)) ORDER BY queuedTime
+        DBSelect<ReportQueue> dsel = new DBSelect<ReportQueue>(ReportQueue.getFactory());
+        DBWhere dwh = dsel.createDBWhere();
+        dsel.setWhere(dwh.WHERE_(
+            dwh.AND(
+                dwh.EQ(FLD_jobStatus    ,STATUS_RUNNING),
+                dwh.LT(FLD_heartbeatTime,staleTime)
+            )
+        ));
+        dsel.setOrderByFields(FLD_queuedTime);
+        dsel.setOrderAscending(true);
+
+        /* select */
+        ReportQueue rq[] = DBRecord.select(rwMode, dsel, null);
+        return (rq != null)? rq : new ReportQueue[0];
+
+    }
+
+    /**
+    *** Conditionally changes the status of the specified job, only if the job currently
+    *** has the expected status.  The change is made with a single conditional UPDATE, so
+    *** only one node can succeed in changing a given status (ie. claiming a queued job).
+    *** @param acctID      The Account ID
+    *** @param jobID       The job ID
+    *** @param fromStatus  The expected current job status
+    *** @param toStatus    The new job status
+    *** @param ownerID     The new owner node ID (null to leave unchanged)
+    *** @return True if the job status was changed by this call
+    **/
+    public static boolean updateJobStatus(String acctID, String jobID, int fromStatus, int toStatus, String ownerID)
+        throws DBException
+    {
+        return ReportQueue._updateJobStatus(acctID, jobID, fromStatus, toStatus, ownerID, -1L);
+    }
+
+    /**
+    *** Requeues the specified running job, only if its owner has not updated the heartbeat
+    *** time since the specified time.
+    *** @param acctID     The Account ID
+    *** @param jobID      The job ID
+    *** @param staleTime  The heartbeat time before which the owner is considered gone
+    *** @return True if the job was requeued by this call
+    **/
+    public static boolean requeueStaleJob(String acctID, String jobID, long staleTime)
+        throws DBException
+    {
+        return ReportQueue._updateJobStatus(acctID, jobID, STATUS_RUNNING, STATUS_QUEUED, "", staleTime);
+    }
+
+    /* conditional status update, verified by re-reading the job */
+    private static boolean _updateJobStatus(String acctID, String jobID, int fromStatus, int toStatus, 
+        String ownerID, long staleTime)
+        throws DBException
+    {
+        if (StringTools.isBlank(acctID) || StringTools.isBlank(jobID)) {
+            return false;
+        }
+        DBFactory<ReportQueue> fact = ReportQueue.getFactory();
+        DBProvider dbp    = DBProvider.getProvider();
+        long       nowSec = DateTime.getCurrentTimeSec();
+
+        /* SQL statement */
+        // UPDATE ReportQueue SET jobStatus=to,[ownerID='owner',]heartbeatTime=now,lastUpdateTime=now 
+        //   WHERE ((accountID='acct') AND (jobID='job') AND (jobStatus=from) [AND (heartbeatTime<stale)])
+        StringBuffer sb = new StringBuffer();
+        sb.append("UPDATE ").append(fact.getTranslatedTableName()).append(" SET ");
+        sb.append(dbp.quoteColumnName(FLD_jobStatus)).append("=").append(toStatus);
+        if (ownerID != null) {
+            sb.append(",").append(dbp.quoteColumnName(FLD_ownerID)).append("=");
+            sb.append(fact.getField(FLD_ownerID).getQValue(StringTools.trim(ownerID)));
+        }
+        sb.append(",").append(dbp.quoteColumnName(FLD_heartbeatTime)).append("=").append(nowSec);
+        sb.append(",").append(dbp.quoteColumnName(FLD_lastUpdateTime)).append("=").append(nowSec);
+        DBWhere dwh = new DBWhere(fact);
+        String acctJobStat = dwh.AND(
+            dwh.EQ(FLD_accountID,acctID.toLowerCase()),
+            dwh.EQ(FLD_jobID    ,jobID.toLowerCase()),
+            dwh.EQ(FLD_jobStatus,fromStatus));
+        if (staleTime > 0L) {
+            sb.append(dwh.WHERE_(dwh.AND(acctJobStat, dwh.LT(FLD_heartbeatTime,staleTime))));
+        } else {
+            sb.append(dwh.WHERE_(acctJobStat));
+        }
+
+        /* update */
+        DBConnection dbc = null;
+        try {
+            dbc = DBConnection.getDBConnection(DBReadWriteMode.READ_WRITE);
+            dbc.executeUpdate(sb.toString());
+        } catch (SQLException sqe) {
+            throw new DBException("Updating ReportQueue job status", sqe);
+        } finally {
+            DBConnection.release(dbc);
+        }
+
+        /* verify */
+        ReportQueue job = ReportQueue.getReportQueue(acctID, jobID);
+        if ((job == null) || (job.getJobStatus() != toStatus)) {
+            return false;
+        } else
+        if ((ownerID != null) && !job.getOwnerID().equals(StringTools.trim(ownerID))) {
+            return false;
+        } else {
+            return true;
+        }
+
+    }
+
+    /**
+    *** Updates the heartbeat time of the running jobs owned by the specified node
+    *** @param ownerID  The owner node ID
+    **/
+    public static void updateHeartbeat(String ownerID)
+        throws DBException
+    {
+        if (StringTools.isBlank(ownerID)) {
+            return;
+        }
+        DBFactory<ReportQueue> fact = ReportQueue.getFactory();
+        DBProvider dbp    = DBProvider.getProvider();
+        long       nowSec = DateTime.getCurrentTimeSec();
+
+        /* SQL statement */
+        // UPDATE ReportQueue SET heartbeatTime=now WHERE ((ownerID='owner') AND (jobStatus=running))
+        StringBuffer sb = new StringBuffer();
+        sb.append("UPDATE ").append(fact.getTranslatedTableName()).append(" SET ");
+        sb.append(dbp.quoteColumnName(FLD_heartbeatTime)).append("=").append(nowSec);
+        DBWhere dwh = new DBWhere(fact);
+        sb.append(dwh.WHERE_(
+            dwh.AND(
+                dwh.EQ(FLD_ownerID  ,ownerID),
+                dwh.EQ(FLD_jobStatus,STATUS_RUNNING)
+            )
+        ));
+
+        /* update */
+        DBConnection dbc = null;
+        try {
+            dbc = DBConnection.getDBConnection(DBReadWriteMode.READ_WRITE);
+            dbc.executeUpdate(sb.toString());
+        } catch (SQLException sqe) {
+            throw new DBException("Updating ReportQueue heartbeat", sqe);
+        } finally {
+            DBConnection.release(dbc);
+        }
+
+    }
+
+    /**
+    *** Deletes the final (complete, failed, cancelled) jobs which ended before the
+    *** specified time, along with their stored output.
+    *** @param endTime  Jobs which ended before this time are deleted
+    *** @return The number of jobs deleted
+    **/
+    public static int deleteExpiredJobs(long endTime)
+        throws DBException
+    {
+        DBReadWriteMode rwMode = DBReadWriteMode.READ_WRITE;
+
+        /* DBSelect */
+        // DBSelect: SELECT * FROM ReportQueue WHERE ((jobStatus>=complete) AND (endTime<endTime))
+        DBSelect<ReportQueue> dsel = new DBSelect<ReportQueue>(ReportQueue.getFactory());
+        DBWhere dwh = dsel.createDBWhere();
+        dsel.setWhere(dwh.WHERE_(
+            dwh.AND(
+                dwh.GE(FLD_jobStatus,STATUS_COMPLETE),
+                dwh.LT(FLD_endTime  ,endTime)
+            )
+        ));
+
+        /* delete */
+        int count = 0;
+        ReportQueue rq[] = DBRecord.select(rwMode, dsel, null);
+        if (rq != null) {
+            for (ReportQueue job : rq) {
+                job.deleteOutputFile();
+                ReportQueue.Key key = (ReportQueue.Key)job.getRecordKey();
+                key.delete(false); // no dependents
+                count++;
+            }
+        }
+        return count;
+
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private static final String ARG_ACCOUNT[]   = new String[] { "account", "acct", "a" };
+    private static final String ARG_LIST[]      = new String[] { "list"                 };
+    private static final String ARG_PURGE[]     = new String[] { "purge"                };
+
+    private static void usage()
+    {
+        Print.sysPrintln("Usage:");
+        Print.sysPrintln("  java ... " + ReportQueue.class.getName() + " {options}");
+        Print.sysPrintln("Options:");
+        Print.sysPrintln("  -account=<id>       Account ID (for '-list')");
+        Print.sysPrintln("  -list               List queued/stored report jobs");
+        Print.sysPrintln("  -purge=<hours>      Delete finished jobs older than the specified hours");
+        System.exit(1);
+    }
+
+    public static void main(String argv[])
+    {
+        DBConfig.cmdLineInit(argv,true);  // main
+        String acctID = RTConfig.getString(ARG_ACCOUNT, "");
+
+        /* list */
+        if (RTConfig.getBoolean(ARG_LIST,false)) {
+            if (StringTools.isBlank(acctID)) {
+                Print.sysPrintln("ERROR: Account ID not specified.");
+                usage();
+            }
+            try {
+                ReportQueue rq[] = ReportQueue.getJobsForAccount(acctID, null, -1L);
+                for (ReportQueue job : rq) {
+                    Print.sysPrintln(job.toString() +
+                        " report="   + job.getReportID() +
+                        " format="   + job.getFormat() +
+                        " status="   + job.getJobStatusName() +
+                        " progress=" + StringTools.format(job.getProgress(),"0.00") +
+                        " records="  + job.getRecordCount() +
+                        " size="     + job.getOutputSize() +
+                        " message="  + StringTools.quoteString(job.getStatusMessage()));
+                }
+            } catch (DBException dbe) {
+                Print.logException("Error reading ReportQueue: " + acctID, dbe);
+                System.exit(99);
+            }
+            System.exit(0);
+        }
+
+        /* purge */
+        if (RTConfig.hasProperty(ARG_PURGE)) {
+            long hours = RTConfig.getLong(ARG_PURGE, -1L);
+            if (hours < 0L) {
+                Print.sysPrintln("ERROR: Invalid purge hours.");
+                usage();
+            }
+            try {
+                long endTime = DateTime.getCurrentTimeSec() - DateTime.HourSeconds(hours);
+                int count = ReportQueue.deleteExpiredJobs(endTime);
+                Print.sysPrintln("Deleted " + count + " report jobs");
+            } catch (DBException dbe) {
+                Print.logException("Error purging ReportQueue", dbe);
+                System.exit(99);
+            }
+            System.exit(0);
+        }
+
+        /* no options */
+        usage();
+
+    }
+
+}
@@ -44,6 +44,8 @@
 //     -Added checks for stale MariaDB connections in "parseCommunicationsException".
 //  2020/02/19  GTS Development Team
 //     -Added support for separating MySQL read/write connections (DBReadWriteMode). [2.6.7-B45]
+//  2026/10/19  GTS Development Team
+//     -Added "createDBConnection" for unshared connections (used by DBRecordCursor).
 // ----------------------------------------------------------------------------
 package org.opengts.dbtools;
 
@@ -678,6 +680,24 @@ public class DBConnection
         return DBConnection._getDBConnection(rwMode, uri, usr, pwd);
     }
 
+    /**
+    *** Creates a new DBConnection for the specified DBReadWriteMode which is not shared.
+    *** The returned DBConnection is not saved in the ThreadLocal map or connection pool,
+    *** and may therefore hold an open row-by-row ResultSet while other queries are 
+    *** executed on the current thread's connection.  The caller is responsible for 
+    *** calling "closeConnection()" when done.
+    **/
+    public static DBConnection createDBConnection(DBReadWriteMode rwMode)
+    {
+        rwMode = DBReadWriteMode.getDefaultReadWriteMode(rwMode);
+        String uri = DBProvider.getDBUri(rwMode,true);
+        String usr = DBProvider.getDBUsername(rwMode);
+        String pwd = DBProvider.getDBPassword(rwMode);
+        DBConnection dbc = new DBConnection(uri, usr, pwd, rwMode);
+        dbc.threadName = StringTools.trim(Thread.currentThread().getName());
+        return dbc;
+    }
+
     // ------------------------------------------------------------------------
 
     public static boolean isLocked(DBConnection dbc)
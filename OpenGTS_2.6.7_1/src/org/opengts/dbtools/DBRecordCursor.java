@@ -0,0 +1,274 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2020, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+// 
+// http://www.apache.org/licenses/LICENSE-2.0
+// 
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19  GTS Development Team
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.dbtools;
+
+import java.lang.*;
+import java.util.*;
+import java.sql.*;
+
+import org.opengts.util.*;
+
+/**
+*** <code>DBRecordCursor</code> is a forward-only cursor over a DBRecord selection.<br>
+*** Unlike <code>DBRecordIterator</code>, which re-issues the selection with an advancing
+*** OFFSET/LIMIT, this cursor executes the selection once in row-by-row mode and 
+*** creates each DBRecord only as it is requested, so that only the current record 
+*** needs to be held in memory.<br>
+*** The selection is executed on its own unshared DBConnection, allowing other queries
+*** to be executed on the current thread while this cursor is open.  The unshared
+*** DBConnection may be supplied by the caller (ie. to be reused by consecutive cursors),
+*** in which case it is not closed by this cursor.  The cursor is closed automatically 
+*** when the last record has been returned, otherwise "close()" must be called.
+**/
+
+public class DBRecordCursor<DBR extends DBRecord<DBR>>
+{
+
+    // ------------------------------------------------------------------------
+
+    private DBFactory<DBR>      factory         = null;
+    private DBRecordHandler<DBR> rcdHandler     = null;
+
+    private DBConnection        dbConn          = null;
+    private boolean             ownsConn        = true;
+    private Statement           stmt            = null;
+    private ResultSet           resultSet       = null;
+
+    private DBR                 nextRecord      = null;
+    private DBR                 lastRecord      = null;
+    private boolean             stopAfterNext   = false;
+    private long                readCount       = 0L;
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Constructor
+    *** @param rwMode     The DBReadWriteMode
+    *** @param dsel       The DBSelect selection criteria
+    *** @param rcdHandler The optional DBRecordHandler.  The DBRH_* return values are
+    ***                   handled the same as "DBRecord.select(...)".
+    *** @throws DBException if the selection could not be executed
+    **/
+    public DBRecordCursor(DBReadWriteMode rwMode, DBSelect<DBR> dsel, DBRecordHandler<DBR> rcdHandler)
+        throws DBException
+    {
+        super();
+        if (dsel == null) {
+            throw new DBException("DBSelect not specified");
+        }
+        this.factory    = dsel.getFactory();
+        this.rcdHandler = rcdHandler;
+        this.ownsConn   = true;
+        this._execute(DBConnection.createDBConnection(rwMode), dsel);
+    }
+
+    /**
+    *** Constructor
+    *** @param dbc        The unshared DBConnection (see "DBConnection.createDBConnection").
+    ***                   Owned by the caller, and not closed when this cursor is closed.  
+    ***                   Another cursor must not be opened on this DBConnection until this
+    ***                   cursor has been closed.
+    *** @param dsel       The DBSelect selection criteria
+    *** @param rcdHandler The optional DBRecordHandler.  The DBRH_* return values are
+    ***                   handled the same as "DBRecord.select(...)".
+    *** @throws DBException if the selection could not be executed
+    **/
+    public DBRecordCursor(DBConnection dbc, DBSelect<DBR> dsel, DBRecordHandler<DBR> rcdHandler)
+        throws DBException
+    {
+        super();
+        if (dbc == null) {
+            throw new DBException("DBConnection not specified");
+        } else
+        if (dsel == null) {
+            throw new DBException("DBSelect not specified");
+        }
+        this.factory    = dsel.getFactory();
+        this.rcdHandler = rcdHandler;
+        this.ownsConn   = false;
+        this._execute(dbc, dsel);
+    }
+
+    /* execute the selection on the specified DBConnection */
+    private void _execute(DBConnection dbc, DBSelect<DBR> dsel)
+        throws DBException
+    {
+        this.dbConn = dbc;
+        try {
+            this.stmt      = this.dbConn.execute(dsel.toString(), true); // row-by-row
+            this.resultSet = this.stmt.getResultSet();
+        } catch (SQLException sqe) {
+            this.close();
+            throw new DBException("Record Cursor Selection", sqe);
+        } catch (DBException dbe) {
+            this.close();
+            throw dbe;
+        }
+    }
+
+    /**
+    *** Constructor
+    *** @param dsel       The DBSelect selection criteria
+    *** @throws DBException if the selection could not be executed
+    **/
+    public DBRecordCursor(DBSelect<DBR> dsel)
+        throws DBException
+    {
+        this(DBReadWriteMode.READ_ONLY, dsel, null);
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Returns true if this cursor has been closed
+    **/
+    public boolean isClosed()
+    {
+        return (this.resultSet == null);
+    }
+
+    /**
+    *** Gets the number of rows read from the ResultSet so far (including rows
+    *** skipped by the DBRecordHandler)
+    **/
+    public long getReadCount()
+    {
+        return this.readCount;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Returns true if another DBRecord is available from this cursor
+    *** @return True if another DBRecord is available from this cursor
+    *** @throws DBException if a DB access error occurs.
+    **/
+    public boolean hasNext()
+        throws DBException
+    {
+        if (this.nextRecord != null) {
+            return true;
+        }
+        try {
+            while ((this.resultSet != null) && this.resultSet.next()) {
+                this.readCount++;
+                DBRecordKey<DBR> rcdKey = this.factory.createKey(this.resultSet); // may throw DBException
+                if (rcdKey == null) {
+                    continue;
+                }
+                DBR rcd = rcdKey._getDBRecord();
+                rcd.setAllFieldValues(this.resultSet);
+                DBR prior = this.lastRecord;
+                this.lastRecord = rcd;
+                if (this.rcdHandler == null) {
+                    // -- no recordHandler, return current
+                    this.nextRecord = rcd;
+                    return true;
+                }
+                int rcdStatus = this.rcdHandler.handleDBRecord(rcd);
+                if (rcdStatus == DBRecordHandler.DBRH_STOP) {
+                    // -- skip current, stop
+                    break;
+                } else
+                if (rcdStatus == DBRecordHandler.DBRH_SAVE) {
+                    // -- save current, continue
+                    this.nextRecord = rcd;
+                    return true;
+                } else
+                if (rcdStatus == DBRecordHandler.DBRH_SAVE_STOP) {
+                    // -- save current, stop
+                    this.nextRecord    = rcd;
+                    this.stopAfterNext = true;
+                    return true;
+                } else
+                if ((rcdStatus == DBRecordHandler.DBRH_SAVE_LAST) && (prior != null)) {
+                    // -- save last, continue
+                    this.nextRecord = prior;
+                    return true;
+                } else
+                if (rcdStatus == DBRecordHandler.DBRH_SAVE_LAST_STOP) {
+                    // -- save last, stop
+                    if (prior == null) {
+                        break;
+                    }
+                    this.nextRecord    = prior;
+                    this.stopAfterNext = true;
+                    return true;
+                } else {
+                    // -- DBRH_SKIP (or unrecognized): skip current, continue
+                }
+            }
+        } catch (SQLException sqe) {
+            this.close();
+            throw new DBException("Record Cursor (Record #"+this.readCount+")", sqe);
+        } catch (DBException dbe) {
+            this.close();
+            throw dbe; // rethrow
+        } catch (Throwable th) {
+            this.close();
+            throw new DBException("Unexpected error (Record #"+this.readCount+")", th);
+        }
+        this.close(); // end of selection
+        return false;
+    }
+
+    /**
+    *** Returns the next DBRecord from this cursor
+    *** @return The next DBRecord
+    *** @throws DBException if a DB access error occurs.
+    *** @throws DBNotFoundException if there are no more DBRecords to return
+    **/
+    public DBR next()
+        throws DBException, DBNotFoundException
+    {
+        if (!this.hasNext()) {
+            throw new DBNotFoundException("No more records");
+        }
+        DBR rcd = this.nextRecord;
+        this.nextRecord = null;
+        if (this.stopAfterNext) {
+            this.close();
+        }
+        return rcd;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Closes this cursor, and the underlying DBConnection (unless supplied by the caller).
+    *** Any records not yet returned are discarded.
+    **/
+    public void close()
+    {
+        if (this.resultSet != null) { try { this.resultSet.close(); } catch (Throwable t) {} }
+        if (this.stmt      != null) { try { this.stmt.close();      } catch (Throwable t) {} }
+        if ((this.dbConn   != null) && this.ownsConn) { this.dbConn.closeConnection(); }
+        this.resultSet  = null;
+        this.stmt       = null;
+        this.dbConn     = null;
+        this.lastRecord = null;
+    }
+
+    // ------------------------------------------------------------------------
+
+}
@@ -0,0 +1,526 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2020, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Shared HTTP request layer for remote [reverse]geocode providers
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19  GTS Development Team
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.geocoder;
+
+import java.lang.*;
+import java.util.*;
+import java.io.*;
+import java.net.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.opengts.util.*;
+
+/**
+*** GeocoderHttpClient class<br>
+*** One instance is shared by all requests issued by a named geocode provider, and provides:<br>
+*** <ul>
+***   <li>Single-flight: concurrent requests for the same URL (the geocoder URLs contain the
+***       location rounded to 5 decimal places) are merged into a single in-flight request,
+***       the response of which is returned to all callers.</li>
+***   <li>Concurrency limit: the number of concurrent requests to the remote service is
+***       limited, and adapts to the service "over limit" responses (the limit is halved,
+***       and all requests are held for a short delay, then the limit grows back as
+***       requests succeed).  Retry delays ("retryDelay") also reduce the limit, and are
+***       taken outside of any request permit.</li>
+***   <li>Keep-alive: responses are always fully read and closed (without disconnecting),
+***       so that the connection is returned to the JVM HTTP keep-alive connection cache
+***       for reuse by subsequent requests to the same host (see the "http.keepAlive"
+***       and "http.maxConnections" system properties).</li>
+***   <li>Asynchronous requests: requests may be submitted to a per-provider thread pool.</li>
+*** </ul>
+**/
+public class GeocoderHttpClient
+{
+
+    // ------------------------------------------------------------------------
+
+    public  static final String PROP_maxConcurrentRequests[]    = { "maxConcurrentRequests" }; // Integer: 4
+    public  static final String PROP_overLimitDelayMS[]         = { "overLimitDelayMS"      }; // Long: 1000
+    public  static final String PROP_maxPermitWaitMS[]          = { "maxPermitWaitMS"       }; // Long: 20000 (limited to request timeout)
+
+    public  static final int    DEFAULT_MAX_CONCURRENT          = 4;
+    public  static final long   DEFAULT_OVER_LIMIT_DELAY_MS     = 1000L;
+    public  static final long   DEFAULT_MAX_PERMIT_WAIT_MS      = 20000L;
+
+    private static final int    MAX_CONCURRENT_LIMIT            = 64;
+    private static final long   MAX_OVER_LIMIT_DELAY_MS         = 30000L;
+
+    /* response codes which indicate that the service is "over limit" */
+    private static final int    HTTP_TOO_MANY_REQUESTS          = 429;
+    private static final int    HTTP_UNAVAILABLE                = HttpURLConnection.HTTP_UNAVAILABLE; // 503
+
+    // ------------------------------------------------------------------------
+
+    private static final Map<String,GeocoderHttpClient> clientMap = new HashMap<String,GeocoderHttpClient>();
+
+    /**
+    *** Gets the shared GeocoderHttpClient for the named provider and properties, creating it
+    *** if necessary.  Providers with the same name, but different client properties (ie. 
+    *** configured in different PrivateLabel domains) do not share the same instance.
+    *** @param name  The provider name
+    *** @param rtp   The provider properties, used to initialize a new instance (may be null)
+    *** @return The GeocoderHttpClient
+    **/
+    public static GeocoderHttpClient getInstance(String name, RTProperties rtp)
+    {
+        String n = StringTools.trim(name);
+        GeocoderHttpClient c = new GeocoderHttpClient(n, rtp); // cheap, no threads until used
+        String key = n + "|" + c.maxLimit + "|" + c.overLimitMS + "|" + c.maxPermitWaitMS;
+        synchronized (clientMap) {
+            GeocoderHttpClient client = clientMap.get(key);
+            if (client == null) {
+                client = c;
+                clientMap.put(key, client);
+            }
+            return client;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private String                  name            = "";
+
+    private ConcurrentHashMap<Object,FutureTask<?>> inFlight = new ConcurrentHashMap<Object,FutureTask<?>>();
+
+    private Object                  permitLock      = new Object();
+    private int                     maxLimit        = DEFAULT_MAX_CONCURRENT;
+    private double                  limit           = DEFAULT_MAX_CONCURRENT;
+    private int                     active          = 0;
+    private long                    resumeTimeMS    = 0L;
+    private long                    decreaseTimeMS  = 0L;
+    private long                    overLimitMS     = DEFAULT_OVER_LIMIT_DELAY_MS;
+    private long                    maxPermitWaitMS = DEFAULT_MAX_PERMIT_WAIT_MS;
+
+    private ThreadPool              asyncPool       = null;
+
+    private AtomicLong              requestCount    = new AtomicLong(0L);
+    private AtomicLong              coalescedCount  = new AtomicLong(0L);
+    private AtomicLong              overLimitCount  = new AtomicLong(0L);
+
+    /**
+    *** Constructor
+    *** @param name  The provider name
+    *** @param rtp   The provider properties (may be null)
+    **/
+    public GeocoderHttpClient(String name, RTProperties rtp)
+    {
+        super();
+        this.name = StringTools.trim(name);
+        if (rtp != null) {
+            int maxConc = rtp.getInt(PROP_maxConcurrentRequests, DEFAULT_MAX_CONCURRENT);
+            this.maxLimit        = Math.min(Math.max(maxConc,1), MAX_CONCURRENT_LIMIT);
+            this.overLimitMS     = Math.min(Math.max(rtp.getLong(PROP_overLimitDelayMS,DEFAULT_OVER_LIMIT_DELAY_MS),0L), MAX_OVER_LIMIT_DELAY_MS);
+            this.maxPermitWaitMS = Math.max(rtp.getLong(PROP_maxPermitWaitMS,DEFAULT_MAX_PERMIT_WAIT_MS), 0L);
+        }
+        this.limit = (double)this.maxLimit;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the provider name
+    **/
+    public String getName()
+    {
+        return this.name;
+    }
+
+    /**
+    *** Gets the configured maximum number of concurrent requests
+    **/
+    public int getMaximumConcurrentRequests()
+    {
+        return this.maxLimit;
+    }
+
+    /**
+    *** Gets the current (adaptive) concurrent request limit
+    **/
+    public int getConcurrentRequestLimit()
+    {
+        synchronized (this.permitLock) {
+            return (int)this.limit;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // -- concurrency limit
+
+    /* wait for a request permit (at most the request timeout) */
+    private void _acquirePermit(int timeoutMS)
+        throws IOException
+    {
+        long waitMS = (timeoutMS > 0)? Math.min(this.maxPermitWaitMS,(long)timeoutMS) : this.maxPermitWaitMS;
+        long endMS  = System.currentTimeMillis() + waitMS;
+        synchronized (this.permitLock) {
+            for (;;) {
+                long nowMS = System.currentTimeMillis();
+                long holdMS = this.resumeTimeMS - nowMS;
+                if ((holdMS <= 0L) && (this.active < (int)this.limit)) {
+                    this.active++;
+                    return;
+                }
+                long remainMS = endMS - nowMS;
+                if (remainMS <= 0L) {
+                    throw new IOException("Timeout waiting for '" + this.getName() + "' request permit");
+                }
+                try {
+                    this.permitLock.wait((holdMS > 0L)? Math.min(holdMS,remainMS) : remainMS);
+                } catch (InterruptedException ie) {
+                    throw new InterruptedIOException("Interrupted waiting for '" + this.getName() + "' request permit");
+                }
+            }
+        }
+    }
+
+    /* release a request permit */
+    private void _releasePermit(boolean success)
+    {
+        synchronized (this.permitLock) {
+            this.active--;
+            if (success && (this.limit < (double)this.maxLimit)) {
+                // -- additive increase: about +1 per 'limit' successful requests
+                this.limit = Math.min(this.limit + (1.0 / this.limit), (double)this.maxLimit);
+            }
+            this.permitLock.notifyAll();
+        }
+    }
+
+    /**
+    *** Indicates that the remote service responded with an "over limit" condition.  The
+    *** concurrent request limit is halved, and all requests to this provider are held for
+    *** the specified delay.
+    *** @param delayMS  The delay, in milliseconds (<=0 for the configured default)
+    **/
+    public void overLimit(long delayMS)
+    {
+        long holdMS = Math.min((delayMS > 0L)? delayMS : this.overLimitMS, MAX_OVER_LIMIT_DELAY_MS);
+        this.overLimitCount.incrementAndGet();
+        synchronized (this.permitLock) {
+            long nowMS = System.currentTimeMillis();
+            this._decreaseLimit(nowMS, holdMS);
+            this.resumeTimeMS = Math.max(this.resumeTimeMS, nowMS + holdMS);
+            this.permitLock.notifyAll();
+        }
+        if (RTConfig.isDebugMode()) {
+            Print.logDebug("["+this.getName()+"] Over limit: limit="+this.getConcurrentRequestLimit()+", hold="+holdMS+"ms");
+        }
+    }
+
+    /**
+    *** Delays the calling thread before a request retry.  The concurrent request limit is
+    *** halved, but other requests to this provider are not held.  Request permits are only
+    *** held for the duration of an HTTP request, so the calling thread does not hold a
+    *** permit while sleeping.
+    *** @param delayMS  The delay, in milliseconds (<=0 for the configured default)
+    *** @return False if interrupted while sleeping
+    **/
+    public boolean retryDelay(long delayMS)
+    {
+        long sleepMS = Math.min((delayMS > 0L)? delayMS : this.overLimitMS, MAX_OVER_LIMIT_DELAY_MS);
+        synchronized (this.permitLock) {
+            this._decreaseLimit(System.currentTimeMillis(), sleepMS);
+        }
+        if (sleepMS > 0L) {
+            try {
+                Thread.sleep(sleepMS);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /* multiplicative decrease (at most once per 'periodMS'), must be called within 'permitLock' */
+    private void _decreaseLimit(long nowMS, long periodMS)
+    {
+        if (this.decreaseTimeMS <= nowMS) {
+            this.limit = Math.max(this.limit / 2.0, 1.0);
+            this.decreaseTimeMS = nowMS + periodMS;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // -- single-flight
+
+    /**
+    *** Executes the specified task, unless a task with an equivalent key is already in
+    *** progress, in which case the result of the in-progress task is returned instead.
+    *** @param key   The task key (ie. URL, or provider/locale/rounded-location)
+    *** @param task  The task
+    *** @return The task result
+    *** @throws IOException if the task throws an IOException, or is interrupted
+    **/
+    @SuppressWarnings("unchecked")
+    public <T> T singleFlight(Object key, Callable<T> task)
+        throws IOException
+    {
+        FutureTask<T> ft = new FutureTask<T>(task);
+        FutureTask<T> prior = (FutureTask<T>)this.inFlight.putIfAbsent(key, ft);
+        if (prior != null) {
+            // -- join the in-progress request
+            this.coalescedCount.incrementAndGet();
+            return GeocoderHttpClient._getResult(prior);
+        }
+        try {
+            ft.run();
+        } finally {
+            this.inFlight.remove(key, ft);
+        }
+        return GeocoderHttpClient._getResult(ft);
+    }
+
+    /* get future result, unwrapping IOExceptions */
+    private static <T> T _getResult(Future<T> f)
+        throws IOException
+    {
+        try {
+            return f.get();
+        } catch (InterruptedException ie) {
+            throw new InterruptedIOException("Interrupted waiting for request");
+        } catch (ExecutionException ee) {
+            Throwable th = ee.getCause();
+            if (th instanceof IOException) {
+                throw (IOException)th;
+            } else
+            if (th instanceof RuntimeException) {
+                throw (RuntimeException)th;
+            } else
+            if (th instanceof Error) {
+                throw (Error)th;
+            } else {
+                throw new IOException(th);
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // -- HTTP GET
+
+    /**
+    *** Reads the contents of the specified URL.  Concurrent reads of the same URL are
+    *** merged into a single request.
+    *** @param url        The URL
+    *** @param timeoutMS  The connect/read timeout, in milliseconds (<=0 for indefinite timeout)
+    *** @return The contents of the URL (empty if the response was empty)
+    *** @throws HTMLTools.HttpIOException if the server returned an HTTP error
+    *** @throws IOException if an I/O error occurs
+    **/
+    public byte[] readPage(final String url, final int timeoutMS)
+        throws IOException // HTMLTools.HttpIOException
+    {
+        if (StringTools.isBlank(url)) {
+            throw new IOException("URL is null");
+        }
+        return this.singleFlight(url, new Callable<byte[]>() {
+            public byte[] call() throws IOException {
+                return GeocoderHttpClient.this._readPage(url, timeoutMS);
+            }
+        });
+    }
+
+    /**
+    *** Returns an InputStream for reading the contents of the specified URL (see "readPage")
+    *** @param url        The URL
+    *** @param timeoutMS  The connect/read timeout, in milliseconds (<=0 for indefinite timeout)
+    *** @return The InputStream, or null if the response was empty
+    *** @throws HTMLTools.HttpIOException if the server returned an HTTP error
+    *** @throws IOException if an I/O error occurs
+    **/
+    public InputStream openStream(String url, int timeoutMS)
+        throws IOException // HTMLTools.HttpIOException
+    {
+        byte data[] = this.readPage(url, timeoutMS);
+        return (data.length > 0)? new ByteArrayInputStream(data) : null;
+    }
+
+    /* read the URL (within a request permit) */
+    private byte[] _readPage(String url, int timeoutMS)
+        throws IOException
+    {
+        this._acquirePermit(timeoutMS);
+        this.requestCount.incrementAndGet();
+        boolean success = false;
+        HttpURLConnection httpConnect = null;
+        try {
+
+            /* init connection */
+            httpConnect = (HttpURLConnection)(new URL(url)).openConnection();
+            httpConnect.setRequestMethod(HTMLTools.REQUEST_GET);
+            httpConnect.setAllowUserInteraction(false);
+            httpConnect.setDoInput(true);
+            httpConnect.setDoOutput(false);
+            httpConnect.setUseCaches(false);
+            httpConnect.setRequestProperty(HTMLTools.PROP_User_Agent, HTMLTools.getHttpUserAgent());
+            if (timeoutMS > 0) {
+                httpConnect.setConnectTimeout(timeoutMS);
+                httpConnect.setReadTimeout(timeoutMS);
+            }
+
+            /* HTTP error? */
+            int respCode = httpConnect.getResponseCode(); // connects
+            if (respCode >= HttpURLConnection.HTTP_BAD_REQUEST) {
+                // -- read the error response, so that the connection may be reused
+                byte errData[] = GeocoderHttpClient._readFully(httpConnect.getErrorStream());
+                String respMsg = httpConnect.getResponseMessage();
+                httpConnect = null; // fully read, do not disconnect
+                if ((respCode == HTTP_TOO_MANY_REQUESTS) || (respCode == HTTP_UNAVAILABLE)) {
+                    this.overLimit(0L);
+                }
+                IOException ioe = new IOException("Server returned HTTP response code: " + respCode + " for URL: " + url);
+                throw new HTMLTools.HttpIOException(ioe, respCode, respMsg, errData);
+            }
+
+            /* read response */
+            byte data[] = GeocoderHttpClient._readFully(httpConnect.getInputStream());
+            httpConnect = null; // fully read, do not disconnect
+            success = true;
+            return data;
+
+        } finally {
+            if (httpConnect != null) {
+                // -- incomplete read: the connection cannot be reused
+                httpConnect.disconnect();
+            }
+            this._releasePermit(success);
+        }
+    }
+
+    /* read/close the specified stream */
+    private static byte[] _readFully(InputStream input)
+        throws IOException
+    {
+        if (input == null) {
+            return new byte[0];
+        }
+        try {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream(4096);
+            byte buf[] = new byte[4096];
+            for (;;) {
+                int len = input.read(buf);
+                if (len < 0) { break; }
+                baos.write(buf, 0, len);
+            }
+            return baos.toByteArray();
+        } finally {
+            try { input.close(); } catch (IOException ioe) { /*ignore*/ }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // -- asynchronous requests
+
+    /* get the async request thread pool */
+    private ThreadPool _getAsyncPool()
+    {
+        synchronized (this.permitLock) {
+            if (this.asyncPool == null) {
+                // -- requests are limited by the request permits, not by the pool size
+                int poolSize = Math.max(this.maxLimit, 2);
+                this.asyncPool = new ThreadPool("GeocoderHttp_" + this.getName(), poolSize, 30, 500);
+            }
+            return this.asyncPool;
+        }
+    }
+
+    /**
+    *** Submits the specified task for asynchronous execution.  If the task cannot be
+    *** queued, it is executed in the calling thread.
+    *** @param task  The task
+    *** @return The Future result of the task
+    **/
+    public <T> Future<T> submit(Callable<T> task)
+    {
+        FutureTask<T> ft = new FutureTask<T>(task);
+        if (!this._getAsyncPool().run(ft)) {
+            ft.run();
+        }
+        return ft;
+    }
+
+    /**
+    *** Asynchronously reads the contents of the specified URL (see "readPage")
+    *** @param url        The URL
+    *** @param timeoutMS  The connect/read timeout, in milliseconds (<=0 for indefinite timeout)
+    *** @return The Future contents of the URL
+    **/
+    public Future<byte[]> readPageAsync(final String url, final int timeoutMS)
+    {
+        return this.submit(new Callable<byte[]>() {
+            public byte[] call() throws IOException {
+                return GeocoderHttpClient.this.readPage(url, timeoutMS);
+            }
+        });
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the number of HTTP requests issued
+    **/
+    public long getRequestCount()
+    {
+        return this.requestCount.get();
+    }
+
+    /**
+    *** Gets the number of requests merged into an in-flight request
+    **/
+    public long getCoalescedCount()
+    {
+        return this.coalescedCount.get();
+    }
+
+    /**
+    *** Gets the number of "over limit" conditions
+    **/
+    public long getOverLimitCount()
+    {
+        return this.overLimitCount.get();
+    }
+
+    /**
+    *** Gets a String representation of this instance
+    **/
+    public String toString()
+    {
+        StringBuffer sb = new StringBuffer();
+        sb.append(this.getName());
+        sb.append(": limit=").append(this.getConcurrentRequestLimit()).append("/").append(this.getMaximumConcurrentRequests());
+        sb.append(" requests=").append(this.getRequestCount());
+        sb.append(" coalesced=").append(this.getCoalescedCount());
+        sb.append(" overLimit=").append(this.getOverLimitCount());
+        return sb.toString();
+    }
+
+}
@@ -27,6 +27,8 @@
 //     -Added StateProvince methods
 //  2016/04/06  Martin D. Flynn
 //     -Added Timezone methods
+//  2026/10/19  GTS Development Team
+//     -Added CACHED_TILE state (local ReverseGeocode tile store)
 // ----------------------------------------------------------------------------
 package org.opengts.geocoder;
 
@@ -980,6 +982,7 @@ public class ReverseGeocode
     public static final int CACHED_PROVIDER     =  0; // from RGProvider URL
     public static final int CACHED_MEMORY       =  1; // from memory cache
     public static final int CACHED_DB           =  2; // from DB cache
+    public static final int CACHED_TILE         =  3; // from local tile store
 
     /** 
     *** Sets the cached state
@@ -999,6 +1002,9 @@ public class ReverseGeocode
             case CACHED_DB :
                 this.cachedState = CACHED_DB;
                 break;
+            case CACHED_TILE :
+                this.cachedState = CACHED_TILE;
+                break;
             default :
                 this.cachedState = (state < 0)? CACHED_UNKNOWN : state;
                 break;
@@ -1044,6 +1050,8 @@ public class ReverseGeocode
                 return "memcache";
             case CACHED_DB :
                 return "dbcache";
+            case CACHED_TILE :
+                return "tilecache";
             default :
                 return (state < 0)? "unknown" : "cache";
         }
@@ -21,10 +21,18 @@
 //     -Initial release [EXPERIMENTAL]
 //  2015/12/07  Martin D. Flynn
 //     -Auto atart auto-trim thread. [2.6.1-B35]
+//  2026/10/19  GTS Development Team
+//     -Memory cache is now a segmented LRU limited by approximate size (MB)
+//     -Added local memory-mapped tile store between the memory and DB caches
+//     -Added per-tier hit statistics, and heading-based tile prefetch
+//     -Tile store files are named per runtime context, so that several processes may
+//      share the same "RGCache.tileStore.dir"
 // ----------------------------------------------------------------------------
 package org.opengts.geocoder;
 
 import java.util.*;
+import java.io.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.opengts.util.*;
 
@@ -42,6 +50,37 @@ public class ReverseGeocodeCache
     private static final long   MIN_TRIM_INTERVAL_MS        = DateTime.HourSeconds(6) * 1000L;
     private static final long   DEFAULT_TRIM_INTERVAL_MS    = 0L;
 
+    // ------------------------------------------------------------------------
+    // -- Runtime configuration properties
+
+    /* maximum approximate memory size of each in-memory cache (megabytes, 0 for no limit) */
+    public  static final String PROP_RGCache_memoryLimitMB          = "RGCache.memoryLimitMB";
+
+    /* directory containing the local tile store (blank to disable the tile store) */
+    public  static final String PROP_RGCache_tileStoreDir           = "RGCache.tileStore.dir";
+
+    /* size of the local tile store (megabytes) */
+    public  static final String PROP_RGCache_tileStoreSizeMB        = "RGCache.tileStore.sizeMB";
+
+    /* maximum age of tile store entries (days), same as DBConfig.PROP_RGCache_maximumAgeDays */
+    public  static final String PROP_RGCache_maximumAgeDays         = "RGCache.maximumAgeDays";
+
+    /* maximum distance ahead of a moving vehicle to prefetch tiles (meters, 0 to disable) */
+    public  static final String PROP_RGCache_prefetchDistanceMeters = "RGCache.prefetch.distanceMeters";
+
+    private static final long   DEFAULT_MEMORY_LIMIT_MB     = 8L;
+    private static final int    DEFAULT_TILE_STORE_SIZE_MB  = 64;
+    private static final long   DEFAULT_TILE_MAX_AGE_DAYS   = 30L;
+
+    private static final String TILE_STORE_FILE_PREFIX      = "rgtiles";
+    private static final String TILE_STORE_FILE_EXTN        = ".dat";
+    private static final int    TILE_STORE_MAX_INSTANCES    = 8;
+
+    private static final double PREFETCH_LOOKAHEAD_SEC      = 120.0;
+    private static final double PREFETCH_STEP_METERS        = 100.0;
+    private static final long   PREFETCH_CELL_AGE_MS        = DateTime.MinuteSeconds(10) * 1000L;
+    private static final int    PREFETCH_CELL_MAX_SIZE      = 2000;
+
     // ------------------------------------------------------------------------
     // -- ReverseGeocode provider ids.
     // -    - These values must not change because they are stored in the RGCache table
@@ -170,6 +209,76 @@ public class ReverseGeocodeCache
     // ------------------------------------------------------------------------
     // ------------------------------------------------------------------------
 
+    private static volatile boolean                 rgTileStoreInit = false;
+    private static volatile ReverseGeocodeTileStore rgTileStore     = null;
+
+    /**
+    *** Gets the local ReverseGeocode tile store (shared by all ReverseGeocodeCache instances).
+    *** Returns null if the tile store is not configured, or could not be opened.
+    **/
+    private static ReverseGeocodeTileStore GetTileStore()
+    {
+        if (!rgTileStoreInit) {
+            synchronized (ReverseGeocodeCache.class) {
+                if (!rgTileStoreInit) { // retest boolean
+                    String dir = RTConfig.getString(PROP_RGCache_tileStoreDir, null);
+                    if (!StringTools.isBlank(dir)) {
+                        // -- one store file per runtime context ("rgtiles_<context>[_N].dat"),
+                        // -  the first file not locked by another process is used.
+                        String ctxName = RTConfig.getContextName("default");
+                        StringBuffer base = new StringBuffer(TILE_STORE_FILE_PREFIX).append("_");
+                        for (int c = 0; c < ctxName.length(); c++) {
+                            char ch = ctxName.charAt(c);
+                            base.append((Character.isLetterOrDigit(ch) || (ch == '-'))? ch : '_');
+                        }
+                        int  sizeMB = RTConfig.getInt(PROP_RGCache_tileStoreSizeMB, DEFAULT_TILE_STORE_SIZE_MB);
+                        for (int n = 0; (rgTileStore == null) && (n < TILE_STORE_MAX_INSTANCES); n++) {
+                            String name = base + ((n > 0)? ("_" + n) : "") + TILE_STORE_FILE_EXTN;
+                            File   file = new File(dir, name);
+                            try {
+                                rgTileStore = new ReverseGeocodeTileStore(file, sizeMB);
+                                Print.logInfo("ReverseGeocode tile store opened: " + rgTileStore);
+                            } catch (ReverseGeocodeTileStore.StoreLockedException sle) {
+                                Print.logDebug("ReverseGeocode tile store locked: " + file);
+                            } catch (IOException ioe) {
+                                Print.logError("Unable to open ReverseGeocode tile store: " + ioe);
+                                break;
+                            }
+                        }
+                        if (rgTileStore == null) {
+                            Print.logWarn("ReverseGeocode tile store not available: " + dir);
+                        }
+                    }
+                    rgTileStoreInit = true;
+                }
+            }
+        }
+        return rgTileStore;
+    }
+
+    /**
+    *** Gets the tile store cell for the specified encoded GeoPoint key
+    **/
+    private static long getTileCell(long gpLL)
+    {
+        GeoPoint gp = ReverseGeocodeCache.decodeGeoPoint(gpLL);
+        return (gp != null)? ReverseGeocodeTileStore.getCell(gp.getLatitude(),gp.getLongitude()) : 0L;
+    }
+
+    // ------------------------------------------------------------------------
+
+    private static final int    ThreadPool_Prefetch_Size    =   2;  // max threads
+    private static final int    ThreadPool_Prefetch_IdleSec =  60;  // trim idle threads
+    private static final int    ThreadPool_Prefetch_QueSize = 200;  // max queue size (excess prefetches dropped)
+    private static ThreadPool   ThreadPool_Prefetch         = new ThreadPool(
+        "RGPrefetch",
+        ThreadPool_Prefetch_Size,
+        ThreadPool_Prefetch_IdleSec,
+        ThreadPool_Prefetch_QueSize);
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
     /**
     *** Encodes the specified GeoPoint latitude/longitude into a Long value
     *** @param gp     The GeoPoint to encode
@@ -318,19 +427,32 @@ public class ReverseGeocodeCache
     // ------------------------------------------------------------------------
 
     /**
-    *** MemCache Subclass
+    *** Multi-tier cache map: memory (LRU) --> local tile store --> DB
     **/
     private static class RGCacheMap
-        extends MemCache<Long,Object>
     {
+        private SegmentedLRUCache<Long,Object> memCache    = null;
         private boolean                      highRes       = false; // false=4dec, true=5dec
         private StoreAs                      rgStoreType   = StoreAs.JSON_STRING;
+        private ReverseGeocodeTileStore      tileStore     = null;
+        private long                         tileMaxAgeSec = 0L;
         private ReverseGeocodeCacheInterface dbCache       = null;
         private boolean                      dbCacheEnable = false;
-        public RGCacheMap(StoreAs storeAs) {
+        private AtomicLong                   lookupCount   = new AtomicLong(0L);
+        private AtomicLong                   memHitCount   = new AtomicLong(0L);
+        private AtomicLong                   tileHitCount  = new AtomicLong(0L);
+        private AtomicLong                   dbHitCount    = new AtomicLong(0L);
+        public RGCacheMap(StoreAs storeAs, long maxBytes) {
             super();
-            this.rgStoreType = (storeAs != null)? storeAs : StoreAs.JSON_STRING;
-            this.dbCache = ReverseGeocodeCache.GetDBReverseGeocodeCache();
+            this.rgStoreType   = (storeAs != null)? storeAs : StoreAs.JSON_STRING;
+            this.memCache      = new SegmentedLRUCache<Long,Object>(SegmentedLRUCache.DEFAULT_SEGMENTS, maxBytes, 0, 0L);
+            this.tileStore     = ReverseGeocodeCache.GetTileStore();
+            this.tileMaxAgeSec = DateTime.DaySeconds(RTConfig.getLong(PROP_RGCache_maximumAgeDays,DEFAULT_TILE_MAX_AGE_DAYS));
+            this.dbCache       = ReverseGeocodeCache.GetDBReverseGeocodeCache();
+        }
+        // --
+        public SegmentedLRUCache<Long,Object> getMemoryCache() {
+            return this.memCache;
         }
         // --
         public void setHighResolution(boolean hiRes) {
@@ -359,28 +481,72 @@ public class ReverseGeocodeCache
             return null;
         }
         // --
-        public void addCacheReverseGeocode(int provider, GeoPoint gp, ReverseGeocode rg, String clientID) {
-            // -- validate arguments
-            if ((gp == null) || (rg == null)) {
-                return;
+        public boolean hasTileStore() {
+            return (this.tileStore != null)? true : false;
+        }
+        private long getTileMinimumTimeSec() {
+            return (this.tileMaxAgeSec > 0L)? (DateTime.getCurrentTimeSec() - this.tileMaxAgeSec) : 0L;
+        }
+        public void addTileReverseGeocode(int provider, Long key, String rgVal) {
+            if ((this.tileStore != null) && (rgVal != null)) {
+                long cell = ReverseGeocodeCache.getTileCell(key.longValue());
+                this.tileStore.put(cell, key.longValue(), provider, rgVal);
             }
-            // -- get cached values
-            Object rgVal;
+        }
+        public String getTileReverseGeocode(int provider, Long key) {
+            if (this.tileStore != null) {
+                long cell = ReverseGeocodeCache.getTileCell(key.longValue());
+                return this.tileStore.get(cell, key.longValue(), provider, this.getTileMinimumTimeSec());
+            }
+            return null;
+        }
+        public int loadTileCell(int provider, long cell) {
+            // -- copy the tile entries (matching this cache resolution) into the memory cache
+            if (this.tileStore == null) {
+                return 0;
+            }
+            Map<Long,String> tileMap = new HashMap<Long,String>();
+            this.tileStore.getCellEntries(cell, provider, this.getTileMinimumTimeSec(), tileMap);
+            int count = 0;
+            for (Long key : tileMap.keySet()) {
+                boolean keyHiRes = ((key.longValue() & 0x4000000000000000L) != 0L)? true : false;
+                if ((keyHiRes == this.highRes) && !this.memCache.containsKey(key)) {
+                    this.memCache.put(key, tileMap.get(key));
+                    count++;
+                }
+            }
+            return count;
+        }
+        // --
+        private Object getCacheValue(ReverseGeocode rg) {
             switch (this.rgStoreType) {
                 case FULL_ADDRESS:
-                    rgVal = rg.getFullAddress();
-                    while (((String)rgVal).startsWith("{")) { rgVal = ((String)rgVal).substring(1); }
-                    break;
+                    String addr = rg.getFullAddress();
+                    while (addr.startsWith("{")) { addr = addr.substring(1); }
+                    return addr;
                 case REV_GEOCODE:
-                    rgVal = rg;
-                    break;
+                    return rg;
                 case JSON_STRING:
                 default:
-                    rgVal = rg.toJSON().toString(false);
-                    break;
+                    return rg.toJSON().toString(false);
             }
+        }
+        private static String getTileValue(Object rgVal, ReverseGeocode rg) {
+            return (rgVal instanceof String)? (String)rgVal : rg.toJSON().toString(false);
+        }
+        // --
+        public void addCacheReverseGeocode(int provider, GeoPoint gp, ReverseGeocode rg, String clientID) {
+            // -- validate arguments
+            if ((gp == null) || (rg == null)) {
+                return;
+            }
+            // -- get cached values
+            Long   key   = ReverseGeocodeCache.EncodeGeoPoint(gp,this.highRes);
+            Object rgVal = this.getCacheValue(rg);
             // -- add to memory cache
-            this.addValue(ReverseGeocodeCache.EncodeGeoPoint(gp,this.highRes), rgVal);
+            this.memCache.put(key, rgVal);
+            // -- add to tile store
+            this.addTileReverseGeocode(provider, key, RGCacheMap.getTileValue(rgVal,rg));
             // -- add to db cache
             this.addDBReverseGeocode(provider, gp, rg, clientID);
         }
@@ -388,17 +554,43 @@ public class ReverseGeocodeCache
             if (!GeoPoint.isValid(gp)) {
                 return null;
             }
-            // -- read entry
+            this.lookupCount.incrementAndGet();
             long startMS = DateTime.getCurrentTimeMillis();
-            Object rgVal = this.getValue(ReverseGeocodeCache.EncodeGeoPoint(gp,this.highRes));
-            if (rgVal == null) {
-                // -- memory key does not exist, read from db cache
-                return this.getDBReverseGeocode(provider, gp, isMoving); // may return null
+            Long key = ReverseGeocodeCache.EncodeGeoPoint(gp,this.highRes);
+            // -- read memory cache
+            Object rgVal = this.memCache.get(key);
+            if (rgVal != null) {
+                ReverseGeocode rg = this.parseCacheValue(rgVal, provider, isMoving, ReverseGeocode.CACHED_MEMORY, startMS);
+                if (rg != null) {
+                    this.memHitCount.incrementAndGet();
+                }
+                return rg;
             }
+            // -- memory key does not exist, read from tile store
+            String tileVal = this.getTileReverseGeocode(provider, key);
+            if (tileVal != null) {
+                ReverseGeocode rg = this.parseCacheValue(tileVal, provider, isMoving, ReverseGeocode.CACHED_TILE, startMS);
+                if (rg != null) {
+                    this.tileHitCount.incrementAndGet();
+                    this.memCache.put(key, tileVal);
+                    return rg;
+                }
+            }
+            // -- read from db cache
+            ReverseGeocode rg = this.getDBReverseGeocode(provider, gp, isMoving); // may return null
+            if (rg != null) {
+                this.dbHitCount.incrementAndGet();
+                Object dbVal = this.getCacheValue(rg);
+                this.memCache.put(key, dbVal);
+                this.addTileReverseGeocode(provider, key, RGCacheMap.getTileValue(dbVal,rg));
+            }
+            return rg;
+        }
+        private ReverseGeocode parseCacheValue(Object rgVal, int provider, boolean isMoving, int cachedState, long startMS) {
             // -- ReverseGeocode object
             if (rgVal instanceof ReverseGeocode) {
                 ReverseGeocode rg = (ReverseGeocode)rgVal;
-                rg.setCachedState(ReverseGeocode.CACHED_MEMORY);
+                rg.setCachedState(cachedState);
                 rg.setElapsedTimeMS(DateTime.getCurrentTimeMillis() - startMS);
                 return rg;
             }
@@ -413,7 +605,7 @@ public class ReverseGeocodeCache
                         if (!rg.hasRGProvider()) {
                             rg.setRGProviderID(provider);
                         }
-                        rg.setCachedState(ReverseGeocode.CACHED_MEMORY);
+                        rg.setCachedState(cachedState);
                         rg.setElapsedTimeMS(DateTime.getCurrentTimeMillis() - startMS);
                         return rg;
                     } catch (JSON.JSONParsingException jpe) {
@@ -429,7 +621,7 @@ public class ReverseGeocodeCache
                     if (!rg.hasRGProvider()) {
                         rg.setRGProviderID(provider);
                     }
-                    rg.setCachedState(ReverseGeocode.CACHED_MEMORY);
+                    rg.setCachedState(cachedState);
                     rg.setElapsedTimeMS(DateTime.getCurrentTimeMillis() - startMS);
                     return rg;
                 }
@@ -438,6 +630,23 @@ public class ReverseGeocodeCache
             Print.logWarn("Invalid object type in ReverseGeocode Cache: " + StringTools.className(rgVal));
             return null;
         }
+        // --
+        public String getStatistics() {
+            long lookups = this.lookupCount.get();
+            long memHit  = this.memHitCount.get();
+            long tileHit = this.tileHitCount.get();
+            long dbHit   = this.dbHitCount.get();
+            StringBuffer sb = new StringBuffer();
+            sb.append("lookups=").append(lookups);
+            sb.append(" memory=").append(memHit ).append("(").append(RGCacheMap.percent(memHit ,lookups)).append("%)");
+            sb.append(" tile="  ).append(tileHit).append("(").append(RGCacheMap.percent(tileHit,lookups)).append("%)");
+            sb.append(" db="    ).append(dbHit  ).append("(").append(RGCacheMap.percent(dbHit  ,lookups)).append("%)");
+            sb.append(" [").append(this.memCache.toString()).append("]");
+            return sb.toString();
+        }
+        private static String percent(long count, long total) {
+            return (total > 0L)? StringTools.format(((double)count * 100.0) / (double)total, "0.0") : "0.0";
+        }
     }
 
     // ------------------------------------------------------------------------
@@ -446,6 +655,10 @@ public class ReverseGeocodeCache
     private String                          rgCacheName         = null;
     private RGCacheMap                      rgCacheMap          = null;
 
+    private double                          prefetchDistM       = 0.0;
+    private SegmentedLRUCache<Long,Boolean> prefetchCells       = null;
+    private AtomicLong                      prefetchCount       = new AtomicLong(0L);
+
     private long                            autoTrimIntervalMS  = 0L;
     private AutoTrimThread                  autoTrimThread      = null;
     private volatile boolean                autoTrimChecked     = false;
@@ -464,11 +677,16 @@ public class ReverseGeocodeCache
     public ReverseGeocodeCache(String name, int maxSize, long maxAgeMS, long autoTrimMS)
     {
         super();
+        long maxMB = RTConfig.getLong(PROP_RGCache_memoryLimitMB, DEFAULT_MEMORY_LIMIT_MB);
         this.rgCacheName = StringTools.trim(name);
-        this.rgCacheMap  = new RGCacheMap(StoreAs.JSON_STRING);
-        this.rgCacheMap.setMaximumCacheSize(maxSize);
-        this.rgCacheMap.setMaximumEntryAgeMS(maxAgeMS);
+        this.rgCacheMap  = new RGCacheMap(StoreAs.JSON_STRING, maxMB * 1024L * 1024L);
+        this.rgCacheMap.getMemoryCache().setMaximumEntries(maxSize);
+        this.rgCacheMap.getMemoryCache().setMaximumAgeMS(maxAgeMS);
         this.setAutoTrimInterval(autoTrimMS);
+        this.prefetchDistM = RTConfig.getDouble(PROP_RGCache_prefetchDistanceMeters, 0.0);
+        if ((this.prefetchDistM > 0.0) && this.rgCacheMap.hasTileStore()) {
+            this.prefetchCells = new SegmentedLRUCache<Long,Boolean>(4, 0L, PREFETCH_CELL_MAX_SIZE, PREFETCH_CELL_AGE_MS);
+        }
     }
 
     // ------------------------------------------------------------------------
@@ -488,15 +706,36 @@ public class ReverseGeocodeCache
     **/
     public int getSize()
     {
-        return this.rgCacheMap.getSize();
+        return this.rgCacheMap.getMemoryCache().size();
     }
 
     /**
-    *** Gets the cache cutback size when out-of-memory is detected
+    *** Gets the number of entries removed from the memory cache to stay within the
+    *** maximum size/memory limits
     **/
     public int getSizeCutbackCount()
     {
-        return this.rgCacheMap.getMaximumCacheSizeCutbackCount();
+        long count = this.rgCacheMap.getMemoryCache().getEvictionCount();
+        return (count < (long)Integer.MAX_VALUE)? (int)count : Integer.MAX_VALUE;
+    }
+
+    /**
+    *** Gets the approximate memory size of the memory cache, in bytes
+    **/
+    public long getMemorySize()
+    {
+        return this.rgCacheMap.getMemoryCache().getByteSize();
+    }
+
+    /**
+    *** Gets the per-tier (memory/tile/db) hit statistics
+    **/
+    public String getStatistics()
+    {
+        StringBuffer sb = new StringBuffer();
+        sb.append(this.rgCacheMap.getStatistics());
+        sb.append(" prefetched=").append(this.prefetchCount.get());
+        return sb.toString();
     }
 
     // ------------------------------------------------------------------------
@@ -507,7 +746,7 @@ public class ReverseGeocodeCache
     public void setMaximumSize(int maxSize)
     {
         int ms = (maxSize > 100)? maxSize : 100;
-        this.rgCacheMap.setMaximumCacheSize(ms);
+        this.rgCacheMap.getMemoryCache().setMaximumEntries(ms);
     }
 
     /**
@@ -515,7 +754,7 @@ public class ReverseGeocodeCache
     **/
     public int getMaximumSize()
     {
-        return this.rgCacheMap.getMaximumCacheSize();
+        return this.rgCacheMap.getMemoryCache().getMaximumEntries();
     }
 
     // ------------------------------------------------------------------------
@@ -526,7 +765,7 @@ public class ReverseGeocodeCache
     public void setMaximumAgeMS(long maxAgeMS)
     {
         long maMS = (maxAgeMS >= 0L)? maxAgeMS : DEFAULT_MAX_AGE_MS;
-        this.rgCacheMap.setMaximumEntryAgeMS(maMS);
+        this.rgCacheMap.getMemoryCache().setMaximumAgeMS(maMS);
     }
 
     /**
@@ -534,7 +773,7 @@ public class ReverseGeocodeCache
     **/
     public long getMaximumAgeMS()
     {
-        return this.rgCacheMap.getMaximumEntryAgeMS();
+        return this.rgCacheMap.getMemoryCache().getMaximumAgeMS();
     }
 
     // ------------------------------------------------------------------------
@@ -544,7 +783,7 @@ public class ReverseGeocodeCache
     **/
     public void setTrimOnAdd(boolean trim)
     {
-        this.rgCacheMap.setTrimOnAdd(trim);
+        this.rgCacheMap.getMemoryCache().setTrimOnPut(trim);
     }
 
     /**
@@ -552,7 +791,8 @@ public class ReverseGeocodeCache
     **/
     protected void trimCache()
     {
-        this.rgCacheMap.trimCache("trimCache");
+        this.rgCacheMap.getMemoryCache().trim();
+        Print.logDebug("ReverseGeocodeCache " + this.getName() + ": " + this.getStatistics());
     }
 
     // ------------------------------------------------------------------------
@@ -706,6 +946,78 @@ public class ReverseGeocodeCache
 
     }
 
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Queues a background prefetch of the tile store cells ahead of a moving vehicle into
+    *** the memory cache.  The prefetch distance is the distance travelled at the specified
+    *** speed over the next couple minutes, limited to the "RGCache.prefetch.distanceMeters"
+    *** property value.  Only the local tile store is read, no provider requests are made.
+    *** @param provider  The ReverseGeocode provider id
+    *** @param gp        The current vehicle location
+    *** @param heading   The current vehicle heading (degrees)
+    *** @param speedKPH  The current vehicle speed (km/h)
+    *** @return True if the prefetch was queued
+    **/
+    public boolean prefetch(final int provider, final GeoPoint gp, final double heading, double speedKPH)
+    {
+
+        /* prefetch enabled? */
+        if (this.prefetchCells == null) {
+            return false;
+        } else
+        if (!GeoPoint.isValid(gp) || (heading < 0.0) || (speedKPH <= 0.0)) {
+            return false;
+        }
+
+        /* queue prefetch */
+        double speedMPS = speedKPH * 1000.0 / 3600.0;
+        final double distM = Math.min(speedMPS * PREFETCH_LOOKAHEAD_SEC, this.prefetchDistM);
+        return ThreadPool_Prefetch.run(new Runnable() {
+            public void run() {
+                ReverseGeocodeCache.this._prefetch(provider, gp, heading, distM);
+            }
+        });
+
+    }
+
+    /**
+    *** Loads the tile store cells along the specified heading into the memory cache
+    **/
+    private void _prefetch(int provider, GeoPoint gp, double heading, double distM)
+    {
+        long lastCell = -1L;
+        for (double d = 0.0; d <= distM; d += PREFETCH_STEP_METERS) {
+            GeoPoint hp = (d > 0.0)? gp.getHeadingPoint(d, heading) : gp;
+            long cell = ReverseGeocodeTileStore.getCell(hp.getLatitude(), hp.getLongitude());
+            if (cell == lastCell) {
+                continue;
+            }
+            lastCell = cell;
+            // -- skip recently prefetched cells
+            Long cellKey = new Long(((long)provider << 40) | cell);
+            if (this.prefetchCells.get(cellKey) != null) {
+                continue;
+            }
+            this.prefetchCells.put(cellKey, Boolean.TRUE);
+            // -- load cell
+            int count = this.rgCacheMap.loadTileCell(provider, cell);
+            this.prefetchCount.addAndGet(count);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets a String representation of this instance
+    **/
+    public String toString()
+    {
+        return this.getName() + ": " + this.getStatistics();
+    }
+
     // ------------------------------------------------------------------------
     // ------------------------------------------------------------------------
     // ------------------------------------------------------------------------
@@ -29,6 +29,8 @@
 //     -Initial release
 //  2010/07/04  Martin D. Flynn
 //     -Added "isEnabled" method
+//  2026/10/19  GTS Development Team
+//     -Added "prefetchReverseGeocode" (heading-based ReverseGeocodeCache prefetch)
 // ----------------------------------------------------------------------------
 package org.opengts.geocoder;
 
@@ -93,6 +95,14 @@ public interface ReverseGeocodeProvider
         boolean cache, String clientID,
         Properties props);
 
+    /**
+    *** Hint to prefetch cached addresses ahead of a moving vehicle.  May be ignored.
+    *** @param gp        The current vehicle location
+    *** @param heading   The current vehicle heading (degrees)
+    *** @param speedKPH  The current vehicle speed (km/h)
+    **/
+    public void prefetchReverseGeocode(GeoPoint gp, double heading, double speedKPH);
+
     // ------------------------------------------------------------------------
 
     /**
@@ -27,6 +27,10 @@
 //     -Added ability for subclass to specify a failover timeout value.
 //  2016/01/04  Martin D. Flynn
 //     -Added "failoverQuiet" hint [2.6.1-B03]
+//  2026/10/19  GTS Development Team
+//     -Added "prefetchReverseGeocode" (heading-based ReverseGeocodeCache prefetch)
+//     -Added shared GeocoderHttpClient ("getHttpClient").
+//     -"retrySleep" now also reduces the GeocoderHttpClient concurrent request limit.
 // ----------------------------------------------------------------------------
 package org.opengts.geocoder;
 
@@ -87,6 +91,8 @@ public abstract class ReverseGeocodeProviderAdapter
     private long                    retryMinWaitMS          = 0L;
     private long                    retryMaxWaitMS          = 0L;
 
+    private GeocoderHttpClient      httpClient              = null;
+
     /**
     *** Constructor
     *** @param name  The name of this reverse-geocode provider
@@ -509,6 +515,24 @@ public abstract class ReverseGeocodeProviderAdapter
         String localeStr, boolean cache, 
         String clientID, Properties props);
 
+    /* prefetch cached reverse-geocodes ahead of a moving vehicle */
+    public void prefetchReverseGeocode(GeoPoint gp, double heading, double speedKPH)
+    {
+        // -- Override
+    }
+
+    // ------------------------------------------------------------------------
+
+    /* shared HTTP client for this provider */
+    public GeocoderHttpClient getHttpClient()
+    {
+        if (this.httpClient == null) {
+            // -- shared by all instances with the same name
+            this.httpClient = GeocoderHttpClient.getInstance(this.getName(), this.getProperties());
+        }
+        return this.httpClient;
+    }
+
     // ------------------------------------------------------------------------
 
     /* retry count */
@@ -545,6 +569,8 @@ public abstract class ReverseGeocodeProviderAdapter
         }
 
         /* sleep */
+        // -- the concurrent request limit for this provider is reduced, and this thread
+        // -  sleeps outside of any GeocoderHttpClient request permit.
         if (MAX_RETRY_SLEEP_MS > 0L) {
             long minMS = this.getMinRetryDelayMS();
             long maxMS = this.getMaxRetryDelayMS();
@@ -555,7 +581,7 @@ public abstract class ReverseGeocodeProviderAdapter
             }
             if (sleepMS > 0L) {
                 sleepMS = Math.min(sleepMS,MAX_RETRY_SLEEP_MS);
-                try { Thread.sleep(sleepMS); } catch (Throwable th) { /*ignore*/ }
+                this.getHttpClient().retryDelay(sleepMS);
             }
         }
 
@@ -0,0 +1,399 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2020, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Local memory-mapped store of resolved addresses, grouped by geohash cell
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19  GTS Development Team
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.geocoder;
+
+import java.lang.*;
+import java.util.*;
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+
+import org.opengts.util.*;
+
+/**
+*** ReverseGeocodeTileStore class<br>
+*** A fixed-size memory-mapped file containing cached reverse-geocode values.  The file is
+*** divided into buckets of fixed-size slots.  All entries within the same geohash cell
+*** ("tile") are stored in the same bucket, so that all known addresses within a tile can
+*** be read at once (see "getCellEntries").  When a bucket is full, the oldest entry in the
+*** bucket is replaced.
+*** <br>
+*** The store file is locked while open, and cannot be shared by concurrently running
+*** processes (ReverseGeocodeCache names the store file after the runtime context, and
+*** selects the next numbered file if the store file is locked by another process).
+*** <br>
+*** Slot layout:
+***   [0] key(long), [8] cell(long), [16] provider(int), [20] time(int, seconds),
+***   [24] length(short), [26] value(default character encoding)
+**/
+public class ReverseGeocodeTileStore
+{
+
+    // ------------------------------------------------------------------------
+
+    /* geohash cell bits (approximately 150m x 150m at the equator) */
+    public  static final int    CELL_BITS           = 35;
+
+    public  static final int    MIN_SIZE_MB         = 1;
+    public  static final int    MAX_SIZE_MB         = 1024;
+
+    private static final int    MAGIC               = 0x52475453; // "RGTS"
+    private static final int    VERSION             = 1;
+    private static final int    HEADER_SIZE         = 64;
+    private static final int    SLOT_SIZE           = 1024;
+    private static final int    SLOTS_PER_BUCKET    = 32;
+    private static final int    BUCKET_SIZE         = SLOT_SIZE * SLOTS_PER_BUCKET;
+    private static final int    LOCK_COUNT          = 64;
+
+    private static final int    OFS_KEY             =  0;
+    private static final int    OFS_CELL            =  8;
+    private static final int    OFS_PROVIDER        = 16;
+    private static final int    OFS_TIME            = 20;
+    private static final int    OFS_LENGTH          = 24;
+    private static final int    OFS_VALUE           = 26;
+    private static final int    MAX_VALUE_LENGTH    = SLOT_SIZE - OFS_VALUE;
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** StoreLockedException class<br>
+    *** Thrown when the store file is locked by another process
+    **/
+    public static class StoreLockedException
+        extends IOException
+    {
+        private static final long serialVersionUID = 1L;
+        public StoreLockedException(String msg) {
+            super(msg);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the geohash cell ("tile") containing the specified location
+    **/
+    public static long getCell(double lat, double lon)
+    {
+        return GeoHash.encode(lat, lon, CELL_BITS);
+    }
+
+    /**
+    *** Gets the approximate size of a cell, in meters
+    **/
+    public static double getCellSizeMeters()
+    {
+        double b[] = GeoHash.getBounds(0L, CELL_BITS, null);
+        GeoPoint sw = new GeoPoint(b[0], b[2]);
+        return sw.metersToPoint(new GeoPoint(b[0], b[3]));
+    }
+
+    // ------------------------------------------------------------------------
+
+    private File                storeFile   = null;
+    private RandomAccessFile    storeRAF    = null;
+    private FileLock            storeLock   = null;
+    private MappedByteBuffer    storeMap    = null;
+    private int                 bucketCount = 0;
+    private Object              locks[]     = null;
+
+    /**
+    *** Constructor
+    *** @param file    The store file (created if it does not exist)
+    *** @param sizeMB  The store size, in megabytes
+    *** @throws IOException  If the store file cannot be opened/mapped
+    ***                      (StoreLockedException if locked by another process)
+    **/
+    public ReverseGeocodeTileStore(File file, int sizeMB)
+        throws IOException
+    {
+        super();
+        int mb = (sizeMB < MIN_SIZE_MB)? MIN_SIZE_MB : (sizeMB > MAX_SIZE_MB)? MAX_SIZE_MB : sizeMB;
+        this.storeFile   = file;
+        this.bucketCount = (int)((((long)mb * 1024L * 1024L) - HEADER_SIZE) / BUCKET_SIZE);
+        this.locks       = new Object[LOCK_COUNT];
+        for (int i = 0; i < LOCK_COUNT; i++) { this.locks[i] = new Object(); }
+
+        /* open/map file */
+        long size = HEADER_SIZE + ((long)this.bucketCount * BUCKET_SIZE);
+        this.storeRAF = new RandomAccessFile(file, "rw");
+        try {
+            try {
+                this.storeLock = this.storeRAF.getChannel().tryLock();
+            } catch (OverlappingFileLockException ofle) {
+                this.storeLock = null;
+            }
+            if (this.storeLock == null) {
+                throw new StoreLockedException("Tile store in use by another process: " + file);
+            }
+            boolean valid = false;
+            if (this.storeRAF.length() == size) {
+                this.storeRAF.seek(0L);
+                valid = (this.storeRAF.readInt() == MAGIC) &&
+                        (this.storeRAF.readInt() == VERSION) &&
+                        (this.storeRAF.readInt() == SLOT_SIZE) &&
+                        (this.storeRAF.readInt() == SLOTS_PER_BUCKET) &&
+                        (this.storeRAF.readInt() == this.bucketCount) &&
+                        (this.storeRAF.readInt() == CELL_BITS);
+            }
+            if (!valid) {
+                // -- (re)initialize
+                Print.logInfo("Initializing ReverseGeocode tile store: " + file + " ["+mb+" MB]");
+                this.storeRAF.setLength(0L);
+                this.storeRAF.setLength(size);
+                this.storeRAF.seek(0L);
+                this.storeRAF.writeInt(MAGIC);
+                this.storeRAF.writeInt(VERSION);
+                this.storeRAF.writeInt(SLOT_SIZE);
+                this.storeRAF.writeInt(SLOTS_PER_BUCKET);
+                this.storeRAF.writeInt(this.bucketCount);
+                this.storeRAF.writeInt(CELL_BITS);
+            }
+            this.storeMap = this.storeRAF.getChannel().map(FileChannel.MapMode.READ_WRITE, 0L, size);
+        } catch (IOException ioe) {
+            this.close();
+            throw ioe;
+        }
+
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the store file
+    **/
+    public File getFile()
+    {
+        return this.storeFile;
+    }
+
+    /**
+    *** Gets the number of buckets in this store
+    **/
+    public int getBucketCount()
+    {
+        return this.bucketCount;
+    }
+
+    /* bucket index for the specified cell */
+    private int _getBucket(long cell)
+    {
+        long h = cell * 0x9E3779B97F4A7C15L;
+        return (int)((h >>> 1) % this.bucketCount);
+    }
+
+    /* byte offset of the specified bucket */
+    private static int _getBucketOffset(int bucket)
+    {
+        return HEADER_SIZE + (bucket * BUCKET_SIZE);
+    }
+
+    /* read the value of the slot at the specified offset */
+    private String _readValue(ByteBuffer bb, int slotOfs)
+    {
+        int len = bb.getShort(slotOfs + OFS_LENGTH) & 0xFFFF;
+        if ((len <= 0) || (len > MAX_VALUE_LENGTH)) {
+            return null;
+        }
+        byte b[] = new byte[len];
+        ByteBuffer dup = bb.duplicate();
+        dup.position(slotOfs + OFS_VALUE);
+        dup.get(b);
+        return StringTools.toStringValue(b);
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the value stored for the specified key
+    *** @param cell        The cell containing the key location (see "getCell")
+    *** @param key         The location key
+    *** @param provider    The reverse-geocode provider id
+    *** @param minTimeSec  The minimum entry time (older entries are ignored)
+    *** @return The stored value, or null if not found
+    **/
+    public String get(long cell, long key, int provider, long minTimeSec)
+    {
+        MappedByteBuffer bb = this.storeMap;
+        if ((bb == null) || (key == 0L)) {
+            return null;
+        }
+        int bucket = this._getBucket(cell);
+        int bktOfs = _getBucketOffset(bucket);
+        synchronized (this.locks[bucket % LOCK_COUNT]) {
+            for (int s = 0; s < SLOTS_PER_BUCKET; s++) {
+                int ofs = bktOfs + (s * SLOT_SIZE);
+                if ((bb.getLong(ofs + OFS_KEY)     == key ) &&
+                    (bb.getInt( ofs + OFS_PROVIDER) == provider)) {
+                    long timeSec = bb.getInt(ofs + OFS_TIME) & 0xFFFFFFFFL;
+                    return (timeSec >= minTimeSec)? this._readValue(bb, ofs) : null;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+    *** Gets all values stored within the specified cell
+    *** @param cell        The cell (see "getCell")
+    *** @param provider    The reverse-geocode provider id
+    *** @param minTimeSec  The minimum entry time (older entries are ignored)
+    *** @param map         The map into which the key/value entries are placed
+    *** @return The number of entries found
+    **/
+    public int getCellEntries(long cell, int provider, long minTimeSec, Map<Long,String> map)
+    {
+        MappedByteBuffer bb = this.storeMap;
+        if ((bb == null) || (map == null)) {
+            return 0;
+        }
+        int count  = 0;
+        int bucket = this._getBucket(cell);
+        int bktOfs = _getBucketOffset(bucket);
+        synchronized (this.locks[bucket % LOCK_COUNT]) {
+            for (int s = 0; s < SLOTS_PER_BUCKET; s++) {
+                int  ofs = bktOfs + (s * SLOT_SIZE);
+                long key = bb.getLong(ofs + OFS_KEY);
+                if ((key != 0L) &&
+                    (bb.getLong(ofs + OFS_CELL)     == cell    ) &&
+                    (bb.getInt( ofs + OFS_PROVIDER) == provider)) {
+                    long timeSec = bb.getInt(ofs + OFS_TIME) & 0xFFFFFFFFL;
+                    if (timeSec >= minTimeSec) {
+                        String val = this._readValue(bb, ofs);
+                        if (val != null) {
+                            map.put(new Long(key), val);
+                            count++;
+                        }
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+    *** Stores the value for the specified key.  If the bucket is full, the oldest entry
+    *** in the bucket is replaced.
+    *** @param cell      The cell containing the key location (see "getCell")
+    *** @param key       The location key (must be non-zero)
+    *** @param provider  The reverse-geocode provider id
+    *** @param value     The value to store
+    *** @return True if stored, false if the value is too large to store
+    **/
+    public boolean put(long cell, long key, int provider, String value)
+    {
+        MappedByteBuffer bb = this.storeMap;
+        if ((bb == null) || (key == 0L) || StringTools.isBlank(value)) {
+            return false;
+        }
+        byte b[] = StringTools.getBytes(value);
+        if (b.length > MAX_VALUE_LENGTH) {
+            return false;
+        }
+        int bucket = this._getBucket(cell);
+        int bktOfs = _getBucketOffset(bucket);
+        synchronized (this.locks[bucket % LOCK_COUNT]) {
+            // -- find existing, empty, or oldest slot
+            int  slotOfs = -1;
+            int  oldOfs  = -1;
+            long oldTime = Long.MAX_VALUE;
+            for (int s = 0; s < SLOTS_PER_BUCKET; s++) {
+                int  ofs = bktOfs + (s * SLOT_SIZE);
+                long k   = bb.getLong(ofs + OFS_KEY);
+                if ((k == key) && (bb.getInt(ofs + OFS_PROVIDER) == provider)) {
+                    slotOfs = ofs;
+                    break;
+                } else
+                if (k == 0L) {
+                    if (oldTime > 0L) {
+                        oldOfs  = ofs;
+                        oldTime = 0L;
+                    }
+                } else {
+                    long t = bb.getInt(ofs + OFS_TIME) & 0xFFFFFFFFL;
+                    if (t < oldTime) {
+                        oldOfs  = ofs;
+                        oldTime = t;
+                    }
+                }
+            }
+            if (slotOfs < 0) {
+                slotOfs = oldOfs;
+            }
+            // -- write slot (key last)
+            bb.putLong(slotOfs + OFS_KEY, 0L);
+            ByteBuffer dup = bb.duplicate();
+            dup.position(slotOfs + OFS_VALUE);
+            dup.put(b);
+            bb.putShort(slotOfs + OFS_LENGTH  , (short)b.length);
+            bb.putInt(  slotOfs + OFS_TIME    , (int)DateTime.getCurrentTimeSec());
+            bb.putInt(  slotOfs + OFS_PROVIDER, provider);
+            bb.putLong( slotOfs + OFS_CELL    , cell);
+            bb.putLong( slotOfs + OFS_KEY     , key);
+        }
+        return true;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Forces any changes to be written to the store file
+    **/
+    public void flush()
+    {
+        MappedByteBuffer bb = this.storeMap;
+        if (bb != null) {
+            bb.force();
+        }
+    }
+
+    /**
+    *** Closes this store
+    **/
+    public void close()
+    {
+        this.flush();
+        this.storeMap = null;
+        if (this.storeRAF != null) {
+            // -- also releases 'storeLock'
+            try { this.storeRAF.close(); } catch (IOException ioe) { /* ignore */ }
+            this.storeRAF = null;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets a String representation of this instance
+    **/
+    public String toString()
+    {
+        return this.storeFile + " [buckets=" + this.bucketCount + "]";
+    }
+
+}
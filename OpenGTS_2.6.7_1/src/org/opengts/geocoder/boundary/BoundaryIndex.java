@@ -0,0 +1,543 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2020, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Notes:
+// - In-memory point-in-polygon index over administrative boundary polygons.
+// - The polygon bounding area is divided into a uniform grid of (default 0.25 degree)
+//   cells.  Each cell is either:
+//     - "Outside": no edge touches the cell, and the cell center is in no polygon.
+//     - "Inside": no edge touches the cell, and the cell center is in polygon N, so
+//       every point in the cell is in polygon N (resolved with a single array read).
+//     - "Mixed": one or more polygon edges touch the cell.  The cell stores the
+//       polygon containing the cell center, plus the list of edges touching the cell.
+// - A point in a "Mixed" cell is resolved by counting the crossings of the segment
+//   from the point to the cell center with the (few) edges touching the cell: an odd
+//   number of crossings of a polygon's edges toggles the point in/out of that polygon
+//   relative to the cell center.  The cost is proportional to the number of edges in
+//   the cell, not to the size of the polygon.
+// - All rings (outer and holes) of a feature share the same feature index, so holes
+//   are handled naturally by the crossing parity.
+// - Features are assumed not to overlap (ie. states/provinces).
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19  GTS Development Team
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.geocoder.boundary;
+
+import java.lang.*;
+import java.util.*;
+
+import org.opengts.util.*;
+
+public class BoundaryIndex
+{
+
+    // ------------------------------------------------------------------------
+
+    public  static final double DEFAULT_CELL_SIZE_DEG       = 0.25;
+
+    /* maximum number of distinct features referenced by a single "Mixed" cell */
+    private static final int    MAX_CELL_FEATURES           = 64;
+
+    /* cell states */
+    private static final int    CELL_OUTSIDE                = -1;
+    // -- ">= 0"  : "Inside" feature index
+    // -- "<= -2" : "Mixed" cell index "-(state + 2)"
+
+    /* fixed-point scale used to sort scanline crossings */
+    private static final double SCANLINE_SCALE              = 1.0E7;
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** BoundaryIndex builder
+    **/
+    public static class Builder
+    {
+        private Map<String,Integer> featureMap  = new HashMap<String,Integer>();
+        private java.util.List<String> features = new Vector<String>();
+        private int    edgeCount = 0;
+        private double eLat1[]   = new double[1024];
+        private double eLon1[]   = new double[1024];
+        private double eLat2[]   = new double[1024];
+        private double eLon2[]   = new double[1024];
+        private int    eOwner[]  = new int[1024];
+        public Builder() {
+            super();
+        }
+        /**
+        *** Gets the feature index for the specified name (created if not yet defined)
+        **/
+        public int getFeatureIndex(String name) {
+            String n = StringTools.trim(name);
+            Integer ndx = this.featureMap.get(n);
+            if (ndx == null) {
+                ndx = new Integer(this.features.size());
+                this.features.add(n);
+                this.featureMap.put(n, ndx);
+            }
+            return ndx.intValue();
+        }
+        /**
+        *** Gets the number of features added
+        **/
+        public int getFeatureCount() {
+            return this.features.size();
+        }
+        /**
+        *** Gets the number of edges added
+        **/
+        public int getEdgeCount() {
+            return this.edgeCount;
+        }
+        /**
+        *** Adds a polygon ring (outer boundary, or hole) to the named feature.
+        *** The ring is implicitly closed.
+        **/
+        public void addRing(String name, double lat[], double lon[], int count) {
+            if ((lat == null) || (lon == null) || (count < 3)) {
+                return;
+            }
+            int owner = this.getFeatureIndex(name);
+            for (int i = 0; i < count; i++) {
+                int j = (i + 1) % count;
+                if ((lat[i] == lat[j]) && (lon[i] == lon[j])) {
+                    continue; // zero-length (includes explicit closing point)
+                }
+                if (!GeoPoint.isValid(lat[i],lon[i]) || !GeoPoint.isValid(lat[j],lon[j])) {
+                    continue;
+                }
+                if (this.edgeCount >= this.eOwner.length) {
+                    int len = this.eOwner.length * 2;
+                    this.eLat1  = Arrays.copyOf(this.eLat1 , len);
+                    this.eLon1  = Arrays.copyOf(this.eLon1 , len);
+                    this.eLat2  = Arrays.copyOf(this.eLat2 , len);
+                    this.eLon2  = Arrays.copyOf(this.eLon2 , len);
+                    this.eOwner = Arrays.copyOf(this.eOwner, len);
+                }
+                this.eLat1 [this.edgeCount] = lat[i];
+                this.eLon1 [this.edgeCount] = lon[i];
+                this.eLat2 [this.edgeCount] = lat[j];
+                this.eLon2 [this.edgeCount] = lon[j];
+                this.eOwner[this.edgeCount] = owner;
+                this.edgeCount++;
+            }
+        }
+        /**
+        *** Builds the BoundaryIndex
+        *** @param cellSizeDeg  The grid cell size (degrees)
+        **/
+        public BoundaryIndex build(double cellSizeDeg) {
+            return new BoundaryIndex(this, (cellSizeDeg > 0.0)? cellSizeDeg : DEFAULT_CELL_SIZE_DEG);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private String  names[]         = null;
+
+    private int     edgeCount       = 0;
+    private double  edgeLat1[]      = null;
+    private double  edgeLon1[]      = null;
+    private double  edgeLat2[]      = null;
+    private double  edgeLon2[]      = null;
+
+    private double  cellSize        = DEFAULT_CELL_SIZE_DEG;
+    private double  minLat          = 0.0;
+    private double  minLon          = 0.0;
+    private int     rows            = 0;
+    private int     cols            = 0;
+    private int     cellState[]     = null;
+
+    private int     mixedCount      = 0;
+    private int     mixedCenter[]   = null; // feature index at "Mixed" cell center
+    private int     mixedEdgeNdx[]  = null; // "Mixed" cell offsets into 'mixedEdges' [mixedCount + 1]
+    private int     mixedEdges[]    = null; // edge indices
+    private byte    mixedEdgeSlot[] = null; // per-cell feature slot of each edge (parallel to 'mixedEdges')
+    private int     mixedFeatNdx[]  = null; // "Mixed" cell offsets into 'mixedFeats' [mixedCount + 1]
+    private int     mixedFeats[]    = null; // distinct feature indices per cell (indexed by slot)
+
+    /**
+    *** Constructor (called by Builder)
+    **/
+    private BoundaryIndex(Builder bib, double cellSizeDeg)
+    {
+        this.names     = bib.features.toArray(new String[bib.features.size()]);
+        this.edgeCount = bib.edgeCount;
+        this.edgeLat1  = Arrays.copyOf(bib.eLat1, this.edgeCount);
+        this.edgeLon1  = Arrays.copyOf(bib.eLon1, this.edgeCount);
+        this.edgeLat2  = Arrays.copyOf(bib.eLat2, this.edgeCount);
+        this.edgeLon2  = Arrays.copyOf(bib.eLon2, this.edgeCount);
+        this.cellSize  = cellSizeDeg;
+        if (this.edgeCount > 0) {
+            this._build(bib.eOwner);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Builds the grid
+    **/
+    private void _build(int owner[])
+    {
+        double cs = this.cellSize;
+
+        /* grid bounds */
+        double loLat =  90.0, hiLat =  -90.0;
+        double loLon = 180.0, hiLon = -180.0;
+        for (int e = 0; e < this.edgeCount; e++) {
+            loLat = Math.min(loLat, Math.min(this.edgeLat1[e], this.edgeLat2[e]));
+            hiLat = Math.max(hiLat, Math.max(this.edgeLat1[e], this.edgeLat2[e]));
+            loLon = Math.min(loLon, Math.min(this.edgeLon1[e], this.edgeLon2[e]));
+            hiLon = Math.max(hiLon, Math.max(this.edgeLon1[e], this.edgeLon2[e]));
+        }
+        this.minLat = Math.floor(loLat / cs) * cs;
+        this.minLon = Math.floor(loLon / cs) * cs;
+        this.rows   = (int)Math.floor((hiLat - this.minLat) / cs) + 1;
+        this.cols   = (int)Math.floor((hiLon - this.minLon) / cs) + 1;
+        int cells   = this.rows * this.cols;
+
+        /* feature at each cell center (scanline along each row center) */
+        int center[] = this._buildCenterStates(owner);
+
+        /* count edges touching each cell */
+        int cellEdges[] = new int[cells];
+        for (int e = 0; e < this.edgeCount; e++) {
+            this._rasterizeEdge(e, cellEdges, null, null);
+        }
+
+        /* assign "Mixed" cells */
+        this.cellState    = new int[cells];
+        this.mixedCount   = 0;
+        int totalEdges    = 0;
+        for (int c = 0; c < cells; c++) {
+            if (cellEdges[c] > 0) {
+                this.mixedCount++;
+                totalEdges += cellEdges[c];
+            }
+        }
+        this.mixedCenter  = new int[this.mixedCount];
+        this.mixedEdgeNdx = new int[this.mixedCount + 1];
+        this.mixedEdges   = new int[totalEdges];
+        int cellMixed[]   = new int[cells];
+        int m = 0, ofs = 0;
+        for (int c = 0; c < cells; c++) {
+            if (cellEdges[c] > 0) {
+                this.cellState[c]    = -(m + 2);
+                this.mixedCenter[m]  = center[c];
+                this.mixedEdgeNdx[m] = ofs;
+                cellMixed[c]         = m;
+                ofs += cellEdges[c];
+                m++;
+            } else {
+                this.cellState[c]    = center[c]; // CELL_OUTSIDE, or "Inside" feature
+                cellMixed[c]         = -1;
+            }
+        }
+        this.mixedEdgeNdx[this.mixedCount] = ofs;
+
+        /* fill "Mixed" cell edge lists */
+        int fill[] = new int[this.mixedCount];
+        for (int e = 0; e < this.edgeCount; e++) {
+            this._rasterizeEdge(e, fill, cellMixed, this.mixedEdges);
+        }
+
+        /* distinct features per "Mixed" cell, and the feature slot of each edge */
+        this.mixedEdgeSlot = new byte[totalEdges];
+        this.mixedFeatNdx  = new int[this.mixedCount + 1];
+        int feats[] = new int[Math.min(totalEdges,1024)];
+        int nFeats  = 0;
+        int slot[]  = new int[MAX_CELL_FEATURES];
+        for (m = 0; m < this.mixedCount; m++) {
+            this.mixedFeatNdx[m] = nFeats;
+            int cellFeats = 0;
+            for (int i = this.mixedEdgeNdx[m]; i < this.mixedEdgeNdx[m + 1]; i++) {
+                int o = owner[this.mixedEdges[i]];
+                int s = 0;
+                while ((s < cellFeats) && (slot[s] != o)) { s++; }
+                if (s == cellFeats) {
+                    if (cellFeats >= MAX_CELL_FEATURES) {
+                        Print.logWarn("Too many features in cell, ignoring: " + this.names[o]);
+                        s = MAX_CELL_FEATURES - 1;
+                    } else {
+                        slot[cellFeats++] = o;
+                        if (nFeats >= feats.length) {
+                            feats = Arrays.copyOf(feats, feats.length * 2);
+                        }
+                        feats[nFeats++] = o;
+                    }
+                }
+                this.mixedEdgeSlot[i] = (byte)s;
+            }
+        }
+        this.mixedFeatNdx[this.mixedCount] = nFeats;
+        this.mixedFeats = Arrays.copyOf(feats, nFeats);
+
+    }
+
+    /**
+    *** Returns the feature index at each cell center (CELL_OUTSIDE if none)
+    **/
+    private int[] _buildCenterStates(int owner[])
+    {
+        double cs = this.cellSize;
+
+        /* count row-center crossings per row */
+        int rowCount[] = new int[this.rows + 1];
+        for (int e = 0; e < this.edgeCount; e++) {
+            int rLo = this._firstCenterRow(Math.min(this.edgeLat1[e],this.edgeLat2[e]));
+            int rHi = this._firstCenterRow(Math.max(this.edgeLat1[e],this.edgeLat2[e]));
+            for (int r = rLo; r < rHi; r++) {
+                rowCount[r + 1]++;
+            }
+        }
+        for (int r = 0; r < this.rows; r++) {
+            rowCount[r + 1] += rowCount[r];
+        }
+
+        /* crossings: fixed-point longitude in the high 32 bits, feature index in the low 32 bits */
+        long cross[] = new long[rowCount[this.rows]];
+        int  fill[]  = Arrays.copyOf(rowCount, this.rows);
+        for (int e = 0; e < this.edgeCount; e++) {
+            double aLat = this.edgeLat1[e], aLon = this.edgeLon1[e];
+            double bLat = this.edgeLat2[e], bLon = this.edgeLon2[e];
+            int rLo = this._firstCenterRow(Math.min(aLat,bLat));
+            int rHi = this._firstCenterRow(Math.max(aLat,bLat));
+            for (int r = rLo; r < rHi; r++) {
+                double y = this.minLat + ((double)r + 0.5) * cs;
+                double x = aLon + (bLon - aLon) * (y - aLat) / (bLat - aLat);
+                long  xq = Math.round((x - this.minLon) * SCANLINE_SCALE);
+                cross[fill[r]++] = (Math.max(xq,0L) << 32) | (long)owner[e];
+            }
+        }
+
+        /* sweep each row */
+        int center[] = new int[this.rows * this.cols];
+        int active[] = new int[16];
+        for (int r = 0; r < this.rows; r++) {
+            int from = rowCount[r], to = rowCount[r + 1];
+            Arrays.sort(cross, from, to);
+            int nActive = 0;
+            int k = from;
+            for (int c = 0; c < this.cols; c++) {
+                long cxq = Math.round(((double)c + 0.5) * cs * SCANLINE_SCALE);
+                for (; (k < to) && ((cross[k] >>> 32) < cxq); k++) {
+                    // -- toggle feature in/out of the active list
+                    int o = (int)(cross[k] & 0xFFFFFFFFL);
+                    int a = 0;
+                    while ((a < nActive) && (active[a] != o)) { a++; }
+                    if (a < nActive) {
+                        active[a] = active[--nActive];
+                    } else {
+                        if (nActive >= active.length) {
+                            active = Arrays.copyOf(active, active.length * 2);
+                        }
+                        active[nActive++] = o;
+                    }
+                }
+                center[(r * this.cols) + c] = (nActive > 0)? active[nActive - 1] : CELL_OUTSIDE;
+            }
+        }
+        return center;
+
+    }
+
+    /**
+    *** Returns the first row whose center latitude is at/above the specified latitude.
+    *** An edge from 'lo' to 'hi' crosses the center of rows "[first(lo), first(hi))"
+    **/
+    private int _firstCenterRow(double lat)
+    {
+        int r = (int)Math.ceil((lat - this.minLat) / this.cellSize - 0.5);
+        while ((r > 0) && ((this.minLat + ((double)(r - 1) + 0.5) * this.cellSize) >= lat)) { r--; }
+        while ((r < this.rows) && ((this.minLat + ((double)r + 0.5) * this.cellSize) < lat)) { r++; }
+        return Math.max(0, Math.min(r, this.rows));
+    }
+
+    /**
+    *** Visits each cell touched by the specified edge.
+    *** If 'cellMixed' is null, increments the per-cell count, otherwise stores the
+    *** edge index into the "Mixed" cell edge list.
+    **/
+    private void _rasterizeEdge(int e, int count[], int cellMixed[], int edges[])
+    {
+        double cs   = this.cellSize;
+        double aLat = this.edgeLat1[e], aLon = this.edgeLon1[e];
+        double bLat = this.edgeLat2[e], bLon = this.edgeLon2[e];
+        int r0 = Math.max(0            , (int)Math.floor((Math.min(aLat,bLat) - this.minLat) / cs));
+        int r1 = Math.min(this.rows - 1, (int)Math.floor((Math.max(aLat,bLat) - this.minLat) / cs));
+        int c0 = Math.max(0            , (int)Math.floor((Math.min(aLon,bLon) - this.minLon) / cs));
+        int c1 = Math.min(this.cols - 1, (int)Math.floor((Math.max(aLon,bLon) - this.minLon) / cs));
+        for (int r = r0; r <= r1; r++) {
+            double y0 = this.minLat + (double)r * cs, y1 = y0 + cs;
+            for (int c = c0; c <= c1; c++) {
+                double x0 = this.minLon + (double)c * cs, x1 = x0 + cs;
+                if ((r0 != r1) && (c0 != c1)) {
+                    // -- diagonal edge: skip cells entirely on one side of the edge line
+                    double s00 = _side(aLon,aLat, bLon,bLat, x0,y0);
+                    double s01 = _side(aLon,aLat, bLon,bLat, x0,y1);
+                    double s10 = _side(aLon,aLat, bLon,bLat, x1,y0);
+                    double s11 = _side(aLon,aLat, bLon,bLat, x1,y1);
+                    if (((s00 > 0.0) && (s01 > 0.0) && (s10 > 0.0) && (s11 > 0.0)) ||
+                        ((s00 < 0.0) && (s01 < 0.0) && (s10 < 0.0) && (s11 < 0.0))   ) {
+                        continue;
+                    }
+                }
+                int cell = (r * this.cols) + c;
+                if (cellMixed == null) {
+                    count[cell]++;
+                } else {
+                    int m = cellMixed[cell];
+                    edges[this.mixedEdgeNdx[m] + count[m]++] = e;
+                }
+            }
+        }
+    }
+
+    /**
+    *** Returns the side of point 'p' relative to the line 'a'-'b' (cross-product sign)
+    **/
+    private static double _side(double ax, double ay, double bx, double by, double px, double py)
+    {
+        return ((bx - ax) * (py - ay)) - ((by - ay) * (px - ax));
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the number of features
+    **/
+    public int getFeatureCount()
+    {
+        return this.names.length;
+    }
+
+    /**
+    *** Gets the name of the specified feature index
+    **/
+    public String getFeatureName(int ndx)
+    {
+        return ((ndx >= 0) && (ndx < this.names.length))? this.names[ndx] : null;
+    }
+
+    /**
+    *** Gets the number of edges
+    **/
+    public int getEdgeCount()
+    {
+        return this.edgeCount;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Returns the name of the feature containing the specified point
+    *** @return The feature name, or null if the point is not within any feature
+    **/
+    public String getFeatureName(double lat, double lon)
+    {
+        return this.getFeatureName(this.getFeatureIndex(lat, lon));
+    }
+
+    /**
+    *** Returns the index of the feature containing the specified point
+    *** @return The feature index, or -1 if the point is not within any feature
+    **/
+    public int getFeatureIndex(double lat, double lon)
+    {
+
+        /* grid cell */
+        if (this.cellState == null) {
+            return CELL_OUTSIDE;
+        }
+        double cs = this.cellSize;
+        int r = (int)Math.floor((lat - this.minLat) / cs);
+        int c = (int)Math.floor((lon - this.minLon) / cs);
+        if ((r < 0) || (r >= this.rows) || (c < 0) || (c >= this.cols)) {
+            return CELL_OUTSIDE;
+        }
+        int state = this.cellState[(r * this.cols) + c];
+        if (state >= CELL_OUTSIDE) {
+            return state; // "Outside", or "Inside"
+        }
+
+        /* "Mixed": count crossings along the segment from the point to the cell center */
+        int    m      = -(state + 2);
+        int    center = this.mixedCenter[m];
+        double dLat   = (this.minLat + ((double)r + 0.5) * cs) - lat;
+        double dLon   = (this.minLon + ((double)c + 0.5) * cs) - lon;
+        double dLen2  = (dLat * dLat) + (dLon * dLon);
+        if (dLen2 == 0.0) {
+            return center;
+        }
+        long parity = 0L;
+        for (int i = this.mixedEdgeNdx[m]; i < this.mixedEdgeNdx[m + 1]; i++) {
+            int    e  = this.mixedEdges[i];
+            double ay = this.edgeLat1[e] - lat, ax = this.edgeLon1[e] - lon;
+            double by = this.edgeLat2[e] - lat, bx = this.edgeLon2[e] - lon;
+            double sa = (dLon * ay) - (dLat * ax);
+            double sb = (dLon * by) - (dLat * bx);
+            if ((sa > 0.0) == (sb > 0.0)) {
+                continue; // edge does not cross the point/center line
+            }
+            double f  = sa / (sa - sb);
+            double t  = (((ax + (bx - ax) * f) * dLon) + ((ay + (by - ay) * f) * dLat)) / dLen2;
+            if ((t > 0.0) && (t <= 1.0)) {
+                parity ^= (1L << this.mixedEdgeSlot[i]);
+            }
+        }
+
+        /* resolve: an odd crossing count toggles the feature relative to the center */
+        boolean centerIn = (center >= 0);
+        int fNdx = this.mixedFeatNdx[m];
+        for (int s = 0; (parity != 0L) && (fNdx + s < this.mixedFeatNdx[m + 1]); s++) {
+            if ((parity & (1L << s)) != 0L) {
+                int f = this.mixedFeats[fNdx + s];
+                if (f == center) {
+                    centerIn = false; // exited the center feature
+                } else {
+                    return f; // entered an adjacent feature
+                }
+                parity &= ~(1L << s);
+            }
+        }
+        return centerIn? center : CELL_OUTSIDE;
+
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Returns a String representation of this instance
+    **/
+    public String toString()
+    {
+        StringBuffer sb = new StringBuffer();
+        sb.append("features=").append(this.getFeatureCount());
+        sb.append(" edges=").append(this.getEdgeCount());
+        sb.append(" cell=").append(this.cellSize).append("deg");
+        sb.append(" grid=").append(this.rows).append("x").append(this.cols);
+        sb.append(" mixed=").append(this.mixedCount);
+        return sb.toString();
+    }
+
+}
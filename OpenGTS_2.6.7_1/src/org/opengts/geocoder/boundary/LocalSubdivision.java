@@ -0,0 +1,302 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2020, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Notes:
+// - This SubdivisionProvider is resolved locally from imported administrative boundary
+//   polygons, and is fast enough to be called inline for every inserted event.
+// - The boundary file contains tab-separated "subdivision,WKT" lines, where subdivision
+//   is the "<country>/<state>" code (ie. "US/CA"), and WKT is a POLYGON/MULTIPOLYGON
+//   (ie. exported from a Natural Earth "admin_1_states_provinces" shapefile with
+//   "ogr2ogr -f CSV -lco GEOMETRY=AS_WKT -lco SEPARATOR=TAB -sql 'SELECT iso_3166_2 ...'",
+//   replacing the "-" in "US-CA" with "/").  Lines starting with "#" are ignored, and
+//   the file may be gzipped.
+// - Configured in "common.conf" with:
+//     SubdivisionProvider.class=org.opengts.geocoder.boundary.LocalSubdivision
+//     LocalSubdivision.boundaryFile=boundary/subdivisions.tsv.gz
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19  GTS Development Team
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.geocoder.boundary;
+
+import java.lang.*;
+import java.util.*;
+import java.io.*;
+import java.util.zip.GZIPInputStream;
+
+import org.opengts.util.*;
+
+import org.opengts.geocoder.*;
+
+public class LocalSubdivision
+    implements SubdivisionProvider
+{
+
+    // ------------------------------------------------------------------------
+
+    public  static final String PROP_LocalSubdivision_boundaryFile  = "LocalSubdivision.boundaryFile";
+    public  static final String PROP_LocalSubdivision_cellSizeDeg   = "LocalSubdivision.cellSizeDeg";
+
+    // ------------------------------------------------------------------------
+
+    protected static final String ENCODING_UTF8                     = StringTools.CharEncoding_UTF_8;
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private File            boundaryFile    = null;
+    private double          cellSizeDeg     = BoundaryIndex.DEFAULT_CELL_SIZE_DEG;
+
+    private BoundaryIndex   bndIndex        = null;
+    private boolean         bndIndexInit    = false;
+
+    /**
+    *** Constructor (boundary file specified by "LocalSubdivision.boundaryFile")
+    **/
+    public LocalSubdivision()
+    {
+        this(LocalSubdivision.getConfigFile(RTConfig.getString(PROP_LocalSubdivision_boundaryFile,null)),
+            RTConfig.getDouble(PROP_LocalSubdivision_cellSizeDeg,BoundaryIndex.DEFAULT_CELL_SIZE_DEG));
+    }
+
+    /**
+    *** Constructor
+    *** @param boundaryFile  The boundary polygon file
+    *** @param cellSizeDeg   The BoundaryIndex grid cell size (degrees)
+    **/
+    public LocalSubdivision(File boundaryFile, double cellSizeDeg)
+    {
+        this.boundaryFile = boundaryFile;
+        this.cellSizeDeg  = (cellSizeDeg > 0.0)? cellSizeDeg : BoundaryIndex.DEFAULT_CELL_SIZE_DEG;
+    }
+
+    /**
+    *** Constructor
+    *** @param bndIndex  The BoundaryIndex
+    **/
+    public LocalSubdivision(BoundaryIndex bndIndex)
+    {
+        this.bndIndex     = bndIndex;
+        this.bndIndexInit = true;
+    }
+
+    /**
+    *** Resolves the specified file name relative to the loaded config directory
+    **/
+    private static File getConfigFile(String fileName)
+    {
+        if (StringTools.isBlank(fileName)) {
+            return null;
+        }
+        File file = new File(fileName);
+        if (!file.isAbsolute() && (RTConfig.getLoadedConfigDir() != null)) {
+            file = new File(RTConfig.getLoadedConfigDir(), fileName);
+        }
+        return file;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Returns true if locally resolved, false otherwise.
+    *** @return Always true (resolved from a local index)
+    **/
+    public boolean isFastOperation()
+    {
+        return true;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the BoundaryIndex (loaded on first use)
+    *** @return The BoundaryIndex, or null if not configured or unavailable
+    **/
+    public synchronized BoundaryIndex getBoundaryIndex()
+    {
+        if (!this.bndIndexInit) {
+            this.bndIndexInit = true;
+            if (this.boundaryFile == null) {
+                Print.logError("Boundary file not specified: " + PROP_LocalSubdivision_boundaryFile);
+            } else {
+                try {
+                    long startMS = DateTime.getCurrentTimeMillis();
+                    BoundaryIndex.Builder bib = new BoundaryIndex.Builder();
+                    LocalSubdivision.importBoundaries(bib, this.boundaryFile);
+                    this.bndIndex = bib.build(this.cellSizeDeg);
+                    long deltaMS = DateTime.getCurrentTimeMillis() - startMS;
+                    Print.logInfo("Boundary index loaded: " + this.bndIndex + " [" + deltaMS + " ms]");
+                } catch (IOException ioe) {
+                    Print.logError("Unable to load boundary file: " + this.boundaryFile + " [" + ioe + "]");
+                    this.bndIndex = null;
+                }
+            }
+        }
+        return this.bndIndex;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Return the subdivision of the specified point
+    *** (in the US, this is "US/<stateCode>" as in "US/CA")
+    *** @param gp  The GeoPoint
+    *** @return The subdivision, or null if the point is not within any imported boundary
+    **/
+    public String getSubdivision(GeoPoint gp)
+        throws SubdivisionException
+    {
+        if (!GeoPoint.isValid(gp)) {
+            return null;
+        }
+        BoundaryIndex bi = this.getBoundaryIndex();
+        if (bi == null) {
+            throw new SubdivisionException("Boundary index not available", null);
+        }
+        return bi.getFeatureName(gp.getLatitude(), gp.getLongitude());
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Imports tab-separated "subdivision,WKT" boundary lines into the index builder
+    *** @return The number of features lines imported
+    **/
+    public static int importBoundaries(BoundaryIndex.Builder bib, File file)
+        throws IOException
+    {
+        int count = 0;
+        double lat[] = new double[1024];
+        double lon[] = new double[1024];
+        InputStream fis = new FileInputStream(file);
+        if (file.getName().endsWith(".gz")) {
+            fis = new GZIPInputStream(fis);
+        }
+        BufferedReader br = new BufferedReader(new InputStreamReader(fis, ENCODING_UTF8));
+        try {
+            for (String line = br.readLine(); line != null; line = br.readLine()) {
+                if (line.startsWith("#")) {
+                    continue;
+                }
+                String f[] = line.split("\t", -1);
+                if ((f.length < 2) || StringTools.isBlank(f[0])) {
+                    continue; // header, or unnamed boundary
+                }
+                String name = StringTools.stripChars(f[0].trim(),'"').toUpperCase();
+                String wkt  = StringTools.stripChars(f[1].trim(),'"').toUpperCase();
+                if (!wkt.startsWith("POLYGON") && !wkt.startsWith("MULTIPOLYGON")) {
+                    continue;
+                }
+                // -- each innermost parenthesized "lon lat, lon lat, ..." list is a separate ring
+                int p = wkt.indexOf('(');
+                while (p >= 0) {
+                    while ((p < wkt.length()) && (wkt.charAt(p) == '(')) { p++; }
+                    int e = wkt.indexOf(')', p);
+                    if (e < 0) { break; }
+                    String pts[] = StringTools.split(wkt.substring(p, e), ',');
+                    if (pts.length > lat.length) {
+                        lat = new double[pts.length];
+                        lon = new double[pts.length];
+                    }
+                    int n = 0;
+                    for (String pt : pts) {
+                        String xy[] = pt.trim().split("\\s+");
+                        if (xy.length >= 2) {
+                            lon[n] = StringTools.parseDouble(xy[0], 999.0);
+                            lat[n] = StringTools.parseDouble(xy[1], 999.0);
+                            n++;
+                        }
+                    }
+                    bib.addRing(name, lat, lon, n);
+                    p = wkt.indexOf('(', e);
+                }
+                count++;
+            }
+        } finally {
+            br.close();
+        }
+        return count;
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private static final String ARG_BOUNDARY[]      = { "boundary", "boundaryFile" };
+    private static final String ARG_CELL_SIZE[]     = { "cell"    , "cellSizeDeg"  };
+    private static final String ARG_GP[]            = { "gp"                       };
+
+    private static void usage()
+    {
+        Print.sysPrintln("Usage:");
+        Print.sysPrintln("  java ... " + LocalSubdivision.class.getName() + " {options}");
+        Print.sysPrintln("Options:");
+        Print.sysPrintln("  -boundary=<file> [-cell=<degrees>] -gp=<lat>/<lon>");
+        Print.sysPrintln("     -boundary=<file>  Tab-separated 'subdivision,WKT' file");
+        System.exit(1);
+    }
+
+    /**
+    *** Main entery point for debugging/testing
+    **/
+    public static void main(String argv[])
+    {
+        RTConfig.setCommandLineArgs(argv);
+        Print.setAllOutputToStdout(true);
+        Print.setEncoding(ENCODING_UTF8);
+
+        /* boundary file */
+        String bndName = RTConfig.getString(ARG_BOUNDARY, null);
+        if (StringTools.isBlank(bndName)) {
+            Print.sysPrintln("ERROR: Missing '-boundary' file");
+            usage();
+        }
+        double cellDeg = RTConfig.getDouble(ARG_CELL_SIZE, BoundaryIndex.DEFAULT_CELL_SIZE_DEG);
+
+        /* GeoPoint */
+        GeoPoint gp = new GeoPoint(RTConfig.getString(ARG_GP,""));
+        if (!gp.isValid()) {
+            Print.sysPrintln("ERROR: Invalid GeoPoint specified");
+            usage();
+        }
+
+        /* lookup */
+        LocalSubdivision ls = new LocalSubdivision(new File(bndName), cellDeg);
+        if (ls.getBoundaryIndex() == null) {
+            Print.sysPrintln("ERROR: Unable to load boundary file");
+            System.exit(99);
+        }
+        try {
+            String subdiv = ls.getSubdivision(gp);
+            long startNS = System.nanoTime();
+            int  loops   = 100000;
+            for (int i = 0; i < loops; i++) {
+                ls.getSubdivision(gp);
+            }
+            long avgNS = (System.nanoTime() - startNS) / loops;
+            Print.sysPrintln("Subdivision = " + subdiv);
+            Print.sysPrintln("Average lookup: " + avgNS + " ns");
+        } catch (SubdivisionException se) {
+            Print.sysPrintln("ERROR: " + se);
+            System.exit(99);
+        }
+
+    }
+
+}
@@ -0,0 +1,760 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2020, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Compact read-only on-disk spatial index of gazetteer places and street segments
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19  GTS Development Team
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.geocoder.gazetteer;
+
+import java.lang.*;
+import java.util.*;
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+
+import org.opengts.util.*;
+import org.opengts.geocoder.country.CountryCode;
+
+/**
+*** GazetteerIndex class<br>
+*** A memory-mapped index of places (cities/towns with their state/country) and street
+*** segments.  Each table is sorted by geohash cell, with a sorted cell directory, so that
+*** a nearest-place/street lookup is a few binary searches over the cells surrounding the
+*** requested point.
+*** <br>
+*** File layout (big-endian):
+***   [header] [strings] [place cells] [places] [street cells] [streets]
+*** <br>
+*** Street polylines are split into pieces no longer than the street cell height, and each
+*** piece is indexed by the cell containing its midpoint.
+*** <br>
+*** An index is created with the <code>GazetteerIndex.Builder</code> class (see also the
+*** "LocalGazetteer" command-line import).
+**/
+public class GazetteerIndex
+{
+
+    // ------------------------------------------------------------------------
+
+    public  static final double DEFAULT_PLACE_CELL_METERS   = 10000.0;
+    public  static final double DEFAULT_STREET_CELL_METERS  =   250.0;
+
+    private static final int    MAGIC                       = 0x475A4958; // "GZIX"
+    private static final int    VERSION                     = 1;
+    private static final int    HEADER_SIZE                 = 96;
+
+    private static final int    CELL_ENTRY_SIZE             = 12; // cell(long), first(int)
+    private static final int    PLACE_RECORD_SIZE           = 28; // lat,lon,name,state,country,admin1,population
+    private static final int    STREET_RECORD_SIZE          = 36; // lat1,lon1,lat2,lon2,name,city,state,postal,country
+
+    private static final int    MAX_STRING_BYTES            = 1000;
+    private static final int    MAX_SEARCH_CELLS            = 4096;
+
+    private static final double COORD_SCALE                 = 1000000.0;
+    private static final double METERS_PER_DEGREE           = GeoPoint.EARTH_MEAN_RADIUS_METERS * GeoPoint.RADIANS;
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Place lookup result
+    **/
+    public static class Place
+    {
+        private double latitude   = 0.0;
+        private double longitude  = 0.0;
+        private String name       = null;
+        private String state      = null;
+        private String country    = null;
+        private String admin1     = null;
+        private int    population = 0;
+        private double distanceM  = 0.0;
+        public double getLatitude() {
+            return this.latitude;
+        }
+        public double getLongitude() {
+            return this.longitude;
+        }
+        public String getName() {
+            return this.name;
+        }
+        public String getStateProvince() {
+            return this.state;
+        }
+        public String getCountryCode() {
+            return this.country;
+        }
+        public String getAdmin1Code() {
+            return this.admin1;
+        }
+        public String getSubdivision() {
+            if (StringTools.isBlank(this.country) || StringTools.isBlank(this.admin1)) {
+                return null;
+            }
+            return this.country + CountryCode.SUBDIVISION_SEPARATOR + this.admin1;
+        }
+        public int getPopulation() {
+            return this.population;
+        }
+        public double getDistanceMeters() {
+            return this.distanceM;
+        }
+        public String toString() {
+            return this.name + ", " + this.state + " " + this.country + " [" + (long)this.distanceM + "m]";
+        }
+    }
+
+    /**
+    *** Street lookup result
+    **/
+    public static class Street
+    {
+        private String name       = null;
+        private String city       = null;
+        private String state      = null;
+        private String postal     = null;
+        private String country    = null;
+        private double distanceM  = 0.0;
+        public String getName() {
+            return this.name;
+        }
+        public String getCity() {
+            return this.city;
+        }
+        public String getStateProvince() {
+            return this.state;
+        }
+        public String getPostalCode() {
+            return this.postal;
+        }
+        public String getCountryCode() {
+            return this.country;
+        }
+        public double getDistanceMeters() {
+            return this.distanceM;
+        }
+        public String toString() {
+            return this.name + ", " + this.city + " [" + (long)this.distanceM + "m]";
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    private File                indexFile       = null;
+    private MappedByteBuffer    indexMap        = null;
+
+    private int                 placeBits       = 0;
+    private int                 streetBits      = 0;
+    private int                 placeCount      = 0;
+    private int                 placeCellCount  = 0;
+    private int                 streetCount     = 0;
+    private int                 streetCellCount = 0;
+    private double              maxPieceM       = 0.0;
+
+    private int                 stringsOfs      = 0;
+    private int                 placeCellsOfs   = 0;
+    private int                 placesOfs       = 0;
+    private int                 streetCellsOfs  = 0;
+    private int                 streetsOfs      = 0;
+
+    /**
+    *** Constructor
+    *** @param file  The index file
+    *** @throws IOException  If the index cannot be read
+    **/
+    public GazetteerIndex(File file)
+        throws IOException
+    {
+        super();
+        this.indexFile = file;
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            long len = raf.length();
+            if (len < HEADER_SIZE) {
+                throw new IOException("Invalid gazetteer index (too short): " + file);
+            } else
+            if (len > (long)Integer.MAX_VALUE) {
+                throw new IOException("Gazetteer index too large: " + file);
+            }
+            this.indexMap = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0L, len);
+        } finally {
+            try { raf.close(); } catch (IOException ioe) { /* ignore */ }
+        }
+
+        /* header */
+        ByteBuffer bb = this.indexMap;
+        if ((bb.getInt(0) != MAGIC) || (bb.getInt(4) != VERSION)) {
+            throw new IOException("Invalid gazetteer index (header): " + file);
+        }
+        this.placeBits       = bb.getInt(8);
+        this.streetBits      = bb.getInt(12);
+        this.placeCount      = bb.getInt(16);
+        this.placeCellCount  = bb.getInt(20);
+        this.streetCount     = bb.getInt(24);
+        this.streetCellCount = bb.getInt(28);
+        this.maxPieceM       = (double)bb.getInt(32);
+        this.stringsOfs      = (int)bb.getLong(40);
+        this.placeCellsOfs   = (int)bb.getLong(48);
+        this.placesOfs       = (int)bb.getLong(56);
+        this.streetCellsOfs  = (int)bb.getLong(64);
+        this.streetsOfs      = (int)bb.getLong(72);
+        if (bb.getLong(80) != (long)bb.capacity()) {
+            throw new IOException("Invalid gazetteer index (truncated): " + file);
+        }
+
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the index file
+    **/
+    public File getFile()
+    {
+        return this.indexFile;
+    }
+
+    /**
+    *** Gets the number of places in this index
+    **/
+    public int getPlaceCount()
+    {
+        return this.placeCount;
+    }
+
+    /**
+    *** Gets the number of street segment pieces in this index
+    **/
+    public int getStreetCount()
+    {
+        return this.streetCount;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /* cell height (degrees latitude) */
+    private static double _cellHeight(int bits)
+    {
+        return 180.0 / (double)(1L << (bits / 2));
+    }
+
+    /* cell width (degrees longitude) */
+    private static double _cellWidth(int bits)
+    {
+        return 360.0 / (double)(1L << ((bits + 1) / 2));
+    }
+
+    /**
+    *** Gets the (sorted) cells which intersect the box surrounding the specified point.
+    *** Returns null if the box contains too many cells.
+    **/
+    private static long[] _getCells(int bits, double lat, double lon, double radiusM)
+    {
+        double cellH  = _cellHeight(bits);
+        double cellW  = _cellWidth(bits);
+        double dLat   = radiusM / METERS_PER_DEGREE;
+        double cosLat = Math.cos(lat * GeoPoint.RADIANS);
+        double dLon   = (cosLat > 0.001)? Math.min(dLat / cosLat, 180.0) : 180.0;
+        int    maxLatNdx = (int)(1L << (bits / 2)) - 1;
+        int    maxLonNdx = (int)(1L << ((bits + 1) / 2)) - 1;
+        int latNdx0 = Math.max((int)Math.floor((lat - dLat + 90.0) / cellH), 0);
+        int latNdx1 = Math.min((int)Math.floor((lat + dLat + 90.0) / cellH), maxLatNdx);
+        int lonNdx0 = (int)Math.floor((lon - dLon + 180.0) / cellW);
+        int lonNdx1 = (int)Math.floor((lon + dLon + 180.0) / cellW);
+        int lonCnt  = Math.min(lonNdx1 - lonNdx0 + 1, maxLonNdx + 1);
+        long count  = (long)(latNdx1 - latNdx0 + 1) * (long)lonCnt;
+        if (count > MAX_SEARCH_CELLS) {
+            return null;
+        }
+        long cells[] = new long[(int)count];
+        int n = 0;
+        for (int y = latNdx0; y <= latNdx1; y++) {
+            double cLat = -90.0 + ((y + 0.5) * cellH);
+            for (int x = 0; x < lonCnt; x++) {
+                int    xn   = lonNdx0 + x;
+                double cLon = -180.0 + ((xn + 0.5) * cellW);
+                while (cLon >= 180.0) { cLon -= 360.0; }
+                while (cLon < -180.0) { cLon += 360.0; }
+                cells[n++] = GeoHash.encode(cLat, cLon, bits);
+            }
+        }
+        Arrays.sort(cells);
+        return cells;
+    }
+
+    /**
+    *** Gets the record range [first,last) of the specified cell
+    *** @return The range packed as (first << 32) | last, or -1 if the cell is not found
+    **/
+    private long _findCell(int cellsOfs, int cellCount, long cell)
+    {
+        ByteBuffer bb = this.indexMap;
+        int lo = 0, hi = cellCount - 1;
+        while (lo <= hi) {
+            int  mid = (lo + hi) >>> 1;
+            long c   = bb.getLong(cellsOfs + (mid * CELL_ENTRY_SIZE));
+            if (c < cell) {
+                lo = mid + 1;
+            } else
+            if (c > cell) {
+                hi = mid - 1;
+            } else {
+                int ofs   = cellsOfs + (mid * CELL_ENTRY_SIZE);
+                long first = bb.getInt(ofs + 8);
+                long last  = bb.getInt(ofs + CELL_ENTRY_SIZE + 8); // sentinel entry guarantees next
+                return (first << 32) | last;
+            }
+        }
+        return -1L;
+    }
+
+    /**
+    *** Gets the String at the specified string table reference
+    **/
+    private String _getString(int ref)
+    {
+        if (ref < 0) {
+            return null;
+        }
+        int ofs = this.stringsOfs + ref;
+        int len = this.indexMap.getShort(ofs) & 0xFFFF;
+        byte b[] = new byte[len];
+        ByteBuffer dup = this.indexMap.duplicate();
+        dup.position(ofs + 2);
+        dup.get(b);
+        try {
+            return new String(b, StringTools.CharEncoding_UTF_8);
+        } catch (UnsupportedEncodingException uee) {
+            return new String(b); // will not occur
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the nearest place within the specified radius
+    *** @param lat      The latitude
+    *** @param lon      The longitude
+    *** @param maxM     The maximum search radius, in meters
+    *** @return The nearest place, or null if no place is within the search radius
+    **/
+    public Place getNearestPlace(double lat, double lon, double maxM)
+    {
+        if ((this.placeCount <= 0) || !GeoPoint.isValid(lat,lon)) {
+            return null;
+        }
+        long cells[] = _getCells(this.placeBits, lat, lon, maxM);
+        if (cells == null) {
+            return null;
+        }
+        ByteBuffer bb = this.indexMap;
+        double cosLat = Math.cos(lat * GeoPoint.RADIANS);
+        double bestSq = (maxM / METERS_PER_DEGREE) * (maxM / METERS_PER_DEGREE);
+        int    bestOfs = -1;
+        for (int c = 0; c < cells.length; c++) {
+            long range = this._findCell(this.placeCellsOfs, this.placeCellCount, cells[c]);
+            if (range < 0L) { continue; }
+            int first = (int)(range >>> 32), last = (int)range;
+            for (int r = first; r < last; r++) {
+                int    ofs = this.placesOfs + (r * PLACE_RECORD_SIZE);
+                double pLat = bb.getInt(ofs    ) / COORD_SCALE;
+                double pLon = bb.getInt(ofs + 4) / COORD_SCALE;
+                double dy = pLat - lat;
+                double dx = _deltaLon(pLon, lon) * cosLat;
+                double dSq = (dx * dx) + (dy * dy);
+                if (dSq <= bestSq) {
+                    bestSq  = dSq;
+                    bestOfs = ofs;
+                }
+            }
+        }
+        if (bestOfs < 0) {
+            return null;
+        }
+        Place p = new Place();
+        p.latitude   = bb.getInt(bestOfs     ) / COORD_SCALE;
+        p.longitude  = bb.getInt(bestOfs +  4) / COORD_SCALE;
+        p.name       = this._getString(bb.getInt(bestOfs +  8));
+        p.state      = this._getString(bb.getInt(bestOfs + 12));
+        p.country    = this._getString(bb.getInt(bestOfs + 16));
+        p.admin1     = this._getString(bb.getInt(bestOfs + 20));
+        p.population = bb.getInt(bestOfs + 24);
+        p.distanceM  = Math.sqrt(bestSq) * METERS_PER_DEGREE;
+        return p;
+    }
+
+    /**
+    *** Gets the nearest street within the specified radius
+    *** @param lat      The latitude
+    *** @param lon      The longitude
+    *** @param maxM     The maximum distance from the street, in meters
+    *** @return The nearest street, or null if no street is within the specified distance
+    **/
+    public Street getNearestStreet(double lat, double lon, double maxM)
+    {
+        if ((this.streetCount <= 0) || !GeoPoint.isValid(lat,lon)) {
+            return null;
+        }
+        long cells[] = _getCells(this.streetBits, lat, lon, maxM + (this.maxPieceM / 2.0));
+        if (cells == null) {
+            return null;
+        }
+        ByteBuffer bb = this.indexMap;
+        double cosLat = Math.cos(lat * GeoPoint.RADIANS);
+        double bestSq = (maxM / METERS_PER_DEGREE) * (maxM / METERS_PER_DEGREE);
+        int    bestOfs = -1;
+        for (int c = 0; c < cells.length; c++) {
+            long range = this._findCell(this.streetCellsOfs, this.streetCellCount, cells[c]);
+            if (range < 0L) { continue; }
+            int first = (int)(range >>> 32), last = (int)range;
+            for (int r = first; r < last; r++) {
+                int    ofs = this.streetsOfs + (r * STREET_RECORD_SIZE);
+                double ay  = (bb.getInt(ofs     ) / COORD_SCALE) - lat;
+                double ax  = _deltaLon(bb.getInt(ofs +  4) / COORD_SCALE, lon) * cosLat;
+                double by  = (bb.getInt(ofs +  8) / COORD_SCALE) - lat;
+                double bx  = _deltaLon(bb.getInt(ofs + 12) / COORD_SCALE, lon) * cosLat;
+                double dSq = _segmentDistanceSq(ax, ay, bx, by);
+                if (dSq <= bestSq) {
+                    bestSq  = dSq;
+                    bestOfs = ofs;
+                }
+            }
+        }
+        if (bestOfs < 0) {
+            return null;
+        }
+        Street s = new Street();
+        s.name      = this._getString(bb.getInt(bestOfs + 16));
+        s.city      = this._getString(bb.getInt(bestOfs + 20));
+        s.state     = this._getString(bb.getInt(bestOfs + 24));
+        s.postal    = this._getString(bb.getInt(bestOfs + 28));
+        s.country   = this._getString(bb.getInt(bestOfs + 32));
+        s.distanceM = Math.sqrt(bestSq) * METERS_PER_DEGREE;
+        return s;
+    }
+
+    /* squared distance from the origin to the segment a-b */
+    private static double _segmentDistanceSq(double ax, double ay, double bx, double by)
+    {
+        double vx = bx - ax, vy = by - ay;
+        double vv = (vx * vx) + (vy * vy);
+        double t  = (vv > 0.0)? (-((ax * vx) + (ay * vy)) / vv) : 0.0;
+        if (t < 0.0) { t = 0.0; } else if (t > 1.0) { t = 1.0; }
+        double px = ax + (t * vx), py = ay + (t * vy);
+        return (px * px) + (py * py);
+    }
+
+    /* longitude delta, normalized to [-180..180] */
+    private static double _deltaLon(double lon, double lon0)
+    {
+        double d = lon - lon0;
+        if (d > 180.0) {
+            d -= 360.0;
+        } else
+        if (d < -180.0) {
+            d += 360.0;
+        }
+        return d;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets a String representation of this instance
+    **/
+    public String toString()
+    {
+        return this.indexFile + " [places=" + this.placeCount + " streets=" + this.streetCount + "]";
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** GazetteerIndex builder
+    **/
+    public static class Builder
+    {
+
+        private static class Record
+            implements Comparable<Record>
+        {
+            private long cell   = 0L;
+            private int  data[] = null;
+            public Record(long cell, int data[]) {
+                this.cell = cell;
+                this.data = data;
+            }
+            public int compareTo(Record other) {
+                return (this.cell < other.cell)? -1 : (this.cell > other.cell)? 1 : 0;
+            }
+        }
+
+        private int                     placeBits   = 0;
+        private int                     streetBits  = 0;
+        private double                  maxPieceM   = 0.0;
+        private java.util.List<Record>  places      = new ArrayList<Record>();
+        private java.util.List<Record>  streets     = new ArrayList<Record>();
+        private Map<String,Integer>     strings     = new HashMap<String,Integer>();
+        private ByteArrayOutputStream   stringBytes = new ByteArrayOutputStream();
+
+        /**
+        *** Constructor (default cell sizes)
+        **/
+        public Builder()
+        {
+            this(DEFAULT_PLACE_CELL_METERS, DEFAULT_STREET_CELL_METERS);
+        }
+
+        /**
+        *** Constructor
+        *** @param placeCellM   The approximate place cell size, in meters
+        *** @param streetCellM  The approximate street cell size, in meters
+        **/
+        public Builder(double placeCellM, double streetCellM)
+        {
+            super();
+            this.placeBits  = GeoHash.getBitsForCellSize(placeCellM);
+            this.streetBits = GeoHash.getBitsForCellSize(streetCellM);
+            this.maxPieceM  = Math.floor(_cellHeight(this.streetBits) * METERS_PER_DEGREE);
+        }
+
+        /* string table reference */
+        private int _ref(String s)
+        {
+            if (StringTools.isBlank(s)) {
+                return -1;
+            }
+            String v = s.trim();
+            Integer ref = this.strings.get(v);
+            if (ref == null) {
+                byte b[];
+                try {
+                    b = v.getBytes(StringTools.CharEncoding_UTF_8);
+                } catch (UnsupportedEncodingException uee) {
+                    b = v.getBytes(); // will not occur
+                }
+                int len = Math.min(b.length, MAX_STRING_BYTES);
+                ref = new Integer(this.stringBytes.size());
+                this.stringBytes.write((len >> 8) & 0xFF);
+                this.stringBytes.write(len & 0xFF);
+                this.stringBytes.write(b, 0, len);
+                this.strings.put(v, ref);
+            }
+            return ref.intValue();
+        }
+
+        /* scaled coordinate */
+        private static int _coord(double v)
+        {
+            return (int)Math.round(v * COORD_SCALE);
+        }
+
+        /**
+        *** Adds a place
+        *** @param lat         The place latitude
+        *** @param lon         The place longitude
+        *** @param name        The place name
+        *** @param state       The state/province name
+        *** @param country     The country code
+        *** @param admin1      The state/province code
+        *** @param population  The population (0 if unknown)
+        **/
+        public void addPlace(double lat, double lon, String name, String state, String country, String admin1, int population)
+        {
+            if (!GeoPoint.isValid(lat,lon) || StringTools.isBlank(name)) {
+                return;
+            }
+            int d[] = new int[] {
+                _coord(lat), _coord(lon),
+                this._ref(name), this._ref(state), this._ref(country), this._ref(admin1),
+                population
+            };
+            this.places.add(new Record(GeoHash.encode(lat,lon,this.placeBits), d));
+        }
+
+        /**
+        *** Adds a street polyline
+        *** @param lat      The polyline latitudes
+        *** @param lon      The polyline longitudes
+        *** @param count    The number of polyline points
+        *** @param name     The street name
+        *** @param city     The city name (may be null)
+        *** @param state    The state/province (may be null)
+        *** @param postal   The postal code (may be null)
+        *** @param country  The country code (may be null)
+        **/
+        public void addStreet(double lat[], double lon[], int count, String name, String city, String state, String postal, String country)
+        {
+            if (StringTools.isBlank(name) || (count < 2)) {
+                return;
+            }
+            int nameR = this._ref(name), cityR = this._ref(city), stateR = this._ref(state);
+            int postR = this._ref(postal), ctryR = this._ref(country);
+            for (int i = 1; i < count; i++) {
+                double lat1 = lat[i - 1], lon1 = lon[i - 1], lat2 = lat[i], lon2 = lon[i];
+                if (!GeoPoint.isValid(lat1,lon1) || !GeoPoint.isValid(lat2,lon2)) {
+                    continue;
+                }
+                // -- split into pieces no longer than the street cell height
+                double segM   = GeoPoint.fastMetersBetween(lat1, lon1, lat2, lon2);
+                int    pieces = Math.max((int)Math.ceil(segM / this.maxPieceM), 1);
+                double dLon   = _deltaLon(lon2, lon1);
+                for (int p = 0; p < pieces; p++) {
+                    double f1 = (double)p / pieces, f2 = (double)(p + 1) / pieces;
+                    double pLat1 = lat1 + ((lat2 - lat1) * f1), pLon1 = _normLon(lon1 + (dLon * f1));
+                    double pLat2 = lat1 + ((lat2 - lat1) * f2), pLon2 = _normLon(lon1 + (dLon * f2));
+                    double mLat  = (pLat1 + pLat2) / 2.0,       mLon  = _normLon(lon1 + (dLon * ((f1 + f2) / 2.0)));
+                    int d[] = new int[] {
+                        _coord(pLat1), _coord(pLon1), _coord(pLat2), _coord(pLon2),
+                        nameR, cityR, stateR, postR, ctryR
+                    };
+                    this.streets.add(new Record(GeoHash.encode(mLat,mLon,this.streetBits), d));
+                }
+            }
+        }
+
+        /* normalize longitude to [-180..180) */
+        private static double _normLon(double lon)
+        {
+            while (lon >= 180.0) { lon -= 360.0; }
+            while (lon < -180.0) { lon += 360.0; }
+            return lon;
+        }
+
+        /**
+        *** Gets the number of places added
+        **/
+        public int getPlaceCount()
+        {
+            return this.places.size();
+        }
+
+        /**
+        *** Gets the number of street pieces added
+        **/
+        public int getStreetCount()
+        {
+            return this.streets.size();
+        }
+
+        /* number of distinct cells in the sorted record list */
+        private static int _countCells(java.util.List<Record> recs)
+        {
+            int n = 0;
+            long last = 0L;
+            for (int i = 0; i < recs.size(); i++) {
+                long c = recs.get(i).cell;
+                if ((i == 0) || (c != last)) { n++; last = c; }
+            }
+            return n;
+        }
+
+        /* write cell directory (with sentinel) */
+        private static void _writeCells(DataOutputStream out, java.util.List<Record> recs)
+            throws IOException
+        {
+            long last = 0L;
+            for (int i = 0; i < recs.size(); i++) {
+                long c = recs.get(i).cell;
+                if ((i == 0) || (c != last)) {
+                    out.writeLong(c);
+                    out.writeInt(i);
+                    last = c;
+                }
+            }
+            out.writeLong(Long.MAX_VALUE);
+            out.writeInt(recs.size());
+        }
+
+        /* write records */
+        private static void _writeRecords(DataOutputStream out, java.util.List<Record> recs)
+            throws IOException
+        {
+            for (Record r : recs) {
+                for (int v : r.data) {
+                    out.writeInt(v);
+                }
+            }
+        }
+
+        /**
+        *** Writes the index to the specified file
+        *** @param file  The output file
+        *** @throws IOException  If an error occurs while writing the file
+        **/
+        public void write(File file)
+            throws IOException
+        {
+
+            /* sort */
+            Collections.sort(this.places);
+            Collections.sort(this.streets);
+            int placeCells  = _countCells(this.places);
+            int streetCells = _countCells(this.streets);
+
+            /* offsets */
+            long stringsOfs     = HEADER_SIZE;
+            long placeCellsOfs  = stringsOfs + this.stringBytes.size();
+            long placesOfs      = placeCellsOfs  + ((long)(placeCells  + 1) * CELL_ENTRY_SIZE);
+            long streetCellsOfs = placesOfs      + ((long)this.places.size()  * PLACE_RECORD_SIZE);
+            long streetsOfs     = streetCellsOfs + ((long)(streetCells + 1) * CELL_ENTRY_SIZE);
+            long fileLen        = streetsOfs     + ((long)this.streets.size() * STREET_RECORD_SIZE);
+            if (fileLen > (long)Integer.MAX_VALUE) {
+                throw new IOException("Gazetteer index too large: " + fileLen + " bytes");
+            }
+
+            /* write */
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 65536));
+            try {
+                // -- header
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(this.placeBits);
+                out.writeInt(this.streetBits);
+                out.writeInt(this.places.size());
+                out.writeInt(placeCells);
+                out.writeInt(this.streets.size());
+                out.writeInt(streetCells);
+                out.writeInt((int)this.maxPieceM);
+                out.writeInt(0);
+                out.writeLong(stringsOfs);
+                out.writeLong(placeCellsOfs);
+                out.writeLong(placesOfs);
+                out.writeLong(streetCellsOfs);
+                out.writeLong(streetsOfs);
+                out.writeLong(fileLen);
+                out.writeLong(0L);
+                // -- tables
+                this.stringBytes.writeTo(out);
+                _writeCells(out, this.places);
+                _writeRecords(out, this.places);
+                _writeCells(out, this.streets);
+                _writeRecords(out, this.streets);
+            } finally {
+                out.close();
+            }
+
+        }
+
+    }
+
+}
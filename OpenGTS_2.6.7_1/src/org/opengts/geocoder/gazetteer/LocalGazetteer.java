@@ -0,0 +1,431 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2020, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Notes:
+// - This reverse-geocoder is resolved locally from a GazetteerIndex file, which is
+//   built from imported gazetteer data:
+//     - Places: GeoNames dump files (ie. "cities1000.txt", "US.txt") [http://download.geonames.org/export/dump/]
+//     - State/Province names: GeoNames "admin1CodesASCII.txt"
+//     - Streets: tab-separated "WKT,name,city,state,postal,country" lines, where WKT is a
+//       LINESTRING/MULTILINESTRING (ie. exported from an OSM extract with "ogr2ogr -f CSV
+//       -lco GEOMETRY=AS_WKT -lco SEPARATOR=TAB")
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19  GTS Development Team
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.geocoder.gazetteer;
+
+import java.lang.*;
+import java.util.*;
+import java.io.*;
+
+import org.opengts.util.*;
+
+import org.opengts.geocoder.*;
+import org.opengts.geocoder.country.USState;
+
+public class LocalGazetteer
+    extends ReverseGeocodeProviderAdapter
+    implements ReverseGeocodeProvider
+{
+
+    // ------------------------------------------------------------------------
+
+    protected static final String PROP_indexFile                = "indexFile";
+    protected static final String PROP_streetRadiusMeters       = "streetRadiusMeters";
+    protected static final String PROP_placeRadiusKM            = "placeRadiusKM";
+
+    // ------------------------------------------------------------------------
+
+    protected static final double DEFAULT_STREET_RADIUS_METERS  = 100.0;
+    protected static final double DEFAULT_PLACE_RADIUS_KM       =  30.0;
+
+    // ------------------------------------------------------------------------
+
+    protected static final String ENCODING_UTF8                 = StringTools.CharEncoding_UTF_8;
+
+    // ------------------------------------------------------------------------
+
+    /* GeoNames dump columns */
+    private static final int      GN_NAME                       =  1;
+    private static final int      GN_LATITUDE                   =  4;
+    private static final int      GN_LONGITUDE                  =  5;
+    private static final int      GN_FEATURE_CLASS              =  6;
+    private static final int      GN_COUNTRY                    =  8;
+    private static final int      GN_ADMIN1                     = 10;
+    private static final int      GN_POPULATION                 = 14;
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private GazetteerIndex  gazIndex        = null;
+    private boolean         gazIndexInit    = false;
+
+    /**
+    *** Constructor
+    *** @param name    The name assigned to this ReverseGeocodeProvider
+    *** @param key     The optional authorization key (not used)
+    *** @param rtProps The properties associated with this ReverseGeocodeProvider
+    **/
+    public LocalGazetteer(String name, String key, RTProperties rtProps)
+    {
+        super(name, null, rtProps);
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Returns true if locally resolved, false otherwise.
+    *** @return Always true (resolved from a local index)
+    **/
+    @Override
+    public boolean isFastOperation()
+    {
+        return true;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the GazetteerIndex (opened on first use)
+    *** @return The GazetteerIndex, or null if not configured or unavailable
+    **/
+    protected synchronized GazetteerIndex getGazetteerIndex()
+    {
+        if (!this.gazIndexInit) {
+            this.gazIndexInit = true;
+            String fileName = this.getProperties().getString(PROP_indexFile, null);
+            if (StringTools.isBlank(fileName)) {
+                Print.logError("["+this.getName()+"] Gazetteer '"+PROP_indexFile+"' not specified");
+            } else {
+                File file = new File(fileName);
+                if (!file.isAbsolute() && (RTConfig.getLoadedConfigDir() != null)) {
+                    file = new File(RTConfig.getLoadedConfigDir(), fileName);
+                }
+                try {
+                    this.gazIndex = new GazetteerIndex(file);
+                    Print.logInfo("["+this.getName()+"] Gazetteer index loaded: " + this.gazIndex);
+                } catch (IOException ioe) {
+                    Print.logError("["+this.getName()+"] Unable to load gazetteer index: " + ioe);
+                    this.gazIndex = null;
+                }
+            }
+        }
+        return this.gazIndex;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Returns a ReverseGeocode instance for the specified GeoPoint
+    *** @param gp  The GeoPoint
+    *** @return The ReverseGeocode instance
+    **/
+    @Override
+    public ReverseGeocode getReverseGeocode(
+        GeoPoint gp, boolean isMoving, String localeStr,
+        boolean cache, String clientID,
+        Properties props)
+    {
+
+        /* no GeoPoint? */
+        if (!GeoPoint.isValid(gp)) {
+            return null;
+        }
+
+        /* index */
+        GazetteerIndex gi = this.getGazetteerIndex();
+        if (gi == null) {
+            return null;
+        }
+
+        /* nearest street/place */
+        long   startMS = DateTime.getCurrentTimeMillis();
+        RTProperties rtp = this.getProperties();
+        double streetM = rtp.getDouble(PROP_streetRadiusMeters, DEFAULT_STREET_RADIUS_METERS);
+        double placeM  = rtp.getDouble(PROP_placeRadiusKM, DEFAULT_PLACE_RADIUS_KM) * 1000.0;
+        double lat     = gp.getLatitude();
+        double lon     = gp.getLongitude();
+        GazetteerIndex.Street street = (streetM > 0.0)? gi.getNearestStreet(lat, lon, streetM) : null;
+        GazetteerIndex.Place  place  = gi.getNearestPlace(lat, lon, placeM);
+        if ((street == null) && (place == null)) {
+            return null;
+        }
+
+        /* address components (street values take precedence) */
+        String streetAddr = (street != null)? street.getName() : null;
+        String city       = ((street != null) && !StringTools.isBlank(street.getCity()))?
+            street.getCity() : ((place != null)? place.getName() : null);
+        String state      = ((street != null) && !StringTools.isBlank(street.getStateProvince()))?
+            street.getStateProvince() : ((place != null)? place.getStateProvince() : null);
+        String postal     = (street != null)? street.getPostalCode() : null;
+        String country    = ((street != null) && !StringTools.isBlank(street.getCountryCode()))?
+            street.getCountryCode() : ((place != null)? place.getCountryCode() : null);
+        String subdiv     = (place != null)? place.getSubdivision() : null;
+        boolean isUS      = USState.COUNTRY_US.equalsIgnoreCase(country);
+
+        /* full address: "street, city, state postal [country]" */
+        StringBuffer sb = new StringBuffer();
+        if (!StringTools.isBlank(streetAddr)) {
+            sb.append(streetAddr);
+        }
+        if (!StringTools.isBlank(city)) {
+            if (sb.length() > 0) { sb.append(", "); }
+            sb.append(city);
+        }
+        if (!StringTools.isBlank(state)) {
+            if (sb.length() > 0) { sb.append(", "); }
+            sb.append(state);
+        }
+        if (!StringTools.isBlank(postal)) {
+            if (sb.length() > 0) { sb.append(" "); }
+            sb.append(postal);
+        }
+        if (!isUS && !StringTools.isBlank(country)) {
+            if (sb.length() > 0) { sb.append(" "); }
+            sb.append(country);
+        }
+
+        /* return ReverseGeocode */
+        ReverseGeocode rg = NewReverseGeocode(this);
+        rg.setIsMoving(isMoving);
+        rg.setFullAddress(sb.toString());
+        rg.setStreetAddress(streetAddr);
+        rg.setCity(city);
+        rg.setStateProvince(state);
+        rg.setPostalCode(postal);
+        rg.setCountryCode(country);
+        if (!StringTools.isBlank(subdiv)) {
+            rg.setSubdivision(subdiv);
+        }
+        rg.setCachedState(ReverseGeocode.CACHED_PROVIDER);
+        rg.setElapsedTimeMS(DateTime.getCurrentTimeMillis() - startMS);
+        return rg;
+
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Loads the GeoNames "admin1CodesASCII.txt" file ("CC.ADMIN1" ==> name)
+    **/
+    private static Map<String,String> loadAdmin1Names(File file)
+        throws IOException
+    {
+        Map<String,String> map = new HashMap<String,String>();
+        BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(file), ENCODING_UTF8));
+        try {
+            for (String line = br.readLine(); line != null; line = br.readLine()) {
+                String f[] = line.split("\t", -1);
+                if ((f.length >= 2) && !line.startsWith("#")) {
+                    map.put(f[0].trim(), f[1].trim());
+                }
+            }
+        } finally {
+            br.close();
+        }
+        return map;
+    }
+
+    /**
+    *** Imports GeoNames dump places (feature class "P") into the index builder
+    **/
+    private static int importPlaces(GazetteerIndex.Builder gib, File file, Map<String,String> admin1, int minPop)
+        throws IOException
+    {
+        int count = 0;
+        BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(file), ENCODING_UTF8));
+        try {
+            for (String line = br.readLine(); line != null; line = br.readLine()) {
+                String f[] = line.split("\t", -1);
+                if ((f.length <= GN_POPULATION) || !f[GN_FEATURE_CLASS].equals("P")) {
+                    continue;
+                }
+                int pop = StringTools.parseInt(f[GN_POPULATION], 0);
+                if (pop < minPop) {
+                    continue;
+                }
+                double lat  = StringTools.parseDouble(f[GN_LATITUDE ], 999.0);
+                double lon  = StringTools.parseDouble(f[GN_LONGITUDE], 999.0);
+                String cc   = f[GN_COUNTRY].trim();
+                String adm1 = f[GN_ADMIN1].trim();
+                String stateName = (admin1 != null)? admin1.get(cc + "." + adm1) : null;
+                if (StringTools.isBlank(stateName)) {
+                    stateName = adm1;
+                }
+                gib.addPlace(lat, lon, f[GN_NAME], stateName, cc, adm1, pop);
+                count++;
+            }
+        } finally {
+            br.close();
+        }
+        return count;
+    }
+
+    /**
+    *** Imports tab-separated "WKT,name,city,state,postal,country" street lines into the index builder
+    **/
+    private static int importStreets(GazetteerIndex.Builder gib, File file)
+        throws IOException
+    {
+        int count = 0;
+        double lat[] = new double[256];
+        double lon[] = new double[256];
+        BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(file), ENCODING_UTF8));
+        try {
+            for (String line = br.readLine(); line != null; line = br.readLine()) {
+                String f[] = line.split("\t", -1);
+                if ((f.length < 2) || StringTools.isBlank(f[1])) {
+                    continue; // header, or unnamed way
+                }
+                String wkt = StringTools.stripChars(f[0].trim(),'"').toUpperCase();
+                if (!wkt.startsWith("LINESTRING") && !wkt.startsWith("MULTILINESTRING")) {
+                    continue;
+                }
+                String name    = f[1];
+                String city    = (f.length > 2)? f[2] : null;
+                String state   = (f.length > 3)? f[3] : null;
+                String postal  = (f.length > 4)? f[4] : null;
+                String country = (f.length > 5)? f[5] : null;
+                // -- each parenthesized "lon lat, lon lat, ..." list is a separate polyline
+                int p = wkt.indexOf('(');
+                while (p >= 0) {
+                    while ((p < wkt.length()) && (wkt.charAt(p) == '(')) { p++; }
+                    int e = wkt.indexOf(')', p);
+                    if (e < 0) { break; }
+                    String pts[] = wkt.substring(p, e).split(",");
+                    if (pts.length > lat.length) {
+                        lat = new double[pts.length];
+                        lon = new double[pts.length];
+                    }
+                    int n = 0;
+                    for (String pt : pts) {
+                        String xy[] = pt.trim().split("\\s+");
+                        if (xy.length >= 2) {
+                            lon[n] = StringTools.parseDouble(xy[0], 999.0);
+                            lat[n] = StringTools.parseDouble(xy[1], 999.0);
+                            n++;
+                        }
+                    }
+                    gib.addStreet(lat, lon, n, name, city, state, postal, country);
+                    p = wkt.indexOf('(', e);
+                }
+                count++;
+            }
+        } finally {
+            br.close();
+        }
+        return count;
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private static final String ARG_BUILD[]         = { "build"                 };
+    private static final String ARG_INDEX[]         = { "index"  , "indexFile"  };
+    private static final String ARG_PLACES[]        = { "places"                };
+    private static final String ARG_ADMIN1[]        = { "admin1"                };
+    private static final String ARG_STREETS[]       = { "streets"               };
+    private static final String ARG_MIN_POP[]       = { "minPop" , "minPopulation" };
+    private static final String ARG_GP[]            = { "gp"                    };
+
+    private static void usage()
+    {
+        Print.sysPrintln("Usage:");
+        Print.sysPrintln("  java ... " + LocalGazetteer.class.getName() + " {options}");
+        Print.sysPrintln("Build Options:");
+        Print.sysPrintln("  -build -index=<file> -places=<file> [-admin1=<file>] [-streets=<file>] [-minPop=<pop>]");
+        Print.sysPrintln("     -places=<file>   GeoNames dump file (ie. 'cities1000.txt')");
+        Print.sysPrintln("     -admin1=<file>   GeoNames 'admin1CodesASCII.txt' file");
+        Print.sysPrintln("     -streets=<file>  Tab-separated 'WKT,name,city,state,postal,country' file");
+        Print.sysPrintln("Lookup Options:");
+        Print.sysPrintln("  -index=<file> -gp=<lat>/<lon>");
+        System.exit(1);
+    }
+
+    /**
+    *** Main entery point for building the gazetteer index, and for debugging/testing
+    **/
+    public static void main(String argv[])
+    {
+        RTConfig.setCommandLineArgs(argv);
+        Print.setAllOutputToStdout(true);
+        Print.setEncoding(ENCODING_UTF8);
+
+        /* index file */
+        String indexName = RTConfig.getString(ARG_INDEX, null);
+        if (StringTools.isBlank(indexName)) {
+            Print.sysPrintln("ERROR: Missing '-index' file");
+            usage();
+        }
+        File indexFile = new File(indexName);
+
+        /* build */
+        if (RTConfig.getBoolean(ARG_BUILD,false)) {
+            String places  = RTConfig.getString(ARG_PLACES , null);
+            String admin1  = RTConfig.getString(ARG_ADMIN1 , null);
+            String streets = RTConfig.getString(ARG_STREETS, null);
+            int    minPop  = RTConfig.getInt(ARG_MIN_POP, 0);
+            if (StringTools.isBlank(places)) {
+                Print.sysPrintln("ERROR: Missing '-places' file");
+                usage();
+            }
+            try {
+                long startMS = System.currentTimeMillis();
+                GazetteerIndex.Builder gib = new GazetteerIndex.Builder();
+                Map<String,String> adm1 = !StringTools.isBlank(admin1)? loadAdmin1Names(new File(admin1)) : null;
+                int pc = importPlaces(gib, new File(places), adm1, minPop);
+                Print.sysPrintln("Imported places : " + pc);
+                if (!StringTools.isBlank(streets)) {
+                    int sc = importStreets(gib, new File(streets));
+                    Print.sysPrintln("Imported streets: " + sc + " (" + gib.getStreetCount() + " segments)");
+                }
+                gib.write(indexFile);
+                Print.sysPrintln("Wrote index: " + indexFile + " [" + indexFile.length() + " bytes, " +
+                    (System.currentTimeMillis() - startMS) + " ms]");
+                System.exit(0);
+            } catch (IOException ioe) {
+                Print.sysPrintln("ERROR: " + ioe);
+                System.exit(99);
+            }
+        }
+
+        /* lookup */
+        GeoPoint gp = new GeoPoint(RTConfig.getString(ARG_GP,""));
+        if (!gp.isValid()) {
+            Print.sysPrintln("ERROR: Invalid GeoPoint specified");
+            usage();
+        }
+        RTProperties rtp = new RTProperties();
+        rtp.setString(PROP_indexFile, indexFile.getAbsolutePath());
+        LocalGazetteer lg = new LocalGazetteer("gazetteer", null, rtp);
+        ReverseGeocode rg = lg.getReverseGeocode(gp,false/*isMoving*/,null/*localeStr*/,false/*cache*/,""/*clientID*/,null/*props*/);
+        long startNS = System.nanoTime();
+        int  loops   = 10000;
+        for (int i = 0; i < loops; i++) {
+            lg.getReverseGeocode(gp, false, null, false, "", null);
+        }
+        long avgNS = (System.nanoTime() - startNS) / loops;
+        Print.sysPrintln("RevGeocode = " + rg);
+        Print.sysPrintln("Average lookup: " + (avgNS / 1000L) + " us");
+
+    }
+
+}
@@ -63,6 +63,8 @@
 //     -Added "placeFailover" property.
 //  2011/08/21  Martin D. Flynn
 //     -Added status message display when reverse-geocoding fails
+//  2026/10/19  GTS Development Team
+//     -Reverse-geocode HTTP requests now issued through the shared GeocoderHttpClient
 // ----------------------------------------------------------------------------
 package org.opengts.geocoder.geonames;
 
@@ -590,12 +592,12 @@ public class GeoNames
             String url = this.getURL(true, gp);
             if (url != null) {
                 Print.logInfo("Primary URL: " + url);
-                xmlDoc = GeoNames.GetXMLDocument(url, timeoutMS); // primary
+                xmlDoc = GeoNames.GetXMLDocument(GeoNames.this.getHttpClient(), url, timeoutMS); // primary
                 if (xmlDoc == null) {
                     url = this.getURL(false, gp);
                     if (url != null) {
                         Print.logInfo("Failover URL: " + url);
-                        xmlDoc = GeoNames.GetXMLDocument(url, timeoutMS); // failover
+                        xmlDoc = GeoNames.GetXMLDocument(GeoNames.this.getHttpClient(), url, timeoutMS); // failover
                     }
                 }
             }
@@ -1626,12 +1628,28 @@ public class GeoNames
     *** @return An XML Document, or null if the XML Document could not be read
     **/
     protected static Document GetXMLDocument(String url, int timeoutMS)
+    {
+        return GetXMLDocument(null, url, timeoutMS);
+    }
+
+    /** 
+    *** Reads the XML response from the specified URL location, returning an XML Document
+    *** @param client  The shared GeocoderHttpClient (null to read directly)
+    *** @param url     The Geonames URL
+    *** @return An XML Document, or null if the XML Document could not be read
+    **/
+    protected static Document GetXMLDocument(GeocoderHttpClient client, String url, int timeoutMS)
     {
         try {
             //Print.logInfo("HTTP User-Agent: " + HTMLTools.getHttpUserAgent());
             DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
             DocumentBuilder db = dbf.newDocumentBuilder();
-            InputStream input = HTMLTools.inputStream_GET(url, null, timeoutMS);
+            InputStream input = (client != null)? 
+                client.openStream(url, timeoutMS) : // coalesced/limited
+                HTMLTools.inputStream_GET(url, null, timeoutMS);
+            if (input == null) {
+                return null;
+            }
             InputStreamReader reader = new InputStreamReader(input, ENCODING_UTF8);
             InputSource inSrc = new InputSource(reader);
             inSrc.setEncoding(ENCODING_UTF8);
@@ -60,6 +60,9 @@
 //  2020/02/19  GTS Development Team
 //     -Cloned from "GisGraphy.java" V4 to support V5
 //     -Update to remove vendor/center names from address (ie. "Walmart Distribution Center", erc) [2.6.7-B43q]
+//  2026/10/19  GTS Development Team
+//     -Added "prefetchReverseGeocode" (heading-based ReverseGeocodeCache prefetch)
+//     -HTTP requests now issued through the shared GeocoderHttpClient
 // ----------------------------------------------------------------------------
 package org.opengts.geocoder.gisgraphy;
 
@@ -225,6 +228,14 @@ public class GisGraphy5 // v5
         }
     }
 
+    /* prefetch cached reverse-geocodes ahead of a moving vehicle */
+    public void prefetchReverseGeocode(GeoPoint gp, double heading, double speedKPH)
+    {
+        if (this.rgCache != null) {
+            this.rgCache.prefetch(RG_PROVIDER, gp, heading, speedKPH);
+        }
+    }
+
     /**
     *** Returns a ReverseGeocode instance for the specified GeoPoint
     *** @param gp  The GeoPoint
@@ -621,7 +632,10 @@ public class GisGraphy5 // v5
         try {
             DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
             DocumentBuilder db = dbf.newDocumentBuilder();
-            InputStream input = HTMLTools.inputStream_GET(url, null, SERVICE_TIMEOUT_MS);
+            InputStream input = this.getHttpClient().openStream(url, SERVICE_TIMEOUT_MS); // coalesced/limited
+            if (input == null) {
+                return null;
+            }
             InputStreamReader reader = new InputStreamReader(input, ENCODING_UTF8);
             InputSource inSrc = new InputSource(reader);
             inSrc.setEncoding(ENCODING_UTF8);
@@ -48,6 +48,9 @@
 //     -Added lazy starting of auto-trim thread [2.6.1-B35]
 //  2018/09/10  GTS Development Team
 //     -Added retry support on overlimit failures
+//  2026/10/19  GTS Development Team
+//     -Added "prefetchReverseGeocode" (heading-based ReverseGeocodeCache prefetch)
+//     -HTTP requests now issued through the shared GeocoderHttpClient
 // ----------------------------------------------------------------------------
 package org.opengts.geocoder.google;
 
@@ -632,6 +635,14 @@ public class GoogleGeocodeV3
         }
     }
 
+    /* prefetch cached reverse-geocodes ahead of a moving vehicle */
+    public void prefetchReverseGeocode(GeoPoint gp, double heading, double speedKPH)
+    {
+        if (this.rgCache != null) {
+            this.rgCache.prefetch(RG_PROVIDER, gp, heading, speedKPH);
+        }
+    }
+
     /* return reverse-geocode */
     public ReverseGeocode getReverseGeocode(
         GeoPoint gp, boolean isMoving, String localeStr, 
@@ -987,7 +998,7 @@ public class GoogleGeocodeV3
             JSON jsonDoc = null;
             JSON._Object jsonObj = null;
             try {
-                jsonDoc = GetJSONDocument(url, revGeoTimeoutMS);
+                jsonDoc = GetJSONDocument(this.getHttpClient(), url, revGeoTimeoutMS);
                 jsonObj = (jsonDoc != null)? jsonDoc.getObject() : null;
                 if (jsonObj == null) {
                     return null;
@@ -1312,7 +1323,7 @@ public class GoogleGeocodeV3
         Print.logDebug("Google GC URL: " + url);
 
         /* create JSON document */
-        JSON jsonDoc = GetJSONDocument(url, this.getReverseGeocodeTimeout());
+        JSON jsonDoc = GetJSONDocument(this.getHttpClient(), url, this.getReverseGeocodeTimeout());
         JSON._Object jsonObj = (jsonDoc != null)? jsonDoc.getObject() : null;
         if (jsonObj == null) {
             return null;
@@ -1362,11 +1373,20 @@ public class GoogleGeocodeV3
     // ------------------------------------------------------------------------
 
     protected static JSON GetJSONDocument(String url, int timeoutMS)
+    {
+        return GetJSONDocument(null, url, timeoutMS);
+    }
+
+    protected static JSON GetJSONDocument(GeocoderHttpClient client, String url, int timeoutMS)
     {
         JSON jsonDoc = null;
-        HTMLTools.HttpBufferedInputStream input = null;
+        InputStream input = null;
         try {
-            input = HTMLTools.inputStream_GET(url, null, timeoutMS);
+            if (client != null) {
+                input = client.openStream(url, timeoutMS); // coalesced/limited
+            } else {
+                input = HTMLTools.inputStream_GET(url, null, timeoutMS);
+            }
             jsonDoc = new JSON(input);
         } catch (JSON.JSONParsingException jpe) {
             Print.logError("JSON parse error: " + jpe);
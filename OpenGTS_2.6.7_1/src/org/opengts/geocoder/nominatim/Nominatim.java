@@ -56,6 +56,9 @@
 //     -Added lazy starting of auto-trim thread [2.6.1-B35]
 //  2018/09/10  GTS Development Team
 //     -Added alias TAG_house_number (same as TAG_house) [2.6.6-B40a]
+//  2026/10/19  GTS Development Team
+//     -Added "prefetchReverseGeocode" (heading-based ReverseGeocodeCache prefetch)
+//     -HTTP requests now issued through the shared GeocoderHttpClient
 // ----------------------------------------------------------------------------
 package org.opengts.geocoder.nominatim;
 
@@ -206,6 +209,20 @@ public class Nominatim
         return super.isFastOperation();
     }
 
+    /**
+    *** Prefetches cached ReverseGeocodes ahead of a moving vehicle
+    *** @param gp        The current vehicle location
+    *** @param heading   The current vehicle heading (degrees)
+    *** @param speedKPH  The current vehicle speed (km/h)
+    **/
+    @Override
+    public void prefetchReverseGeocode(GeoPoint gp, double heading, double speedKPH)
+    {
+        if (this.rgCache != null) {
+            this.rgCache.prefetch(RG_PROVIDER, gp, heading, speedKPH);
+        }
+    }
+
     /**
     *** Returns a ReverseGeocode instance for the specified GeoPoint
     *** @param gp  The GeoPoint
@@ -533,7 +550,10 @@ public class Nominatim
          try {
             DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
             DocumentBuilder db = dbf.newDocumentBuilder();
-            InputStream input = HTMLTools.inputStream_GET(url, null, 5000);
+            InputStream input = this.getHttpClient().openStream(url, 5000); // coalesced/limited
+            if (input == null) {
+                return null;
+            }
             InputStreamReader reader = new InputStreamReader(input, ENCODING_UTF8);
             InputSource inSrc = new InputSource(reader);
             inSrc.setEncoding(ENCODING_UTF8);
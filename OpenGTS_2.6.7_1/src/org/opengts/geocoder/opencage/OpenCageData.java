@@ -21,6 +21,9 @@
 //     -Initial release
 //  2020/02/19  Martin D. Flynn
 //     -Added RGCache support [2.6.7-B35d]
+//  2026/10/19  GTS Development Team
+//     -Added "prefetchReverseGeocode" (heading-based ReverseGeocodeCache prefetch)
+//     -HTTP requests now issued through the shared GeocoderHttpClient
 // ----------------------------------------------------------------------------
 package org.opengts.geocoder.opencage;
 
@@ -335,6 +338,14 @@ public class OpenCageData
         }
     }
 
+    /* prefetch cached reverse-geocodes ahead of a moving vehicle */
+    public void prefetchReverseGeocode(GeoPoint gp, double heading, double speedKPH)
+    {
+        if (this.rgCache != null) {
+            this.rgCache.prefetch(RG_PROVIDER, gp, heading, speedKPH);
+        }
+    }
+
     /* return reverse-geocode */
     public ReverseGeocode getReverseGeocode(
         GeoPoint gp, boolean isMoving, String localeStr, 
@@ -464,7 +475,7 @@ public class OpenCageData
         JSON jsonDoc = null;
         JSON._Object jsonObj = null;
         try {
-            jsonDoc = GetJSONDocument(url, this.getReverseGeocodeTimeout());
+            jsonDoc = GetJSONDocument(this.getHttpClient(), url, this.getReverseGeocodeTimeout());
             jsonObj = (jsonDoc != null)? jsonDoc.getObject() : null;
             if (jsonObj == null) {
                 return null;
@@ -656,7 +667,7 @@ public class OpenCageData
         Print.logDebug("OpenCageData GC URL: " + url);
 
         /* create JSON document */
-        JSON jsonDoc = GetJSONDocument(url, this.getReverseGeocodeTimeout());
+        JSON jsonDoc = GetJSONDocument(this.getHttpClient(), url, this.getReverseGeocodeTimeout());
         JSON._Object jsonObj = (jsonDoc != null)? jsonDoc.getObject() : null;
         if (jsonObj == null) {
             return null;
@@ -726,11 +737,20 @@ public class OpenCageData
     // ------------------------------------------------------------------------
 
     protected static JSON GetJSONDocument(String url, int timeoutMS)
+    {
+        return GetJSONDocument(null, url, timeoutMS);
+    }
+
+    protected static JSON GetJSONDocument(GeocoderHttpClient client, String url, int timeoutMS)
     {
         JSON jsonDoc = null;
-        HTMLTools.HttpBufferedInputStream input = null;
+        InputStream input = null;
         try {
-            input = HTMLTools.inputStream_GET(url, null, timeoutMS);
+            if (client != null) {
+                input = client.openStream(url, timeoutMS); // coalesced/limited
+            } else {
+                input = HTMLTools.inputStream_GET(url, null, timeoutMS);
+            }
             jsonDoc = new JSON(input);
         } catch (JSON.JSONParsingException jpe) {
             Print.logError("JSON parse error: " + jpe);
@@ -21,6 +21,8 @@
 // Change History:
 //  2017/05/12  Martin D. Flynn
 //     -Extracted from GoogleDirections
+//  2026/10/19  GTS Development Team
+//     -Added optional track simplification tolerance to "Encode" (see TrackSimplifier)
 // ----------------------------------------------------------------------------
 package org.opengts.google;
 
@@ -183,8 +185,24 @@ public class GooglePolyline
     *** @return A Polyline String
     **/
     public static String Encode(java.util.List<GeoPointProvider> gpList)
+    {
+        return GooglePolyline.Encode(gpList, 0.0);
+    }
+
+    /**
+    *** Encodes the specified GeoPoints into a Polyline String, after removing points which
+    *** lie within the specified tolerance of the simplified route-line.
+    *** @param gpList      The list of GeoPoints
+    *** @param toleranceM  The simplification tolerance, in meters (see "TrackSimplifier.getToleranceMeters").
+    ***                    No points are removed if this value is '0'.
+    *** @return A Polyline String
+    **/
+    public static String Encode(java.util.List<GeoPointProvider> gpList, double toleranceM)
     {
         if (!ListTools.isEmpty(gpList)) {
+            if (toleranceM > 0.0) {
+                gpList = TrackSimplifier.simplify(gpList, toleranceM);
+            }
             StringBuffer sb = new StringBuffer();
             long lastLat = 0L;
             long lastLon = 0L;
@@ -0,0 +1,427 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2020, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Notes:
+// - This RouteProvider performs snap-to-road locally (HMM map-matching, see "MapMatcher")
+//   over a RoadGraph file, which is built from an imported OpenStreetMap XML extract
+//   (ie. "region-latest.osm.bz2" from Geofabrik, decompressed, or converted from ".pbf"
+//   with "osmium cat region.osm.pbf -o region.osm.gz"):
+//     java ... org.opengts.routing.local.LocalRouteProvider -build -graph=roads.graph -osm=region.osm.gz
+// - Directions (address to address) are not supported by this RouteProvider.
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19  GTS Development Team
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.routing.local;
+
+import java.lang.*;
+import java.util.*;
+import java.io.*;
+import java.util.zip.GZIPInputStream;
+
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
+
+import org.opengts.util.*;
+import org.opengts.routing.*;
+
+public class LocalRouteProvider
+    extends RouteProviderAdapter
+{
+
+    // ------------------------------------------------------------------------
+    // -- Properties
+
+    public    static final String   PROP_graphFile          = "graphFile";
+    public    static final String   PROP_sigmaMeters        = "sigmaMeters";
+    public    static final String   PROP_betaMeters         = "betaMeters";
+    public    static final String   PROP_searchRadiusMeters = "searchRadiusMeters";
+    public    static final String   PROP_maxCandidates      = "maxCandidates";
+    public    static final String   PROP_maxRouteFactor     = "maxRouteFactor";
+    public    static final String   PROP_maxLag             = "maxLag";
+
+    // ------------------------------------------------------------------------
+
+    /* OSM "highway" values imported as roads (by default) */
+    public    static final String   DEFAULT_HIGHWAYS[]      = {
+        "motorway", "motorway_link", "trunk", "trunk_link", "primary", "primary_link",
+        "secondary", "secondary_link", "tertiary", "tertiary_link", "unclassified",
+        "residential", "living_street", "service", "road"
+    };
+
+    // ------------------------------------------------------------------------
+
+    private RoadGraph   roadGraph       = null;
+    private MapMatcher  mapMatcher      = null;
+    private boolean     roadGraphInit   = false;
+
+    /**
+    *** Constructor
+    *** @param name    The name of this RouteProvider
+    *** @param key     The access key (not used)
+    *** @param rtProps The properties (may be null)
+    **/
+    public LocalRouteProvider(String name, String key, RTProperties rtProps)
+    {
+        super(name, key, rtProps);
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Returns true if locally resolved, false otherwise.
+    *** @return Always true (resolved from a local road graph)
+    **/
+    public boolean isFastOperation()
+    {
+        return true;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the MapMatcher (road graph loaded on first use)
+    *** @return The MapMatcher, or null if the road graph is not configured or unavailable
+    **/
+    public synchronized MapMatcher getMapMatcher()
+    {
+        if (!this.roadGraphInit) {
+            this.roadGraphInit = true;
+            RTProperties rtp = this.getProperties();
+            String fileName = rtp.getString(PROP_graphFile, null);
+            if (StringTools.isBlank(fileName)) {
+                Print.logError("["+this.getName()+"] RoadGraph '"+PROP_graphFile+"' not specified");
+            } else {
+                File file = new File(fileName);
+                if (!file.isAbsolute() && (RTConfig.getLoadedConfigDir() != null)) {
+                    file = new File(RTConfig.getLoadedConfigDir(), fileName);
+                }
+                try {
+                    long startMS = DateTime.getCurrentTimeMillis();
+                    this.roadGraph = new RoadGraph(file);
+                    long deltaMS = DateTime.getCurrentTimeMillis() - startMS;
+                    Print.logInfo("["+this.getName()+"] RoadGraph loaded: " + this.roadGraph + " [" + deltaMS + " ms]");
+                    this.mapMatcher = this._createMapMatcher(this.roadGraph, rtp);
+                } catch (IOException ioe) {
+                    Print.logError("["+this.getName()+"] Unable to load RoadGraph: " + ioe);
+                    this.roadGraph  = null;
+                    this.mapMatcher = null;
+                }
+            }
+        }
+        return this.mapMatcher;
+    }
+
+    /**
+    *** Creates a MapMatcher with the matching properties
+    **/
+    private MapMatcher _createMapMatcher(RoadGraph graph, RTProperties rtp)
+    {
+        MapMatcher mm = new MapMatcher(graph);
+        mm.setSigmaMeters(       rtp.getDouble(PROP_sigmaMeters       , MapMatcher.DEFAULT_SIGMA_METERS    ));
+        mm.setBetaMeters(        rtp.getDouble(PROP_betaMeters        , MapMatcher.DEFAULT_BETA_METERS     ));
+        mm.setSearchRadiusMeters(rtp.getDouble(PROP_searchRadiusMeters, MapMatcher.DEFAULT_SEARCH_RADIUS_M ));
+        mm.setMaxCandidates(     rtp.getInt(   PROP_maxCandidates     , MapMatcher.DEFAULT_MAX_CANDIDATES  ));
+        mm.setMaxRouteFactor(    rtp.getDouble(PROP_maxRouteFactor    , MapMatcher.DEFAULT_MAX_ROUTE_FACTOR));
+        mm.setMaxLag(            rtp.getInt(   PROP_maxLag            , MapMatcher.DEFAULT_MAX_LAG         ));
+        return mm;
+    }
+
+    /**
+    *** Creates an incremental snap-to-road session, to which events may be added as they
+    *** arrive (ie. one session per active trip).  See "MapMatcher.Session".
+    *** @return The Session, or null if the road graph is not available
+    **/
+    public MapMatcher.Session createSnapToRoadSession()
+    {
+        MapMatcher mm = this.getMapMatcher();
+        return (mm != null)? mm.createSession() : null;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Directions are not supported by this RouteProvider
+    *** @return Always null
+    **/
+    public GeoRoute getDirections(String fromAddr, String toAddr, Locale locale, RTProperties attr)
+    {
+        Print.logWarn("["+this.getName()+"] Directions not supported");
+        return null;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Returns a GeoRoute of the requested path which has been snapped to the nearest road
+    *** @param path      An array of GeoPoints representing the path
+    *** @param locale    The locale
+    *** @param attr      The routing attributes
+    *** @return The requested route (or null if no route is found)
+    **/
+    public GeoRoute getSnapToRoad(GeoPointProvider path[], Locale locale, RTProperties attr)
+    {
+
+        /* nothing to match? */
+        if (ListTools.size(path) <= 0) {
+            return null;
+        }
+
+        /* matcher */
+        MapMatcher mm = this.getMapMatcher();
+        if (mm == null) {
+            return null;
+        }
+
+        /* match */
+        long startMS = DateTime.getCurrentTimeMillis();
+        java.util.List<GeoPoint> pathGP = mm.match(path);
+        if (ListTools.isEmpty(pathGP)) {
+            return null;
+        }
+
+        /* first/last original index */
+        int firstOriginalIndex = -1;
+        int lastOriginalIndex  = -1;
+        for (GeoPoint gp : pathGP) {
+            if (gp instanceof GeoRoute.GPNode) {
+                int ndx = ((GeoRoute.GPNode)gp).getOriginalIndex();
+                if (ndx >= 0) {
+                    if (firstOriginalIndex < 0) {
+                        firstOriginalIndex = ndx;
+                    }
+                    lastOriginalIndex = ndx;
+                }
+            }
+        }
+
+        /* return GeoRoute */
+        GeoRoute route = new GeoRoute(pathGP);
+        route.setElapsedTimeMS(DateTime.getCurrentTimeMillis() - startMS);
+        route.setFirstOriginalIndex(firstOriginalIndex);
+        route.setLastOriginalIndex(lastOriginalIndex);
+        return route;
+
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** SAX handler for OpenStreetMap XML nodes and road ways
+    **/
+    private static class OSMHandler
+        extends DefaultHandler
+    {
+        private RoadGraph.Builder   builder     = null;
+        private Set<String>         highways    = null;
+        private long                refs[]      = new long[256];
+        private int                 refCount    = 0;
+        private boolean             inWay       = false;
+        private String              highway     = null;
+        private String              oneway      = null;
+        private boolean             roundabout  = false;
+        private int                 roadCount   = 0;
+        OSMHandler(RoadGraph.Builder builder, Set<String> highways) {
+            this.builder  = builder;
+            this.highways = highways;
+        }
+        public void startElement(String uri, String localName, String qName, Attributes attr) {
+            if (qName.equals("node")) {
+                long   id  = StringTools.parseLong(attr.getValue("id"), 0L);
+                double lat = StringTools.parseDouble(attr.getValue("lat"), 999.0);
+                double lon = StringTools.parseDouble(attr.getValue("lon"), 999.0);
+                this.builder.addNode(id, lat, lon);
+            } else
+            if (qName.equals("way")) {
+                this.inWay      = true;
+                this.refCount   = 0;
+                this.highway    = null;
+                this.oneway     = null;
+                this.roundabout = false;
+            } else
+            if (this.inWay && qName.equals("nd")) {
+                if (this.refCount >= this.refs.length) {
+                    this.refs = Arrays.copyOf(this.refs, this.refs.length * 2);
+                }
+                this.refs[this.refCount++] = StringTools.parseLong(attr.getValue("ref"), 0L);
+            } else
+            if (this.inWay && qName.equals("tag")) {
+                String k = attr.getValue("k");
+                String v = attr.getValue("v");
+                if ("highway".equals(k)) {
+                    this.highway = v;
+                } else
+                if ("oneway".equals(k)) {
+                    this.oneway = v;
+                } else
+                if ("junction".equals(k) && ("roundabout".equals(v) || "circular".equals(v))) {
+                    this.roundabout = true;
+                }
+            }
+        }
+        public void endElement(String uri, String localName, String qName) {
+            if (qName.equals("way")) {
+                this.inWay = false;
+                if ((this.highway == null) || !this.highways.contains(this.highway)) {
+                    return;
+                }
+                boolean oneWay;
+                if ("-1".equals(this.oneway) || "reverse".equals(this.oneway)) {
+                    // -- one-way against the node order: reverse the references
+                    for (int i = 0, j = this.refCount - 1; i < j; i++, j--) {
+                        long t = this.refs[i]; this.refs[i] = this.refs[j]; this.refs[j] = t;
+                    }
+                    oneWay = true;
+                } else
+                if ("yes".equals(this.oneway) || "true".equals(this.oneway) || "1".equals(this.oneway)) {
+                    oneWay = true;
+                } else
+                if ("no".equals(this.oneway)) {
+                    oneWay = false;
+                } else {
+                    // -- implied one-way
+                    oneWay = this.roundabout || this.highway.equals("motorway") || this.highway.equals("motorway_link");
+                }
+                this.builder.addWay(this.refs, this.refCount, oneWay);
+                this.roadCount++;
+            }
+        }
+    }
+
+    /**
+    *** Imports the nodes and road ways from an OpenStreetMap XML file (optionally gzipped)
+    *** into the RoadGraph builder
+    *** @return The number of road ways imported
+    **/
+    public static int importOSM(RoadGraph.Builder rgb, File file, Set<String> highways)
+        throws IOException
+    {
+        InputStream fis = new BufferedInputStream(new FileInputStream(file), 65536);
+        if (file.getName().endsWith(".gz")) {
+            fis = new GZIPInputStream(fis, 65536);
+        }
+        try {
+            SAXParser parser = SAXParserFactory.newInstance().newSAXParser();
+            OSMHandler handler = new OSMHandler(rgb, highways);
+            parser.parse(fis, handler);
+            return handler.roadCount;
+        } catch (IOException ioe) {
+            throw ioe;
+        } catch (Exception e) { // ParserConfigurationException, SAXException
+            throw new IOException("Unable to parse OSM file: " + file, e);
+        } finally {
+            fis.close();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private static final String ARG_BUILD[]         = { "build"                  };
+    private static final String ARG_GRAPH[]         = { "graph"   , "graphFile"  };
+    private static final String ARG_OSM[]           = { "osm"                    };
+    private static final String ARG_HIGHWAYS[]      = { "highways"               };
+    private static final String ARG_PATH[]          = { "path"                   };
+
+    private static void usage()
+    {
+        Print.sysPrintln("Usage:");
+        Print.sysPrintln("  java ... " + LocalRouteProvider.class.getName() + " {options}");
+        Print.sysPrintln("Build Options:");
+        Print.sysPrintln("  -build -graph=<file> -osm=<file> [-highways=<list>]");
+        Print.sysPrintln("     -osm=<file>       OpenStreetMap XML extract (ie. 'region.osm.gz')");
+        Print.sysPrintln("     -highways=<list>  Comma-separated OSM 'highway' values to import");
+        Print.sysPrintln("Snap-to-road Options:");
+        Print.sysPrintln("  -graph=<file> -path=<lat>/<lon>,<lat>/<lon>,...");
+        System.exit(1);
+    }
+
+    /**
+    *** Main entery point for building the road graph, and for debugging/testing
+    **/
+    public static void main(String argv[])
+    {
+        RTConfig.setCommandLineArgs(argv);
+        Print.setAllOutputToStdout(true);
+
+        /* graph file */
+        String graphName = RTConfig.getString(ARG_GRAPH, null);
+        if (StringTools.isBlank(graphName)) {
+            Print.sysPrintln("ERROR: Missing '-graph' file");
+            usage();
+        }
+        File graphFile = new File(graphName);
+
+        /* build */
+        if (RTConfig.getBoolean(ARG_BUILD,false)) {
+            String osm = RTConfig.getString(ARG_OSM, null);
+            if (StringTools.isBlank(osm)) {
+                Print.sysPrintln("ERROR: Missing '-osm' file");
+                usage();
+            }
+            String hwList = RTConfig.getString(ARG_HIGHWAYS, null);
+            Set<String> highways = new HashSet<String>(Arrays.asList(
+                !StringTools.isBlank(hwList)? StringTools.split(hwList,',') : DEFAULT_HIGHWAYS));
+            try {
+                long startMS = System.currentTimeMillis();
+                RoadGraph.Builder rgb = new RoadGraph.Builder();
+                int wc = importOSM(rgb, new File(osm), highways);
+                Print.sysPrintln("Imported nodes: " + rgb.getNodeCount() + ", roads: " + wc);
+                RoadGraph rg = rgb.build();
+                rg.write(graphFile);
+                Print.sysPrintln("Wrote graph: " + graphFile + " [" + graphFile.length() + " bytes, " +
+                    rg.getNodeCount() + " nodes, " + rg.getSegmentCount() + " segments, " +
+                    (System.currentTimeMillis() - startMS) + " ms]");
+                System.exit(0);
+            } catch (IOException ioe) {
+                Print.sysPrintln("ERROR: " + ioe);
+                System.exit(99);
+            }
+        }
+
+        /* snap-to-road */
+        String pathList[] = StringTools.split(RTConfig.getString(ARG_PATH,""),',');
+        java.util.List<GeoPoint> path = new Vector<GeoPoint>();
+        for (String p : pathList) {
+            GeoPoint gp = new GeoPoint(p);
+            if (gp.isValid()) {
+                path.add(gp);
+            }
+        }
+        if (path.isEmpty()) {
+            Print.sysPrintln("ERROR: Invalid/missing path specified");
+            usage();
+        }
+        RTProperties rtp = new RTProperties();
+        rtp.setString(PROP_graphFile, graphFile.getAbsolutePath());
+        LocalRouteProvider lrp = new LocalRouteProvider("local", null, rtp);
+        GeoRoute route = lrp.getSnapToRoad(path.toArray(new GeoPointProvider[path.size()]), null, null);
+        if (route != null) {
+            route.printRoute();
+            Print.sysPrintln("Elapsed: " + route.getElapsedTimeMS() + " ms");
+        } else {
+            Print.sysPrintln("ERROR: Unable to snap path to road");
+        }
+
+    }
+
+}
@@ -0,0 +1,697 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2020, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Hidden-Markov-Model (Viterbi) map-matching over a RoadGraph
+// ----------------------------------------------------------------------------
+// Notes:
+// - Each GPS observation has a set of candidate road positions (the nearest point on each
+//   nearby road segment).  The most likely sequence of candidates is selected with the
+//   Viterbi algorithm, using:
+//     - Emission probability: Gaussian in the distance from the observation to the candidate
+//       (log-probability "-0.5 * (distance / sigma)^2").
+//     - Transition probability: exponential in the difference between the road (shortest
+//       path) distance and the straight-line distance between consecutive observations
+//       (log-probability "-|route - straight| / beta").
+//   [Newson/Krumm, "Hidden Markov Map Matching Through Noise and Sparseness", 2009]
+// - Matching is incremental (see "MapMatcher.Session"): observations are added as they
+//   arrive, and matched points are released as soon as all surviving Viterbi paths agree on
+//   them (or the configured maximum lag is reached), so a trip does not need to be complete
+//   before its earlier points are matched.
+// - Observations with no nearby road, or with no feasible route from the prior observation,
+//   break the match.  Unmatched observations are returned at their original location.
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19  GTS Development Team
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.routing.local;
+
+import java.lang.*;
+import java.util.*;
+
+import org.opengts.util.*;
+
+public class MapMatcher
+{
+
+    // ------------------------------------------------------------------------
+
+    public  static final double DEFAULT_SIGMA_METERS        = 10.0;
+    public  static final double DEFAULT_BETA_METERS         = 10.0;
+    public  static final double DEFAULT_SEARCH_RADIUS_M     = 50.0;
+    public  static final int    DEFAULT_MAX_CANDIDATES      = 8;
+    public  static final double DEFAULT_MAX_ROUTE_FACTOR    = 3.0;
+    public  static final int    DEFAULT_MAX_LAG             = 32;
+
+    private static final double NO_SCORE                    = Double.NEGATIVE_INFINITY;
+
+    // ------------------------------------------------------------------------
+
+    private RoadGraph   graph           = null;
+    private double      sigmaM          = DEFAULT_SIGMA_METERS;
+    private double      betaM           = DEFAULT_BETA_METERS;
+    private double      searchRadiusM   = DEFAULT_SEARCH_RADIUS_M;
+    private int         maxCandidates   = DEFAULT_MAX_CANDIDATES;
+    private double      maxRouteFactor  = DEFAULT_MAX_ROUTE_FACTOR;
+    private int         maxLag          = DEFAULT_MAX_LAG;
+
+    /**
+    *** Constructor
+    *** @param graph  The RoadGraph
+    **/
+    public MapMatcher(RoadGraph graph)
+    {
+        super();
+        this.graph = graph;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the RoadGraph
+    **/
+    public RoadGraph getRoadGraph()
+    {
+        return this.graph;
+    }
+
+    /**
+    *** Sets the GPS measurement noise standard deviation (meters)
+    **/
+    public void setSigmaMeters(double sigmaM)
+    {
+        this.sigmaM = (sigmaM > 0.0)? sigmaM : DEFAULT_SIGMA_METERS;
+    }
+
+    /**
+    *** Sets the transition probability scale (meters)
+    **/
+    public void setBetaMeters(double betaM)
+    {
+        this.betaM = (betaM > 0.0)? betaM : DEFAULT_BETA_METERS;
+    }
+
+    /**
+    *** Sets the candidate search radius (meters)
+    **/
+    public void setSearchRadiusMeters(double radiusM)
+    {
+        this.searchRadiusM = (radiusM > 0.0)? radiusM : DEFAULT_SEARCH_RADIUS_M;
+    }
+
+    /**
+    *** Sets the maximum number of candidates per observation
+    **/
+    public void setMaxCandidates(int max)
+    {
+        this.maxCandidates = (max > 0)? Math.min(max, 64) : DEFAULT_MAX_CANDIDATES;
+    }
+
+    /**
+    *** Sets the maximum ratio of route distance to straight-line distance between observations
+    **/
+    public void setMaxRouteFactor(double factor)
+    {
+        this.maxRouteFactor = (factor >= 1.0)? factor : DEFAULT_MAX_ROUTE_FACTOR;
+    }
+
+    /**
+    *** Sets the maximum number of unresolved observations held by a Session
+    **/
+    public void setMaxLag(int maxLag)
+    {
+        this.maxLag = (maxLag > 1)? maxLag : DEFAULT_MAX_LAG;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Creates a new incremental matching Session (not thread-safe, one per trip)
+    **/
+    public Session createSession()
+    {
+        return new Session();
+    }
+
+    /**
+    *** Matches the specified path
+    *** @param path  The path to match
+    *** @return The matched route points (see "Session.add")
+    **/
+    public java.util.List<GeoPoint> match(GeoPointProvider path[])
+    {
+        Session s = this.createSession();
+        java.util.List<GeoPoint> out = new Vector<GeoPoint>();
+        if (path != null) {
+            for (GeoPointProvider gpp : path) {
+                s.add(gpp, out);
+            }
+        }
+        s.flush(out);
+        return out;
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Viterbi lattice column (one observation)
+    **/
+    private static class Step
+    {
+        int     origIndex   = -1;
+        double  obsLat      = 0.0;
+        double  obsLon      = 0.0;
+        int     count       = 0;
+        int     seg[];
+        double  distM[];
+        double  offsetM[];
+        double  score[];
+        int     back[];
+        Step(int max) {
+            this.seg     = new int[max];
+            this.distM   = new double[max];
+            this.offsetM = new double[max];
+            this.score   = new double[max];
+            this.back    = new int[max];
+        }
+    }
+
+    /**
+    *** Incremental (streaming) matching session
+    **/
+    public class Session
+    {
+
+        private java.util.List<Step>    open        = new Vector<Step>();
+        private int                     nextIndex   = 0;
+        private RouteSearch             search      = new RouteSearch(MapMatcher.this.graph, 2.0 * MapMatcher.this.sigmaM);
+        private double                  transM[]    = new double[MapMatcher.this.maxCandidates];
+
+        /* last released candidate (route origin for the next released point) */
+        private int                     lastSeg     = -1;
+        private double                  lastOffsetM = 0.0;
+        private double                  lastObsLat  = 0.0;
+        private double                  lastObsLon  = 0.0;
+
+        private Session() {
+            super();
+        }
+
+        /**
+        *** Gets the number of observations not yet released
+        **/
+        public int getPendingCount() {
+            return this.open.size();
+        }
+
+        /**
+        *** Adds an observation.  Matched points which have been resolved are appended to
+        *** 'out' as GeoRoute.GPNode instances (with the original index of the observation,
+        *** counted from the first observation added to this session), with the road shape
+        *** points between consecutive matched observations added as GeoPoint instances.
+        *** Observations with an invalid GeoPoint are counted, but ignored.
+        *** @param gpp  The observation
+        *** @param out  The list to which resolved points are appended
+        *** @return The number of points appended
+        **/
+        public int add(GeoPointProvider gpp, java.util.List<GeoPoint> out) {
+            int origIndex = this.nextIndex++;
+            GeoPoint gp = (gpp != null)? gpp.getGeoPoint() : null;
+            if (!GeoPoint.isValid(gp)) {
+                return 0;
+            }
+            int outSize = out.size();
+
+            /* candidates */
+            Step step = this._newStep(origIndex, gp.getLatitude(), gp.getLongitude());
+            if (step.count <= 0) {
+                // -- no nearby road: release pending, and return this point unmatched
+                this.flush(out);
+                GeoRoute.GPNode node = new GeoRoute.GPNode(step.obsLat, step.obsLon);
+                node.setOriginalIndex(origIndex);
+                out.add(node);
+                this.lastSeg = -1;
+                return out.size() - outSize;
+            }
+
+            /* transitions from the prior observation */
+            if (!this.open.isEmpty()) {
+                Step prev = this.open.get(this.open.size() - 1);
+                if (!this._transition(prev, step)) {
+                    // -- no feasible route: release pending, start a new match
+                    this.flush(out);
+                    this.lastSeg = -1;
+                    this._initScores(step);
+                }
+            } else {
+                this._initScores(step);
+            }
+            this.open.add(step);
+
+            /* release resolved observations */
+            int resolved = this._findConverged();
+            if ((resolved < 0) && (this.open.size() > MapMatcher.this.maxLag)) {
+                // -- maximum lag reached: commit to the current best path
+                resolved = this.open.size() - 2;
+                int keep = this._traceTo(_bestCandidate(step), resolved);
+                for (int j = 0; j < step.count; j++) {
+                    if (step.back[j] != keep) {
+                        step.score[j] = NO_SCORE;
+                    }
+                }
+            }
+            if (resolved >= 0) {
+                int c = this._traceTo(-1, resolved);
+                this._release(resolved, c, out);
+            }
+            return out.size() - outSize;
+
+        }
+
+        /**
+        *** Releases all pending observations along the current best path
+        *** @param out  The list to which resolved points are appended
+        *** @return The number of points appended
+        **/
+        public int flush(java.util.List<GeoPoint> out) {
+            int outSize = out.size();
+            if (!this.open.isEmpty()) {
+                int last = this.open.size() - 1;
+                this._release(last, _bestCandidate(this.open.get(last)), out);
+            }
+            return out.size() - outSize;
+        }
+
+        // --------------------------------------------------------------------
+
+        /* creates a Step with the candidates for the observation */
+        private Step _newStep(int origIndex, double lat, double lon) {
+            int max = MapMatcher.this.maxCandidates;
+            Step s = new Step(max);
+            s.origIndex = origIndex;
+            s.obsLat    = lat;
+            s.obsLon    = lon;
+            s.count     = MapMatcher.this.graph.findNearestSegments(lat, lon,
+                MapMatcher.this.searchRadiusM, s.seg, s.distM, s.offsetM, max);
+            return s;
+        }
+
+        /* emission log-probability */
+        private double _emission(Step s, int c) {
+            double z = s.distM[c] / MapMatcher.this.sigmaM;
+            return -0.5 * z * z;
+        }
+
+        /* first observation of a match: emission only */
+        private void _initScores(Step s) {
+            for (int c = 0; c < s.count; c++) {
+                s.score[c] = this._emission(s, c);
+                s.back[c]  = -1;
+            }
+        }
+
+        /* Viterbi update, returns false if no candidate is reachable */
+        private boolean _transition(Step prev, Step next) {
+            double straightM = _metersBetween(prev.obsLat, prev.obsLon, next.obsLat, next.obsLon);
+            double maxRouteM = (straightM * MapMatcher.this.maxRouteFactor) + (2.0 * MapMatcher.this.searchRadiusM);
+            for (int j = 0; j < next.count; j++) {
+                next.score[j] = NO_SCORE;
+                next.back[j]  = -1;
+            }
+            boolean reachable = false;
+            for (int i = 0; i < prev.count; i++) {
+                if (prev.score[i] == NO_SCORE) {
+                    continue;
+                }
+                this.search.routeDistances(prev.seg[i], prev.offsetM[i], next, maxRouteM, this.transM);
+                for (int j = 0; j < next.count; j++) {
+                    double routeM = this.transM[j];
+                    if (routeM > maxRouteM) {
+                        continue; // unreachable
+                    }
+                    double sc = prev.score[i] - (Math.abs(routeM - straightM) / MapMatcher.this.betaM);
+                    if (sc > next.score[j]) {
+                        next.score[j] = sc;
+                        next.back[j]  = i;
+                        reachable     = true;
+                    }
+                }
+            }
+            if (!reachable) {
+                return false;
+            }
+            // -- add emission, normalize to the best score
+            double best = NO_SCORE;
+            for (int j = 0; j < next.count; j++) {
+                if (next.score[j] != NO_SCORE) {
+                    next.score[j] += this._emission(next, j);
+                    best = Math.max(best, next.score[j]);
+                }
+            }
+            for (int j = 0; j < next.count; j++) {
+                if (next.score[j] != NO_SCORE) {
+                    next.score[j] -= best;
+                }
+            }
+            return true;
+        }
+
+        /* latest open step index at which all surviving paths converge, or -1 */
+        private int _findConverged() {
+            int t = this.open.size() - 1;
+            Step s = this.open.get(t);
+            long alive = 0L;
+            for (int c = 0; c < s.count; c++) {
+                if (s.score[c] != NO_SCORE) { alive |= (1L << c); }
+            }
+            for (; t > 0; t--) {
+                Step cur = this.open.get(t);
+                long prior = 0L;
+                for (int c = 0; c < cur.count; c++) {
+                    if ((alive & (1L << c)) != 0L) { prior |= (1L << cur.back[c]); }
+                }
+                alive = prior;
+                if (Long.bitCount(alive) == 1) {
+                    return t - 1;
+                }
+            }
+            return -1;
+        }
+
+        /* candidate index at open step 't' on the path ending at 'c' of the last step (-1: converged path) */
+        private int _traceTo(int c, int t) {
+            int last = this.open.size() - 1;
+            if (c < 0) {
+                c = _bestCandidate(this.open.get(last));
+            }
+            for (int k = last; k > t; k--) {
+                c = this.open.get(k).back[c];
+            }
+            return c;
+        }
+
+        /* releases open steps [0..t], with candidate 'c' chosen at step 't' */
+        private void _release(int t, int c, java.util.List<GeoPoint> out) {
+            int chosen[] = new int[t + 1];
+            chosen[t] = c;
+            for (int k = t; k > 0; k--) {
+                chosen[k - 1] = this.open.get(k).back[chosen[k]];
+            }
+            RoadGraph g = MapMatcher.this.graph;
+            for (int k = 0; k <= t; k++) {
+                Step   s   = this.open.get(k);
+                int    sc  = chosen[k];
+                int    seg = s.seg[sc];
+                double ofs = s.offsetM[sc];
+                // -- road shape points from the prior released point
+                if (this.lastSeg >= 0) {
+                    double straightM = _metersBetween(this.lastObsLat, this.lastObsLon, s.obsLat, s.obsLon);
+                    double maxRouteM = (straightM * MapMatcher.this.maxRouteFactor) + (2.0 * MapMatcher.this.searchRadiusM);
+                    int nodes[] = this.search.routeNodes(this.lastSeg, this.lastOffsetM, seg, ofs, maxRouteM);
+                    if (nodes != null) {
+                        for (int n : nodes) {
+                            out.add(new GeoPoint(g.getNodeLatitude(n), g.getNodeLongitude(n)));
+                        }
+                    }
+                }
+                GeoRoute.GPNode node = new GeoRoute.GPNode(g.getSegmentLatitude(seg,ofs), g.getSegmentLongitude(seg,ofs));
+                node.setOriginalIndex(s.origIndex);
+                out.add(node);
+                this.lastSeg     = seg;
+                this.lastOffsetM = ofs;
+                this.lastObsLat  = s.obsLat;
+                this.lastObsLon  = s.obsLon;
+            }
+            // -- remaining open steps: the first now originates from the released candidate
+            for (int k = 0; k <= t; k++) {
+                this.open.remove(0);
+            }
+            if (!this.open.isEmpty()) {
+                Step s = this.open.get(0);
+                for (int j = 0; j < s.count; j++) {
+                    if ((s.back[j] != c) && (s.back[j] >= 0)) {
+                        s.score[j] = NO_SCORE;
+                    }
+                    s.back[j] = -1;
+                }
+            }
+        }
+
+    }
+
+    /* best scoring candidate of a step */
+    private static int _bestCandidate(Step s)
+    {
+        int best = 0;
+        for (int c = 1; c < s.count; c++) {
+            if (s.score[c] > s.score[best]) { best = c; }
+        }
+        return best;
+    }
+
+    /* local planar distance (meters) */
+    private static double _metersBetween(double lat1, double lon1, double lat2, double lon2)
+    {
+        double cosLat = Math.cos(((lat1 + lat2) / 2.0) * GeoPoint.RADIANS);
+        double dy = lat2 - lat1;
+        double dx = (lon2 - lon1) * cosLat;
+        return Math.sqrt((dx * dx) + (dy * dy)) * RoadGraph.METERS_PER_DEGREE;
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Bounded shortest-path search between road positions.  Node distances are held in a
+    *** small open-addressing table, so the cost is proportional to the number of nodes within
+    *** the search bound, not to the size of the graph.
+    **/
+    private static class RouteSearch
+    {
+
+        private RoadGraph   graph       = null;
+        private double      backTolM    = 0.0;  // allowed backward movement on one-way segments (GPS noise)
+
+        /* node table (open addressing) */
+        private int         tKey[]      = new int[1024];
+        private double      tDist[]     = new double[1024];
+        private int         tPred[]     = new int[1024];    // adjacency entry used to reach node, -1 for origin
+        private int         tSize       = 0;
+
+        /* binary heap */
+        private double      hDist[]     = new double[256];
+        private int         hNode[]     = new int[256];
+        private int         hSize       = 0;
+
+        RouteSearch(RoadGraph graph, double backTolM) {
+            this.graph    = graph;
+            this.backTolM = backTolM;
+        }
+
+        // --------------------------------------------------------------------
+
+        private void _clear() {
+            Arrays.fill(this.tKey, -1);
+            this.tSize = 0;
+            this.hSize = 0;
+        }
+
+        private int _slot(int node) {
+            int mask = this.tKey.length - 1;
+            int i = (node * 0x9E3779B1) & mask;
+            while ((this.tKey[i] >= 0) && (this.tKey[i] != node)) {
+                i = (i + 1) & mask;
+            }
+            return i;
+        }
+
+        private double _getDist(int node) {
+            int i = this._slot(node);
+            return (this.tKey[i] == node)? this.tDist[i] : Double.POSITIVE_INFINITY;
+        }
+
+        private void _put(int node, double dist, int pred) {
+            if (((this.tSize + 1) * 2) > this.tKey.length) {
+                int    oKey[]  = this.tKey;
+                double oDist[] = this.tDist;
+                int    oPred[] = this.tPred;
+                this.tKey  = new int[oKey.length * 2];
+                this.tDist = new double[oKey.length * 2];
+                this.tPred = new int[oKey.length * 2];
+                Arrays.fill(this.tKey, -1);
+                this.tSize = 0;
+                for (int i = 0; i < oKey.length; i++) {
+                    if (oKey[i] >= 0) { this._put(oKey[i], oDist[i], oPred[i]); }
+                }
+            }
+            int i = this._slot(node);
+            if (this.tKey[i] != node) {
+                this.tKey[i] = node;
+                this.tSize++;
+            }
+            this.tDist[i] = dist;
+            this.tPred[i] = pred;
+        }
+
+        private void _push(int node, double dist) {
+            if (this.hSize >= this.hDist.length) {
+                this.hDist = Arrays.copyOf(this.hDist, this.hSize * 2);
+                this.hNode = Arrays.copyOf(this.hNode, this.hSize * 2);
+            }
+            int i = this.hSize++;
+            while (i > 0) {
+                int p = (i - 1) >> 1;
+                if (this.hDist[p] <= dist) { break; }
+                this.hDist[i] = this.hDist[p];
+                this.hNode[i] = this.hNode[p];
+                i = p;
+            }
+            this.hDist[i] = dist;
+            this.hNode[i] = node;
+        }
+
+        private int _pop() {
+            int    top  = this.hNode[0];
+            double dist = this.hDist[--this.hSize];
+            int    node = this.hNode[this.hSize];
+            int i = 0;
+            for (;;) {
+                int c = (i << 1) + 1;
+                if (c >= this.hSize) { break; }
+                if (((c + 1) < this.hSize) && (this.hDist[c + 1] < this.hDist[c])) { c++; }
+                if (this.hDist[c] >= dist) { break; }
+                this.hDist[i] = this.hDist[c];
+                this.hNode[i] = this.hNode[c];
+                i = c;
+            }
+            this.hDist[i] = dist;
+            this.hNode[i] = node;
+            return top;
+        }
+
+        /* Dijkstra from a position on 'seg', up to 'maxM' meters */
+        private void _search(int seg, double offsetM, double maxM) {
+            RoadGraph g = this.graph;
+            this._clear();
+            double fwdM = g.getSegmentLength(seg) - offsetM;
+            this._put(g.getSegmentTo(seg), fwdM, -1);
+            this._push(g.getSegmentTo(seg), fwdM);
+            if (!g.isOneWay(seg)) {
+                this._put(g.getSegmentFrom(seg), offsetM, -1);
+                this._push(g.getSegmentFrom(seg), offsetM);
+            }
+            while (this.hSize > 0) {
+                double d = this.hDist[0];
+                int    n = this._pop();
+                if (d > maxM) {
+                    break;
+                }
+                if (d > this._getDist(n)) {
+                    continue; // stale heap entry
+                }
+                for (int a = g.getAdjacencyStart(n); a < g.getAdjacencyEnd(n); a++) {
+                    int    adj  = g.getAdjacency(a);
+                    int    s    = adj >>> 1;
+                    int    next = ((adj & 1) == 0)? g.getSegmentTo(s) : g.getSegmentFrom(s);
+                    double nd   = d + g.getSegmentLength(s);
+                    if (nd < this._getDist(next)) {
+                        this._put(next, nd, adj);
+                        this._push(next, nd);
+                    }
+                }
+            }
+        }
+
+        /* route distance to a position on 'toSeg' (after "_search"), or +infinity */
+        private double _distanceTo(int fromSeg, double fromOfs, int toSeg, double toOfs) {
+            RoadGraph g = this.graph;
+            if (fromSeg == toSeg) {
+                if (toOfs >= fromOfs) {
+                    return toOfs - fromOfs;
+                } else
+                if (!g.isOneWay(fromSeg) || ((fromOfs - toOfs) <= this.backTolM)) {
+                    return fromOfs - toOfs;
+                }
+            }
+            double viaFrom = this._getDist(g.getSegmentFrom(toSeg)) + toOfs;
+            double viaTo   = g.isOneWay(toSeg)? Double.POSITIVE_INFINITY :
+                (this._getDist(g.getSegmentTo(toSeg)) + (g.getSegmentLength(toSeg) - toOfs));
+            return Math.min(viaFrom, viaTo);
+        }
+
+        // --------------------------------------------------------------------
+
+        /**
+        *** Computes the route distance from a position on 'seg' to each candidate of 'to'
+        **/
+        void routeDistances(int seg, double offsetM, Step to, double maxM, double distM[]) {
+            this._search(seg, offsetM, maxM);
+            for (int j = 0; j < to.count; j++) {
+                distM[j] = this._distanceTo(seg, offsetM, to.seg[j], to.offsetM[j]);
+            }
+        }
+
+        /**
+        *** Returns the graph nodes along the route between the specified positions
+        *** (empty if both are on the same segment, null if not reachable)
+        **/
+        int[] routeNodes(int fromSeg, double fromOfs, int toSeg, double toOfs, double maxM) {
+            RoadGraph g = this.graph;
+            this._search(fromSeg, fromOfs, maxM);
+            double sameM = Double.POSITIVE_INFINITY;
+            if (fromSeg == toSeg) {
+                if ((toOfs >= fromOfs) || !g.isOneWay(fromSeg) || ((fromOfs - toOfs) <= this.backTolM)) {
+                    sameM = Math.abs(toOfs - fromOfs);
+                }
+            }
+            double viaFrom = this._getDist(g.getSegmentFrom(toSeg)) + toOfs;
+            double viaTo   = g.isOneWay(toSeg)? Double.POSITIVE_INFINITY :
+                (this._getDist(g.getSegmentTo(toSeg)) + (g.getSegmentLength(toSeg) - toOfs));
+            if ((sameM <= viaFrom) && (sameM <= viaTo)) {
+                return (sameM < Double.POSITIVE_INFINITY)? new int[0] : null;
+            } else
+            if (Math.min(viaFrom, viaTo) > maxM) {
+                return null;
+            }
+            // -- walk predecessors back from the entry node of 'toSeg'
+            int node = (viaFrom <= viaTo)? g.getSegmentFrom(toSeg) : g.getSegmentTo(toSeg);
+            int path[] = new int[16];
+            int len = 0;
+            for (;;) {
+                if (len >= path.length) { path = Arrays.copyOf(path, len * 2); }
+                path[len++] = node;
+                int i = this._slot(node);
+                int pred = (this.tKey[i] == node)? this.tPred[i] : -1;
+                if (pred < 0) {
+                    break; // origin
+                }
+                int s = pred >>> 1;
+                node = ((pred & 1) == 0)? g.getSegmentFrom(s) : g.getSegmentTo(s);
+            }
+            int nodes[] = new int[len];
+            for (int k = 0; k < len; k++) {
+                nodes[k] = path[len - 1 - k];
+            }
+            return nodes;
+        }
+
+    }
+
+}
@@ -0,0 +1,726 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2020, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Compact road graph (nodes/segments) with a segment spatial index
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19  GTS Development Team
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.routing.local;
+
+import java.lang.*;
+import java.util.*;
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+
+import org.opengts.util.*;
+
+/**
+*** RoadGraph class<br>
+*** A road network held in primitive arrays.  Nodes are the (OpenStreetMap) way points, and
+*** segments are the straight lines between consecutive way points.  The graph is loaded from
+*** a file written by <code>RoadGraph.write</code>, and the derived tables (segment lengths,
+*** node adjacency, and the segment spatial index) are rebuilt on load.
+*** <br>
+*** File layout (big-endian):
+***   [header] [nodeLat: int * nodes] [nodeLon: int * nodes]
+***            [segFrom: int * segs] [segTo: int * segs] [segFlags: byte * segs]
+*** <br>
+*** Adjacency entries are encoded as "(segment << 1) | reverse", where 'reverse' indicates
+*** that the segment is traversed from its 'to' node to its 'from' node.
+*** <br>
+*** A graph is created with the <code>RoadGraph.Builder</code> class (see also the
+*** "LocalRouteProvider" command-line OSM import).
+**/
+public class RoadGraph
+{
+
+    // ------------------------------------------------------------------------
+
+    private static final int    MAGIC                       = 0x52444752; // "RDGR"
+    private static final int    VERSION                     = 1;
+    private static final int    HEADER_SIZE                 = 64;
+
+    private static final double COORD_SCALE                 = 1000000.0;
+
+    public  static final int    FLAG_ONEWAY                 = 0x01;
+
+    /* spatial index cell size (degrees, about 550 meters of latitude) */
+    private static final double SPATIAL_CELL_DEG            = 0.005;
+    private static final int    SPATIAL_ROW_OFS             = 18000;  // 90 / SPATIAL_CELL_DEG
+    private static final int    SPATIAL_COL_OFS             = 36000;  // 180 / SPATIAL_CELL_DEG
+    private static final int    MAX_SEGMENTS                = 1 << 30;
+
+    public  static final double METERS_PER_DEGREE           = GeoPoint.EARTH_MEAN_RADIUS_METERS * GeoPoint.RADIANS;
+
+    // ------------------------------------------------------------------------
+
+    private File    graphFile       = null;
+
+    private int     nodeCount       = 0;
+    private int     nodeLat[]       = null;
+    private int     nodeLon[]       = null;
+
+    private int     segCount        = 0;
+    private int     segFrom[]       = null;
+    private int     segTo[]         = null;
+    private byte    segFlags[]      = null;
+    private float   segLen[]        = null;
+
+    private int     adjStart[]      = null;     // [nodeCount + 1]
+    private int     adjList[]       = null;     // (segment << 1) | reverse
+
+    private long    cellKeys[]      = null;     // sorted spatial cell keys
+    private int     cellStart[]     = null;     // [cellKeys.length + 1]
+    private int     cellSegs[]      = null;     // segment indices
+
+    /**
+    *** Constructor
+    *** @param file  The graph file
+    *** @throws IOException  If the graph cannot be read
+    **/
+    public RoadGraph(File file)
+        throws IOException
+    {
+        super();
+        this.graphFile = file;
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            long len = raf.length();
+            if (len < HEADER_SIZE) {
+                throw new IOException("Invalid road graph (too short): " + file);
+            }
+            FileChannel fc = raf.getChannel();
+            ByteBuffer hdr = fc.map(FileChannel.MapMode.READ_ONLY, 0L, HEADER_SIZE);
+            if (hdr.getInt(0) != MAGIC) {
+                throw new IOException("Invalid road graph (magic): " + file);
+            } else
+            if (hdr.getInt(4) != VERSION) {
+                throw new IOException("Unsupported road graph version: " + hdr.getInt(4));
+            }
+            this.nodeCount = hdr.getInt(8);
+            this.segCount  = hdr.getInt(12);
+            long fileLen   = hdr.getLong(16);
+            long expectLen = HEADER_SIZE + (8L * this.nodeCount) + (9L * this.segCount);
+            if ((this.nodeCount < 0) || (this.segCount < 0) || (fileLen != len) || (expectLen != len)) {
+                throw new IOException("Invalid road graph (truncated): " + file);
+            }
+            long ofs = HEADER_SIZE;
+            this.nodeLat  = _readInts(fc, ofs, this.nodeCount); ofs += 4L * this.nodeCount;
+            this.nodeLon  = _readInts(fc, ofs, this.nodeCount); ofs += 4L * this.nodeCount;
+            this.segFrom  = _readInts(fc, ofs, this.segCount ); ofs += 4L * this.segCount;
+            this.segTo    = _readInts(fc, ofs, this.segCount ); ofs += 4L * this.segCount;
+            this.segFlags = new byte[this.segCount];
+            fc.map(FileChannel.MapMode.READ_ONLY, ofs, this.segCount).get(this.segFlags);
+        } finally {
+            try { raf.close(); } catch (IOException ioe) { /* ignore */ }
+        }
+        this._init();
+    }
+
+    /**
+    *** Constructor (called by Builder)
+    **/
+    private RoadGraph(int nLat[], int nLon[], int nCount, int sFrom[], int sTo[], byte sFlags[], int sCount)
+    {
+        super();
+        this.nodeCount = nCount;
+        this.nodeLat   = nLat;
+        this.nodeLon   = nLon;
+        this.segCount  = sCount;
+        this.segFrom   = sFrom;
+        this.segTo     = sTo;
+        this.segFlags  = sFlags;
+        this._init();
+    }
+
+    /* read int array section */
+    private static int[] _readInts(FileChannel fc, long ofs, int count)
+        throws IOException
+    {
+        int a[] = new int[count];
+        if (count > 0) {
+            fc.map(FileChannel.MapMode.READ_ONLY, ofs, 4L * count).asIntBuffer().get(a);
+        }
+        return a;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Builds the derived tables: segment lengths, adjacency, spatial index
+    **/
+    private void _init()
+    {
+
+        /* segment lengths (meters) */
+        this.segLen = new float[this.segCount];
+        for (int s = 0; s < this.segCount; s++) {
+            int a = this.segFrom[s], b = this.segTo[s];
+            double cosLat = Math.cos(((this.nodeLat[a] + this.nodeLat[b]) / (2.0 * COORD_SCALE)) * GeoPoint.RADIANS);
+            double dy = (this.nodeLat[b] - this.nodeLat[a]) / COORD_SCALE;
+            double dx = ((this.nodeLon[b] - this.nodeLon[a]) / COORD_SCALE) * cosLat;
+            this.segLen[s] = (float)(Math.sqrt((dx * dx) + (dy * dy)) * METERS_PER_DEGREE);
+        }
+
+        /* adjacency (traversable directions only) */
+        this.adjStart = new int[this.nodeCount + 1];
+        for (int s = 0; s < this.segCount; s++) {
+            this.adjStart[this.segFrom[s] + 1]++;
+            if (!this.isOneWay(s)) {
+                this.adjStart[this.segTo[s] + 1]++;
+            }
+        }
+        for (int n = 0; n < this.nodeCount; n++) {
+            this.adjStart[n + 1] += this.adjStart[n];
+        }
+        this.adjList = new int[this.adjStart[this.nodeCount]];
+        int fill[] = Arrays.copyOf(this.adjStart, this.nodeCount);
+        for (int s = 0; s < this.segCount; s++) {
+            this.adjList[fill[this.segFrom[s]]++] = (s << 1);
+            if (!this.isOneWay(s)) {
+                this.adjList[fill[this.segTo[s]]++] = (s << 1) | 1;
+            }
+        }
+
+        /* spatial index: "(cellKey << 30) | segment", sorted */
+        int pairCount = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            long pairs[] = (pass == 1)? new long[pairCount] : null;
+            int  p = 0;
+            for (int s = 0; s < this.segCount; s++) {
+                int a = this.segFrom[s], b = this.segTo[s];
+                int r0 = _cellRow(Math.min(this.nodeLat[a],this.nodeLat[b]) / COORD_SCALE);
+                int r1 = _cellRow(Math.max(this.nodeLat[a],this.nodeLat[b]) / COORD_SCALE);
+                int c0 = _cellCol(Math.min(this.nodeLon[a],this.nodeLon[b]) / COORD_SCALE);
+                int c1 = _cellCol(Math.max(this.nodeLon[a],this.nodeLon[b]) / COORD_SCALE);
+                for (int r = r0; r <= r1; r++) {
+                    for (int c = c0; c <= c1; c++) {
+                        if (pairs != null) {
+                            pairs[p] = (_cellKey(r,c) << 30) | (long)s;
+                        }
+                        p++;
+                    }
+                }
+            }
+            if (pairs == null) {
+                pairCount = p;
+                continue;
+            }
+            Arrays.sort(pairs);
+            int keys = 0;
+            for (int i = 0; i < pairCount; i++) {
+                if ((i == 0) || ((pairs[i] >>> 30) != (pairs[i - 1] >>> 30))) { keys++; }
+            }
+            this.cellKeys  = new long[keys];
+            this.cellStart = new int[keys + 1];
+            this.cellSegs  = new int[pairCount];
+            int k = 0;
+            for (int i = 0; i < pairCount; i++) {
+                long key = pairs[i] >>> 30;
+                if ((i == 0) || (key != (pairs[i - 1] >>> 30))) {
+                    this.cellKeys[k]  = key;
+                    this.cellStart[k] = i;
+                    k++;
+                }
+                this.cellSegs[i] = (int)(pairs[i] & (MAX_SEGMENTS - 1));
+            }
+            this.cellStart[keys] = pairCount;
+        }
+
+    }
+
+    private static int _cellRow(double lat)
+    {
+        return (int)Math.floor(lat / SPATIAL_CELL_DEG) + SPATIAL_ROW_OFS;
+    }
+
+    private static int _cellCol(double lon)
+    {
+        return (int)Math.floor(lon / SPATIAL_CELL_DEG) + SPATIAL_COL_OFS;
+    }
+
+    private static long _cellKey(int row, int col)
+    {
+        return ((long)row << 17) | (long)col;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the graph file (null if built in memory)
+    **/
+    public File getFile()
+    {
+        return this.graphFile;
+    }
+
+    /**
+    *** Gets the number of nodes
+    **/
+    public int getNodeCount()
+    {
+        return this.nodeCount;
+    }
+
+    /**
+    *** Gets the node latitude
+    **/
+    public double getNodeLatitude(int node)
+    {
+        return this.nodeLat[node] / COORD_SCALE;
+    }
+
+    /**
+    *** Gets the node longitude
+    **/
+    public double getNodeLongitude(int node)
+    {
+        return this.nodeLon[node] / COORD_SCALE;
+    }
+
+    /**
+    *** Gets the number of segments
+    **/
+    public int getSegmentCount()
+    {
+        return this.segCount;
+    }
+
+    /**
+    *** Gets the segment 'from' node
+    **/
+    public int getSegmentFrom(int seg)
+    {
+        return this.segFrom[seg];
+    }
+
+    /**
+    *** Gets the segment 'to' node
+    **/
+    public int getSegmentTo(int seg)
+    {
+        return this.segTo[seg];
+    }
+
+    /**
+    *** Gets the segment length (meters)
+    **/
+    public double getSegmentLength(int seg)
+    {
+        return this.segLen[seg];
+    }
+
+    /**
+    *** Returns true if the segment may only be traversed from its 'from' node to its 'to' node
+    **/
+    public boolean isOneWay(int seg)
+    {
+        return ((this.segFlags[seg] & FLAG_ONEWAY) != 0);
+    }
+
+    /**
+    *** Gets the first adjacency entry index for the specified node
+    **/
+    public int getAdjacencyStart(int node)
+    {
+        return this.adjStart[node];
+    }
+
+    /**
+    *** Gets the end (exclusive) adjacency entry index for the specified node
+    **/
+    public int getAdjacencyEnd(int node)
+    {
+        return this.adjStart[node + 1];
+    }
+
+    /**
+    *** Gets the adjacency entry: "(segment << 1) | reverse"
+    **/
+    public int getAdjacency(int ndx)
+    {
+        return this.adjList[ndx];
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Finds the segments nearest to the specified point.  Results are returned in order of
+    *** increasing distance, with at most one entry per segment.
+    *** @param lat      The point latitude
+    *** @param lon      The point longitude
+    *** @param radiusM  The maximum distance from the point (meters)
+    *** @param seg      Returned segment indices
+    *** @param distM    Returned distance from the point to the segment (meters)
+    *** @param offsetM  Returned offset of the nearest segment point from the segment 'from' node (meters)
+    *** @param max      The maximum number of segments to return (at most the length of the arrays)
+    *** @return The number of segments found
+    **/
+    public int findNearestSegments(double lat, double lon, double radiusM,
+        int seg[], double distM[], double offsetM[], int max)
+    {
+        if ((this.cellKeys == null) || (max <= 0)) {
+            return 0;
+        }
+        double cosLat = Math.max(Math.cos(lat * GeoPoint.RADIANS), 0.01);
+        double mLat   = METERS_PER_DEGREE;
+        double mLon   = METERS_PER_DEGREE * cosLat;
+        double dLat   = radiusM / mLat;
+        double dLon   = radiusM / mLon;
+        int r0 = _cellRow(lat - dLat), r1 = _cellRow(lat + dLat);
+        int c0 = _cellCol(lon - dLon), c1 = _cellCol(lon + dLon);
+        int found = 0;
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int k = Arrays.binarySearch(this.cellKeys, _cellKey(r,c));
+                if (k < 0) {
+                    continue;
+                }
+                for (int i = this.cellStart[k]; i < this.cellStart[k + 1]; i++) {
+                    int s = this.cellSegs[i];
+                    // -- project point onto segment (local planar meters, relative to point)
+                    int    a  = this.segFrom[s], b = this.segTo[s];
+                    double ax = ((this.nodeLon[a] / COORD_SCALE) - lon) * mLon;
+                    double ay = ((this.nodeLat[a] / COORD_SCALE) - lat) * mLat;
+                    double bx = ((this.nodeLon[b] / COORD_SCALE) - lon) * mLon;
+                    double by = ((this.nodeLat[b] / COORD_SCALE) - lat) * mLat;
+                    double vx = bx - ax, vy = by - ay;
+                    double vv = (vx * vx) + (vy * vy);
+                    double t  = (vv > 0.0)? Math.max(0.0, Math.min(1.0, -((ax * vx) + (ay * vy)) / vv)) : 0.0;
+                    double px = ax + (t * vx), py = ay + (t * vy);
+                    double d  = Math.sqrt((px * px) + (py * py));
+                    if (d > radiusM) {
+                        continue;
+                    }
+                    // -- already found (segment spans multiple cells)?
+                    boolean dup = false;
+                    for (int f = 0; f < found; f++) {
+                        if (seg[f] == s) { dup = true; break; }
+                    }
+                    if (dup) {
+                        continue;
+                    }
+                    // -- insert in distance order
+                    if ((found == max) && (d >= distM[found - 1])) {
+                        continue;
+                    }
+                    int f = (found < max)? found++ : (found - 1);
+                    for (; (f > 0) && (distM[f - 1] > d); f--) {
+                        seg[f]     = seg[f - 1];
+                        distM[f]   = distM[f - 1];
+                        offsetM[f] = offsetM[f - 1];
+                    }
+                    seg[f]     = s;
+                    distM[f]   = d;
+                    offsetM[f] = t * this.segLen[s];
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+    *** Gets the latitude of the point at the specified offset along a segment
+    **/
+    public double getSegmentLatitude(int seg, double offsetM)
+    {
+        double f = (this.segLen[seg] > 0.0f)? Math.max(0.0, Math.min(1.0, offsetM / this.segLen[seg])) : 0.0;
+        int a = this.segFrom[seg], b = this.segTo[seg];
+        return (this.nodeLat[a] + (f * (this.nodeLat[b] - this.nodeLat[a]))) / COORD_SCALE;
+    }
+
+    /**
+    *** Gets the longitude of the point at the specified offset along a segment
+    **/
+    public double getSegmentLongitude(int seg, double offsetM)
+    {
+        double f = (this.segLen[seg] > 0.0f)? Math.max(0.0, Math.min(1.0, offsetM / this.segLen[seg])) : 0.0;
+        int a = this.segFrom[seg], b = this.segTo[seg];
+        return (this.nodeLon[a] + (f * (this.nodeLon[b] - this.nodeLon[a]))) / COORD_SCALE;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Writes this RoadGraph to the specified file
+    *** @param file  The output file
+    *** @throws IOException  If an I/O error occurs
+    **/
+    public void write(File file)
+        throws IOException
+    {
+        long fileLen = HEADER_SIZE + (8L * this.nodeCount) + (9L * this.segCount);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 65536));
+        try {
+            // -- header
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(this.nodeCount);
+            out.writeInt(this.segCount);
+            out.writeLong(fileLen);
+            out.writeLong(System.currentTimeMillis());
+            out.write(new byte[HEADER_SIZE - 32]);
+            // -- tables
+            for (int i = 0; i < this.nodeCount; i++) { out.writeInt(this.nodeLat[i]); }
+            for (int i = 0; i < this.nodeCount; i++) { out.writeInt(this.nodeLon[i]); }
+            for (int i = 0; i < this.segCount ; i++) { out.writeInt(this.segFrom[i]); }
+            for (int i = 0; i < this.segCount ; i++) { out.writeInt(this.segTo[i]);   }
+            out.write(this.segFlags, 0, this.segCount);
+        } finally {
+            out.close();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets a String representation of this instance
+    **/
+    public String toString()
+    {
+        StringBuffer sb = new StringBuffer();
+        sb.append((this.graphFile != null)? this.graphFile.toString() : "(memory)");
+        sb.append(" [nodes=").append(this.nodeCount);
+        sb.append(" segments=").append(this.segCount);
+        sb.append(" cells=").append((this.cellKeys != null)? this.cellKeys.length : 0);
+        sb.append("]");
+        return sb.toString();
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** RoadGraph.Builder class<br>
+    *** Accumulates (OpenStreetMap) nodes and road ways, then builds a RoadGraph containing
+    *** only the nodes referenced by the road ways.  Nodes are held in primitive arrays (about
+    *** 16 bytes per node), since OSM extracts contain many more nodes than are used by roads.
+    **/
+    public static class Builder
+    {
+
+        private long    nodeId[]    = new long[1024];
+        private int     nodeLat[]   = new int[1024];
+        private int     nodeLon[]   = new int[1024];
+        private int     nodeCount   = 0;
+        private boolean nodeSorted  = true;
+
+        private long    wayRefs[]   = new long[1024];
+        private int     wayRefCount = 0;
+        private int     wayStart[]  = new int[256];
+        private boolean wayOneWay[] = new boolean[256];
+        private int     wayCount    = 0;
+
+        /**
+        *** Constructor
+        **/
+        public Builder()
+        {
+            super();
+        }
+
+        /**
+        *** Gets the number of nodes added
+        **/
+        public int getNodeCount()
+        {
+            return this.nodeCount;
+        }
+
+        /**
+        *** Gets the number of ways added
+        **/
+        public int getWayCount()
+        {
+            return this.wayCount;
+        }
+
+        /**
+        *** Adds a node
+        **/
+        public void addNode(long id, double lat, double lon)
+        {
+            if (!GeoPoint.isValid(lat,lon)) {
+                return;
+            }
+            if (this.nodeCount >= this.nodeId.length) {
+                int n = this.nodeId.length + (this.nodeId.length >> 1);
+                this.nodeId  = Arrays.copyOf(this.nodeId , n);
+                this.nodeLat = Arrays.copyOf(this.nodeLat, n);
+                this.nodeLon = Arrays.copyOf(this.nodeLon, n);
+            }
+            int n = this.nodeCount++;
+            if ((n > 0) && (this.nodeId[n - 1] >= id)) {
+                this.nodeSorted = false;
+            }
+            this.nodeId[n]  = id;
+            this.nodeLat[n] = (int)Math.round(lat * COORD_SCALE);
+            this.nodeLon[n] = (int)Math.round(lon * COORD_SCALE);
+        }
+
+        /**
+        *** Adds a road way
+        *** @param refs    The node ids, in way order
+        *** @param count   The number of node ids
+        *** @param oneWay  True if the way may only be traversed in node order
+        **/
+        public void addWay(long refs[], int count, boolean oneWay)
+        {
+            if ((refs == null) || (count < 2)) {
+                return;
+            }
+            if ((this.wayRefCount + count) > this.wayRefs.length) {
+                this.wayRefs = Arrays.copyOf(this.wayRefs, Math.max(this.wayRefCount + count, this.wayRefs.length * 2));
+            }
+            if ((this.wayCount + 1) >= this.wayStart.length) {
+                this.wayStart  = Arrays.copyOf(this.wayStart , this.wayStart.length  * 2);
+                this.wayOneWay = Arrays.copyOf(this.wayOneWay, this.wayOneWay.length * 2);
+            }
+            System.arraycopy(refs, 0, this.wayRefs, this.wayRefCount, count);
+            this.wayStart[this.wayCount]  = this.wayRefCount;
+            this.wayOneWay[this.wayCount] = oneWay;
+            this.wayRefCount += count;
+            this.wayCount++;
+            this.wayStart[this.wayCount]  = this.wayRefCount;
+        }
+
+        // --------------------------------------------------------------------
+
+        /* swap nodes */
+        private void _swap(int a, int b)
+        {
+            long k = this.nodeId[a]; this.nodeId[a] = this.nodeId[b]; this.nodeId[b] = k;
+            int  t;
+            t = this.nodeLat[a]; this.nodeLat[a] = this.nodeLat[b]; this.nodeLat[b] = t;
+            t = this.nodeLon[a]; this.nodeLon[a] = this.nodeLon[b]; this.nodeLon[b] = t;
+        }
+
+        /* sort nodes by id (iterative quicksort, insertion sort for small ranges) */
+        private void _sort()
+        {
+            int stack[] = new int[128];
+            int sp = 0;
+            stack[sp++] = 0;
+            stack[sp++] = this.nodeCount - 1;
+            while (sp > 0) {
+                int hi = stack[--sp];
+                int lo = stack[--sp];
+                while ((hi - lo) > 16) {
+                    // -- median-of-three pivot
+                    int mid = (lo + hi) >>> 1;
+                    if (this.nodeId[mid] < this.nodeId[lo] ) { this._swap(mid, lo ); }
+                    if (this.nodeId[hi ] < this.nodeId[lo] ) { this._swap(hi , lo ); }
+                    if (this.nodeId[hi ] < this.nodeId[mid]) { this._swap(hi , mid); }
+                    long pivot = this.nodeId[mid];
+                    int i = lo, j = hi;
+                    while (i <= j) {
+                        while (this.nodeId[i] < pivot) { i++; }
+                        while (this.nodeId[j] > pivot) { j--; }
+                        if (i <= j) { this._swap(i++, j--); }
+                    }
+                    // -- push the larger partition, continue with the smaller
+                    if ((j - lo) > (hi - i)) {
+                        stack[sp++] = lo; stack[sp++] = j;
+                        lo = i;
+                    } else {
+                        stack[sp++] = i;  stack[sp++] = hi;
+                        hi = j;
+                    }
+                }
+                for (int i = lo + 1; i <= hi; i++) {
+                    for (int j = i; (j > lo) && (this.nodeId[j - 1] > this.nodeId[j]); j--) {
+                        this._swap(j, j - 1);
+                    }
+                }
+            }
+            this.nodeSorted = true;
+        }
+
+        // --------------------------------------------------------------------
+
+        /**
+        *** Builds the RoadGraph from the added nodes and ways.  Way references to nodes
+        *** which were not added (ie. outside of the extract boundary) break the way.
+        *** @throws IOException  If the graph is too large
+        **/
+        public RoadGraph build()
+            throws IOException
+        {
+
+            /* sort nodes by id */
+            if (!this.nodeSorted && (this.nodeCount > 1)) {
+                this._sort();
+            }
+
+            /* resolve way references to node indices, and mark referenced nodes */
+            int refNode[] = new int[this.wayRefCount];
+            int remap[]   = new int[this.nodeCount];
+            Arrays.fill(remap, -1);
+            int usedNodes = 0;
+            for (int r = 0; r < this.wayRefCount; r++) {
+                int n = Arrays.binarySearch(this.nodeId, 0, this.nodeCount, this.wayRefs[r]);
+                if ((n >= 0) && (remap[n] < 0)) {
+                    remap[n] = usedNodes++;
+                }
+                refNode[r] = (n >= 0)? remap[n] : -1;
+            }
+
+            /* graph nodes */
+            int gLat[] = new int[usedNodes];
+            int gLon[] = new int[usedNodes];
+            for (int n = 0; n < this.nodeCount; n++) {
+                if (remap[n] >= 0) {
+                    gLat[remap[n]] = this.nodeLat[n];
+                    gLon[remap[n]] = this.nodeLon[n];
+                }
+            }
+
+            /* graph segments */
+            long segMax = (long)this.wayRefCount - (long)this.wayCount;
+            if (segMax >= MAX_SEGMENTS) {
+                throw new IOException("Road graph too large: " + segMax + " segments");
+            }
+            int  sFrom[]  = new int[(int)Math.max(segMax,0L)];
+            int  sTo[]    = new int[sFrom.length];
+            byte sFlags[] = new byte[sFrom.length];
+            int  segCount = 0;
+            for (int w = 0; w < this.wayCount; w++) {
+                for (int r = this.wayStart[w] + 1; r < this.wayStart[w + 1]; r++) {
+                    int a = refNode[r - 1], b = refNode[r];
+                    if ((a < 0) || (b < 0) || (a == b)) {
+                        continue;
+                    }
+                    sFrom[segCount]  = a;
+                    sTo[segCount]    = b;
+                    sFlags[segCount] = this.wayOneWay[w]? (byte)FLAG_ONEWAY : (byte)0;
+                    segCount++;
+                }
+            }
+
+            return new RoadGraph(gLat, gLon, usedNodes,
+                Arrays.copyOf(sFrom,segCount), Arrays.copyOf(sTo,segCount), Arrays.copyOf(sFlags,segCount), segCount);
+
+        }
+
+    }
+
+}
@@ -0,0 +1,767 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2020, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Local append-only, memory-mapped write-ahead journal for parsed GPSEvents.
+//  Events are journaled prior to EventData insertion, and are committed once
+//  the insertion succeeds.  Uncommitted events (ie. when the database is not
+//  available) are replayed into the EventData table by a background thread.
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19  GTS Development Team
+//     -Initial release
+//     -Replay is bounded by the stale record mark taken when the replay pass starts
+//     -Replay skips (and commits) events which already exist in the EventData table
+//     -Segment buffers are unmapped when the segment is closed/deleted
+// ----------------------------------------------------------------------------
+package org.opengts.servers;
+
+import java.lang.*;
+import java.util.*;
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.zip.CRC32;
+
+import org.opengts.util.*;
+import org.opengts.dbtools.*;
+import org.opengts.db.*;
+import org.opengts.db.tables.*;
+
+public class EventJournal
+{
+
+    // ------------------------------------------------------------------------
+
+    public  static final String     PROP_eventJournal_enable        = "eventJournal.enable";
+    public  static final String     PROP_eventJournal_directory     = "eventJournal.directory";
+    public  static final String     PROP_eventJournal_segmentSize   = "eventJournal.segmentSize";
+    public  static final String     PROP_eventJournal_syncWrites    = "eventJournal.syncWrites";
+    public  static final String     PROP_eventJournal_replayBatch   = "eventJournal.replayBatchSize";
+    public  static final String     PROP_eventJournal_replayIntervalSec = "eventJournal.replayIntervalSec";
+
+    public  static final int        DEFAULT_SEGMENT_SIZE            = 8 * 1024 * 1024;
+    public  static final int        DEFAULT_REPLAY_BATCH            = 200;
+    public  static final long       DEFAULT_REPLAY_INTERVAL_SEC     = 30L;
+
+    private static final String     SEGMENT_SUFFIX                  = ".jnl";
+    private static final int        SEGMENT_MAGIC                   = 0x474A4E4C; // "GJNL"
+    private static final int        SEGMENT_HEADER_SIZE             = 4;
+    private static final int        RECORD_OVERHEAD                 = 4 + 1 + 8 + 4; // len,type,recID,crc
+
+    private static final byte       REC_EVENT                       = 1;
+    private static final byte       REC_COMMIT                      = 2;
+
+    private static final byte       VAL_STRING                      = 'S';
+    private static final byte       VAL_INT                         = 'I';
+    private static final byte       VAL_LONG                        = 'L';
+    private static final byte       VAL_FLOAT                       = 'F';
+    private static final byte       VAL_DOUBLE                      = 'D';
+    private static final byte       VAL_BOOLEAN                     = 'B';
+
+    // ------------------------------------------------------------------------
+
+    private static Map<String,EventJournal> journalMap = new HashMap<String,EventJournal>();
+
+    /**
+    *** Gets the EventJournal for the specified DCServerConfig, or null if journaling
+    *** is not enabled for this DCS.
+    *** @param dcs  The DCServerConfig
+    *** @return The EventJournal, or null if not enabled
+    **/
+    public static EventJournal getJournal(DCServerConfig dcs)
+    {
+        if ((dcs == null) || !dcs.getBooleanProperty(PROP_eventJournal_enable,false)) {
+            return null;
+        }
+        String name = dcs.getName();
+        synchronized (EventJournal.journalMap) {
+            if (EventJournal.journalMap.containsKey(name)) {
+                return EventJournal.journalMap.get(name); // may be null
+            }
+            EventJournal ej = null;
+            try {
+                File dftDir = new File(RTConfig.getLoadedConfigDir(), "journal");
+                File dir    = new File(dcs.getStringProperty(PROP_eventJournal_directory, dftDir.toString()));
+                int  segSz  = dcs.getIntProperty(PROP_eventJournal_segmentSize, DEFAULT_SEGMENT_SIZE);
+                ej = new EventJournal(dir, name, segSz);
+                ej.setSyncWrites(dcs.getBooleanProperty(PROP_eventJournal_syncWrites,false));
+                ej.startReplay(
+                    dcs.getIntProperty( PROP_eventJournal_replayBatch      , DEFAULT_REPLAY_BATCH),
+                    dcs.getLongProperty(PROP_eventJournal_replayIntervalSec, DEFAULT_REPLAY_INTERVAL_SEC));
+                Print.logInfo("EventJournal enabled: " + ej);
+            } catch (IOException ioe) {
+                Print.logException("Unable to open EventJournal: " + name, ioe);
+                ej = null;
+            }
+            EventJournal.journalMap.put(name, ej);
+            return ej;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Journaled event
+    **/
+    public static class Record
+    {
+        private long                recID       = 0L;
+        private String              accountID   = null;
+        private String              deviceID    = null;
+        private long                timestamp   = 0L;
+        private int                 statusCode  = 0;
+        private Map<String,Object>  fields      = null;
+        public Record(long recID, String acctID, String devID, long ts, int sc, Map<String,Object> fields) {
+            this.recID      = recID;
+            this.accountID  = acctID;
+            this.deviceID   = devID;
+            this.timestamp  = ts;
+            this.statusCode = sc;
+            this.fields     = (fields != null)? fields : new HashMap<String,Object>();
+        }
+        public long getRecordID() {
+            return this.recID;
+        }
+        public String getAccountID() {
+            return this.accountID;
+        }
+        public String getDeviceID() {
+            return this.deviceID;
+        }
+        public long getTimestamp() {
+            return this.timestamp;
+        }
+        public int getStatusCode() {
+            return this.statusCode;
+        }
+        public Map<String,Object> getFieldValues() {
+            return this.fields;
+        }
+        public String toString() {
+            return "#" + this.recID + " " + this.accountID + "/" + this.deviceID + " " +
+                this.timestamp + " " + StatusCodes.GetHex(this.statusCode);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Journal segment file
+    **/
+    private static class Segment
+    {
+        private int                 segNdx      = 0;
+        private File                file        = null;
+        private RandomAccessFile    raf         = null;
+        private MappedByteBuffer    buffer      = null;
+        private int                 pending     = 0;
+        public Segment(File file, int segNdx, int size, boolean create) throws IOException {
+            this.segNdx = segNdx;
+            this.file   = file;
+            this.raf    = new RandomAccessFile(file, "rw");
+            if (create) {
+                this.raf.setLength(size);
+            }
+            long len    = this.raf.length();
+            this.buffer = this.raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0L, len);
+            if (create) {
+                this.buffer.putInt(0, SEGMENT_MAGIC);
+                this.buffer.position(SEGMENT_HEADER_SIZE);
+            } else
+            if ((len < SEGMENT_HEADER_SIZE) || (this.buffer.getInt(0) != SEGMENT_MAGIC)) {
+                this.close();
+                throw new IOException("Invalid journal segment: " + file);
+            }
+        }
+        public int remaining() {
+            return this.buffer.remaining();
+        }
+        public void close() {
+            Segment._unmap(this.buffer);
+            try { this.raf.close(); } catch (IOException ioe) { /* ignore */ }
+        }
+        public void delete() {
+            this.close();
+            this.buffer = null;
+            if (!this.file.delete()) {
+                Print.logWarn("Unable to delete journal segment: " + this.file);
+            }
+        }
+        private static void _unmap(MappedByteBuffer mb) {
+            // -- release the mapping now, rather than when the buffer is garbage collected
+            if (mb == null) {
+                return;
+            }
+            try {
+                // -- Java 9+
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                java.lang.reflect.Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+                java.lang.reflect.Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                invokeCleaner.invoke(theUnsafe.get(null), mb);
+            } catch (NoSuchMethodException nsme) {
+                // -- Java 7/8
+                try {
+                    java.lang.reflect.Method cleanerMeth = mb.getClass().getMethod("cleaner");
+                    cleanerMeth.setAccessible(true);
+                    Object cleaner = cleanerMeth.invoke(mb);
+                    if (cleaner != null) {
+                        cleaner.getClass().getMethod("clean").invoke(cleaner);
+                    }
+                } catch (Throwable th) {
+                    // -- ignore, unmapped when garbage collected
+                }
+            } catch (Throwable th) {
+                // -- ignore, unmapped when garbage collected
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private File                        directory       = null;
+    private String                      name            = null;
+    private int                         segmentSize     = DEFAULT_SEGMENT_SIZE;
+    private boolean                     syncWrites      = false;
+
+    private TreeMap<Integer,Segment>    segments        = new TreeMap<Integer,Segment>();
+    private Segment                     current         = null;
+    private long                        nextRecID       = 1L;
+
+    private TreeMap<Long,Long>          pendingMap      = new TreeMap<Long,Long>(); // recID ==> segNdx:offset
+
+    private Thread                      replayThread    = null;
+    private long                        replayCount     = 0L;
+
+    /**
+    *** Constructor
+    *** @param dir      The journal directory
+    *** @param name     The journal name (typically the DCS name)
+    *** @param segSize  The size of each memory-mapped journal segment
+    **/
+    public EventJournal(File dir, String name, int segSize)
+        throws IOException
+    {
+        this.directory   = dir;
+        this.name        = StringTools.trim(name);
+        this.segmentSize = Math.max(segSize, 64 * 1024);
+        if (!this.directory.isDirectory() && !this.directory.mkdirs()) {
+            throw new IOException("Unable to create journal directory: " + dir);
+        }
+        this._recover();
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Set true to force journal writes to storage before returning
+    **/
+    public void setSyncWrites(boolean sync)
+    {
+        this.syncWrites = sync;
+    }
+
+    /**
+    *** Gets the number of uncommitted journal records
+    **/
+    public int getPendingCount()
+    {
+        synchronized (this) {
+            return this.pendingMap.size();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Scans existing journal segments for uncommitted events
+    **/
+    private void _recover()
+        throws IOException
+    {
+        String prefix = this.name + ".";
+        File files[] = this.directory.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                String fn = f.getName();
+                if (fn.startsWith(prefix) && fn.endsWith(SEGMENT_SUFFIX)) {
+                    String ns = fn.substring(prefix.length(), fn.length() - SEGMENT_SUFFIX.length());
+                    int segNdx = StringTools.parseInt(ns, -1);
+                    if (segNdx >= 0) {
+                        try {
+                            this.segments.put(new Integer(segNdx), new Segment(f, segNdx, 0, false));
+                        } catch (IOException ioe) {
+                            Print.logError("Skipping journal segment: " + ioe);
+                        }
+                    }
+                }
+            }
+        }
+        Set<Long> committed = new HashSet<Long>();
+        for (Segment seg : this.segments.values()) {
+            ByteBuffer bb = seg.buffer.duplicate();
+            bb.position(SEGMENT_HEADER_SIZE);
+            while (bb.remaining() >= RECORD_OVERHEAD) {
+                int offset = bb.position();
+                int len    = bb.getInt(offset);
+                if ((len <= 0) || (len > (bb.remaining() - 4))) {
+                    break; // end of segment (or torn write)
+                }
+                byte   type  = bb.get(offset + 4);
+                long   recID = bb.getLong(offset + 5);
+                if (!this._checkCRC(bb, offset, len)) {
+                    Print.logWarn("Journal CRC error: " + seg.file + " @" + offset);
+                    break;
+                }
+                if (type == REC_EVENT) {
+                    this.pendingMap.put(new Long(recID), new Long(((long)seg.segNdx << 32) | (long)offset));
+                    seg.pending++;
+                } else
+                if (type == REC_COMMIT) {
+                    committed.add(new Long(recID));
+                }
+                if (recID >= this.nextRecID) {
+                    this.nextRecID = recID + 1L;
+                }
+                bb.position(offset + 4 + len);
+            }
+        }
+        for (Long recID : committed) {
+            this._removePending(recID);
+        }
+        // -- always append to a new segment
+        int nextNdx = this.segments.isEmpty()? 0 : (this.segments.lastKey().intValue() + 1);
+        this._newSegment(nextNdx);
+        if (!this.pendingMap.isEmpty()) {
+            Print.logInfo("EventJournal '" + this.name + "' recovered " + this.pendingMap.size() + " uncommitted event(s)");
+        }
+    }
+
+    /**
+    *** Creates a new current segment
+    **/
+    private void _newSegment(int segNdx)
+        throws IOException
+    {
+        File f = new File(this.directory, this.name + "." + segNdx + SEGMENT_SUFFIX);
+        Segment seg = new Segment(f, segNdx, this.segmentSize, true);
+        this.segments.put(new Integer(segNdx), seg);
+        this.current = seg;
+        this._trimSegments();
+    }
+
+    /**
+    *** Deletes the oldest segments which no longer contain uncommitted events.
+    *** Segments are only removed from the head of the journal, since a segment may
+    *** contain commit records for events in older segments.
+    **/
+    private void _trimSegments()
+    {
+        while (!this.segments.isEmpty()) {
+            Segment seg = this.segments.firstEntry().getValue();
+            if ((seg == this.current) || (seg.pending > 0)) {
+                break;
+            }
+            this.segments.remove(new Integer(seg.segNdx));
+            seg.delete();
+        }
+    }
+
+    /**
+    *** Removes the specified record ID from the pending list
+    **/
+    private void _removePending(Long recID)
+    {
+        Long loc = this.pendingMap.remove(recID);
+        if (loc != null) {
+            Integer segNdx = new Integer((int)(loc.longValue() >>> 32));
+            Segment seg = this.segments.get(segNdx);
+            if (seg != null) {
+                seg.pending--;
+                if (seg.pending <= 0) {
+                    this._trimSegments();
+                }
+            }
+        }
+    }
+
+    /**
+    *** Returns true if the record CRC is valid
+    **/
+    private boolean _checkCRC(ByteBuffer bb, int offset, int len)
+    {
+        CRC32 crc = new CRC32();
+        for (int i = offset + 4; i < (offset + len); i++) {
+            crc.update(bb.get(i));
+        }
+        return ((int)crc.getValue() == bb.getInt(offset + len));
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Appends a record to the current segment
+    **/
+    private synchronized long _append(byte type, long recID, byte payload[])
+        throws IOException
+    {
+        int len = 1 + 8 + payload.length + 4; // type,recID,payload,crc
+        if ((len + 4) > (this.segmentSize - SEGMENT_HEADER_SIZE)) {
+            throw new IOException("Journal record too large: " + len);
+        }
+        if (this.current.remaining() < (len + 4 + 4)) {
+            // -- leave room for a zero terminator
+            this._newSegment(this.current.segNdx + 1);
+        }
+        MappedByteBuffer mb = this.current.buffer;
+        int offset = mb.position();
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        for (int s = 56; s >= 0; s -= 8) { crc.update((int)(recID >>> s) & 0xFF); }
+        crc.update(payload, 0, payload.length);
+        // -- write record body first, length last (marks the record complete)
+        mb.put(offset + 4, type);
+        mb.putLong(offset + 5, recID);
+        for (int i = 0; i < payload.length; i++) { mb.put(offset + 13 + i, payload[i]); }
+        mb.putInt(offset + 13 + payload.length, (int)crc.getValue());
+        mb.putInt(offset, len);
+        mb.position(offset + 4 + len);
+        if (this.syncWrites) {
+            mb.force();
+        }
+        return ((long)this.current.segNdx << 32) | (long)offset;
+    }
+
+    /**
+    *** Appends an event to the journal
+    *** @return The journal record ID
+    **/
+    public long append(String acctID, String devID, long timestamp, int statusCode, Map<String,?> fields)
+        throws IOException
+    {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(256);
+        DataOutputStream dos = new DataOutputStream(bos);
+        dos.writeUTF(StringTools.trim(acctID));
+        dos.writeUTF(StringTools.trim(devID));
+        dos.writeLong(timestamp);
+        dos.writeInt(statusCode);
+        int count = 0;
+        if (fields != null) {
+            for (Object v : fields.values()) { if (v != null) { count++; } }
+        }
+        dos.writeInt(count);
+        if (fields != null) {
+            for (String k : fields.keySet()) {
+                Object v = fields.get(k);
+                if (v == null) {
+                    continue;
+                }
+                dos.writeUTF(k);
+                if (v instanceof Integer) {
+                    dos.writeByte(VAL_INT);     dos.writeInt(((Integer)v).intValue());
+                } else
+                if (v instanceof Long) {
+                    dos.writeByte(VAL_LONG);    dos.writeLong(((Long)v).longValue());
+                } else
+                if (v instanceof Float) {
+                    dos.writeByte(VAL_FLOAT);   dos.writeFloat(((Float)v).floatValue());
+                } else
+                if (v instanceof Double) {
+                    dos.writeByte(VAL_DOUBLE);  dos.writeDouble(((Double)v).doubleValue());
+                } else
+                if (v instanceof Boolean) {
+                    dos.writeByte(VAL_BOOLEAN); dos.writeBoolean(((Boolean)v).booleanValue());
+                } else {
+                    dos.writeByte(VAL_STRING);  dos.writeUTF(v.toString());
+                }
+            }
+        }
+        dos.flush();
+        synchronized (this) {
+            long recID = this.nextRecID++;
+            long loc   = this._append(REC_EVENT, recID, bos.toByteArray());
+            this.pendingMap.put(new Long(recID), new Long(loc));
+            this.current.pending++;
+            return recID;
+        }
+    }
+
+    /**
+    *** Marks the specified journal record as committed to the EventData table
+    **/
+    public void commit(long recID)
+    {
+        synchronized (this) {
+            if (!this.pendingMap.containsKey(new Long(recID))) {
+                return; // already committed
+            }
+            try {
+                this._append(REC_COMMIT, recID, new byte[0]);
+            } catch (IOException ioe) {
+                Print.logError("Unable to write journal commit: " + ioe);
+            }
+            this._removePending(new Long(recID));
+        }
+    }
+
+    /**
+    *** Reads the journaled event at the specified location
+    **/
+    private Record _readRecord(long recID, long loc)
+    {
+        Segment seg = this.segments.get(new Integer((int)(loc >>> 32)));
+        if (seg == null) {
+            return null;
+        }
+        int offset = (int)(loc & 0xFFFFFFFFL);
+        ByteBuffer bb = seg.buffer.duplicate();
+        int len = bb.getInt(offset);
+        byte data[] = new byte[len - (1 + 8 + 4)];
+        bb.position(offset + 13);
+        bb.get(data);
+        try {
+            DataInputStream dis = new DataInputStream(new ByteArrayInputStream(data));
+            String acctID = dis.readUTF();
+            String devID  = dis.readUTF();
+            long   ts     = dis.readLong();
+            int    sc     = dis.readInt();
+            int    count  = dis.readInt();
+            Map<String,Object> fields = new HashMap<String,Object>();
+            for (int i = 0; i < count; i++) {
+                String k = dis.readUTF();
+                byte   t = dis.readByte();
+                switch (t) {
+                    case VAL_INT    : fields.put(k, new Integer(dis.readInt()));     break;
+                    case VAL_LONG   : fields.put(k, new Long(dis.readLong()));       break;
+                    case VAL_FLOAT  : fields.put(k, new Float(dis.readFloat()));     break;
+                    case VAL_DOUBLE : fields.put(k, new Double(dis.readDouble()));   break;
+                    case VAL_BOOLEAN: fields.put(k, new Boolean(dis.readBoolean())); break;
+                    default         : fields.put(k, dis.readUTF());                  break;
+                }
+            }
+            return new Record(recID, acctID, devID, ts, sc, fields);
+        } catch (IOException ioe) {
+            Print.logError("Invalid journal record #" + recID + ": " + ioe);
+            return null;
+        }
+    }
+
+    /**
+    *** Gets up to the specified number of the oldest uncommitted events
+    **/
+    public java.util.List<Record> getPendingRecords(int limit)
+    {
+        return this.getPendingRecords(limit, Long.MAX_VALUE);
+    }
+
+    /**
+    *** Gets up to the specified number of the oldest uncommitted events, with a record ID
+    *** at or below the specified maximum record ID
+    **/
+    public java.util.List<Record> getPendingRecords(int limit, long maxRecID)
+    {
+        java.util.List<Record> list = new Vector<Record>();
+        synchronized (this) {
+            Long skip[] = new Long[0];
+            for (Map.Entry<Long,Long> e : this.pendingMap.headMap(new Long(maxRecID), true).entrySet()) {
+                if (list.size() >= limit) {
+                    break;
+                }
+                Record r = this._readRecord(e.getKey().longValue(), e.getValue().longValue());
+                if (r != null) {
+                    list.add(r);
+                } else {
+                    skip = ListTools.add(skip, e.getKey());
+                }
+            }
+            for (Long recID : skip) {
+                // -- unreadable, discard
+                this._removePending(recID);
+            }
+        }
+        return list;
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Creates an EventData record from the specified journal record
+    *** @param dev  The Device
+    *** @param rcd  The journal record
+    *** @return The EventData record
+    **/
+    public static EventData createEventData(Device dev, Record rcd)
+    {
+        EventData.Key evKey = new EventData.Key(dev.getAccountID(), dev.getDeviceID(), rcd.getTimestamp(), rcd.getStatusCode());
+        EventData evdb = evKey.getDBRecord();
+        Map<String,Object> fields = rcd.getFieldValues();
+        for (String fldn : fields.keySet()) {
+            if (fldn.equals(EventData.FLD_timestamp) || fldn.equals(EventData.FLD_statusCode)) {
+                continue; // already set above
+            }
+            evdb.setValue(fldn, fields.get(fldn)); // attempts to use "setter" methods
+        }
+        return evdb;
+    }
+
+    /**
+    *** Replays up to the specified number of uncommitted events into the EventData table.
+    *** @param batchSize  The maximum number of events to replay
+    *** @return The number of events replayed, or -1 if a database error occurred
+    **/
+    public int replay(int batchSize)
+    {
+        return this.replay(batchSize, Long.MAX_VALUE);
+    }
+
+    /**
+    *** Replays up to the specified number of uncommitted events into the EventData table.
+    *** Events which already exist in the EventData table (ie. inserted, but the journal
+    *** commit was not written) are committed without being re-inserted, so that rules,
+    *** notifications, and insertion listeners are not fired a second time.
+    *** @param batchSize  The maximum number of events to replay
+    *** @param maxRecID   The maximum journal record ID to replay
+    *** @return The number of events replayed, or -1 if a database error occurred
+    **/
+    public int replay(int batchSize, long maxRecID)
+    {
+        java.util.List<Record> list = this.getPendingRecords(batchSize, maxRecID);
+        if (list.isEmpty()) {
+            return 0;
+        }
+        Map<String,Device> devMap = new HashMap<String,Device>();
+        int count = 0;
+        try {
+            for (Record rcd : list) {
+                String key = rcd.getAccountID() + "/" + rcd.getDeviceID();
+                Device dev = devMap.get(key);
+                if ((dev == null) && !devMap.containsKey(key)) {
+                    Account acct = Account.getAccount(DBReadWriteMode.READ_WRITE, rcd.getAccountID()); // may throw DBException
+                    dev = (acct != null)? Device.getDevice(DBReadWriteMode.READ_WRITE, acct, rcd.getDeviceID()) : null;
+                    devMap.put(key, dev);
+                }
+                if (dev == null) {
+                    // -- Account/Device no longer exists
+                    Print.logWarn("Discarding journaled event (device not found): " + rcd);
+                } else {
+                    EventData.Key evKey = new EventData.Key(dev.getAccountID(), dev.getDeviceID(), rcd.getTimestamp(), rcd.getStatusCode());
+                    if (evKey.exists(DBReadWriteMode.READ_WRITE)) { // may throw DBException
+                        // -- already inserted, commit only
+                        Print.logDebug("Journaled event already inserted: " + rcd);
+                    } else {
+                        EventData evdb = EventJournal.createEventData(dev, rcd);
+                        dev.insertEventData_throw(evdb); // may throw DBException
+                    }
+                }
+                this.commit(rcd.getRecordID());
+                count++;
+            }
+        } catch (DBException dbe) {
+            // -- database still unavailable
+            Print.logWarn("EventJournal replay deferred: " + dbe);
+            count = -1;
+        } finally {
+            for (Device dev : devMap.values()) {
+                if (dev != null) {
+                    try {
+                        dev.updateChangedEventFields();
+                    } catch (DBException dbe) {
+                        Print.logWarn("Unable to update Device: " + dbe);
+                    }
+                }
+            }
+        }
+        if (count > 0) {
+            synchronized (this) { this.replayCount += count; }
+            Print.logInfo("EventJournal '" + this.name + "' replayed " + count + " event(s), pending " + this.getPendingCount());
+        }
+        return count;
+    }
+
+    /**
+    *** Starts the background replay thread
+    *** @param batchSize    The maximum number of events replayed per batch
+    *** @param intervalSec  The number of seconds between replay attempts
+    **/
+    public void startReplay(final int batchSize, final long intervalSec)
+    {
+        synchronized (this) {
+            if (this.replayThread != null) {
+                return;
+            }
+            this.replayThread = new Thread(new Runnable() {
+                public void run() {
+                    long sleepMS = Math.max(intervalSec, 1L) * 1000L;
+                    for (;;) {
+                        try { Thread.sleep(sleepMS); } catch (InterruptedException ie) { break; }
+                        // -- only replay events which are no longer in-flight
+                        long staleMark = EventJournal.this._getStalePendingMark();
+                        while (staleMark > 0L) {
+                            int n = EventJournal.this.replay(batchSize, staleMark);
+                            if (n <= 0) {
+                                break; // nothing replayed, or database error
+                            }
+                        }
+                    }
+                }
+            }, "EventJournal_" + this.name);
+            this.replayThread.setDaemon(true);
+            this.replayThread.start();
+        }
+    }
+
+    private long lastPendingRecID = 0L;
+
+    /**
+    *** Gets the highest record ID which was already pending on the prior check, or 0 if
+    *** no pending event is stale.  Only events at or below this mark may be replayed
+    *** (avoids replaying an event which is currently being inserted inline)
+    **/
+    private synchronized long _getStalePendingMark()
+    {
+        if (this.pendingMap.isEmpty()) {
+            this.lastPendingRecID = 0L;
+            return 0L;
+        }
+        long first = this.pendingMap.firstKey().longValue();
+        long mark  = this.lastPendingRecID;
+        this.lastPendingRecID = this.pendingMap.lastKey().longValue();
+        return (first <= mark)? mark : 0L;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Returns a String representation of this instance
+    **/
+    public String toString()
+    {
+        StringBuffer sb = new StringBuffer();
+        sb.append(this.name).append(" [").append(this.directory).append("]");
+        sb.append(" pending=").append(this.getPendingCount());
+        synchronized (this) {
+            sb.append(" replayed=").append(this.replayCount);
+        }
+        return sb.toString();
+    }
+
+}
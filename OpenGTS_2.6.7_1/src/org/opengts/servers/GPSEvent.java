@@ -34,6 +34,8 @@
 //     -Fixed handling of unique-id prefix before looking up device.
 //  2017/03/14  Martin D. Flynn
 //     -Added support for FLD_batteryVolts, FLD_vBatteryVolts
+//  2026/10/19  GTS Development Team
+//     -Added EventJournal write-ahead support to "insertEventData()"
 // ----------------------------------------------------------------------------
 package org.opengts.servers;
 
@@ -293,12 +295,31 @@ public class GPSEvent
             }
         }
 
+        /* journal event (write-ahead, prior to insertion) */
+        EventJournal journal = EventJournal.getJournal(this.server);
+        long journalID = 0L;
+        if (journal != null) {
+            try {
+                journalID = journal.append(acctID, devID, fixtime, statusCode, this.getJournalFieldMap());
+            } catch (IOException ioe) {
+                Print.logError("Unable to journal event: " + ioe);
+            }
+        }
+
         /* insert event */
         // this will display an error if it was unable to store the event
         Print.logInfo("Event     : [0x" + 
             StringTools.toHexString(statusCode,16) + "] " + 
             StatusCodes.GetDescription(statusCode,null));
-        this.device.insertEventData(evdb); // FLD_lastValidLatitude,FLD_lastValidLongitude,FLD_lastGPSTimestamp,FLD_lastOdometerKM
+        boolean inserted = this.device.insertEventData(evdb); // FLD_lastValidLatitude,FLD_lastValidLongitude,FLD_lastGPSTimestamp,FLD_lastOdometerKM
+        if (journalID > 0L) {
+            if (inserted) {
+                journal.commit(journalID);
+            } else {
+                // -- database error, event will be replayed from the journal
+                Print.logWarn("Event retained in journal for replay: #" + journalID);
+            }
+        }
         this.eventTotalCount++;
         return true;
 
@@ -871,6 +892,24 @@ public class GPSEvent
         this.setFieldValue(fldName, (Object)fldVal);
     }
 
+    /**
+    *** Gets a map of all event field values (used for journaling)
+    **/
+    protected Map<String,Object> getJournalFieldMap()
+    {
+        Map<String,Object> map = new HashMap<String,Object>();
+        for (Object fldn : this.fieldValues.getPropertyKeys()) {
+            Object fldv = this.fieldValues.getProperty(fldn, null);
+            if (fldv != null) {
+                map.put(fldn.toString(), fldv);
+            }
+        }
+        if (this.otherValues != null) {
+            map.putAll(this.otherValues);
+        }
+        return map;
+    }
+
     // ------------------------------------------------------------------------
     // ------------------------------------------------------------------------
 
@@ -0,0 +1,664 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2020, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Synthetic device simulator used to load-test a running DCS ingest pipeline.
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19  GTS Development Team
+//     -Initial release
+//     -Added built-in "tk10x" (VHG760 "<imei>$GPRMC...") and "taip" (">RPV...;ID=<id><")
+//      line formats, the "${mobileID}"/"${taipRPV}" placeholders, and "-provision"
+//     -Inserted events are verified with a count query, latency is read from the
+//      "creationMillis" column only
+// ----------------------------------------------------------------------------
+package org.opengts.servers;
+
+import java.lang.*;
+import java.util.*;
+import java.io.*;
+import java.net.*;
+import java.sql.*;
+
+import org.opengts.util.*;
+import org.opengts.dbtools.*;
+
+import org.opengts.db.*;
+import org.opengts.db.tables.*;
+
+/**
+*** LoadTestSimulator class<br>
+*** Opens a number of TCP (or UDP) sessions to a running DCS and sends synthetic (or
+*** replayed) tracks at a configurable per-session rate.  Each sent record is timestamped,
+*** and after the run the inserted EventData records are counted per device, and the
+*** "creationMillis" column is read back to compute the end-to-end ingest throughput
+*** and the latency percentiles from socket write to committed row.
+*** <br>
+*** Each session sends one line per event, formatted using the "linePattern".  The
+*** default pattern depends on the "-format" option:<br>
+*** &nbsp; "template": "${account}/${device}/${gprmc}" (the "template" DCS with "-format=2")<br>
+*** &nbsp; "tk10x"   : "${mobileID}${gprmc}END" (VHG760 style record)<br>
+*** &nbsp; "taip"    : "&gt;${taipRPV};ID=${mobileID}&lt;" (TAIP "RPV" record)<br>
+*** The "${mobileID}" of each simulated device is "mobilePrefix" followed by the
+*** zero-padded device number (15 digits total).  With "-provision", missing Device
+*** records are created in the specified Account, with a Unique-ID matching the DCS
+*** Unique-ID prefix and the simulated mobile-id.
+*** <br>
+*** Fixtimes are assigned 1 second apart per device, ending prior to the start of the
+*** run, so that each sent record maps to a unique EventData key.
+**/
+public class LoadTestSimulator
+{
+
+    // ------------------------------------------------------------------------
+
+    public  static final String ARG_HOST[]          = new String[] { "host"         , "h"       };
+    public  static final String ARG_PORT[]          = new String[] { "port"         , "p"       };
+    public  static final String ARG_UDP[]           = new String[] { "udp"                      };
+    public  static final String ARG_ACCOUNT[]       = new String[] { "account"      , "a"       };
+    public  static final String ARG_DEVICE_PREFIX[] = new String[] { "devicePrefix" , "dev"     };
+    public  static final String ARG_DEVICE_START[]  = new String[] { "deviceStart"              };
+    public  static final String ARG_SESSIONS[]      = new String[] { "sessions"     , "n"       };
+    public  static final String ARG_THREADS[]       = new String[] { "threads"                  };
+    public  static final String ARG_RATE[]          = new String[] { "rate"         , "eps"     };
+    public  static final String ARG_DURATION[]      = new String[] { "duration"     , "sec"     };
+    public  static final String ARG_TRACK[]         = new String[] { "track"                    };
+    public  static final String ARG_LINE_PATTERN[]  = new String[] { "linePattern"  , "pattern" };
+    public  static final String ARG_LAT[]           = new String[] { "lat"                      };
+    public  static final String ARG_LON[]           = new String[] { "lon"                      };
+    public  static final String ARG_MEASURE[]       = new String[] { "measure"                  };
+    public  static final String ARG_SETTLE[]        = new String[] { "settle"                   };
+    public  static final String ARG_FORMAT[]        = new String[] { "format"       , "fmt"     };
+    public  static final String ARG_MOBILE_PREFIX[] = new String[] { "mobilePrefix"             };
+    public  static final String ARG_PROVISION[]     = new String[] { "provision"                };
+    public  static final String ARG_DCS[]           = new String[] { "dcs"                      };
+
+    public  static final String FORMAT_TEMPLATE     = "template";
+    public  static final String FORMAT_TK10X        = "tk10x";
+    public  static final String FORMAT_TAIP         = "taip";
+
+    public  static final String DEFAULT_LINE_PATTERN = "${account}/${device}/${gprmc}";
+    public  static final String TK10X_LINE_PATTERN   = "${mobileID}${gprmc}END";
+    public  static final String TAIP_LINE_PATTERN    = ">${taipRPV};ID=${mobileID}<";
+
+    public  static final String DEFAULT_MOBILE_PREFIX = "99";
+    public  static final int    MOBILE_ID_LENGTH     = 15;
+
+    /**
+    *** Gets the default line pattern for the specified format
+    **/
+    private static String GetDefaultLinePattern(String format)
+    {
+        if (FORMAT_TK10X.equalsIgnoreCase(format)) {
+            return TK10X_LINE_PATTERN;
+        } else
+        if (FORMAT_TAIP.equalsIgnoreCase(format)) {
+            return TAIP_LINE_PATTERN;
+        } else {
+            return DEFAULT_LINE_PATTERN;
+        }
+    }
+
+    /**
+    *** Formats the specified point as a TAIP "RPV" (position/velocity) record body
+    *** (ie. "RPV15714+3739438-1220384601512612")
+    **/
+    private static String FormatTaipRPV(Nmea0183 n)
+    {
+        long   tod = n.getFixtime() % DateTime.DaySeconds(1);
+        double lat = n.getLatitude();
+        double lon = n.getLongitude();
+        long   mph = Math.min(999L, Math.round(Math.max(0.0,n.getSpeedKPH()) / GeoPoint.KILOMETERS_PER_MILE));
+        long   hdg = Math.round(Math.max(0.0,n.getHeading())) % 360L;
+        StringBuffer sb = new StringBuffer();
+        sb.append("RPV");
+        sb.append(StringTools.format(tod, "00000"));
+        sb.append((lat < 0.0)? "-" : "+").append(StringTools.format(Math.round(Math.abs(lat) * 100000.0), "0000000"));
+        sb.append((lon < 0.0)? "-" : "+").append(StringTools.format(Math.round(Math.abs(lon) * 100000.0), "00000000"));
+        sb.append(StringTools.format(mph, "000"));
+        sb.append(StringTools.format(hdg, "000"));
+        sb.append("1"); // 3D-GPS
+        sb.append("2"); // fresh
+        return sb.toString();
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Track point source.  Either a replayed list of $GPRMC records, or a synthetic
+    *** random-walk track around a starting location.
+    **/
+    private static class TrackSource
+    {
+        private List<Nmea0183>  replay      = null;
+        private int             replayNdx   = 0;
+        private double          lat         = 0.0;
+        private double          lon         = 0.0;
+        private double          heading     = 0.0;
+        private double          speedKPH    = 0.0;
+        private Random          rand        = null;
+        public TrackSource(List<Nmea0183> replay, int offset, double lat, double lon, long seed) {
+            this.replay    = ListTools.isEmpty(replay)? null : replay;
+            this.replayNdx = (this.replay != null)? (offset % this.replay.size()) : 0;
+            this.rand      = new Random(seed);
+            this.lat       = lat + ((this.rand.nextDouble() - 0.5) * 0.2);
+            this.lon       = lon + ((this.rand.nextDouble() - 0.5) * 0.2);
+            this.heading   = this.rand.nextDouble() * 360.0;
+            this.speedKPH  = 30.0 + (this.rand.nextDouble() * 60.0);
+        }
+        public Nmea0183 nextPoint(long fixtime) {
+            Nmea0183 n = new Nmea0183();
+            if (this.replay != null) {
+                Nmea0183 r = this.replay.get(this.replayNdx);
+                this.replayNdx = (this.replayNdx + 1) % this.replay.size();
+                n.setGeoPoint(r.getGeoPoint());
+                n.setSpeedKnots(r.getSpeedKnots());
+                n.setHeading(r.getHeading());
+            } else {
+                // -- random walk at 1 second per point
+                this.heading  = (this.heading + ((this.rand.nextDouble() - 0.5) * 20.0) + 360.0) % 360.0;
+                this.speedKPH = Math.max(0.0, Math.min(120.0, this.speedKPH + ((this.rand.nextDouble() - 0.5) * 6.0)));
+                GeoPoint gp = (new GeoPoint(this.lat,this.lon)).getHeadingPoint(this.speedKPH / 3600.0 * 1000.0, this.heading);
+                this.lat = gp.getLatitude();
+                this.lon = gp.getLongitude();
+                n.setGeoPoint(gp);
+                n.setSpeedKPH(this.speedKPH);
+                n.setHeading(this.heading);
+            }
+            n.setFixtime(fixtime);
+            return n;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Simulated device session
+    **/
+    private static class Session
+    {
+        private String          deviceID    = null;
+        private String          mobileID    = null;
+        private TrackSource     track       = null;
+        private long            nextFixtime = 0L;
+        private Socket          tcpSocket   = null;
+        private OutputStream    tcpOutput   = null;
+        private DatagramSocket  udpSocket   = null;
+        private Map<Long,Long>  sentMillis  = new HashMap<Long,Long>(); // fixtime ==> send time
+        private long            sendErrors  = 0L;
+        public Session(String deviceID, String mobileID, TrackSource track, long firstFixtime) {
+            this.deviceID    = deviceID;
+            this.mobileID    = mobileID;
+            this.track       = track;
+            this.nextFixtime = firstFixtime;
+        }
+        public void open(String host, int port, boolean udp) throws IOException {
+            if (udp) {
+                this.udpSocket = new DatagramSocket();
+                this.udpSocket.connect(InetAddress.getByName(host), port);
+            } else {
+                this.tcpSocket = new Socket(host, port);
+                this.tcpSocket.setTcpNoDelay(true);
+                this.tcpOutput = new BufferedOutputStream(this.tcpSocket.getOutputStream());
+            }
+        }
+        public void send(String account, String pattern) {
+            long fixtime = this.nextFixtime++;
+            Nmea0183 pt  = this.track.nextPoint(fixtime);
+            String line  = pattern;
+            line = StringTools.replace(line, "${account}" , account);
+            line = StringTools.replace(line, "${device}"  , this.deviceID);
+            line = StringTools.replace(line, "${mobileID}", this.mobileID);
+            if (line.indexOf("${gprmc}") >= 0) {
+                line = StringTools.replace(line, "${gprmc}"  , pt.toGPRMC());
+            }
+            if (line.indexOf("${taipRPV}") >= 0) {
+                line = StringTools.replace(line, "${taipRPV}", FormatTaipRPV(pt));
+            }
+            line += "\r\n";
+            byte b[] = StringTools.getBytes(line);
+            try {
+                long nowMS = System.currentTimeMillis();
+                if (this.udpSocket != null) {
+                    this.udpSocket.send(new DatagramPacket(b, b.length));
+                } else {
+                    this.tcpOutput.write(b);
+                    this.tcpOutput.flush();
+                }
+                this.sentMillis.put(new Long(fixtime), new Long(nowMS));
+            } catch (IOException ioe) {
+                this.sendErrors++;
+            }
+        }
+        public long getLastFixtime() {
+            return this.nextFixtime - 1L;
+        }
+        public void close() {
+            try { if (this.tcpSocket != null) { this.tcpSocket.close(); } } catch (IOException ioe) { /*ignore*/ }
+            if (this.udpSocket != null) { this.udpSocket.close(); }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Sender thread, paces a subset of sessions at the configured rate
+    **/
+    private static class Sender
+        implements Runnable
+    {
+        private List<Session>   sessions    = new Vector<Session>();
+        private String          account     = null;
+        private String          pattern     = null;
+        private double          rate        = 1.0;
+        private long            stopMS      = 0L;
+        private long            sentCount   = 0L;
+        public Sender(String account, String pattern, double rate, long stopMS) {
+            this.account = account;
+            this.pattern = pattern;
+            this.rate    = rate;
+            this.stopMS  = stopMS;
+        }
+        public void run() {
+            double intervMS = 1000.0 / this.rate;
+            long   startMS  = System.currentTimeMillis();
+            for (long tick = 0L;; tick++) {
+                long dueMS = startMS + (long)(tick * intervMS);
+                if (dueMS >= this.stopMS) {
+                    break;
+                }
+                long sleepMS = dueMS - System.currentTimeMillis();
+                if (sleepMS > 0L) {
+                    try { Thread.sleep(sleepMS); } catch (InterruptedException ie) { break; }
+                }
+                for (Session s : this.sessions) {
+                    s.send(this.account, this.pattern);
+                    this.sentCount++;
+                }
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Returns the value at the specified percentile of the sorted array
+    **/
+    private static long Percentile(long sorted[], double pct)
+    {
+        if (ListTools.isEmpty(sorted)) {
+            return 0L;
+        }
+        int ndx = (int)Math.ceil((pct / 100.0) * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, ndx))];
+    }
+
+    /**
+    *** Loads the $GPRMC records from the specified track file
+    **/
+    private static List<Nmea0183> LoadTrack(File file)
+    {
+        List<Nmea0183> list = new Vector<Nmea0183>();
+        BufferedReader br = null;
+        try {
+            br = new BufferedReader(new FileReader(file));
+            for (;;) {
+                String line = br.readLine();
+                if (line == null) { break; }
+                int p = line.indexOf("$GPRMC");
+                if (p < 0) { continue; }
+                Nmea0183 n = new Nmea0183(line.substring(p), true); // ignore checksum
+                if (n.isValidGPS()) {
+                    list.add(n);
+                }
+            }
+        } catch (IOException ioe) {
+            Print.logException("Unable to read track file: " + file, ioe);
+        } finally {
+            if (br != null) { try { br.close(); } catch (IOException ioe) { /*ignore*/ } }
+        }
+        return list;
+    }
+
+    /**
+    *** Creates the simulated Device records which do not already exist, and sets the
+    *** Unique-ID of each simulated Device to the prefixed mobile-id.
+    *** @return The number of Devices created or updated, or -1 on error
+    **/
+    private static int ProvisionDevices(String acctID, String dcsName, List<String> devIDs, List<String> mobileIDs)
+    {
+        DBReadWriteMode rwMode = DBReadWriteMode.READ_WRITE;
+
+        /* Unique-ID prefix */
+        String uidPfx = "";
+        DCServerConfig dcsc = DCServerFactory.getServerConfig(dcsName, false);
+        if (dcsc != null) {
+            String pfx[] = dcsc.getUniquePrefix();
+            uidPfx = !ListTools.isEmpty(pfx)? pfx[0] : "";
+        } else {
+            Print.logWarn("DCS not found, provisioning without Unique-ID prefix: " + dcsName);
+        }
+
+        /* create/update devices */
+        int count = 0;
+        try {
+            Account account = Account.getAccount(rwMode, acctID);
+            if (account == null) {
+                Print.logError("Account does not exist: " + acctID);
+                return -1;
+            }
+            for (int i = 0; i < devIDs.size(); i++) {
+                String devID = devIDs.get(i);
+                String uid   = DCServerFactory.CreateUniqueID(uidPfx, mobileIDs.get(i));
+                Device dev   = Device.getDevice(rwMode, account, devID);
+                if (dev == null) {
+                    Device.createNewDevice(account, devID, uid);
+                    count++;
+                } else
+                if (!uid.equals(dev.getUniqueID())) {
+                    dev.setUniqueID(uid);
+                    dev.update(Device.FLD_uniqueID);
+                    count++;
+                }
+            }
+        } catch (DBException dbe) {
+            Print.logException("Unable to provision simulated devices", dbe);
+            return -1;
+        }
+        return count;
+    }
+
+    /**
+    *** Reads the "creationMillis" of the EventData records inserted by this run, and
+    *** places the latency of each (from socket write) into the specified array.
+    *** Only the deviceID/timestamp/creationMillis columns are read.
+    *** @return The number of latency values placed into the array
+    **/
+    private static int ReadLatency(String acctID, long firstFixtime, long testStartMS,
+        Map<String,Session> sessMap, long latency[], long lastCreateMS[])
+        throws DBException
+    {
+        DBReadWriteMode rwMode = DBReadWriteMode.READ_ONLY;
+        DBFactory<EventData> dbFact = EventData.getFactory();
+
+        /* select */
+        // DBSelect: SELECT deviceID,timestamp,creationMillis FROM EventData WHERE <where>
+        DBSelect<EventData> dsel = new DBSelect<EventData>(dbFact);
+        dsel.setSelectedFields(EventData.FLD_deviceID, EventData.FLD_timestamp, EventData.FLD_creationMillis);
+        DBWhere dwh = dsel.createDBWhere();
+        dsel.setWhere(dwh.WHERE_(
+            dwh.AND(
+                dwh.EQ(EventData.FLD_accountID     , acctID),
+                dwh.GE(EventData.FLD_timestamp     , firstFixtime),
+                dwh.GE(EventData.FLD_creationMillis, testStartMS)
+            )
+        ));
+
+        /* read */
+        int latCount = 0;
+        DBConnection dbc  = null;
+        Statement    stmt = null;
+        ResultSet    rs   = null;
+        try {
+            dbc  = DBConnection.getDBConnection(rwMode);
+            stmt = dbc.execute(dsel.toString());
+            rs   = stmt.getResultSet();
+            while (rs.next() && (latCount < latency.length)) {
+                Session s = sessMap.get(rs.getString(EventData.FLD_deviceID));
+                Long sentMS = (s != null)? s.sentMillis.get(new Long(rs.getLong(EventData.FLD_timestamp))) : null;
+                if (sentMS == null) {
+                    continue;
+                }
+                long createMS = rs.getLong(EventData.FLD_creationMillis);
+                latency[latCount++] = Math.max(0L, createMS - sentMS.longValue());
+                if (createMS > lastCreateMS[0]) { lastCreateMS[0] = createMS; }
+            }
+        } catch (SQLException sqe) {
+            throw new DBException("Reading EventData creationMillis", sqe);
+        } finally {
+            if (rs   != null) { try { rs.close();   } catch (Throwable t) {} }
+            if (stmt != null) { try { stmt.close(); } catch (Throwable t) {} }
+            DBConnection.release(dbc);
+        }
+        return latCount;
+
+    }
+
+    // ------------------------------------------------------------------------
+
+    /* display usage and exit */
+    private static void usage(String msg)
+    {
+        if (!StringTools.isBlank(msg)) {
+            Print.logInfo(msg);
+        }
+        String className = LoadTestSimulator.class.getName();
+        Print.logInfo("");
+        Print.logInfo("Usage:");
+        Print.logInfo("  java ... " + className + " -port=<port> -account=<acct> [options]");
+        Print.logInfo("Options:");
+        Print.logInfo("  -host=<host>         DCS host [dft=localhost]");
+        Print.logInfo("  -port=<port>         DCS TCP/UDP port");
+        Print.logInfo("  [-udp]               Send via UDP rather than TCP");
+        Print.logInfo("  -account=<acct>      Account ID of simulated devices");
+        Print.logInfo("  [-devicePrefix=<p>]  Device ID prefix [dft=sim]");
+        Print.logInfo("  [-deviceStart=<n>]   First device number [dft=1]");
+        Print.logInfo("  [-format=<fmt>]      Record format: template|tk10x|taip [dft=template]");
+        Print.logInfo("  [-mobilePrefix=<p>]  Simulated mobile-id (IMEI) prefix [dft=" + DEFAULT_MOBILE_PREFIX + "]");
+        Print.logInfo("  [-provision]         Create missing Devices, and set their Unique-ID");
+        Print.logInfo("  [-dcs=<name>]        DCS name used for the Unique-ID prefix [dft=<format>]");
+        Print.logInfo("  [-sessions=<n>]      Number of simulated device sessions [dft=10]");
+        Print.logInfo("  [-threads=<n>]       Number of sender threads [dft=min(sessions,32)]");
+        Print.logInfo("  [-rate=<eps>]        Events per second, per session [dft=1.0]");
+        Print.logInfo("  [-duration=<sec>]    Test duration in seconds [dft=60]");
+        Print.logInfo("  [-track=<file>]      File containing $GPRMC records to replay");
+        Print.logInfo("  [-lat=<lat>]         Synthetic track starting latitude");
+        Print.logInfo("  [-lon=<lon>]         Synthetic track starting longitude");
+        Print.logInfo("  [-linePattern=<pat>] Line pattern [dft=depends on format]");
+        Print.logInfo("                       ${account}, ${device}, ${mobileID}, ${gprmc}, ${taipRPV}");
+        Print.logInfo("  [-measure=<bool>]    Read back inserted EventData [dft=true]");
+        Print.logInfo("  [-settle=<sec>]      Time allowed for ingest to complete [dft=10]");
+        Print.logInfo("");
+        System.exit(1);
+    }
+
+    /* main entry point */
+    public static void main(String argv[])
+    {
+        DBConfig.cmdLineInit(argv,true);  // main
+        String  host     = RTConfig.getString(ARG_HOST, "localhost");
+        int     port     = RTConfig.getInt(ARG_PORT, 0);
+        boolean udp      = RTConfig.getBoolean(ARG_UDP, false);
+        String  acctID   = RTConfig.getString(ARG_ACCOUNT, "");
+        String  devPfx   = RTConfig.getString(ARG_DEVICE_PREFIX, "sim");
+        int     devStart = RTConfig.getInt(ARG_DEVICE_START, 1);
+        int     sessCnt  = Math.max(1, RTConfig.getInt(ARG_SESSIONS, 10));
+        int     thrCnt   = Math.max(1, Math.min(sessCnt, RTConfig.getInt(ARG_THREADS, Math.min(sessCnt,32))));
+        double  rate     = RTConfig.getDouble(ARG_RATE, 1.0);
+        long    durSec   = Math.max(1L, RTConfig.getLong(ARG_DURATION, 60L));
+        String  format   = RTConfig.getString(ARG_FORMAT, FORMAT_TEMPLATE);
+        String  pattern  = RTConfig.getString(ARG_LINE_PATTERN, GetDefaultLinePattern(format));
+        String  mobPfx   = RTConfig.getString(ARG_MOBILE_PREFIX, DEFAULT_MOBILE_PREFIX);
+        boolean provision= RTConfig.getBoolean(ARG_PROVISION, false);
+        String  dcsName  = RTConfig.getString(ARG_DCS, format);
+        double  lat      = RTConfig.getDouble(ARG_LAT,  39.0);
+        double  lon      = RTConfig.getDouble(ARG_LON, -142.0);
+        boolean measure  = RTConfig.getBoolean(ARG_MEASURE, true);
+        long    settle   = RTConfig.getLong(ARG_SETTLE, 10L);
+
+        /* validate */
+        if (port <= 0) {
+            LoadTestSimulator.usage("Missing/Invalid port");
+        }
+        if (StringTools.isBlank(acctID)) {
+            LoadTestSimulator.usage("Missing account");
+        }
+        if (rate <= 0.0) {
+            LoadTestSimulator.usage("Invalid rate: " + rate);
+        }
+        if (!FORMAT_TEMPLATE.equalsIgnoreCase(format) && 
+            !FORMAT_TK10X.equalsIgnoreCase(format)    && 
+            !FORMAT_TAIP.equalsIgnoreCase(format)       ) {
+            LoadTestSimulator.usage("Invalid format: " + format);
+        }
+        if (mobPfx.length() >= MOBILE_ID_LENGTH) {
+            LoadTestSimulator.usage("Invalid mobile-id prefix: " + mobPfx);
+        }
+
+        /* simulated device/mobile ids */
+        List<String> devIDs = new Vector<String>();
+        List<String> mobIDs = new Vector<String>();
+        for (int i = 0; i < sessCnt; i++) {
+            String num = String.valueOf(devStart + i);
+            devIDs.add(devPfx + num);
+            mobIDs.add(mobPfx + StringTools.padLeft(num, '0', MOBILE_ID_LENGTH - mobPfx.length()));
+        }
+
+        /* provision */
+        if (provision) {
+            int n = LoadTestSimulator.ProvisionDevices(acctID, dcsName, devIDs, mobIDs);
+            if (n < 0) {
+                System.exit(1);
+            }
+            Print.logInfo("Provisioned " + n + " simulated device(s) in account " + acctID);
+        }
+
+        /* track */
+        List<Nmea0183> replay = null;
+        if (RTConfig.hasProperty(ARG_TRACK)) {
+            File trackFile = RTConfig.getFile(ARG_TRACK, null);
+            replay = LoadTestSimulator.LoadTrack(trackFile);
+            if (ListTools.isEmpty(replay)) {
+                LoadTestSimulator.usage("No valid $GPRMC records found in track file: " + trackFile);
+            }
+            Print.logInfo("Loaded " + replay.size() + " track points from " + trackFile);
+        }
+
+        /* fixtimes end prior to the start of the test (avoids "future" event filtering) */
+        long eventsPerDev = (long)Math.ceil(rate * durSec) + 1L;
+        long firstFixtime = DateTime.getCurrentTimeSec() - eventsPerDev - 60L;
+
+        /* open sessions */
+        Print.logInfo("Opening " + sessCnt + " " + (udp?"UDP":"TCP") + " sessions to " + host + ":" + port + " ...");
+        long stopMS = System.currentTimeMillis() + 5000L + (durSec * 1000L); // allow 5 sec to connect
+        List<Session> sessions = new Vector<Session>();
+        Sender senders[] = new Sender[thrCnt];
+        for (int t = 0; t < thrCnt; t++) {
+            senders[t] = new Sender(acctID, pattern, rate, stopMS);
+        }
+        for (int i = 0; i < sessCnt; i++) {
+            String devID = devIDs.get(i);
+            Session s = new Session(devID, mobIDs.get(i), new TrackSource(replay, i, lat, lon, i), firstFixtime);
+            try {
+                s.open(host, port, udp);
+            } catch (IOException ioe) {
+                Print.logError("Unable to open session for " + devID + ": " + ioe);
+                continue;
+            }
+            sessions.add(s);
+            senders[i % thrCnt].sessions.add(s);
+        }
+        if (sessions.isEmpty()) {
+            Print.logError("No sessions opened");
+            System.exit(1);
+        }
+
+        /* send */
+        long testStartMS = System.currentTimeMillis();
+        Print.logInfo("Sending " + rate + " events/sec on " + sessions.size() + " sessions for " + durSec + " seconds ...");
+        Thread threads[] = new Thread[thrCnt];
+        for (int t = 0; t < thrCnt; t++) {
+            threads[t] = new Thread(senders[t], "LoadTestSender_" + t);
+            threads[t].start();
+        }
+        for (int t = 0; t < thrCnt; t++) {
+            try { threads[t].join(); } catch (InterruptedException ie) { /*ignore*/ }
+        }
+        long testStopMS = System.currentTimeMillis();
+        long sentCount  = 0L;
+        long sendErrors = 0L;
+        for (int t = 0; t < thrCnt; t++) {
+            sentCount += senders[t].sentCount;
+        }
+        for (Session s : sessions) {
+            sendErrors += s.sendErrors;
+            s.close();
+        }
+        double sendSec = (double)(testStopMS - testStartMS) / 1000.0;
+        Print.logInfo("Sent " + sentCount + " events in " + StringTools.format(sendSec,"0.0") + " sec " +
+            "(" + StringTools.format((double)sentCount/sendSec,"0.0") + " events/sec, " + sendErrors + " errors)");
+        if (!measure) {
+            System.exit(0);
+        }
+
+        /* wait for ingest to settle */
+        if (settle > 0L) {
+            Print.logInfo("Waiting " + settle + " seconds for ingest to complete ...");
+            try { Thread.sleep(settle * 1000L); } catch (InterruptedException ie) { /*ignore*/ }
+        }
+
+        /* count inserted events */
+        long insCount = 0L;
+        try {
+            for (Session s : sessions) {
+                long n = EventData.getRecordCount(acctID, s.deviceID, firstFixtime, s.getLastFixtime());
+                if (n > 0L) { insCount += n; }
+            }
+        } catch (DBException dbe) {
+            Print.logException("Unable to count EventData records", dbe);
+            System.exit(1);
+        }
+
+        /* read back insertion latency */
+        Map<String,Session> sessMap = new HashMap<String,Session>();
+        for (Session s : sessions) {
+            sessMap.put(s.deviceID, s);
+        }
+        long latency[] = new long[(int)Math.min(sentCount, (long)Integer.MAX_VALUE)];
+        int  latCount  = 0;
+        long lastCreateMS[] = new long[] { 0L };
+        try {
+            latCount = LoadTestSimulator.ReadLatency(acctID, firstFixtime, testStartMS, sessMap, latency, lastCreateMS);
+        } catch (DBException dbe) {
+            Print.logException("Unable to read EventData creationMillis", dbe);
+            System.exit(1);
+        }
+
+        /* report */
+        long sorted[] = new long[latCount];
+        System.arraycopy(latency, 0, sorted, 0, latCount);
+        Arrays.sort(sorted);
+        double ingestSec = (lastCreateMS[0] > testStartMS)? ((double)(lastCreateMS[0] - testStartMS) / 1000.0) : sendSec;
+        Print.sysPrintln("");
+        Print.sysPrintln("Load Test Results:");
+        Print.sysPrintln("  Sessions        : " + sessions.size() + " (" + (udp?"UDP":"TCP") + ")");
+        Print.sysPrintln("  Events sent     : " + sentCount + " (" + sendErrors + " send errors)");
+        Print.sysPrintln("  Format          : " + format);
+        Print.sysPrintln("  Events inserted : " + insCount + " (" + (sentCount - insCount) + " missing)");
+        Print.sysPrintln("  Ingest rate     : " + StringTools.format((double)insCount/ingestSec,"0.0") + " events/sec");
+        Print.sysPrintln("  Latency p50     : " + Percentile(sorted,50.0) + " ms");
+        Print.sysPrintln("  Latency p99     : " + Percentile(sorted,99.0) + " ms");
+        Print.sysPrintln("  Latency max     : " + Percentile(sorted,100.0) + " ms");
+        Print.sysPrintln("");
+        System.exit(0);
+
+    }
+
+}
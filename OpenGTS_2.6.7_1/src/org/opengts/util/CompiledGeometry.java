@@ -0,0 +1,705 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2020, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Precompiled (flattened primitive) zone geometry for repeated point-inclusion
+//  tests.
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19  GTS Development Team
+//     -Initial release
+//     -Added swept-point-radius corridor with segment grid index
+// ----------------------------------------------------------------------------
+package org.opengts.util;
+
+import java.lang.*;
+import java.util.*;
+
+/**
+*** CompiledGeometry class<br>
+*** Precompiled form of a polygon, bounded-rectangle, multi-point-radius, or swept-point-radius
+*** (corridor) zone.  The compiled vertices are not modified once compiled.  The corridor also
+*** remembers (in a synchronized map, by hint key) the last matched segment, which only
+*** affects the order in which segments are tested, never the inclusion result.
+*** Vertices are flattened into primitive <code>double[]</code> arrays and the bounding box
+*** (and, for polygons, the per-edge deltas) are computed once, so that repeated calls to
+*** <code>containsPoint</code> perform no allocation and no redundant trigonometry.  Polygons
+*** with many edges are additionally decomposed into horizontal (latitude) slabs, each
+*** listing only the edges which overlap the slab, so that a point test only examines the
+*** edges in the slab containing the point.
+*** <br>
+*** Inclusion results are identical to <code>GeoPolygon.isPointInside</code>, the
+*** Geozone bounded-rectangle checker, and the <code>GeoPoint</code> radius checker.
+**/
+public abstract class CompiledGeometry
+{
+
+    // ------------------------------------------------------------------------
+
+    /* polygons with at least this many edges are decomposed into slabs */
+    public  static final int        SLAB_MIN_EDGES          = 32;
+    private static final int        SLAB_EDGES_PER_SLAB     = 4;
+    private static final int        SLAB_MAX_COUNT          = 1024;
+
+    /* cell classification */
+    public  static final int        CELL_OUTSIDE            = 0;    // cell entirely outside
+    public  static final int        CELL_INSIDE             = 1;    // cell entirely inside
+    public  static final int        CELL_BOUNDARY           = 2;    // cell may straddle the boundary
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Compiles the specified polygon vertices
+    *** @param gp  The polygon vertices (need not be closed)
+    *** @return The compiled polygon, or null if the polygon has fewer than 2 vertices
+    **/
+    public static CompiledGeometry polygon(GeoPoint gp[])
+    {
+        gp = GeoPolygon.closePolygon(gp);
+        return (ListTools.size(gp) >= 2)? new Polygon(gp) : null;
+    }
+
+    /**
+    *** Compiles the specified bounded-rectangle vertices
+    *** @param gp        The rectangle vertices (all points are used to compute the bounds)
+    *** @param deltaDeg  The number of degrees by which the bounds are expanded
+    *** @return The compiled rectangle, or null if fewer than 2 vertices are specified
+    **/
+    public static CompiledGeometry rectangle(GeoPoint gp[], double deltaDeg)
+    {
+        return (ListTools.size(gp) >= 2)? new Rectangle(gp, deltaDeg) : null;
+    }
+
+    /**
+    *** Compiles the specified point-radius centers
+    *** @param gp        The circle center points
+    *** @param radiusKM  The circle radius, in kilometers
+    *** @return The compiled point-radius geometry, or null if no center points are specified
+    **/
+    public static CompiledGeometry pointRadius(GeoPoint gp[], double radiusKM)
+    {
+        return !ListTools.isEmpty(gp)? new PointRadius(gp, radiusKM) : null;
+    }
+
+    /**
+    *** Compiles the specified swept-point-radius corridor (the area swept by a circle of the
+    *** specified radius moving along the path between consecutive points)
+    *** @param gp        The corridor path points
+    *** @param radiusKM  The corridor radius (half-width), in kilometers
+    *** @return The compiled corridor, or null if no path points are specified
+    **/
+    public static CompiledGeometry corridor(GeoPoint gp[], double radiusKM)
+    {
+        return !ListTools.isEmpty(gp)? new Corridor(gp, radiusKM) : null;
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    protected double    minLat  =  90.0;
+    protected double    maxLat  = -90.0;
+    protected double    minLon  =  180.0;
+    protected double    maxLon  = -180.0;
+
+    /**
+    *** Constructor
+    **/
+    protected CompiledGeometry()
+    {
+        super();
+    }
+
+    /**
+    *** Extends the bounding box by the specified point
+    **/
+    protected void _extend(double lat, double lon)
+    {
+        if (lat < this.minLat) { this.minLat = lat; }
+        if (lat > this.maxLat) { this.maxLat = lat; }
+        if (lon < this.minLon) { this.minLon = lon; }
+        if (lon > this.maxLon) { this.maxLon = lon; }
+    }
+
+    /**
+    *** Returns true if the specified point is within the bounding box of this geometry
+    *** @param lat  The point latitude
+    *** @param lon  The point longitude
+    *** @return True if the point is within the bounding box
+    **/
+    public boolean boundsContain(double lat, double lon)
+    {
+        return (lat >= this.minLat) && (lat <= this.maxLat) && (lon >= this.minLon) && (lon <= this.maxLon);
+    }
+
+    /**
+    *** Gets the bounding box of this geometry
+    *** @return The bounding box
+    **/
+    public GeoBounds getBounds()
+    {
+        GeoBounds gb = new GeoBounds();
+        gb.setMinLatitude( this.minLat);
+        gb.setMaxLatitude( this.maxLat);
+        gb.setMinLongitude(this.minLon);
+        gb.setMaxLongitude(this.maxLon);
+        return gb;
+    }
+
+    /**
+    *** Returns true if this geometry contains the specified point
+    *** @param gp  The point to test
+    *** @return True if this geometry contains the point
+    **/
+    public boolean containsPoint(GeoPoint gp)
+    {
+        return (gp != null)? this.containsPoint(gp.getLatitude(), gp.getLongitude()) : false;
+    }
+
+    /**
+    *** Returns true if this geometry contains the specified point
+    *** @param lat  The point latitude
+    *** @param lon  The point longitude
+    *** @return True if this geometry contains the point
+    **/
+    public abstract boolean containsPoint(double lat, double lon);
+
+    /**
+    *** Returns true if this geometry contains the specified point.  For corridors, the last
+    *** matched path segment is remembered for the specified hint key (typically the Device ID),
+    *** and is checked first on the next call with the same key.
+    *** @param lat      The point latitude
+    *** @param lon      The point longitude
+    *** @param hintKey  The hint key (null for no hint)
+    *** @return True if this geometry contains the point
+    **/
+    public boolean containsPoint(double lat, double lon, String hintKey)
+    {
+        return this.containsPoint(lat, lon);
+    }
+
+    /**
+    *** Classifies the specified cell as entirely inside, entirely outside, or straddling
+    *** the boundary of this geometry.  The classification is conservative: CELL_INSIDE or
+    *** CELL_OUTSIDE is only returned if every point in the cell would produce the same
+    *** <code>containsPoint</code> result.
+    *** @param minLat  The cell minimum latitude
+    *** @param maxLat  The cell maximum latitude
+    *** @param minLon  The cell minimum longitude
+    *** @param maxLon  The cell maximum longitude
+    *** @return CELL_INSIDE, CELL_OUTSIDE, or CELL_BOUNDARY
+    **/
+    public abstract int classifyCell(double minLat, double maxLat, double minLon, double maxLon);
+
+    /**
+    *** Returns true if the specified cell is entirely outside the bounding box of this geometry
+    **/
+    protected boolean _cellOutsideBounds(double minLat, double maxLat, double minLon, double maxLon)
+    {
+        return (minLat > this.maxLat) || (maxLat < this.minLat) || (minLon > this.maxLon) || (maxLon < this.minLon);
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Compiled polygon (winding-number inclusion test)
+    **/
+    private static class Polygon
+        extends CompiledGeometry
+    {
+        private boolean closed      = false;
+        private int     edgeCount   = 0;
+        private double  x0[]        = null;     // edge start longitude
+        private double  y0[]        = null;     // edge start latitude
+        private double  y1[]        = null;     // edge end latitude
+        private double  dx[]        = null;     // edge longitude delta
+        private double  dy[]        = null;     // edge latitude delta
+        private int     slabCount   = 0;
+        private double  slabHeight  = 0.0;
+        private int     slabStart[] = null;     // [slabCount+1] offsets into slabEdges
+        private int     slabEdges[] = null;
+        public Polygon(GeoPoint pp[]) {
+            // -- 'pp' is closed
+            int n = pp.length - 1;
+            this.edgeCount = n;
+            this.x0 = new double[n];
+            this.y0 = new double[n];
+            this.y1 = new double[n];
+            this.dx = new double[n];
+            this.dy = new double[n];
+            for (int i = 0; i < n; i++) {
+                double ax = pp[i  ].getX(), ay = pp[i  ].getY();
+                double bx = pp[i+1].getX(), by = pp[i+1].getY();
+                this.x0[i] = ax;
+                this.y0[i] = ay;
+                this.y1[i] = by;
+                this.dx[i] = bx - ax;
+                this.dy[i] = by - ay;
+                this._extend(ay, ax);
+            }
+            this.closed = pp[0].equals(pp[n]);
+            if (n >= SLAB_MIN_EDGES) {
+                this._buildSlabs();
+            }
+        }
+        private void _buildSlabs() {
+            double height = this.maxLat - this.minLat;
+            if (height <= 0.0) {
+                return;
+            }
+            int k = Math.max(1, Math.min(SLAB_MAX_COUNT, this.edgeCount / SLAB_EDGES_PER_SLAB));
+            double h   = height / (double)k;
+            double eps = h * 1.0E-9;
+            // -- count edges per slab
+            int cnt[] = new int[k];
+            for (int e = 0; e < this.edgeCount; e++) {
+                int s0 = this._slabIndex(Math.min(this.y0[e],this.y1[e]) - eps, k, h);
+                int s1 = this._slabIndex(Math.max(this.y0[e],this.y1[e]) + eps, k, h);
+                for (int s = s0; s <= s1; s++) { cnt[s]++; }
+            }
+            int start[] = new int[k + 1];
+            for (int s = 0; s < k; s++) { start[s + 1] = start[s] + cnt[s]; }
+            // -- fill (edges remain in polygon order within each slab)
+            int edges[] = new int[start[k]];
+            int pos[]   = new int[k];
+            System.arraycopy(start, 0, pos, 0, k);
+            for (int e = 0; e < this.edgeCount; e++) {
+                int s0 = this._slabIndex(Math.min(this.y0[e],this.y1[e]) - eps, k, h);
+                int s1 = this._slabIndex(Math.max(this.y0[e],this.y1[e]) + eps, k, h);
+                for (int s = s0; s <= s1; s++) { edges[pos[s]++] = e; }
+            }
+            this.slabCount  = k;
+            this.slabHeight = h;
+            this.slabStart  = start;
+            this.slabEdges  = edges;
+        }
+        private int _slabIndex(double lat, int k, double h) {
+            int s = (int)Math.floor((lat - this.minLat) / h);
+            return (s < 0)? 0 : (s >= k)? (k - 1) : s;
+        }
+        private int _winding(int e, double lat, double lon, int wn) {
+            if (this.y0[e] <= lat) {
+                if (this.y1[e] > lat) {                                                 // an upward crossing
+                    if ((this.dx[e] * (lat - this.y0[e])) - ((lon - this.x0[e]) * this.dy[e]) > 0.0) {
+                        ++wn;                                                           // P left of edge
+                    }
+                }
+            } else {
+                if (this.y1[e] <= lat) {                                                // a downward crossing
+                    if ((this.dx[e] * (lat - this.y0[e])) - ((lon - this.x0[e]) * this.dy[e]) < 0.0) {
+                        --wn;                                                           // P right of edge
+                    }
+                }
+            }
+            return wn;
+        }
+        public boolean containsPoint(double lat, double lon) {
+            // -- (an unclosed polygon may wind around points outside of its bounds)
+            if (this.closed && !this.boundsContain(lat, lon)) {
+                return false;
+            }
+            int wn = 0;
+            if (this.slabCount > 0) {
+                int s = this._slabIndex(lat, this.slabCount, this.slabHeight);
+                for (int i = this.slabStart[s]; i < this.slabStart[s + 1]; i++) {
+                    wn = this._winding(this.slabEdges[i], lat, lon, wn);
+                }
+            } else {
+                for (int e = 0; e < this.edgeCount; e++) {
+                    wn = this._winding(e, lat, lon, wn);
+                }
+            }
+            return (wn != 0); // wn==0 if point is OUTSIDE
+        }
+        public int classifyCell(double minLat, double maxLat, double minLon, double maxLon) {
+            if (!this.closed) {
+                return CELL_BOUNDARY;
+            } else
+            if (this._cellOutsideBounds(minLat, maxLat, minLon, maxLon)) {
+                return CELL_OUTSIDE;
+            }
+            // -- if no edge touches the (slightly expanded) cell, the winding number is
+            // -  the same for every point in the cell
+            double eLat = (maxLat - minLat) * 1.0E-6 + 1.0E-12;
+            double eLon = (maxLon - minLon) * 1.0E-6 + 1.0E-12;
+            double y0 = minLat - eLat, y1 = maxLat + eLat;
+            double x0 = minLon - eLon, x1 = maxLon + eLon;
+            if (this.slabCount > 0) {
+                int s0 = this._slabIndex(y0, this.slabCount, this.slabHeight);
+                int s1 = this._slabIndex(y1, this.slabCount, this.slabHeight);
+                for (int s = s0; s <= s1; s++) {
+                    for (int i = this.slabStart[s]; i < this.slabStart[s + 1]; i++) {
+                        if (this._edgeIntersects(this.slabEdges[i], y0, y1, x0, x1)) {
+                            return CELL_BOUNDARY;
+                        }
+                    }
+                }
+            } else {
+                for (int e = 0; e < this.edgeCount; e++) {
+                    if (this._edgeIntersects(e, y0, y1, x0, x1)) {
+                        return CELL_BOUNDARY;
+                    }
+                }
+            }
+            double cLat = (minLat + maxLat) / 2.0, cLon = (minLon + maxLon) / 2.0;
+            return this.containsPoint(cLat, cLon)? CELL_INSIDE : CELL_OUTSIDE;
+        }
+        private boolean _edgeIntersects(int e, double minY, double maxY, double minX, double maxX) {
+            // -- Liang-Barsky segment/rectangle clipping
+            double ex = this.x0[e], ey = this.y0[e], dx = this.dx[e], dy = this.dy[e];
+            double p[] = { -dx, dx, -dy, dy };
+            double q[] = { ex - minX, maxX - ex, ey - minY, maxY - ey };
+            double t0 = 0.0, t1 = 1.0;
+            for (int k = 0; k < 4; k++) {
+                if (p[k] == 0.0) {
+                    if (q[k] < 0.0) { return false; } // parallel and outside
+                } else {
+                    double t = q[k] / p[k];
+                    if (p[k] < 0.0) {
+                        if (t > t1) { return false; }
+                        if (t > t0) { t0 = t; }
+                    } else {
+                        if (t < t0) { return false; }
+                        if (t < t1) { t1 = t; }
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Compiled bounded rectangle
+    **/
+    private static class Rectangle
+        extends CompiledGeometry
+    {
+        public Rectangle(GeoPoint gp[], double deltaDeg) {
+            for (int i = 0; i < gp.length; i++) {
+                this._extend(gp[i].getLatitude(), gp[i].getLongitude());
+            }
+            this.minLat -= deltaDeg;
+            this.maxLat += deltaDeg;
+            this.minLon -= deltaDeg;
+            this.maxLon += deltaDeg;
+        }
+        public boolean containsPoint(double lat, double lon) {
+            return this.boundsContain(lat, lon); // (fails if zone spans +/-180 deg)
+        }
+        public int classifyCell(double minLat, double maxLat, double minLon, double maxLon) {
+            if (this._cellOutsideBounds(minLat, maxLat, minLon, maxLon)) {
+                return CELL_OUTSIDE;
+            } else
+            if (this.boundsContain(minLat, minLon) && this.boundsContain(maxLat, maxLon)) {
+                return CELL_INSIDE;
+            } else {
+                return CELL_BOUNDARY;
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Compiled multi-point radius (haversine distance to each center point)
+    **/
+    private static class PointRadius
+        extends CompiledGeometry
+    {
+        private int     count       = 0;
+        private double  latDeg[]    = null;
+        private double  lonDeg[]    = null;
+        private double  latRad[]    = null;
+        private double  lonRad[]    = null;
+        private double  cosLat[]    = null;
+        private double  radiusKM    = 0.0;
+        private double  rejectRad   = 0.0;     // quick-reject latitude delta (radians)
+        public PointRadius(GeoPoint gp[], double radiusKM) {
+            this.count    = gp.length;
+            this.latDeg   = new double[this.count];
+            this.lonDeg   = new double[this.count];
+            this.latRad   = new double[this.count];
+            this.lonRad   = new double[this.count];
+            this.cosLat   = new double[this.count];
+            this.radiusKM = radiusKM;
+            this.rejectRad = (Math.max(0.0, radiusKM) / GeoPoint.EARTH_MEAN_RADIUS_KM) * (1.0 + 1.0E-9);
+            double dLatDeg = Math.toDegrees(this.rejectRad);
+            for (int i = 0; i < this.count; i++) {
+                this.latDeg[i] = gp[i].getLatitude();
+                this.lonDeg[i] = gp[i].getLongitude();
+                this.latRad[i] = gp[i].getLatitudeRadians();
+                this.lonRad[i] = gp[i].getLongitudeRadians();
+                this.cosLat[i] = Math.cos(this.latRad[i]);
+                // -- latitude extent only (longitude extent depends on latitude)
+                this._extend(gp[i].getLatitude() - dLatDeg, gp[i].getLongitude());
+                this._extend(gp[i].getLatitude() + dLatDeg, gp[i].getLongitude());
+            }
+            this.minLon = -180.0;
+            this.maxLon =  180.0;
+        }
+        public boolean containsPoint(double lat, double lon) {
+            double lat2 = lat * GeoPoint.RADIANS;
+            double lon2 = lon * GeoPoint.RADIANS;
+            double cos2 = Math.cos(lat2);
+            for (int i = 0; i < this.count; i++) {
+                // -- great-circle distance is never less than the latitude difference
+                double dlat = lat2 - this.latRad[i];
+                if (Math.abs(dlat) > this.rejectRad) {
+                    continue;
+                }
+                double dlon = lon2 - this.lonRad[i];
+                double sLat = Math.sin(dlat / 2.0);
+                double sLon = Math.sin(dlon / 2.0);
+                double a    = (sLat * sLat) + (this.cosLat[i] * cos2 * (sLon * sLon));
+                double km   = GeoPoint.EARTH_MEAN_RADIUS_KM * (2.0 * Math.atan2(Math.sqrt(a), Math.sqrt(1.0 - a)));
+                if (km <= this.radiusKM) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        private double _km(int i, double lat, double lon) {
+            double lat2 = lat * GeoPoint.RADIANS;
+            double sLat = Math.sin((lat2 - this.latRad[i]) / 2.0);
+            double sLon = Math.sin(((lon * GeoPoint.RADIANS) - this.lonRad[i]) / 2.0);
+            double a    = (sLat * sLat) + (this.cosLat[i] * Math.cos(lat2) * (sLon * sLon));
+            return GeoPoint.EARTH_MEAN_RADIUS_KM * (2.0 * Math.atan2(Math.sqrt(a), Math.sqrt(1.0 - a)));
+        }
+        public int classifyCell(double minLat, double maxLat, double minLon, double maxLon) {
+            if (this._cellOutsideBounds(minLat, maxLat, minLon, maxLon)) {
+                return CELL_OUTSIDE;
+            }
+            // -- tolerance covers the curvature of the cell edges
+            double cellKM = GeoPoint.EARTH_MEAN_RADIUS_KM * Math.toRadians(Math.max(maxLat - minLat, maxLon - minLon));
+            double tolKM  = Math.max(0.001, 0.01 * cellKM);
+            boolean boundary = false;
+            for (int i = 0; i < this.count; i++) {
+                double cLat = this.latDeg[i], cLon = this.lonDeg[i];
+                // -- nearest point in cell
+                double nLat = (cLat < minLat)? minLat : (cLat > maxLat)? maxLat : cLat;
+                double nLon = (cLon < minLon)? minLon : (cLon > maxLon)? maxLon : cLon;
+                double near = this._km(i, nLat, nLon);
+                if (near > (this.radiusKM + tolKM)) {
+                    continue; // cell outside this circle
+                }
+                // -- farthest cell corner
+                double far = Math.max(
+                    Math.max(this._km(i, minLat, minLon), this._km(i, minLat, maxLon)),
+                    Math.max(this._km(i, maxLat, minLon), this._km(i, maxLat, maxLon)));
+                if (far <= (this.radiusKM - tolKM)) {
+                    return CELL_INSIDE; // cell inside this circle
+                }
+                boundary = true;
+            }
+            return boundary? CELL_BOUNDARY : CELL_OUTSIDE;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Compiled swept-point-radius corridor.  Path segments are indexed in a uniform
+    *** latitude/longitude grid (each segment is listed in every cell overlapped by its bounds,
+    *** expanded by the corridor radius), and point-to-segment distances are calculated in a
+    *** local equirectangular projection centered on the tested point.
+    **/
+    private static class Corridor
+        extends CompiledGeometry
+    {
+        private static final double KM_PER_DEGREE   = GeoPoint.EARTH_MEAN_RADIUS_KM * GeoPoint.RADIANS;
+        private static final int    MAX_GRID_CELLS  = 65536;
+        private static final int    MAX_HINT_KEYS   = 2000;
+        private int     segCount    = 0;
+        private double  latA[]      = null;
+        private double  lonA[]      = null;
+        private double  latB[]      = null;
+        private double  lonB[]      = null;
+        private double  radiusKM    = 0.0;
+        private int     cols        = 0;
+        private int     rows        = 0;
+        private double  cellLat     = 0.0;
+        private double  cellLon     = 0.0;
+        private int     cellStart[] = null;     // [cols*rows+1] offsets into cellSegs
+        private int     cellSegs[]  = null;
+        private Map<String,Integer> hintMap = null;
+        public Corridor(GeoPoint gp[], double radiusKM) {
+            this.radiusKM = Math.max(0.0, radiusKM);
+            // -- segments (a single point is a zero-length segment)
+            int n = (gp.length > 1)? (gp.length - 1) : 1;
+            this.segCount = n;
+            this.latA = new double[n];
+            this.lonA = new double[n];
+            this.latB = new double[n];
+            this.lonB = new double[n];
+            for (int i = 0; i < n; i++) {
+                GeoPoint a = gp[i], b = gp[Math.min(i + 1, gp.length - 1)];
+                this.latA[i] = a.getLatitude();
+                this.lonA[i] = a.getLongitude();
+                this.latB[i] = b.getLatitude();
+                this.lonB[i] = b.getLongitude();
+            }
+            // -- expanded bounds
+            double sb[] = new double[4];
+            for (int i = 0; i < n; i++) {
+                this._segBounds(i, sb);
+                this._extend(sb[0], sb[2]);
+                this._extend(sb[1], sb[3]);
+            }
+            this._buildGrid();
+            this.hintMap = new LinkedHashMap<String,Integer>(64, 0.75F, true) {
+                protected boolean removeEldestEntry(Map.Entry<String,Integer> eldest) {
+                    return (this.size() > MAX_HINT_KEYS);
+                }
+            };
+        }
+        private void _segBounds(int i, double sb[]) {
+            double maxAbsLat = Math.max(Math.abs(this.latA[i]), Math.abs(this.latB[i]));
+            double dLat = this.radiusKM / KM_PER_DEGREE;
+            double dLon = this.radiusKM / (KM_PER_DEGREE * Math.max(0.01, Math.cos((Math.min(90.0, maxAbsLat + dLat)) * GeoPoint.RADIANS)));
+            sb[0] = Math.min(this.latA[i], this.latB[i]) - dLat;
+            sb[1] = Math.max(this.latA[i], this.latB[i]) + dLat;
+            sb[2] = Math.min(this.lonA[i], this.lonB[i]) - dLon;
+            sb[3] = Math.max(this.lonA[i], this.lonB[i]) + dLon;
+        }
+        private void _buildGrid() {
+            double h = this.maxLat - this.minLat;
+            double w = this.maxLon - this.minLon;
+            if ((h <= 0.0) || (w <= 0.0)) {
+                h = Math.max(h, 1.0E-9);
+                w = Math.max(w, 1.0E-9);
+            }
+            int target = Math.max(1, Math.min(MAX_GRID_CELLS, this.segCount * 2));
+            double sb[] = new double[4];
+            for (;;) {
+                int cols = Math.max(1, Math.min(target, (int)Math.ceil(Math.sqrt((double)target * w / h))));
+                int rows = Math.max(1, Math.min(target, (int)Math.ceil((double)target / (double)cols)));
+                double cLat = h / (double)rows, cLon = w / (double)cols;
+                // -- count segments per cell
+                int cnt[] = new int[cols * rows];
+                long total = 0L;
+                for (int i = 0; i < this.segCount; i++) {
+                    this._segBounds(i, sb);
+                    int r0 = this._cell(sb[0], this.minLat, cLat, rows), r1 = this._cell(sb[1], this.minLat, cLat, rows);
+                    int c0 = this._cell(sb[2], this.minLon, cLon, cols), c1 = this._cell(sb[3], this.minLon, cLon, cols);
+                    for (int r = r0; r <= r1; r++) {
+                        for (int c = c0; c <= c1; c++) { cnt[(r * cols) + c]++; }
+                    }
+                    total += (long)(r1 - r0 + 1) * (long)(c1 - c0 + 1);
+                }
+                // -- too many entries (long diagonal segments), use a coarser grid
+                if ((total > ((long)this.segCount * 32L) + 1024L) && (target > 1)) {
+                    target = target / 4;
+                    continue;
+                }
+                int start[] = new int[(cols * rows) + 1];
+                for (int k = 0; k < (cols * rows); k++) { start[k + 1] = start[k] + cnt[k]; }
+                int segs[] = new int[start[cols * rows]];
+                int pos[]  = new int[cols * rows];
+                System.arraycopy(start, 0, pos, 0, cols * rows);
+                for (int i = 0; i < this.segCount; i++) {
+                    this._segBounds(i, sb);
+                    int r0 = this._cell(sb[0], this.minLat, cLat, rows), r1 = this._cell(sb[1], this.minLat, cLat, rows);
+                    int c0 = this._cell(sb[2], this.minLon, cLon, cols), c1 = this._cell(sb[3], this.minLon, cLon, cols);
+                    for (int r = r0; r <= r1; r++) {
+                        for (int c = c0; c <= c1; c++) { segs[pos[(r * cols) + c]++] = i; }
+                    }
+                }
+                this.cols      = cols;
+                this.rows      = rows;
+                this.cellLat   = cLat;
+                this.cellLon   = cLon;
+                this.cellStart = start;
+                this.cellSegs  = segs;
+                break;
+            }
+        }
+        private int _cell(double v, double min, double size, int count) {
+            int k = (int)Math.floor((v - min) / size);
+            return (k < 0)? 0 : (k >= count)? (count - 1) : k;
+        }
+        private boolean _segContains(int i, double lat, double lon, double kmPerDegLon) {
+            // -- segment endpoints relative to the point (km)
+            double ax = (this.lonA[i] - lon) * kmPerDegLon, ay = (this.latA[i] - lat) * KM_PER_DEGREE;
+            double bx = (this.lonB[i] - lon) * kmPerDegLon, by = (this.latB[i] - lat) * KM_PER_DEGREE;
+            double dx = bx - ax, dy = by - ay;
+            double len2 = (dx * dx) + (dy * dy);
+            double t = (len2 > 0.0)? (-((ax * dx) + (ay * dy)) / len2) : 0.0;
+            t = (t < 0.0)? 0.0 : (t > 1.0)? 1.0 : t;
+            double cx = ax + (t * dx), cy = ay + (t * dy);
+            return ((cx * cx) + (cy * cy)) <= (this.radiusKM * this.radiusKM);
+        }
+        /**
+        *** Returns the index of a path segment whose corridor contains the point (the hint
+        *** segment, and its neighbors, are checked first), or -1 if the point is outside
+        **/
+        public int findSegment(double lat, double lon, int hint) {
+            if (!this.boundsContain(lat, lon)) {
+                return -1;
+            }
+            double kmPerDegLon = KM_PER_DEGREE * Math.cos(lat * GeoPoint.RADIANS);
+            // -- check hint, then the following/preceding segments
+            if ((hint >= 0) && (hint < this.segCount)) {
+                if (this._segContains(hint, lat, lon, kmPerDegLon)) {
+                    return hint;
+                } else
+                if (((hint + 1) < this.segCount) && this._segContains(hint + 1, lat, lon, kmPerDegLon)) {
+                    return hint + 1;
+                } else
+                if ((hint > 0) && this._segContains(hint - 1, lat, lon, kmPerDegLon)) {
+                    return hint - 1;
+                }
+            }
+            // -- grid cell
+            int r = this._cell(lat, this.minLat, this.cellLat, this.rows);
+            int c = this._cell(lon, this.minLon, this.cellLon, this.cols);
+            int k = (r * this.cols) + c;
+            for (int x = this.cellStart[k]; x < this.cellStart[k + 1]; x++) {
+                int i = this.cellSegs[x];
+                if (this._segContains(i, lat, lon, kmPerDegLon)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        public boolean containsPoint(double lat, double lon) {
+            return (this.findSegment(lat, lon, -1) >= 0);
+        }
+        public boolean containsPoint(double lat, double lon, String hintKey) {
+            if (hintKey == null) {
+                return this.containsPoint(lat, lon);
+            }
+            Integer hint;
+            synchronized (this.hintMap) {
+                hint = this.hintMap.get(hintKey);
+            }
+            int seg = this.findSegment(lat, lon, (hint != null)? hint.intValue() : -1);
+            if ((seg >= 0) && ((hint == null) || (hint.intValue() != seg))) {
+                synchronized (this.hintMap) {
+                    this.hintMap.put(hintKey, Integer.valueOf(seg));
+                }
+            }
+            return (seg >= 0);
+        }
+        public int classifyCell(double minLat, double maxLat, double minLon, double maxLon) {
+            return this._cellOutsideBounds(minLat, maxLat, minLon, maxLon)? CELL_OUTSIDE : CELL_BOUNDARY;
+        }
+    }
+
+}
@@ -0,0 +1,687 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2020, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Streaming XLSX (Office Open XML) spreadsheet writer, implementing ExcelAPI
+//  without requiring Apache POI.
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19  GTS Development Team
+//     -Initial release
+//     -Spool files are not registered with "deleteOnExit" (which retains every path for
+//      the life of the JVM), they are deleted by "_closeSpool"
+// ----------------------------------------------------------------------------
+package org.opengts.util;
+
+import java.lang.*;
+import java.util.*;
+import java.io.*;
+import java.util.zip.*;
+
+/**
+*** ExcelStreamingSpreadsheet class<br>
+*** Writes an XLSX spreadsheet as rows are added, retaining only a bounded window of the
+*** most recently added rows in memory.  Once the window is full, the oldest row is written
+*** to the worksheet XML and discarded, so very large spreadsheets may be written in constant
+*** memory.  Cells may be added in any order within the row window; cells added to a row
+*** which has already been written are ignored.<br>
+*** The worksheet XML is written directly into the zipped output stream if the output stream
+*** is specified (see <code>setOutputStream</code>) before rows are added, otherwise it is
+*** spooled to a temporary file which is copied to the output when <code>write</code> is called.<br>
+*** Column widths are taken from the header columns added before the first row is written
+*** from the row window.  Only XLSX output is supported.
+**/
+public class ExcelStreamingSpreadsheet
+    implements ExcelAPI
+{
+
+    // ------------------------------------------------------------------------
+
+    public  static final int    DEFAULT_ROW_WINDOW_SIZE     = 100;
+
+    private static final String XLSX_EXTN                   = ".xlsx";
+    private static final String SHEET_ENTRY                 = "xl/worksheets/sheet1.xml";
+
+    private static final int    MAX_COLUMN_COUNT            = 16384;    // Excel limit
+    private static final int    MAX_ROW_COUNT               = 1048576;  // Excel limit
+    private static final int    MAX_SHEET_NAME_LENGTH       = 31;       // Excel limit
+
+    /* cell style indices (see STYLES_XML "cellXfs") */
+    private static final int    STYLE_DEFAULT               = 0;
+    private static final int    STYLE_TITLE                 = 1;
+    private static final int    STYLE_SUBTITLE              = 2;
+    private static final int    STYLE_HEADER                = 3;
+    private static final int    STYLE_BODY                  = 4;
+    private static final int    STYLE_SUBTOTAL              = 5;
+    private static final int    STYLE_TOTAL                 = 6;
+
+    // ------------------------------------------------------------------------
+
+    private static final String XML_HEADER =
+        "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+
+    private static final String CONTENT_TYPES_XML = XML_HEADER +
+        "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">" +
+        "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>" +
+        "<Default Extension=\"xml\" ContentType=\"application/xml\"/>" +
+        "<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>" +
+        "<Override PartName=\"/xl/worksheets/sheet1.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>" +
+        "<Override PartName=\"/xl/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml\"/>" +
+        "</Types>";
+
+    private static final String ROOT_RELS_XML = XML_HEADER +
+        "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">" +
+        "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\" Target=\"xl/workbook.xml\"/>" +
+        "</Relationships>";
+
+    private static final String WORKBOOK_RELS_XML = XML_HEADER +
+        "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">" +
+        "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet\" Target=\"worksheets/sheet1.xml\"/>" +
+        "<Relationship Id=\"rId2\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/styles\" Target=\"styles.xml\"/>" +
+        "</Relationships>";
+
+    private static final String STYLES_XML = XML_HEADER +
+        "<styleSheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">" +
+        "<fonts count=\"4\">" +
+          "<font><sz val=\"11\"/><name val=\"Calibri\"/></font>" +                  // 0: default
+          "<font><b/><sz val=\"14\"/><name val=\"Calibri\"/></font>" +              // 1: title
+          "<font><sz val=\"12\"/><name val=\"Calibri\"/></font>" +                  // 2: subtitle
+          "<font><b/><sz val=\"11\"/><name val=\"Calibri\"/></font>" +              // 3: header/total
+        "</fonts>" +
+        "<fills count=\"4\">" +
+          "<fill><patternFill patternType=\"none\"/></fill>" +
+          "<fill><patternFill patternType=\"gray125\"/></fill>" +
+          "<fill><patternFill patternType=\"solid\"><fgColor rgb=\"FFC0C0C0\"/><bgColor indexed=\"64\"/></patternFill></fill>" +
+          "<fill><patternFill patternType=\"solid\"><fgColor rgb=\"FFE0E0E0\"/><bgColor indexed=\"64\"/></patternFill></fill>" +
+        "</fills>" +
+        "<borders count=\"3\">" +
+          "<border><left/><right/><top/><bottom/><diagonal/></border>" +
+          "<border><left style=\"thin\"/><right style=\"thin\"/><top style=\"thin\"/><bottom style=\"thin\"/><diagonal/></border>" +
+          "<border><left style=\"thin\"/><right style=\"thin\"/><top style=\"thick\"/><bottom style=\"thin\"/><diagonal/></border>" +
+        "</borders>" +
+        "<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\"/></cellStyleXfs>" +
+        "<cellXfs count=\"7\">" +
+          "<xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/>" +                                                // 0: default
+          "<xf numFmtId=\"0\" fontId=\"1\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyFont=\"1\"/>" +                                // 1: title
+          "<xf numFmtId=\"0\" fontId=\"2\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyFont=\"1\"/>" +                                // 2: subtitle
+          "<xf numFmtId=\"0\" fontId=\"3\" fillId=\"2\" borderId=\"1\" xfId=\"0\" applyFont=\"1\" applyFill=\"1\" applyBorder=\"1\" applyAlignment=\"1\">" +
+            "<alignment horizontal=\"center\" vertical=\"center\" wrapText=\"1\"/></xf>" +                                             // 3: header
+          "<xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"1\" xfId=\"0\" applyBorder=\"1\"/>" +                              // 4: body
+          "<xf numFmtId=\"0\" fontId=\"3\" fillId=\"3\" borderId=\"1\" xfId=\"0\" applyFont=\"1\" applyFill=\"1\" applyBorder=\"1\"/>" + // 5: subtotal
+          "<xf numFmtId=\"0\" fontId=\"3\" fillId=\"3\" borderId=\"2\" xfId=\"0\" applyFont=\"1\" applyFill=\"1\" applyBorder=\"1\"/>" + // 6: total
+        "</cellXfs>" +
+        "<cellStyles count=\"1\"><cellStyle name=\"Normal\" xfId=\"0\" builtinId=\"0\"/></cellStyles>" +
+        "</styleSheet>";
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Returns the Excel column reference ("A", "B", ... "AA", ...) for the specified column index
+    *** @param colIndex  The 0-based column index
+    *** @return The column reference
+    **/
+    public static String GetColumnRef(int colIndex)
+    {
+        StringBuffer sb = new StringBuffer();
+        for (int c = colIndex + 1; c > 0; c = (c - 1) / 26) {
+            sb.insert(0, (char)('A' + ((c - 1) % 26)));
+        }
+        return sb.toString();
+    }
+
+    /**
+    *** Returns the Excel cell reference ("A1", ...) for the specified row/column index
+    **/
+    public static String GetCellRef(int rowIndex, int colIndex)
+    {
+        return GetColumnRef(colIndex) + String.valueOf(rowIndex + 1);
+    }
+
+    /**
+    *** Escapes the specified value for inclusion in the worksheet XML, removing
+    *** characters which are not valid in XML 1.0
+    **/
+    private static String EscapeText(String val)
+    {
+        if (val == null) {
+            return "";
+        }
+        StringBuffer sb = null;
+        for (int i = 0; i < val.length(); i++) {
+            char ch = val.charAt(i);
+            if ((ch < 0x20) && (ch != '\t') && (ch != '\n') && (ch != '\r')) {
+                if (sb == null) {
+                    sb = new StringBuffer(val.substring(0,i));
+                }
+            } else
+            if (sb != null) {
+                sb.append(ch);
+            }
+        }
+        return XMLTools.escapeXML((sb != null)? sb.toString() : val);
+    }
+
+    /**
+    *** Returns a valid Excel worksheet name for the specified name
+    **/
+    private static String GetSheetName(String name)
+    {
+        String n = StringTools.trim(name);
+        StringBuffer sb = new StringBuffer();
+        for (int i = 0; (i < n.length()) && (sb.length() < MAX_SHEET_NAME_LENGTH); i++) {
+            char ch = n.charAt(i);
+            switch (ch) {
+                case '[': case ']': case ':': case '*': case '?': case '/': case '\\':
+                    sb.append('_');
+                    break;
+                default:
+                    sb.append((ch < 0x20)? ' ' : ch);
+                    break;
+            }
+        }
+        String sn = sb.toString().trim();
+        return !StringTools.isBlank(sn)? sn : "Sheet1";
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private String                              name            = "";
+    private int                                 windowSize      = DEFAULT_ROW_WINDOW_SIZE;
+
+    private TreeMap<Integer,TreeMap<Integer,String>> rowWindow  = new TreeMap<Integer,TreeMap<Integer,String>>();
+    private int                                 lastFlushedRow  = -1;
+    private long                                flushedRowCount = 0L;
+
+    private Map<Integer,Integer>                colWidths       = new HashMap<Integer,Integer>();
+    private java.util.List<String>              mergeCells      = new Vector<String>();
+
+    private ZipOutputStream                     zipOut          = null;
+    private File                                spoolFile       = null;
+    private Writer                              sheetOut        = null;
+    private boolean                             sheetStarted    = false;
+    private boolean                             closed          = false;
+
+    /**
+    *** Constructor
+    **/
+    public ExcelStreamingSpreadsheet()
+    {
+        super();
+    }
+
+    /**
+    *** Constructor
+    *** @param windowSize  The maximum number of rows retained in memory
+    **/
+    public ExcelStreamingSpreadsheet(int windowSize)
+    {
+        this();
+        this.setRowWindowSize(windowSize);
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Initialize spreadsheet
+    *** @param xlsx  Must be true (only XLSX is supported)
+    *** @param name  The spreadsheet/worksheet name
+    **/
+    public void init(boolean xlsx, String name)
+    {
+        if (!xlsx) {
+            Print.logWarn("XLS not supported by streaming spreadsheet, writing XLSX");
+        }
+        this.name = StringTools.trim(name);
+    }
+
+    /**
+    *** Sets the maximum number of rows retained in memory before the oldest row is written
+    **/
+    public void setRowWindowSize(int windowSize)
+    {
+        this.windowSize = (windowSize > 0)? windowSize : DEFAULT_ROW_WINDOW_SIZE;
+    }
+
+    /**
+    *** Gets the maximum number of rows retained in memory
+    **/
+    public int getRowWindowSize()
+    {
+        return this.windowSize;
+    }
+
+    /**
+    *** Gets the number of rows written from the row window so far
+    **/
+    public long getFlushedRowCount()
+    {
+        return this.flushedRowCount;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Sets the OutputStream to which the spreadsheet is streamed as rows are added.
+    *** Must be called before any rows have been written from the row window.  The
+    *** OutputStream is not closed.
+    *** @param out  The OutputStream
+    *** @return True if the spreadsheet will be streamed to the specified OutputStream
+    **/
+    public boolean setOutputStream(OutputStream out)
+        throws IOException
+    {
+        if ((out == null) || (this.zipOut != null) || (this.sheetOut != null) || this.closed) {
+            return false;
+        }
+        this.zipOut = this._startZip(out);
+        this.zipOut.putNextEntry(new ZipEntry(SHEET_ENTRY));
+        this.sheetOut = new BufferedWriter(new OutputStreamWriter(new _NoCloseOutputStream(this.zipOut),StringTools.CharEncoding_UTF_8));
+        return true;
+    }
+
+    /* start zip output and write the static workbook parts */
+    private ZipOutputStream _startZip(OutputStream out)
+        throws IOException
+    {
+        ZipOutputStream zos = new ZipOutputStream(new _NoCloseOutputStream(out));
+        this._writeZipEntry(zos, "[Content_Types].xml"       , CONTENT_TYPES_XML);
+        this._writeZipEntry(zos, "_rels/.rels"               , ROOT_RELS_XML);
+        this._writeZipEntry(zos, "xl/workbook.xml"           , this._getWorkbookXML());
+        this._writeZipEntry(zos, "xl/_rels/workbook.xml.rels", WORKBOOK_RELS_XML);
+        this._writeZipEntry(zos, "xl/styles.xml"             , STYLES_XML);
+        return zos;
+    }
+
+    /* write zip entry */
+    private void _writeZipEntry(ZipOutputStream zos, String entryName, String xml)
+        throws IOException
+    {
+        zos.putNextEntry(new ZipEntry(entryName));
+        zos.write(xml.getBytes(StringTools.CharEncoding_UTF_8));
+        zos.closeEntry();
+    }
+
+    /* workbook XML */
+    private String _getWorkbookXML()
+    {
+        return XML_HEADER +
+            "<workbook xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"" +
+            " xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\">" +
+            "<sheets><sheet name=\"" + EscapeText(GetSheetName(this.name)) + "\" sheetId=\"1\" r:id=\"rId1\"/></sheets>" +
+            "</workbook>";
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Sets the title row
+    **/
+    public void setTitle(int rowIndex, String title, int colSpan)
+    {
+        this._addCell(rowIndex, 0, title, STYLE_TITLE);
+        this._addMerge(rowIndex, 0, colSpan);
+    }
+
+    /**
+    *** Sets the subtitle row
+    **/
+    public void setSubtitle(int rowIndex, String title, int colSpan)
+    {
+        this._addCell(rowIndex, 0, title, STYLE_SUBTITLE);
+        this._addMerge(rowIndex, 0, colSpan);
+    }
+
+    /**
+    *** Sets a blank row
+    **/
+    public void setBlankRow(int rowIndex, int colSpan)
+    {
+        // -- nothing written for blank rows
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Adds a header column
+    **/
+    public void addHeaderColumn(int rowIndex, int colIndex, String colTitle, int charWidth)
+    {
+        this.addHeaderColumn(rowIndex, colIndex, 1, colTitle, charWidth);
+    }
+
+    /**
+    *** Adds a header column
+    **/
+    public void addHeaderColumn(int rowIndex, int colIndex, int colSpan, String colTitle, int charWidth)
+    {
+        this._addCell(rowIndex, colIndex, colTitle, STYLE_HEADER);
+        this._addMerge(rowIndex, colIndex, colSpan);
+        if ((charWidth > 0) && (colSpan <= 1) && !this.colWidths.containsKey(new Integer(colIndex))) {
+            this.colWidths.put(new Integer(colIndex), new Integer(charWidth));
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Adds a body column
+    **/
+    public void addBodyColumn(int rowIndex, int colIndex, Object value)
+    {
+        this._addCell(rowIndex, colIndex, value, STYLE_BODY);
+    }
+
+    /**
+    *** Adds a subtotal column
+    **/
+    public void addSubtotalColumn(int rowIndex, int colIndex, Object value)
+    {
+        this._addCell(rowIndex, colIndex, value, STYLE_SUBTOTAL);
+    }
+
+    /**
+    *** Adds a total column
+    **/
+    public void addTotalColumn(int rowIndex, int colIndex, Object value)
+    {
+        this._addCell(rowIndex, colIndex, value, STYLE_TOTAL);
+    }
+
+    // ------------------------------------------------------------------------
+
+    /* add merged cell region */
+    private void _addMerge(int rowIndex, int colIndex, int colSpan)
+    {
+        if ((colSpan > 1) && (rowIndex > this.lastFlushedRow)) {
+            int lastCol = Math.min(colIndex + colSpan, MAX_COLUMN_COUNT) - 1;
+            this.mergeCells.add(GetCellRef(rowIndex,colIndex) + ":" + GetCellRef(rowIndex,lastCol));
+        }
+    }
+
+    /* add cell to row window */
+    private void _addCell(int rowIndex, int colIndex, Object value, int style)
+    {
+
+        /* validate */
+        if (this.closed) {
+            Print.logWarn("Spreadsheet already written, cell ignored: " + GetCellRef(rowIndex,colIndex));
+            return;
+        } else
+        if ((rowIndex < 0) || (rowIndex >= MAX_ROW_COUNT) || (colIndex < 0) || (colIndex >= MAX_COLUMN_COUNT)) {
+            Print.logWarn("Invalid cell index, ignored: row=" + rowIndex + ", col=" + colIndex);
+            return;
+        } else
+        if (rowIndex <= this.lastFlushedRow) {
+            Print.logWarn("Row already written, cell ignored: " + GetCellRef(rowIndex,colIndex));
+            return;
+        }
+
+        /* cell XML */
+        String ref = GetCellRef(rowIndex, colIndex);
+        StringBuffer c = new StringBuffer();
+        if (value == null) {
+            c.append("<c r=\"").append(ref).append("\" s=\"").append(style).append("\"/>");
+        } else
+        if ((value instanceof Number) && !Double.isNaN(((Number)value).doubleValue()) && !Double.isInfinite(((Number)value).doubleValue())) {
+            String v = ((value instanceof Double) || (value instanceof Float))?
+                String.valueOf(((Number)value).doubleValue()) :
+                String.valueOf(value);
+            c.append("<c r=\"").append(ref).append("\" s=\"").append(style).append("\">");
+            c.append("<v>").append(v).append("</v></c>");
+        } else
+        if (value instanceof Boolean) {
+            c.append("<c r=\"").append(ref).append("\" s=\"").append(style).append("\" t=\"b\">");
+            c.append("<v>").append(((Boolean)value).booleanValue()? "1" : "0").append("</v></c>");
+        } else {
+            c.append("<c r=\"").append(ref).append("\" s=\"").append(style).append("\" t=\"inlineStr\">");
+            c.append("<is><t xml:space=\"preserve\">").append(EscapeText(value.toString())).append("</t></is></c>");
+        }
+
+        /* add to row window */
+        Integer rowKey = new Integer(rowIndex);
+        TreeMap<Integer,String> row = this.rowWindow.get(rowKey);
+        if (row == null) {
+            row = new TreeMap<Integer,String>();
+            this.rowWindow.put(rowKey, row);
+        }
+        row.put(new Integer(colIndex), c.toString());
+
+        /* flush oldest rows */
+        try {
+            while (this.rowWindow.size() > this.windowSize) {
+                this._flushRow(this.rowWindow.firstKey());
+            }
+        } catch (IOException ioe) {
+            Print.logError("Unable to write spreadsheet row: " + ioe);
+            this.closed = true;
+            this._closeSpool();
+        }
+
+    }
+
+    // ------------------------------------------------------------------------
+
+    /* start worksheet XML (column widths are fixed at this point) */
+    private void _startSheet()
+        throws IOException
+    {
+        if (this.sheetOut == null) {
+            this.spoolFile = File.createTempFile("gts_xlsx_", ".xml");
+            this.sheetOut  = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(this.spoolFile),StringTools.CharEncoding_UTF_8));
+        }
+        this.sheetOut.write(XML_HEADER);
+        this.sheetOut.write("<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">");
+        if (!this.colWidths.isEmpty()) {
+            this.sheetOut.write("<cols>");
+            for (Integer col : new TreeSet<Integer>(this.colWidths.keySet())) {
+                int w = this.colWidths.get(col).intValue();
+                this.sheetOut.write("<col min=\"" + (col.intValue() + 1) + "\" max=\"" + (col.intValue() + 1) + "\"");
+                this.sheetOut.write(" width=\"" + Math.min(w + 2, 255) + "\" customWidth=\"1\"/>");
+            }
+            this.sheetOut.write("</cols>");
+        }
+        this.sheetOut.write("<sheetData>");
+        this.sheetStarted = true;
+    }
+
+    /* write the specified row and remove it from the row window */
+    private void _flushRow(Integer rowKey)
+        throws IOException
+    {
+        if (!this.sheetStarted) {
+            this._startSheet();
+        }
+        TreeMap<Integer,String> row = this.rowWindow.remove(rowKey);
+        this.sheetOut.write("<row r=\"" + (rowKey.intValue() + 1) + "\">");
+        for (String c : row.values()) {
+            this.sheetOut.write(c);
+        }
+        this.sheetOut.write("</row>\n");
+        this.lastFlushedRow = rowKey.intValue();
+        this.flushedRowCount++;
+    }
+
+    /* write remaining rows and end worksheet XML */
+    private void _endSheet()
+        throws IOException
+    {
+        while (!this.rowWindow.isEmpty()) {
+            this._flushRow(this.rowWindow.firstKey());
+        }
+        if (!this.sheetStarted) {
+            this._startSheet();
+        }
+        this.sheetOut.write("</sheetData>");
+        if (!this.mergeCells.isEmpty()) {
+            this.sheetOut.write("<mergeCells count=\"" + this.mergeCells.size() + "\">");
+            for (String m : this.mergeCells) {
+                this.sheetOut.write("<mergeCell ref=\"" + m + "\"/>");
+            }
+            this.sheetOut.write("</mergeCells>");
+        }
+        this.sheetOut.write("</worksheet>");
+        this.sheetOut.flush();
+    }
+
+    /* close/delete the spool file, if any */
+    private void _closeSpool()
+    {
+        if (this.spoolFile != null) {
+            try { this.sheetOut.close(); } catch (Throwable th) { /* ignore */ }
+            if (!this.spoolFile.delete()) {
+                Print.logWarn("Unable to delete spool file: " + this.spoolFile);
+            }
+            this.spoolFile = null;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Writes the spreadsheet to a file in the specified directory
+    *** @param dir  The destination directory
+    *** @return True if the spreadsheet was successfully written
+    **/
+    public boolean write(File dir)
+    {
+        String fn = GetSheetName(this.name).replace(' ','_') + XLSX_EXTN;
+        File file = ((dir != null) && dir.isDirectory())? new File(dir, fn) : new File(fn);
+        OutputStream out = null;
+        try {
+            out = new FileOutputStream(file);
+            return this.write(out);
+        } catch (IOException ioe) {
+            Print.logError("Unable to write spreadsheet file: " + file + " [" + ioe + "]");
+            return false;
+        } finally {
+            if (out != null) { try { out.close(); } catch (Throwable th) { /* ignore */ } }
+        }
+    }
+
+    /**
+    *** Writes/completes the spreadsheet to the specified OutputStream.  If the spreadsheet is
+    *** already being streamed (see <code>setOutputStream</code>) the specified OutputStream
+    *** is ignored.  The OutputStream is not closed.
+    *** @param out  The OutputStream
+    *** @return True if the spreadsheet was successfully written
+    **/
+    public boolean write(OutputStream out)
+    {
+        if (this.closed) {
+            Print.logError("Spreadsheet already written (or in error)");
+            return false;
+        }
+        this.closed = true;
+        try {
+            if (this.zipOut != null) {
+                // -- streaming to OutputStream
+                this._endSheet();
+                this.zipOut.closeEntry();
+                this.zipOut.finish();
+                this.zipOut.flush();
+            } else
+            if (out != null) {
+                // -- copy spooled worksheet to OutputStream
+                this._endSheet();
+                this.sheetOut.close();
+                ZipOutputStream zos = this._startZip(out);
+                zos.putNextEntry(new ZipEntry(SHEET_ENTRY));
+                InputStream spool = new FileInputStream(this.spoolFile);
+                try {
+                    FileTools.copyStreams(spool, zos);
+                } finally {
+                    spool.close();
+                }
+                zos.closeEntry();
+                zos.finish();
+                zos.flush();
+            } else {
+                Print.logError("OutputStream is null");
+                return false;
+            }
+            Print.logInfo("Wrote XLSX spreadsheet: " + this.flushedRowCount + " rows");
+            return true;
+        } catch (IOException ioe) {
+            Print.logError("Unable to write spreadsheet: " + ioe);
+            return false;
+        } finally {
+            this.rowWindow.clear();
+            this._closeSpool();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /* OutputStream wrapper which does not close the underlying OutputStream */
+    private static class _NoCloseOutputStream
+        extends FilterOutputStream
+    {
+        public _NoCloseOutputStream(OutputStream out) {
+            super(out);
+        }
+        public void write(byte b[], int off, int len) throws IOException {
+            this.out.write(b, off, len);
+        }
+        public void close() throws IOException {
+            this.out.flush();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Main entry point for testing/debugging
+    *** Writes a spreadsheet with the specified number of rows to the specified file
+    **/
+    public static void main(String argv[])
+    {
+        RTConfig.setCommandLineArgs(argv);
+        File file = RTConfig.getFile("file", null);
+        int  rows = RTConfig.getInt("rows", 1000);
+        if (file == null) {
+            Print.sysPrintln("Missing '-file=<file.xlsx>'");
+            System.exit(1);
+        }
+        ExcelStreamingSpreadsheet ss = new ExcelStreamingSpreadsheet();
+        ss.init(true, "Test");
+        OutputStream out = null;
+        try {
+            out = new FileOutputStream(file);
+            ss.setOutputStream(out);
+            ss.setTitle(0, "Streaming Spreadsheet Test", 3);
+            ss.addHeaderColumn(1, 0, "Index", 8);
+            ss.addHeaderColumn(1, 1, "Value", 12);
+            ss.addHeaderColumn(1, 2, "Description", 30);
+            for (int r = 0; r < rows; r++) {
+                ss.addBodyColumn(r + 2, 0, new Long(r));
+                ss.addBodyColumn(r + 2, 1, new Double(r * 1.5));
+                ss.addBodyColumn(r + 2, 2, "Row <" + r + "> & \"text\"");
+            }
+            ss.addTotalColumn(rows + 2, 0, "Total");
+            ss.addTotalColumn(rows + 2, 1, new Double(1.5 * ((double)rows * (rows - 1) / 2.0)));
+            boolean ok = ss.write(out);
+            Print.sysPrintln("Wrote " + file + ": " + ok);
+        } catch (IOException ioe) {
+            Print.sysPrintln("Error: " + ioe);
+        } finally {
+            if (out != null) { try { out.close(); } catch (Throwable th) { /* ignore */ } }
+        }
+    }
+
+}
@@ -0,0 +1,169 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2020, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Geohash cell encoding (bit-interleaved latitude/longitude)
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19  GTS Development Team
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.util;
+
+import java.lang.*;
+import java.util.*;
+
+/**
+*** GeoHash class<br>
+*** Encodes a latitude/longitude into a geohash cell.  The cell is returned either as a
+*** <code>long</code> (the interleaved longitude/latitude bits, longitude first, right-aligned),
+*** which is suitable as a cache key without allocation, or as the standard base-32 geohash
+*** String (5 bits per character).
+*** <br>
+*** Approximate cell sizes at the equator:
+***   40 bits (8 chars) = 38.2m x 19.1m,
+***   44 bits           =  9.6m x  4.8m,
+***   45 bits (9 chars) =  4.8m x  4.8m
+**/
+public class GeoHash
+{
+
+    // ------------------------------------------------------------------------
+
+    public  static final int    MAX_BITS        = 60;
+
+    private static final char   BASE32[]        = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Encodes the specified point into a geohash cell
+    *** @param lat   The latitude
+    *** @param lon   The longitude
+    *** @param bits  The number of bits (precision) of the cell [1..60]
+    *** @return The geohash cell bits
+    **/
+    public static long encode(double lat, double lon, int bits)
+    {
+        bits = (bits < 1)? 1 : (bits > MAX_BITS)? MAX_BITS : bits;
+        double latMin =  -90.0, latMax =  90.0;
+        double lonMin = -180.0, lonMax = 180.0;
+        long hash = 0L;
+        for (int i = 0; i < bits; i++) {
+            hash <<= 1;
+            if ((i & 1) == 0) {
+                double mid = (lonMin + lonMax) / 2.0;
+                if (lon >= mid) { hash |= 1L; lonMin = mid; } else { lonMax = mid; }
+            } else {
+                double mid = (latMin + latMax) / 2.0;
+                if (lat >= mid) { hash |= 1L; latMin = mid; } else { latMax = mid; }
+            }
+        }
+        return hash;
+    }
+
+    /**
+    *** Gets the bounds of the specified geohash cell
+    *** @param hash  The geohash cell bits
+    *** @param bits  The number of bits (precision) of the cell
+    *** @param bnds  A 4-element array into which the bounds (minLat,maxLat,minLon,maxLon) are placed
+    *** @return The 'bnds' array
+    **/
+    public static double[] getBounds(long hash, int bits, double bnds[])
+    {
+        bits = (bits < 1)? 1 : (bits > MAX_BITS)? MAX_BITS : bits;
+        double latMin =  -90.0, latMax =  90.0;
+        double lonMin = -180.0, lonMax = 180.0;
+        for (int i = 0; i < bits; i++) {
+            boolean set = ((hash >>> (bits - 1 - i)) & 1L) != 0L;
+            if ((i & 1) == 0) {
+                double mid = (lonMin + lonMax) / 2.0;
+                if (set) { lonMin = mid; } else { lonMax = mid; }
+            } else {
+                double mid = (latMin + latMax) / 2.0;
+                if (set) { latMin = mid; } else { latMax = mid; }
+            }
+        }
+        if ((bnds == null) || (bnds.length < 4)) {
+            bnds = new double[4];
+        }
+        bnds[0] = latMin;
+        bnds[1] = latMax;
+        bnds[2] = lonMin;
+        bnds[3] = lonMax;
+        return bnds;
+    }
+
+    /**
+    *** Gets the bounds of the specified geohash cell
+    *** @param hash  The geohash cell bits
+    *** @param bits  The number of bits (precision) of the cell
+    *** @return The cell bounds
+    **/
+    public static GeoBounds getBounds(long hash, int bits)
+    {
+        double b[] = GeoHash.getBounds(hash, bits, null);
+        GeoBounds gb = new GeoBounds();
+        gb.setMinLatitude( b[0]);
+        gb.setMaxLatitude( b[1]);
+        gb.setMinLongitude(b[2]);
+        gb.setMaxLongitude(b[3]);
+        return gb;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Encodes the specified point into a base-32 geohash String
+    *** @param lat    The latitude
+    *** @param lon    The longitude
+    *** @param chars  The number of characters [1..12]
+    *** @return The geohash String
+    **/
+    public static String encodeString(double lat, double lon, int chars)
+    {
+        chars = (chars < 1)? 1 : (chars > (MAX_BITS / 5))? (MAX_BITS / 5) : chars;
+        long hash = GeoHash.encode(lat, lon, chars * 5);
+        char ch[] = new char[chars];
+        for (int i = chars - 1; i >= 0; i--) {
+            ch[i] = BASE32[(int)(hash & 0x1FL)];
+            hash >>>= 5;
+        }
+        return new String(ch);
+    }
+
+    /**
+    *** Gets the number of bits required for a cell no larger than the specified size
+    *** (in both dimensions) at the equator
+    *** @param meters  The cell size, in meters
+    *** @return The number of bits
+    **/
+    public static int getBitsForCellSize(double meters)
+    {
+        double lonM = GeoPoint.EARTH_EQUATORIAL_RADIUS_KM * 1000.0 * 2.0 * Math.PI;
+        double latM = lonM / 2.0;
+        for (int bits = 2; bits <= MAX_BITS; bits++) {
+            int lonBits = (bits + 1) / 2, latBits = bits / 2;
+            if (((lonM / (double)(1L << lonBits)) <= meters) && ((latM / (double)(1L << latBits)) <= meters)) {
+                return bits;
+            }
+        }
+        return MAX_BITS;
+    }
+
+}
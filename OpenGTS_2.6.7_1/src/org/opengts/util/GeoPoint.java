@@ -57,6 +57,11 @@
 //     -Added formats "DDmm.mmmmmmS/DDDmm.mmmmmmW" to "parseCoordinate"
 //  2017/03/14  Martin D. Flynn
 //     -Added "getGooglePixelPoint"
+//  2026/10/19  GTS Development Team
+//     -Added primitive (allocation-free) distance methods "radiansBetween",
+//      "kilometersBetween", "metersBetween", "fastMetersBetween", and
+//      batched "cumulativeMeters".
+//     -Added "-distBench" command-line distance benchmark
 // ----------------------------------------------------------------------------
 package org.opengts.util;
 
@@ -1378,30 +1383,46 @@ public class GeoPoint
     **/
     public double radiansToPoint(GeoPoint dest)
     {
-        // -- Flat plane approximations:
-        // -   http://mathforum.org/library/drmath/view/51833.html
-        // -   http://mathforum.org/library/drmath/view/62720.html
         if (dest == null) {
             // -- null is invalid
             return Double.NaN;
-        } else
-        if (this.equals(dest)) {
+        } else {
+            return GeoPoint.radiansBetween(
+                this.getLatitude(), this.getLongitude(), 
+                dest.getLatitude(), dest.getLongitude());
+        }
+    }
+
+    /**
+    *** Returns the distance between the specified points, in radians
+    *** @param lat1  The first point latitude
+    *** @param lon1  The first point longitude
+    *** @param lat2  The second point latitude
+    *** @param lon2  The second point longitude
+    *** @return The distance between the points, in radians
+    **/
+    public static double radiansBetween(double lat1, double lon1, double lat2, double lon2)
+    {
+        // -- Flat plane approximations:
+        // -   http://mathforum.org/library/drmath/view/51833.html
+        // -   http://mathforum.org/library/drmath/view/62720.html
+        if ((Math.abs(lat2 - lat1) < EPSILON) && (Math.abs(lon2 - lon1) < EPSILON)) {
             // -- If the points are equals, the radians would be NaN
             return 0.0;
         } else {
             try {
-                double lat1 = this.getLatitudeRadians(), lon1 = this.getLongitudeRadians();
-                double lat2 = dest.getLatitudeRadians(), lon2 = dest.getLongitudeRadians();
-                double rad  = 0.0;
+                double rlat1 = lat1 * RADIANS, rlon1 = lon1 * RADIANS;
+                double rlat2 = lat2 * RADIANS, rlon2 = lon2 * RADIANS;
+                double rad   = 0.0;
                 if (UseHaversineDistanceFormula) {
                     // -- Haversine formula:
                     // -   "The Haversine formula may be more accurate for small distances"
                     // -   See: http://www.census.gov/cgi-bin/geo/gisfaq?Q5.1
                     // -      http://mathforum.org/library/drmath/view/51879.html
                     // -   Also, use of the Haversine formula is about twice as fast as the Law of Cosines
-                    double dlat = lat2 - lat1;
-                    double dlon = lon2 - lon1;
-                    double a    = SQ(Math.sin(dlat/2.0)) + (Math.cos(lat1) * Math.cos(lat2) * SQ(Math.sin(dlon/2.0)));
+                    double dlat = rlat2 - rlat1;
+                    double dlon = rlon2 - rlon1;
+                    double a    = SQ(Math.sin(dlat/2.0)) + (Math.cos(rlat1) * Math.cos(rlat2) * SQ(Math.sin(dlon/2.0)));
                     rad = 2.0 * Math.atan2(Math.sqrt(a), Math.sqrt(1.0 - a));
                 } else {
                     // -- Law of Cosines for Spherical Trigonometry:
@@ -1411,8 +1432,8 @@ public class GeoPoint
                     // -   Note: this problem appears to be less of an issue in Java.  The amount of error
                     // -   between Law-of-Cosine and Haversine formulas appears small even when calculating
                     // -   distance aven as low as 1.5 meters.
-                    double dlon = lon2 - lon1;
-                    rad = Math.acos((Math.sin(lat1) * Math.sin(lat2)) + (Math.cos(lat1) * Math.cos(lat2) * Math.cos(dlon)));
+                    double dlon = rlon2 - rlon1;
+                    rad = Math.acos((Math.sin(rlat1) * Math.sin(rlat2)) + (Math.cos(rlat1) * Math.cos(rlat2) * Math.cos(dlon)));
                 }
                 return rad;
             } catch (Throwable t) { // trap any Math error
@@ -1421,6 +1442,23 @@ public class GeoPoint
         }
     }
 
+    /**
+    *** Returns the distance between the specified points, in radians, using the equirectangular
+    *** (flat-earth, mid-latitude) approximation.  This is only accurate for short distances
+    *** (see <code>fastMetersBetween</code>).
+    *** @param lat1  The first point latitude
+    *** @param lon1  The first point longitude
+    *** @param lat2  The second point latitude
+    *** @param lon2  The second point longitude
+    *** @return The approximate distance between the points, in radians
+    **/
+    public static double equirectangularRadiansBetween(double lat1, double lon1, double lat2, double lon2)
+    {
+        double x = ((lon2 - lon1) * RADIANS) * Math.cos(((lat1 + lat2) / 2.0) * RADIANS);
+        double y = (lat2 - lat1) * RADIANS;
+        return Math.sqrt((x * x) + (y * y));
+    }
+
     // --------------------------------
 
     /**
@@ -1447,6 +1485,105 @@ public class GeoPoint
 
     // --------------------------------
 
+    /**
+    *** Returns the distance between the specified points, in kilometers
+    *** (same as <code>kilometersToPoint</code>, without requiring GeoPoint instances)
+    *** @param lat1  The first point latitude
+    *** @param lon1  The first point longitude
+    *** @param lat2  The second point latitude
+    *** @param lon2  The second point longitude
+    *** @return The distance between the points, in kilometers
+    **/
+    public static double kilometersBetween(double lat1, double lon1, double lat2, double lon2)
+    {
+        double radians = GeoPoint.radiansBetween(lat1, lon1, lat2, lon2);
+        return !Double.isNaN(radians)? (EARTH_MEAN_RADIUS_KM * radians) : Double.NaN;
+    }
+
+    /**
+    *** Returns the distance between the specified points, in meters
+    *** (same as <code>metersToPoint</code>, without requiring GeoPoint instances)
+    *** @param lat1  The first point latitude
+    *** @param lon1  The first point longitude
+    *** @param lat2  The second point latitude
+    *** @param lon2  The second point longitude
+    *** @return The distance between the points, in meters
+    **/
+    public static double metersBetween(double lat1, double lon1, double lat2, double lon2)
+    {
+        double radians = GeoPoint.radiansBetween(lat1, lon1, lat2, lon2);
+        return !Double.isNaN(radians)? ((EARTH_MEAN_RADIUS_KM * 1000.0) * radians) : Double.NaN;
+    }
+
+    /* maximum latitude/longitude delta, and latitude, at which "fastMetersBetween" uses the equirectangular approximation */
+    public  static final double FAST_DISTANCE_MAX_DELTA_DEG     = 0.1;  // approx 11km
+    public  static final double FAST_DISTANCE_MAX_LATITUDE      = 85.0;
+
+    /**
+    *** Returns the distance between the specified points, in meters.  When both the latitude
+    *** and longitude deltas are within 0.1 degrees, and both points are within 85 degrees of
+    *** the equator, the equirectangular approximation is used (the relative error with respect
+    *** to <code>metersBetween</code> is then below 1.0E-6, or less than 1cm).  Otherwise the
+    *** distance is the same as <code>metersBetween</code>.  This is intended for the distance
+    *** between consecutive events (odometer accumulation, report distance).
+    *** @param lat1  The first point latitude
+    *** @param lon1  The first point longitude
+    *** @param lat2  The second point latitude
+    *** @param lon2  The second point longitude
+    *** @return The distance between the points, in meters
+    **/
+    public static double fastMetersBetween(double lat1, double lon1, double lat2, double lon2)
+    {
+        if ((Math.abs(lat2 - lat1) <= FAST_DISTANCE_MAX_DELTA_DEG) && 
+            (Math.abs(lon2 - lon1) <= FAST_DISTANCE_MAX_DELTA_DEG) &&
+            (Math.abs(lat1)        <= FAST_DISTANCE_MAX_LATITUDE ) && 
+            (Math.abs(lat2)        <= FAST_DISTANCE_MAX_LATITUDE )   ) {
+            if ((Math.abs(lat2 - lat1) < EPSILON) && (Math.abs(lon2 - lon1) < EPSILON)) {
+                return 0.0; // same as "metersBetween"
+            }
+            return (EARTH_MEAN_RADIUS_KM * 1000.0) * GeoPoint.equirectangularRadiansBetween(lat1, lon1, lat2, lon2);
+        } else {
+            return GeoPoint.metersBetween(lat1, lon1, lat2, lon2);
+        }
+    }
+
+    /**
+    *** Calculates the cumulative distance along the specified track, in meters.  Invalid points
+    *** are skipped (the distance is measured from the last valid point).
+    *** @param lat   The track latitudes
+    *** @param lon   The track longitudes
+    *** @param cumM  If non-null, receives the cumulative distance at each point (may be the same
+    ***              length as the track arrays)
+    *** @return The total track distance, in meters
+    **/
+    public static double cumulativeMeters(double lat[], double lon[], double cumM[])
+    {
+        if ((lat == null) || (lon == null)) {
+            return 0.0;
+        }
+        int    n       = Math.min(lat.length, lon.length);
+        double totalM  = 0.0;
+        double lastLat = 0.0, lastLon = 0.0;
+        boolean haveLast = false;
+        for (int i = 0; i < n; i++) {
+            double la = lat[i], lo = lon[i];
+            if (GeoPoint.isValid(la,lo)) {
+                if (haveLast) {
+                    totalM += GeoPoint.fastMetersBetween(lastLat, lastLon, la, lo);
+                }
+                lastLat  = la;
+                lastLon  = lo;
+                haveLast = true;
+            }
+            if ((cumM != null) && (i < cumM.length)) {
+                cumM[i] = totalM;
+            }
+        }
+        return totalM;
+    }
+
+    // --------------------------------
+
     /**
     *** Returns the distance between the specified GeoPointProvider instances
     *** @param gpp1  The first GeoPointProvider instance
@@ -2205,6 +2342,51 @@ public class GeoPoint
             System.exit(0);
         }
 
+        /* distance benchmark */
+        if (RTConfig.hasProperty("distBench")) {
+            int    count = RTConfig.getInt("distBench", 1000000);
+            if (count <= 1) { count = 1000000; }
+            // -- random track with ~100m steps
+            Random rand  = new Random(1L);
+            double lat[] = new double[count];
+            double lon[] = new double[count];
+            lat[0] = 39.0; lon[0] = -121.0;
+            for (int i = 1; i < count; i++) {
+                lat[i] = lat[i - 1] + ((rand.nextDouble() - 0.5) * 0.002);
+                lon[i] = lon[i - 1] + ((rand.nextDouble() - 0.5) * 0.002);
+            }
+            for (int pass = 0; pass < 3; pass++) { // (last pass reported, after JIT warm-up)
+                // -- GeoPoint instances (current implementation, including allocation)
+                long   ms0 = System.nanoTime();
+                double km0 = 0.0;
+                GeoPoint last = new GeoPoint(lat[0],lon[0]);
+                for (int i = 1; i < count; i++) {
+                    GeoPoint gp = new GeoPoint(lat[i],lon[i]);
+                    km0 += last.kilometersToPoint(gp);
+                    last = gp;
+                }
+                long   ns0 = System.nanoTime() - ms0;
+                // -- primitive haversine
+                long   ms1 = System.nanoTime();
+                double km1 = 0.0;
+                for (int i = 1; i < count; i++) {
+                    km1 += GeoPoint.kilometersBetween(lat[i-1],lon[i-1],lat[i],lon[i]);
+                }
+                long   ns1 = System.nanoTime() - ms1;
+                // -- batched cumulative (equirectangular for short segments)
+                long   ms2 = System.nanoTime();
+                double km2 = GeoPoint.cumulativeMeters(lat, lon, null) / 1000.0;
+                long   ns2 = System.nanoTime() - ms2;
+                if (pass == 2) {
+                    Print.sysPrintln("Points: " + count);
+                    Print.sysPrintln("kilometersToPoint: " + StringTools.format(km0,"0.000") + " km, " + (ns0 / count) + " ns/point");
+                    Print.sysPrintln("kilometersBetween: " + StringTools.format(km1,"0.000") + " km, " + (ns1 / count) + " ns/point");
+                    Print.sysPrintln("cumulativeMeters : " + StringTools.format(km2,"0.000") + " km, " + (ns2 / count) + " ns/point");
+                }
+            }
+            System.exit(0);
+        }
+
         /* heading */
         if (RTConfig.hasProperty("heading")) {
             String headingStr = RTConfig.getString("heading",null);
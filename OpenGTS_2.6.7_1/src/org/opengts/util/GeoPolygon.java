@@ -34,6 +34,9 @@
 //      inclusion test.
 //  2010/09/09  Martin D. Flynn
 //     -Added support for negative rings
+//  2026/10/19  GTS Development Team
+//     -'containsPoint'/'isPointInside' now use a cached CompiledGeometry of the
+//      boundary (see "getCompiledGeometry").
 // ----------------------------------------------------------------------------
 package org.opengts.util;
 
@@ -271,6 +274,9 @@ public class GeoPolygon
     
     private Vector<GeoPolygon>  negRings    = null;
 
+    private GeoPoint            compiledBoundary[] = null;
+    private CompiledGeometry    compiledGeometry   = null;
+
     /**
     *** Empty constructor
     **/
@@ -653,7 +659,7 @@ public class GeoPolygon
     **/
     public boolean containsPoint(GeoPoint gp)
     {
-        return GeoPolygon.isPointInside(gp, this.getGeoPoints());
+        return this.isPointInside(gp);
     }
 
     /**
@@ -663,7 +669,23 @@ public class GeoPolygon
     **/
     public boolean isPointInside(GeoPoint gp)
     {
-        return GeoPolygon.isPointInside(gp, this.getGeoPoints());
+        CompiledGeometry cg = this.getCompiledGeometry();
+        return (cg != null)? cg.containsPoint(gp) : false;
+    }
+
+    /**
+    *** Gets the compiled form of this polygon boundary (recompiled when the boundary changes).
+    *** Negative rings are not included.
+    *** @return The compiled polygon, or null if this polygon has fewer than 2 points
+    **/
+    public synchronized CompiledGeometry getCompiledGeometry()
+    {
+        GeoPoint gp[] = this.getGeoPoints();
+        if ((this.compiledGeometry == null) || (this.compiledBoundary != gp)) {
+            this.compiledGeometry = CompiledGeometry.polygon(gp);
+            this.compiledBoundary = gp;
+        }
+        return this.compiledGeometry;
     }
 
     /**
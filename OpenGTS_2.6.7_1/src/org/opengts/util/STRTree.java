@@ -0,0 +1,293 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2020, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Static (bulk-loaded) Sort-Tile-Recursive packed R-tree over latitude/longitude
+//  bounding boxes.
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19  GTS Development Team
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.util;
+
+import java.lang.*;
+import java.util.*;
+
+/**
+*** STRTree class<br>
+*** A read-only R-tree, packed using the Sort-Tile-Recursive algorithm.  Items are added
+*** with their bounding box, then <code>build()</code> is called once, after which the tree
+*** may be queried concurrently by multiple threads.  Bounds are stored in flattened
+*** primitive arrays (4 values per node: minLat, maxLat, minLon, maxLon), and each node
+*** at a level covers a contiguous range of nodes at the level below.
+**/
+public class STRTree<T>
+{
+
+    // ------------------------------------------------------------------------
+
+    public  static final int       DEFAULT_NODE_CAPACITY   = 16;
+
+    private static final int       MIN_LAT                 = 0;
+    private static final int       MAX_LAT                 = 1;
+    private static final int       MIN_LON                 = 2;
+    private static final int       MAX_LON                 = 3;
+
+    // ------------------------------------------------------------------------
+
+    private int                 nodeCapacity    = DEFAULT_NODE_CAPACITY;
+
+    private List<T>             addItems        = new ArrayList<T>();
+    private List<double[]>      addBounds       = new ArrayList<double[]>();
+
+    private Object              items[]         = null;     // leaf items (STR order)
+    private double              levels[][]      = null;     // [0]=items, [n-1]=root level
+    private int                 levelSize[]     = null;
+
+    /**
+    *** Constructor
+    **/
+    public STRTree()
+    {
+        this(DEFAULT_NODE_CAPACITY);
+    }
+
+    /**
+    *** Constructor
+    *** @param nodeCapacity  The maximum number of children per node
+    **/
+    public STRTree(int nodeCapacity)
+    {
+        super();
+        this.nodeCapacity = (nodeCapacity >= 2)? nodeCapacity : DEFAULT_NODE_CAPACITY;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Adds an item to this tree (must be called prior to <code>build()</code>)
+    *** @param minLat  The item minimum latitude
+    *** @param maxLat  The item maximum latitude
+    *** @param minLon  The item minimum longitude
+    *** @param maxLon  The item maximum longitude
+    *** @param item    The item
+    **/
+    public void add(double minLat, double maxLat, double minLon, double maxLon, T item)
+    {
+        if (this.items != null) {
+            throw new IllegalStateException("STRTree already built");
+        }
+        this.addItems.add(item);
+        this.addBounds.add(new double[] {
+            Math.min(minLat,maxLat), Math.max(minLat,maxLat),
+            Math.min(minLon,maxLon), Math.max(minLon,maxLon)
+        });
+    }
+
+    /**
+    *** Adds an item to this tree (must be called prior to <code>build()</code>)
+    *** @param gb    The item bounds
+    *** @param item  The item
+    **/
+    public void add(GeoBounds gb, T item)
+    {
+        if (gb != null) {
+            this.add(gb.getMinLatitude(), gb.getMaxLatitude(), gb.getMinLongitude(), gb.getMaxLongitude(), item);
+        }
+    }
+
+    /**
+    *** Builds (packs) this tree.  No items may be added after this call.
+    *** @return This STRTree
+    **/
+    public STRTree<T> build()
+    {
+        if (this.items != null) {
+            return this;
+        }
+        int n = this.addItems.size();
+        int cap = this.nodeCapacity;
+
+        /* STR sort */
+        Integer order[] = new Integer[n];
+        for (int i = 0; i < n; i++) { order[i] = Integer.valueOf(i); }
+        final List<double[]> bnds = this.addBounds;
+        // -- sort by longitude center
+        Arrays.sort(order, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                double ca = bnds.get(a.intValue())[MIN_LON] + bnds.get(a.intValue())[MAX_LON];
+                double cb = bnds.get(b.intValue())[MIN_LON] + bnds.get(b.intValue())[MAX_LON];
+                return Double.compare(ca, cb);
+            }
+        });
+        // -- within each vertical slice, sort by latitude center
+        int leafCount  = (n + cap - 1) / cap;
+        int sliceCount = (int)Math.ceil(Math.sqrt((double)leafCount));
+        int sliceSize  = Math.max(1, sliceCount) * cap;
+        Comparator<Integer> latCmp = new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                double ca = bnds.get(a.intValue())[MIN_LAT] + bnds.get(a.intValue())[MAX_LAT];
+                double cb = bnds.get(b.intValue())[MIN_LAT] + bnds.get(b.intValue())[MAX_LAT];
+                return Double.compare(ca, cb);
+            }
+        };
+        for (int s = 0; s < n; s += sliceSize) {
+            Arrays.sort(order, s, Math.min(n, s + sliceSize), latCmp);
+        }
+
+        /* level 0: items */
+        this.items = new Object[n];
+        double lvl0[] = new double[n * 4];
+        for (int i = 0; i < n; i++) {
+            int ndx = order[i].intValue();
+            this.items[i] = this.addItems.get(ndx);
+            System.arraycopy(bnds.get(ndx), 0, lvl0, i * 4, 4);
+        }
+        List<double[]> lvlList  = new ArrayList<double[]>();
+        List<Integer>  sizeList = new ArrayList<Integer>();
+        lvlList.add(lvl0);
+        sizeList.add(Integer.valueOf(n));
+
+        /* upper levels: each node covers 'cap' consecutive nodes below */
+        double below[] = lvl0;
+        int belowCnt = n;
+        while (belowCnt > 1) {
+            int cnt = (belowCnt + cap - 1) / cap;
+            double lvl[] = new double[cnt * 4];
+            for (int p = 0; p < cnt; p++) {
+                int c0 = p * cap, c1 = Math.min(belowCnt, c0 + cap);
+                double minLat =  Double.MAX_VALUE, maxLat = -Double.MAX_VALUE;
+                double minLon =  Double.MAX_VALUE, maxLon = -Double.MAX_VALUE;
+                for (int c = c0; c < c1; c++) {
+                    int b = c * 4;
+                    if (below[b + MIN_LAT] < minLat) { minLat = below[b + MIN_LAT]; }
+                    if (below[b + MAX_LAT] > maxLat) { maxLat = below[b + MAX_LAT]; }
+                    if (below[b + MIN_LON] < minLon) { minLon = below[b + MIN_LON]; }
+                    if (below[b + MAX_LON] > maxLon) { maxLon = below[b + MAX_LON]; }
+                }
+                int b = p * 4;
+                lvl[b + MIN_LAT] = minLat;
+                lvl[b + MAX_LAT] = maxLat;
+                lvl[b + MIN_LON] = minLon;
+                lvl[b + MAX_LON] = maxLon;
+            }
+            lvlList.add(lvl);
+            sizeList.add(Integer.valueOf(cnt));
+            below = lvl;
+            belowCnt = cnt;
+        }
+        this.levels    = lvlList.toArray(new double[lvlList.size()][]);
+        this.levelSize = new int[sizeList.size()];
+        for (int i = 0; i < this.levelSize.length; i++) {
+            this.levelSize[i] = sizeList.get(i).intValue();
+        }
+
+        /* release build lists */
+        this.addItems  = null;
+        this.addBounds = null;
+        return this;
+
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Returns the number of items in this tree
+    **/
+    public int size()
+    {
+        if (this.items != null) {
+            return this.items.length;
+        } else {
+            return this.addItems.size();
+        }
+    }
+
+    /**
+    *** Returns true if this tree contains no items
+    **/
+    public boolean isEmpty()
+    {
+        return (this.size() == 0);
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Adds all items whose bounding box contains the specified point to the result list
+    *** @param lat     The point latitude
+    *** @param lon     The point longitude
+    *** @param result  The list to which matching items are added
+    *** @return The number of items added
+    **/
+    public int queryPoint(double lat, double lon, Collection<T> result)
+    {
+        return this.queryBounds(lat, lat, lon, lon, result);
+    }
+
+    /**
+    *** Adds all items whose bounding box intersects the specified bounds to the result list
+    *** @param minLat  The minimum latitude
+    *** @param maxLat  The maximum latitude
+    *** @param minLon  The minimum longitude
+    *** @param maxLon  The maximum longitude
+    *** @param result  The list to which matching items are added
+    *** @return The number of items added
+    **/
+    public int queryBounds(double minLat, double maxLat, double minLon, double maxLon, Collection<T> result)
+    {
+        if (this.items == null) {
+            throw new IllegalStateException("STRTree not built");
+        }
+        if (this.items.length == 0) {
+            return 0;
+        }
+        int top = this.levels.length - 1;
+        int cnt = 0;
+        for (int i = 0; i < this.levelSize[top]; i++) {
+            cnt += this._query(top, i, minLat, maxLat, minLon, maxLon, result);
+        }
+        return cnt;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int _query(int level, int node, double minLat, double maxLat, double minLon, double maxLon, Collection<T> result)
+    {
+        double b[] = this.levels[level];
+        int    x   = node * 4;
+        if ((b[x + MIN_LAT] > maxLat) || (b[x + MAX_LAT] < minLat) ||
+            (b[x + MIN_LON] > maxLon) || (b[x + MAX_LON] < minLon)   ) {
+            return 0;
+        }
+        if (level == 0) {
+            if (result != null) {
+                result.add((T)this.items[node]);
+            }
+            return 1;
+        }
+        int cnt = 0;
+        int c0  = node * this.nodeCapacity;
+        int c1  = Math.min(this.levelSize[level - 1], c0 + this.nodeCapacity);
+        for (int c = c0; c < c1; c++) {
+            cnt += this._query(level - 1, c, minLat, maxLat, minLon, maxLon, result);
+        }
+        return cnt;
+    }
+
+}
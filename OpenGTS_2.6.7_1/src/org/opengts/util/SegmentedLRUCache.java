@@ -0,0 +1,462 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2020, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Lock-striped (segmented) LRU cache, limited by approximate memory size
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19  GTS Development Team
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.util;
+
+import java.lang.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+*** SegmentedLRUCache class<br>
+*** An LRU cache split into independently locked segments (selected by key hash), so that
+*** concurrent readers/writers of different keys do not contend on a single lock.  The cache
+*** is limited by an approximate memory size (bytes), and optionally by the number of entries
+*** and the entry age.  Each segment is limited to its share of the overall limits.
+**/
+public class SegmentedLRUCache<KEY,VAL>
+{
+
+    // ------------------------------------------------------------------------
+
+    public  static final int    DEFAULT_SEGMENTS        = 16;
+
+    /* approximate per-entry overhead (map entry, key, holder) */
+    private static final long   ENTRY_OVERHEAD_BYTES    = 96L;
+
+    /* size assumed for values of unknown type */
+    private static final long   DEFAULT_VALUE_BYTES     = 256L;
+
+    // ------------------------------------------------------------------------
+
+    private static class Holder<VAL>
+    {
+        private VAL  value     = null;
+        private long byteSize  = 0L;
+        private long createMS  = 0L;
+        public Holder(VAL value, long byteSize, long createMS) {
+            this.value    = value;
+            this.byteSize = byteSize;
+            this.createMS = createMS;
+        }
+    }
+
+    private static class Segment<KEY,VAL>
+    {
+        private LinkedHashMap<KEY,Holder<VAL>> map = new LinkedHashMap<KEY,Holder<VAL>>(64, 0.75F, true); // access-order
+        private long byteSize = 0L;
+        public Segment() {
+            super();
+        }
+        public Holder<VAL> get(Object key) {
+            return this.map.get(key);
+        }
+        public boolean containsKey(Object key) {
+            return this.map.containsKey(key);
+        }
+        public Holder<VAL> put(KEY key, Holder<VAL> h) {
+            return this.map.put(key, h);
+        }
+        public Holder<VAL> remove(Object key) {
+            return this.map.remove(key);
+        }
+        public Collection<Holder<VAL>> values() {
+            return this.map.values();
+        }
+        public int size() {
+            return this.map.size();
+        }
+        public void clear() {
+            this.map.clear();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    private java.util.List<Segment<KEY,VAL>> segments = null;
+    private int                 segMask     = 0;
+
+    private volatile long       maxBytes    = 0L;
+    private volatile int        maxEntries  = 0;
+    private volatile long       maxAgeMS    = 0L;
+    private volatile boolean    trimOnPut   = true;
+
+    private AtomicLong          hitCount    = new AtomicLong(0L);
+    private AtomicLong          missCount   = new AtomicLong(0L);
+    private AtomicLong          evictCount  = new AtomicLong(0L);
+
+    /**
+    *** Constructor
+    *** @param maxBytes  The maximum approximate memory size of the cache, in bytes (0 for no limit)
+    **/
+    public SegmentedLRUCache(long maxBytes)
+    {
+        this(DEFAULT_SEGMENTS, maxBytes, 0, 0L);
+    }
+
+    /**
+    *** Constructor
+    *** @param segCount    The number of segments (rounded up to a power of 2)
+    *** @param maxBytes    The maximum approximate memory size of the cache, in bytes (0 for no limit)
+    *** @param maxEntries  The maximum number of entries (0 for no limit)
+    *** @param maxAgeMS    The maximum entry age, in milliseconds (0 for no limit)
+    **/
+    public SegmentedLRUCache(int segCount, long maxBytes, int maxEntries, long maxAgeMS)
+    {
+        super();
+        int n = 1;
+        while (n < segCount) { n <<= 1; }
+        this.segments = new ArrayList<Segment<KEY,VAL>>(n);
+        for (int i = 0; i < n; i++) {
+            this.segments.add(new Segment<KEY,VAL>());
+        }
+        this.segMask = n - 1;
+        this.setMaximumBytes(maxBytes);
+        this.setMaximumEntries(maxEntries);
+        this.setMaximumAgeMS(maxAgeMS);
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Sets the maximum approximate memory size, in bytes (0 for no limit)
+    **/
+    public void setMaximumBytes(long maxBytes)
+    {
+        this.maxBytes = (maxBytes > 0L)? maxBytes : 0L;
+    }
+
+    /**
+    *** Gets the maximum approximate memory size, in bytes (0 for no limit)
+    **/
+    public long getMaximumBytes()
+    {
+        return this.maxBytes;
+    }
+
+    /**
+    *** Sets the maximum number of entries (0 for no limit)
+    **/
+    public void setMaximumEntries(int maxEntries)
+    {
+        this.maxEntries = (maxEntries > 0)? maxEntries : 0;
+    }
+
+    /**
+    *** Gets the maximum number of entries (0 for no limit)
+    **/
+    public int getMaximumEntries()
+    {
+        return this.maxEntries;
+    }
+
+    /**
+    *** Sets the maximum entry age, in milliseconds (0 for no limit)
+    **/
+    public void setMaximumAgeMS(long maxAgeMS)
+    {
+        this.maxAgeMS = (maxAgeMS > 0L)? maxAgeMS : 0L;
+    }
+
+    /**
+    *** Gets the maximum entry age, in milliseconds (0 for no limit)
+    **/
+    public long getMaximumAgeMS()
+    {
+        return this.maxAgeMS;
+    }
+
+    /**
+    *** Sets whether aged entries at the least-recently-used end of a segment are removed
+    *** when a new entry is added to that segment
+    **/
+    public void setTrimOnPut(boolean trim)
+    {
+        this.trimOnPut = trim;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the approximate memory size of the specified value, in bytes.
+    *** May be overridden by subclasses which cache other value types.
+    **/
+    protected long getValueSize(VAL val)
+    {
+        if (val == null) {
+            return 0L;
+        } else
+        if (val instanceof String) {
+            return 40L + (2L * ((String)val).length());
+        } else
+        if (val instanceof byte[]) {
+            return 16L + ((byte[])val).length;
+        } else {
+            return DEFAULT_VALUE_BYTES;
+        }
+    }
+
+    /* segment for key */
+    private Segment<KEY,VAL> _getSegment(Object key)
+    {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return this.segments.get(h & this.segMask);
+    }
+
+    /* true if the specified holder has expired */
+    private boolean _isExpired(Holder<VAL> h, long nowMS)
+    {
+        long ageMS = this.maxAgeMS;
+        return (ageMS > 0L) && ((nowMS - h.createMS) > ageMS);
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the cached value for the specified key
+    *** @param key  The key
+    *** @return The cached value, or null if not cached (or expired)
+    **/
+    public VAL get(KEY key)
+    {
+        if (key == null) {
+            return null;
+        }
+        Segment<KEY,VAL> seg = this._getSegment(key);
+        synchronized (seg) {
+            Holder<VAL> h = seg.get(key);
+            if (h == null) {
+                this.missCount.incrementAndGet();
+                return null;
+            } else
+            if (this._isExpired(h,System.currentTimeMillis())) {
+                seg.remove(key);
+                seg.byteSize -= h.byteSize;
+                this.missCount.incrementAndGet();
+                return null;
+            } else {
+                this.hitCount.incrementAndGet();
+                return h.value;
+            }
+        }
+    }
+
+    /**
+    *** Returns true if the specified key is cached (does not change the LRU order)
+    **/
+    public boolean containsKey(KEY key)
+    {
+        if (key == null) {
+            return false;
+        }
+        Segment<KEY,VAL> seg = this._getSegment(key);
+        synchronized (seg) {
+            return seg.containsKey(key);
+        }
+    }
+
+    /**
+    *** Adds the specified value to the cache
+    *** @param key  The key
+    *** @param val  The value (null to remove)
+    **/
+    public void put(KEY key, VAL val)
+    {
+        if (key == null) {
+            return;
+        } else
+        if (val == null) {
+            this.remove(key);
+            return;
+        }
+        long size  = ENTRY_OVERHEAD_BYTES + this.getValueSize(val);
+        long nowMS = System.currentTimeMillis();
+        Segment<KEY,VAL> seg = this._getSegment(key);
+        synchronized (seg) {
+            Holder<VAL> old = seg.put(key, new Holder<VAL>(val,size,nowMS));
+            if (old != null) {
+                seg.byteSize -= old.byteSize;
+            }
+            seg.byteSize += size;
+            this._evict(seg, nowMS);
+        }
+    }
+
+    /**
+    *** Removes the specified key from the cache
+    *** @param key  The key
+    *** @return The previously cached value, or null if not cached
+    **/
+    public VAL remove(KEY key)
+    {
+        if (key == null) {
+            return null;
+        }
+        Segment<KEY,VAL> seg = this._getSegment(key);
+        synchronized (seg) {
+            Holder<VAL> old = seg.remove(key);
+            if (old != null) {
+                seg.byteSize -= old.byteSize;
+                return old.value;
+            }
+            return null;
+        }
+    }
+
+    /* remove least-recently-used entries exceeding this segment's share of the limits */
+    private void _evict(Segment<KEY,VAL> seg, long nowMS)
+    {
+        int  segCount = this.segments.size();
+        long segBytes = (this.maxBytes   > 0L)? Math.max(this.maxBytes / segCount, 1L) : 0L;
+        int  segSize  = (this.maxEntries > 0 )? Math.max((this.maxEntries + segCount - 1) / segCount, 1) : 0;
+        Iterator<Holder<VAL>> i = seg.values().iterator();
+        while (i.hasNext() && (seg.size() > 1)) {
+            Holder<VAL> eldest = i.next();
+            if (((segBytes > 0L) && (seg.byteSize > segBytes)) ||
+                ((segSize  > 0 ) && (seg.size()   > segSize ))   ) {
+                // -- over limit
+                this.evictCount.incrementAndGet();
+            } else
+            if (this.trimOnPut && this._isExpired(eldest,nowMS)) {
+                // -- aged
+            } else {
+                break;
+            }
+            i.remove();
+            seg.byteSize -= eldest.byteSize;
+        }
+    }
+
+    /**
+    *** Removes all expired entries from the cache
+    *** @return The number of removed entries
+    **/
+    public int trim()
+    {
+        if (this.maxAgeMS <= 0L) {
+            return 0;
+        }
+        int  count = 0;
+        long nowMS = System.currentTimeMillis();
+        for (Segment<KEY,VAL> seg : this.segments) {
+            synchronized (seg) {
+                for (Iterator<Holder<VAL>> i = seg.values().iterator(); i.hasNext();) {
+                    Holder<VAL> h = i.next();
+                    if (this._isExpired(h,nowMS)) {
+                        i.remove();
+                        seg.byteSize -= h.byteSize;
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+    *** Removes all entries from the cache
+    **/
+    public void clear()
+    {
+        for (Segment<KEY,VAL> seg : this.segments) {
+            synchronized (seg) {
+                seg.clear();
+                seg.byteSize = 0L;
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the number of cached entries
+    **/
+    public int size()
+    {
+        int size = 0;
+        for (Segment<KEY,VAL> seg : this.segments) {
+            synchronized (seg) {
+                size += seg.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+    *** Gets the approximate memory size of the cached entries, in bytes
+    **/
+    public long getByteSize()
+    {
+        long bytes = 0L;
+        for (Segment<KEY,VAL> seg : this.segments) {
+            synchronized (seg) {
+                bytes += seg.byteSize;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+    *** Gets the number of "get" requests which found a cached value
+    **/
+    public long getHitCount()
+    {
+        return this.hitCount.get();
+    }
+
+    /**
+    *** Gets the number of "get" requests which did not find a cached value
+    **/
+    public long getMissCount()
+    {
+        return this.missCount.get();
+    }
+
+    /**
+    *** Gets the number of entries evicted to stay within the size limits
+    **/
+    public long getEvictionCount()
+    {
+        return this.evictCount.get();
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets a String representation of this instance
+    **/
+    public String toString()
+    {
+        StringBuffer sb = new StringBuffer();
+        sb.append("size=").append(this.size());
+        sb.append(" bytes=").append(this.getByteSize());
+        sb.append(" hits=").append(this.getHitCount());
+        sb.append(" misses=").append(this.getMissCount());
+        sb.append(" evicted=").append(this.getEvictionCount());
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,253 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2020, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Douglas-Peucker polyline simplification for map/route output
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19  GTS Development Team
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.util;
+
+import java.lang.*;
+import java.util.*;
+
+/**
+*** TrackSimplifier class<br>
+*** Reduces the number of points in a polyline (ie. a device route) such that no removed
+*** point lies further than a specified tolerance from the simplified line.  Points which
+*** are pre-marked as "keep" are never removed, and the line is simplified independently
+*** between each of these anchor points.
+*** <br>
+*** The tolerance is typically derived from the map zoom level (see "getToleranceMeters"),
+*** so that the removed points would be indistinguishable from the route-line at that zoom.
+**/
+public class TrackSimplifier
+{
+
+    // ------------------------------------------------------------------------
+
+    /* meters-per-pixel at zoom 0 at the equator (256 pixel Web-Mercator tiles) */
+    public  static final double METERS_PER_PIXEL_ZOOM_0     = 156543.03392;
+
+    /* meters per degree of latitude */
+    private static final double METERS_PER_DEGREE           = GeoPoint.EARTH_MEAN_RADIUS_METERS * GeoPoint.RADIANS;
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the number of meters-per-pixel at the specified zoom level and latitude
+    *** @param zoom      The (Web-Mercator) map zoom level
+    *** @param latitude  The latitude at which the scale is calculated
+    *** @return The meters-per-pixel
+    **/
+    public static double getMetersPerPixel(double zoom, double latitude)
+    {
+        double cosLat = Math.cos(latitude * GeoPoint.RADIANS);
+        return METERS_PER_PIXEL_ZOOM_0 * Math.abs(cosLat) / Math.pow(2.0, zoom);
+    }
+
+    /**
+    *** Gets the simplification tolerance (in meters) for the specified pixel tolerance
+    *** at the specified zoom level and latitude
+    *** @param pixels    The tolerance, in pixels
+    *** @param zoom      The (Web-Mercator) map zoom level
+    *** @param latitude  The latitude at which the scale is calculated
+    *** @return The tolerance, in meters
+    **/
+    public static double getToleranceMeters(double pixels, double zoom, double latitude)
+    {
+        if (pixels <= 0.0) {
+            return 0.0;
+        }
+        return pixels * TrackSimplifier.getMetersPerPixel(zoom, latitude);
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Simplifies the specified polyline.  On input, "keep" contains the points which must
+    *** not be removed (first/last points are always kept).  On output, "keep" contains
+    *** all points retained by the simplification.
+    *** @param lat    The polyline latitudes (must be valid)
+    *** @param lon    The polyline longitudes (must be valid)
+    *** @param count  The number of points in the polyline
+    *** @param tolM   The tolerance, in meters
+    *** @param keep   The retained point mask (at least 'count' elements)
+    *** @return The number of retained points
+    **/
+    public static int simplify(double lat[], double lon[], int count, double tolM, boolean keep[])
+    {
+
+        /* nothing to simplify? */
+        if (count <= 0) {
+            return 0;
+        } else
+        if ((count <= 2) || !(tolM > 0.0)) {
+            for (int i = 0; i < count; i++) { keep[i] = true; }
+            return count;
+        }
+
+        /* simplify between each pair of anchors */
+        double tolSq = (tolM / METERS_PER_DEGREE) * (tolM / METERS_PER_DEGREE);
+        int    stack[] = null;
+        keep[0] = true;
+        keep[count - 1] = true;
+        int a = 0;
+        for (int b = 1; b < count; b++) {
+            if (keep[b]) {
+                if ((b - a) > 1) {
+                    if (stack == null) { stack = new int[2 * count]; }
+                    TrackSimplifier._simplify(lat, lon, a, b, tolSq, keep, stack);
+                }
+                a = b;
+            }
+        }
+
+        /* count retained points */
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            if (keep[i]) { n++; }
+        }
+        return n;
+
+    }
+
+    /**
+    *** Douglas-Peucker simplification of the points between anchors 'a' and 'b' (exclusive).
+    *** Uses an explicit stack so that long tracks cannot overflow the thread stack.
+    **/
+    private static void _simplify(double lat[], double lon[], int a, int b, double tolSq, boolean keep[], int stack[])
+    {
+        int sp = 0;
+        stack[sp++] = a;
+        stack[sp++] = b;
+        while (sp > 0) {
+            int e = stack[--sp];
+            int s = stack[--sp];
+            if ((e - s) <= 1) {
+                continue;
+            }
+            // -- local equirectangular projection about the segment start (degrees of latitude)
+            double cosLat = Math.cos(lat[s] * GeoPoint.RADIANS);
+            double bx = _deltaLon(lon[e], lon[s]) * cosLat;
+            double by = lat[e] - lat[s];
+            double bb = (bx * bx) + (by * by);
+            double maxSq = -1.0;
+            int    maxNdx = -1;
+            for (int i = s + 1; i < e; i++) {
+                double px = _deltaLon(lon[i], lon[s]) * cosLat;
+                double py = lat[i] - lat[s];
+                double dx, dy;
+                double t = (bb > 0.0)? (((px * bx) + (py * by)) / bb) : 0.0;
+                if (t <= 0.0) {
+                    dx = px;
+                    dy = py;
+                } else
+                if (t >= 1.0) {
+                    dx = px - bx;
+                    dy = py - by;
+                } else {
+                    dx = px - (t * bx);
+                    dy = py - (t * by);
+                }
+                double dSq = (dx * dx) + (dy * dy);
+                if (dSq > maxSq) {
+                    maxSq  = dSq;
+                    maxNdx = i;
+                }
+            }
+            if (maxSq > tolSq) {
+                keep[maxNdx] = true;
+                stack[sp++] = s;
+                stack[sp++] = maxNdx;
+                stack[sp++] = maxNdx;
+                stack[sp++] = e;
+            }
+        }
+    }
+
+    /* longitude delta, normalized to [-180..180] */
+    private static double _deltaLon(double lon, double lon0)
+    {
+        double d = lon - lon0;
+        if (d > 180.0) {
+            d -= 360.0;
+        } else
+        if (d < -180.0) {
+            d += 360.0;
+        }
+        return d;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Simplifies the specified list of points.  Invalid points are retained in place,
+    *** but do not participate in the simplification.
+    *** @param gpl   The list of points
+    *** @param tolM  The tolerance, in meters
+    *** @return The simplified list of points (the original list if no points were removed)
+    **/
+    public static <T extends GeoPointProvider> java.util.List<T> simplify(java.util.List<T> gpl, double tolM)
+    {
+        int size = ListTools.size(gpl);
+        if ((size <= 2) || !(tolM > 0.0)) {
+            return gpl;
+        }
+
+        /* extract valid points */
+        double  lat[]  = new double[size];
+        double  lon[]  = new double[size];
+        boolean keep[] = new boolean[size];
+        boolean valid[] = new boolean[size];
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            T gpp = gpl.get(i);
+            GeoPoint gp = (gpp != null)? gpp.getGeoPoint() : null;
+            if (GeoPoint.isValid(gp)) {
+                lat[n] = gp.getLatitude();
+                lon[n] = gp.getLongitude();
+                n++;
+                valid[i] = true;
+            }
+        }
+
+        /* simplify */
+        int kept = TrackSimplifier.simplify(lat, lon, n, tolM, keep);
+        if (kept == n) {
+            return gpl;
+        }
+
+        /* copy retained points */
+        java.util.List<T> list = new Vector<T>();
+        int k = 0;
+        for (int i = 0; i < size; i++) {
+            if (!valid[i]) {
+                list.add(gpl.get(i));
+            } else {
+                if (keep[k]) { list.add(gpl.get(i)); }
+                k++;
+            }
+        }
+        return list;
+
+    }
+
+}
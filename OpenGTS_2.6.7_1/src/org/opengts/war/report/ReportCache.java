@@ -0,0 +1,381 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2020, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Report output cache, keyed by the report definition, constraints, device
+//  list, and time range, and validated against the EventData "creationTime"
+//  of events within the report time range.
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19  GTS Development Team
+//     -Initial release
+//     -Entries are validated against the EventData table (events within the report time 
+//      range created since the report was generated), so that late events inserted by any
+//      process (ie. the DCS modules) invalidate the cached report.
+//     -Reports with output relative to the current time (ie. "checkinAge") are not cached.
+// ----------------------------------------------------------------------------
+package org.opengts.war.report;
+
+import java.lang.*;
+import java.util.*;
+import java.io.*;
+
+import org.opengts.util.*;
+import org.opengts.dbtools.*;
+import org.opengts.db.*;
+import org.opengts.db.tables.*;
+
+import org.opengts.war.tools.*;
+import org.opengts.war.report.field.FieldLayout;
+import org.opengts.war.report.event.EventDataLayout;
+
+/**
+*** ReportCache class<br>
+*** Caches the text output (HTML/CSV/TXT/XML) of reports covering a closed time range
+*** (ending before the current time).  A cached report remains valid as long as no EventData
+*** record within the report time range has been created for any of the report Devices
+*** since the report was generated.  Since the EventData "creationTime" is shared by all
+*** processes, this also observes late events inserted by the DCS modules.
+**/
+public class ReportCache
+{
+
+    // ------------------------------------------------------------------------
+    // ReportCache.maximumSizeMB=32
+    // ReportCache.maximumEntrySizeKB=2048
+    // ReportCache.maximumAgeSeconds=86400
+    // ReportCache.clockSkewSeconds=5
+
+    private static final String PROP_ReportCache_maximumSizeMB      = "ReportCache.maximumSizeMB";
+    private static final String PROP_ReportCache_maximumEntrySizeKB = "ReportCache.maximumEntrySizeKB";
+    private static final String PROP_ReportCache_maximumAgeSeconds  = "ReportCache.maximumAgeSeconds";
+    private static final String PROP_ReportCache_clockSkewSeconds   = "ReportCache.clockSkewSeconds";
+
+    private static final long   DEFAULT_MAXIMUM_SIZE_MB             = 32L;
+    private static final long   DEFAULT_MAXIMUM_ENTRY_SIZE_KB       = 2048L;
+    private static final long   DEFAULT_MAXIMUM_AGE_SECONDS         = DateTime.DaySeconds(1);
+    private static final long   DEFAULT_CLOCK_SKEW_SECONDS          = 5L;
+
+    // ------------------------------------------------------------------------
+
+    /* report columns with output relative to the current time */
+    private static final String NOW_RELATIVE_COLUMNS[]              = new String[] {
+        FieldLayout.DATA_CHECKIN_DATETIME,
+        FieldLayout.DATA_CHECKIN_AGE,
+        FieldLayout.DATA_LOGIN_DATETIME,
+        FieldLayout.DATA_LOGIN_AGE,
+        EventDataLayout.DATA_CHECKIN_DATETIME,
+        EventDataLayout.DATA_CHECKIN_AGE,
+    };
+
+    /* report properties which make the output relative to the current time */
+    private static final String NOW_RELATIVE_PROPERTIES[]           = new String[] {
+        "checkinAgeColorRange",
+        "loginAgeColorRange",
+        "minimumCheckInAge",
+    };
+
+    /**
+    *** Returns true if output in the specified format may be cached
+    **/
+    public static boolean IsCacheableFormat(String format)
+    {
+        return
+            ReportURL.FORMAT_HTML.equalsIgnoreCase(format) ||
+            ReportURL.FORMAT_CSV .equalsIgnoreCase(format) ||
+            ReportURL.FORMAT_TXT .equalsIgnoreCase(format) ||
+            ReportURL.FORMAT_XML .equalsIgnoreCase(format);
+    }
+
+    /**
+    *** Returns true if the output of the specified report depends on the current time
+    *** (ie. "checkinAge"), in which case the output may not be cached.
+    **/
+    public static boolean IsNowRelative(ReportData rd)
+    {
+        for (ReportColumn col : rd.getReportColumns()) {
+            if (ListTools.contains(NOW_RELATIVE_COLUMNS,col.getKey())) {
+                return true;
+            }
+        }
+        RTProperties rtp = rd.getProperties();
+        for (String key : NOW_RELATIVE_PROPERTIES) {
+            if (rtp.hasProperty(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+    *** Gets the maximum size of a single cached report (characters)
+    **/
+    public static long GetMaximumEntrySize()
+    {
+        return RTConfig.getLong(PROP_ReportCache_maximumEntrySizeKB, DEFAULT_MAXIMUM_ENTRY_SIZE_KB) * 1024L;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Cached report output
+    **/
+    public static class Entry
+    {
+        private String          output      = null;
+        private int             rcdCount    = 0;
+        private String          accountID   = null;
+        private String          deviceIDs[] = null;
+        private long            timeStart   = 0L;
+        private long            timeEnd     = 0L;
+        private long            createTime  = 0L;
+        public Entry(String output, int rcdCount, 
+            String accountID, Collection<String> deviceIDs, 
+            long timeStart, long timeEnd, long createTime) {
+            this.output     = (output != null)? output : "";
+            this.rcdCount   = rcdCount;
+            this.accountID  = accountID;
+            this.deviceIDs  = deviceIDs.toArray(new String[deviceIDs.size()]);
+            this.timeStart  = timeStart;
+            this.timeEnd    = timeEnd;
+            this.createTime = createTime;
+        }
+        public String getOutput() {
+            return this.output;
+        }
+        public int getRecordCount() {
+            return this.rcdCount;
+        }
+        public long getByteSize() {
+            return 64L + (2L * this.output.length()) + (32L * this.deviceIDs.length);
+        }
+        /* true if no events within the time range have been created since this entry was generated */
+        public boolean isValid() {
+            long skewSec = RTConfig.getLong(PROP_ReportCache_clockSkewSeconds, DEFAULT_CLOCK_SKEW_SECONDS);
+            DBWhere dwh = new DBWhere(EventData.getFactory());
+            String createSel = dwh.GE(EventData.FLD_creationTime, (this.createTime - skewSec));
+            try {
+                for (String devID : this.deviceIDs) {
+                    long count = EventData.countRangeEvents(
+                        this.accountID, devID,
+                        this.timeStart, this.timeEnd,
+                        null/*statCode*/, false/*validGPS*/,
+                        null/*limitType*/, -1L/*limit*/,
+                        createSel);
+                    if (count > 0L) {
+                        // -- late event inserted within the report time range
+                        return false;
+                    }
+                }
+                return true;
+            } catch (DBException dbe) {
+                Print.logError("Unable to validate cached report: " + dbe);
+                return false;
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    private static SegmentedLRUCache<String,Entry> reportCache = null;
+
+    /* get cache */
+    private static SegmentedLRUCache<String,Entry> _getCache()
+    {
+        synchronized (ReportCache.class) {
+            if (reportCache == null) {
+                long maxBytes = RTConfig.getLong(PROP_ReportCache_maximumSizeMB, DEFAULT_MAXIMUM_SIZE_MB) * 1024L * 1024L;
+                long maxAgeMS = RTConfig.getLong(PROP_ReportCache_maximumAgeSeconds, DEFAULT_MAXIMUM_AGE_SECONDS) * 1000L;
+                reportCache = new SegmentedLRUCache<String,Entry>(4, maxBytes, 0, maxAgeMS) {
+                    protected long getValueSize(Entry val) {
+                        return (val != null)? val.getByteSize() : 0L;
+                    }
+                };
+            }
+            return reportCache;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the cached report output for the specified key, if still valid
+    *** @param key  The report cache key
+    *** @return The cached report Entry, or null if not cached or no longer valid
+    **/
+    public static Entry getEntry(String key)
+    {
+        if (key == null) {
+            return null;
+        }
+        SegmentedLRUCache<String,Entry> cache = ReportCache._getCache();
+        Entry entry = cache.get(key);
+        if (entry == null) {
+            return null;
+        } else
+        if (!entry.isValid()) {
+            cache.remove(key);
+            return null;
+        } else {
+            return entry;
+        }
+    }
+
+    /**
+    *** Adds the specified report output to the cache.  The Entry creation time must be
+    *** the time at which report generation started, so that events inserted while the
+    *** report was generated invalidate the entry.
+    **/
+    public static void putEntry(String key, Entry entry)
+    {
+        if ((key != null) && (entry != null)) {
+            ReportCache._getCache().put(key, entry);
+        }
+    }
+
+    /**
+    *** Clears all cached report output
+    **/
+    public static void clear()
+    {
+        ReportCache._getCache().clear();
+    }
+
+    /**
+    *** Returns a String representation of the cache statistics
+    **/
+    public static String getStatistics()
+    {
+        return ReportCache._getCache().toString();
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the cache key for the specified report and format.  The key includes the
+    *** report definition (name, option, columns, properties), the report constraints,
+    *** the Account/User, locale, time zone, and the list of Devices.
+    *** @return The cache key, or null if the report cannot be cached
+    **/
+    public static String GetCacheKey(ReportData rd, String format, int indentLevel)
+    {
+        if ((rd == null) || rd.isSoapRequest()) {
+            return null;
+        } else
+        if (!ReportCache.IsClosedRange(rd) || ReportCache.IsNowRelative(rd)) {
+            // -- output must be recomputed
+            return null;
+        } else
+        if (!EventData.getFactory().hasField(EventData.FLD_creationTime)) {
+            // -- unable to validate cached output
+            return null;
+        }
+        RequestProperties reqState = rd.getRequestProperties();
+        ReportConstraints rc = rd.getReportConstraints();
+        StringBuffer sb = new StringBuffer();
+
+        /* report definition */
+        sb.append(rd.getReportName());
+        sb.append("|").append((rd.getReportOption() != null)? rd.getReportOption().getName() : "");
+        sb.append("|").append(format.toUpperCase()).append("|").append(indentLevel);
+        sb.append("|").append((reqState != null) && reqState.getEncodeEMailHTML());
+        for (ReportColumn col : rd.getReportColumns()) {
+            sb.append("|").append(col.getKey()).append(":").append(StringTools.trim(col.getArg()));
+        }
+        sb.append("|").append(rd.getProperties());
+
+        /* account/user/locale */
+        PrivateLabel privLabel = rd.getPrivateLabel();
+        sb.append("|").append((privLabel != null)? privLabel.getName() : "");
+        sb.append("|").append(rd.getAccountID());
+        sb.append("|").append(rd.getUserID());
+        sb.append("|").append(rd.getLocale());
+        sb.append("|").append(rd.getTimeZoneString());
+
+        /* constraints */
+        sb.append("|").append(rc);
+        sb.append("|").append(StringTools.join(rc.getStatusCodes(),","));
+        sb.append("|").append(StringTools.trim(rc.getRuleSelector()));
+        sb.append("|").append(rc.getOrderAscending());
+
+        /* devices */
+        ReportDeviceList rdl = rd.getReportDeviceList();
+        sb.append("|").append(rd.isDeviceGroupReport()? rdl.getDeviceGroupID() : "");
+        for (Iterator<String> i = rdl.iterator(); i.hasNext();) {
+            sb.append("|").append(i.next());
+        }
+
+        return sb.toString();
+    }
+
+    /**
+    *** Returns true if the specified report covers a closed time range (ending before
+    *** the current time)
+    **/
+    public static boolean IsClosedRange(ReportData rd)
+    {
+        long nowSec  = DateTime.getCurrentTimeSec();
+        long timeEnd = rd.getTimeEnd();
+        return ((timeEnd > 0L) && (timeEnd < nowSec));
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Writer which passes all output through to the target Writer, while retaining
+    *** a copy of the output (up to a maximum size) for caching.
+    **/
+    public static class CaptureWriter
+        extends Writer
+    {
+        private Writer          target      = null;
+        private StringBuilder   captured    = new StringBuilder();
+        private long            maxSize     = 0L;
+        private boolean         overflow    = false;
+        public CaptureWriter(Writer target, long maxSize) {
+            super();
+            this.target  = target;
+            this.maxSize = maxSize;
+        }
+        public void write(char cbuf[], int off, int len) throws IOException {
+            this.target.write(cbuf, off, len);
+            if (!this.overflow) {
+                if ((this.captured.length() + len) > this.maxSize) {
+                    this.overflow = true;
+                    this.captured = null;
+                } else {
+                    this.captured.append(cbuf, off, len);
+                }
+            }
+        }
+        public void flush() throws IOException {
+            this.target.flush();
+        }
+        public void close() throws IOException {
+            // -- the target Writer is owned by the caller
+            this.target.flush();
+        }
+        public boolean isOverflow() {
+            return this.overflow;
+        }
+        public String getCapturedOutput() {
+            return !this.overflow? this.captured.toString() : null;
+        }
+    }
+
+}
@@ -39,6 +39,20 @@
 //  2015/08/16  Martin D. Flynn
 //     -Added support to "_getEventData_Device(..)" to allow null Device and 
 //      retrieve EventData records based on the "where" specification only.
+//  2026/10/19  GTS Development Team
+//     -"getEventData_DeviceList" may now fetch devices concurrently on a bounded
+//      thread pool (see "deviceFetchConcurrency").  Per-device event counts are
+//      now tracked per fetching thread.
+//     -Added "EventDataStreamIterator" to stream EventData records from a forward-only
+//      DBRecordCursor directly to the report output (see "streamEventData", disabled by default).
+//     -"writeReport" may serve closed time range reports from the ReportCache
+//      (see "cacheOutput").
+//     -Added ReportProgress support for per-device progress tracking and cancellation
+//      of EventData retrieval (see "setReportProgress").
+//     -Added "runDeviceTasks" to run per-device report tasks on the device fetch ThreadPool.
+//     -"EventDataStreamIterator" reuses a single unshared DBConnection for all device cursors.
+//     -"_writeCachedReport" records the time at which report generation started, so late
+//      events inserted meanwhile (by any process) invalidate the cached output.
 // ----------------------------------------------------------------------------
 package org.opengts.war.report;
 
@@ -83,6 +97,10 @@ public abstract class ReportData
     private static final String  PROP_loginAgeColorRange           = "loginAgeColorRange";
     private static final String  PROP_loginAgeColorRange_array     = "loginAgeColorRange.array";
 
+    private static final String  PROP_deviceFetchConcurrency       = "deviceFetchConcurrency";
+    private static final String  PROP_streamEventData              = "streamEventData";
+    private static final String  PROP_cacheOutput                  = "cacheOutput";
+
     // ------------------------------------------------------------------------
 
     public  static final String  FORMAT_MAP                        = "map";
@@ -102,6 +120,23 @@ public abstract class ReportData
 
     private static final ReportColumn EMPTY_COLUMNS[]              = new ReportColumn[0];
 
+    // ------------------------------------------------------------------------
+    // Device EventData fetch thread pool (shared by all reports)
+    // ThreadPool.ReportDeviceFetch.maximumPoolSize=20
+    // ThreadPool.ReportDeviceFetch.maximumIdleSeconds=60
+    // ThreadPool.ReportDeviceFetch.maximumQueueSize=0
+
+    private static final int   MAX_DEVICE_FETCH_CONCURRENCY         = 16;
+
+    private static final int   ThreadPool_DeviceFetch_Size          = 20;
+    private static final int   ThreadPool_DeviceFetch_IdleSec       = 60;
+    private static final int   ThreadPool_DeviceFetch_QueSize       =  0;
+    private static ThreadPool  ThreadPool_DeviceFetch               = new ThreadPool(
+        "ReportDeviceFetch",
+        ThreadPool_DeviceFetch_Size,
+        ThreadPool_DeviceFetch_IdleSec,
+        ThreadPool_DeviceFetch_QueSize);
+
     // ------------------------------------------------------------------------
     // ------------------------------------------------------------------------
 
@@ -133,6 +168,7 @@ public abstract class ReportData
     private ReportFactory       rptFactory          = null;
 
     private Object/*ReportJob*/ rptJob              = null;
+    private ReportProgress      rptProgress         = null;
 
     private PrivateLabel        privLabel           = null;
     private RequestProperties   reqState            = null;
@@ -147,6 +183,10 @@ public abstract class ReportData
     private int                 eventMatchCount     = 0; // per device
     private int                 maxEventDataCount   = 0; // max device counted events
 
+    private final ThreadLocal<DeviceEventCount> threadEventCount = new ThreadLocal<DeviceEventCount>();
+
+    private java.util.List<EventDataStreamIterator> openStreams = new Vector<EventDataStreamIterator>();
+
     private int                 rptRecordCount      = 0;
     private boolean             rptIsPartial        = false;
 
@@ -226,6 +266,36 @@ public abstract class ReportData
 
     // ------------------------------------------------------------------------
 
+    /**
+    *** Sets the ReportProgress used to track the progress of this report, and to
+    *** request cancellation.  The Device count is initialized from the ReportDeviceList.
+    **/
+    public void setReportProgress(ReportProgress rp)
+    {
+        this.rptProgress = rp;
+        if (rp != null) {
+            rp.setDeviceCount(this.getDeviceCount());
+        }
+    }
+
+    /**
+    *** Gets the ReportProgress for this report (may be null)
+    **/
+    public ReportProgress getReportProgress()
+    {
+        return this.rptProgress;
+    }
+
+    /**
+    *** Returns true if cancellation of this report has been requested
+    **/
+    public boolean isCancelled()
+    {
+        return (this.rptProgress != null) && this.rptProgress.isCancelled();
+    }
+
+    // ------------------------------------------------------------------------
+
     /**
     *** Returns the report entry which created this report 
     **/
@@ -1128,7 +1198,35 @@ public abstract class ReportData
     */
 
     /**
-    *** Returns an array EventData records based on the predefined ReportDeviceList and constraints
+    *** Gets the maximum number of devices for which EventData records will be fetched
+    *** concurrently by "getEventData_DeviceList".  The report property 
+    *** "deviceFetchConcurrency" is checked first, then the PrivateLabel property
+    *** "reportData.deviceFetchConcurrency".  Defaults to '1' (serial fetch).
+    *** @return The device fetch concurrency (always &gt;= 1)
+    **/
+    public int getDeviceFetchConcurrency()
+    {
+        int conc = this.getProperties().getInt(PROP_deviceFetchConcurrency, -1);
+        if (conc <= 0) {
+            PrivateLabel privLabel = this.getPrivateLabel();
+            conc = (privLabel != null)? 
+                privLabel.getIntProperty(PrivateLabel.PROP_ReportData_deviceFetchConcurrency,1) : 1;
+        }
+        if (conc <= 1) {
+            return 1;
+        } else
+        if (conc > MAX_DEVICE_FETCH_CONCURRENCY) {
+            return MAX_DEVICE_FETCH_CONCURRENCY;
+        } else {
+            return conc;
+        }
+    }
+
+    /**
+    *** Returns an array EventData records based on the predefined ReportDeviceList and constraints.<br>
+    *** If "getDeviceFetchConcurrency()" is greater than '1', devices are fetched concurrently
+    *** and the specified DBRecordHandler (and "isEventDataMatch") may be called from 
+    *** multiple threads.  Returned records are always in ReportDeviceList order.
     *** @param rcdHandler   The callback DBRecordHandler.  If specified, the returned EventData
     ***                     array may be null.
     *** @return An array of EventData records for the device (may be null if a callback
@@ -1138,14 +1236,25 @@ public abstract class ReportData
     {
         long rptLimit = this.getReportLimit(); // report record limit
 
+        /* device list */
+        ReportDeviceList devList = this.getReportDeviceList();
+        java.util.List<String> devIDList = new Vector<String>();
+        for (Iterator<String> i = devList.iterator(); i.hasNext();) {
+            devIDList.add(i.next());
+        }
+
+        /* concurrent fetch? */
+        int conc = Math.min(this.getDeviceFetchConcurrency(), devIDList.size());
+        if (conc > 1) {
+            return this._getEventData_DeviceList(devList, devIDList, rptLimit, conc, rcdHandler);
+        }
+
         /* EventData record accumulator */
         java.util.List<EventData> edList = new Vector<EventData>();
 
         /* iterate through devices */
         this.maxEventDataCount = 0;
-        ReportDeviceList devList = this.getReportDeviceList();
-        for (Iterator<String> i = devList.iterator(); i.hasNext();) {
-            String devID = i.next();
+        for (String devID : devIDList) {
             this.eventDataCount  = 0; // per device
             this.eventMatchCount = 0; // per device
 
@@ -1185,6 +1294,245 @@ public abstract class ReportData
         return edList.toArray(new EventData[edList.size()]);
     }
 
+    /**
+    *** Returns true if EventData records should be streamed from the database directly
+    *** to the report output (see "getEventDataIterator_DeviceList"), rather than first
+    *** being collected into an array.  The report property "streamEventData" is checked
+    *** first, then the PrivateLabel property "reportData.streamEventData".  Defaults to false.
+    **/
+    public boolean getStreamEventData()
+    {
+        RTProperties rtp = this.getProperties();
+        if (rtp.hasProperty(PROP_streamEventData)) {
+            return rtp.getBoolean(PROP_streamEventData, false);
+        }
+        PrivateLabel privLabel = this.getPrivateLabel();
+        return (privLabel != null)? 
+            privLabel.getBooleanProperty(PrivateLabel.PROP_ReportData_streamEventData,false) : false;
+    }
+
+    /**
+    *** Returns a DBDataIterator which streams the EventData records for the predefined
+    *** ReportDeviceList and constraints, in the same order and subject to the same
+    *** limits as "getEventData_DeviceList".  Records are read from the database only
+    *** as they are requested by the report output.
+    *** @param rcdHandler   The optional callback DBRecordHandler
+    *** @return The EventData row data iterator
+    **/
+    protected DBDataIterator getEventDataIterator_DeviceList(DBRecordHandler<EventData> rcdHandler)
+    {
+        ReportDeviceList devList = this.getReportDeviceList();
+        java.util.List<String> devIDList = new Vector<String>();
+        for (Iterator<String> i = devList.iterator(); i.hasNext();) {
+            devIDList.add(i.next());
+        }
+        return new EventDataStreamIterator(devList, devIDList, null, null, rcdHandler);
+    }
+
+    /**
+    *** Returns a DBDataIterator which streams the EventData records for the specified
+    *** Device (may be null) and additional "where" selection.
+    *** @param deviceDB            The Device for which EventData records will be selected
+    *** @param addtlWhereSelect_1  Additional "Where" selection criteria
+    *** @param rcdHandler          The optional callback DBRecordHandler
+    *** @return The EventData row data iterator
+    **/
+    protected DBDataIterator getEventDataIterator_Device(Device deviceDB, String addtlWhereSelect_1,
+        DBRecordHandler<EventData> rcdHandler)
+    {
+        return new EventDataStreamIterator(null, null, deviceDB, addtlWhereSelect_1, rcdHandler);
+    }
+
+    /**
+    *** Closes any open EventDataStreamIterators created by this report
+    **/
+    protected void closeEventDataStreams()
+    {
+        EventDataStreamIterator open[];
+        synchronized (this.openStreams) {
+            open = this.openStreams.toArray(new EventDataStreamIterator[this.openStreams.size()]);
+        }
+        for (EventDataStreamIterator edsi : open) {
+            edsi.close();
+        }
+    }
+
+    /**
+    *** Per-thread EventData counts for the device currently being fetched
+    **/
+    private static class DeviceEventCount
+    {
+        public int dataCount  = 0;
+        public int matchCount = 0;
+    }
+
+    /**
+    *** Shared state for a concurrent device fetch.  Devices are claimed in list order,
+    *** and no further devices are claimed once the records already fetched for 
+    *** (lower-ordered) devices reach the report limit.
+    **/
+    private static class DeviceFetchState
+    {
+        private long        rptLimit    = -1L;
+        private EventData   result[][]  = null;
+        private int         dataCount[] = null;
+        private int         nextIndex   = 0;
+        private int         inFlight    = 0;
+        private long        rcdCount    = 0L;
+        public DeviceFetchState(int devCount, long rptLimit) {
+            this.rptLimit  = rptLimit;
+            this.result    = new EventData[devCount][];
+            this.dataCount = new int[devCount];
+        }
+        public synchronized int claim() {
+            if (this.nextIndex >= this.result.length) {
+                return -1; // no more devices
+            } else
+            if ((this.rptLimit >= 0L) && (this.rcdCount >= this.rptLimit)) {
+                return -1; // report limit reached
+            } else {
+                this.inFlight++;
+                return this.nextIndex++;
+            }
+        }
+        public synchronized void done(int ndx, EventData ed[], int dataCount) {
+            this.result[ndx]    = ed;
+            this.dataCount[ndx] = dataCount;
+            this.rcdCount      += (ed != null)? ed.length : 0;
+            this.inFlight--;
+            this.notifyAll();
+        }
+        public synchronized void waitUntilDone() {
+            while (this.inFlight > 0) {
+                try { this.wait(); } catch (InterruptedException ie) { /*ignore*/ }
+            }
+        }
+    }
+
+    /**
+    *** Fetches EventData records for the device list on the shared device fetch ThreadPool.
+    *** The calling thread also participates in fetching, so progress is made even when 
+    *** the ThreadPool is fully occupied by other reports.
+    **/
+    private EventData[] _getEventData_DeviceList(
+        final ReportDeviceList devList, final java.util.List<String> devIDList,
+        long rptLimit, int conc,
+        final DBRecordHandler<EventData> rcdHandler)
+    {
+        final DeviceFetchState state = new DeviceFetchState(devIDList.size(), rptLimit);
+
+        /* fetch worker */
+        Runnable worker = new Runnable() {
+            public void run() {
+                for (;;) {
+                    int ndx = state.claim();
+                    if (ndx < 0) {
+                        break;
+                    }
+                    String devID = devIDList.get(ndx);
+                    DeviceEventCount dec = new DeviceEventCount();
+                    EventData ed[] = null;
+                    ReportData.this.threadEventCount.set(dec);
+                    try {
+                        Device device = devList.getDevice(devID);
+                        ed = ReportData.this._getEventData_Device(device, null, rcdHandler); // may be empty
+                    } catch (DBException dbe) {
+                        Print.logError("Error retrieving EventData for Device: " + devID);
+                    } catch (Throwable th) {
+                        Print.logException("Error retrieving EventData for Device: " + devID, th);
+                    } finally {
+                        ReportData.this.threadEventCount.remove();
+                        state.done(ndx, ed, dec.dataCount);
+                    }
+                }
+            }
+        };
+
+        /* start helpers, then fetch on this thread */
+        for (int t = 1; t < conc; t++) {
+            if (!ThreadPool_DeviceFetch.run(worker)) {
+                break; // queue full, this thread will pick up the remaining devices
+            }
+        }
+        worker.run();
+        state.waitUntilDone();
+
+        /* merge in device order */
+        java.util.List<EventData> edList = new Vector<EventData>();
+        this.maxEventDataCount = 0;
+        for (int d = 0; d < state.result.length; d++) {
+            if ((rptLimit >= 0L) && (edList.size() >= rptLimit)) {
+                break;
+            }
+            EventData ed[] = state.result[d];
+            if (ed != null) {
+                int maxRcds = (rptLimit >= 0L)? ((int)rptLimit - edList.size()) : ed.length;
+                ListTools.toList(ed, 0, Math.min(ed.length,maxRcds), edList);
+            }
+            if (state.dataCount[d] > this.maxEventDataCount) {
+                this.maxEventDataCount = state.dataCount[d];
+            }
+        }
+        this.eventDataCount  = 0;
+        this.eventMatchCount = 0;
+        return edList.toArray(new EventData[edList.size()]);
+
+    }
+
+    /**
+    *** Per-device task run by "runDeviceTasks"
+    **/
+    public interface DeviceTask
+    {
+        public void runDeviceTask(int ndx);
+    }
+
+    /**
+    *** Runs the specified task once for each device index (0 to count-1), on up to 
+    *** "getDeviceFetchConcurrency()" threads of the shared device fetch ThreadPool.
+    *** Device indices are claimed in order, and the calling thread also participates.
+    *** Returns when the task has completed for all device indices.
+    *** @param count  The number of device indices
+    *** @param task   The per-device task (may be called from multiple threads)
+    **/
+    protected void runDeviceTasks(int count, final DeviceTask task)
+    {
+        if ((count <= 0) || (task == null)) {
+            return;
+        }
+        final DeviceFetchState state = new DeviceFetchState(count, -1L);
+
+        /* task worker */
+        Runnable worker = new Runnable() {
+            public void run() {
+                for (;;) {
+                    int ndx = state.claim();
+                    if (ndx < 0) {
+                        break;
+                    }
+                    try {
+                        task.runDeviceTask(ndx);
+                    } catch (Throwable th) {
+                        Print.logException("Error running task for Device index " + ndx, th);
+                    } finally {
+                        state.done(ndx, null, 0);
+                    }
+                }
+            }
+        };
+
+        /* start helpers, then run on this thread */
+        int conc = Math.min(this.getDeviceFetchConcurrency(), count);
+        for (int t = 1; t < conc; t++) {
+            if (!ThreadPool_DeviceFetch.run(worker)) {
+                break; // queue full, this thread will run the remaining tasks
+            }
+        }
+        worker.run();
+        state.waitUntilDone();
+
+    }
+
     /**
     *** Returns an array EventData records for the specified Device
     *** @param deviceDB     The Device for which EventData records will be selected
@@ -1273,57 +1621,16 @@ public abstract class ReportData
     }
 
     /**
-    *** Returns an array EventData records for the specified Device
-    *** @param deviceDB     The Device for which EventData records will be selected
-    *** @param rcdHandler   The callback DBRecordHandler.  If specified, the returned EventData
-    ***                     array may be null.
-    *** @return An array of EventData records for the device (may be null if a callback
-    ***         DBRecordHandler has been specified).
+    *** Creates the DBRecordHandler used to chain, match, and count selected EventData records
+    *** @param deviceDB      The Device for which EventData records will be selected (may be null)
+    *** @param rcdHandler    The optional callback DBRecordHandler
+    *** @param trimPrevious  True to retain only the immediately previous EventData record
+    ***                      in the previous-event chain (used when streaming records)
+    *** @return The EventData DBRecordHandler
     **/
-    protected EventData[] _getEventData_Device(final Device deviceDB, 
-        String addtlWhereSelect_1,
-        final DBRecordHandler<EventData> rcdHandler)
+    private DBRecordHandler<EventData> _createEventRecordHandler(final Device deviceDB, 
+        final DBRecordHandler<EventData> rcdHandler, final boolean trimPrevious)
     {
-        long timeStart = this.getTimeStart();
-        long timeEnd   = this.getTimeEnd();
-        return this._getEventData_Device(deviceDB, 
-            timeStart, timeEnd, 
-            addtlWhereSelect_1, 
-            rcdHandler);
-    }
-
-    /**
-    *** Returns an array EventData records for the specified Device
-    *** @param deviceDB            The Device for which EventData records will be selected
-    *** @param timeStart           Selection Start time
-    *** @param timeEnd             Selection End time
-    *** @param addtlWhereSelect_1  Additional "Where" selection criteria
-    *** @param rcdHandler          The callback DBRecordHandler.  If specified, the returned 
-    ***                            EventData array may be null.
-    *** @return An array of EventData records for the device (may be null if a callback
-    ***         DBRecordHandler has been specified).
-    **/
-    protected EventData[] _getEventData_Device(final Device deviceDB, 
-        long timeStart, long timeEnd,
-        String addtlWhereSelect_1,
-        final DBRecordHandler<EventData> rcdHandler)
-    {
-        String addtlWhereSelect_2 = this.getWhereSelector();
-        //Print.logInfo("Additional Where #2: " + addtlWhereSelect_2);
-
-        /* Device */
-        // -- a null device may be allowed to for getting driver associated events
-        if ((deviceDB == null) && 
-            StringTools.isBlank(addtlWhereSelect_1) && 
-            StringTools.isBlank(addtlWhereSelect_2)) {
-            // -- no device, with a blank additional-select, would select too many records
-            Print.logWarn("Device not specified and no additional 'WHERE' selection specified.");
-            return EventData.EMPTY_ARRAY;
-        }
-
-        /* Account */
-        String accountID = this.getAccountID();
-        //Print.logInfo("Getting EventData for " + accountID + "/" + deviceID);
 
         /* EventData rule selector (RuleFactory support required) */
         final String ruleSelector = this.getRuleSelector();
@@ -1341,15 +1648,27 @@ public abstract class ReportData
 
         /* create record handler */
         final LastEventData lastEDR = new LastEventData(); 
-        DBRecordHandler<EventData> evRcdHandler = new DBRecordHandler<EventData>() {
+        return new DBRecordHandler<EventData>() {
             public int handleDBRecord(EventData rcd) throws DBException {
                 //Print.logInfo("Read EventData: " + rcd);
-                ReportData.this.eventDataCount++;
+                ReportProgress rp = ReportData.this.rptProgress;
+                if (rp != null) {
+                    if (rp.isCancelled()) {
+                        return DBRH_STOP;
+                    }
+                    rp.addEvents(1L);
+                }
+                DeviceEventCount dec = ReportData.this.threadEventCount.get();
+                if (dec != null) { dec.dataCount++; } else { ReportData.this.eventDataCount++; }
                 EventData ev = rcd;
                 // -- chain events together
                 EventData lastEv = lastEDR.getEvent(); // may be null
                 ev.setPreviousEventData(lastEv); // may set null
                 lastEDR.setEvent(ev);
+                if (trimPrevious && (lastEv != null)) {
+                    // -- streaming: release the chain beyond the immediately previous event
+                    lastEv.setPreviousEventData(null);
+                }
                 // -- set the Device instance for this EventData
                 if (deviceDB != null) {
                     // -- (assume Account/Device match) cache Device
@@ -1388,7 +1707,7 @@ public abstract class ReportData
                     return DBRH_SKIP;
                 }
                 // -- mark device as having had a match?
-                ReportData.this.eventMatchCount++;
+                if (dec != null) { dec.matchCount++; } else { ReportData.this.eventMatchCount++; }
                 // -  TODO:
                 // -- check RecordHandler
                 if (rcdHandler == null) {
@@ -1408,6 +1727,64 @@ public abstract class ReportData
             }
         };
 
+    }
+
+    /**
+    *** Returns an array EventData records for the specified Device
+    *** @param deviceDB     The Device for which EventData records will be selected
+    *** @param rcdHandler   The callback DBRecordHandler.  If specified, the returned EventData
+    ***                     array may be null.
+    *** @return An array of EventData records for the device (may be null if a callback
+    ***         DBRecordHandler has been specified).
+    **/
+    protected EventData[] _getEventData_Device(final Device deviceDB, 
+        String addtlWhereSelect_1,
+        final DBRecordHandler<EventData> rcdHandler)
+    {
+        long timeStart = this.getTimeStart();
+        long timeEnd   = this.getTimeEnd();
+        return this._getEventData_Device(deviceDB, 
+            timeStart, timeEnd, 
+            addtlWhereSelect_1, 
+            rcdHandler);
+    }
+
+    /**
+    *** Returns an array EventData records for the specified Device
+    *** @param deviceDB            The Device for which EventData records will be selected
+    *** @param timeStart           Selection Start time
+    *** @param timeEnd             Selection End time
+    *** @param addtlWhereSelect_1  Additional "Where" selection criteria
+    *** @param rcdHandler          The callback DBRecordHandler.  If specified, the returned 
+    ***                            EventData array may be null.
+    *** @return An array of EventData records for the device (may be null if a callback
+    ***         DBRecordHandler has been specified).
+    **/
+    protected EventData[] _getEventData_Device(final Device deviceDB, 
+        long timeStart, long timeEnd,
+        String addtlWhereSelect_1,
+        final DBRecordHandler<EventData> rcdHandler)
+    {
+        String addtlWhereSelect_2 = this.getWhereSelector();
+        //Print.logInfo("Additional Where #2: " + addtlWhereSelect_2);
+
+        /* Device */
+        // -- a null device may be allowed to for getting driver associated events
+        if ((deviceDB == null) && 
+            StringTools.isBlank(addtlWhereSelect_1) && 
+            StringTools.isBlank(addtlWhereSelect_2)) {
+            // -- no device, with a blank additional-select, would select too many records
+            Print.logWarn("Device not specified and no additional 'WHERE' selection specified.");
+            return EventData.EMPTY_ARRAY;
+        }
+
+        /* Account */
+        String accountID = this.getAccountID();
+        //Print.logInfo("Getting EventData for " + accountID + "/" + deviceID);
+
+        /* create record handler */
+        DBRecordHandler<EventData> evRcdHandler = this._createEventRecordHandler(deviceDB, rcdHandler, false);
+
         /* get events */
         EventData ed[] = null;
         try {
@@ -1424,6 +1801,9 @@ public abstract class ReportData
         } catch (DBException dbe) {
             Print.logException("Unable to obtain EventData records", dbe);
         }
+        if (this.rptProgress != null) {
+            this.rptProgress.deviceDone();
+        }
 
         /* no events? */
         if (ed == null) {
@@ -1450,7 +1830,8 @@ public abstract class ReportData
     **/
     public long getEventDataCount()
     {
-        return (long)this.eventDataCount;
+        DeviceEventCount dec = this.threadEventCount.get();
+        return (dec != null)? (long)dec.dataCount : (long)this.eventDataCount;
     }
 
     /**
@@ -1458,7 +1839,8 @@ public abstract class ReportData
     **/
     public long getEventMatchCount()
     {
-        return (long)this.eventMatchCount;
+        DeviceEventCount dec = this.threadEventCount.get();
+        return (dec != null)? (long)dec.matchCount : (long)this.eventMatchCount;
     }
 
     /**
@@ -1849,7 +2231,82 @@ public abstract class ReportData
         throws ReportException
     {
         String fmt = StringTools.blankDefault(format, this.getPreferredFormat());
-        return this.getReportLayout().writeReport(fmt, this, out, indentLevel);
+        try {
+            if (out.hasWriter() && ReportCache.IsCacheableFormat(fmt) && this.getCacheOutput()) {
+                return this._writeCachedReport(fmt, out, indentLevel);
+            }
+            return this.getReportLayout().writeReport(fmt, this, out, indentLevel);
+        } finally {
+            // -- release any EventData cursors not read to completion
+            this.closeEventDataStreams();
+        }
+    }
+
+    /**
+    *** Returns true if the output of this report may be cached (see "ReportCache").
+    *** The report property "cacheOutput" is checked first, then the PrivateLabel 
+    *** property "reportData.cacheOutput".  Defaults to false.
+    **/
+    public boolean getCacheOutput()
+    {
+        RTProperties rtp = this.getProperties();
+        if (rtp.hasProperty(PROP_cacheOutput)) {
+            return rtp.getBoolean(PROP_cacheOutput, false);
+        }
+        PrivateLabel privLabel = this.getPrivateLabel();
+        return (privLabel != null)? 
+            privLabel.getBooleanProperty(PrivateLabel.PROP_ReportData_cacheOutput,false) : false;
+    }
+
+    /**
+    *** Writes the report from the ReportCache, if the report covers a closed time range and
+    *** a valid cached copy exists.  Otherwise the report is generated, and the output is
+    *** cached while it is written.
+    **/
+    private int _writeCachedReport(String fmt, OutputProvider out, int indentLevel)
+        throws ReportException
+    {
+
+        /* cacheable? */
+        String key = ReportCache.GetCacheKey(this, fmt, indentLevel);
+        if (key == null) {
+            // -- range includes "now" (or not cacheable)
+            return this.getReportLayout().writeReport(fmt, this, out, indentLevel);
+        }
+
+        /* output */
+        PrintWriter pw = null;
+        try {
+            pw = out.getWriter();
+        } catch (IOException ioe) {
+            throw new ReportException("PrintWriter error", ioe);
+        }
+
+        /* cached? */
+        ReportCache.Entry entry = ReportCache.getEntry(key);
+        if (entry != null) {
+            Print.logDebug("Report output from cache: " + this.getReportName());
+            pw.write(entry.getOutput());
+            return entry.getRecordCount();
+        }
+
+        /* generate report, retaining a copy of the output */
+        // -- events created after "createTime" invalidate the cached output
+        long createTime = DateTime.getCurrentTimeSec();
+        ReportCache.CaptureWriter cw = new ReportCache.CaptureWriter(pw, ReportCache.GetMaximumEntrySize());
+        PrintWriter cpw = new PrintWriter(cw);
+        int count = this.getReportLayout().writeReport(fmt, this, new OutputProvider(cpw), indentLevel);
+        cpw.flush();
+        if (!cpw.checkError() && !cw.isOverflow()) {
+            java.util.List<String> devIDs = new Vector<String>();
+            for (Iterator<String> i = this.getReportDeviceList().iterator(); i.hasNext();) {
+                devIDs.add(i.next());
+            }
+            ReportCache.putEntry(key, new ReportCache.Entry(cw.getCapturedOutput(), count,
+                this.getAccountID(), devIDs, this.getTimeStart(), this.getTimeEnd(), createTime));
+        }
+        return count;
+
     }
 
     // ------------------------------------------------------------------------
@@ -1921,6 +2378,199 @@ public abstract class ReportData
         
     }
 
+    /**
+    *** This is an implementation of DBDataIterator that streams EventData records from
+    *** a forward-only DBRecordCursor, one device at a time.  Only the current (and 
+    *** immediately previous) EventData record is held in memory.
+    **/
+    public class EventDataStreamIterator
+        implements DBDataIterator
+    {
+        private ReportDeviceList            devList     = null;
+        private java.util.List<String>      devIDList   = null;
+        private Device                      device      = null;
+        private String                      addtlWhere  = null;
+        private DBRecordHandler<EventData>  rcdHandler  = null;
+
+        private int                         sourceNdx   = 0;
+        private long                        rptLimit    = -1L;
+        private long                        rptCount    = 0L;
+
+        private DBConnection                cursorConn  = null; // shared by all device cursors
+        private DBRecordCursor<EventData>   cursor      = null;
+        private EventData                   array[]     = null; // non-streamable selection
+        private int                         arrayNdx    = 0;
+
+        private EventData                   nextEv      = null;
+        private Object                      dataObj     = null;
+        private DBDataRow                   dataRow     = null;
+        private boolean                     closed      = false;
+
+        public EventDataStreamIterator(
+            ReportDeviceList devList, java.util.List<String> devIDList,
+            Device device, String addtlWhere,
+            DBRecordHandler<EventData> rcdHandler) {
+            this.devList    = devList;
+            this.devIDList  = devIDList;
+            this.device     = device;
+            this.addtlWhere = addtlWhere;
+            this.rcdHandler = rcdHandler;
+            this.rptLimit   = ReportData.this.getReportLimit();
+            this.dataRow    = new DBDataRowAdapter(ReportData.this) {
+                public Object getRowObject() {
+                    return EventDataStreamIterator.this.dataObj;
+                }
+                public Object getDBValue(String name, int rowNdx, ReportColumn rptCol) {
+                    Object obj = EventDataStreamIterator.this.dataObj;
+                    if (obj != null) {
+                        DataRowTemplate drt = ReportData.this.getDataRowTemplate();
+                        return drt.getFieldValue(name, rowNdx, ReportData.this, rptCol, obj); // DataRowTemplate.getFieldValue
+                    } else {
+                        return "";
+                    }
+                }
+            };
+            ReportData.this.maxEventDataCount = 0;
+            ReportData.this.openStreams.add(this);
+        }
+
+        public boolean hasNext() {
+            if (this.nextEv != null) {
+                return true;
+            } else
+            if (this.closed) {
+                return false;
+            } else
+            if (ReportData.this.isCancelled()) {
+                this.close();
+                return false;
+            } else
+            if ((this.rptLimit >= 0L) && (this.rptCount >= this.rptLimit)) {
+                this.close();
+                return false;
+            }
+            for (;;) {
+                if (this.cursor != null) {
+                    try {
+                        if (this.cursor.hasNext()) {
+                            this.nextEv = this.cursor.next();
+                            break;
+                        }
+                    } catch (DBException dbe) {
+                        Print.logException("Unable to obtain EventData records", dbe);
+                    }
+                    this._closeSource();
+                } else
+                if (this.array != null) {
+                    if (this.arrayNdx < this.array.length) {
+                        this.nextEv = this.array[this.arrayNdx++];
+                        break;
+                    }
+                    this._closeSource();
+                } else
+                if (!this._openNextSource()) {
+                    this.close();
+                    return false;
+                }
+            }
+            this.rptCount++;
+            return true;
+        }
+
+        public DBDataRow next() {
+            if (this.hasNext()) {
+                this.dataObj = this.nextEv;
+                this.nextEv  = null;
+                return this.dataRow;
+            } else {
+                this.dataObj = null;
+                return null;
+            }
+        }
+
+        public void close() {
+            this._closeSource();
+            if (this.cursorConn != null) {
+                this.cursorConn.closeConnection();
+                this.cursorConn = null;
+            }
+            this.closed = true;
+            this.nextEv = null;
+            ReportData.this.openStreams.remove(this);
+        }
+
+        private boolean _openNextSource() {
+            // -- next Device
+            Device dev;
+            if (this.devList != null) {
+                if (this.sourceNdx >= this.devIDList.size()) {
+                    return false;
+                }
+                String devID = this.devIDList.get(this.sourceNdx++);
+                try {
+                    dev = this.devList.getDevice(devID);
+                } catch (DBException dbe) {
+                    Print.logError("Error retrieving EventData for Device: " + devID);
+                    return true; // continue with next device
+                }
+            } else {
+                if (this.sourceNdx > 0) {
+                    return false;
+                }
+                this.sourceNdx++;
+                dev = this.device;
+            }
+            ReportData.this.eventDataCount  = 0; // per device
+            ReportData.this.eventMatchCount = 0; // per device
+            // -- a null device requires an additional selection
+            String addtlWhere_2 = ReportData.this.getWhereSelector();
+            if ((dev == null) && StringTools.isBlank(this.addtlWhere) && StringTools.isBlank(addtlWhere_2)) {
+                Print.logWarn("Device not specified and no additional 'WHERE' selection specified.");
+                return true;
+            }
+            // -- open cursor (on the unshared connection reused for all devices)
+            try {
+                if (this.cursorConn == null) {
+                    // -- reconnected as needed by "DBConnection.execute"
+                    this.cursorConn = DBConnection.createDBConnection(DBReadWriteMode.READ_ONLY);
+                }
+                this.cursor = EventData.getRangeEventCursor(this.cursorConn,
+                    ReportData.this.getAccountID(), ((dev != null)? dev.getDeviceID() : null),
+                    ReportData.this.getTimeStart(), ReportData.this.getTimeEnd(),
+                    ReportData.this.getStatusCodes(),
+                    ReportData.this.getValidGPSRequired(),
+                    ReportData.this.getSelectionLimitType(), ReportData.this.getSelectionLimit(), 
+                    ReportData.this.getOrderAscending(),
+                    this.addtlWhere, addtlWhere_2,
+                    ReportData.this._createEventRecordHandler(dev, this.rcdHandler, true));
+            } catch (DBException dbe) {
+                Print.logException("Unable to obtain EventData records", dbe);
+                return true;
+            }
+            if (this.cursor == null) {
+                // -- selection must be reordered (ie. "LAST"), bounded by the selection limit
+                this.array    = ReportData.this._getEventData_Device(dev, this.addtlWhere, this.rcdHandler);
+                this.arrayNdx = 0;
+            }
+            return true;
+        }
+
+        private void _closeSource() {
+            if (this.cursor != null) {
+                this.cursor.close();
+                this.cursor = null;
+                if (ReportData.this.rptProgress != null) {
+                    ReportData.this.rptProgress.deviceDone();
+                }
+            }
+            this.array = null;
+            if (ReportData.this.eventDataCount > ReportData.this.maxEventDataCount) {
+                ReportData.this.maxEventDataCount = ReportData.this.eventDataCount;
+            }
+        }
+
+    }
+
     /**
     *** This is an implementation of DBDataIterator that iterates through an array of row objects 
     **/
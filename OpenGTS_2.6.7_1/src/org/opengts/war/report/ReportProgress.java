@@ -0,0 +1,195 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2020, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Progress/cancellation state of a running report
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19  GTS Development Team
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.war.report;
+
+import java.lang.*;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+import org.opengts.util.*;
+
+/**
+*** ReportProgress class<br>
+*** Tracks the number of Devices and EventData records processed by a running report, and
+*** carries the cancellation request.  Updated by ReportData while EventData records are
+*** fetched, and read by the ReportQueueManager when reporting job progress.
+**/
+public class ReportProgress
+{
+
+    // ------------------------------------------------------------------------
+
+    private volatile int        deviceCount     = 0;
+    private AtomicInteger       devicesDone     = new AtomicInteger(0);
+    private AtomicLong          eventCount      = new AtomicLong(0L);
+    private AtomicLong          bytesWritten    = new AtomicLong(0L);
+    private volatile boolean    complete        = false;
+    private volatile boolean    cancelled       = false;
+
+    /**
+    *** Constructor
+    **/
+    public ReportProgress()
+    {
+        super();
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Sets the number of Devices in the report
+    **/
+    public void setDeviceCount(int count)
+    {
+        this.deviceCount = (count > 0)? count : 0;
+    }
+
+    /**
+    *** Gets the number of Devices in the report
+    **/
+    public int getDeviceCount()
+    {
+        return this.deviceCount;
+    }
+
+    /**
+    *** Marks the EventData retrieval for one Device as done
+    **/
+    public void deviceDone()
+    {
+        this.devicesDone.incrementAndGet();
+    }
+
+    /**
+    *** Gets the number of Devices for which EventData retrieval is done
+    **/
+    public int getDevicesDone()
+    {
+        return this.devicesDone.get();
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Adds to the number of EventData records read
+    **/
+    public void addEvents(long count)
+    {
+        this.eventCount.addAndGet(count);
+    }
+
+    /**
+    *** Gets the number of EventData records read
+    **/
+    public long getEventCount()
+    {
+        return this.eventCount.get();
+    }
+
+    /**
+    *** Adds to the number of report output bytes written
+    **/
+    public void addBytesWritten(long count)
+    {
+        this.bytesWritten.addAndGet(count);
+    }
+
+    /**
+    *** Gets the number of report output bytes written
+    **/
+    public long getBytesWritten()
+    {
+        return this.bytesWritten.get();
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Marks the report as complete
+    **/
+    public void setComplete()
+    {
+        this.complete = true;
+    }
+
+    /**
+    *** Returns true if the report is complete
+    **/
+    public boolean isComplete()
+    {
+        return this.complete;
+    }
+
+    /**
+    *** Requests cancellation of the report.  EventData retrieval stops at the next record,
+    *** and the report output is abandoned.
+    **/
+    public void cancel()
+    {
+        this.cancelled = true;
+    }
+
+    /**
+    *** Returns true if cancellation of the report has been requested
+    **/
+    public boolean isCancelled()
+    {
+        return this.cancelled;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the estimated report progress (0.0 to 1.0).  The estimate is based on the
+    *** number of Devices processed, and remains below 1.0 until the report is complete.
+    **/
+    public double getProgress()
+    {
+        if (this.complete) {
+            return 1.0;
+        }
+        int devCount = this.deviceCount;
+        if (devCount <= 0) {
+            return 0.0;
+        }
+        double p = (double)this.devicesDone.get() / (double)devCount;
+        return (p < 0.99)? p : 0.99;
+    }
+
+    // ------------------------------------------------------------------------
+
+    public String toString()
+    {
+        StringBuffer sb = new StringBuffer();
+        sb.append("devices=").append(this.getDevicesDone()).append("/").append(this.getDeviceCount());
+        sb.append(" events=").append(this.getEventCount());
+        sb.append(" bytes=").append(this.getBytesWritten());
+        sb.append(" progress=").append(StringTools.format(this.getProgress(),"0.00"));
+        if (this.isCancelled()) { sb.append(" cancelled"); }
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,991 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2020, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Asynchronous report execution.  Report requests are persisted in the
+//  ReportQueue table, and executed on a bounded pool of worker threads, with
+//  per-account fair scheduling.  Completed report output is stored on disk
+//  for later download.
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19  GTS Development Team
+//     -Initial release
+//     -Jobs are claimed with a conditional status update tagged with the node owner ID,
+//      running jobs are kept alive by a heartbeat, and only jobs whose owner heartbeat is
+//      stale are requeued.  Cancellation of a job running on another node is detected by
+//      the owner heartbeat.  Added "Shutdown".
+//     -Priorities above normal are restricted to the Account "admin" User
+// ----------------------------------------------------------------------------
+package org.opengts.war.report;
+
+import java.lang.*;
+import java.util.*;
+import java.io.*;
+
+import org.opengts.util.*;
+import org.opengts.dbtools.*;
+import org.opengts.db.*;
+import org.opengts.db.tables.*;
+
+import org.opengts.war.tools.*;
+
+/**
+*** ReportQueueManager class<br>
+*** Runs queued reports on the "ReportQueue" ThreadPool.  When a worker thread becomes
+*** available, the next job is selected by priority, then by the fewest running jobs for
+*** the job Account, then by the Account which was least recently dispatched, then by the
+*** time queued.  A single Account may not have more than "maximumRunningPerAccount" jobs
+*** running at the same time, so one Account submitting many large reports does not
+*** prevent other Accounts' reports from running.<br>
+*** Several nodes may share the ReportQueue table.  A node claims a queued job with a
+*** conditional update (only one node succeeds), and records its owner ID in the job.  The
+*** owner periodically updates the heartbeat time of its running jobs; a running job whose
+*** heartbeat is stale (the owner node is gone) is requeued.  The per-Account limits apply
+*** per node.
+**/
+public class ReportQueueManager
+{
+
+    // ------------------------------------------------------------------------
+    // ReportQueue.enabled=false
+    // ReportQueue.workerThreads=4
+    // ReportQueue.maximumRunningPerAccount=2
+    // ReportQueue.maximumQueuedPerAccount=20
+    // ReportQueue.outputDirectory=/tmp/gts-reports
+    // ReportQueue.retentionHours=48
+
+    private static final String PROP_ReportQueue_enabled                    = "ReportQueue.enabled";
+    private static final String PROP_ReportQueue_workerThreads              = "ReportQueue.workerThreads";
+    private static final String PROP_ReportQueue_maximumRunningPerAccount   = "ReportQueue.maximumRunningPerAccount";
+    private static final String PROP_ReportQueue_maximumQueuedPerAccount    = "ReportQueue.maximumQueuedPerAccount";
+    private static final String PROP_ReportQueue_outputDirectory            = "ReportQueue.outputDirectory";
+    private static final String PROP_ReportQueue_retentionHours             = "ReportQueue.retentionHours";
+
+    private static final int    DEFAULT_WORKER_THREADS                      = 4;
+    private static final int    DEFAULT_MAX_RUNNING_PER_ACCOUNT             = 2;
+    private static final int    DEFAULT_MAX_QUEUED_PER_ACCOUNT              = 20;
+    private static final long   DEFAULT_RETENTION_HOURS                     = 48L;
+
+    private static final long   EXPIRE_CHECK_INTERVAL_MS                    = DateTime.HourSeconds(1) * 1000L;
+
+    private static final long   HEARTBEAT_INTERVAL_MS                       = DateTime.MinuteSeconds(1) * 1000L;
+    private static final long   HEARTBEAT_STALE_SEC                         = DateTime.MinuteSeconds(5);
+
+    /* this node owner ID ("host:startTime") */
+    private static final String NodeID = StringTools.trim(RTConfig.getHostName()) + ":" + 
+        Long.toString(DateTime.getCurrentTimeMillis(),36);
+
+    /**
+    *** Returns true if asynchronous report execution is enabled
+    **/
+    public static boolean IsEnabled()
+    {
+        return RTConfig.getBoolean(PROP_ReportQueue_enabled, false);
+    }
+
+    /**
+    *** Gets the directory in which report output is stored
+    **/
+    public static File GetOutputDirectory()
+    {
+        File dir = RTConfig.getFile(PROP_ReportQueue_outputDirectory, null);
+        if (dir == null) {
+            dir = new File(System.getProperty("java.io.tmpdir","/tmp"), "gts-reports");
+        }
+        return dir;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Returns true if reports in the specified format may be run asynchronously
+    **/
+    public static boolean IsQueueableFormat(String format)
+    {
+        return
+            ReportURL.FORMAT_HTML.equalsIgnoreCase(format) ||
+            ReportURL.FORMAT_CSV .equalsIgnoreCase(format) ||
+            ReportURL.FORMAT_TXT .equalsIgnoreCase(format) ||
+            ReportURL.FORMAT_XML .equalsIgnoreCase(format) ||
+            ReportURL.FORMAT_XLS .equalsIgnoreCase(format) ||
+            ReportURL.FORMAT_XLSX.equalsIgnoreCase(format);
+    }
+
+    /**
+    *** Returns true if the specified format is written as binary output
+    **/
+    private static boolean IsBinaryFormat(String format)
+    {
+        return
+            ReportURL.FORMAT_XLS .equalsIgnoreCase(format) ||
+            ReportURL.FORMAT_XLSX.equalsIgnoreCase(format);
+    }
+
+    /**
+    *** Gets the MIME type of the stored output for the specified format
+    **/
+    public static String GetMimeType(String format)
+    {
+        if (ReportURL.FORMAT_CSV .equalsIgnoreCase(format)) { return HTMLTools.MIME_CSV();   }
+        if (ReportURL.FORMAT_TXT .equalsIgnoreCase(format)) { return HTMLTools.MIME_PLAIN(); }
+        if (ReportURL.FORMAT_XML .equalsIgnoreCase(format)) { return HTMLTools.MIME_XML();   }
+        if (ReportURL.FORMAT_XLS .equalsIgnoreCase(format)) { return HTMLTools.MIME_XLS();   }
+        if (ReportURL.FORMAT_XLSX.equalsIgnoreCase(format)) { return HTMLTools.MIME_XLSX();  }
+        return HTMLTools.MIME_HTML();
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** A running job, and its progress/cancellation state
+    **/
+    private static class RunningJob
+    {
+        private ReportQueue     job         = null;
+        private ReportProgress  progress    = new ReportProgress();
+        public RunningJob(ReportQueue job) {
+            this.job = job;
+        }
+        public ReportQueue getJob() {
+            return this.job;
+        }
+        public ReportProgress getProgress() {
+            return this.progress;
+        }
+    }
+
+    /**
+    *** OutputStream which counts the bytes written, and aborts the report output
+    *** when cancellation has been requested.
+    **/
+    private static class ProgressOutputStream
+        extends FilterOutputStream
+    {
+        private ReportProgress progress = null;
+        public ProgressOutputStream(OutputStream out, ReportProgress progress) {
+            super(out);
+            this.progress = progress;
+        }
+        public void write(int b) throws IOException {
+            this._check();
+            this.out.write(b);
+            this.progress.addBytesWritten(1L);
+        }
+        public void write(byte b[], int off, int len) throws IOException {
+            this._check();
+            this.out.write(b, off, len);
+            this.progress.addBytesWritten(len);
+        }
+        private void _check() throws IOException {
+            if (this.progress.isCancelled()) {
+                throw new IOException("Report cancelled");
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    private static boolean                  initialized         = false;
+    private static boolean                  shutdown            = false;
+    private static ThreadPool               threadPool          = null;
+    private static Thread                   heartbeatThread     = null;
+
+    /* guarded by "ReportQueueManager.class" */
+    private static java.util.List<ReportQueue> pendingJobs      = new Vector<ReportQueue>();
+    private static Map<String,RunningJob>   runningJobs         = new HashMap<String,RunningJob>();
+    private static Map<String,Integer>      accountRunCount     = new HashMap<String,Integer>();
+    private static Map<String,Long>         accountLastDispatch = new HashMap<String,Long>();
+    private static long                     lastExpireCheckMS   = 0L;
+
+    /* job map key */
+    private static String _jobKey(String acctID, String jobID)
+    {
+        return StringTools.trim(acctID).toLowerCase() + "/" + StringTools.trim(jobID).toLowerCase();
+    }
+
+    /**
+    *** Initializes the report queue: jobs left running by a node which is gone (stale
+    *** heartbeat) are requeued, queued jobs are loaded, expired jobs are deleted, and the
+    *** heartbeat thread is started.  Does nothing if the report queue is not enabled.
+    **/
+    public static void Initialize()
+    {
+        if (!ReportQueueManager.IsEnabled()) {
+            return;
+        }
+        synchronized (ReportQueueManager.class) {
+            if (initialized || shutdown) {
+                return;
+            }
+            int workers = RTConfig.getInt(PROP_ReportQueue_workerThreads, DEFAULT_WORKER_THREADS);
+            threadPool  = new ThreadPool("ReportQueue", ((workers > 0)? workers : 1), 60, 0);
+            initialized = true;
+        }
+        ReportQueueManager._requeueStaleJobs();
+        ReportQueueManager._loadQueuedJobs();
+        Print.logInfo("ReportQueue initialized: node=" + NodeID);
+        ReportQueueManager._deleteExpiredJobs();
+        ReportQueueManager._dispatch();
+
+        /* heartbeat */
+        Thread hbt = new Thread(new Runnable() {
+            public void run() {
+                ReportQueueManager._heartbeatLoop();
+            }
+        }, "ReportQueueHeartbeat");
+        hbt.setDaemon(true);
+        synchronized (ReportQueueManager.class) {
+            heartbeatThread = hbt;
+        }
+        hbt.start();
+
+    }
+
+    /**
+    *** Stops the report queue.  Queued jobs are left in the table, running jobs are
+    *** interrupted and requeued, and the worker/heartbeat threads are stopped.
+    **/
+    public static void Shutdown()
+    {
+        Thread hbt;
+        synchronized (ReportQueueManager.class) {
+            if (!initialized) {
+                return;
+            }
+            initialized = false;
+            shutdown    = true;
+            pendingJobs.clear();
+            for (RunningJob rj : runningJobs.values()) {
+                rj.getProgress().cancel();
+            }
+            threadPool.stopThreads();
+            hbt = heartbeatThread;
+            heartbeatThread = null;
+        }
+        if (hbt != null) {
+            hbt.interrupt();
+        }
+        Print.logInfo("ReportQueue shutdown: node=" + NodeID);
+    }
+
+    /* true if "Shutdown" has been called */
+    private static boolean _isShutdown()
+    {
+        synchronized (ReportQueueManager.class) {
+            return shutdown;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Heartbeat loop: updates the heartbeat time of the jobs running on this node, detects
+    *** jobs cancelled by another node, requeues jobs whose owner is gone, and loads jobs
+    *** queued by other nodes.
+    **/
+    private static void _heartbeatLoop()
+    {
+        while (!ReportQueueManager._isShutdown()) {
+            try {
+                Thread.sleep(HEARTBEAT_INTERVAL_MS);
+            } catch (InterruptedException ie) {
+                continue; // check shutdown
+            }
+            try {
+                ReportQueue.updateHeartbeat(NodeID);
+                ReportQueueManager._checkRemoteCancel();
+            } catch (Throwable th) {
+                Print.logException("ReportQueue heartbeat error", th);
+            }
+            ReportQueueManager._requeueStaleJobs();
+            ReportQueueManager._loadQueuedJobs();
+            ReportQueueManager._dispatch();
+        }
+    }
+
+    /**
+    *** Cancels the running jobs whose status has been changed by another node
+    **/
+    private static void _checkRemoteCancel()
+        throws DBException
+    {
+        java.util.List<RunningJob> running;
+        synchronized (ReportQueueManager.class) {
+            running = new Vector<RunningJob>(runningJobs.values());
+        }
+        for (RunningJob rj : running) {
+            ReportQueue job = rj.getJob();
+            if (job.getJobStatus() != ReportQueue.STATUS_RUNNING) {
+                // -- not yet claimed
+                continue;
+            }
+            ReportQueue rq = ReportQueue.getReportQueue(job.getAccountID(), job.getJobID());
+            if ((rq == null) || (rq.getJobStatus() != ReportQueue.STATUS_RUNNING)) {
+                Print.logInfo("ReportQueue job cancelled by another node: " + job);
+                rj.getProgress().cancel();
+            }
+        }
+    }
+
+    /**
+    *** Requeues running jobs whose owner node is gone (stale heartbeat)
+    **/
+    private static void _requeueStaleJobs()
+    {
+        long staleTime = DateTime.getCurrentTimeSec() - HEARTBEAT_STALE_SEC;
+        try {
+            ReportQueue stale[] = ReportQueue.getStaleRunningJobs(staleTime);
+            for (ReportQueue job : stale) {
+                if (ReportQueue.requeueStaleJob(job.getAccountID(), job.getJobID(), staleTime)) {
+                    Print.logInfo("Requeued ReportQueue job (owner gone): " + job + " [" + job.getOwnerID() + "]");
+                    job.deleteOutputFile();
+                }
+            }
+        } catch (DBException dbe) {
+            Print.logException("Unable to requeue stale ReportQueue jobs", dbe);
+        }
+    }
+
+    /**
+    *** Loads the queued jobs not already pending or running on this node
+    **/
+    private static void _loadQueuedJobs()
+    {
+        ReportQueue queued[];
+        try {
+            queued = ReportQueue.getJobsByStatus(ReportQueue.STATUS_QUEUED);
+        } catch (DBException dbe) {
+            Print.logException("Unable to load queued ReportQueue jobs", dbe);
+            return;
+        }
+        synchronized (ReportQueueManager.class) {
+            if (!initialized) {
+                return;
+            }
+            Set<String> known = new HashSet<String>(runningJobs.keySet());
+            for (ReportQueue pj : pendingJobs) {
+                known.add(ReportQueueManager._jobKey(pj.getAccountID(),pj.getJobID()));
+            }
+            for (ReportQueue job : queued) {
+                if (!known.contains(ReportQueueManager._jobKey(job.getAccountID(),job.getJobID()))) {
+                    pendingJobs.add(job);
+                }
+            }
+        }
+    }
+
+    /**
+    *** Returns true if the report queue has been initialized and is accepting jobs
+    **/
+    public static boolean IsRunning()
+    {
+        synchronized (ReportQueueManager.class) {
+            return initialized;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Queues a report for asynchronous execution
+    *** @param reqState   The current session RequestProperties (Account/User/PrivateLabel/Locale)
+    *** @param reportID   The report ID (as defined in the PrivateLabel)
+    *** @param rptOption  The report option (may be blank)
+    *** @param deviceID   The Device ID (Device reports)
+    *** @param groupID    The DeviceGroup ID (Group reports)
+    *** @param timeStart  The report start time
+    *** @param timeEnd    The report end time
+    *** @param tzStr      The report time zone
+    *** @param format     The report output format
+    *** @param priority   The job priority (ReportQueue.PRIORITY_LOW to ReportQueue.PRIORITY_HIGH,
+    ***                   priorities above PRIORITY_NORMAL require the Account "admin" User)
+    *** @return The queued ReportQueue job
+    *** @throws ReportException if the report queue is not running, the format is not
+    ***         supported, or the Account has too many queued jobs.
+    **/
+    public static ReportQueue submit(RequestProperties reqState,
+        String reportID, String rptOption, String deviceID, String groupID,
+        long timeStart, long timeEnd, String tzStr,
+        String format, int priority)
+        throws ReportException
+    {
+        if (!ReportQueueManager.IsRunning()) {
+            throw new ReportException("Report queue is not enabled");
+        } else
+        if (!ReportQueueManager.IsQueueableFormat(format)) {
+            throw new ReportException("Report format not supported for queued reports: " + format);
+        }
+        String acctID = reqState.getCurrentAccountID();
+        if (StringTools.isBlank(acctID)) {
+            throw new ReportException("Account not specified");
+        }
+        if ((priority > ReportQueue.PRIORITY_NORMAL) && !User.isAdminUser(reqState.getCurrentUserID())) {
+            // -- only the Account "admin" User may raise the job priority
+            priority = ReportQueue.PRIORITY_NORMAL;
+        }
+
+        /* check per-account queue limit */
+        int maxQueued = RTConfig.getInt(PROP_ReportQueue_maximumQueuedPerAccount, DEFAULT_MAX_QUEUED_PER_ACCOUNT);
+        synchronized (ReportQueueManager.class) {
+            int count = ReportQueueManager._getRunCount(acctID);
+            for (ReportQueue pj : pendingJobs) {
+                if (pj.getAccountID().equals(acctID)) { count++; }
+            }
+            if ((maxQueued > 0) && (count >= maxQueued)) {
+                throw new ReportException("Too many queued reports for Account: " + acctID);
+            }
+        }
+
+        /* create/save job */
+        ReportQueue job = ReportQueue.createNewJob(acctID);
+        if (job == null) {
+            throw new ReportException("Unable to create ReportQueue job");
+        }
+        job.setUserID(reqState.getCurrentUserID());
+        job.setPrivateLabelName(reqState.getPrivateLabel().getName());
+        job.setLocaleString(reqState.getLocale().toString());
+        job.setReportID(reportID);
+        job.setReportOption(rptOption);
+        job.setDeviceID(deviceID);
+        job.setGroupID(groupID);
+        job.setTimeStart(timeStart);
+        job.setTimeEnd(timeEnd);
+        job.setTimeZone(tzStr);
+        job.setFormat(format);
+        job.setPriority(priority);
+        try {
+            job.save();
+        } catch (DBException dbe) {
+            throw new ReportException("Unable to save ReportQueue job", dbe);
+        }
+
+        /* queue */
+        synchronized (ReportQueueManager.class) {
+            pendingJobs.add(job);
+        }
+        ReportQueueManager._dispatch();
+        return job;
+
+    }
+
+    /**
+    *** Requests cancellation of the specified job.  A queued job is cancelled immediately,
+    *** a running job is cancelled at the next EventData record or output write.  A job
+    *** running on another node is marked cancelled in the table, and is interrupted by
+    *** its owner at the next heartbeat.
+    *** @return True if the job was found and was not already finished
+    **/
+    public static boolean cancel(String acctID, String jobID)
+    {
+        String key = ReportQueueManager._jobKey(acctID, jobID);
+        ReportQueue cancelJob = null;
+        synchronized (ReportQueueManager.class) {
+            // -- running?
+            RunningJob rj = runningJobs.get(key);
+            if (rj != null) {
+                rj.getProgress().cancel();
+                return true;
+            }
+            // -- pending?
+            for (Iterator<ReportQueue> i = pendingJobs.iterator(); i.hasNext();) {
+                ReportQueue pj = i.next();
+                if (ReportQueueManager._jobKey(pj.getAccountID(),pj.getJobID()).equals(key)) {
+                    i.remove();
+                    cancelJob = pj;
+                    break;
+                }
+            }
+        }
+
+        /* cancel in table (the job may have been claimed by another node) */
+        try {
+            if (cancelJob == null) {
+                cancelJob = ReportQueue.getReportQueue(acctID, jobID);
+                if ((cancelJob == null) || cancelJob.isFinal()) {
+                    return false;
+                }
+            }
+            String aID = cancelJob.getAccountID(), jID = cancelJob.getJobID();
+            if (ReportQueue.updateJobStatus(aID, jID, ReportQueue.STATUS_QUEUED, ReportQueue.STATUS_CANCELLED, null)) {
+                // -- queued job cancelled
+                ReportQueueManager._finishJob(cancelJob, ReportQueue.STATUS_CANCELLED, "Cancelled", null);
+                return true;
+            } else
+            if (ReportQueue.updateJobStatus(aID, jID, ReportQueue.STATUS_RUNNING, ReportQueue.STATUS_CANCELLED, null)) {
+                // -- running on another node, interrupted by the owner heartbeat
+                return true;
+            } else {
+                return false;
+            }
+        } catch (DBException dbe) {
+            Print.logException("Unable to cancel ReportQueue job: " + key, dbe);
+            return false;
+        }
+
+    }
+
+    /**
+    *** Gets the specified job.  The progress and record count of a running job are
+    *** updated from the live report progress (but not saved).
+    *** @return The ReportQueue job, or null if not found
+    **/
+    public static ReportQueue getJob(String acctID, String jobID)
+        throws DBException
+    {
+        ReportQueue job = ReportQueue.getReportQueue(acctID, jobID);
+        if ((job != null) && (job.getJobStatus() == ReportQueue.STATUS_RUNNING)) {
+            RunningJob rj;
+            synchronized (ReportQueueManager.class) {
+                rj = runningJobs.get(ReportQueueManager._jobKey(acctID,jobID));
+            }
+            if (rj != null) {
+                ReportProgress rp = rj.getProgress();
+                job.setProgress(rp.getProgress());
+                job.setRecordCount(rp.getEventCount());
+                job.setOutputSize(rp.getBytesWritten());
+            }
+        }
+        return job;
+    }
+
+    /**
+    *** Gets the jobs for the specified Account/User, most recently queued first
+    **/
+    public static ReportQueue[] getJobs(String acctID, String userID, long limit)
+        throws DBException
+    {
+        return ReportQueue.getJobsForAccount(acctID, userID, limit);
+    }
+
+    // ------------------------------------------------------------------------
+
+    /* number of running jobs for the specified account (must be synchronized) */
+    private static int _getRunCount(String acctID)
+    {
+        Integer cnt = accountRunCount.get(acctID);
+        return (cnt != null)? cnt.intValue() : 0;
+    }
+
+    /* last dispatch time for the specified account (must be synchronized) */
+    private static long _getLastDispatch(String acctID)
+    {
+        Long ts = accountLastDispatch.get(acctID);
+        return (ts != null)? ts.longValue() : 0L;
+    }
+
+    /**
+    *** Selects the next pending job to run (must be synchronized)
+    **/
+    private static ReportQueue _selectNextJob()
+    {
+        int maxPerAcct = RTConfig.getInt(PROP_ReportQueue_maximumRunningPerAccount, DEFAULT_MAX_RUNNING_PER_ACCOUNT);
+        ReportQueue best = null;
+        for (ReportQueue job : pendingJobs) {
+            String acctID = job.getAccountID();
+            int    runCnt = ReportQueueManager._getRunCount(acctID);
+            if ((maxPerAcct > 0) && (runCnt >= maxPerAcct)) {
+                // -- account already at its running limit
+                continue;
+            } else
+            if (best == null) {
+                best = job;
+                continue;
+            }
+            // -- priority (higher first)
+            if (job.getPriority() != best.getPriority()) {
+                if (job.getPriority() > best.getPriority()) { best = job; }
+                continue;
+            }
+            // -- account running jobs (fewer first)
+            int bestCnt = ReportQueueManager._getRunCount(best.getAccountID());
+            if (runCnt != bestCnt) {
+                if (runCnt < bestCnt) { best = job; }
+                continue;
+            }
+            // -- account last dispatched (least recent first)
+            long lastTS = ReportQueueManager._getLastDispatch(acctID);
+            long bestTS = ReportQueueManager._getLastDispatch(best.getAccountID());
+            if (lastTS != bestTS) {
+                if (lastTS < bestTS) { best = job; }
+                continue;
+            }
+            // -- queued time (oldest first)
+            if (job.getQueuedTime() < best.getQueuedTime()) {
+                best = job;
+            }
+        }
+        return best;
+    }
+
+    /**
+    *** Starts pending jobs while worker threads are available
+    **/
+    private static void _dispatch()
+    {
+        synchronized (ReportQueueManager.class) {
+            if (!initialized) {
+                return;
+            }
+            int workers = threadPool.getMaxPoolSize();
+            while (runningJobs.size() < workers) {
+                ReportQueue job = ReportQueueManager._selectNextJob();
+                if (job == null) {
+                    break;
+                }
+                String acctID = job.getAccountID();
+                final RunningJob rj = new RunningJob(job);
+                pendingJobs.remove(job);
+                runningJobs.put(ReportQueueManager._jobKey(acctID,job.getJobID()), rj);
+                accountRunCount.put(acctID, new Integer(ReportQueueManager._getRunCount(acctID) + 1));
+                accountLastDispatch.put(acctID, new Long(DateTime.getCurrentTimeMillis()));
+                threadPool.run(new Runnable() {
+                    public void run() {
+                        try {
+                            ReportQueueManager._runJob(rj);
+                        } finally {
+                            ReportQueueManager._jobDone(rj);
+                        }
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+    *** Removes a job from the running set, and dispatches the next pending job
+    **/
+    private static void _jobDone(RunningJob rj)
+    {
+        ReportQueue job = rj.getJob();
+        String acctID = job.getAccountID();
+        synchronized (ReportQueueManager.class) {
+            runningJobs.remove(ReportQueueManager._jobKey(acctID,job.getJobID()));
+            int cnt = ReportQueueManager._getRunCount(acctID) - 1;
+            if (cnt > 0) {
+                accountRunCount.put(acctID, new Integer(cnt));
+            } else {
+                accountRunCount.remove(acctID);
+            }
+        }
+        ReportQueueManager._deleteExpiredJobs();
+        ReportQueueManager._dispatch();
+    }
+
+    /**
+    *** Updates a job with its final status
+    **/
+    private static void _finishJob(ReportQueue job, int status, String msg, ReportProgress rp)
+    {
+        job.setJobStatus(status);
+        job.setStatusMessage(msg);
+        job.setEndTime(DateTime.getCurrentTimeSec());
+        if (rp != null) {
+            job.setRecordCount(rp.getEventCount());
+        }
+        if (status == ReportQueue.STATUS_COMPLETE) {
+            job.setProgress(1.0);
+        } else {
+            job.deleteOutputFile();
+            job.setOutputFile("");
+            job.setOutputSize(0L);
+        }
+        try {
+            job.update(
+                ReportQueue.FLD_jobStatus, ReportQueue.FLD_statusMessage, ReportQueue.FLD_endTime,
+                ReportQueue.FLD_progress, ReportQueue.FLD_recordCount,
+                ReportQueue.FLD_outputFile, ReportQueue.FLD_outputSize);
+        } catch (DBException dbe) {
+            Print.logException("Unable to update ReportQueue job: " + job, dbe);
+        }
+    }
+
+    /**
+    *** Deletes expired jobs and their stored output (at most once per hour)
+    **/
+    private static void _deleteExpiredJobs()
+    {
+        long nowMS = DateTime.getCurrentTimeMillis();
+        synchronized (ReportQueueManager.class) {
+            if ((nowMS - lastExpireCheckMS) < EXPIRE_CHECK_INTERVAL_MS) {
+                return;
+            }
+            lastExpireCheckMS = nowMS;
+        }
+        long hours = RTConfig.getLong(PROP_ReportQueue_retentionHours, DEFAULT_RETENTION_HOURS);
+        if (hours > 0L) {
+            try {
+                long endTime = DateTime.getCurrentTimeSec() - DateTime.HourSeconds(hours);
+                int count = ReportQueue.deleteExpiredJobs(endTime);
+                if (count > 0) {
+                    Print.logInfo("Deleted expired ReportQueue jobs: " + count);
+                }
+            } catch (DBException dbe) {
+                Print.logException("Unable to delete expired ReportQueue jobs", dbe);
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Runs the report for the specified job, and stores the report output
+    **/
+    private static void _runJob(RunningJob rj)
+    {
+        ReportQueue    job      = rj.getJob();
+        ReportProgress progress = rj.getProgress();
+        String         acctID   = job.getAccountID();
+        String         format   = job.getFormat();
+
+        /* cancelled (or shutdown) before start? */
+        if (progress.isCancelled()) {
+            try {
+                if (!ReportQueueManager._isShutdown() && ReportQueue.updateJobStatus(acctID, job.getJobID(),
+                    ReportQueue.STATUS_QUEUED, ReportQueue.STATUS_CANCELLED, null)) {
+                    ReportQueueManager._finishJob(job, ReportQueue.STATUS_CANCELLED, "Cancelled", progress);
+                }
+            } catch (DBException dbe) {
+                Print.logException("Unable to cancel ReportQueue job: " + job, dbe);
+            }
+            return;
+        }
+
+        /* claim (only one node may change the job from queued to running) */
+        try {
+            if (!ReportQueue.updateJobStatus(acctID, job.getJobID(), 
+                ReportQueue.STATUS_QUEUED, ReportQueue.STATUS_RUNNING, NodeID)) {
+                // -- cancelled, or claimed by another node
+                Print.logDebug("ReportQueue job no longer queued: " + job);
+                return;
+            }
+        } catch (DBException dbe) {
+            // -- left queued, reloaded at the next heartbeat
+            Print.logException("Unable to claim ReportQueue job: " + job, dbe);
+            return;
+        }
+
+        /* mark running */
+        job.setJobStatus(ReportQueue.STATUS_RUNNING);
+        job.setOwnerID(NodeID);
+        job.setStartTime(DateTime.getCurrentTimeSec());
+        job.setProgress(0.0);
+        try {
+            job.update(ReportQueue.FLD_startTime, ReportQueue.FLD_progress);
+        } catch (DBException dbe) {
+            Print.logException("Unable to update ReportQueue job: " + job, dbe);
+        }
+
+        /* create report */
+        ReportData reportDta;
+        try {
+            reportDta = ReportQueueManager._createReport(job);
+        } catch (ReportException re) {
+            Print.logError("ReportQueue job " + job + ": " + re.getMessage());
+            ReportQueueManager._finishJob(job, ReportQueue.STATUS_FAILED, re.getMessage(), progress);
+            return;
+        } catch (Throwable th) {
+            Print.logException("ReportQueue job " + job + ": error creating report", th);
+            ReportQueueManager._finishJob(job, ReportQueue.STATUS_FAILED, "Error creating report", progress);
+            return;
+        }
+        reportDta.setReportJob(job);
+        reportDta.setReportProgress(progress);
+
+        /* output file */
+        File dir = new File(ReportQueueManager.GetOutputDirectory(), acctID);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            Print.logError("Unable to create ReportQueue output directory: " + dir);
+            ReportQueueManager._finishJob(job, ReportQueue.STATUS_FAILED, "Unable to store report output", progress);
+            return;
+        }
+        File file = new File(dir, job.getJobID() + "." + format);
+        job.setOutputFile(file.toString());
+
+        /* write report */
+        String fmt = format.toUpperCase();
+        ProgressOutputStream pos = null;
+        boolean ok = false;
+        String  errMsg = "Error generating report";
+        try {
+            pos = new ProgressOutputStream(new BufferedOutputStream(new FileOutputStream(file)), progress);
+            if (ReportQueueManager.IsBinaryFormat(format)) {
+                OutputProvider op = new OutputProvider(pos);
+                reportDta.writeReport(fmt, op);
+                pos.flush();
+            } else {
+                PrintWriter pw = new PrintWriter(new OutputStreamWriter(pos, StringTools.CharEncoding_UTF_8));
+                OutputProvider op = new OutputProvider(pw);
+                if (ReportURL.FORMAT_HTML.equalsIgnoreCase(format)) {
+                    pw.print("<html>\n");
+                    pw.print("<head>\n");
+                    pw.print("<meta http-equiv='Content-Type' content='text/html; charset=UTF-8'/>\n");
+                    reportDta.writeReportStyle(fmt, op);
+                    pw.print("</head>\n");
+                    pw.print("<body>\n");
+                    reportDta.writeReport(fmt, op);
+                    pw.print("</body>\n");
+                    pw.print("</html>\n");
+                } else {
+                    reportDta.writeReport(fmt, op);
+                }
+                pw.flush();
+                if (pw.checkError() && !progress.isCancelled()) {
+                    throw new IOException("Error writing report output");
+                }
+            }
+            ok = true;
+        } catch (ReportException re) {
+            if (!progress.isCancelled()) {
+                Print.logException("ReportQueue job " + job + ": error generating report", re);
+            }
+        } catch (IOException ioe) {
+            if (!progress.isCancelled()) {
+                Print.logError("ReportQueue job " + job + ": " + ioe);
+                errMsg = "Unable to store report output";
+            }
+        } catch (Throwable th) {
+            Print.logException("ReportQueue job " + job + ": error generating report", th);
+        } finally {
+            if (pos != null) {
+                try { pos.close(); } catch (Throwable th) { /*ignore*/ }
+            }
+        }
+
+        /* final status */
+        if (progress.isCancelled() && ReportQueueManager._isShutdown()) {
+            // -- interrupted by shutdown, requeue for another node
+            job.deleteOutputFile();
+            try {
+                ReportQueue.updateJobStatus(acctID, job.getJobID(), 
+                    ReportQueue.STATUS_RUNNING, ReportQueue.STATUS_QUEUED, "");
+            } catch (DBException dbe) {
+                Print.logException("Unable to requeue ReportQueue job: " + job, dbe);
+            }
+        } else
+        if (progress.isCancelled()) {
+            ReportQueueManager._finishJob(job, ReportQueue.STATUS_CANCELLED, "Cancelled", progress);
+        } else
+        if (!ok) {
+            ReportQueueManager._finishJob(job, ReportQueue.STATUS_FAILED, errMsg, progress);
+        } else {
+            progress.setComplete();
+            job.setOutputSize(file.length());
+            ReportQueueManager._finishJob(job, ReportQueue.STATUS_COMPLETE, "", progress);
+        }
+
+    }
+
+    /**
+    *** Creates the report for the specified job (as performed by the "ReportDisplay" page
+    *** for interactive reports)
+    **/
+    private static ReportData _createReport(ReportQueue job)
+        throws ReportException, DBException
+    {
+        String acctID = job.getAccountID();
+
+        /* Account/User */
+        Account account = Account.getAccount(DBReadWriteMode.READ_WRITE, acctID);
+        if (account == null) {
+            throw new ReportException("Account not found: " + acctID);
+        }
+        String userID = job.getUserID();
+        User user = !StringTools.isBlank(userID)? User.getUser(account, userID) : null;
+        if (!StringTools.isBlank(userID) && (user == null) && !User.isAdminUser(userID)) {
+            throw new ReportException("User not found: " + acctID + "/" + userID);
+        }
+
+        /* PrivateLabel */
+        BasicPrivateLabel bpl = BasicPrivateLabelLoader.getPrivateLabel(job.getPrivateLabelName());
+        if (!(bpl instanceof PrivateLabel)) {
+            bpl = account.getPrivateLabel();
+        }
+        if (!(bpl instanceof PrivateLabel)) {
+            throw new ReportException("PrivateLabel not found: " + job.getPrivateLabelName());
+        }
+        PrivateLabel privLabel = (PrivateLabel)bpl;
+
+        /* request properties */
+        String   tzStr = StringTools.blankDefault(job.getTimeZone(), account.getTimeZone());
+        TimeZone tz    = DateTime.getTimeZone(tzStr); // will be GMT if invalid
+        RequestProperties reqState = new RequestProperties();
+        reqState.setPrivateLabel(privLabel);
+        reqState.setLocaleString(job.getLocaleString());
+        reqState.setCurrentAccount(account);
+        reqState.setCurrentUser(user);
+        reqState.setTimeZone(tz, tzStr);
+        reqState.setEventDateFrom(new DateTime(job.getTimeStart(), tz));
+        reqState.setEventDateTo(  new DateTime(job.getTimeEnd()  , tz));
+        reqState.setReport(true);
+
+        /* report */
+        String reportID = job.getReportID();
+        ReportEntry reportEntry = privLabel.getReportEntry(reportID);
+        if (reportEntry == null) {
+            throw new ReportException("Report not found: " + reportID);
+        }
+        ReportFactory reportFactory = reportEntry.getReportFactory();
+        String rptOption = job.getReportOption();
+        String deviceID  = job.getDeviceID();
+        String groupID   = job.getGroupID();
+        ReportData reportDta;
+        if (reportFactory.getReportTypeIsGroup()) {
+            reqState.setFleet(true);
+            if (!StringTools.isBlank(deviceID)) {
+                // -- group report on specific device
+                Device device = Device.getDevice(DBReadWriteMode.READ_WRITE, account, deviceID);
+                if (device == null) {
+                    throw new ReportException("Device not found: " + acctID + "/" + deviceID);
+                }
+                ReportDeviceList rdl = new ReportDeviceList(account, user);
+                rdl.add(device);
+                reportDta = reportFactory.createReport(reportEntry, rptOption, reqState, rdl);
+            } else
+            if (DeviceGroup.DEVICE_GROUP_ALL.equalsIgnoreCase(groupID)) {
+                // -- group report on ALL authorized devices
+                ReportDeviceList rdl = new ReportDeviceList(account, user);
+                rdl.addAllAuthorizedDevices();
+                reportDta = reportFactory.createReport(reportEntry, rptOption, reqState, rdl);
+            } else {
+                // -- group report on devices in specific group
+                DeviceGroup group = DeviceGroup.getDeviceGroup(account, groupID);
+                if (group == null) {
+                    throw new ReportException("Group not found: " + acctID + "/" + groupID);
+                }
+                reportDta = reportFactory.createReport(reportEntry, rptOption, reqState, group);
+            }
+        } else
+        if (reportFactory.getReportTypeIsDevice()) {
+            Device device = !StringTools.isBlank(deviceID)? Device.getDevice(DBReadWriteMode.READ_WRITE, account, deviceID) : null;
+            if (device == null) {
+                throw new ReportException("Device not found: " + acctID + "/" + deviceID);
+            }
+            reportDta = reportFactory.createReport(reportEntry, rptOption, reqState, device);
+        } else {
+            reportDta = reportFactory.createReport(reportEntry, rptOption, reqState);
+        }
+
+        /* constraints */
+        ReportConstraints rc = reportDta.getReportConstraints();
+        rc.setTimeRange(job.getTimeStart(), job.getTimeEnd());
+        reportDta.postInitialize();
+        return reportDta;
+
+    }
+
+}
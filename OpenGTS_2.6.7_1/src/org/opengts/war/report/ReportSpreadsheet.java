@@ -24,6 +24,10 @@
 //      (see CONVERT_VALUES_TO_NUMERIC)
 //  2015/08/16  Martin D. Flynn
 //     -Check for hex values in "convertToNumericIfPossible" and return as-is
+//  2026/10/19  GTS Development Team
+//     -XLSX spreadsheets are written using the streaming "ExcelStreamingSpreadsheet"
+//      (see PROP_Excel_streamingXLSX), which does not require Apache POI.
+//     -Added "setOutputStream" to stream XLSX rows to the output as they are added.
 // ----------------------------------------------------------------------------
 package org.opengts.war.report;
 
@@ -50,6 +54,18 @@ public class ReportSpreadsheet // FORMAT_XLS
     /* set to "true" to attempt to convert numeric column value strings to Double/Long */
     private static boolean  CONVERT_VALUES_TO_NUMERIC   = true;
 
+    /* Runtime property for writing XLSX spreadsheets using the streaming writer */
+    private static final String PROP_Excel_streamingXLSX      = "Excel.streamingXLSX";
+    private static final String PROP_Excel_streamingRowWindow = "Excel.streamingRowWindow";
+
+    /**
+    *** Returns true if XLSX spreadsheets are to be written using the streaming writer
+    **/
+    public static boolean IsStreamingXLSX()
+    {
+        return RTConfig.getBoolean(PROP_Excel_streamingXLSX,true);
+    }
+
     // ------------------------------------------------------------------------
 
     private static boolean  initExcelSpreadsheetClass   = false;
@@ -98,7 +114,8 @@ public class ReportSpreadsheet // FORMAT_XLS
 
         /* create interface instance */
         Class<?> ssClass = GetExcelSpreadsheetClass();
-        if (ssClass == null) {
+        boolean streaming = this.xlsx && IsStreamingXLSX();
+        if ((ssClass == null) && !streaming) {
             return;
         }
 
@@ -107,8 +124,14 @@ public class ReportSpreadsheet // FORMAT_XLS
 
         /* create Excel Spreadsheet instance */
         try {
-            Print.logInfo("Creating Excel spreadsheet report instance ...");
-            this.excel = (ExcelAPI)ssClass.newInstance();
+            if (streaming) {
+                int window = RTConfig.getInt(PROP_Excel_streamingRowWindow,ExcelStreamingSpreadsheet.DEFAULT_ROW_WINDOW_SIZE);
+                Print.logInfo("Creating streaming Excel spreadsheet report instance (window="+window+") ...");
+                this.excel = new ExcelStreamingSpreadsheet(window);
+            } else {
+                Print.logInfo("Creating Excel spreadsheet report instance ...");
+                this.excel = (ExcelAPI)ssClass.newInstance();
+            }
             this.excel.init(this.xlsx, this.rptData.getReportName());
         } catch (Throwable th) {
             Print.logException("Error creating Excel Spreadsheet instance", th);
@@ -374,6 +397,30 @@ public class ReportSpreadsheet // FORMAT_XLS
 
     // ------------------------------------------------------------------------
 
+    /**
+    *** Sets the OutputStream to which the spreadsheet rows are written as they are added.
+    *** Only supported by the streaming XLSX spreadsheet, and must be called before any
+    *** rows are added.  "write(OutputStream)" must still be called to complete the spreadsheet.
+    *** @param out  The OutputStream
+    *** @return True if the spreadsheet will be streamed to the specified OutputStream
+    **/
+    public boolean setOutputStream(OutputStream out)
+    {
+        if (this.excel instanceof ExcelStreamingSpreadsheet) {
+            try {
+                return ((ExcelStreamingSpreadsheet)this.excel).setOutputStream(out);
+            } catch (Throwable th) {
+                Print.logException("Excel spreadsheet error", th);
+                this.excel = null;
+                return false;
+            }
+        } else {
+            return false;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
     public boolean write(OutputStream out)
     {
         if (this.excel != null) {
@@ -27,6 +27,8 @@
 //  2015/08/16  Martin D. Flynn
 //     -Added property "selectByWhereOnly" to allow selecting EventData records
 //      based on the specified "where" only (device selection is ignored).
+//  2026/10/19  GTS Development Team
+//     -Stream EventData records to the report output when "streamEventData" is enabled.
 // ----------------------------------------------------------------------------
 package org.opengts.war.report.event;
 
@@ -203,9 +205,34 @@ public class EventDetailReport
         RTProperties rtp = super.getProperties();
         String selectBy = rtp.getString(PROP_selectEventsBy,null);
 
+        /* stream EventData records directly to the report output */
+        DBRecordHandler<EventData> rcdHandler = null;
+        if (super.getStreamEventData()) {
+            if (this.isSelectByWhere()) {
+                return super.getEventDataIterator_Device(null/*Device*/, null, rcdHandler);
+            } else
+            if (this.isSelectByDriver()) {
+                RequestProperties reqState = super.getRequestProperties();
+                String driverID = reqState.getSelectedDriverID();
+                if (StringTools.isBlank(driverID)) {
+                    ReportOption ro = this.getReportOption();
+                    driverID = (ro != null)? ro.getValue(Driver.FLD_driverID) : null;
+                }
+                if (StringTools.isBlank(driverID)) {
+                    Print.logWarn("DriverID is null/blank: " + this.getAccountID());
+                    return new ArrayDataIterator(EventData.EMPTY_ARRAY);
+                }
+                Print.logInfo("Streaming events by Driver: " + driverID);
+                DBWhere dwh = new DBWhere(EventData.getFactory());
+                dwh.append(dwh.EQ(EventData.FLD_driverID, driverID));
+                return super.getEventDataIterator_Device(null/*Device*/, dwh.toString(), rcdHandler);
+            } else {
+                return super.getEventDataIterator_DeviceList(rcdHandler);
+            }
+        }
+
         /* get array of EventData records */
         EventData ed[] = null;
-        DBRecordHandler<EventData> rcdHandler = null;
         if (this.isSelectByWhere()) {
             // -- select events based on "super.getWhereSelector()" only
             // -  will return an empty array if "getWhereSelector()" returns null/blank
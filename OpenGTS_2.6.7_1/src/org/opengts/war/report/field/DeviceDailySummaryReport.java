@@ -0,0 +1,183 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2020, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19  GTS Development Team
+//     -Initial release
+// ----------------------------------------------------------------------------
+package org.opengts.war.report.field;
+
+import java.io.*;
+import java.util.*;
+
+import javax.servlet.*;
+import javax.servlet.http.*;
+
+import org.opengts.util.*;
+import org.opengts.dbtools.*;
+import org.opengts.db.*;
+import org.opengts.db.tables.*;
+
+import org.opengts.war.tools.*;
+import org.opengts.war.report.*;
+
+public class DeviceDailySummaryReport
+    extends ReportData
+{
+
+    // ------------------------------------------------------------------------
+    // Summary report
+    // 1 record per device per day, read from the DeviceDailySummary table
+    // ------------------------------------------------------------------------
+
+    private java.util.List<FieldData>   rowData         = null;
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Device Daily Summary Report Constructor
+    *** @param rptEntry The ReportEntry
+    *** @param reqState The session RequestProperties instance
+    *** @param devList  The list of devices
+    **/
+    public DeviceDailySummaryReport(ReportEntry rptEntry, RequestProperties reqState, ReportDeviceList devList)
+        throws ReportException
+    {
+        super(rptEntry, reqState, devList);
+
+        /* Account required */
+        if (this.getAccount() == null) {
+            throw new ReportAccountException();
+        }
+
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Post report initialization
+    **/
+    public void postInitialize()
+    {
+        //
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the bound ReportLayout singleton instance for this report
+    *** @return The bound ReportLayout
+    **/
+    public static ReportLayout GetReportLayout()
+    {
+        // bind the report format to this data
+        return FieldLayout.getReportLayout();
+    }
+
+    /**
+    *** Gets the bound ReportLayout singleton instance for this report
+    *** @return The bound ReportLayout
+    **/
+    public ReportLayout getReportLayout()
+    {
+        // bind the report format to this data
+        return GetReportLayout();
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Creates and returns an iterator for the row data displayed in the body of this report.
+    *** @return The body row data iterator
+    **/
+    public DBDataIterator getBodyDataIterator()
+    {
+
+        /* init */
+        this.rowData = new Vector<FieldData>();
+
+        /* report day range (summary days are based on the Account TimeZone) */
+        TimeZone tz = Account.getTimeZone(this.getAccount(), DateTime.getGMTTimeZone());
+        long startDay = (new DateTime(this.getTimeStart(),tz)).getDayNumber(tz);
+        long   endDay = (new DateTime(this.getTimeEnd()  ,tz)).getDayNumber(tz);
+
+        /* loop through devices */
+        String devID = "";
+        ReportDeviceList devList = this.getReportDeviceList();
+        for (Iterator<String> i = devList.iterator(); i.hasNext();) {
+            devID = i.next();
+            try {
+
+                /* get Device record */
+                Device device = devList.getDevice(devID);
+                if (device == null) {
+                    // unlikely
+                    Print.logError("Returned DeviceList 'Device' is null: " + devID);
+                    continue;
+                }
+
+                /* daily summaries */
+                DeviceDailySummary dds[] = DeviceDailySummary.getDailySummaries(
+                    this.getAccountID(), devID, startDay, endDay);
+                for (DeviceDailySummary d : dds) {
+                    FieldData fd = new FieldData();
+                    fd.setDevice(device);
+                    fd.setString(FieldLayout.DATA_DEVICE_ID      , devID);
+                    fd.setLong(  FieldLayout.DATA_DATE           , d.getDayNumber());
+                    fd.setLong(  FieldLayout.DATA_COUNT          , d.getEventCount());
+                    fd.setLong(  FieldLayout.DATA_START_TIMESTAMP, d.getFirstTimestamp());
+                    fd.setLong(  FieldLayout.DATA_STOP_TIMESTAMP , d.getLastTimestamp());
+                    fd.setDouble(FieldLayout.DATA_DISTANCE       , d.getDistanceKM());
+                    if (d.getStartOdometerKM() > 0.0) {
+                        fd.setDouble(FieldLayout.DATA_START_ODOMETER, d.getStartOdometerKM());
+                        fd.setDouble(FieldLayout.DATA_STOP_ODOMETER , d.getEndOdometerKM());
+                    }
+                    fd.setLong(  FieldLayout.DATA_DRIVING_ELAPSED, d.getDrivingTime());
+                    fd.setLong(  FieldLayout.DATA_IDLE_ELAPSED   , d.getIdleTime());
+                    fd.setLong(  FieldLayout.DATA_STOP_COUNT     , d.getStopCount());
+                    fd.setDouble(FieldLayout.DATA_SPEED_MAXIMUM  , d.getMaxSpeedKPH());
+                    this.rowData.add(fd);
+                }
+
+            } catch (DBException dbe) {
+
+                // error encountered
+                Print.logError("Error retrieving DeviceDailySummary for Device: " + devID);
+
+            }
+
+        }
+
+        /* return data iterator */
+        FieldData.sortByDeviceDescription(this.rowData);
+        return new ListDataIterator(this.rowData);
+
+    }
+
+    /**
+    *** Creates and returns an iterator for the row data displayed in the total rows of this report.
+    *** @return The total row data iterator
+    **/
+    public DBDataIterator getTotalsDataIterator()
+    {
+        return null;
+    }
+
+    // ------------------------------------------------------------------------
+
+}
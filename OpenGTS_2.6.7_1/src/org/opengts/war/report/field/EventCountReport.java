@@ -21,6 +21,9 @@
 //     -Initial release
 //  2012/04/16  Martin D. Flynn
 //     -Added "SummarizeByDay" option
+//  2026/10/19  GTS Development Team
+//     -Whole-day counts are read from the DeviceDailySummary table, when enabled
+//      (see "DeviceDailySummary.useForReports")
 // ----------------------------------------------------------------------------
 package org.opengts.war.report.field;
 
@@ -58,6 +61,7 @@ public class EventCountReport
     private java.util.List<FieldData>   rowData         = null;
     
     private boolean                     summarizeByDay  = false;
+    private boolean                     useDailySummary = false;
 
     // ------------------------------------------------------------------------
 
@@ -109,6 +113,113 @@ public class EventCountReport
         //ReportConstraints rc = this.getReportConstraints();
         //Print.logInfo("LimitType=" + rc.getSelectionLimitType() + ", Limit=" + rc.getSelectionLimit());
         this.summarizeByDay = rtp.getBoolean(PROP_summarizeByDay, false);
+        this.useDailySummary = this._canUseDailySummary();
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Returns true if whole-day event counts can be obtained from the DeviceDailySummary table
+    **/
+    private boolean _canUseDailySummary()
+    {
+
+        /* enabled? */
+        if (!DeviceDailySummary.UseForReports()) {
+            return false;
+        }
+
+        /* summaries count all events (no additional event constraints) */
+        if (!ListTools.isEmpty(this.getStatusCodes()) || this.getValidGPSRequired()) {
+            return false;
+        } else
+        if (!StringTools.isBlank(this.getRuleSelector())) {
+            return false;
+        }
+        String where = StringTools.stripChars(StringTools.trim(this.getWhereSelector()),' ');
+        if (!where.equals("") && !where.equals("(1=1)")) {
+            return false;
+        }
+
+        /* summary days are based on the Account TimeZone */
+        TimeZone acctTZ = Account.getTimeZone(this.getAccount(), DateTime.getGMTTimeZone());
+        if (!acctTZ.getID().equals(this.getTimeZone().getID())) {
+            return false;
+        }
+
+        /* table exists? */
+        try {
+            return DeviceDailySummary.getFactory().tableExists();
+        } catch (DBException dbe) {
+            Print.logError("Unable to check DeviceDailySummary table: " + dbe);
+            return false;
+        }
+
+    }
+
+    /**
+    *** Returns a map of DayNumber to event count, for each whole past day within the 
+    *** specified range which has a DeviceDailySummary row
+    **/
+    private Map<Long,Long> _getDailySummaryCounts(Device device, long startTime, long endTime, TimeZone tz)
+        throws DBException
+    {
+
+        /* whole days within range (the current day may not yet be fully summarized) */
+        DateTime startDT  = new DateTime(startTime,tz);
+        DateTime endDT    = new DateTime(endTime  ,tz);
+        long     firstDay = startDT.getDayNumber(tz);
+        long     lastDay  = endDT.getDayNumber(tz);
+        if (startTime > startDT.getDayStart(tz)) { firstDay++; }
+        if (endTime   < endDT.getDayEnd(tz)    ) { lastDay--;  }
+        long     today    = (new DateTime(tz)).getDayNumber(tz);
+        if (lastDay >= today) { lastDay = today - 1L; }
+
+        /* daily counts (days without a summary row are counted from EventData) */
+        Map<Long,Long> dayCounts = new HashMap<Long,Long>();
+        if (firstDay <= lastDay) {
+            DeviceDailySummary dds[] = DeviceDailySummary.getDailySummaries(
+                device.getAccountID(), device.getDeviceID(), firstDay, lastDay);
+            for (DeviceDailySummary d : dds) {
+                dayCounts.put(new Long(d.getDayNumber()), new Long(d.getEventCount()));
+            }
+        }
+        return dayCounts;
+
+    }
+
+    /**
+    *** Returns the number of events within the specified range.  Days found in the
+    *** specified daily count map are read from the map, the remaining partial days
+    *** are counted from the EventData table.
+    **/
+    private long _countEvents(Device device, long startTime, long endTime, TimeZone tz, Map<Long,Long> dayCounts)
+    {
+        if (dayCounts == null) {
+            return this.countEventData(device, startTime, endTime);
+        }
+        long count     = 0L;
+        long pendStart = -1L; // start of range to count from EventData
+        for (long ts = startTime; ts <= endTime;) {
+            DateTime dayDT  = new DateTime(ts,tz);
+            long     dayEnd = dayDT.getDayEnd(tz); // 23:59:59
+            Long     dayCnt = dayCounts.get(new Long(dayDT.getDayNumber(tz)));
+            if (dayCnt != null) {
+                if (pendStart >= 0L) {
+                    count += this.countEventData(device, pendStart, ts - 1L);
+                    pendStart = -1L;
+                }
+                count += dayCnt.longValue();
+            } else
+            if (pendStart < 0L) {
+                pendStart = ts;
+            }
+            ts = dayEnd + 1L; // beginning of next day
+        }
+        if (pendStart >= 0L) {
+            count += this.countEventData(device, pendStart, endTime);
+        }
+        return count;
     }
 
     // ------------------------------------------------------------------------
@@ -164,6 +275,8 @@ public class EventCountReport
                 long startTime = this.getTimeStart();
                 long   endTime = this.getTimeEnd();
                 TimeZone    tz = this.getTimeZone();
+                Map<Long,Long> dayCounts = this.useDailySummary?
+                    this._getDailySummaryCounts(device, startTime, endTime, tz) : null;
 
                 /* summarize type? */
                 if (this.summarizeByDay) {
@@ -176,7 +289,7 @@ public class EventCountReport
                         long dayEnd = dayDT.getDayEnd(tz); // 23:59:59
                         if (dayEnd > endTime) { dayEnd = endTime; } // will exit on next iteration
                         // get counts
-                        long rcdCount = this.countEventData(device, dayStart, dayEnd);
+                        long rcdCount = this._countEvents(device, dayStart, dayEnd, tz, dayCounts);
                         // create report record
                         FieldData fd = new FieldData();
                         fd.setDevice(device);
@@ -191,7 +304,7 @@ public class EventCountReport
                 } else {
 
                     /* count total events for date-range */
-                    long rcdCount = this.countEventData(device, startTime, endTime);
+                    long rcdCount = this._countEvents(device, startTime, endTime, tz, dayCounts);
                     FieldData fd = new FieldData();
                     fd.setDevice(device);
                     fd.setString(FieldLayout.DATA_DEVICE_ID, devID);
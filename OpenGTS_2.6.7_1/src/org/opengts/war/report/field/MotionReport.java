@@ -63,6 +63,13 @@
 //     -Added "fd.setDevice(..)" to detail rows to allow for displaying device description. [2.6.1-B27]
 //  2016/06/10  Martin D. Flynn
 //     -Added initial support for "FieldLayout.DATA_SPEED_MAXIMUM" [2.6.2-B74]
+//  2026/10/19  GTS Development Team
+//     -Trips are now segmented by "MotionSegmentEngine" from column-only EventData
+//      selections, with devices segmented concurrently (see "deviceFetchConcurrency").
+//      The "handleDBRecord" path is still used when a rule/where selector is specified,
+//      or when "columnarSegmentation" is false.
+//     -Columnar trip start/stop Geozone IDs are resolved in a single batch call
+//      (see "Geozone.getGeozoneIDsForPoints").
 // ----------------------------------------------------------------------------
 package org.opengts.war.report.field;
 
@@ -102,6 +109,7 @@ public class MotionReport
 
     private static final String PROP_legacyIdleDefinition   = "legacyIdleDefinition";
     private static final String PROP_alwaysReadAllEvents    = "alwaysReadAllEvents";
+    private static final String PROP_columnarSegmentation   = "columnarSegmentation";
     private static final String PROP_isFleetSummaryReport   = "isFleetSummaryReport";
     private static final String PROP_fleetSortByField       = "fleetSortByField";
     private static final String PROP_showMapLink            = "showMapLink";
@@ -121,10 +129,10 @@ public class MotionReport
     private static final String MOTION_ENGINE[]             = new String[] { "engine"   };
     private static final String MOTION_STARTSTOP[]          = new String[] { "start"    , "startstop" };
 
-    private static final int    TRIP_ON_SPEED               = 0; // idle time if ignition present
-    private static final int    TRIP_ON_IGNITION            = 1; // no idle time
-    private static final int    TRIP_ON_ENGINE              = 2; // no idle time
-    private static final int    TRIP_ON_START               = 3; // idle time if ignition present
+    private static final int    TRIP_ON_SPEED               = MotionSegmentEngine.TRIP_ON_SPEED;    // idle time if ignition present
+    private static final int    TRIP_ON_IGNITION            = MotionSegmentEngine.TRIP_ON_IGNITION; // no idle time
+    private static final int    TRIP_ON_ENGINE              = MotionSegmentEngine.TRIP_ON_ENGINE;   // no idle time
+    private static final int    TRIP_ON_START               = MotionSegmentEngine.TRIP_ON_START;    // idle time if ignition present
     
     private static String TripTypeName(int type)
     {
@@ -253,6 +261,7 @@ public class MotionReport
     private int                         fleetSortLimit          = -1;       // property
     private boolean                     fleetSortTrim           = false;    // property
     private boolean                     alwaysReadAllEvents     = false;    // property
+    private boolean                     columnarSegmentation    = true;     // property
     private boolean                     legacyIdleDefinition    = false;    // property
 
     private boolean                     showMapLink             = true;     // property
@@ -369,6 +378,7 @@ public class MotionReport
         RTProperties rtp = this.getProperties();
         this.legacyIdleDefinition = rtp.getBoolean(PROP_legacyIdleDefinition, LEGACY_IDLE_DEF);
         this.alwaysReadAllEvents  = rtp.getBoolean(PROP_alwaysReadAllEvents , false);
+        this.columnarSegmentation = rtp.getBoolean(PROP_columnarSegmentation, true);
         this.isFleetReport        = rtp.getBoolean(PROP_isFleetSummaryReport, false);
         this.showMapLink          = rtp.getBoolean(PROP_showMapLink         , SHOW_MAP_LINK);
         this.minSpeedKPH          = rtp.getDouble( PROP_minimumSpeedKPH     , MIN_SPEED_KPH);
@@ -440,108 +450,106 @@ public class MotionReport
         ReportConstraints rc = this.getReportConstraints();
 
         /* adjust report constraints */
+        rc.setStatusCodes(this._getSelectStatusCodes());
+        rc.setValidGPSRequired(this._getSelectValidGPS());
+
+        /* report selection limits */
+        long rptLimit = rc.getReportLimit();
+        if (rptLimit > 0L) {
+            rc.setSelectionLimit(Math.max(rc.getSelectionLimit(), (rptLimit * 4L)));
+        }
+
+        /* get data */
+        return super.getEventData_Device(device, rcdHandler);
+
+    }
+
+    /**
+    *** Gets the status codes to select for the current Device trip start type 
+    *** (null to select all status codes)
+    **/
+    private int[] _getSelectStatusCodes()
+    {
         if (this.alwaysReadAllEvents) {
             // -- debug purposes, should be "false" for production
             // -  return all status codes
-            rc.setStatusCodes(null);
-            rc.setValidGPSRequired(false);
+            return null;
+        } else
+        if (!this.legacyIdleDefinition) {
+            // -- read all events
+            if ((this.tripStartType == TRIP_ON_IGNITION) && (this.ignitionCodes == null)) {
+                Print.logInfo("(No Ignition Codes) Reading all events ...");
+            }
+            return null;
         } else
         if (this.tripStartType == TRIP_ON_START) {
             // -- return only start/stop events
             if (this.ignitionCodes != null) {
-                if (this.legacyIdleDefinition) {
-                    rc.setStatusCodes(new int[] {
-                        StatusCodes.STATUS_MOTION_START,
-                        StatusCodes.STATUS_MOTION_STOP,
-                        this.ignitionCodes[0],              // ignition OFF
-                        this.ignitionCodes[1]               // ignition ON
-                    });
-                    rc.setValidGPSRequired(false); // don't need just valid gps events
-                } else {
-                    // -- read all events
-                    rc.setStatusCodes(null);
-                    rc.setValidGPSRequired(false); // don't need just valid gps events
-                }
+                return new int[] {
+                    StatusCodes.STATUS_MOTION_START,
+                    StatusCodes.STATUS_MOTION_STOP,
+                    this.ignitionCodes[0],              // ignition OFF
+                    this.ignitionCodes[1]               // ignition ON
+                };
             } else {
-                if (this.legacyIdleDefinition) {
-                    rc.setStatusCodes(new int[] {
-                        StatusCodes.STATUS_MOTION_START,
-                        StatusCodes.STATUS_MOTION_STOP
-                    });
-                    rc.setValidGPSRequired(false); // don't need just valid gps events
-                } else {
-                    rc.setStatusCodes(null);
-                    rc.setValidGPSRequired(false); // don't need just valid gps events
-                }
+                return new int[] {
+                    StatusCodes.STATUS_MOTION_START,
+                    StatusCodes.STATUS_MOTION_STOP
+                };
             }
         } else
         if (this.tripStartType == TRIP_ON_IGNITION) {
-            // -- return only IgnitionOn/IgnitionOff events (this.ignitionCodes is non-null)
+            // -- return only IgnitionOn/IgnitionOff events
             if (this.ignitionCodes != null) {
-                if (this.legacyIdleDefinition) {
-                    // -- read only ignition on/off events
-                    rc.setStatusCodes(new int[] {
-                        this.ignitionCodes[0],                  // ignition OFF
-                        this.ignitionCodes[1]                   // ignition ON
-                    });
-                    rc.setValidGPSRequired(false); // don't need just valid gps events
-                } else {
-                    // -- read all events
-                    rc.setStatusCodes(null);
-                    rc.setValidGPSRequired(false); // don't need just valid gps events
-                }
+                return new int[] {
+                    this.ignitionCodes[0],              // ignition OFF
+                    this.ignitionCodes[1]               // ignition ON
+                };
             } else {
                 // -- no ignition codes, read all events
                 Print.logInfo("(No Ignition Codes) Reading all events ...");
-                rc.setStatusCodes(null);
-                rc.setValidGPSRequired(false); // don't need just valid gps events
+                return null;
             }
         } else
         if (this.tripStartType == TRIP_ON_ENGINE) {
             // -- return only EngineStart/EngineStop events
             if (this.ignitionCodes != null) {
-                if (this.legacyIdleDefinition) {
-                    rc.setStatusCodes(new int[] {
-                        StatusCodes.STATUS_ENGINE_STOP,
-                        StatusCodes.STATUS_ENGINE_START,
-                        this.ignitionCodes[0],              // ignition OFF
-                        this.ignitionCodes[1]               // ignition ON
-                    });
-                    rc.setValidGPSRequired(false); // don't need just valid gps events
-                } else {
-                    // -- read all events
-                    rc.setStatusCodes(null);
-                    rc.setValidGPSRequired(false); // don't need just valid gps events
-                }
+                return new int[] {
+                    StatusCodes.STATUS_ENGINE_STOP,
+                    StatusCodes.STATUS_ENGINE_START,
+                    this.ignitionCodes[0],              // ignition OFF
+                    this.ignitionCodes[1]               // ignition ON
+                };
             } else {
-                if (this.legacyIdleDefinition) {
-                    rc.setStatusCodes(new int[] {
-                        StatusCodes.STATUS_ENGINE_STOP,
-                        StatusCodes.STATUS_ENGINE_START
-                    });
-                    rc.setValidGPSRequired(false); // don't need just valid gps events
-                } else {
-                    // -- read all events
-                    rc.setStatusCodes(null);
-                    rc.setValidGPSRequired(false); // don't need just valid gps events
-                }
+                return new int[] {
+                    StatusCodes.STATUS_ENGINE_STOP,
+                    StatusCodes.STATUS_ENGINE_START
+                };
             }
         } else {
             // -- default: TRIP_ON_SPEED
             // -  return all status codes
-            rc.setStatusCodes(null);
-            rc.setValidGPSRequired((this.ignitionCodes == null)? true : false); // GPS only if no ignition codes
+            return null;
         }
+    }
 
-        /* report selection limits */
-        long rptLimit = rc.getReportLimit();
-        if (rptLimit > 0L) {
-            rc.setSelectionLimit(Math.max(rc.getSelectionLimit(), (rptLimit * 4L)));
+    /**
+    *** Returns true if only valid GPS events should be selected for the current Device 
+    *** trip start type
+    **/
+    private boolean _getSelectValidGPS()
+    {
+        if (this.alwaysReadAllEvents) {
+            return false;
+        } else
+        if ((this.tripStartType == TRIP_ON_START   ) || 
+            (this.tripStartType == TRIP_ON_IGNITION) || 
+            (this.tripStartType == TRIP_ON_ENGINE  )   ) {
+            return false; // don't need just valid gps events
+        } else {
+            // -- default: TRIP_ON_SPEED
+            return (this.ignitionCodes == null)? true : false; // GPS only if no ignition codes
         }
-
-        /* get data */
-        return super.getEventData_Device(device, rcdHandler);
-
     }
 
     // ------------------------------------------------------------------------
@@ -620,10 +628,18 @@ public class MotionReport
         String  accountID = account.getAccountID();
         ReportDeviceList devList = this.getReportDeviceList();
 
+        /* columnar trip segmentation */
+        java.util.List<java.util.List<MotionSegmentEngine.Segment>> deviceSegs = null;
+        if (this._useColumnarSegmentation()) {
+            deviceSegs = this._getColumnarSegments(accountID, devList);
+        }
+
         /* loop through devices */
+        int devNdx = -1;
         deviceListIterator:
         for (Iterator<String> i = devList.iterator(); i.hasNext();) {
             String devID = i.next();
+            devNdx++;
             //Print.logInfo("Processing events for device: " + devID);
 
             // -- new device detail data iterator
@@ -692,134 +708,75 @@ public class MotionReport
                 }
                 //Print.logDebug("Analyzing Device: " + devID);
 
-                // -- Device ignition statusCodes
-                this.ignitionCodes = device.getIgnitionStatusCodes();
-                boolean hasIgnition = (this.ignitionCodes != null);
-
-                // -- trip start/stop type
-                RTProperties rtp = this.getProperties();
-                String tt = rtp.getString(PROP_tripStartType,MOTION_SPEED[0]).toLowerCase();
-                //Print.logInfo("Trip type: " + tt);
-                if (ListTools.contains(MOTION_DEFAULT,tt)) {
-                    // -- "default" (TRIP_ON_ENGINE not selected when using "default")
-                    String devCode = device.getDeviceCode();
-                    DCServerConfig dcs = DCServerFactory.getServerConfig(devCode);
-                    if ((dcs == null) && StringTools.isBlank(devCode) && Account.IsDemoAccount(accountID)) {
-                        // -- special case for "demo" account when 'deviceCode' is blank
-                        dcs = DCServerFactory.getServerConfig(DCServerFactory.OPENDMTP_NAME);
-                        if (dcs == null) {
-                            Print.logWarn("Account 'demo' DCServerConfig not found: " + DCServerFactory.OPENDMTP_NAME);
-                        }
-                    }
-                    if (dcs != null) {
-                        // -- DCServerConfig found
-                        if (dcs.getStartStopSupported(false)) {
-                            // -- Device supports start/stop
-                            this.tripStartType = TRIP_ON_START;
-                        } else
-                        if (hasIgnition) {
-                            // -- Device supports ignition state
-                            this.tripStartType = TRIP_ON_IGNITION;
-                        } else {
-                            // -- Default to speed
-                            this.tripStartType = TRIP_ON_SPEED;
-                        }
-                    } else {
-                        // -- DCServerConfig not found ('deviceCode' is either blank or invalid)
-                        if (hasIgnition) {
-                            // -- Device supports ignition state
-                            this.tripStartType = TRIP_ON_IGNITION;
-                        } else {
-                            // -- Default
-                            this.tripStartType = TRIP_ON_SPEED;
+                if (deviceSegs != null) {
+                    // -- columnar segmentation: add the trip segments created above
+                    java.util.List<MotionSegmentEngine.Segment> segs = deviceSegs.get(devNdx);
+                    if (segs != null) {
+                        for (MotionSegmentEngine.Segment seg : segs) {
+                            FieldData fd = this._addRecord( // getBodyDataIterator
+                                this.deviceDetailData,
+                                accountID, devID, device,
+                                seg.startTime , seg.startPoint, seg.startAddress, seg.startOdometer, seg.startOdomOfs, seg.startFuel,
+                                seg.stopTime  , seg.stopPoint , seg.stopAddress , seg.stopOdometer , seg.stopOdomOfs , seg.stopFuel ,
+                                seg.driveTime , seg.driveDist , seg.fuelTrip    , seg.driveEcon    , seg.driveEconType,
+                                seg.stopElapse, seg.idleElapse, seg.fuelIdle    , seg.maxSpeedK);
+                            fd.setString(FieldLayout.DATA_START_GEOZONE_ID, seg.startGeozoneID);
+                            fd.setString(FieldLayout.DATA_STOP_GEOZONE_ID , seg.stopGeozoneID);
                         }
                     }
-                    this.tripTypeDefault = true;
-                } else
-                if (ListTools.contains(MOTION_STARTSTOP,tt)) {
-                    // -- "startstop"
-                    this.tripStartType = TRIP_ON_START;
-                    this.tripTypeDefault = false;
-                } else
-                if (ListTools.contains(MOTION_IGNITION,tt)/* && hasIgnition */) {
-                    // -- "ignition"
-                    this.tripStartType   = TRIP_ON_IGNITION;
-                    this.tripTypeDefault = false;
-                    if (!hasIgnition) {
-                        this.ignitionCodes = new int[] { StatusCodes.STATUS_IGNITION_OFF, StatusCodes.STATUS_IGNITION_ON };
-                        hasIgnition = true;
-                    }
-                } else
-                if (ListTools.contains(MOTION_ENGINE,tt)) {
-                    // -- "ignition"
-                    this.tripStartType   = TRIP_ON_ENGINE;
-                    this.tripTypeDefault = false;
                 } else {
-                    // -- "speed", "motion"
-                    this.tripStartType   = TRIP_ON_SPEED;
-                    this.tripTypeDefault = true;
-                }
-
-                /* debug */
-                if (RTConfig.isDebugMode()) {
-                    Print.logDebug("Trip Start Type: [" + this.tripStartType + "] " + TripTypeName(this.tripStartType));
-                    if (hasIgnition) {
-                        String ignOff = StatusCodes.GetHex(this.ignitionCodes[0]);
-                        String ignOn  = StatusCodes.GetHex(this.ignitionCodes[1]);
-                        Print.logDebug("Device Ignition Codes "+ignOff+":"+ignOn+" [" + accountID + "/" + devID + "]");
+                    // -- trip start/stop type
+                    this._initDeviceTripType(device, accountID);
+
+                    // -- get events
+                    //this.lastValidOdometerKM = 0.0; <-- already reset above
+                    this.deviceEventIndex = 0L; // provide an index to all events read
+                    this.getEventData_Device(device, this); // <== callback to 'handleDBRecord'
+                    //Print.logInfo("Total Accumulated Idle Time: " + this.totalIdleSec + " seconds");
+
+                    // -- handle final record here
+                    if (this.lastStopTime > 0) {
+                        // -- we are stopped
+                        long   driveTime = (this.lastStartTime > 0L)? (this.lastStopTime     - this.lastStartTime    ) : -1L;
+                        double driveDist = (this.lastStartTime > 0L)? (this.lastStopOdometer - this.lastStartOdometer) : -1.0; // kilometers
+                        double fuelTrip  = (this.lastStartTime > 0L)? (this.lastStopFuelUsed - this.lastStartFuelUsed) : -1.0; // liter
+                        double driveEcon = (fuelTrip > 0.0)? (driveDist / fuelTrip) : 0.0; // kilometers per liter
+                        Device.FuelEconomyType driveEconType = Device.FuelEconomyType.FUEL_CONSUMED;
+                        long   stopElaps = -1L;
+                        long   idleElaps = (this.idleAccumulator > 0L)? this.idleAccumulator : -1L;
+                        double fuelIdle  = -1.0;
+                        double maxSpeedK = (this.maxAchievedSpeedK > 0.0)? this.maxAchievedSpeedK : 0.0; // final trip stop
+                        this._addRecord( // getBodyDataIterator
+                            this.deviceDetailData,
+                            accountID, devID, device,
+                            this.lastStartTime  , this.lastStartPoint, this.lastStartAddress, this.lastStartOdometer, this.lastStartOdomOfs, this.lastStartFuelUsed,
+                            this.lastStopTime   , this.lastStopPoint , this.lastStopAddress , this.lastStopOdometer , this.lastStopOdomOfs , this.lastStopFuelUsed ,
+                            driveTime, driveDist, fuelTrip, driveEcon, driveEconType,
+                            stopElaps, idleElaps, fuelIdle, maxSpeedK);
+                    } else
+                    if (this.lastStartTime > 0) {
+                        // -- we haven't stopped during the range of this report
+                        long   driveTime = -1L;
+                        double driveDist = -1.0; // kilometers
+                        double fuelTrip  = -1.0; // liters
+                        double driveEcon = -1.0; // kilometers per liter
+                        Device.FuelEconomyType driveEconType = Device.FuelEconomyType.UNKNOWN;
+                        long   stopElaps = -1L;
+                        long   idleElaps = -1L;
+                        double fuelIdle  = -1.0;
+                        double maxSpeedK = (this.maxAchievedSpeedK > 0.0)? this.maxAchievedSpeedK : 0.0; // final trip stop
+                        this._addRecord( // getBodyDataIterator
+                            this.deviceDetailData,
+                            accountID, devID, device,
+                            this.lastStartTime  , this.lastStartPoint, this.lastStartAddress, this.lastStartOdometer, this.lastStartOdomOfs, this.lastStartFuelUsed,
+                            -1L                 , null               , ""                   , -1.0                  , 0.0                  , -1.0                  ,
+                            driveTime, driveDist, fuelTrip, driveEcon, driveEconType,
+                            stopElaps, idleElaps, fuelIdle, maxSpeedK);
                     } else {
-                        Print.logDebug("No defined Device ignition codes [" + accountID + "/" + devID + "]");
+                        // -- 
                     }
                 }
 
-                // -- get events
-                //this.lastValidOdometerKM = 0.0; <-- already reset above
-                this.deviceEventIndex = 0L; // provide an index to all events read
-                this.getEventData_Device(device, this); // <== callback to 'handleDBRecord'
-                //Print.logInfo("Total Accumulated Idle Time: " + this.totalIdleSec + " seconds");
-
-                // -- handle final record here
-                if (this.lastStopTime > 0) {
-                    // -- we are stopped
-                    long   driveTime = (this.lastStartTime > 0L)? (this.lastStopTime     - this.lastStartTime    ) : -1L;
-                    double driveDist = (this.lastStartTime > 0L)? (this.lastStopOdometer - this.lastStartOdometer) : -1.0; // kilometers
-                    double fuelTrip  = (this.lastStartTime > 0L)? (this.lastStopFuelUsed - this.lastStartFuelUsed) : -1.0; // liter
-                    double driveEcon = (fuelTrip > 0.0)? (driveDist / fuelTrip) : 0.0; // kilometers per liter
-                    Device.FuelEconomyType driveEconType = Device.FuelEconomyType.FUEL_CONSUMED;
-                    long   stopElaps = -1L;
-                    long   idleElaps = (this.idleAccumulator > 0L)? this.idleAccumulator : -1L;
-                    double fuelIdle  = -1.0;
-                    double maxSpeedK = (this.maxAchievedSpeedK > 0.0)? this.maxAchievedSpeedK : 0.0; // final trip stop
-                    this._addRecord( // getBodyDataIterator
-                        this.deviceDetailData,
-                        accountID, devID, device,
-                        this.lastStartTime  , this.lastStartPoint, this.lastStartAddress, this.lastStartOdometer, this.lastStartOdomOfs, this.lastStartFuelUsed,
-                        this.lastStopTime   , this.lastStopPoint , this.lastStopAddress , this.lastStopOdometer , this.lastStopOdomOfs , this.lastStopFuelUsed ,
-                        driveTime, driveDist, fuelTrip, driveEcon, driveEconType,
-                        stopElaps, idleElaps, fuelIdle, maxSpeedK);
-                } else
-                if (this.lastStartTime > 0) {
-                    // -- we haven't stopped during the range of this report
-                    long   driveTime = -1L;
-                    double driveDist = -1.0; // kilometers
-                    double fuelTrip  = -1.0; // liters
-                    double driveEcon = -1.0; // kilometers per liter
-                    Device.FuelEconomyType driveEconType = Device.FuelEconomyType.UNKNOWN;
-                    long   stopElaps = -1L;
-                    long   idleElaps = -1L;
-                    double fuelIdle  = -1.0;
-                    double maxSpeedK = (this.maxAchievedSpeedK > 0.0)? this.maxAchievedSpeedK : 0.0; // final trip stop
-                    this._addRecord( // getBodyDataIterator
-                        this.deviceDetailData,
-                        accountID, devID, device,
-                        this.lastStartTime  , this.lastStartPoint, this.lastStartAddress, this.lastStartOdometer, this.lastStartOdomOfs, this.lastStartFuelUsed,
-                        -1L                 , null               , ""                   , -1.0                  , 0.0                  , -1.0                  ,
-                        driveTime, driveDist, fuelTrip, driveEcon, driveEconType,
-                        stopElaps, idleElaps, fuelIdle, maxSpeedK);
-                } else {
-                    // -- 
-                }
-
                 /* fuel economy */
                 double driveEcon = (this.totalDriveFuel > 0.0)? (this.totalOdomKM / this.totalDriveFuel) : 0.0;
                 Device.FuelEconomyType driveEconType = Device.FuelEconomyType.FUEL_CONSUMED;
@@ -950,6 +907,277 @@ public class MotionReport
         
     }
 
+    /**
+    *** Sets the ignition status codes and trip start type for the specified Device
+    *** @param device     The Device
+    *** @param accountID  The Account ID
+    **/
+    private void _initDeviceTripType(Device device, String accountID)
+    {
+
+        // -- Device ignition statusCodes
+        this.ignitionCodes = device.getIgnitionStatusCodes();
+        boolean hasIgnition = (this.ignitionCodes != null);
+
+        // -- trip start/stop type
+        RTProperties rtp = this.getProperties();
+        String tt = rtp.getString(PROP_tripStartType,MOTION_SPEED[0]).toLowerCase();
+        //Print.logInfo("Trip type: " + tt);
+        if (ListTools.contains(MOTION_DEFAULT,tt)) {
+            // -- "default" (TRIP_ON_ENGINE not selected when using "default")
+            String devCode = device.getDeviceCode();
+            DCServerConfig dcs = DCServerFactory.getServerConfig(devCode);
+            if ((dcs == null) && StringTools.isBlank(devCode) && Account.IsDemoAccount(accountID)) {
+                // -- special case for "demo" account when 'deviceCode' is blank
+                dcs = DCServerFactory.getServerConfig(DCServerFactory.OPENDMTP_NAME);
+                if (dcs == null) {
+                    Print.logWarn("Account 'demo' DCServerConfig not found: " + DCServerFactory.OPENDMTP_NAME);
+                }
+            }
+            if (dcs != null) {
+                // -- DCServerConfig found
+                if (dcs.getStartStopSupported(false)) {
+                    // -- Device supports start/stop
+                    this.tripStartType = TRIP_ON_START;
+                } else
+                if (hasIgnition) {
+                    // -- Device supports ignition state
+                    this.tripStartType = TRIP_ON_IGNITION;
+                } else {
+                    // -- Default to speed
+                    this.tripStartType = TRIP_ON_SPEED;
+                }
+            } else {
+                // -- DCServerConfig not found ('deviceCode' is either blank or invalid)
+                if (hasIgnition) {
+                    // -- Device supports ignition state
+                    this.tripStartType = TRIP_ON_IGNITION;
+                } else {
+                    // -- Default
+                    this.tripStartType = TRIP_ON_SPEED;
+                }
+            }
+            this.tripTypeDefault = true;
+        } else
+        if (ListTools.contains(MOTION_STARTSTOP,tt)) {
+            // -- "startstop"
+            this.tripStartType = TRIP_ON_START;
+            this.tripTypeDefault = false;
+        } else
+        if (ListTools.contains(MOTION_IGNITION,tt)/* && hasIgnition */) {
+            // -- "ignition"
+            this.tripStartType   = TRIP_ON_IGNITION;
+            this.tripTypeDefault = false;
+            if (!hasIgnition) {
+                this.ignitionCodes = new int[] { StatusCodes.STATUS_IGNITION_OFF, StatusCodes.STATUS_IGNITION_ON };
+                hasIgnition = true;
+            }
+        } else
+        if (ListTools.contains(MOTION_ENGINE,tt)) {
+            // -- "ignition"
+            this.tripStartType   = TRIP_ON_ENGINE;
+            this.tripTypeDefault = false;
+        } else {
+            // -- "speed", "motion"
+            this.tripStartType   = TRIP_ON_SPEED;
+            this.tripTypeDefault = true;
+        }
+
+        /* debug */
+        if (RTConfig.isDebugMode()) {
+            Print.logDebug("Trip Start Type: [" + this.tripStartType + "] " + TripTypeName(this.tripStartType));
+            if (hasIgnition) {
+                String ignOff = StatusCodes.GetHex(this.ignitionCodes[0]);
+                String ignOn  = StatusCodes.GetHex(this.ignitionCodes[1]);
+                Print.logDebug("Device Ignition Codes "+ignOff+":"+ignOn+" [" + accountID + "/" + device.getDeviceID() + "]");
+            } else {
+                Print.logDebug("No defined Device ignition codes [" + accountID + "/" + device.getDeviceID() + "]");
+            }
+        }
+
+    }
+
+    /**
+    *** Returns true if trips should be segmented by the MotionSegmentEngine from column-only
+    *** EventData selections.  Rule and "where" selectors require fully hydrated EventData
+    *** records, and are still handled by "handleDBRecord".
+    **/
+    private boolean _useColumnarSegmentation()
+    {
+        if (!this.columnarSegmentation) {
+            return false;
+        } else
+        if (!StringTools.isBlank(this.getRuleSelector())) {
+            return false;
+        } else
+        if (!StringTools.isBlank(this.getWhereSelector())) {
+            return false;
+        } else {
+            return true;
+        }
+    }
+
+    /**
+    *** Segments the trips for all devices in the specified ReportDeviceList.  The trip start
+    *** type is resolved for each device on this thread, then the EventData columns are read and
+    *** segmented concurrently (see "deviceFetchConcurrency").
+    *** @param accountID  The Account ID
+    *** @param devList    The ReportDeviceList
+    *** @return The trip segments for each device, in ReportDeviceList order (an entry is
+    ***         null if the device was not found, or its EventData could not be read)
+    **/
+    private java.util.List<java.util.List<MotionSegmentEngine.Segment>> _getColumnarSegments(
+        final String accountID, ReportDeviceList devList)
+    {
+        java.util.List<String> devIDList = new Vector<String>();
+        for (Iterator<String> i = devList.iterator(); i.hasNext();) {
+            devIDList.add(i.next());
+        }
+        final int devCount = devIDList.size();
+
+        /* selection constraints */
+        ReportConstraints rc = this.getReportConstraints();
+        final long timeStart = this.getTimeStart();
+        final long timeEnd   = this.getTimeEnd();
+        final EventData.LimitType limitType = rc.getSelectionLimitType();
+        final long rptLimit  = rc.getReportLimit();
+        final long selLimit  = (rptLimit > 0L)? Math.max(rc.getSelectionLimit(), (rptLimit * 4L)) : rc.getSelectionLimit();
+        final boolean inclAddress = this.hasReportColumn(FieldLayout.DATA_ADDRESS) || 
+            this.hasReportColumn(FieldLayout.DATA_STOP_ADDRESS) || this.showMapLink;
+        final ReportProgress progress = this.getReportProgress();
+
+        /* trip start type per device (updates report state, run on this thread) */
+        final Device devices[] = new Device[devCount];
+        final MotionSegmentEngine engines[] = new MotionSegmentEngine[devCount];
+        final int statCodes[][] = new int[devCount][];
+        final boolean validGPS[] = new boolean[devCount];
+        for (int d = 0; d < devCount; d++) {
+            String devID = devIDList.get(d);
+            try {
+                devices[d] = devList.getDevice(devID);
+            } catch (DBException dbe) {
+                Print.logError("Error retrieving Device: " + devID);
+            }
+            if (devices[d] == null) {
+                continue;
+            }
+            this._initDeviceTripType(devices[d], accountID);
+            statCodes[d] = this._getSelectStatusCodes();
+            validGPS[d]  = this._getSelectValidGPS();
+            engines[d]   = new MotionSegmentEngine(
+                this.tripStartType, this.ignitionCodes,
+                this.legacyIdleDefinition, this.minSpeedKPH, this.minStoppedTimeSec,
+                this.stopOnIgnitionOff, rptLimit);
+        }
+
+        /* read/segment EventData columns per device */
+        final Vector<java.util.List<MotionSegmentEngine.Segment>> deviceSegs = 
+            new Vector<java.util.List<MotionSegmentEngine.Segment>>();
+        deviceSegs.setSize(devCount);
+        this.runDeviceTasks(devCount, new DeviceTask() {
+            public void runDeviceTask(int d) {
+                if ((engines[d] == null) || ((progress != null) && progress.isCancelled())) {
+                    return;
+                }
+                try {
+                    MotionSegmentEngine.EventColumns cols = MotionSegmentEngine.LoadEventColumns(
+                        accountID, devices[d],
+                        timeStart, timeEnd,
+                        statCodes[d], validGPS[d],
+                        limitType, selLimit,
+                        inclAddress, progress);
+                    deviceSegs.set(d, engines[d].segment(cols));
+                } catch (DBException dbe) {
+                    Print.logException("Unable to obtain EventData columns: " + devices[d].getDeviceID(), dbe);
+                } finally {
+                    if (progress != null) {
+                        progress.deviceDone();
+                    }
+                }
+            }
+        });
+
+        /* trip start/stop Geozones (all devices, single batch) */
+        if (this.hasReportColumn(FieldLayout.DATA_START_GEOZONE_ID) || 
+            this.hasReportColumn(FieldLayout.DATA_STOP_GEOZONE_ID)) {
+            this._setSegmentGeozoneIDs(accountID, deviceSegs);
+        }
+        return deviceSegs;
+
+    }
+
+    /**
+    *** Sets the trip start/stop Geozone IDs for all of the specified trip segments.  The start
+    *** and stop points of all devices are evaluated with a single call to
+    *** "Geozone.getGeozoneIDsForPoints", rather than one "Geozone.getGeozone" lookup per point.
+    *** @param accountID   The Account ID
+    *** @param deviceSegs  The trip segments for each device (null entries are ignored)
+    **/
+    private void _setSegmentGeozoneIDs(
+        String accountID, java.util.List<java.util.List<MotionSegmentEngine.Segment>> deviceSegs)
+    {
+
+        /* count points */
+        int ptCnt = 0;
+        for (java.util.List<MotionSegmentEngine.Segment> segs : deviceSegs) {
+            if (segs != null) {
+                ptCnt += segs.size() * 2;
+            }
+        }
+        if (ptCnt <= 0) {
+            return;
+        }
+
+        /* start/stop points (invalid points are evaluated as 0/0) */
+        double lat[] = new double[ptCnt];
+        double lon[] = new double[ptCnt];
+        int p = 0;
+        for (java.util.List<MotionSegmentEngine.Segment> segs : deviceSegs) {
+            if (segs == null) { continue; }
+            for (MotionSegmentEngine.Segment seg : segs) {
+                if (GeoPoint.isValid(seg.startPoint)) {
+                    lat[p] = seg.startPoint.getLatitude();
+                    lon[p] = seg.startPoint.getLongitude();
+                }
+                p++;
+                if (GeoPoint.isValid(seg.stopPoint)) {
+                    lat[p] = seg.stopPoint.getLatitude();
+                    lon[p] = seg.stopPoint.getLongitude();
+                }
+                p++;
+            }
+        }
+
+        /* evaluate */
+        String gzIDs[];
+        try {
+            gzIDs = Geozone.getGeozoneIDsForPoints(accountID, lat, lon);
+        } catch (DBException dbe) {
+            Print.logException("Unable to obtain trip Geozones: " + accountID, dbe);
+            return;
+        }
+        if (gzIDs == null) {
+            return;
+        }
+
+        /* set Geozone IDs */
+        p = 0;
+        for (java.util.List<MotionSegmentEngine.Segment> segs : deviceSegs) {
+            if (segs == null) { continue; }
+            for (MotionSegmentEngine.Segment seg : segs) {
+                if (GeoPoint.isValid(seg.startPoint)) {
+                    seg.startGeozoneID = StringTools.trim(gzIDs[p]);
+                }
+                p++;
+                if (GeoPoint.isValid(seg.stopPoint)) {
+                    seg.stopGeozoneID  = StringTools.trim(gzIDs[p]);
+                }
+                p++;
+            }
+        }
+
+    }
+
     /**
     *** Creates and returns an iterator for the row data displayed in the total rows of this report.
     *** @return The total row data iterator
@@ -994,8 +1222,9 @@ public class MotionReport
     *** @param idleElapse    The elapsed idle time (ignition-on, not moving)
     *** @param fuelIdle      The fuel used while idling (<='0.0' if unavailable)
     *** @param maxSpeedK     The maximum speed achieved (<='0.0' if unavailable)
+    *** @return The added detail record
     **/
-    private void _addRecord(
+    private FieldData _addRecord(
         Vector<FieldData> _deviceDetailData,
         String acctID    , String devID    , Device device      ,
         long   startTime , GeoPoint startGP, String startAddress, double startOdom, double startOdomOfs, double startFuel,
@@ -1127,6 +1356,9 @@ public class MotionReport
         if (whStop           ) { this.tworkStopCount  += 1           ; }
         if (whFuelIdle  > 0.0) { this.tworkIdleFuel   += whFuelIdle  ; }
 
+        /* return detail record */
+        return fd;
+
     }
 
     /**
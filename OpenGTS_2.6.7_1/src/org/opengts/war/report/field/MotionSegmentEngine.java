@@ -0,0 +1,857 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2020, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Trip/stop/idle segmentation over column-only EventData selections
+// ----------------------------------------------------------------------------
+// Change History:
+//  2026/10/19  GTS Development Team
+//     -Initial release (segmentation rules ported from "MotionReport.handleDBRecord")
+// ----------------------------------------------------------------------------
+package org.opengts.war.report.field;
+
+import java.util.*;
+import java.sql.*;
+
+import org.opengts.util.*;
+import org.opengts.dbtools.*;
+import org.opengts.db.*;
+import org.opengts.db.tables.*;
+
+import org.opengts.war.report.*;
+
+/**
+*** MotionSegmentEngine class<br>
+*** Segments the EventData records of a single Device into trip start/stop records.  The
+*** EventData records are read as primitive column arrays (see "LoadEventColumns"), selecting
+*** only the columns required for segmentation, rather than as fully hydrated EventData
+*** instances.  The segmentation rules are the same as those of "MotionReport.handleDBRecord".
+*** An instance holds the segmentation state for one Device, and may be run on any thread.
+**/
+public class MotionSegmentEngine
+{
+
+    // ------------------------------------------------------------------------
+    // Trip start types
+
+    public  static final int    TRIP_ON_SPEED               = 0; // idle time if ignition present
+    public  static final int    TRIP_ON_IGNITION            = 1; // no idle time
+    public  static final int    TRIP_ON_ENGINE              = 2; // no idle time
+    public  static final int    TRIP_ON_START               = 3; // idle time if ignition present
+
+    // ------------------------------------------------------------------------
+
+    // -- see "MotionReport.SPEED_RESET_STOP_TIME"
+    private static final boolean SPEED_RESET_STOP_TIME      = false;
+
+    private static final int     STATE_UNKNOWN              = 0;
+    private static final int     STATE_START                = 1;
+    private static final int     STATE_STOP                 = 2;
+
+    private static final int     INITIAL_CAPACITY           = 256;
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** EventColumns class<br>
+    *** The selected EventData records of a single Device, in ascending timestamp order,
+    *** held as one primitive array per column.  Optional columns which are not present 
+    *** in the EventData table (or were not requested) are null, and read as '0'/blank.
+    **/
+    public static class EventColumns
+    {
+        private int      size           = 0;
+        private long     timestamp[]    = null;
+        private int      statusCode[]   = null;
+        private double   speedKPH[]     = null;
+        private double   latitude[]     = null;
+        private double   longitude[]    = null;
+        private double   odometerKM[]   = null;
+        private double   odomOfsKM[]    = null; // offset already resolved per OdometerOffsetType
+        private double   distanceKM[]   = null;
+        private double   fuelTotal[]    = null;
+        private String   address[]      = null;
+        public EventColumns(boolean hasDistance, boolean hasFuel, boolean hasAddress) {
+            int cap = INITIAL_CAPACITY;
+            this.timestamp  = new long[cap];
+            this.statusCode = new int[cap];
+            this.speedKPH   = new double[cap];
+            this.latitude   = new double[cap];
+            this.longitude  = new double[cap];
+            this.odometerKM = new double[cap];
+            this.odomOfsKM  = new double[cap];
+            this.distanceKM = hasDistance? new double[cap] : null;
+            this.fuelTotal  = hasFuel?     new double[cap] : null;
+            this.address    = hasAddress?  new String[cap] : null;
+        }
+        public int size() {
+            return this.size;
+        }
+        public long getTimestamp(int ndx) {
+            return this.timestamp[ndx];
+        }
+        public int getStatusCode(int ndx) {
+            return this.statusCode[ndx];
+        }
+        public double getSpeedKPH(int ndx) {
+            return this.speedKPH[ndx];
+        }
+        public boolean isValidGeoPoint(int ndx) {
+            return GeoPoint.isValid(this.latitude[ndx], this.longitude[ndx]);
+        }
+        public GeoPoint getGeoPoint(int ndx) {
+            if (this.isValidGeoPoint(ndx)) {
+                return new GeoPoint(this.latitude[ndx], this.longitude[ndx]);
+            } else {
+                return GeoPoint.INVALID_GEOPOINT;
+            }
+        }
+        public double getOdometerKM(int ndx) {
+            return this.odometerKM[ndx];
+        }
+        public double getOdometerOffsetKM(int ndx) {
+            return this.odomOfsKM[ndx];
+        }
+        public double getDistanceKM(int ndx) {
+            return (this.distanceKM != null)? this.distanceKM[ndx] : 0.0;
+        }
+        public double getFuelTotal(int ndx) {
+            return (this.fuelTotal != null)? this.fuelTotal[ndx] : 0.0;
+        }
+        public String getAddress(int ndx) {
+            return (this.address != null)? StringTools.trim(this.address[ndx]) : "";
+        }
+        private int _add() {
+            if (this.size >= this.timestamp.length) {
+                int cap = this.timestamp.length * 2;
+                this.timestamp  = Arrays.copyOf(this.timestamp , cap);
+                this.statusCode = Arrays.copyOf(this.statusCode, cap);
+                this.speedKPH   = Arrays.copyOf(this.speedKPH  , cap);
+                this.latitude   = Arrays.copyOf(this.latitude  , cap);
+                this.longitude  = Arrays.copyOf(this.longitude , cap);
+                this.odometerKM = Arrays.copyOf(this.odometerKM, cap);
+                this.odomOfsKM  = Arrays.copyOf(this.odomOfsKM , cap);
+                if (this.distanceKM != null) { this.distanceKM = Arrays.copyOf(this.distanceKM, cap); }
+                if (this.fuelTotal  != null) { this.fuelTotal  = Arrays.copyOf(this.fuelTotal , cap); }
+                if (this.address    != null) { this.address    = Arrays.copyOf(this.address   , cap); }
+            }
+            return this.size++;
+        }
+        private void _reverse() {
+            for (int i = 0, j = this.size - 1; i < j; i++, j--) {
+                long   t = this.timestamp[i];  this.timestamp[i]  = this.timestamp[j];  this.timestamp[j]  = t;
+                int    c = this.statusCode[i]; this.statusCode[i] = this.statusCode[j]; this.statusCode[j] = c;
+                double d;
+                d = this.speedKPH[i];   this.speedKPH[i]   = this.speedKPH[j];   this.speedKPH[j]   = d;
+                d = this.latitude[i];   this.latitude[i]   = this.latitude[j];   this.latitude[j]   = d;
+                d = this.longitude[i];  this.longitude[i]  = this.longitude[j];  this.longitude[j]  = d;
+                d = this.odometerKM[i]; this.odometerKM[i] = this.odometerKM[j]; this.odometerKM[j] = d;
+                d = this.odomOfsKM[i];  this.odomOfsKM[i]  = this.odomOfsKM[j];  this.odomOfsKM[j]  = d;
+                if (this.distanceKM != null) { d = this.distanceKM[i]; this.distanceKM[i] = this.distanceKM[j]; this.distanceKM[j] = d; }
+                if (this.fuelTotal  != null) { d = this.fuelTotal[i];  this.fuelTotal[i]  = this.fuelTotal[j];  this.fuelTotal[j]  = d; }
+                if (this.address    != null) { String a = this.address[i]; this.address[i] = this.address[j]; this.address[j] = a; }
+            }
+        }
+    }
+
+    /**
+    *** Reads the EventData columns required for segmentation for the specified Device.<br>
+    *** The arguments are the same as those of "EventData.getRangeEvents".  The returned
+    *** columns are always in ascending timestamp order.
+    *** @param acctID       The Account ID
+    *** @param device       The Device
+    *** @param inclAddress  True to also read the "address" column
+    *** @param progress     The ReportProgress (may be null)
+    *** @return The EventColumns (does not return null)
+    **/
+    public static EventColumns LoadEventColumns(
+        String acctID, Device device,
+        long timeStart, long timeEnd,
+        int statCode[],
+        boolean validGPS,
+        EventData.LimitType limitType, long limit,
+        boolean inclAddress,
+        ReportProgress progress)
+        throws DBException
+    {
+        DBReadWriteMode rwMode = DBReadWriteMode.READ_ONLY;
+        DBFactory<EventData> dbFact = EventData.getFactory();
+
+        /* available columns */
+        boolean hasOdomOfs  = dbFact.hasField(EventData.FLD_odometerOffsetKM);
+        boolean hasDistance = dbFact.hasField(EventData.FLD_distanceKM);
+        boolean hasFuel     = dbFact.hasField(EventData.FLD_fuelTotal);
+        boolean hasAddress  = inclAddress && dbFact.hasField(EventData.FLD_address);
+        EventColumns cols   = new EventColumns(hasDistance, hasFuel, hasAddress);
+        if (device == null) {
+            return cols;
+        }
+
+        /* record selector */
+        DBSelect<EventData> dsel = EventData.createRangeEventSelector(
+            acctID, device.getDeviceID(),
+            timeStart, timeEnd,
+            statCode,
+            validGPS,
+            limitType, limit, true/*ascending*/,
+            null/*addtnlSelect_1*/, null/*addtnlSelect_2*/);
+        if (dsel == null) {
+            return cols;
+        }
+
+        /* selected columns (ResultSet column indices start at '1') */
+        java.util.List<String> fldList = new Vector<String>();
+        fldList.add(EventData.FLD_timestamp);                            // 1
+        fldList.add(EventData.FLD_statusCode);                           // 2
+        fldList.add(EventData.FLD_speedKPH);                             // 3
+        fldList.add(EventData.FLD_latitude);                             // 4
+        fldList.add(EventData.FLD_longitude);                            // 5
+        fldList.add(EventData.FLD_odometerKM);                           // 6
+        int colOdomOfs = 0, colDistance = 0, colFuel = 0, colAddress = 0;
+        if (hasOdomOfs ) { fldList.add(EventData.FLD_odometerOffsetKM); colOdomOfs  = fldList.size(); }
+        if (hasDistance) { fldList.add(EventData.FLD_distanceKM);       colDistance = fldList.size(); }
+        if (hasFuel    ) { fldList.add(EventData.FLD_fuelTotal);        colFuel     = fldList.size(); }
+        if (hasAddress ) { fldList.add(EventData.FLD_address);          colAddress  = fldList.size(); }
+        dsel.setSelectedFields(fldList.toArray(new String[fldList.size()]));
+
+        /* odometer offset (see "EventData.getOdometerOffsetKM(OdometerOffsetType)") */
+        EventData.OdometerOffsetType ofsType = EventData.GetDefaultOdometerOffsetType();
+        double devOdomOfsKM = device.getOdometerOffsetKM();
+
+        /* read columns */
+        DBConnection dbc  = null;
+        Statement    stmt = null;
+        ResultSet    rs   = null;
+        try {
+            dbc  = DBConnection.getDBConnection(rwMode);
+            stmt = dbc.execute(dsel.toString());
+            rs   = stmt.getResultSet();
+            while (rs.next()) {
+                if ((progress != null) && progress.isCancelled()) {
+                    break;
+                }
+                int n = cols._add();
+                cols.timestamp[n]  = rs.getLong(1);
+                cols.statusCode[n] = rs.getInt(2);
+                cols.speedKPH[n]   = rs.getDouble(3);
+                cols.latitude[n]   = rs.getDouble(4);
+                cols.longitude[n]  = rs.getDouble(5);
+                cols.odometerKM[n] = rs.getDouble(6);
+                double evOfsKM     = (colOdomOfs > 0)? rs.getDouble(colOdomOfs) : 0.0;
+                switch (ofsType) {
+                    case NONE        : cols.odomOfsKM[n] = 0.0;          break;
+                    case DEVICE_ONLY : cols.odomOfsKM[n] = devOdomOfsKM; break;
+                    case EVENT_ONLY  : cols.odomOfsKM[n] = evOfsKM;      break;
+                    default          : cols.odomOfsKM[n] = (evOfsKM != 0.0)? evOfsKM : devOdomOfsKM; break;
+                }
+                if (colDistance > 0) { cols.distanceKM[n] = rs.getDouble(colDistance); }
+                if (colFuel     > 0) { cols.fuelTotal[n]  = rs.getDouble(colFuel);     }
+                if (colAddress  > 0) { cols.address[n]    = rs.getString(colAddress);  }
+            }
+        } catch (SQLException sqe) {
+            throw new DBException("EventData columns", sqe);
+        } finally {
+            if (rs   != null) { try { rs.close();   } catch (Throwable t) {} }
+            if (stmt != null) { try { stmt.close(); } catch (Throwable t) {} }
+            DBConnection.release(dbc);
+        }
+
+        /* reorder descending selection ("LAST" limit type) */
+        if (!dsel.isOrderAscending()) {
+            cols._reverse();
+        }
+
+        /* progress */
+        if (progress != null) {
+            progress.addEvents(cols.size());
+        }
+
+        return cols;
+
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Segment class<br>
+    *** A single trip start/stop record (the arguments of "MotionReport._addRecord")
+    **/
+    public static class Segment
+    {
+        public long     startTime       = 0L;
+        public GeoPoint startPoint      = null;
+        public String   startAddress    = "";
+        public double   startOdometer   = 0.0;
+        public double   startOdomOfs    = 0.0;
+        public double   startFuel       = 0.0;
+        public long     stopTime        = 0L;
+        public GeoPoint stopPoint       = null;
+        public String   stopAddress     = "";
+        public String   startGeozoneID  = "";
+        public String   stopGeozoneID   = "";
+        public double   stopOdometer    = 0.0;
+        public double   stopOdomOfs     = 0.0;
+        public double   stopFuel        = 0.0;
+        public long     driveTime       = 0L;
+        public double   driveDist       = 0.0;
+        public double   fuelTrip        = 0.0;
+        public double   driveEcon       = 0.0;
+        public Device.FuelEconomyType driveEconType = Device.FuelEconomyType.UNKNOWN;
+        public long     stopElapse      = 0L;
+        public long     idleElapse      = 0L;
+        public double   fuelIdle        = 0.0;
+        public double   maxSpeedK       = 0.0;
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /* configuration */
+    private int                 tripStartType       = TRIP_ON_SPEED;
+    private int                 ignitionCodes[]     = null;
+    private boolean             legacyIdleDef       = false;
+    private double              minSpeedKPH         = 0.0;
+    private long                minStoppedTimeSec   = 0L;
+    private boolean             stopOnIgnitionOff   = false;
+    private long                rptLimit            = -1L;
+
+    /* segmentation state (event references are column indices, '-1' if undefined) */
+    private EventColumns        cols                = null;
+    private boolean             isIgnitionOn        = false;
+    private int                 lastIgnitionNdx     = -1;
+    private int                 idleStartNdx        = -1;
+    private int                 idleStopNdx         = -1;
+    private long                idleAccumulator     = 0L;
+    private double              maxAchievedSpeedK   = 0.0;
+    private boolean             isInMotion          = false;
+    private int                 lastMotionNdx       = -1;
+    private int                 pendingStopNdx      = -1;
+    private double              lastValidOdometerKM = 0.0;
+    private double              lastValidOdomOfsKM  = 0.0;
+    private int                 lastStateChange     = STATE_UNKNOWN;
+
+    private long                lastStartTime       = 0L;
+    private GeoPoint            lastStartPoint      = null;
+    private String              lastStartAddress    = "";
+    private double              lastStartOdometer   = 0.0;
+    private double              lastStartOdomOfs    = 0.0;
+    private double              lastStartFuelUsed   = 0.0;
+
+    private long                lastStopTime        = 0L;
+    private GeoPoint            lastStopPoint       = null;
+    private String              lastStopAddress     = "";
+    private double              lastStopOdometer    = 0.0;
+    private double              lastStopOdomOfs     = 0.0;
+    private double              lastStopFuelUsed    = 0.0;
+
+    private java.util.List<Segment> segments        = null;
+
+    /**
+    *** Constructor
+    *** @param tripStartType     The trip start type (TRIP_ON_...)
+    *** @param ignitionCodes     The Device ignition off/on status codes (may be null)
+    *** @param legacyIdleDef     True to use the legacy idle definition
+    *** @param minSpeedKPH       The minimum moving speed [TRIP_ON_SPEED only]
+    *** @param minStoppedTimeSec The minimum stopped time [TRIP_ON_SPEED only]
+    *** @param stopOnIgnitionOff True to delimit a stop with ignition off
+    *** @param rptLimit          The maximum number of segments (report limit)
+    **/
+    public MotionSegmentEngine(
+        int tripStartType, int ignitionCodes[],
+        boolean legacyIdleDef, double minSpeedKPH, long minStoppedTimeSec, 
+        boolean stopOnIgnitionOff, long rptLimit)
+    {
+        this.tripStartType     = tripStartType;
+        this.ignitionCodes     = ignitionCodes;
+        this.legacyIdleDef     = legacyIdleDef;
+        this.minSpeedKPH       = minSpeedKPH;
+        this.minStoppedTimeSec = minStoppedTimeSec;
+        this.stopOnIgnitionOff = stopOnIgnitionOff;
+        this.rptLimit          = rptLimit;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Segments the specified EventData columns into trip start/stop records, including 
+    *** the final (possibly still moving) trip record.
+    *** @param cols  The EventData columns, in ascending timestamp order
+    *** @return The list of trip segments (does not return null)
+    **/
+    public java.util.List<Segment> segment(EventColumns cols)
+    {
+        this.cols     = cols;
+        this.segments = new Vector<Segment>();
+        int count = (cols != null)? cols.size() : 0;
+        for (int i = 0; i < count; i++) {
+            this._segmentEvent(i);
+            if (this.segments.size() >= this.rptLimit) {
+                // -- report limit reached (see "MotionReport.handleDBRecord")
+                break;
+            }
+        }
+        this._segmentFinal();
+        java.util.List<Segment> segs = this.segments;
+        this.cols     = null;
+        this.segments = null;
+        return segs;
+    }
+
+    // ------------------------------------------------------------------------
+
+    private boolean isIgnitionOn(int statusCode)
+    {
+        return (this.ignitionCodes != null) && (statusCode == this.ignitionCodes[1]);
+    }
+
+    private boolean isIgnitionOff(int statusCode)
+    {
+        return (this.ignitionCodes != null) && (statusCode == this.ignitionCodes[0]);
+    }
+
+    /* odometer at event, or the last valid odometer */
+    private double _getOdometerKM(int ndx)
+    {
+        double odom = this.cols.getOdometerKM(ndx);
+        if (odom <= 0.0) {
+            odom = this.cols.getDistanceKM(ndx);
+            if (odom <= 0.0) {
+                odom = this.lastValidOdometerKM;
+            }
+        }
+        return odom;
+    }
+
+    /* odometer offset at event, or the last valid odometer offset */
+    private double _getOdometerOffsetKM(int ndx)
+    {
+        if ((this.cols.getOdometerKM(ndx) <= 0.0) && (this.cols.getDistanceKM(ndx) <= 0.0)) {
+            return this.lastValidOdomOfsKM;
+        } else {
+            return this.cols.getOdometerOffsetKM(ndx);
+        }
+    }
+
+    /* add trip segment */
+    private void _addSegment(
+        long   startTime , GeoPoint startGP, String startAddress, double startOdom, double startOdomOfs, double startFuel,
+        long   stopTime  , GeoPoint stopGP , String stopAddress , double stopOdom , double stopOdomOfs , double stopFuel ,
+        long   driveTime , double driveDist, double fuelTrip    , double driveEcon, Device.FuelEconomyType driveEconType,
+        long   stopElapse, long idleElapse , double fuelIdle    , double maxSpeedK)
+    {
+        Segment seg = new Segment();
+        seg.startTime     = startTime;
+        seg.startPoint    = startGP;
+        seg.startAddress  = startAddress;
+        seg.startOdometer = startOdom;
+        seg.startOdomOfs  = startOdomOfs;
+        seg.startFuel     = startFuel;
+        seg.stopTime      = stopTime;
+        seg.stopPoint     = stopGP;
+        seg.stopAddress   = stopAddress;
+        seg.stopOdometer  = stopOdom;
+        seg.stopOdomOfs   = stopOdomOfs;
+        seg.stopFuel      = stopFuel;
+        seg.driveTime     = driveTime;
+        seg.driveDist     = driveDist;
+        seg.fuelTrip      = fuelTrip;
+        seg.driveEcon     = driveEcon;
+        seg.driveEconType = driveEconType;
+        seg.stopElapse    = stopElapse;
+        seg.idleElapse    = idleElapse;
+        seg.fuelIdle      = fuelIdle;
+        seg.maxSpeedK     = maxSpeedK;
+        this.segments.add(seg);
+    }
+
+    // ------------------------------------------------------------------------
+
+    /* segment a single event (see "MotionReport.handleDBRecord") */
+    private void _segmentEvent(int evNdx)
+    {
+        EventColumns C  = this.cols;
+        int  statusCode = C.getStatusCode(evNdx);
+        double speedKPH = C.getSpeedKPH(evNdx);
+        boolean isMoving = (speedKPH > 0.0) && (speedKPH >= this.minSpeedKPH);
+
+        /* ignition state change for non-ignition trips */
+        boolean ignitionChange = false;
+        if ((this.tripStartType != TRIP_ON_IGNITION) && (this.ignitionCodes != null)) {
+            if (this.isIgnitionOff(statusCode)) {
+                if ((this.lastIgnitionNdx < 0) || this.isIgnitionOn) {
+                    ignitionChange       = true;
+                    this.isIgnitionOn    = false;
+                    this.lastIgnitionNdx = evNdx;
+                }
+            } else
+            if (this.isIgnitionOn(statusCode)) {
+                if ((this.lastIgnitionNdx < 0) || !this.isIgnitionOn) {
+                    ignitionChange       = true;
+                    this.isIgnitionOn    = true;
+                    this.lastIgnitionNdx = evNdx;
+                }
+            }
+        }
+
+        /* trip delimiter */
+        boolean isMotionStart = false;
+        boolean isMotionStop  = false;
+        boolean isIdleStart   = false;
+        boolean isIdleStop    = false;
+        switch (this.tripStartType) {
+
+            case TRIP_ON_IGNITION :
+                if (this.isIgnitionOn(statusCode)) {
+                    if ((this.lastIgnitionNdx < 0) || !this.isIgnitionOn) {
+                        ignitionChange       = true;
+                        this.isIgnitionOn    = true;
+                        this.lastIgnitionNdx = evNdx;
+                        isMotionStart        = true;
+                        this.isInMotion      = true;
+                        this.lastMotionNdx   = evNdx;
+                        if (this.legacyIdleDef) {
+                            this.idleStopNdx = -1;
+                        }
+                    }
+                } else
+                if (this.isIgnitionOff(statusCode)) {
+                    if ((this.lastIgnitionNdx < 0) || this.isIgnitionOn) {
+                        ignitionChange       = true;
+                        this.isIgnitionOn    = false;
+                        this.lastIgnitionNdx = evNdx;
+                        isMotionStop         = true;
+                        this.isInMotion      = false;
+                        this.lastMotionNdx   = evNdx;
+                        if (this.legacyIdleDef) {
+                            this.idleStartNdx = -1;
+                        }
+                    }
+                }
+                break;
+
+            case TRIP_ON_ENGINE :
+            case TRIP_ON_START  : {
+                boolean isEngine = (this.tripStartType == TRIP_ON_ENGINE);
+                int startCode = isEngine? StatusCodes.STATUS_ENGINE_START : StatusCodes.STATUS_MOTION_START;
+                int stopCode  = isEngine? StatusCodes.STATUS_ENGINE_STOP  : StatusCodes.STATUS_MOTION_STOP;
+                if (statusCode == startCode) {
+                    if (!this.isInMotion) {
+                        isMotionStart          = true;
+                        this.isInMotion        = true;
+                        this.lastMotionNdx     = evNdx;
+                        if (!this.isIgnitionOn) {
+                            this.isIgnitionOn    = true;
+                            this.lastIgnitionNdx = evNdx;
+                        }
+                        if (this.legacyIdleDef) {
+                            isIdleStop         = true;
+                            this.idleStopNdx   = evNdx;
+                        }
+                    }
+                } else
+                if (statusCode == stopCode) {
+                    if (this.isInMotion) {
+                        isMotionStop           = true;
+                        this.isInMotion        = false;
+                        this.lastMotionNdx     = evNdx;
+                        if (this.isIgnitionOn && (this.ignitionCodes == null)) {
+                            this.isIgnitionOn    = false;
+                            this.lastIgnitionNdx = evNdx;
+                        }
+                        if (this.legacyIdleDef) {
+                            isIdleStart        = true;
+                            this.idleStartNdx  = evNdx;
+                        }
+                    }
+                } else
+                if (this.isIgnitionOff(statusCode) && this.stopOnIgnitionOff) {
+                    if (this.isInMotion) {
+                        isMotionStop           = true;
+                        this.isInMotion        = false;
+                        this.lastMotionNdx     = evNdx;
+                    }
+                    if (this.legacyIdleDef) {
+                        isIdleStop             = true;
+                        this.idleStopNdx       = evNdx;
+                    }
+                } else
+                if (!this.isInMotion && this.legacyIdleDef) {
+                    if (this.isIgnitionOn(statusCode)) {
+                        isIdleStart            = true;
+                        this.idleStartNdx      = evNdx;
+                    } else
+                    if (this.isIgnitionOff(statusCode)) {
+                        isIdleStop             = true;
+                        this.idleStopNdx       = evNdx;
+                    }
+                }
+                } break;
+
+            case TRIP_ON_SPEED :
+                if (isMoving) {
+                    this.pendingStopNdx = -1; // always reset (for min stop time below)
+                    if (!this.isInMotion) {
+                        isMotionStart          = true;
+                        this.isInMotion        = true;
+                        this.lastMotionNdx     = evNdx;
+                        if (!this.isIgnitionOn) {
+                            this.isIgnitionOn    = true;
+                            this.lastIgnitionNdx = evNdx;
+                        }
+                        if (this.legacyIdleDef) {
+                            isIdleStop         = true;
+                            this.idleStopNdx   = evNdx;
+                        }
+                    }
+                } else
+                if (this.isInMotion) {
+                    if (this.minStoppedTimeSec <= 0L) {
+                        isMotionStop           = true;
+                        this.isInMotion        = false;
+                        this.lastMotionNdx     = evNdx;
+                        this.pendingStopNdx    = -1;
+                        if (this.legacyIdleDef) {
+                            isIdleStart        = true;
+                            this.idleStartNdx  = evNdx;
+                        }
+                    } else
+                    if (ignitionChange && !this.isIgnitionOn && this.stopOnIgnitionOff) {
+                        isMotionStop           = true;
+                        this.isInMotion        = false;
+                        this.lastMotionNdx     = (this.pendingStopNdx >= 0)? this.pendingStopNdx : evNdx;
+                        this.pendingStopNdx    = -1;
+                        if (this.legacyIdleDef) {
+                            isIdleStop         = true;
+                            this.idleStopNdx   = evNdx;
+                        }
+                    } else
+                    if (this.pendingStopNdx < 0) {
+                        // -- start the stopped-time clock
+                        this.pendingStopNdx    = evNdx;
+                    } else
+                    if ((C.getTimestamp(evNdx) - C.getTimestamp(this.pendingStopNdx)) >= this.minStoppedTimeSec) {
+                        // -- elapsed stop time exceeded limit
+                        isMotionStop           = true;
+                        this.isInMotion        = false;
+                        this.lastMotionNdx     = SPEED_RESET_STOP_TIME? evNdx : this.pendingStopNdx;
+                        this.pendingStopNdx    = -1;
+                        if (this.legacyIdleDef) {
+                            isIdleStart        = true;
+                            this.idleStartNdx  = evNdx;
+                        }
+                    }
+                } else
+                if (this.legacyIdleDef) {
+                    if (this.isIgnitionOn(statusCode)) {
+                        isIdleStart            = true;
+                        this.idleStartNdx      = evNdx;
+                    } else
+                    if (this.isIgnitionOff(statusCode)) {
+                        isIdleStop             = true;
+                        this.idleStopNdx       = evNdx;
+                    }
+                }
+                break;
+
+        }
+
+        /* new idle: 0-speed elapsed time between trip delimiters */
+        if (this.legacyIdleDef) {
+            // -- skip for legacy idle accumulation
+        } else
+        if (isMotionStart) {
+            if (!C.isValidGeoPoint(evNdx) || !isMoving) {
+                // -- no valid GPS, or stopped as motion occurred, start idle
+                isIdleStart       = true;
+                this.idleStartNdx = evNdx;
+            } else
+            if (this.idleStartNdx >= 0) {
+                // -- moving, stop idle
+                isIdleStop        = true;
+                this.idleStopNdx  = evNdx;
+            }
+        } else
+        if (this.isInMotion) {
+            if (this.isIgnitionOn && C.isValidGeoPoint(evNdx)) {
+                if (isMoving) {
+                    if (this.idleStartNdx >= 0) {
+                        isIdleStop        = true;
+                        this.idleStopNdx  = evNdx;
+                    }
+                } else
+                if (this.idleStartNdx < 0) {
+                    isIdleStart       = true;
+                    this.idleStartNdx = evNdx;
+                }
+            }
+        } else
+        if (isMotionStop) {
+            if (this.idleStartNdx >= 0) {
+                isIdleStop       = true;
+                this.idleStopNdx = evNdx;
+            }
+        }
+
+        /* accrue idle time ('idle' only valid if we have ignition codes) */
+        if ((this.ignitionCodes != null) && !isIdleStart && isIdleStop) {
+            if (this.idleStartNdx >= 0) {
+                this.idleAccumulator += C.getTimestamp(this.idleStopNdx) - C.getTimestamp(this.idleStartNdx);
+            }
+            this.idleStartNdx = -1;
+            this.idleStopNdx  = -1;
+        }
+
+        /* accrue maximum achieved speed */
+        if (speedKPH > this.maxAchievedSpeedK) {
+            this.maxAchievedSpeedK = speedKPH;
+        }
+
+        /* trip segments */
+        if (isMotionStart) {
+            int ev = this.lastMotionNdx; // start of motion
+            double maxSpeedK = (this.maxAchievedSpeedK > 0.0)? this.maxAchievedSpeedK : 0.0;
+
+            /* save previous stop */
+            if (this.lastStateChange == STATE_START) {
+                // -- abnormal start ==> start, treat this START event as a STOP event
+                long   stopTime    = C.getTimestamp(ev);
+                double stopOdom    = this._getOdometerKM(ev);
+                double stopOdomOfs = this._getOdometerOffsetKM(ev);
+                double stopFuel    = C.getFuelTotal(ev);
+                long   driveTime   = (this.lastStartTime > 0L)? (stopTime - this.lastStartTime)     : 0L;
+                double driveDist   = (this.lastStartTime > 0L)? (stopOdom - this.lastStartOdometer) : 0.0;
+                double fuelTrip    = (this.lastStartTime > 0L)? (stopFuel - this.lastStartFuelUsed) : 0.0;
+                double driveEcon   = (fuelTrip > 0.0)? (driveDist / fuelTrip) : -1.0;
+                this._addSegment(
+                    this.lastStartTime, this.lastStartPoint, this.lastStartAddress, this.lastStartOdometer, this.lastStartOdomOfs, this.lastStartFuelUsed,
+                    stopTime          , C.getGeoPoint(ev)  , C.getAddress(ev)     , stopOdom              , stopOdomOfs          , stopFuel              ,
+                    driveTime, driveDist, fuelTrip, driveEcon, Device.FuelEconomyType.FUEL_CONSUMED,
+                    0L, 0L, -1.0, maxSpeedK);
+            } else
+            if (this.lastStopTime > 0L) {
+                // -- normal start --> stop ==> start
+                long   driveTime   = (this.lastStartTime > 0L)? (this.lastStopTime     - this.lastStartTime)     : 0L;
+                double driveDist   = (this.lastStartTime > 0L)? (this.lastStopOdometer - this.lastStartOdometer) : -1.0;
+                double fuelTrip    = (this.lastStartTime > 0L)? (this.lastStopFuelUsed - this.lastStartFuelUsed) : -1.0;
+                double driveEcon   = (fuelTrip > 0.0)? (driveDist / fuelTrip) : 0.0;
+                long   stopElaps   = C.getTimestamp(ev) - this.lastStopTime;
+                long   idleElaps   = (this.idleAccumulator > 0L)? this.idleAccumulator : -1L;
+                this._addSegment(
+                    this.lastStartTime, this.lastStartPoint, this.lastStartAddress, this.lastStartOdometer, this.lastStartOdomOfs, this.lastStartFuelUsed,
+                    this.lastStopTime , this.lastStopPoint , this.lastStopAddress , this.lastStopOdometer , this.lastStopOdomOfs , this.lastStopFuelUsed ,
+                    driveTime, driveDist, fuelTrip, driveEcon, Device.FuelEconomyType.FUEL_CONSUMED,
+                    stopElaps, idleElaps, -1.0, maxSpeedK);
+            }
+
+            /* init for trip start */
+            this.lastStartTime      = C.getTimestamp(ev);
+            this.lastStartPoint     = C.getGeoPoint(ev);
+            this.lastStartAddress   = C.getAddress(ev);
+            this.lastStartOdometer  = this._getOdometerKM(ev);
+            this.lastStartOdomOfs   = this._getOdometerOffsetKM(ev);
+            this.lastStartFuelUsed  = C.getFuelTotal(ev);
+            this.lastStopTime       = 0L;
+            this.lastStopPoint      = null;
+            this.lastStopAddress    = null;
+            this.lastStopOdometer   = 0.0;
+            this.lastStopOdomOfs    = 0.0;
+            this.lastStopFuelUsed   = 0.0;
+            this.lastStateChange    = STATE_START;
+            this.idleAccumulator    = 0L;
+            this.maxAchievedSpeedK  = 0.0;
+
+        } else
+        if (isMotionStop) {
+            int ev = this.lastMotionNdx; // stop motion
+
+            /* check for abnormal previous stop condition */
+            int ign = this.lastIgnitionNdx;
+            if ((this.lastStateChange == STATE_STOP) && 
+                (this.lastStopTime > 0L) && (ign >= 0) && (C.getTimestamp(ign) > this.lastStopTime)) {
+                // -- abnormal start --> stop ==> stop, inject a START at the last ignition event
+                long   startTime   = C.getTimestamp(ign);
+                double startOdom   = this._getOdometerKM(ign);
+                double startFuel   = C.getFuelTotal(ign);
+                long   driveTime   = this.lastStopTime     - startTime;
+                double driveDist   = this.lastStopOdometer - startOdom;
+                double fuelTrip    = this.lastStopFuelUsed - startFuel;
+                double driveEcon   = (fuelTrip > 0.0)? (driveDist / fuelTrip) : 0.0;
+                long   stopElaps   = startTime - this.lastStopTime;
+                long   idleElaps   = (this.idleAccumulator > 0L)? this.idleAccumulator : -1L;
+                double maxSpeedK   = (this.maxAchievedSpeedK > 0.0)? this.maxAchievedSpeedK : 0.0;
+                this._addSegment(
+                    startTime        , C.getGeoPoint(ign) , C.getAddress(ign)    , startOdom            , this._getOdometerOffsetKM(ign), startFuel,
+                    this.lastStopTime, this.lastStopPoint , this.lastStopAddress , this.lastStopOdometer, this.lastStopOdomOfs, this.lastStopFuelUsed ,
+                    driveTime, driveDist, fuelTrip, driveEcon, Device.FuelEconomyType.FUEL_CONSUMED,
+                    stopElaps, idleElaps, -1.0, maxSpeedK);
+                this.isIgnitionOn = true; // force to true, since we simulated a 'START'
+            }
+
+            /* init for trip stop */
+            this.lastStopTime       = C.getTimestamp(ev);
+            this.lastStopPoint      = C.getGeoPoint(ev);
+            this.lastStopAddress    = C.getAddress(ev);
+            this.lastStopOdometer   = this._getOdometerKM(ev);
+            this.lastStopOdomOfs    = this._getOdometerOffsetKM(ev);
+            this.lastStopFuelUsed   = C.getFuelTotal(ev);
+            this.lastStateChange    = STATE_STOP;
+
+        }
+
+        /* cache previous valid odometer */
+        double odomKM = C.getOdometerKM(evNdx);
+        if (odomKM <= 0.0) {
+            odomKM = C.getDistanceKM(evNdx);
+        }
+        if (odomKM > 0.0) {
+            this.lastValidOdometerKM = odomKM;
+            this.lastValidOdomOfsKM  = C.getOdometerOffsetKM(evNdx);
+        }
+
+    }
+
+    /* final trip record (see "MotionReport.getBodyDataIterator") */
+    private void _segmentFinal()
+    {
+        double maxSpeedK = (this.maxAchievedSpeedK > 0.0)? this.maxAchievedSpeedK : 0.0;
+        if (this.lastStopTime > 0L) {
+            // -- we are stopped
+            long   driveTime = (this.lastStartTime > 0L)? (this.lastStopTime     - this.lastStartTime    ) : -1L;
+            double driveDist = (this.lastStartTime > 0L)? (this.lastStopOdometer - this.lastStartOdometer) : -1.0;
+            double fuelTrip  = (this.lastStartTime > 0L)? (this.lastStopFuelUsed - this.lastStartFuelUsed) : -1.0;
+            double driveEcon = (fuelTrip > 0.0)? (driveDist / fuelTrip) : 0.0;
+            long   idleElaps = (this.idleAccumulator > 0L)? this.idleAccumulator : -1L;
+            this._addSegment(
+                this.lastStartTime, this.lastStartPoint, this.lastStartAddress, this.lastStartOdometer, this.lastStartOdomOfs, this.lastStartFuelUsed,
+                this.lastStopTime , this.lastStopPoint , this.lastStopAddress , this.lastStopOdometer , this.lastStopOdomOfs , this.lastStopFuelUsed ,
+                driveTime, driveDist, fuelTrip, driveEcon, Device.FuelEconomyType.FUEL_CONSUMED,
+                -1L, idleElaps, -1.0, maxSpeedK);
+        } else
+        if (this.lastStartTime > 0L) {
+            // -- we haven't stopped during the range of this report
+            this._addSegment(
+                this.lastStartTime, this.lastStartPoint, this.lastStartAddress, this.lastStartOdometer, this.lastStartOdomOfs, this.lastStartFuelUsed,
+                -1L               , null               , ""                   , -1.0                  , 0.0                  , -1.0                  ,
+                -1L, -1.0, -1.0, -1.0, Device.FuelEconomyType.UNKNOWN,
+                -1L, -1L, -1.0, maxSpeedK);
+        }
+    }
+
+}
@@ -34,6 +34,8 @@
 //     -Initial support for PDF file output. (not yet fully supported)
 //  2016/12/20  Martin D. Flynn
 //     -Removed body text when sending HTML emailed reports [2.6.4-B44]
+//  2026/10/19  GTS Development Team
+//     -XLSX output is streamed to the OutputStream as rows are added (if supported)
 // ----------------------------------------------------------------------------
 package org.opengts.war.report.presentation;
 
@@ -908,6 +910,19 @@ public class ReportTable
         /* ReportSpreadsheet */
         ReportSpreadsheet rptSS = new ReportSpreadsheet(xlsx, rd);
 
+        /* stream rows directly to the output, if supported (streaming XLSX) */
+        OutputStream os = null;
+        if (xlsx) {
+            try {
+                os = out.getOutputStream();
+            } catch (IOException ioe) {
+                throw new ReportException("'OutputStream' error", ioe);
+            }
+            if (!rptSS.setOutputStream(os)) {
+                os = null; // spreadsheet retained until written below
+            }
+        }
+
         /* create XLS report */
         int rcdCount = 0;
         if (!rd.isSingleDeviceOnly() || (rd.getDeviceCount() <= 1)) {
@@ -929,11 +944,12 @@ public class ReportTable
         }
 
         /* write to output */
-        OutputStream os = null;
-        try {
-            os = out.getOutputStream();
-        } catch (IOException ioe) {
-            throw new ReportException("'OutputStream' error", ioe);
+        if (os == null) {
+            try {
+                os = out.getOutputStream();
+            } catch (IOException ioe) {
+                throw new ReportException("'OutputStream' error", ioe);
+            }
         }
         boolean ok = rptSS.write(os);
 
@@ -44,6 +44,8 @@
 //     -Added "map.showPushpins" property.
 //  2012/04/26  Martin D. Flynn
 //     -Added PROP_info_showOptionalFields, PROP_info_inclBlankOptFields
+//  2026/10/19  GTS Development Team
+//     -Added "map.simplify.pixels", "map.simplify.zoom" properties (route simplification)
 // ----------------------------------------------------------------------------
 package org.opengts.war.tools;
 
@@ -132,6 +134,8 @@ public interface MapProvider
     public static final String  PROP_map_routeLine_snapToRoad[] = new String[] { "map.routeLine.snapToRoad"                          };  // boolean (snap route-line to road) Google V2 only
     public static final String  PROP_map_view[]                 = new String[] { "map.view"                                          };  // String  (road|satellite|hybrid)
     public static final String  PROP_map_minProximity[]         = new String[] { "map.minProximity" /*meters*/                       };  // double  (mim meters between events)
+    public static final String  PROP_map_simplify_pixels[]      = new String[] { "map.simplify.pixels"                               };  // double  (route simplification tolerance pixels, 0=disabled)
+    public static final String  PROP_map_simplify_zoom[]        = new String[] { "map.simplify.zoom"                                 };  // double  (route simplification zoom, 0=fit events to map)
     public static final String  PROP_map_includeGeozones[]      = new String[] { "map.includeGeozones"    , "includeGeozones"        };  // boolean (include traversed Geozones)
     public static final String  PROP_pushpin_zoom[]             = new String[] { "pushpin.zoom"                                      };  // dbl/int (default zoom with points)
     public static final String  PROP_default_zoom[]             = new String[] { "default.zoom"                                      };  // dbl/int (default zoom without points)
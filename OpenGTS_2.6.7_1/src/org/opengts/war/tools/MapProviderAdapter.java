@@ -41,6 +41,8 @@
 //     -"getMaxPushpins" modified to support a 'report' type limit as well.
 //  2013/08/06  Martin D. Flynn
 //     -Fixed Legend localization
+//  2026/10/19  GTS Development Team
+//     -Added route simplification tolerance to "writeMapUpdate" (see "map.simplify.pixels")
 // ----------------------------------------------------------------------------
 package org.opengts.war.tools;
 
@@ -1219,6 +1221,32 @@ public abstract class MapProviderAdapter
             }
         }
 
+        /* route simplification tolerance (meters) */
+        double simplifyM  = 0.0;
+        double simplifyPx = mapRTP.getDouble(MapProvider.PROP_map_simplify_pixels, 0.0);
+        if ((simplifyPx > 0.0) && (ListTools.size(evdata) > 2)) {
+            GeoBounds gb = new GeoBounds();
+            for (EventDataProvider e : evdata) {
+                if (GeoPoint.isValid(e.getLatitude(),e.getLongitude())) {
+                    gb.extendByPoint(e);
+                }
+            }
+            if (gb.isValid()) {
+                double zoom = mapRTP.getDouble(MapProvider.PROP_map_simplify_zoom, 0.0);
+                double mpp;
+                if (zoom > 0.0) {
+                    // -- explicit zoom level
+                    mpp = TrackSimplifier.getMetersPerPixel(zoom, gb.getCenter().getLatitude());
+                } else {
+                    // -- zoom level at which all events fit within the map
+                    int W = this.getWidth();
+                    int H = this.getHeight();
+                    mpp = gb.getMetersPerPixel(((W > 0)? W : MapProvider.MAP_WIDTH), ((H > 0)? H : MapProvider.MAP_HEIGHT));
+                }
+                simplifyM = simplifyPx * mpp;
+            }
+        }
+
         /* return events */
         try {
             EventUtil evUtil = EventUtil.getInstance();
@@ -1250,7 +1278,7 @@ public abstract class MapProviderAdapter
                 isFleet, fleetRoute, selID,
                 tmz, 
                 acct, user,
-                latest, lastBatt, lastSig, proximityM);
+                latest, lastBatt, lastSig, proximityM, simplifyM);
         } catch (IOException ioe) {
             Print.logException("Error writing events", ioe);
             out.println("\nError writing Events"); // output is Mime type plain
@@ -71,6 +71,9 @@
 //     -Added LoginMessage page support [see PAGE_LOGIN_MSG]
 //     -Fixed RememberMe [2.6.7-B21f]
 //     -Fixed AccountManager/Account login when RememberMe selected [2.6.7-B24]
+//  2026/10/19  GTS Development Team
+//     -Initialize the queued report manager [see ReportQueueManager]
+//     -Stop the queued report manager on servlet "destroy"
 // ----------------------------------------------------------------------------
 package org.opengts.war.track;
 
@@ -107,6 +110,7 @@ import org.opengts.db.tables.*;
 import org.opengts.war.tools.*;
 import org.opengts.war.track.page.AccountLogin;
 import org.opengts.war.track.page.TrackMap;
+import org.opengts.war.report.ReportQueueManager;
 
 import org.opengts.war.ctrac.CelltracGTS;
 import org.opengts.war.ctrac.ServiceFactoryInterface;
@@ -280,11 +284,23 @@ public class Track
             REQUIRE_COOKIES = RTConfig.getBoolean(DBConfig.PROP_track_requireCookies,true);
         }
 
+        /* queued reports "ReportQueue.enabled" */
+        ReportQueueManager.Initialize();
+
         /* initialized */
         InitializedTime = DateTime.getCurrentTimeSec();
 
     };
 
+    /**
+    *** Servlet shutdown: stops the queued report manager [see ReportQueueManager]
+    **/
+    public void destroy()
+    {
+        ReportQueueManager.Shutdown();
+        super.destroy();
+    }
+
     // ------------------------------------------------------------------------
     // ------------------------------------------------------------------------
 
@@ -40,6 +40,8 @@
 //      allow for creating a report shortcut that can be placed on the main menu.
 //  2018/09/10  GTS Development Team
 //     -Fixed pop-up map CSS issue (CSS now written to map) [2.6.6-B48c]
+//  2026/10/19  GTS Development Team
+//     -Added queued (asynchronous) report support [see "r_async", "r_jobCmd"]
 // ----------------------------------------------------------------------------
 package org.opengts.war.track.page;
 
@@ -98,6 +100,17 @@ public class ReportDisplay
     public  static final String PARM_FORMAT[]               = ReportMenu.PARM_FORMAT;
     public  static final String PARM_MENU                   = ReportMenu.PARM_MENU;
 
+    // -- queued (asynchronous) reports [see ReportQueueManager]
+    public  static final String PARM_ASYNC                  = "r_async";
+    public  static final String PARM_PRIORITY               = "r_priority";
+    public  static final String PARM_JOB_ID                 = "r_jobID";
+    public  static final String PARM_JOB_CMD                = "r_jobCmd";
+
+    public  static final String JOB_CMD_STATUS              = "status";
+    public  static final String JOB_CMD_CANCEL              = "cancel";
+    public  static final String JOB_CMD_DOWNLOAD            = "download";
+    public  static final String JOB_CMD_LIST                = "list";
+
     public  static final String PROP_REPORT                 = "ReportID";
     public  static final String PROP_REPORT_OPT             = "ReportOption";
     public  static final String PROP_REPORT_TEXT            = "ReportText";
@@ -509,6 +522,121 @@ public class ReportDisplay
 
     // ------------------------------------------------------------------------
 
+    /* returns the JSON status of the specified queued report job */
+    private JSON._Object _getJobJSON(ReportQueue job)
+    {
+        JSON._Object jsonObj = new JSON._Object();
+        jsonObj.addKeyValue("jobID"      , job.getJobID());
+        jsonObj.addKeyValue("report"     , job.getReportID());
+        jsonObj.addKeyValue("format"     , job.getFormat());
+        jsonObj.addKeyValue("status"     , job.getJobStatusName());
+        jsonObj.addKeyValue("progress"   , job.getProgress(), "0.00");
+        jsonObj.addKeyValue("records"    , job.getRecordCount());
+        jsonObj.addKeyValue("size"       , job.getOutputSize());
+        jsonObj.addKeyValue("queuedTime" , job.getQueuedTime());
+        jsonObj.addKeyValue("startTime"  , job.getStartTime());
+        jsonObj.addKeyValue("endTime"    , job.getEndTime());
+        jsonObj.addKeyValue("message"    , job.getStatusMessage());
+        return jsonObj;
+    }
+
+    /* writes the JSON response */
+    private void _writeJSON(HttpServletResponse response, JSON._Object jsonObj)
+        throws IOException
+    {
+        CommonServlet.setResponseContentType(response, HTMLTools.MIME_JSON());
+        PrintWriter out = response.getWriter();
+        out.println(jsonObj.toString(true));
+        out.close();
+    }
+
+    /**
+    *** Handles a queued report job command ("status", "cancel", "download", "list").
+    *** Jobs are only visible to the User which submitted them, or to the "admin" User.
+    **/
+    private void _writeJobResponse(RequestProperties reqState, String jobCmd)
+        throws IOException
+    {
+        HttpServletRequest  request   = reqState.getHttpServletRequest();
+        HttpServletResponse response  = reqState.getHttpServletResponse();
+        String              accountID = reqState.getCurrentAccountID();
+        String              userID    = reqState.getCurrentUserID();
+        boolean             isAdmin   = User.isAdminUser(userID);
+        String              jobID     = AttributeTools.getRequestString(request, PARM_JOB_ID, "");
+        JSON._Object        jsonObj   = new JSON._Object();
+
+        /* list jobs */
+        if (jobCmd.equalsIgnoreCase(JOB_CMD_LIST)) {
+            JSON._Array jobList = new JSON._Array();
+            try {
+                ReportQueue jobs[] = ReportQueueManager.getJobs(accountID, (isAdmin? null : userID), 100L);
+                for (ReportQueue job : jobs) {
+                    jobList.addValue(this._getJobJSON(job));
+                }
+            } catch (DBException dbe) {
+                Print.logException("Reading ReportQueue jobs: " + accountID, dbe);
+            }
+            jsonObj.addKeyValue("jobs", jobList);
+            this._writeJSON(response, jsonObj);
+            return;
+        }
+
+        /* get job */
+        ReportQueue job = null;
+        try {
+            job = ReportQueueManager.getJob(accountID, jobID);
+        } catch (DBException dbe) {
+            Print.logException("Reading ReportQueue job: " + accountID + "/" + jobID, dbe);
+        }
+        if ((job != null) && !isAdmin && !job.getUserID().equals(userID)) {
+            job = null; // not owned by this user
+        }
+        if (job == null) {
+            jsonObj.addKeyValue("error", "Report job not found: " + jobID);
+            this._writeJSON(response, jsonObj);
+            return;
+        }
+
+        /* command */
+        if (jobCmd.equalsIgnoreCase(JOB_CMD_CANCEL)) {
+            // -- cancel job
+            ReportQueueManager.cancel(accountID, jobID);
+            try {
+                ReportQueue j = ReportQueueManager.getJob(accountID, jobID);
+                if (j != null) { job = j; }
+            } catch (DBException dbe) {
+                // -- ignore, return prior status
+            }
+            this._writeJSON(response, this._getJobJSON(job));
+        } else
+        if (jobCmd.equalsIgnoreCase(JOB_CMD_DOWNLOAD)) {
+            // -- download stored output
+            File file = new File(job.getOutputFile());
+            if ((job.getJobStatus() != ReportQueue.STATUS_COMPLETE) || !file.isFile()) {
+                jsonObj.addKeyValue("error", "Report output not available: " + jobID);
+                this._writeJSON(response, jsonObj);
+                return;
+            }
+            CommonServlet.setResponseContentType(response, ReportQueueManager.GetMimeType(job.getFormat()));
+            response.setHeader("Content-Disposition", "attachment; filename=" + job.getJobID() + "." + job.getFormat());
+            OutputStream out = response.getOutputStream();
+            InputStream in = null;
+            try {
+                in = new FileInputStream(file);
+                FileTools.copyStreams(in, out);
+            } finally {
+                if (in != null) { try { in.close(); } catch (Throwable th) {/*ignore*/} }
+            }
+            out.close();
+        } else {
+            // -- status
+            this._writeJSON(response, this._getJobJSON(job));
+        }
+
+    }
+
+    // ------------------------------------------------------------------------
+
     public void writePage(
         final RequestProperties reqState, 
         final String pageMsg)
@@ -522,6 +650,13 @@ public class ReportDisplay
         String m = pageMsg;
         boolean error = false;
 
+        /* queued report job command? */
+        String jobCmd = AttributeTools.getRequestString(request, PARM_JOB_CMD, "");
+        if (!StringTools.isBlank(jobCmd)) {
+            this._writeJobResponse(reqState, jobCmd);
+            return;
+        }
+
         /* report constraints */
         // -- Required parameters:
         // -    r_report    | rpt   = REPORT_ID
@@ -915,6 +1050,26 @@ public class ReportDisplay
         AttributeTools.setSessionAttribute(request, PARM_LIMIT[0]     , limitStr);  // not used
         AttributeTools.setSessionAttribute(request, PARM_LIMIT_TYPE[0], limTypStr); // not used
 
+        /* queued (asynchronous) report? */
+        // -- the report is run by the ReportQueueManager, and the output is retrieved
+        // -  later with "r_jobCmd=download"
+        if (AttributeTools.getRequestBoolean(request, PARM_ASYNC, false)) {
+            JSON._Object jsonObj = new JSON._Object();
+            try {
+                int priority = AttributeTools.getRequestInt(request, PARM_PRIORITY, ReportQueue.PRIORITY_NORMAL);
+                ReportQueue job = ReportQueueManager.submit(reqState,
+                    reportID, rptOption, deviceID, groupID,
+                    timeStart, timeEnd, tzStr,
+                    rptFormat, priority);
+                jsonObj = this._getJobJSON(job);
+            } catch (ReportException re) {
+                Print.logError("Unable to queue report: " + reportID + " [" + re.getMessage() + "]");
+                jsonObj.addKeyValue("error", re.getMessage());
+            }
+            this._writeJSON(response, jsonObj);
+            return;
+        }
+
         /* report post initialization */
         // -- After all external configuration and constraints have been set
         reportDta.postInitialize();
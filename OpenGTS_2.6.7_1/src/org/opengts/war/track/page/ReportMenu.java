@@ -38,6 +38,8 @@
 //     -Initial support for PDF file output.
 //  2013/08/06  Martin D. Flynn
 //     -Added "id=" attribute to "span" for report selection radio button.
+//  2026/10/19  GTS Development Team
+//     -Added "XLSX" output format option (streaming XLSX spreadsheet)
 // ----------------------------------------------------------------------------
 package org.opengts.war.track.page;
 
@@ -836,6 +838,7 @@ public class ReportMenu
             //ReportURL.hasFormatReadAccess(currUser, privLabel, this.getAclName(), ReportURL.FORMAT_XML);
         final boolean outFormat_XLS  = allowNonHtmlFormat && ReportSpreadsheet.IsExcelSpreadsheetSupported(); // &&
             //ReportURL.hasFormatReadAccess(currUser, privLabel, this.getAclName(), ReportURL.FORMAT_XML);
+        final boolean outFormat_XLSX = allowNonHtmlFormat && ReportSpreadsheet.IsStreamingXLSX(); // streaming XLSX
         final boolean outFormat_PDF  = false; // allowNonHtmlFormat && 
             //ReportURL.hasFormatReadAccess(currUser, privLabel, this.getAclName(), ReportURL.FORMAT_PDF);
 
@@ -1292,7 +1295,9 @@ public class ReportMenu
                 }
                 if (outFormat_XLS) {
                     out.write("      <option value='"+ReportURL.FORMAT_XLS +"'>XLS</option>\n");
-                  //out.write("      <option value='"+ReportURL.FORMAT_XLSX +"'>XLSX</option>\n");
+                }
+                if (outFormat_XLSX) {
+                    out.write("      <option value='"+ReportURL.FORMAT_XLSX +"'>XLSX</option>\n");
                 }
                 if (outFormat_EHTML) {
                     out.write("      <option value='"+ReportURL.FORMAT_EHTML+"'>EMail</option>\n");